@@ -34,6 +34,7 @@ plugins {
     alias(libs.plugins.owasp.dependencycheck)
     alias(libs.plugins.allopen)
     alias(libs.plugins.noarg)
+    alias(libs.plugins.jmh)
 }
 
 repositories {
@@ -200,6 +201,7 @@ dependencies {
     providedCompile(libs.jboss.resteasy.multipart.provider)
     providedCompile(libs.wildfly.security.elytron.http.oidc)
     providedCompile(libs.hibernate.validator)
+    providedCompile(libs.postgresql)
     // ~dependencies provided by WildFly
 
     testImplementation(libs.kotlinx.coroutines.test)
@@ -217,6 +219,9 @@ dependencies {
     testImplementation(libs.glassfish.expressly)
 
     jacocoAgentJarForItest(variantOf(libs.jacoco.agent) { classifier("runtime") })
+
+    // the benchmarks run outside WildFly, so they need the APIs that WildFly provides for the main code
+    jmhImplementation(libs.jakarta.jakartaee)
 }
 
 testing {
@@ -287,6 +292,13 @@ jacoco {
     toolVersion = libs.versions.jacoco.get()
 }
 
+// microbenchmarks in src/jmh, which are not part of the build and only run with `./gradlew jmh`
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    includeTests.set(false)
+    resultFormat.set("JSON")
+}
+
 java {
     // add our generated client code to the main source set
     sourceSets["main"].java
@@ -6,7 +6,6 @@ package nl.info.zac.itest
 
 import com.jsoizo.kotlincsv.CsvDialect
 import com.jsoizo.kotlincsv.csvReader
-import com.jsoizo.kotlincsv.reader.InsufficientFieldsRowBehaviour.EMPTY_STRING
 import io.github.oshai.kotlinlogging.KotlinLogging
 import io.kotest.core.spec.style.BehaviorSpec
 import io.kotest.matchers.collections.shouldContainExactly
@@ -66,12 +65,7 @@ class CsvRestServiceTest : BehaviorSpec({
         "uiterlijkeEinddatumAfdoening",
         "vertrouwelijkheidaanduiding",
         "zaakIndicaties",
-        "zaaktypeOmschrijving",
-        "aantalOpenstaandeTaken",
-        "afgehandeld",
-        "archiefActiedatum",
-        "archiefNominatie",
-        "bagObjectIDs"
+        "zaaktypeOmschrijving"
     )
 
     context("Export to CSV") {
@@ -128,9 +122,6 @@ class CsvRestServiceTest : BehaviorSpec({
 
                     val csvReader = csvReader {
                         dialect = CsvDialect(delimiter = ';')
-                        // the value rows in the zaken export CSVs contain values other than are
-                        // defined in the header row, so we convert them to empty strings
-                        insufficientFieldsRowBehaviour = EMPTY_STRING
                     }
                     val csvRows = csvReader.readAll(responseBody)
                     csvRows.size shouldBe 1 + 2 // header row + 2 zaak rows
@@ -144,10 +135,7 @@ class CsvRestServiceTest : BehaviorSpec({
                         this[headerRowFields.indexOf(CSV_FIELD_OBJECT_ID)] shouldBe zaak2Uuid.toString()
                     }
                     csvRows.filterIndexed { index, _ -> index > 0 }.forEach {
-                        // because we have set the insufficientFieldsRowBehaviour in our CSV reader to
-                        // set missing fields to empty strings, we expect the same number of fields
-                        // as in our header row
-                        // in reality we only have 36 fields in the value rows (strangely enough)
+                        // every value row has the same columns as the header row
                         it.size shouldBe headerRowFields.size
                         it[headerRowFields.indexOf(CSV_FIELD_AFGEHANDELD)] shouldBe "Nee"
                         it[headerRowFields.indexOf(CSV_FIELD_ARCHIEF_ACTIE_DATUM)] shouldBe ""
@@ -155,6 +143,40 @@ class CsvRestServiceTest : BehaviorSpec({
                     }
                 }
             }
+
+            `when`("a full CSV export is requested with a page size of one row for the same zaken") {
+                val response = itestHttpClient.performJSONPostRequest(
+                    url = "$ZAC_API_URI/csv/export/volledig",
+                    requestBodyAsString = """
+                        {
+                            "alleenMijnZaken": false,
+                            "alleenOpenstaandeZaken": true,
+                            "alleenAfgeslotenZaken": false,
+                            "alleenMijnTaken": false,
+                            "zoeken": {},
+                            "filters": {
+                                "ZAAK_IDENTIFICATIE": { "values": [ "$zaak1Identification", "$zaak2Identification" ] }
+                            },
+                            "datums": {},
+                            "rows": 1,
+                            "page": 0,
+                            "type": "ZAAK",
+                            "sorteerVeld": "ZAAK_IDENTIFICATIE",
+                            "sorteerRichting": "asc"
+                         }
+                    """.trimIndent(),
+                    testUser = BEHEERDER_1
+                )
+
+                then("the paging parameters are ignored and the CSV contains a row for both zaken") {
+                    response.code shouldBe HTTP_OK
+                    val csvRows = csvReader { dialect = CsvDialect(delimiter = ';') }.readAll(response.bodyAsString)
+                    csvRows.size shouldBe 1 + 2 // header row + 2 zaak rows
+                    csvRows[0] shouldContainExactly headerRowFields
+                    csvRows.drop(1).map { it[headerRowFields.indexOf(CSV_FIELD_IDENTIFICATIE)] } shouldContainExactly
+                        listOf(zaak1Identification, zaak2Identification)
+                }
+            }
         }
     }
 })
@@ -5,6 +5,7 @@
 package nl.info.zac.itest
 
 import io.github.oshai.kotlinlogging.KotlinLogging
+import io.kotest.assertions.nondeterministic.eventually
 import io.kotest.core.spec.style.BehaviorSpec
 import io.kotest.matchers.comparables.shouldBeGreaterThan
 import io.kotest.matchers.shouldBe
@@ -31,6 +32,7 @@ import java.net.HttpURLConnection.HTTP_NO_CONTENT
 import java.net.HttpURLConnection.HTTP_OK
 import java.net.URLEncoder
 import java.time.LocalDate
+import kotlin.time.Duration.Companion.seconds
 
 class MailRestServiceTest : BehaviorSpec({
     val logger = KotlinLogging.logger {}
@@ -86,42 +88,46 @@ class MailRestServiceTest : BehaviorSpec({
             }
 
             And("the received mail should contain the right details") {
-                val receivedMailsResponse = itestHttpClient.performGetRequest(
-                    url = "$GREENMAIL_API_URI/user/$receiverMail/messages/",
-                    testUser = BEHANDELAAR_1
-                )
-                receivedMailsResponse.code shouldBe HTTP_OK
+                eventually(10.seconds) {
+                    val receivedMailsResponse = itestHttpClient.performGetRequest(
+                        url = "$GREENMAIL_API_URI/user/$receiverMail/messages/",
+                        testUser = BEHANDELAAR_1
+                    )
+                    receivedMailsResponse.code shouldBe HTTP_OK
 
-                val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
-                with(receivedMails) {
-                    // if this same test is run multiple times while Docker Compose is kept running,
-                    // there may be multiple emails, so we check that at least one email was received
-                    val receivedMailsCount = length()
-                    receivedMailsCount shouldBeGreaterThan 0
-                    // we are only interested in the last received email
-                    with(getJSONObject(receivedMailsCount - 1)) {
-                        getString("subject") shouldBe "subject"
-                        getString("contentType") shouldStartWith "multipart/mixed"
-                        with(getString("mimeMessage")) {
-                            shouldContain(body)
-                            shouldContain("Content-Type: text/plain; charset=UTF-8;")
-                            shouldContain("name*=UTF-8''$urlEncodedFileName")
-                            shouldContain("Content-Disposition: attachment; filename*=UTF-8''$urlEncodedFileName")
+                    val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
+                    with(receivedMails) {
+                        // if this same test is run multiple times while Docker Compose is kept running,
+                        // there may be multiple emails, so we check that at least one email was received
+                        val receivedMailsCount = length()
+                        receivedMailsCount shouldBeGreaterThan 0
+                        // we are only interested in the last received email
+                        with(getJSONObject(receivedMailsCount - 1)) {
+                            getString("subject") shouldBe "subject"
+                            getString("contentType") shouldStartWith "multipart/mixed"
+                            with(getString("mimeMessage")) {
+                                shouldContain(body)
+                                shouldContain("Content-Type: text/plain; charset=UTF-8;")
+                                shouldContain("name*=UTF-8''$urlEncodedFileName")
+                                shouldContain("Content-Disposition: attachment; filename*=UTF-8''$urlEncodedFileName")
+                            }
                         }
                     }
                 }
             }
 
             And("the received mail body should not contain unresolved '{ZAAKDATA:' placeholders") {
-                val receivedMailsResponse = itestHttpClient.performGetRequest(
-                    url = "$GREENMAIL_API_URI/user/$receiverMail/messages/",
-                    testUser = BEHANDELAAR_1
-                )
-                receivedMailsResponse.code shouldBe HTTP_OK
-                val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
-                receivedMails.length() shouldBeGreaterThan 0
-                val lastMail = receivedMails.getJSONObject(receivedMails.length() - 1)
-                lastMail.getString("mimeMessage") shouldNotContain "{ZAAKDATA:"
+                eventually(10.seconds) {
+                    val receivedMailsResponse = itestHttpClient.performGetRequest(
+                        url = "$GREENMAIL_API_URI/user/$receiverMail/messages/",
+                        testUser = BEHANDELAAR_1
+                    )
+                    receivedMailsResponse.code shouldBe HTTP_OK
+                    val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
+                    receivedMails.length() shouldBeGreaterThan 0
+                    val lastMail = receivedMails.getJSONObject(receivedMails.length() - 1)
+                    lastMail.getString("mimeMessage") shouldNotContain "{ZAAKDATA:"
+                }
             }
 
             And(
@@ -202,18 +208,20 @@ class MailRestServiceTest : BehaviorSpec({
             ).also { response -> response.code shouldBe HTTP_NO_CONTENT }
 
             then("the received mail body should contain the resolved zaaktypeOmschrijving value") {
-                val receivedMailsResponse = itestHttpClient.performGetRequest(
-                    url = "$GREENMAIL_API_URI/user/$receiverMail/messages/",
-                    testUser = BEHANDELAAR_1
-                )
-                receivedMailsResponse.code shouldBe HTTP_OK
+                eventually(10.seconds) {
+                    val receivedMailsResponse = itestHttpClient.performGetRequest(
+                        url = "$GREENMAIL_API_URI/user/$receiverMail/messages/",
+                        testUser = BEHANDELAAR_1
+                    )
+                    receivedMailsResponse.code shouldBe HTTP_OK
 
-                val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
-                receivedMails.length() shouldBeGreaterThan 0
-                val lastMail = receivedMails.getJSONObject(receivedMails.length() - 1)
-                with(lastMail.getString("mimeMessage")) {
-                    shouldContain(ZAAKTYPE_CMMN_TEST_2_DESCRIPTION)
-                    shouldNotContain("{ZAAKDATA:")
+                    val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
+                    receivedMails.length() shouldBeGreaterThan 0
+                    val lastMail = receivedMails.getJSONObject(receivedMails.length() - 1)
+                    with(lastMail.getString("mimeMessage")) {
+                        shouldContain(ZAAKTYPE_CMMN_TEST_2_DESCRIPTION)
+                        shouldNotContain("{ZAAKDATA:")
+                    }
                 }
             }
         }
@@ -5,6 +5,7 @@
 package nl.info.zac.itest
 
 import io.github.oshai.kotlinlogging.KotlinLogging
+import io.kotest.assertions.nondeterministic.eventually
 import io.kotest.core.spec.style.BehaviorSpec
 import io.kotest.inspectors.forAtLeastOne
 import io.kotest.matchers.ints.shouldBeGreaterThan
@@ -75,6 +76,7 @@ import java.net.HttpURLConnection.HTTP_OK
 import java.time.ZoneId
 import java.time.ZonedDateTime
 import java.util.UUID
+import kotlin.time.Duration.Companion.seconds
 
 /**
  * This test tests the productaanvraag flow in ZAC for CMMN zaaktypes.
@@ -169,25 +171,27 @@ class NotificationProductaanvraagCmmnTest : BehaviorSpec({
                 And(
                     "an automated acknowledgement of receipt email is sent to the initiator's preferred email address"
                 ) {
-                    val receivedMailsResponse = itestHttpClient.performGetRequest(
-                        url = "$GREENMAIL_API_URI/user/$TEST_PERSON_HENDRIKA_JANSE_EMAIL/messages/"
-                    )
-                    logger.info { "Response: ${receivedMailsResponse.bodyAsString}" }
-                    receivedMailsResponse.code shouldBe HTTP_OK
-
-                    val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
-                    receivedMails.length() shouldBeGreaterThan 0
-                    (0 until receivedMails.length()).map { receivedMails.getJSONObject(it) }
-                        .forAtLeastOne { mail ->
-                            mail.getString("subject") shouldContain
-                                "Ontvangstbevestiging van zaak $ZAAK_PRODUCTAANVRAAG_1_IDENTIFICATION"
-                            mail.getString("contentType") shouldStartWith "multipart/mixed"
-                            with(mail.getString("mimeMessage")) {
-                                shouldContain("From: $CONFIG_GEMEENTE_NAAM <$TEST_GEMEENTE_EMAIL_ADDRESS>")
-                                shouldContain("Return-Path: <$TEST_GEMEENTE_EMAIL_ADDRESS>")
-                                shouldContain("Wij hebben uw verzoek ontvangen en deze op")
+                    eventually(10.seconds) {
+                        val receivedMailsResponse = itestHttpClient.performGetRequest(
+                            url = "$GREENMAIL_API_URI/user/$TEST_PERSON_HENDRIKA_JANSE_EMAIL/messages/"
+                        )
+                        logger.info { "Response: ${receivedMailsResponse.bodyAsString}" }
+                        receivedMailsResponse.code shouldBe HTTP_OK
+
+                        val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
+                        receivedMails.length() shouldBeGreaterThan 0
+                        (0 until receivedMails.length()).map { receivedMails.getJSONObject(it) }
+                            .forAtLeastOne { mail ->
+                                mail.getString("subject") shouldContain
+                                    "Ontvangstbevestiging van zaak $ZAAK_PRODUCTAANVRAAG_1_IDENTIFICATION"
+                                mail.getString("contentType") shouldStartWith "multipart/mixed"
+                                with(mail.getString("mimeMessage")) {
+                                    shouldContain("From: $CONFIG_GEMEENTE_NAAM <$TEST_GEMEENTE_EMAIL_ADDRESS>")
+                                    shouldContain("Return-Path: <$TEST_GEMEENTE_EMAIL_ADDRESS>")
+                                    shouldContain("Wij hebben uw verzoek ontvangen en deze op")
+                                }
                             }
-                        }
+                    }
                 }
             }
 
@@ -301,23 +305,25 @@ class NotificationProductaanvraagCmmnTest : BehaviorSpec({
                 And(
                     "an automated acknowledgement of receipt email is sent to productaanvraag-specific email address"
                 ) {
-                    val receivedMailsResponse = itestHttpClient.performGetRequest(
-                        url = "$GREENMAIL_API_URI/user/$ZAAK_PRODUCTAANVRAAG_4_REQUEST_SPECIFIC_EMAIL/messages/"
-                    )
-                    logger.info { "Response: ${receivedMailsResponse.bodyAsString}" }
-                    receivedMailsResponse.code shouldBe HTTP_OK
-
-                    val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
-                    with(receivedMails) {
-                        length() shouldBe 1
-                        with(getJSONObject(0)) {
-                            getString("subject") shouldContain
-                                "Ontvangstbevestiging van zaak $ZAAK_PRODUCTAANVRAAG_4_IDENTIFICATION"
-                            getString("contentType") shouldStartWith "multipart/mixed"
-                            with(getString("mimeMessage")) {
-                                shouldContain("From: $CONFIG_GEMEENTE_NAAM <$TEST_GEMEENTE_EMAIL_ADDRESS>")
-                                shouldContain("Return-Path: <$TEST_GEMEENTE_EMAIL_ADDRESS>")
-                                shouldContain("Wij hebben uw verzoek ontvangen en deze op")
+                    eventually(10.seconds) {
+                        val receivedMailsResponse = itestHttpClient.performGetRequest(
+                            url = "$GREENMAIL_API_URI/user/$ZAAK_PRODUCTAANVRAAG_4_REQUEST_SPECIFIC_EMAIL/messages/"
+                        )
+                        logger.info { "Response: ${receivedMailsResponse.bodyAsString}" }
+                        receivedMailsResponse.code shouldBe HTTP_OK
+
+                        val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
+                        with(receivedMails) {
+                            length() shouldBe 1
+                            with(getJSONObject(0)) {
+                                getString("subject") shouldContain
+                                    "Ontvangstbevestiging van zaak $ZAAK_PRODUCTAANVRAAG_4_IDENTIFICATION"
+                                getString("contentType") shouldStartWith "multipart/mixed"
+                                with(getString("mimeMessage")) {
+                                    shouldContain("From: $CONFIG_GEMEENTE_NAAM <$TEST_GEMEENTE_EMAIL_ADDRESS>")
+                                    shouldContain("Return-Path: <$TEST_GEMEENTE_EMAIL_ADDRESS>")
+                                    shouldContain("Wij hebben uw verzoek ontvangen en deze op")
+                                }
                             }
                         }
                     }
@@ -394,25 +400,27 @@ class NotificationProductaanvraagCmmnTest : BehaviorSpec({
                 And(
                     "an automated acknowledgement of receipt email is sent to the initiator's saved preferred email address"
                 ) {
-                    val receivedMailsResponse = itestHttpClient.performGetRequest(
-                        url = "$GREENMAIL_API_URI/user/$TEST_PERSON_ANITA_VAN_BUREN_EMAIL/messages/"
-                    )
-                    logger.info { "Response: ${receivedMailsResponse.bodyAsString}" }
-                    receivedMailsResponse.code shouldBe HTTP_OK
-
-                    val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
-                    receivedMails.length() shouldBeGreaterThan 0
-                    (0 until receivedMails.length()).map { receivedMails.getJSONObject(it) }
-                        .forAtLeastOne { mail ->
-                            mail.getString("subject") shouldContain
-                                "Ontvangstbevestiging van zaak $ZAAK_PRODUCTAANVRAAG_5_IDENTIFICATION"
-                            mail.getString("contentType") shouldStartWith "multipart/mixed"
-                            with(mail.getString("mimeMessage")) {
-                                shouldContain("From: $CONFIG_GEMEENTE_NAAM <$TEST_GEMEENTE_EMAIL_ADDRESS>")
-                                shouldContain("Return-Path: <$TEST_GEMEENTE_EMAIL_ADDRESS>")
-                                shouldContain("Wij hebben uw verzoek ontvangen en deze op")
+                    eventually(10.seconds) {
+                        val receivedMailsResponse = itestHttpClient.performGetRequest(
+                            url = "$GREENMAIL_API_URI/user/$TEST_PERSON_ANITA_VAN_BUREN_EMAIL/messages/"
+                        )
+                        logger.info { "Response: ${receivedMailsResponse.bodyAsString}" }
+                        receivedMailsResponse.code shouldBe HTTP_OK
+
+                        val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
+                        receivedMails.length() shouldBeGreaterThan 0
+                        (0 until receivedMails.length()).map { receivedMails.getJSONObject(it) }
+                            .forAtLeastOne { mail ->
+                                mail.getString("subject") shouldContain
+                                    "Ontvangstbevestiging van zaak $ZAAK_PRODUCTAANVRAAG_5_IDENTIFICATION"
+                                mail.getString("contentType") shouldStartWith "multipart/mixed"
+                                with(mail.getString("mimeMessage")) {
+                                    shouldContain("From: $CONFIG_GEMEENTE_NAAM <$TEST_GEMEENTE_EMAIL_ADDRESS>")
+                                    shouldContain("Return-Path: <$TEST_GEMEENTE_EMAIL_ADDRESS>")
+                                    shouldContain("Wij hebben uw verzoek ontvangen en deze op")
+                                }
                             }
-                        }
+                    }
                 }
             }
         }
@@ -486,23 +494,25 @@ class NotificationProductaanvraagCmmnTest : BehaviorSpec({
                 }
 
                 And("an automated email is sent") {
-                    val receivedMailsResponse = itestHttpClient.performGetRequest(
-                        url = "$GREENMAIL_API_URI/user/$TEST_KVK_EMAIL/messages/",
-                        testUser = RAADPLEGER_1
-                    )
-                    receivedMailsResponse.code shouldBe HTTP_OK
-
-                    val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
-                    with(receivedMails) {
-                        length() shouldBe 1
-                        with(getJSONObject(0)) {
-                            getString("subject") shouldContain
-                                "Ontvangstbevestiging van zaak $ZAAK_PRODUCTAANVRAAG_2_IDENTIFICATION"
-                            getString("contentType") shouldStartWith "multipart/mixed"
-                            with(getString("mimeMessage")) {
-                                shouldContain("From: $CONFIG_GEMEENTE_NAAM <$TEST_GEMEENTE_EMAIL_ADDRESS")
-                                shouldContain("Return-Path: <$TEST_GEMEENTE_EMAIL_ADDRESS>")
-                                shouldContain("Wij hebben uw verzoek ontvangen en deze op")
+                    eventually(10.seconds) {
+                        val receivedMailsResponse = itestHttpClient.performGetRequest(
+                            url = "$GREENMAIL_API_URI/user/$TEST_KVK_EMAIL/messages/",
+                            testUser = RAADPLEGER_1
+                        )
+                        receivedMailsResponse.code shouldBe HTTP_OK
+
+                        val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
+                        with(receivedMails) {
+                            length() shouldBe 1
+                            with(getJSONObject(0)) {
+                                getString("subject") shouldContain
+                                    "Ontvangstbevestiging van zaak $ZAAK_PRODUCTAANVRAAG_2_IDENTIFICATION"
+                                getString("contentType") shouldStartWith "multipart/mixed"
+                                with(getString("mimeMessage")) {
+                                    shouldContain("From: $CONFIG_GEMEENTE_NAAM <$TEST_GEMEENTE_EMAIL_ADDRESS")
+                                    shouldContain("Return-Path: <$TEST_GEMEENTE_EMAIL_ADDRESS>")
+                                    shouldContain("Wij hebben uw verzoek ontvangen en deze op")
+                                }
                             }
                         }
                     }
@@ -729,23 +739,25 @@ class NotificationProductaanvraagCmmnTest : BehaviorSpec({
                 }
 
                 And("an automated acknowledgement of receipt email is sent to alternative email address") {
-                    val receivedMailsResponse = itestHttpClient.performGetRequest(
-                        url = "$GREENMAIL_API_URI/user/$ZAAK_PRODUCTAANVRAAG_3_REQUEST_SPECIFIC_EMAIL/messages/"
-                    )
-                    logger.info { "Response: ${receivedMailsResponse.bodyAsString}" }
-                    receivedMailsResponse.code shouldBe HTTP_OK
-
-                    val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
-                    with(receivedMails) {
-                        length() shouldBe 1
-                        with(getJSONObject(0)) {
-                            getString("subject") shouldContain
-                                "Ontvangstbevestiging van zaak $ZAAK_PRODUCTAANVRAAG_3_IDENTIFICATION"
-                            getString("contentType") shouldStartWith "multipart/mixed"
-                            with(getString("mimeMessage")) {
-                                shouldContain("From: $CONFIG_GEMEENTE_NAAM <$TEST_GEMEENTE_EMAIL_ADDRESS>")
-                                shouldContain("Return-Path: <$TEST_GEMEENTE_EMAIL_ADDRESS>")
-                                shouldContain("Wij hebben uw verzoek ontvangen en deze op")
+                    eventually(10.seconds) {
+                        val receivedMailsResponse = itestHttpClient.performGetRequest(
+                            url = "$GREENMAIL_API_URI/user/$ZAAK_PRODUCTAANVRAAG_3_REQUEST_SPECIFIC_EMAIL/messages/"
+                        )
+                        logger.info { "Response: ${receivedMailsResponse.bodyAsString}" }
+                        receivedMailsResponse.code shouldBe HTTP_OK
+
+                        val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
+                        with(receivedMails) {
+                            length() shouldBe 1
+                            with(getJSONObject(0)) {
+                                getString("subject") shouldContain
+                                    "Ontvangstbevestiging van zaak $ZAAK_PRODUCTAANVRAAG_3_IDENTIFICATION"
+                                getString("contentType") shouldStartWith "multipart/mixed"
+                                with(getString("mimeMessage")) {
+                                    shouldContain("From: $CONFIG_GEMEENTE_NAAM <$TEST_GEMEENTE_EMAIL_ADDRESS>")
+                                    shouldContain("Return-Path: <$TEST_GEMEENTE_EMAIL_ADDRESS>")
+                                    shouldContain("Wij hebben uw verzoek ontvangen en deze op")
+                                }
                             }
                         }
                     }
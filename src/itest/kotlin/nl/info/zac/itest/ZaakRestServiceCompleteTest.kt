@@ -9,6 +9,7 @@ import io.github.oshai.kotlinlogging.KotlinLogging
 import io.kotest.assertions.json.shouldContainJsonKey
 import io.kotest.assertions.json.shouldContainJsonKeyValue
 import io.kotest.assertions.json.shouldNotContainJsonKey
+import io.kotest.assertions.nondeterministic.eventually
 import io.kotest.core.spec.style.BehaviorSpec
 import io.kotest.matchers.shouldBe
 import io.kotest.matchers.string.shouldContain
@@ -30,6 +31,7 @@ import org.json.JSONObject
 import java.net.HttpURLConnection.HTTP_NO_CONTENT
 import java.net.HttpURLConnection.HTTP_OK
 import java.util.UUID
+import kotlin.time.Duration.Companion.seconds
 
 /**
  * This test creates a zaak, adds a task to complete the intake phase, closes the zaak, then re-opens and again closes the zaak.
@@ -289,22 +291,24 @@ class ZaakRestServiceCompleteTest : BehaviorSpec({
             }
 
             then("email should be sent with correct details") {
-                val receivedMailsResponse = itestHttpClient.performGetRequest(
-                    url = "$GREENMAIL_API_URI/user/$receiverMail/messages/"
-                )
-                receivedMailsResponse.code shouldBe HTTP_OK
+                eventually(10.seconds) {
+                    val receivedMailsResponse = itestHttpClient.performGetRequest(
+                        url = "$GREENMAIL_API_URI/user/$receiverMail/messages/"
+                    )
+                    receivedMailsResponse.code shouldBe HTTP_OK
 
-                val responseBody = receivedMailsResponse.bodyAsString
-                logger.info { "Response: $responseBody" }
-                with(JSONArray(responseBody)) {
-                    length() shouldBe 1
-                    with(getJSONObject(0)) {
-                        getString("subject") shouldBe "closed zaak subject"
-                        getString("contentType") shouldStartWith "multipart/mixed"
-                        with(getString("mimeMessage")) {
-                            shouldContain(senderMail)
-                            shouldContain(receiverMail)
-                            shouldContain(mailBody)
+                    val responseBody = receivedMailsResponse.bodyAsString
+                    logger.info { "Response: $responseBody" }
+                    with(JSONArray(responseBody)) {
+                        length() shouldBe 1
+                        with(getJSONObject(0)) {
+                            getString("subject") shouldBe "closed zaak subject"
+                            getString("contentType") shouldStartWith "multipart/mixed"
+                            with(getString("mimeMessage")) {
+                                shouldContain(senderMail)
+                                shouldContain(receiverMail)
+                                shouldContain(mailBody)
+                            }
                         }
                     }
                 }
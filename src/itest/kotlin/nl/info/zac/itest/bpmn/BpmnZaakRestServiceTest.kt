@@ -201,17 +201,19 @@ class BpmnZaakRestServiceTest : BehaviorSpec({
             }
 
             And("the send email service task sent an email") {
-                val receivedMailsResponse = itestHttpClient.performGetRequest(
-                    url = "${ItestConfiguration.GREENMAIL_API_URI}/user/test-2@example.com/messages/",
-                    testUser = BEHANDELAAR_1
-                )
-                receivedMailsResponse.code shouldBe HttpURLConnection.HTTP_OK
+                eventually(10.seconds) {
+                    val receivedMailsResponse = itestHttpClient.performGetRequest(
+                        url = "${ItestConfiguration.GREENMAIL_API_URI}/user/test-2@example.com/messages/",
+                        testUser = BEHANDELAAR_1
+                    )
+                    receivedMailsResponse.code shouldBe HttpURLConnection.HTTP_OK
 
-                val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
-                with(receivedMails) {
-                    length() shouldBe 1
-                    with(getJSONObject(0)) {
-                        getString("subject") shouldContain "Informatie over zaak ZAAK-"
+                    val receivedMails = JSONArray(receivedMailsResponse.bodyAsString)
+                    with(receivedMails) {
+                        length() shouldBe 1
+                        with(getJSONObject(0)) {
+                            getString("subject") shouldContain "Informatie over zaak ZAAK-"
+                        }
                     }
                 }
             }
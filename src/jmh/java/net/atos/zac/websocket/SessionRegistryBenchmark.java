@@ -0,0 +1,203 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+
+package net.atos.zac.websocket;
+
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import jakarta.websocket.Session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.atos.zac.event.Opcode;
+import net.atos.zac.websocket.event.ScreenEvent;
+import net.atos.zac.websocket.event.ScreenEventId;
+import net.atos.zac.websocket.event.ScreenEventType;
+
+/**
+ * Measures the throughput of publishing screen events, i.e. of looking up the sessions that are subscribed to an event
+ * and handing the event to each of them, while other users subscribe and unsubscribe at the same time.
+ * <p>
+ * Every user has a session that is subscribed to the zaak it works on with an exact subscription, and to the taak it
+ * works on with an {@link Opcode#ANY}/{@link ScreenEventType#ANY} wildcard subscription, which is what the screens of
+ * ZAC do. Several users work on the same zaak or taak. The {@code registry} parameter selects the current
+ * {@link SessionRegistry} or the {@link HashMultimapSessionRegistry} it replaced, so that a single run reports the
+ * numbers of both next to each other:
+ *
+ * <pre>
+ * ./gradlew jmh
+ * </pre>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionRegistryBenchmark {
+
+    private static final int USERS_PER_OBJECT = 5;
+
+    @Param({"ConcurrentHashMap", "HashMultimap"})
+    public String registry;
+
+    @Param({"1500"})
+    public int users;
+
+    private Registry sessionRegistry;
+
+    private Session[] sessions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionRegistry = switch (registry) {
+            case "ConcurrentHashMap" -> new CurrentRegistry(new SessionRegistry());
+            case "HashMultimap" -> new BaselineRegistry(new HashMultimapSessionRegistry());
+            default -> throw new IllegalArgumentException("Unknown registry '%s'".formatted(registry));
+        };
+        sessions = IntStream.range(0, users).mapToObj(SessionRegistryBenchmark::createSession).toArray(Session[]::new);
+        for (int user = 0; user < users; user++) {
+            sessionRegistry.create(zaakSubscription(user / USERS_PER_OBJECT), sessions[user]);
+            sessionRegistry.create(taakSubscription(user / USERS_PER_OBJECT), sessions[user]);
+        }
+    }
+
+    /**
+     * Publishes an update of a zaak, to which sessions are subscribed with exact subscriptions.
+     */
+    @Benchmark
+    @Group("publish")
+    @GroupThreads(3)
+    public void publishToExactSubscriptions(final Blackhole blackhole) {
+        publish(new ScreenEvent(Opcode.UPDATED, ScreenEventType.ZAAK, new ScreenEventId(zaak(randomObject()), null)), blackhole);
+    }
+
+    /**
+     * Publishes an update of a taak, to which sessions are subscribed with wildcard subscriptions.
+     */
+    @Benchmark
+    @Group("publish")
+    @GroupThreads(3)
+    public void publishToWildcardSubscriptions(final Blackhole blackhole) {
+        publish(new ScreenEvent(Opcode.UPDATED, ScreenEventType.TAAK, new ScreenEventId(taak(randomObject()), null)), blackhole);
+    }
+
+    /**
+     * Lets a user move to another zaak and taak while the events are published, as users do when they navigate.
+     */
+    @Benchmark
+    @Group("publish")
+    @GroupThreads(2)
+    public void subscribeAndUnsubscribe() {
+        final int user = ThreadLocalRandom.current().nextInt(users);
+        final int object = randomObject();
+        sessionRegistry.delete(zaakSubscription(user / USERS_PER_OBJECT), sessions[user]);
+        sessionRegistry.delete(taakSubscription(user / USERS_PER_OBJECT), sessions[user]);
+        sessionRegistry.create(zaakSubscription(object), sessions[user]);
+        sessionRegistry.create(taakSubscription(object), sessions[user]);
+        sessionRegistry.delete(zaakSubscription(object), sessions[user]);
+        sessionRegistry.delete(taakSubscription(object), sessions[user]);
+        sessionRegistry.create(zaakSubscription(user / USERS_PER_OBJECT), sessions[user]);
+        sessionRegistry.create(taakSubscription(user / USERS_PER_OBJECT), sessions[user]);
+    }
+
+    private void publish(final ScreenEvent event, final Blackhole blackhole) {
+        // the way ScreenEventBus hands an event to the subscribed sessions
+        sessionRegistry.listSessions(event).forEach(blackhole::consume);
+    }
+
+    private int randomObject() {
+        return ThreadLocalRandom.current().nextInt(users / USERS_PER_OBJECT);
+    }
+
+    private static ScreenEvent zaakSubscription(final int object) {
+        return new ScreenEvent(Opcode.UPDATED, ScreenEventType.ZAAK, new ScreenEventId(zaak(object), null));
+    }
+
+    private static ScreenEvent taakSubscription(final int object) {
+        return new ScreenEvent(Opcode.ANY, ScreenEventType.ANY, new ScreenEventId(taak(object), null));
+    }
+
+    private static String zaak(final int object) {
+        return "zaak-" + object;
+    }
+
+    private static String taak(final int object) {
+        return "taak-" + object;
+    }
+
+    private static Session createSession(final int user) {
+        return (Session) Proxy.newProxyInstance(
+                Session.class.getClassLoader(),
+                new Class<?>[] {Session.class},
+                (proxy, method, arguments) -> switch (method.getName()) {
+                    case "equals" -> proxy == arguments[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "session-" + user;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+    }
+
+    private interface Registry {
+        Set<Session> listSessions(ScreenEvent event);
+
+        void create(ScreenEvent wildcarded, Session session);
+
+        void delete(ScreenEvent wildcarded, Session session);
+    }
+
+    private record CurrentRegistry(SessionRegistry registry) implements Registry {
+        @Override
+        public Set<Session> listSessions(final ScreenEvent event) {
+            return registry.listSessions(event);
+        }
+
+        @Override
+        public void create(final ScreenEvent wildcarded, final Session session) {
+            registry.create(wildcarded, session);
+        }
+
+        @Override
+        public void delete(final ScreenEvent wildcarded, final Session session) {
+            registry.delete(wildcarded, session);
+        }
+    }
+
+    private record BaselineRegistry(HashMultimapSessionRegistry registry) implements Registry {
+        @Override
+        public Set<Session> listSessions(final ScreenEvent event) {
+            return registry.listSessions(event);
+        }
+
+        @Override
+        public void create(final ScreenEvent wildcarded, final Session session) {
+            registry.create(wildcarded, session);
+        }
+
+        @Override
+        public void delete(final ScreenEvent wildcarded, final Session session) {
+            registry.delete(wildcarded, session);
+        }
+    }
+}
@@ -23,5 +23,6 @@ export enum ObjectType {
   ZAKEN_SIGNALERINGEN = "ZAKEN_SIGNALERINGEN",
   TAKEN_VERDELEN = "TAKEN_VERDELEN",
   TAKEN_VRIJGEVEN = "TAKEN_VRIJGEVEN",
+  VOORTGANG = "VOORTGANG",
   ANY = "ANY",
 }
@@ -25,7 +25,9 @@ export class CsvService {
     zoekParameters: GeneratedType<"RestZoekParameters">,
   ): Observable<Blob> {
     return this.http
-      .post(`${this.basepath}/export`, zoekParameters, { responseType: "blob" })
+      .post(`${this.basepath}/export/volledig`, zoekParameters, {
+        responseType: "blob",
+      })
       .pipe(
         catchError((err) => this.foutAfhandelingService.foutAfhandelen(err)),
       );
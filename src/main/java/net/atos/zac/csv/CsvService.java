@@ -5,16 +5,15 @@
 
 package net.atos.zac.csv;
 
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.OutputStreamWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.ws.rs.core.StreamingOutput;
 
@@ -24,6 +23,7 @@ import com.opencsv.CSVWriter;
 
 import nl.info.zac.search.model.ZoekResultaat;
 import nl.info.zac.search.model.zoekobject.ZoekObject;
+import nl.info.zac.search.model.zoekobject.ZoekObjectType;
 
 public class CsvService {
     private final static char SEPARATOR = ';';
@@ -41,39 +41,36 @@ public class CsvService {
             "zaaktypeIdentificatie"
     );
 
-    public StreamingOutput exportToCsv(final ZoekResultaat<? extends ZoekObject> zoekResultaat) {
-        final AtomicInteger headerCounter = new AtomicInteger();
-        final List<String> headers = new ArrayList<>();
-        final List<String[]> records = new ArrayList<>();
-        zoekResultaat.getItems().forEach(zoekObject -> {
-            try {
-                final List<String> record = new ArrayList<>();
-                final BeanInfo beanInfo = Introspector.getBeanInfo(zoekObject.getClass());
-                for (final PropertyDescriptor property : beanInfo.getPropertyDescriptors()) {
-                    if (uitzonderingen.contains(property.getName()) || property.getReadMethod() == null) {
-                        continue;
-                    }
-                    final Method getter = property.getReadMethod();
-                    if (headerCounter.get() < beanInfo.getPropertyDescriptors().length) {
-                        headerCounter.getAndIncrement();
-                        headers.add(property.getDisplayName());
-                    }
-                    if (getter != null) {
-                        final Object value = getter.invoke(zoekObject);
+    /**
+     * The columns per type of zoek object, which are determined only once using introspection.
+     */
+    private final static Map<ZoekObjectType, List<Column>> columnsPerType = new ConcurrentHashMap<>();
 
-                        if (value instanceof Boolean) {
-                            record.add((Boolean) value ? "Ja" : "Nee");
-                        } else {
-                            record.add(value != null ? value.toString() : StringUtils.EMPTY);
-                        }
-                    }
+    private record Column(String header, Method getter) {
+        String read(final ZoekObject zoekObject) {
+            try {
+                final Object value = getter.invoke(zoekObject);
+                if (value instanceof Boolean) {
+                    return (Boolean) value ? "Ja" : "Nee";
                 }
-                records.add(record.toArray(new String[0]));
-            } catch (final IntrospectionException | InvocationTargetException | IllegalAccessException e) {
+                return value != null ? value.toString() : StringUtils.EMPTY;
+            } catch (final InvocationTargetException | IllegalAccessException e) {
                 throw new RuntimeException(e);
             }
-        });
+        }
+    }
 
+    public StreamingOutput exportToCsv(final ZoekResultaat<? extends ZoekObject> zoekResultaat) {
+        return exportToCsv(List.of(zoekResultaat.getItems()));
+    }
+
+    /**
+     * Writes the zoek objecten to CSV page by page. Each page is written and flushed before the next page is
+     * retrieved from the given pages, so that a lazily retrieved export is sent while it is being retrieved
+     * and only one page is held in memory at a time.
+     * The header row contains the columns of the first zoek object.
+     */
+    public StreamingOutput exportToCsv(final Iterable<? extends List<? extends ZoekObject>> pages) {
         return outputStream -> {
             try (final CSVWriter writer = new CSVWriter(
                     new OutputStreamWriter(outputStream),
@@ -82,11 +79,39 @@ public class CsvService {
                     QUOTE_ESCAPE_CHAR,
                     LINE_END
             )) {
-                writer.writeNext(headers.toArray(new String[0]));
-                writer.writeAll(records);
+                boolean headerWritten = false;
+                for (final List<? extends ZoekObject> page : pages) {
+                    for (final ZoekObject zoekObject : page) {
+                        final List<Column> columns = getColumns(zoekObject.getType());
+                        if (!headerWritten) {
+                            writer.writeNext(columns.stream().map(Column::header).toArray(String[]::new));
+                            headerWritten = true;
+                        }
+                        writer.writeNext(columns.stream().map(column -> column.read(zoekObject)).toArray(String[]::new));
+                    }
+                    writer.flush();
+                }
+                if (!headerWritten) {
+                    writer.writeNext(new String[0]);
+                }
             }
             outputStream.flush();
             outputStream.close();
         };
     }
+
+    private static List<Column> getColumns(final ZoekObjectType type) {
+        return columnsPerType.computeIfAbsent(type, CsvService::introspectColumns);
+    }
+
+    private static List<Column> introspectColumns(final ZoekObjectType type) {
+        try {
+            return Arrays.stream(Introspector.getBeanInfo(type.getZoekObjectClass()).getPropertyDescriptors())
+                    .filter(property -> !uitzonderingen.contains(property.getName()) && property.getReadMethod() != null)
+                    .map(property -> new Column(property.getDisplayName(), property.getReadMethod()))
+                    .toList();
+        } catch (final IntrospectionException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -7,15 +7,10 @@ package net.atos.zac.event;
 
 import java.io.Serializable;
 import java.time.Instant;
-import java.util.concurrent.TimeUnit;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 import jakarta.json.bind.annotation.JsonbTransient;
 
 public abstract class AbstractEvent<TYPE, ID> implements Serializable {
-    private static final Logger LOG = Logger.getLogger(AbstractEvent.class.getName());
-
     private long timestamp;
 
     private Opcode opcode;
@@ -52,15 +47,11 @@ public abstract class AbstractEvent<TYPE, ID> implements Serializable {
         return objectId;
     }
 
-    public void delay() {
-        if (0 < delay) {
-            try {
-                TimeUnit.SECONDS.sleep(delay);
-            } catch (InterruptedException e) {
-                LOG.log(Level.WARNING, "Thread interrupted", e);
-                Thread.currentThread().interrupt();
-            }
-        }
+    /**
+     * @return the number of seconds the {@link EventingService} waits before firing this event
+     */
+    int getDelay() {
+        return delay;
     }
 
     public void setDelay(final int seconds) {
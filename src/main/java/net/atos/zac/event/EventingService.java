@@ -1,10 +1,17 @@
 /*
- * SPDX-FileCopyrightText: 2021 Atos
+ * SPDX-FileCopyrightText: 2021 Atos, 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 
 package net.atos.zac.event;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
@@ -15,17 +22,45 @@ import net.atos.zac.util.event.JobEvent;
 import net.atos.zac.websocket.event.ScreenEvent;
 import net.atos.zac.websocket.event.ScreenEventType;
 
+/**
+ * Fires events to their asynchronous observers.
+ * <p>
+ * Events with a delay are scheduled and only fired when they are due, so that waiting for them never blocks a thread of
+ * the asynchronous observer pool. Identical delayed {@link ScreenEvent}s that are sent while an earlier one is still
+ * waiting are coalesced into that one, as the subscribed screens only need to be refreshed once.
+ */
 @ApplicationScoped
 public class EventingService {
+    private static final Logger LOG = Logger.getLogger(EventingService.class.getName());
 
-    @Inject
     private Event<ScreenEvent> screenUpdateEvent;
-
-    @Inject
     private Event<SignaleringEvent<?>> signaleringEvent;
+    private Event<JobEvent> signaleringJobEvent;
+    private ManagedScheduledExecutorService managedScheduledExecutorService;
+
+    private final Set<ScreenEvent> pendingScreenEvents = ConcurrentHashMap.newKeySet();
+
+    /**
+     * No-arg constructor for CDI.
+     */
+    public EventingService() {
+    }
 
     @Inject
-    private Event<JobEvent> signaleringJobEvent;
+    public EventingService(
+            final Event<ScreenEvent> screenUpdateEvent,
+            final Event<SignaleringEvent<?>> signaleringEvent,
+            final Event<JobEvent> signaleringJobEvent
+    ) {
+        this.screenUpdateEvent = screenUpdateEvent;
+        this.signaleringEvent = signaleringEvent;
+        this.signaleringJobEvent = signaleringJobEvent;
+    }
+
+    @Resource
+    public void setManagedScheduledExecutorService(final ManagedScheduledExecutorService managedScheduledExecutorService) {
+        this.managedScheduledExecutorService = managedScheduledExecutorService;
+    }
 
     /**
      * Send {@link ScreenEvent}s to Observer(s),
@@ -36,7 +71,19 @@ public class EventingService {
      * @param event the event that will be sent.
      */
     public void send(final ScreenEvent event) {
-        screenUpdateEvent.fireAsync(event);
+        if (0 < event.getDelay()) {
+            if (pendingScreenEvents.add(event)) {
+                schedule(event, () -> {
+                    // remove before firing, so that an identical event sent from now on is not lost
+                    pendingScreenEvents.remove(event);
+                    screenUpdateEvent.fireAsync(event);
+                });
+            } else {
+                LOG.fine(() -> String.format("Coalesced screen event: %s", event));
+            }
+        } else {
+            screenUpdateEvent.fireAsync(event);
+        }
     }
 
     /**
@@ -48,7 +95,11 @@ public class EventingService {
      * @param event the event that will be sent.
      */
     public void send(final SignaleringEvent<?> event) {
-        signaleringEvent.fireAsync(event);
+        if (0 < event.getDelay()) {
+            schedule(event, () -> signaleringEvent.fireAsync(event));
+        } else {
+            signaleringEvent.fireAsync(event);
+        }
     }
 
     /**
@@ -58,6 +109,15 @@ public class EventingService {
      * @param event the event that will be sent.
      */
     public void send(final JobEvent event) {
-        signaleringJobEvent.fireAsync(event);
+        if (0 < event.getDelay()) {
+            schedule(event, () -> signaleringJobEvent.fireAsync(event));
+        } else {
+            signaleringJobEvent.fireAsync(event);
+        }
+    }
+
+    private void schedule(final AbstractEvent<?, ?> event, final Runnable fire) {
+        LOG.fine(() -> String.format("Scheduled event: %s", event));
+        managedScheduledExecutorService.schedule(fire, event.getDelay(), TimeUnit.SECONDS);
     }
 }
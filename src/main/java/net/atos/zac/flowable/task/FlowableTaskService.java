@@ -1,18 +1,26 @@
 /*
- * SPDX-FileCopyrightText: 2022 Atos, 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2022 Atos, 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 
 package net.atos.zac.flowable.task;
 
+import static net.atos.zac.flowable.ZaakVariabelenService.VAR_ZAAKTYPE_OMSCHRIJVING;
+import static net.atos.zac.flowable.ZaakVariabelenService.VAR_ZAAKTYPE_UUID;
+import static net.atos.zac.flowable.ZaakVariabelenService.VAR_ZAAK_IDENTIFICATIE;
 import static net.atos.zac.flowable.ZaakVariabelenService.VAR_ZAAK_UUID;
+import static net.atos.zac.flowable.task.TaakVariabelenService.readZaakUUID;
 import static net.atos.zac.flowable.util.TaskUtil.isCmmnTask;
 import static net.atos.zac.util.JsonbUtil.FIELD_VISIBILITY_STRATEGY;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -29,6 +37,8 @@ import org.flowable.identitylink.api.IdentityLinkInfo;
 import org.flowable.identitylink.api.IdentityLinkType;
 import org.flowable.task.api.Task;
 import org.flowable.task.api.TaskInfo;
+import org.flowable.task.api.TaskInfoQuery;
+import org.flowable.task.api.TaskQuery;
 import org.flowable.task.api.history.HistoricTaskInstance;
 import org.flowable.task.api.history.HistoricTaskLogEntry;
 
@@ -44,6 +54,21 @@ public class FlowableTaskService {
     public static final String USER_TASK_ASSIGNEE_CHANGED_CUSTOM = "USER_TASK_ASSIGNEE_CHANGED_CUSTOM";
     public static final String USER_TASK_GROUP_CHANGED = "USER_TASK_GROUP_CHANGED";
 
+    /**
+     * The case or process variables of a task that identify its zaak, which are the only ones that are read from tasks.
+     */
+    public static final List<String> ZAAK_VARIABLES = List.of(
+            VAR_ZAAK_UUID,
+            VAR_ZAAK_IDENTIFICATIE,
+            VAR_ZAAKTYPE_UUID,
+            VAR_ZAAKTYPE_OMSCHRIJVING
+    );
+
+    /**
+     * The maximum number of zaken of which the tasks are queried at once, as every zaak adds two conditions to the query.
+     */
+    private static final int ZAKEN_PER_QUERY = 100;
+
     private TaskService taskService;
     private CmmnTaskService cmmnTaskService;
     private HistoryService historyService;
@@ -89,6 +114,22 @@ public class FlowableTaskService {
         return taskQuery.listPage(firstResult, maxResults);
     }
 
+    /**
+     * Lists a page of the open tasks that were created at or after the given time, in the order in which they were created.
+     * Meant for paging through all open tasks by their creation time, which is not affected by tasks that are created
+     * or completed in the meantime, unlike paging through all open tasks by page number.
+     *
+     * @param createdSince the creation time of the first task to list, or null to start with the oldest task
+     */
+    public List<Task> listOpenTasksCreatedSince(final Date createdSince, final int firstResult, final int maxResults) {
+        final TaskQuery taskQuery = taskService.createTaskQuery();
+        if (createdSince != null) {
+            // the query only supports tasks created after a given time, and the tasks created at that time are needed too
+            taskQuery.taskCreatedAfter(DateUtils.addMilliseconds(createdSince, -1));
+        }
+        return taskQuery.orderByTaskCreateTime().asc().orderByTaskId().asc().listPage(firstResult, maxResults);
+    }
+
     public long countOpenTasks() {
         return taskService.createTaskQuery().count();
     }
@@ -109,27 +150,25 @@ public class FlowableTaskService {
 
     public List<? extends TaskInfo> listTasksForZaak(final UUID zaakUUID) {
         final List<TaskInfo> tasks = new ArrayList<>();
-        tasks.addAll(taskService.createTaskQuery()
-                .or()
-                .caseVariableValueEquals(VAR_ZAAK_UUID, zaakUUID)
-                .processVariableValueEquals(VAR_ZAAK_UUID, zaakUUID)
-                .endOr()
-                .includeCaseVariables()
-                .includeProcessVariables()
-                .includeTaskLocalVariables()
-                .includeIdentityLinks()
-                .list());
-        tasks.addAll(historyService.createHistoricTaskInstanceQuery()
-                .or()
-                .caseVariableValueEquals(VAR_ZAAK_UUID, zaakUUID)
-                .processVariableValueEquals(VAR_ZAAK_UUID, zaakUUID)
-                .endOr()
-                .includeCaseVariables()
-                .includeProcessVariables()
-                .includeTaskLocalVariables()
-                .includeIdentityLinks()
-                .finished()
-                .list());
+        tasks.addAll(include(
+                taskService.createTaskQuery()
+                        .or()
+                        .caseVariableValueEquals(VAR_ZAAK_UUID, zaakUUID)
+                        .processVariableValueEquals(VAR_ZAAK_UUID, zaakUUID)
+                        .endOr(),
+                ZAAK_VARIABLES,
+                true
+        ).list());
+        tasks.addAll(include(
+                historyService.createHistoricTaskInstanceQuery()
+                        .or()
+                        .caseVariableValueEquals(VAR_ZAAK_UUID, zaakUUID)
+                        .processVariableValueEquals(VAR_ZAAK_UUID, zaakUUID)
+                        .endOr()
+                        .finished(),
+                ZAAK_VARIABLES,
+                true
+        ).list());
         return tasks;
     }
 
@@ -151,6 +190,38 @@ public class FlowableTaskService {
                 .count();
     }
 
+    /**
+     * Lists the open tasks of the given zaken, with one query for every {@value #ZAKEN_PER_QUERY} zaken.
+     *
+     * @param zaakVariableNames the only case or process variables to include in the tasks, e.g. {@link #ZAAK_VARIABLES}
+     */
+    public List<Task> listOpenTasksForZaken(final Collection<UUID> zaakUUIDs, final Collection<String> zaakVariableNames) {
+        final List<UUID> distinctZaakUUIDs = List.copyOf(new LinkedHashSet<>(zaakUUIDs));
+        final List<Task> tasks = new ArrayList<>();
+        for (int from = 0; from < distinctZaakUUIDs.size(); from += ZAKEN_PER_QUERY) {
+            final TaskQuery taskQuery = taskService.createTaskQuery().or();
+            distinctZaakUUIDs.subList(from, Math.min(from + ZAKEN_PER_QUERY, distinctZaakUUIDs.size()))
+                    .forEach(zaakUUID -> taskQuery
+                            .caseVariableValueEquals(VAR_ZAAK_UUID, zaakUUID)
+                            .processVariableValueEquals(VAR_ZAAK_UUID, zaakUUID));
+            tasks.addAll(include(taskQuery.endOr(), zaakVariableNames, false).list());
+        }
+        return tasks;
+    }
+
+    /**
+     * Counts the open tasks of each of the given zaken, with one query for every {@value #ZAKEN_PER_QUERY} zaken.
+     *
+     * @return the number of open tasks per zaak, including the zaken without open tasks
+     */
+    public Map<UUID, Long> countOpenTasksForZaken(final Collection<UUID> zaakUUIDs) {
+        final Map<UUID, Long> counts = new HashMap<>();
+        zaakUUIDs.forEach(zaakUUID -> counts.put(zaakUUID, 0L));
+        listOpenTasksForZaken(zaakUUIDs, List.of(VAR_ZAAK_UUID))
+                .forEach(task -> counts.merge(readZaakUUID(task), 1L, Long::sum));
+        return counts;
+    }
+
     public List<HistoricTaskLogEntry> listHistorieForTask(final String taskId) {
         return historyService.createHistoricTaskLogEntryQuery().taskId(taskId).list();
     }
@@ -163,6 +234,36 @@ public class FlowableTaskService {
         return readClosedTask(taskId);
     }
 
+    /**
+     * Lists the open and closed tasks with the given ids, with one query for the open tasks and one for the closed tasks.
+     * Ids of tasks that do not exist are ignored.
+     *
+     * @param zaakVariableNames  the only case or process variables to include in the tasks, e.g. {@link #ZAAK_VARIABLES}
+     * @param includeTaskDetails whether to include the task local variables and the identity links of the tasks
+     * @return the tasks, in the order of the given ids
+     */
+    public List<TaskInfo> listTasks(
+            final Collection<String> taskIds,
+            final Collection<String> zaakVariableNames,
+            final boolean includeTaskDetails
+    ) {
+        if (taskIds.isEmpty()) {
+            return List.of();
+        }
+        final Map<String, TaskInfo> tasks = new HashMap<>();
+        include(taskService.createTaskQuery().taskIds(taskIds), zaakVariableNames, includeTaskDetails).list()
+                .forEach(task -> tasks.put(task.getId(), task));
+        final List<String> closedTaskIds = taskIds.stream().filter(taskId -> !tasks.containsKey(taskId)).distinct().toList();
+        if (!closedTaskIds.isEmpty()) {
+            include(
+                    historyService.createHistoricTaskInstanceQuery().taskIds(closedTaskIds).finished(),
+                    zaakVariableNames,
+                    includeTaskDetails
+            ).list().forEach(task -> tasks.put(task.getId(), task));
+        }
+        return taskIds.stream().map(tasks::get).filter(Objects::nonNull).toList();
+    }
+
     public Task readOpenTask(final String taskId) {
         final Task task = findOpenTask(taskId);
         if (task == null) {
@@ -217,13 +318,63 @@ public class FlowableTaskService {
     }
 
     public Task assignTaskToUser(final String taskId, final String userId, final String explanation) {
-        final Task task = readOpenTask(taskId);
-        taskService.setAssignee(taskId, userId);
-        createHistoricTaskLogEntry(task, USER_TASK_ASSIGNEE_CHANGED_CUSTOM, task.getAssignee(), userId, explanation);
+        setAssignee(readOpenTask(taskId), userId, explanation);
         return readOpenTask(taskId);
     }
 
     public Task assignTaskToGroup(final Task task, final String groupId, final String explanation) {
+        setCandidateGroup(task, groupId, explanation);
+        return readOpenTask(task.getId());
+    }
+
+    public Task releaseTask(final Task task, final String explanation) {
+        unclaim(task, explanation);
+        return readOpenTask(task.getId());
+    }
+
+    /**
+     * Assigns the open tasks with the given ids to a group, in a single transaction.
+     * The tasks are assigned to the given user as well, or released from their current assignee when no user is given.
+     * Ids of tasks that are not open (anymore) are ignored.
+     *
+     * @return the assigned tasks
+     */
+    public List<Task> assignTasks(
+            final Collection<String> taskIds,
+            final String groupId,
+            final String userId,
+            final String explanation
+    ) {
+        final List<Task> tasks = findOpenTasks(taskIds);
+        tasks.forEach(task -> {
+            setCandidateGroup(task, groupId, explanation);
+            if (userId != null) {
+                setAssignee(task, userId, explanation);
+            } else if (task.getAssignee() != null) {
+                unclaim(task, explanation);
+            }
+        });
+        return findOpenTasks(tasks.stream().map(Task::getId).toList());
+    }
+
+    /**
+     * Releases the open tasks with the given ids from their assignee, in a single transaction.
+     * Ids of tasks that are not open (anymore) are ignored.
+     *
+     * @return the released tasks
+     */
+    public List<Task> releaseTasks(final Collection<String> taskIds, final String explanation) {
+        final List<Task> tasks = findOpenTasks(taskIds);
+        tasks.forEach(task -> unclaim(task, explanation));
+        return findOpenTasks(tasks.stream().map(Task::getId).toList());
+    }
+
+    private void setAssignee(final Task task, final String userId, final String explanation) {
+        taskService.setAssignee(task.getId(), userId);
+        createHistoricTaskLogEntry(task, USER_TASK_ASSIGNEE_CHANGED_CUSTOM, task.getAssignee(), userId, explanation);
+    }
+
+    private void setCandidateGroup(final Task task, final String groupId, final String explanation) {
         final String currentGroupId = task.getIdentityLinks().stream()
                 .filter(identityLinkInfo -> IdentityLinkType.CANDIDATE.equals(identityLinkInfo.getType()))
                 .map(IdentityLinkInfo::getGroupId)
@@ -234,10 +385,9 @@ public class FlowableTaskService {
         }
         taskService.addGroupIdentityLink(task.getId(), groupId, IdentityLinkType.CANDIDATE);
         createHistoricTaskLogEntry(task, USER_TASK_GROUP_CHANGED, currentGroupId, groupId, explanation);
-        return readOpenTask(task.getId());
     }
 
-    public Task releaseTask(final Task task, final String explanation) {
+    private void unclaim(final Task task, final String explanation) {
         taskService.unclaim(task.getId());
         createHistoricTaskLogEntry(
                 task,
@@ -246,7 +396,6 @@ public class FlowableTaskService {
                 null,
                 explanation
         );
-        return readOpenTask(task.getId());
     }
 
     public Task findOpenTask(final String taskId) {
@@ -259,6 +408,19 @@ public class FlowableTaskService {
                 .singleResult();
     }
 
+    private List<Task> findOpenTasks(final Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return List.of();
+        }
+        return taskService.createTaskQuery()
+                .taskIds(taskIds)
+                .includeCaseVariables()
+                .includeProcessVariables()
+                .includeTaskLocalVariables()
+                .includeIdentityLinks()
+                .list();
+    }
+
     private HistoricTaskInstance findClosedTask(final String taskId) {
         return historyService.createHistoricTaskInstanceQuery()
                 .taskId(taskId)
@@ -269,6 +431,23 @@ public class FlowableTaskService {
                 .singleResult();
     }
 
+    /**
+     * Includes only the given case or process variables in the tasks of the query, instead of all of them.
+     */
+    private static <Q extends TaskInfoQuery<Q, ?>> Q include(
+            final Q query,
+            final Collection<String> zaakVariableNames,
+            final boolean includeTaskDetails
+    ) {
+        if (!zaakVariableNames.isEmpty()) {
+            query.includeCaseVariables(zaakVariableNames).includeProcessVariables(zaakVariableNames);
+        }
+        if (includeTaskDetails) {
+            query.includeTaskLocalVariables().includeIdentityLinks();
+        }
+        return query;
+    }
+
     private Date tomorrow() {
         return DateUtils.addDays(DateUtils.truncate(new Date(), Calendar.DATE), 1);
     }
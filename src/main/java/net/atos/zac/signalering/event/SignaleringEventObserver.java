@@ -79,7 +79,6 @@ public class SignaleringEventObserver extends AbstractEventObserver<SignaleringE
     public void onFire(final @ObservesAsync SignaleringEvent<?> event) {
         try {
             LOG.fine(() -> String.format("Signalering event ontvangen: %s", event));
-            event.delay();
 
             final Signalering signalering = buildSignalering(event);
             if (signalering == null) {
@@ -1,15 +0,0 @@
-/*
- * SPDX-FileCopyrightText: 2022 Atos
- * SPDX-License-Identifier: EUPL-1.2+
- */
-
-package net.atos.zac.signalering.model;
-
-public class SignaleringVerzendInfo {
-    public int streefdatumVerzonden;
-
-    public int fataledatumVerzonden;
-
-    public SignaleringVerzendInfo() {
-    }
-}
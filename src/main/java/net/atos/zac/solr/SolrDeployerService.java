@@ -10,12 +10,16 @@ import static net.atos.zac.solr.SolrSchemaUpdateHelper.NAME;
 import static net.atos.zac.solr.SolrSchemaUpdateHelper.addField;
 import static net.atos.zac.solr.SolrSchemaUpdateHelper.deleteField;
 import static nl.info.zac.search.IndexingService.SOLR_CORE;
+import static nl.info.zac.search.IndexingService.SOLR_PREVIOUS_CORE;
+import static nl.info.zac.search.IndexingService.SOLR_SHADOW_CORE;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -33,13 +37,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.Http2SolrClient;
+import org.apache.solr.client.solrj.request.CoreAdminRequest;
 import org.apache.solr.client.solrj.request.SolrPing;
 import org.apache.solr.client.solrj.request.schema.SchemaRequest;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.CoreAdminParams;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
-import nl.info.zac.search.IndexingService;
 import nl.info.zac.search.model.zoekobject.ZoekObjectType;
+import nl.info.zac.search.reindex.ReindexingService;
 
 @Singleton
 public class SolrDeployerService {
@@ -47,11 +53,14 @@ public class SolrDeployerService {
     private static final String VERSION_FIELD_PREFIX = "schema_version_";
     private static final int SOLR_STATUS_OK = 0;
     private static final int WAIT_FOR_SOLR_SECONDS = 1;
+    // the config set the ZAC core is created from (see 'solr-precreate')
+    private static final String SOLR_CONFIG_SET = "_default";
 
     private String solrUrl;
     private ManagedExecutorService managedExecutor;
-    private IndexingService indexingService;
+    private ReindexingService reindexingService;
     private SolrClient solrClient;
+    private SolrClient solrAdminClient;
     private List<SolrSchemaUpdate> schemaUpdates;
 
     /**
@@ -63,10 +72,10 @@ public class SolrDeployerService {
     @Inject
     public SolrDeployerService(
             @ConfigProperty(name = "SOLR_URL") final String solrUrl,
-            final IndexingService indexingService
+            final ReindexingService reindexingService
     ) {
         this.solrUrl = solrUrl;
-        this.indexingService = indexingService;
+        this.reindexingService = reindexingService;
     }
 
     @Inject
@@ -83,8 +92,10 @@ public class SolrDeployerService {
 
     public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
         solrClient = new Http2SolrClient.Builder("%s/solr/%s".formatted(solrUrl, SOLR_CORE)).build();
+        solrAdminClient = new Http2SolrClient.Builder("%s/solr".formatted(solrUrl)).build();
         waitForSolrAvailability();
         try {
+            final Set<ZoekObjectType> typesToReindex = new HashSet<>();
             final int currentVersion = getCurrentVersion();
             LOG.info("Current version of Solr core '%s': %d".formatted(SOLR_CORE, currentVersion));
             if (currentVersion == schemaUpdates.getLast().getVersie()) {
@@ -92,19 +103,119 @@ public class SolrDeployerService {
             } else {
                 schemaUpdates.stream()
                         .skip(currentVersion)
-                        .forEach(this::apply);
+                        .forEach(schemaUpdate -> apply(solrClient, SOLR_CORE, schemaUpdate));
 
-                schemaUpdates.stream()
-                        .skip(currentVersion)
-                        .flatMap(schemaUpdate -> schemaUpdate.getTeHerindexerenZoekObjectTypes().stream())
-                        .collect(Collectors.toSet())
-                        .forEach(this::startReindexing);
+                typesToReindex.addAll(
+                        schemaUpdates.stream()
+                                .skip(currentVersion)
+                                .flatMap(schemaUpdate -> schemaUpdate.getTeHerindexerenZoekObjectTypes().stream())
+                                .collect(Collectors.toSet())
+                );
+                typesToReindex.forEach(type -> startReindexing(type, false));
+            }
+            reindexingService.dropAbandonedShadowCore();
+            reindexingService.listInterruptedReindexing().stream()
+                    .filter(type -> !typesToReindex.contains(type))
+                    .forEach(type -> startReindexing(type, true));
+        } catch (final SolrServerException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * (Re)creates the shadow Solr core, in which the search index can be rebuilt while the ZAC core stays in use.
+     * The shadow core gets the same schema as the ZAC core.
+     */
+    public void createShadowCore() {
+        try {
+            if (coreExists(SOLR_SHADOW_CORE)) {
+                LOG.info("Removing existing Solr core '%s'".formatted(SOLR_SHADOW_CORE));
+                CoreAdminRequest.unloadCore(SOLR_SHADOW_CORE, true, true, solrAdminClient);
+            }
+            LOG.info("Creating Solr core '%s'".formatted(SOLR_SHADOW_CORE));
+            final CoreAdminRequest.Create createRequest = new CoreAdminRequest.Create();
+            createRequest.setCoreName(SOLR_SHADOW_CORE);
+            createRequest.setInstanceDir(SOLR_SHADOW_CORE);
+            createRequest.setConfigSet(SOLR_CONFIG_SET);
+            createRequest.process(solrAdminClient);
+            try (SolrClient shadowSolrClient = new Http2SolrClient.Builder(
+                    "%s/solr/%s".formatted(solrUrl, SOLR_SHADOW_CORE)
+            ).build()) {
+                schemaUpdates.forEach(schemaUpdate -> apply(shadowSolrClient, SOLR_SHADOW_CORE, schemaUpdate));
+            }
+        } catch (final SolrServerException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Atomically swaps the shadow Solr core with the ZAC core, so that all clients of the ZAC core use the rebuilt
+     * search index from then on. The replaced core is kept as the previous core, to be able to roll back.
+     * An older previous core is removed.
+     */
+    public void swapShadowCore() {
+        try {
+            swapWithZacCore(SOLR_SHADOW_CORE);
+            if (coreExists(SOLR_PREVIOUS_CORE)) {
+                CoreAdminRequest.unloadCore(SOLR_PREVIOUS_CORE, true, true, solrAdminClient);
+            }
+            CoreAdminRequest.renameCore(SOLR_SHADOW_CORE, SOLR_PREVIOUS_CORE, solrAdminClient);
+        } catch (final SolrServerException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Swaps the previous Solr core back with the ZAC core, undoing the last {@link #swapShadowCore()}.
+     *
+     * @return {@code false} if there is no previous core to roll back to
+     */
+    public boolean rollBackToPreviousCore() {
+        try {
+            if (!coreExists(SOLR_PREVIOUS_CORE)) {
+                return false;
+            }
+            swapWithZacCore(SOLR_PREVIOUS_CORE);
+            return true;
+        } catch (final SolrServerException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void dropShadowCore() {
+        try {
+            if (coreExists(SOLR_SHADOW_CORE)) {
+                LOG.info("Removing Solr core '%s'".formatted(SOLR_SHADOW_CORE));
+                CoreAdminRequest.unloadCore(SOLR_SHADOW_CORE, true, true, solrAdminClient);
             }
         } catch (final SolrServerException | IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    public boolean shadowCoreExists() {
+        try {
+            return coreExists(SOLR_SHADOW_CORE);
+        } catch (final SolrServerException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private boolean coreExists(final String core) throws SolrServerException, IOException {
+        // the status of a non-existing core is empty
+        final var coreStatus = CoreAdminRequest.getStatus(core, solrAdminClient).getCoreStatus(core);
+        return coreStatus != null && coreStatus.size() > 0;
+    }
+
+    private void swapWithZacCore(final String core) throws SolrServerException, IOException {
+        LOG.info("Swapping Solr core '%s' with '%s'".formatted(core, SOLR_CORE));
+        final CoreAdminRequest swapRequest = new CoreAdminRequest();
+        swapRequest.setAction(CoreAdminParams.CoreAdminAction.SWAP);
+        swapRequest.setCoreName(SOLR_CORE);
+        swapRequest.setOtherCoreName(core);
+        swapRequest.process(solrAdminClient);
+    }
+
     private void waitForSolrAvailability() {
         while (true) {
             try {
@@ -137,13 +248,13 @@ public class SolrDeployerService {
                 .orElse(0);
     }
 
-    private void apply(final SolrSchemaUpdate schemaUpdate) {
-        LOG.info("Updating Solr core '%s' to version: %d".formatted(SOLR_CORE, schemaUpdate.getVersie()));
+    private void apply(final SolrClient client, final String core, final SolrSchemaUpdate schemaUpdate) {
+        LOG.info("Updating Solr core '%s' to version: %d".formatted(core, schemaUpdate.getVersie()));
         try {
             final List<SchemaRequest.Update> schemaUpdates = new LinkedList<>();
             schemaUpdates.addAll(schemaUpdate.getSchemaUpdates());
             schemaUpdates.addAll(updateVersionField(schemaUpdate.getVersie()));
-            new SchemaRequest.MultiUpdate(schemaUpdates).process(solrClient);
+            new SchemaRequest.MultiUpdate(schemaUpdates).process(client);
         } catch (final SolrServerException | IOException e) {
             throw new RuntimeException(e);
         }
@@ -158,7 +269,7 @@ public class SolrDeployerService {
         return schemaUpdates;
     }
 
-    private void startReindexing(final ZoekObjectType type) {
-        managedExecutor.submit(() -> indexingService.reindex(type));
+    private void startReindexing(final ZoekObjectType type, final boolean resume) {
+        managedExecutor.submit(() -> reindexingService.reindex(type, resume));
     }
 }
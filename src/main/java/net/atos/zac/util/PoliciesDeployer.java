@@ -23,6 +23,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
 import nl.info.client.opa.OpaAdminClient;
+import nl.info.zac.policy.PolicyDecisionCache;
 
 public class PoliciesDeployer {
 
@@ -38,11 +39,16 @@ public class PoliciesDeployer {
     @RestClient
     private OpaAdminClient opaAdminClient;
 
+    @Inject
+    private PolicyDecisionCache policyDecisionCache;
+
     public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
         try (final InputStream policiesInputStream = getClass().getClassLoader().getResourceAsStream(format("%s/%s", POLICIES_FOLDER_NAME,
                 POLICIES_FILE_NAME));
              final BufferedReader policiesReader = new BufferedReader(new InputStreamReader(policiesInputStream, StandardCharsets.UTF_8))) {
             policiesReader.lines().filter(StringUtils::isNotBlank).forEach(this::deployPolicy);
+            // decisions of the previously deployed policies must not be used anymore
+            policyDecisionCache.clear();
         } catch (final IOException e) {
             throw new RuntimeException(e);
         }
@@ -40,7 +40,6 @@ public class JobEventObserver {
     public void onFire(final @ObservesAsync JobEvent event) {
         try {
             LOG.fine(() -> String.format("Job event ontvangen: %s", event.toString()));
-            event.delay();
             if (Objects.requireNonNull(event.getObjectId()) == JobId.SIGNALERINGEN_JOB) {
                 zaakTaskDueDateEmailNotificationService.sendDueDateEmailNotifications();
             }
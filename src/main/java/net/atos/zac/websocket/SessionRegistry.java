@@ -1,24 +1,21 @@
 /*
- * SPDX-FileCopyrightText: 2021 Atos
+ * SPDX-FileCopyrightText: 2021 Atos, 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 
 package net.atos.zac.websocket;
 
 import java.util.Collections;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.websocket.Session;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimaps;
-import com.google.common.collect.SetMultimap;
-
 import net.atos.zac.event.Opcode;
 import net.atos.zac.websocket.event.ScreenEvent;
 import net.atos.zac.websocket.event.ScreenEventId;
@@ -27,14 +24,20 @@ import net.atos.zac.websocket.event.ScreenEventType;
 /**
  * This Registry is used to maintain a list of active sessions.
  * EventSessions contains all (from the browser) registered client sessions
+ * <p>
+ * Subscriptions are stored as they are registered, including their {@link Opcode#ANY} and {@link ScreenEventType#ANY} wildcards,
+ * so that looking up the sessions for an event only takes a few map lookups. The subscriptions of each session are indexed as well,
+ * so that removing the subscriptions of a session does not need to scan the subscriptions of all other sessions.
+ * Lookups do not lock, and subscribing and unsubscribing only lock the affected entries.
  */
 @ApplicationScoped
 public class SessionRegistry {
 
     private static final Pattern QUOTED = Pattern.compile("^\"(.*)\"$");
 
-    private final SetMultimap<ScreenEvent, Session> eventSessions = Multimaps.synchronizedSetMultimap(
-            HashMultimap.create());
+    private final ConcurrentHashMap<Subscription, Set<Session>> eventSessions = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Session, Set<Subscription>> sessionEvents = new ConcurrentHashMap<>();
 
     /**
      * Return a set of all active sessions for a particular event.
@@ -42,7 +45,20 @@ public class SessionRegistry {
      * @return Set with active sessions
      */
     public Set<Session> listSessions(final ScreenEvent event) {
-        return Collections.unmodifiableSet(eventSessions.get(fix(event)));
+        if (event.getOpcode() == Opcode.ANY || event.getObjectType() == ScreenEventType.ANY) {
+            // events that are sent never contain wildcards
+            return Collections.emptySet();
+        }
+        final String resource = event.getObjectId().resource();
+        final Set<Session> sessions = new HashSet<>();
+        addSessions(sessions, new Subscription(event.getOpcode(), event.getObjectType(), resource));
+        addSessions(sessions, new Subscription(event.getOpcode(), ScreenEventType.ANY, resource));
+        // There will not be any websocket subscriptions with this opcode, so ANY does not match it.
+        if (event.getOpcode() != Opcode.CREATED) {
+            addSessions(sessions, new Subscription(Opcode.ANY, event.getObjectType(), resource));
+            addSessions(sessions, new Subscription(Opcode.ANY, ScreenEventType.ANY, resource));
+        }
+        return Collections.unmodifiableSet(sessions);
     }
 
     /**
@@ -53,20 +69,36 @@ public class SessionRegistry {
      */
     public void create(final ScreenEvent wildcarded, final Session session) {
         if (session != null) {
-            glob(fix(wildcarded)).forEach(event -> eventSessions.put(event, session));
+            final Subscription subscription = Subscription.of(fix(wildcarded));
+            // atomically, so that the session is not added to an entry that is being removed concurrently
+            eventSessions.compute(subscription, (key, sessions) -> {
+                final Set<Session> subscribed = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+                subscribed.add(session);
+                return subscribed;
+            });
+            sessionEvents.computeIfAbsent(session, key -> ConcurrentHashMap.newKeySet()).add(subscription);
         }
     }
 
     /**
-     * Delete a session for a specific event
+     * Delete a session for a specific event, including the subscriptions of the session that are matched by its wildcards
      *
      * @param wildcarded event
      * @param session    session
      */
     public void delete(final ScreenEvent wildcarded, final Session session) {
         if (session != null) {
-            glob(fix(wildcarded)).forEach(
-                    event -> eventSessions.get(event).remove(session));
+            final Subscription deleted = Subscription.of(fix(wildcarded));
+            final Set<Subscription> subscriptions = sessionEvents.get(session);
+            if (subscriptions != null) {
+                subscriptions.removeIf(subscription -> {
+                    if (deleted.matches(subscription)) {
+                        removeSession(subscription, session);
+                        return true;
+                    }
+                    return false;
+                });
+            }
         }
     }
 
@@ -77,47 +109,47 @@ public class SessionRegistry {
      */
     public void deleteAll(final Session session) {
         if (session != null) {
-            eventSessions.values().removeAll(Collections.singleton(session));
+            final Set<Subscription> subscriptions = sessionEvents.remove(session);
+            if (subscriptions != null) {
+                subscriptions.forEach(subscription -> removeSession(subscription, session));
+            }
         }
     }
 
-    private List<ScreenEvent> glob(final ScreenEvent event) {
-        if (event.getOpcode() == Opcode.ANY) {
-            final Set<Opcode> anyOpcode = Opcode.any();
-            anyOpcode.remove(Opcode.CREATED);// There will not be any websocket subscriptions with this opcode, so skip it in globbing.
-            if (event.getObjectType() == ScreenEventType.ANY) {
-                return anyOpcode.stream()
-                        .flatMap(operation -> ScreenEventType.any().stream()
-                                .map(objectType -> new Wrapper(operation, objectType)))
-                        .map(wrapper -> new ScreenEvent(wrapper.opcode, wrapper.objecType, event.getObjectId()))
-                        .collect(Collectors.toList());
-            }
-            return anyOpcode.stream()
-                    .map(operation -> new ScreenEvent(operation, event.getObjectType(), event.getObjectId()))
-                    .collect(Collectors.toList());
-        }
-        if (event.getObjectType() == ScreenEventType.ANY) {
-            return ScreenEventType.any().stream()
-                    .map(objectType -> new ScreenEvent(event.getOpcode(), objectType, event.getObjectId()))
-                    .collect(Collectors.toList());
+    private void addSessions(final Set<Session> sessions, final Subscription subscription) {
+        final Set<Session> subscribed = eventSessions.get(subscription);
+        if (subscribed != null) {
+            sessions.addAll(subscribed);
         }
-        return Collections.singletonList(event);
     }
 
-    private static class Wrapper {
-        private final Opcode opcode;
+    private void removeSession(final Subscription subscription, final Session session) {
+        // remove the entry when its last session is removed, atomically so that a concurrent subscription is not lost
+        eventSessions.computeIfPresent(subscription, (key, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
 
-        private final ScreenEventType objecType;
+    /**
+     * A subscription to the events of an object, of which the opcode and the object type may be wildcards.
+     */
+    private record Subscription(Opcode opcode, ScreenEventType objectType, String resource) {
+        private static Subscription of(final ScreenEvent event) {
+            return new Subscription(event.getOpcode(), event.getObjectType(), event.getObjectId().resource());
+        }
 
-        private Wrapper(final Opcode opcode, final ScreenEventType objecType) {
-            this.opcode = opcode;
-            this.objecType = objecType;
+        private boolean matches(final Subscription other) {
+            return (opcode == Opcode.ANY || opcode == other.opcode) &&
+                   (objectType == ScreenEventType.ANY || objectType == other.objectType) &&
+                   Objects.equals(resource, other.resource);
         }
     }
 
     /**
      * This method is applied to all event arguments to make sure that the objectId being quoted (by Angular?) doesn't cause any problems.
      * Events that are otherwise equal except for the quoted/unquoted objectIds should in all cases be regarded as the same event.
+     * It is only applied when subscribing, as the events that are sent are never quoted.
      *
      * @param event the event in which the objectId may have been quoted
      * @return an event in which the objectId is stripped of any quotes
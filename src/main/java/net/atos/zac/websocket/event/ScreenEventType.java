@@ -85,6 +85,11 @@ public enum ScreenEventType {
 
     TAKEN_VRIJGEVEN,
 
+    /**
+     * The progress of a bulk operation, like assigning a list of zaken. The detail of the event describes the progress.
+     */
+    VOORTGANG,
+
     ZAAK {
         @Override
         public ScreenEvent event(final Opcode opcode, final Zaak zaak) {
@@ -350,6 +355,17 @@ public enum ScreenEventType {
         return event(UPDATED, eventResourceId);
     }
 
+    /**
+     * Factory method for ScreenEvent (with string identification of a custom resource and a detail of the update).
+     *
+     * @param eventResourceId identification of the custom resource.
+     * @param detail          detail of the update, like the progress of a bulk operation.
+     * @return instance of the event
+     */
+    public final ScreenEvent updated(final String eventResourceId, final String detail) {
+        return instance(UPDATED, this, eventResourceId, detail);
+    }
+
     public final ScreenEvent updated(
             final String eventResourceId,
             final List<RestZaakOverzicht> restZaakOverzichtList
@@ -417,6 +433,17 @@ public enum ScreenEventType {
         return event(SKIPPED, zaak);
     }
 
+    /**
+     * Pay attention! If you use this method, you are responsible for providing the correct UUID.
+     * Preferably use the other factory methods.
+     *
+     * @param uuid identification of the skipped object.
+     * @return instance of the event
+     */
+    public final ScreenEvent skipped(final UUID uuid) {
+        return event(SKIPPED, uuid);
+    }
+
     /**
      * Factory method for ScreenEvent to skip any `eventResourceId`.
      *
@@ -0,0 +1,116 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package net.atos.zac.flowable
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.github.benmanes.caffeine.cache.stats.CacheStats
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import net.atos.client.zgw.shared.cache.Caching
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import org.flowable.cmmn.api.CmmnHistoryService
+import org.flowable.cmmn.api.CmmnRuntimeService
+import org.flowable.engine.HistoryService
+import org.flowable.engine.RuntimeService
+import java.util.UUID
+import java.util.concurrent.TimeUnit
+import java.util.logging.Logger
+
+/**
+ * Resolves the Flowable CMMN case instance or BPMN process instance of a zaak, using the zaak UUID business key.
+ *
+ * Resolved instances are cached, so that reading or writing the variables of a zaak takes a single call to Flowable.
+ * A cached instance can become stale when it is completed, terminated or deleted, possibly on another node.
+ * It is evicted when that happens on this node, and otherwise when it is found to be stale when it is used.
+ */
+@ApplicationScoped
+@AllOpen
+@NoArgConstructor
+class ZaakFlowableInstanceResolver @Inject constructor(
+    private val cmmnRuntimeService: CmmnRuntimeService,
+    private val cmmnHistoryService: CmmnHistoryService,
+    private val bpmnRuntimeService: RuntimeService,
+    private val bpmnHistoryService: HistoryService
+) : Caching {
+    companion object {
+        const val ZAC_ZAAK_FLOWABLE_INSTANCES = "zac-zaak-flowable-instances"
+
+        private val LOG = Logger.getLogger(ZaakFlowableInstanceResolver::class.java.name)
+        private const val MAX_CACHE_SIZE = 10_000L
+        private const val EXPIRATION_TIME_MINUTES = 60L
+    }
+
+    enum class Engine { CMMN, BPMN }
+
+    /**
+     * The Flowable instance of a zaak, which is either active (running) or historic (ended).
+     */
+    data class ZaakFlowableInstance(
+        val engine: Engine,
+        val instanceId: String,
+        val active: Boolean
+    )
+
+    private val cache: Cache<UUID, ZaakFlowableInstance> = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHE_SIZE)
+        .expireAfterAccess(EXPIRATION_TIME_MINUTES, TimeUnit.MINUTES)
+        .recordStats()
+        .removalListener<UUID, ZaakFlowableInstance> { key, _, cause ->
+            LOG.finest { "Removing key: $key in cache $ZAC_ZAAK_FLOWABLE_INSTANCES because of: $cause" }
+        }
+        .build()
+
+    /**
+     * Returns the Flowable instance of the zaak, preferring an active instance, or null if the zaak has none.
+     */
+    fun resolve(zaakUuid: UUID): ZaakFlowableInstance? =
+        cache.getIfPresent(zaakUuid) ?: lookup(zaakUuid)?.also { cache.put(zaakUuid, it) }
+
+    /**
+     * Returns the cached Flowable instance of the zaak, without looking it up.
+     */
+    fun findCached(zaakUuid: UUID): ZaakFlowableInstance? = cache.getIfPresent(zaakUuid)
+
+    /**
+     * Caches an instance of the zaak that was found by the caller itself.
+     */
+    fun register(zaakUuid: UUID, instance: ZaakFlowableInstance) = cache.put(zaakUuid, instance)
+
+    /**
+     * Evicts the cached instance of the zaak, e.g. because the instance has ended or has been deleted.
+     */
+    fun invalidate(zaakUuid: UUID) {
+        cache.invalidate(zaakUuid)
+        removed(ZAC_ZAAK_FLOWABLE_INSTANCES, zaakUuid)
+    }
+
+    fun clearCache(): String {
+        cache.invalidateAll()
+        return cleared(ZAC_ZAAK_FLOWABLE_INSTANCES)
+    }
+
+    override fun cacheStatistics(): Map<String, CacheStats> = mapOf(ZAC_ZAAK_FLOWABLE_INSTANCES to cache.stats())
+
+    override fun estimatedCacheSizes(): Map<String, Long> =
+        mapOf(ZAC_ZAAK_FLOWABLE_INSTANCES to cache.estimatedSize())
+
+    private fun lookup(zaakUuid: UUID): ZaakFlowableInstance? {
+        val businessKey = zaakUuid.toString()
+        return cmmnRuntimeService.createCaseInstanceQuery()
+            .caseInstanceBusinessKey(businessKey)
+            .singleResult()?.let { ZaakFlowableInstance(Engine.CMMN, it.id, true) }
+            ?: bpmnRuntimeService.createProcessInstanceQuery()
+                .processInstanceBusinessKey(businessKey)
+                .singleResult()?.let { ZaakFlowableInstance(Engine.BPMN, it.id, true) }
+            ?: cmmnHistoryService.createHistoricCaseInstanceQuery()
+                .caseInstanceBusinessKey(businessKey)
+                .singleResult()?.let { ZaakFlowableInstance(Engine.CMMN, it.id, false) }
+            ?: bpmnHistoryService.createHistoricProcessInstanceQuery()
+                .processInstanceBusinessKey(businessKey)
+                .singleResult()?.let { ZaakFlowableInstance(Engine.BPMN, it.id, false) }
+    }
+}
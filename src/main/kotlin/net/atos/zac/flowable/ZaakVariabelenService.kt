@@ -7,6 +7,8 @@ package net.atos.zac.flowable
 import jakarta.enterprise.context.ApplicationScoped
 import jakarta.inject.Inject
 import jakarta.transaction.Transactional
+import net.atos.zac.flowable.ZaakFlowableInstanceResolver.Engine
+import net.atos.zac.flowable.ZaakFlowableInstanceResolver.ZaakFlowableInstance
 import net.atos.zac.flowable.exception.CaseOrProcessNotFoundException
 import net.atos.zac.flowable.exception.VariableNotFoundException
 import nl.info.zac.util.AllOpen
@@ -14,6 +16,7 @@ import nl.info.zac.util.NoArgConstructor
 import org.flowable.cmmn.api.CmmnHistoryService
 import org.flowable.cmmn.api.CmmnRuntimeService
 import org.flowable.cmmn.api.runtime.PlanItemInstance
+import org.flowable.common.engine.api.FlowableObjectNotFoundException
 import org.flowable.engine.HistoryService
 import org.flowable.engine.RuntimeService
 import java.math.BigDecimal
@@ -29,7 +32,8 @@ open class ZaakVariabelenService @Inject constructor(
     private val cmmnRuntimeService: CmmnRuntimeService,
     private val cmmnHistoryService: CmmnHistoryService,
     private val bpmnRuntimeService: RuntimeService,
-    private val bpmnHistoryService: HistoryService
+    private val bpmnHistoryService: HistoryService,
+    private val zaakFlowableInstanceResolver: ZaakFlowableInstanceResolver
 ) {
 
     companion object {
@@ -68,13 +72,18 @@ open class ZaakVariabelenService @Inject constructor(
      * @param zaakUuid the zaak UUID
      */
     fun deleteAllCaseVariables(zaakUuid: UUID) {
-        cmmnRuntimeService.createCaseInstanceQuery()
-            .variableValueEquals(VAR_ZAAK_UUID, zaakUuid)
-            .singleResult()?.let {
-                cmmnRuntimeService.removeVariables(it.id, ALL_ZAAK_VARIABLE_NAMES)
-            }
+        updateActiveInstance(
+            zaakUuid,
+            cmmn = { cmmnRuntimeService.removeVariables(it, ALL_ZAAK_VARIABLE_NAMES) },
+            bpmn = { }
+        )
     }
 
+    /**
+     * Evicts the cached Flowable instance of the zaak, because it has ended or is about to end.
+     */
+    fun evictFlowableInstance(zaakUuid: UUID) = zaakFlowableInstanceResolver.invalidate(zaakUuid)
+
     fun readZaakUUID(planItemInstance: PlanItemInstance): UUID =
         readCaseVariable(planItemInstance, VAR_ZAAK_UUID) as UUID
 
@@ -136,7 +145,7 @@ open class ZaakVariabelenService @Inject constructor(
         findVariables(zaakUuid) ?: emptyMap()
 
     fun readProcessZaakdata(zaakUuid: UUID) =
-        findProcessVariables(zaakUuid) ?: emptyMap()
+        (findCachedInstanceVariables(zaakUuid, Engine.BPMN) ?: findProcessVariables(zaakUuid)) ?: emptyMap()
 
     fun setZaakdata(zaakUuid: UUID, zaakdata: Map<String, Any>) =
         setVariables(zaakUuid, zaakdata)
@@ -159,63 +168,120 @@ open class ZaakVariabelenService @Inject constructor(
         cmmnRuntimeService.createCaseInstanceQuery()
             .caseInstanceBusinessKey(zaakUuid.toString())
             .includeCaseVariables()
-            .singleResult()?.caseVariables
+            .singleResult()?.let {
+                register(zaakUuid, Engine.CMMN, it.id, true)
+                it.caseVariables
+            }
             ?: cmmnHistoryService.createHistoricCaseInstanceQuery()
                 .caseInstanceBusinessKey(zaakUuid.toString())
                 .includeCaseVariables()
-                .singleResult()?.caseVariables
+                .singleResult()?.let {
+                    register(zaakUuid, Engine.CMMN, it.id, false)
+                    it.caseVariables
+                }
 
     private fun findProcessVariables(zaakUuid: UUID) =
         bpmnRuntimeService.createProcessInstanceQuery()
             .processInstanceBusinessKey(zaakUuid.toString())
             .includeProcessVariables()
-            .singleResult()?.processVariables
+            .singleResult()?.let {
+                register(zaakUuid, Engine.BPMN, it.id, true)
+                it.processVariables
+            }
             ?: bpmnHistoryService.createHistoricProcessInstanceQuery()
                 .processInstanceBusinessKey(zaakUuid.toString())
                 .includeProcessVariables()
-                .singleResult()?.processVariables
+                .singleResult()?.let {
+                    register(zaakUuid, Engine.BPMN, it.id, false)
+                    it.processVariables
+                }
 
     private fun findVariables(zaakUuid: UUID) =
-        findCaseVariables(zaakUuid) ?: findProcessVariables(zaakUuid)
+        findCachedInstanceVariables(zaakUuid) ?: findCaseVariables(zaakUuid) ?: findProcessVariables(zaakUuid)
 
-    @Suppress("TooGenericExceptionThrown")
-    private fun setVariable(zaakUuid: UUID, variableName: String, value: Any) =
-        cmmnRuntimeService.createCaseInstanceQuery()
-            .variableValueEquals(VAR_ZAAK_UUID, zaakUuid)
-            .singleResult()?.let {
-                cmmnRuntimeService.setVariable(it.id, variableName, value)
-            }
-            ?: bpmnRuntimeService.createProcessInstanceQuery()
-                .processInstanceBusinessKey(zaakUuid.toString())
-                .singleResult()?.let {
-                    bpmnRuntimeService.setVariable(it.id, variableName, value)
+    /**
+     * Reads the variables of the cached instance of the zaak, if it is cached and of the given engine.
+     * Evicts the instance when it turns out to be stale, so that the caller looks it up again.
+     */
+    private fun findCachedInstanceVariables(zaakUuid: UUID, engine: Engine? = null): Map<String, Any>? =
+        zaakFlowableInstanceResolver.findCached(zaakUuid)
+            ?.takeIf { engine == null || it.engine == engine }
+            ?.let { instance ->
+                readVariables(instance) ?: run {
+                    zaakFlowableInstanceResolver.invalidate(zaakUuid)
+                    null
                 }
-            ?: throw CaseOrProcessNotFoundException("No case or process instance found for zaak with UUID: '$zaakUuid'")
+            }
 
-    @Suppress("TooGenericExceptionThrown")
-    private fun setVariables(zaakUuid: UUID, variables: Map<String, Any>) =
-        cmmnRuntimeService.createCaseInstanceQuery()
-            .caseInstanceBusinessKey(zaakUuid.toString())
-            .singleResult()?.let {
-                cmmnRuntimeService.setVariables(it.id, variables)
+    private fun readVariables(instance: ZaakFlowableInstance): Map<String, Any>? =
+        when (instance.engine) {
+            Engine.CMMN -> if (instance.active) {
+                cmmnRuntimeService.createCaseInstanceQuery()
+                    .caseInstanceId(instance.instanceId)
+                    .includeCaseVariables()
+                    .singleResult()?.caseVariables
+            } else {
+                cmmnHistoryService.createHistoricCaseInstanceQuery()
+                    .caseInstanceId(instance.instanceId)
+                    .includeCaseVariables()
+                    .singleResult()?.caseVariables
             }
-            ?: bpmnRuntimeService.createProcessInstanceQuery()
-                .processInstanceBusinessKey(zaakUuid.toString())
-                .singleResult()?.let {
-                    bpmnRuntimeService.setVariables(it.id, variables)
-                }
-            ?: throw CaseOrProcessNotFoundException("No case or process instance found for zaak with UUID: '$zaakUuid'")
+            Engine.BPMN -> if (instance.active) {
+                bpmnRuntimeService.createProcessInstanceQuery()
+                    .processInstanceId(instance.instanceId)
+                    .includeProcessVariables()
+                    .singleResult()?.processVariables
+            } else {
+                bpmnHistoryService.createHistoricProcessInstanceQuery()
+                    .processInstanceId(instance.instanceId)
+                    .includeProcessVariables()
+                    .singleResult()?.processVariables
+            }
+        }
+
+    private fun register(zaakUuid: UUID, engine: Engine, instanceId: String, active: Boolean) =
+        zaakFlowableInstanceResolver.register(zaakUuid, ZaakFlowableInstance(engine, instanceId, active))
+
+    private fun setVariable(zaakUuid: UUID, variableName: String, value: Any) =
+        updateActiveInstance(
+            zaakUuid,
+            cmmn = { cmmnRuntimeService.setVariable(it, variableName, value) },
+            bpmn = { bpmnRuntimeService.setVariable(it, variableName, value) }
+        ) ?: throw CaseOrProcessNotFoundException("No case or process instance found for zaak with UUID: '$zaakUuid'")
+
+    private fun setVariables(zaakUuid: UUID, variables: Map<String, Any>) =
+        updateActiveInstance(
+            zaakUuid,
+            cmmn = { cmmnRuntimeService.setVariables(it, variables) },
+            bpmn = { bpmnRuntimeService.setVariables(it, variables) }
+        ) ?: throw CaseOrProcessNotFoundException("No case or process instance found for zaak with UUID: '$zaakUuid'")
 
     private fun removeVariable(zaakUuid: UUID, variableName: String) {
-        cmmnRuntimeService.createCaseInstanceQuery()
-            .caseInstanceBusinessKey(zaakUuid.toString())
-            .singleResult()?.let {
-                cmmnRuntimeService.removeVariable(it.id, variableName)
+        updateActiveInstance(
+            zaakUuid,
+            cmmn = { cmmnRuntimeService.removeVariable(it, variableName) },
+            bpmn = { bpmnRuntimeService.removeVariable(it, variableName) }
+        )
+    }
+
+    /**
+     * Updates the active instance of the zaak with the update for its engine.
+     *
+     * @return the result of the update, or null if the zaak has no active instance
+     */
+    private fun <T : Any> updateActiveInstance(zaakUuid: UUID, cmmn: (String) -> T, bpmn: (String) -> T): T? {
+        fun update(instance: ZaakFlowableInstance) =
+            when (instance.engine) {
+                Engine.CMMN -> cmmn(instance.instanceId)
+                Engine.BPMN -> bpmn(instance.instanceId)
             }
-            ?: bpmnRuntimeService.createProcessInstanceQuery()
-                .processInstanceBusinessKey(zaakUuid.toString())
-                .singleResult()?.let {
-                    bpmnRuntimeService.removeVariable(it.id, variableName)
-                }
+        val instance = zaakFlowableInstanceResolver.resolve(zaakUuid)?.takeIf { it.active } ?: return null
+        return try {
+            update(instance)
+        } catch (_: FlowableObjectNotFoundException) {
+            // the cached instance has ended or has been deleted in the meantime, e.g. on another node
+            zaakFlowableInstanceResolver.invalidate(zaakUuid)
+            zaakFlowableInstanceResolver.resolve(zaakUuid)?.takeIf { it.active }?.let(::update)
+        }
     }
 }
@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2022 Atos, 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2022 Atos, 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package net.atos.zac.flowable.cmmn
@@ -8,6 +8,7 @@ import jakarta.enterprise.context.ApplicationScoped
 import jakarta.enterprise.inject.Instance
 import jakarta.inject.Inject
 import jakarta.transaction.Transactional
+import net.atos.zac.flowable.ZaakFlowableInstanceResolver
 import net.atos.zac.flowable.ZaakVariabelenService
 import net.atos.zac.flowable.cmmn.exception.CaseDefinitionNotFoundException
 import net.atos.zac.flowable.cmmn.exception.OpenTaskItemNotFoundException
@@ -40,7 +41,8 @@ class CMMNService @Inject constructor(
     private val cmmnRuntimeService: CmmnRuntimeService,
     private val cmmnHistoryService: CmmnHistoryService,
     private val cmmnRepositoryService: CmmnRepositoryService,
-    private val loggedInUserInstance: Instance<LoggedInUser>
+    private val loggedInUserInstance: Instance<LoggedInUser>,
+    private val zaakFlowableInstanceResolver: ZaakFlowableInstanceResolver
 ) {
     companion object {
         private val LOG = Logger.getLogger(CMMNService::class.java.getName())
@@ -55,6 +57,7 @@ class CMMNService @Inject constructor(
                 // delete any historic case instances
                 cmmnHistoryService.deleteHistoricCaseInstance(it.id)
             }
+            .also { zaakFlowableInstanceResolver.invalidate(zaakUUID) }
 
     fun listHumanTaskPlanItems(zaakUUID: UUID): List<PlanItemInstance> =
         cmmnRuntimeService.createPlanItemInstanceQuery()
@@ -107,6 +110,7 @@ class CMMNService @Inject constructor(
             .singleResult()?.let {
                 cmmnRuntimeService.terminateCaseInstance(it.id)
             }
+            .also { zaakFlowableInstanceResolver.invalidate(zaakUUID) }
 
     @Suppress("LongParameterList")
     fun startHumanTaskPlanItem(
@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2021 Atos, 2025 INFO.nl
+ * SPDX-FileCopyrightText: 2021 Atos, 2025 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package net.atos.zac.flowable.cmmn
@@ -47,7 +47,10 @@ class UpdateZaakLifecycleListener : PlanItemInstanceLifecycleListener {
     }
 
     private fun updateZaak(planItemInstance: PlanItemInstance, statustypeOmschrijving: String) {
-        val zaakUUID = FlowableHelper.getInstance().zaakVariabelenService.readZaakUUID(planItemInstance)
+        val zaakVariabelenService = FlowableHelper.getInstance().zaakVariabelenService
+        val zaakUUID = zaakVariabelenService.readZaakUUID(planItemInstance)
+        // the case may end with this status change, so that its cached instance is no longer active
+        zaakVariabelenService.evictFlowableInstance(zaakUUID)
         val zaak = FlowableHelper.getInstance().zrcClientService.readZaak(zaakUUID)
         LOG.info("Zaak '$zaakUUID': Change Status to '$statustypeOmschrijving'")
         FlowableHelper.getInstance().zgwApiService.createStatusForZaak(zaak, statustypeOmschrijving, STATUS_TOELICHTING)
@@ -1,28 +1,93 @@
 /*
- * SPDX-FileCopyrightText: 2025 INFO.nl
+ * SPDX-FileCopyrightText: 2025 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.client.pabc
 
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.github.benmanes.caffeine.cache.stats.CacheStats
+import jakarta.annotation.Resource
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService
 import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.context.Initialized
+import jakarta.enterprise.event.Observes
 import jakarta.inject.Inject
+import net.atos.client.zgw.shared.cache.Caching
 import nl.info.client.pabc.model.generated.GetApplicationRolesRequest
 import nl.info.client.pabc.model.generated.GetApplicationRolesResponse
 import nl.info.client.pabc.model.generated.GroupRepresentation
+import nl.info.zac.cache.CacheInvalidation
+import nl.info.zac.cache.CacheInvalidationBus
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
+import org.eclipse.microprofile.config.inject.ConfigProperty
 import org.eclipse.microprofile.rest.client.inject.RestClient
+import java.util.concurrent.TimeUnit
+import java.util.logging.Level
+import java.util.logging.Logger
 
+/**
+ * Reads the authorisation mappings of ZAC from the PABC.
+ *
+ * The mappings are cached, because they are needed for almost every request, and even once per zaak when zaken are
+ * assigned in bulk, while they rarely change. The cached mappings are refreshed in the background periodically.
+ * When they can no longer be refreshed, for example because the PABC is unavailable, they expire after a few refresh
+ * intervals. Clearing the caches clears them on all nodes of the cluster, using the [CacheInvalidationBus].
+ */
 @ApplicationScoped
 @NoArgConstructor
 @AllOpen
+@Suppress("TooManyFunctions")
 class PabcClientService @Inject constructor(
-    @RestClient private val pabcClient: PabcClient
-) {
+    @RestClient private val pabcClient: PabcClient,
+    private val cacheInvalidationBus: CacheInvalidationBus,
+
+    @ConfigProperty(name = "PABC_CACHE_REFRESH_INTERVAL_SECONDS", defaultValue = "300")
+    private val refreshIntervalSeconds: Long
+) : Caching {
+    companion object {
+        const val PABC_APPLICATION_ROLES = "pabc-application-roles"
+        const val PABC_GROUPS = "pabc-groups"
+
+        private val LOG = Logger.getLogger(PabcClientService::class.java.name)
+        private const val MAX_CACHE_SIZE = 1_000L
+        private const val EXPIRATION_REFRESH_INTERVALS = 3
+    }
+
+    data class GroupsKey(
+        val applicationRole: String,
+        val zaaktypeDescription: String
+    )
+
+    @Resource
+    lateinit var managedScheduledExecutorService: ManagedScheduledExecutorService
+
+    private val applicationRolesCache: Cache<Set<String>, GetApplicationRolesResponse> =
+        createCache(PABC_APPLICATION_ROLES)
+    private val groupsCache: Cache<GroupsKey, List<GroupRepresentation>> = createCache(PABC_GROUPS)
+
+    private val caches = mapOf(PABC_APPLICATION_ROLES to applicationRolesCache, PABC_GROUPS to groupsCache)
+
+    fun onStartup(@Observes @Initialized(ApplicationScoped::class) @Suppress("UNUSED_PARAMETER") event: Any) {
+        if (refreshIntervalSeconds > 0) {
+            managedScheduledExecutorService.scheduleWithFixedDelay(
+                ::refreshLoggingExceptions,
+                refreshIntervalSeconds,
+                refreshIntervalSeconds,
+                TimeUnit.SECONDS
+            )
+        }
+    }
+
     fun getApplicationRoles(functionalRoles: List<String>): GetApplicationRolesResponse =
-        pabcClient.getApplicationRolesPerEntityType(
-            GetApplicationRolesRequest().apply { functionalRoleNames = functionalRoles }
-        )
+        applicationRolesCache.get(functionalRoles.toSet()) { readApplicationRoles(functionalRoles) }
+
+    /**
+     * Returns the application roles for the given functional roles directly from the PABC, bypassing the cache.
+     */
+    fun getApplicationRolesUncached(functionalRoles: List<String>): GetApplicationRolesResponse =
+        readApplicationRoles(functionalRoles)
 
     /**
      * Returns the list of groups that are authorised for the given ZAC application role and zaaktype description.
@@ -32,10 +97,64 @@ class PabcClientService @Inject constructor(
     fun getGroupsByApplicationRoleAndZaaktype(
         applicationRole: String,
         zaaktypeDescription: String
-    ): List<GroupRepresentation> = pabcClient.getGroupsByApplicationRoleAndEntityType(
-        applicationName = APPLICATION_NAME_ZAC,
-        applicationRoleName = applicationRole,
-        entityTypeId = zaaktypeDescription,
-        entityType = ENTITY_TYPE_ZAAKTYPE
-    ).groups
+    ): List<GroupRepresentation> =
+        groupsCache.get(GroupsKey(applicationRole, zaaktypeDescription)) { readGroups(it) }
+
+    /**
+     * Reads all cached authorisation mappings from the PABC again.
+     */
+    fun refresh() {
+        applicationRolesCache.asMap().keys.forEach { applicationRolesCache.put(it, readApplicationRoles(it.toList())) }
+        groupsCache.asMap().keys.forEach { groupsCache.put(it, readGroups(it)) }
+        LOG.fine { "Refreshed ${applicationRolesCache.estimatedSize() + groupsCache.estimatedSize()} PABC mappings" }
+    }
+
+    fun clearCaches(): List<String> = caches.keys.map { name ->
+        caches.getValue(name).invalidateAll()
+        cacheInvalidationBus.publish(CacheInvalidation(name))
+        cleared(name)
+    }
+
+    /**
+     * Evicts the local caches that were cleared on another node of the cluster.
+     */
+    fun onCacheInvalidation(@Observes cacheInvalidation: CacheInvalidation) =
+        caches.filterKeys { cacheInvalidation.appliesTo(it) }.values.forEach { it.invalidateAll() }
+
+    override fun cacheStatistics(): Map<String, CacheStats> = caches.mapValues { it.value.stats() }
+
+    override fun estimatedCacheSizes(): Map<String, Long> = caches.mapValues { it.value.estimatedSize() }
+
+    private fun readApplicationRoles(functionalRoles: List<String>): GetApplicationRolesResponse =
+        pabcClient.getApplicationRolesPerEntityType(
+            GetApplicationRolesRequest().apply { functionalRoleNames = functionalRoles }
+        )
+
+    private fun readGroups(key: GroupsKey): List<GroupRepresentation> =
+        pabcClient.getGroupsByApplicationRoleAndEntityType(
+            applicationName = APPLICATION_NAME_ZAC,
+            applicationRoleName = key.applicationRole,
+            entityTypeId = key.zaaktypeDescription,
+            entityType = ENTITY_TYPE_ZAAKTYPE
+        ).groups
+
+    private fun <K : Any, V : Any> createCache(name: String): Cache<K, V> =
+        Caffeine.newBuilder()
+            .maximumSize(MAX_CACHE_SIZE)
+            .expireAfterWrite(refreshIntervalSeconds * EXPIRATION_REFRESH_INTERVALS, TimeUnit.SECONDS)
+            .recordStats()
+            .removalListener<K, V> { key, _, cause ->
+                LOG.finest { "Removing key: $key in cache $name because of: $cause" }
+            }
+            .build()
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun refreshLoggingExceptions() {
+        try {
+            refresh()
+        } catch (exception: Exception) {
+            // never let an exception escape, because that would cancel the scheduled refresh
+            LOG.log(Level.WARNING, "Failed to refresh the PABC mappings. Using the cached mappings until they expire", exception)
+        }
+    }
 }
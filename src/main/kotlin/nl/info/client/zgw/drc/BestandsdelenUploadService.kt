@@ -0,0 +1,215 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.client.zgw.drc
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import jakarta.ws.rs.core.MediaType
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.runBlocking
+import nl.info.client.zgw.drc.exception.DrcRuntimeException
+import nl.info.client.zgw.drc.model.generated.BestandsDeel
+import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObject
+import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObjectCreateLockRequest
+import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObjectWithLockRequest
+import nl.info.client.zgw.drc.model.generated.LockEnkelvoudigInformatieObject
+import nl.info.client.zgw.util.ZgwClientHeadersFactory
+import nl.info.client.zgw.util.extractUuid
+import nl.info.zac.authentication.ServletRequestProducingListener.Companion.currentServletRequestContextElement
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import nl.info.zac.util.toBase64String
+import org.apache.commons.io.input.BoundedInputStream
+import org.eclipse.microprofile.config.inject.ConfigProperty
+import org.eclipse.microprofile.rest.client.inject.RestClient
+import org.jboss.resteasy.plugins.providers.multipart.MultipartFormDataOutput
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.UUID
+import java.util.logging.Level
+import java.util.logging.Logger
+
+/**
+ * Uploads the content of enkelvoudig informatieobjecten from a file to the DRC, so that the content is never held
+ * in memory as a whole.
+ *
+ * Content of at most [inlineThresholdBytes] is sent Base64 encoded in the request itself. Larger content is uploaded
+ * in bestandsdelen, as specified by the Documenten API: the informatieobject is created or updated without content,
+ * upon which the DRC locks it and returns the bestandsdelen to upload. The bestandsdelen are uploaded in parallel,
+ * each streamed from its own region of the file and on behalf of the logged-in user that started the upload.
+ * The DRC merges them into the new content when the informatieobject is unlocked.
+ */
+@ApplicationScoped
+@AllOpen
+@NoArgConstructor
+class BestandsdelenUploadService @Inject constructor(
+    @RestClient private val drcClient: DrcClient,
+    private val zgwClientHeadersFactory: ZgwClientHeadersFactory,
+
+    @ConfigProperty(name = "DRC_BESTANDSDELEN_UPLOAD_THRESHOLD_BYTES", defaultValue = "1048576")
+    private val inlineThresholdBytes: Long,
+
+    @ConfigProperty(name = "DRC_BESTANDSDELEN_UPLOAD_PARALLELISM", defaultValue = "4")
+    private val parallelism: Int
+) {
+    companion object {
+        private val LOG = Logger.getLogger(BestandsdelenUploadService::class.java.name)
+
+        private const val UPLOAD_ATTEMPTS = 3
+    }
+
+    /**
+     * Creates an enkelvoudig informatieobject with the content of the given file.
+     * When the content is uploaded in bestandsdelen, the informatieobject is unlocked once all of them are uploaded,
+     * and deleted again when the upload fails.
+     */
+    fun createEnkelvoudigInformatieobject(
+        enkelvoudigInformatieObjectCreateLockRequest: EnkelvoudigInformatieObjectCreateLockRequest,
+        content: Path
+    ): EnkelvoudigInformatieObject {
+        val size = Files.size(content)
+        enkelvoudigInformatieObjectCreateLockRequest.bestandsomvang = Math.toIntExact(size)
+        if (size <= inlineThresholdBytes) {
+            enkelvoudigInformatieObjectCreateLockRequest.inhoud = Files.readAllBytes(content).toBase64String()
+            return drcClient.enkelvoudigInformatieobjectCreate(enkelvoudigInformatieObjectCreateLockRequest)
+        }
+        enkelvoudigInformatieObjectCreateLockRequest.inhoud = null
+        val created = drcClient.enkelvoudigInformatieobjectCreateWithBestandsdelen(
+            enkelvoudigInformatieObjectCreateLockRequest
+        )
+        val uuid = created.url.extractUuid()
+        try {
+            uploadBestandsdelen(created.bestandsdelen, created.lock, content)
+            drcClient.enkelvoudigInformatieobjectUnlock(uuid, LockEnkelvoudigInformatieObject(created.lock))
+        } catch (exception: RuntimeException) {
+            deleteIncompleteEnkelvoudigInformatieobject(uuid)
+            throw exception
+        }
+        return drcClient.enkelvoudigInformatieobjectRead(uuid)
+    }
+
+    /**
+     * Updates an enkelvoudig informatieobject, locked with the lock in the request, with the content of the given file.
+     *
+     * When the content is uploaded in bestandsdelen, the returned informatieobject still lists them, as the DRC only
+     * merges the uploaded bestandsdelen into the new content when the informatieobject is unlocked.
+     * When not all bestandsdelen can be uploaded, a [DrcRuntimeException] is thrown and the informatieobject stays
+     * locked with its metadata updated but its new content incomplete, so that the caller can unlock it again.
+     */
+    fun updateEnkelvoudigInformatieobject(
+        enkelvoudigInformatieobjectUUID: UUID,
+        enkelvoudigInformatieObjectWithLockRequest: EnkelvoudigInformatieObjectWithLockRequest,
+        content: Path,
+        auditExplanation: String?
+    ): EnkelvoudigInformatieObject {
+        val size = Files.size(content)
+        val inline = size <= inlineThresholdBytes
+        enkelvoudigInformatieObjectWithLockRequest.bestandsomvang = Math.toIntExact(size)
+        enkelvoudigInformatieObjectWithLockRequest.inhoud =
+            if (inline) Files.readAllBytes(content).toBase64String() else null
+        auditExplanation?.let { zgwClientHeadersFactory.setAuditExplanation(it) }
+        return drcClient.enkelvoudigInformatieobjectPartialUpdate(
+            uuid = enkelvoudigInformatieobjectUUID,
+            enkelvoudigInformatieObjectWithLockRequest = enkelvoudigInformatieObjectWithLockRequest
+        ).also {
+            if (!inline) {
+                uploadBestandsdelen(it.bestandsdelen, enkelvoudigInformatieObjectWithLockRequest.lock, content)
+            }
+        }
+    }
+
+    /**
+     * Uploads the bestandsdelen with at most [parallelism] uploads at a time.
+     * Each bestandsdeel contains the bytes of the file that follow those of the bestandsdelen with a lower volgnummer.
+     * Bestandsdelen of which the upload fails are uploaded again, up to [UPLOAD_ATTEMPTS] times in total.
+     */
+    private fun uploadBestandsdelen(bestandsdelen: List<BestandsDeel>, lock: String, content: Path) {
+        var nextOffset = 0L
+        val uploads = bestandsdelen.sortedBy { it.volgnummer }.map { bestandsdeel ->
+            (bestandsdeel to nextOffset).also { nextOffset += bestandsdeel.omvang }
+        }
+        LOG.fine { "Uploading ${uploads.size} bestandsdelen of $nextOffset bytes in total" }
+        var failedUploads = uploadConcurrently(uploads, lock, content)
+        for (attempt in 2..UPLOAD_ATTEMPTS) {
+            if (failedUploads.isEmpty()) {
+                return
+            }
+            LOG.warning { "Retrying the upload of ${failedUploads.size} bestandsdelen (attempt $attempt of $UPLOAD_ATTEMPTS)" }
+            failedUploads = uploadConcurrently(failedUploads.keys.toList(), lock, content)
+        }
+        if (failedUploads.isNotEmpty()) {
+            throw DrcRuntimeException(
+                "Failed to upload ${failedUploads.size} of ${uploads.size} bestandsdelen " +
+                    "after $UPLOAD_ATTEMPTS attempts: ${failedUploads.values.first().message}"
+            )
+        }
+    }
+
+    /**
+     * Uploads the given bestandsdelen concurrently and returns the failure of each bestandsdeel that was not uploaded.
+     * The uploads run with the servlet request of the calling thread, so that the DRC receives them from the logged-in
+     * user and not from the functional user.
+     */
+    @OptIn(kotlinx.coroutines.ExperimentalCoroutinesApi::class)
+    @Suppress("TooGenericExceptionCaught")
+    private fun uploadConcurrently(
+        uploads: List<Pair<BestandsDeel, Long>>,
+        lock: String,
+        content: Path
+    ): Map<Pair<BestandsDeel, Long>, RuntimeException> = runBlocking(
+        Dispatchers.IO.limitedParallelism(parallelism) + currentServletRequestContextElement()
+    ) {
+        uploads.map { upload ->
+            async {
+                val (bestandsdeel, offset) = upload
+                try {
+                    uploadBestandsdeel(bestandsdeel, offset, lock, content)
+                    null
+                } catch (exception: RuntimeException) {
+                    LOG.log(Level.WARNING, "Failed to upload bestandsdeel ${bestandsdeel.volgnummer}", exception)
+                    upload to exception
+                }
+            }
+        }.awaitAll().filterNotNull().toMap()
+    }
+
+    private fun uploadBestandsdeel(bestandsdeel: BestandsDeel, offset: Long, lock: String, content: Path) {
+        Files.newInputStream(content).use { fileInputStream ->
+            fileInputStream.skipNBytes(offset)
+            val inputStream = BoundedInputStream.builder()
+                .setInputStream(fileInputStream)
+                .setMaxCount(bestandsdeel.omvang.toLong())
+                .get()
+            drcClient.bestandsdeelUpdate(
+                bestandsdeel.url.extractUuid(),
+                MultipartFormDataOutput().apply {
+                    addFormData("lock", lock, MediaType.TEXT_PLAIN_TYPE)
+                    addFormData(
+                        "inhoud",
+                        inputStream,
+                        MediaType.APPLICATION_OCTET_STREAM_TYPE,
+                        "${content.fileName}.${bestandsdeel.volgnummer}"
+                    )
+                }
+            )
+        }
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun deleteIncompleteEnkelvoudigInformatieobject(enkelvoudigInformatieobjectUUID: UUID) {
+        try {
+            drcClient.enkelvoudigInformatieobjectDelete(enkelvoudigInformatieobjectUUID)
+        } catch (exception: RuntimeException) {
+            LOG.log(
+                Level.WARNING,
+                "Failed to delete enkelvoudig informatieobject '$enkelvoudigInformatieobjectUUID' " +
+                    "of which the content could not be uploaded",
+                exception
+            )
+        }
+    }
+}
@@ -6,16 +6,20 @@
 package nl.info.client.zgw.drc
 
 import jakarta.ws.rs.BeanParam
+import jakarta.ws.rs.Consumes
 import jakarta.ws.rs.DELETE
 import jakarta.ws.rs.GET
+import jakarta.ws.rs.HeaderParam
 import jakarta.ws.rs.PATCH
 import jakarta.ws.rs.POST
+import jakarta.ws.rs.PUT
 import jakarta.ws.rs.Path
 import jakarta.ws.rs.PathParam
 import jakarta.ws.rs.Produces
 import jakarta.ws.rs.QueryParam
 import jakarta.ws.rs.core.MediaType.APPLICATION_JSON
 import jakarta.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM
+import jakarta.ws.rs.core.MediaType.MULTIPART_FORM_DATA
 import jakarta.ws.rs.core.Response
 import net.atos.client.zgw.shared.exception.ZgwErrorExceptionMapper
 import net.atos.client.zgw.shared.exception.ZgwValidationErrorResponseExceptionMapper
@@ -25,8 +29,10 @@ import nl.info.client.zgw.util.JsonbConfiguration
 import nl.info.client.zgw.drc.exception.DrcRuntimeResponseExceptionMapper
 import nl.info.client.zgw.drc.model.EnkelvoudigInformatieobjectListParameters
 import nl.info.client.zgw.drc.model.ObjectInformatieobjectListParameters
+import nl.info.client.zgw.drc.model.generated.BestandsDeel
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObject
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObjectCreateLockRequest
+import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObjectCreateLockSub
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObjectWithLockRequest
 import nl.info.client.zgw.drc.model.generated.Gebruiksrechten
 import nl.info.client.zgw.drc.model.generated.LockEnkelvoudigInformatieObject
@@ -35,6 +41,7 @@ import nl.info.client.zgw.util.ZgwClientHeadersFactory
 import org.eclipse.microprofile.rest.client.annotation.RegisterClientHeaders
 import org.eclipse.microprofile.rest.client.annotation.RegisterProvider
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient
+import org.jboss.resteasy.plugins.providers.multipart.MultipartFormDataOutput
 import java.util.UUID
 
 @RegisterRestClient(configKey = "ZGW-API-Client")
@@ -54,6 +61,16 @@ interface DrcClient {
         enkelvoudigInformatieObjectCreateLockRequest: EnkelvoudigInformatieObjectCreateLockRequest
     ): EnkelvoudigInformatieObject
 
+    /**
+     * Creates an enkelvoudig informatieobject without content, for which the DRC returns the bestandsdelen to upload
+     * the content in, together with the lock that is needed to upload them.
+     */
+    @POST
+    @Path("enkelvoudiginformatieobjecten")
+    fun enkelvoudigInformatieobjectCreateWithBestandsdelen(
+        enkelvoudigInformatieObjectCreateLockRequest: EnkelvoudigInformatieObjectCreateLockRequest
+    ): EnkelvoudigInformatieObjectCreateLockSub
+
     @GET
     @Path("enkelvoudiginformatieobjecten")
     fun enkelvoudigInformatieobjectList(
@@ -84,6 +101,19 @@ interface DrcClient {
         @QueryParam("versie") versie: Int
     ): Response
 
+    /**
+     * Downloads a byte range of the content of the current version, or of a specific version when [versie] is given.
+     * The DRC answers with 206 Partial Content, or with the whole content when it does not support byte ranges.
+     */
+    @GET
+    @Produces(APPLICATION_OCTET_STREAM)
+    @Path("enkelvoudiginformatieobjecten/{uuid}/download")
+    fun enkelvoudigInformatieobjectDownloadRange(
+        @PathParam("uuid") uuid: UUID,
+        @QueryParam("versie") versie: Int?,
+        @HeaderParam("Range") range: String
+    ): Response
+
     @PATCH
     @Path("enkelvoudiginformatieobjecten/{uuid}")
     fun enkelvoudigInformatieobjectPartialUpdate(
@@ -109,6 +139,14 @@ interface DrcClient {
         lock: LockEnkelvoudigInformatieObject
     ): Response
 
+    @PUT
+    @Consumes(MULTIPART_FORM_DATA)
+    @Path("bestandsdelen/{uuid}")
+    fun bestandsdeelUpdate(
+        @PathParam("uuid") uuid: UUID,
+        bestandsdeel: MultipartFormDataOutput
+    ): BestandsDeel
+
     @POST
     @Path("gebruiksrechten")
     fun gebruiksrechtenCreate(gebruiksrechten: Gebruiksrechten): Gebruiksrechten
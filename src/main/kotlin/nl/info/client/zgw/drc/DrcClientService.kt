@@ -9,6 +9,7 @@ import jakarta.inject.Inject
 import net.atos.client.zgw.shared.model.Results
 import net.atos.client.zgw.shared.model.audit.AuditTrailRegel
 import nl.info.client.zgw.drc.exception.DrcRuntimeException
+import nl.info.client.zgw.drc.model.EnkelvoudigInformatieobjectContent
 import nl.info.client.zgw.drc.model.EnkelvoudigInformatieobjectListParameters
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObject
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObjectCreateLockRequest
@@ -24,6 +25,7 @@ import nl.info.zac.util.NoArgConstructor
 import org.eclipse.microprofile.rest.client.inject.RestClient
 import java.io.ByteArrayInputStream
 import java.net.URI
+import java.nio.file.Path
 import java.util.UUID
 
 @ApplicationScoped
@@ -33,7 +35,8 @@ import java.util.UUID
 class DrcClientService @Inject constructor(
     @RestClient private val drcClient: DrcClient,
     private val zgwClientHeadersFactory: ZgwClientHeadersFactory,
-    private val configurationService: ConfigurationService
+    private val configurationService: ConfigurationService,
+    private val bestandsdelenUploadService: BestandsdelenUploadService
 ) {
     fun readEnkelvoudigInformatieobject(enkelvoudigInformatieobjectUUID: UUID): EnkelvoudigInformatieObject =
         drcClient.enkelvoudigInformatieobjectRead(enkelvoudigInformatieobjectUUID)
@@ -53,11 +56,24 @@ class DrcClientService @Inject constructor(
         drcClient.enkelvoudigInformatieobjectDelete(enkelvoudigInformatieobjectUUID)
     }
 
+    /**
+     * Updates an enkelvoudig informatieobject. When the new content is given as a file, it is uploaded from that file
+     * by the [BestandsdelenUploadService].
+     */
     fun updateEnkelvoudigInformatieobject(
         enkelvoudigInformatieobjectUUID: UUID,
         enkelvoudigInformatieObjectWithLockRequest: EnkelvoudigInformatieObjectWithLockRequest,
-        auditExplanation: String?
+        auditExplanation: String?,
+        content: Path? = null
     ): EnkelvoudigInformatieObject {
+        if (content != null) {
+            return bestandsdelenUploadService.updateEnkelvoudigInformatieobject(
+                enkelvoudigInformatieobjectUUID,
+                enkelvoudigInformatieObjectWithLockRequest,
+                content,
+                auditExplanation
+            )
+        }
         auditExplanation?.let { zgwClientHeadersFactory.setAuditExplanation(it) }
         return drcClient.enkelvoudigInformatieobjectPartialUpdate(
             uuid = enkelvoudigInformatieobjectUUID,
@@ -106,6 +122,30 @@ class DrcClientService @Inject constructor(
         return response.entity as ByteArrayInputStream
     }
 
+    /**
+     * Opens the content of an enkelvoudig informatieobject, or of a specific version of it, as a stream
+     * without buffering it in memory. When a `Range` header value is given, only that byte range is requested from
+     * the DRC, see [EnkelvoudigInformatieobjectContent.partial]. The caller must close the returned content.
+     */
+    fun streamEnkelvoudigInformatieobject(
+        enkelvoudigInformatieobjectUUID: UUID,
+        version: Int? = null,
+        range: String? = null
+    ): EnkelvoudigInformatieobjectContent = EnkelvoudigInformatieobjectContent(
+        when {
+            range != null -> drcClient.enkelvoudigInformatieobjectDownloadRange(
+                uuid = enkelvoudigInformatieobjectUUID,
+                versie = version,
+                range = range
+            )
+            version != null -> drcClient.enkelvoudigInformatieobjectDownloadVersie(
+                uuid = enkelvoudigInformatieobjectUUID,
+                versie = version
+            )
+            else -> drcClient.enkelvoudigInformatieobjectDownload(enkelvoudigInformatieobjectUUID)
+        }
+    )
+
     fun listAuditTrail(enkelvoudigInformatieobjectUUID: UUID): List<AuditTrailRegel> =
         drcClient.listAuditTrail(enkelvoudigInformatieobjectUUID)
 
@@ -113,11 +153,18 @@ class DrcClientService @Inject constructor(
         filter: EnkelvoudigInformatieobjectListParameters
     ): Results<EnkelvoudigInformatieObject> = drcClient.enkelvoudigInformatieobjectList(filter)
 
+    /**
+     * Creates an enkelvoudig informatieobject. When the content is given as a file, it is uploaded from that file
+     * by the [BestandsdelenUploadService].
+     */
     fun createEnkelvoudigInformatieobject(
-        enkelvoudigInformatieObjectCreateLockRequest: EnkelvoudigInformatieObjectCreateLockRequest
-    ): EnkelvoudigInformatieObject = drcClient.enkelvoudigInformatieobjectCreate(
-        enkelvoudigInformatieObjectCreateLockRequest
-    )
+        enkelvoudigInformatieObjectCreateLockRequest: EnkelvoudigInformatieObjectCreateLockRequest,
+        content: Path? = null
+    ): EnkelvoudigInformatieObject = if (content != null) {
+        bestandsdelenUploadService.createEnkelvoudigInformatieobject(enkelvoudigInformatieObjectCreateLockRequest, content)
+    } else {
+        drcClient.enkelvoudigInformatieobjectCreate(enkelvoudigInformatieObjectCreateLockRequest)
+    }
 
     fun createGebruiksrechten(gebruiksrechten: Gebruiksrechten) =
         drcClient.gebruiksrechtenCreate(gebruiksrechten)
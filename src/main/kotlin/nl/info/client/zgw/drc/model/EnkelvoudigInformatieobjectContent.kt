@@ -0,0 +1,88 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.client.zgw.drc.model
+
+import jakarta.ws.rs.core.HttpHeaders
+import jakarta.ws.rs.core.Response
+import java.io.Closeable
+import java.io.FilterInputStream
+import java.io.InputStream
+import java.io.OutputStream
+
+/**
+ * The content of an enkelvoudig informatieobject as it is streamed from the DRC, without buffering it in memory.
+ * Closing the content closes the underlying connection to the DRC.
+ */
+class EnkelvoudigInformatieobjectContent(private val response: Response) : Closeable {
+    companion object {
+        const val BUFFER_SIZE = 64 * 1024
+
+        private const val CONTENT_RANGE = "Content-Range"
+    }
+
+    val contentType: String? = response.mediaType?.toString()
+
+    /**
+     * The size of the content in bytes, or `null` when the DRC did not provide it.
+     */
+    val contentLength: Long? = response.getHeaderString(HttpHeaders.CONTENT_LENGTH)?.toLongOrNull()
+
+    /**
+     * Whether the DRC returned only the requested byte range (206 Partial Content) instead of the whole content.
+     */
+    val partial: Boolean = response.status == Response.Status.PARTIAL_CONTENT.statusCode
+
+    /**
+     * The byte range returned by the DRC for [partial] content, as a `Content-Range` header value.
+     */
+    val contentRange: String? = response.getHeaderString(CONTENT_RANGE)
+
+    /**
+     * The content itself. Closing this stream also closes the connection to the DRC.
+     */
+    val inputStream: InputStream by lazy {
+        object : FilterInputStream(response.readEntity(InputStream::class.java)) {
+            override fun close() {
+                try {
+                    super.close()
+                } finally {
+                    response.close()
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the content to the given output stream using a fixed-size buffer, and closes the connection to the DRC
+     * afterwards. The connection is also closed when writing fails, for example because the client aborted
+     * the download.
+     *
+     * @return the number of bytes copied
+     */
+    fun writeTo(outputStream: OutputStream): Long = use { inputStream.copyTo(outputStream, BUFFER_SIZE) }
+
+    /**
+     * Copies at most [length] bytes of the content, starting at [offset], to the given output stream, and closes
+     * the connection to the DRC afterwards. Used to send a byte range of content that the DRC returned as a whole.
+     *
+     * @return the number of bytes copied
+     */
+    fun writeTo(outputStream: OutputStream, offset: Long, length: Long): Long = use {
+        inputStream.skipNBytes(offset)
+        val buffer = ByteArray(BUFFER_SIZE)
+        var remaining = length
+        while (remaining > 0) {
+            val read = inputStream.read(buffer, 0, minOf(remaining, BUFFER_SIZE.toLong()).toInt())
+            if (read < 0) {
+                break
+            }
+            outputStream.write(buffer, 0, read)
+            remaining -= read
+        }
+        length - remaining
+    }
+
+    override fun close() = response.close()
+}
@@ -43,6 +43,7 @@ import nl.info.zac.exception.NotSupportedException
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
 import java.net.URI
+import java.nio.file.Path
 import java.time.LocalDate
 import java.time.Period
 import java.time.ZonedDateTime
@@ -240,6 +241,7 @@ class ZgwApiService @Inject constructor(
      * @param beschrijving Beschrijving of the new [ZaakInformatieObject].
      * @param omschrijvingVoorwaardenGebruiksrechten Used to create the [Gebruiksrechten] for the to be created
      * [EnkelvoudigInformatieObject]
+     * @param content File with the content of the [EnkelvoudigInformatieObject], when it is not part of the request.
      * @return Created [ZaakInformatieObject].
      */
     fun createZaakInformatieobjectForZaak(
@@ -247,10 +249,12 @@ class ZgwApiService @Inject constructor(
         enkelvoudigInformatieObjectCreateLockRequest: EnkelvoudigInformatieObjectCreateLockRequest,
         titel: String,
         beschrijving: String?,
-        omschrijvingVoorwaardenGebruiksrechten: String?
+        omschrijvingVoorwaardenGebruiksrechten: String?,
+        content: Path? = null
     ): ZaakInformatieObject {
         val newInformatieObjectData = drcClientService.createEnkelvoudigInformatieobject(
-            enkelvoudigInformatieObjectCreateLockRequest
+            enkelvoudigInformatieObjectCreateLockRequest,
+            content
         )
         // Gebruiksrechten are required for every created zaakinformatieobject or else
         // the zaak in question can no longer be aborted or closed (OpenZaak will return a 400 error on aborting or closing in that case).
@@ -10,19 +10,13 @@ import jakarta.ws.rs.core.HttpHeaders
 import jakarta.ws.rs.core.MultivaluedMap
 import nl.info.zac.authentication.LoggedInUser
 import nl.info.zac.util.NoArgConstructor
-import org.eclipse.microprofile.config.inject.ConfigProperty
 import org.eclipse.microprofile.rest.client.ext.ClientHeadersFactory
 import java.util.concurrent.ConcurrentHashMap
 
 @NoArgConstructor
 class ZgwClientHeadersFactory @Inject constructor(
     private val loggedInUserInstance: Instance<LoggedInUser>,
-
-    @ConfigProperty(name = "ZGW_API_CLIENTID")
-    private val clientId: String,
-
-    @ConfigProperty(name = "ZGW_API_SECRET")
-    private val secret: String
+    private val zgwJwtTokenProvider: ZgwJwtTokenProvider
 ) : ClientHeadersFactory {
     companion object {
         private const val X_AUDIT_TOELICHTING_HEADER = "X-Audit-Toelichting"
@@ -54,7 +48,7 @@ class ZgwClientHeadersFactory @Inject constructor(
     private fun addAuthorizationHeader(
         outgoingHeaders: MultivaluedMap<String, String>,
         loggedInUser: LoggedInUser
-    ) = outgoingHeaders.add(HttpHeaders.AUTHORIZATION, generateZgwJwtToken(clientId, secret, loggedInUser))
+    ) = outgoingHeaders.add(HttpHeaders.AUTHORIZATION, zgwJwtTokenProvider.getToken(loggedInUser))
 
     private fun addXAuditToelichtingHeader(
         outgoingHeaders: MultivaluedMap<String, String>,
@@ -0,0 +1,62 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.client.zgw.util
+
+import com.auth0.jwt.algorithms.Algorithm
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import nl.info.zac.authentication.LoggedInUser
+import nl.info.zac.identity.model.getFullName
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import org.eclipse.microprofile.config.inject.ConfigProperty
+import java.time.Duration
+
+/**
+ * Provides the JWT tokens for authenticating with the ZGW APIs.
+ *
+ * Signed tokens are reused per user until shortly before the end of their validity window, so that not every
+ * request to a ZGW API has to create and sign a new token. The validity window must not exceed the maximum token age
+ * accepted by the ZGW APIs (`JWT_EXPIRY` in Open Zaak).
+ */
+@ApplicationScoped
+@AllOpen
+@NoArgConstructor
+class ZgwJwtTokenProvider @Inject constructor(
+    @ConfigProperty(name = "ZGW_API_CLIENTID")
+    private val clientId: String,
+
+    @ConfigProperty(name = "ZGW_API_SECRET")
+    secret: String,
+
+    @ConfigProperty(name = "ZGW_API_JWT_TOKEN_VALIDITY_SECONDS", defaultValue = "300")
+    tokenValiditySeconds: Long
+) {
+    companion object {
+        private const val MAX_CACHE_SIZE = 10_000L
+        private val RENEWAL_MARGIN = Duration.ofSeconds(30)
+    }
+
+    private data class TokenKey(val userId: String, val userRepresentation: String)
+
+    private val algorithm = Algorithm.HMAC256(secret)
+
+    private val tokens: Cache<TokenKey, String> = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHE_SIZE)
+        .expireAfterWrite(
+            Duration.ofSeconds(tokenValiditySeconds).minus(RENEWAL_MARGIN).coerceAtLeast(Duration.ZERO)
+        )
+        .build()
+
+    /**
+     * Returns a bearer token for the given user, which is reused as long as it is valid.
+     */
+    fun getToken(loggedInUser: LoggedInUser): String =
+        tokens.get(TokenKey(loggedInUser.id, loggedInUser.getFullName())) {
+            generateZgwJwtToken(clientId, algorithm, loggedInUser)
+        }
+}
@@ -14,11 +14,11 @@ import java.util.Date
  * Generates a JWT token for authenticating with ZGW APIs.
  *
  * @param clientId The client identifier.
- * @param secret The secret used to sign the token.
+ * @param algorithm The algorithm used to sign the token, created from the secret.
  * @param loggedInUser The logged-in user. The user id and full name are used for auditing purposes by the ZGW APIs.
  * @return The generated JWT token as a Bearer token string.
  */
-fun generateZgwJwtToken(clientId: String, secret: String, loggedInUser: LoggedInUser): String {
+fun generateZgwJwtToken(clientId: String, algorithm: Algorithm, loggedInUser: LoggedInUser): String {
     val jwtToken = JWT.create()
         .withIssuer(clientId)
         .withIssuedAt(Date())
@@ -30,6 +30,6 @@ fun generateZgwJwtToken(clientId: String, secret: String, loggedInUser: LoggedIn
                 withClaim("user_representation", it.getFullName())
             }
         }
-        .sign(Algorithm.HMAC256(secret))
+        .sign(algorithm)
     return "Bearer $jwtToken"
 }
@@ -1,11 +1,12 @@
 /*
- * SPDX-FileCopyrightText: 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.client.zgw.zrc.model
 
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
+import java.time.LocalDate
 import java.util.UUID
 
 /**
@@ -13,7 +14,11 @@ import java.util.UUID
  * The variable requires a setter function for the Eclipse MicroProfile REST Client library.
  *
  * @param uuid Unieke resource identifier (UUID4)
+ * @param startdatum De datum waarop met de uitvoering van de zaak is gestart
  */
 @NoArgConstructor
 @AllOpen
-data class ZaakUuid(var uuid: UUID)
+data class ZaakUuid(
+    var uuid: UUID,
+    var startdatum: LocalDate? = null
+)
@@ -8,6 +8,7 @@ import com.github.benmanes.caffeine.cache.Cache
 import com.github.benmanes.caffeine.cache.Caffeine
 import com.github.benmanes.caffeine.cache.stats.CacheStats
 import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.event.Observes
 import jakarta.inject.Inject
 import net.atos.client.zgw.shared.cache.Caching
 import net.atos.client.zgw.shared.model.Results
@@ -35,6 +36,8 @@ import nl.info.client.zgw.ztc.model.generated.RolType
 import nl.info.client.zgw.ztc.model.generated.StatusType
 import nl.info.client.zgw.ztc.model.generated.ZaakType
 import nl.info.client.zgw.ztc.model.generated.ZaakTypeInformatieObjectType
+import nl.info.zac.cache.CacheInvalidation
+import nl.info.zac.cache.CacheInvalidationBus
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
 import org.eclipse.microprofile.rest.client.inject.RestClient
@@ -46,6 +49,8 @@ import java.util.logging.Logger
 
 /**
  * Encapsulates [ZtcClient] by providing caching and authentication.
+ *
+ * Clearing a cache clears it on all nodes of the cluster, using the [CacheInvalidationBus].
  */
 @ApplicationScoped
 @AllOpen
@@ -53,11 +58,12 @@ import java.util.logging.Logger
 @Suppress("TooManyFunctions")
 class ZtcClientService @Inject constructor(
     @RestClient
-    private val ztcClient: ZtcClient
+    private val ztcClient: ZtcClient,
+    private val cacheInvalidationBus: CacheInvalidationBus
 ) : Caching {
     companion object {
         const val MAX_CACHE_SIZE: Long = 1_000
-        const val EXPIRATION_TIME_HOURS: Long = 1
+        const val EXPIRATION_TIME_HOURS: Long = 24
         const val ZAAKTYPE_PAGE_SIZE: Int = 100
 
         /**
@@ -108,6 +114,26 @@ class ZtcClientService @Inject constructor(
         private val rolTypeListCache: Cache<String, List<RolType>> = createCache("List<RolType>", 1)
         private val uuidToRolTypeCache: Cache<UUID, RolType> = createCache("UUID -> RolType")
         private val uriToEigenschappenCache: Cache<URI, List<Eigenschap>> = createCache("URI -> List<Eigenschap>")
+
+        private val CACHE_GROUPS: Map<String, List<Cache<*, *>>> = mapOf(
+            Caching.ZTC_CACHE_TIME to listOf(ztcTimeCache),
+            Caching.ZTC_ZAAKTYPE to listOf(uuidToZaakTypeCache, uriToZaakTypeListCache),
+            Caching.ZTC_STATUSTYPE to listOf(uuidToStatusTypeCache, uriToStatusTypeListCache),
+            Caching.ZTC_RESULTAATTYPE to listOf(uuidToResultaatTypeCache, uriToResultaatTypeListCache),
+            Caching.ZTC_INFORMATIEOBJECTTYPE to listOf(uuidToInformatieObjectTypeCache, uriToInformatieObjectTypeListCache),
+            Caching.ZTC_ZAAKTYPE_INFORMATIEOBJECTTYPE to listOf(uriToZaakTypeInformatieObjectTypeListCache),
+            Caching.ZTC_BESLUITTYPE to listOf(uuidToBesluitTypeCache, uriToBesluitTypeListCache),
+            ZTC_EIGENSCHAP to listOf(uriToEigenschappenCache),
+            Caching.ZTC_ROLTYPE to listOf(
+                uriOmschrijvingEnumToRolTypeCache,
+                uriOmschrijvingGeneriekEnumToRolTypeCache,
+                uriToRolTypeListCache,
+                rolTypeListCache,
+                uuidToRolTypeCache
+            )
+        )
+
+        private fun invalidateCacheGroup(name: String) = CACHE_GROUPS[name]?.forEach { it.invalidateAll() }
     }
 
     fun listCatalogus(catalogusListParameters: CatalogusListParameters): Results<Catalogus> =
@@ -434,58 +460,35 @@ class ZtcClientService @Inject constructor(
                 """.trimIndent()
             )
 
-    fun clearZaaktypeCache(): String {
-        uuidToZaakTypeCache.invalidateAll()
-        uriToZaakTypeListCache.invalidateAll()
-        return cleared(Caching.ZTC_ZAAKTYPE)
-    }
+    fun clearZaaktypeCache(): String = clearCacheGroup(Caching.ZTC_ZAAKTYPE)
 
-    fun clearStatustypeCache(): String {
-        uuidToStatusTypeCache.invalidateAll()
-        uriToStatusTypeListCache.invalidateAll()
-        return cleared(Caching.ZTC_STATUSTYPE)
-    }
+    fun clearStatustypeCache(): String = clearCacheGroup(Caching.ZTC_STATUSTYPE)
 
-    fun clearResultaattypeCache(): String {
-        uuidToResultaatTypeCache.invalidateAll()
-        uriToResultaatTypeListCache.invalidateAll()
-        return cleared(Caching.ZTC_RESULTAATTYPE)
-    }
+    fun clearResultaattypeCache(): String = clearCacheGroup(Caching.ZTC_RESULTAATTYPE)
 
-    fun clearInformatieobjecttypeCache(): String {
-        uuidToInformatieObjectTypeCache.invalidateAll()
-        uriToInformatieObjectTypeListCache.invalidateAll()
-        return cleared(Caching.ZTC_INFORMATIEOBJECTTYPE)
-    }
+    fun clearInformatieobjecttypeCache(): String = clearCacheGroup(Caching.ZTC_INFORMATIEOBJECTTYPE)
 
-    fun clearZaaktypeInformatieobjecttypeCache(): String {
-        uriToZaakTypeInformatieObjectTypeListCache.invalidateAll()
-        return cleared(Caching.ZTC_ZAAKTYPE_INFORMATIEOBJECTTYPE)
-    }
+    fun clearZaaktypeInformatieobjecttypeCache(): String = clearCacheGroup(Caching.ZTC_ZAAKTYPE_INFORMATIEOBJECTTYPE)
 
-    fun clearBesluittypeCache(): String {
-        uuidToBesluitTypeCache.invalidateAll()
-        uriToBesluitTypeListCache.invalidateAll()
-        return cleared(Caching.ZTC_BESLUITTYPE)
-    }
+    fun clearBesluittypeCache(): String = clearCacheGroup(Caching.ZTC_BESLUITTYPE)
 
-    fun clearEigenschapCache(): String {
-        uriToEigenschappenCache.invalidateAll()
-        return cleared(ZTC_EIGENSCHAP)
-    }
+    fun clearEigenschapCache(): String = clearCacheGroup(ZTC_EIGENSCHAP)
 
-    fun clearRoltypeCache(): String {
-        uriOmschrijvingEnumToRolTypeCache.invalidateAll()
-        uriOmschrijvingGeneriekEnumToRolTypeCache.invalidateAll()
-        uriToRolTypeListCache.invalidateAll()
-        rolTypeListCache.invalidateAll()
-        uuidToRolTypeCache.invalidateAll()
-        return cleared(Caching.ZTC_ROLTYPE)
-    }
+    fun clearRoltypeCache(): String = clearCacheGroup(Caching.ZTC_ROLTYPE)
+
+    fun clearCacheTime(): String = clearCacheGroup(Caching.ZTC_CACHE_TIME)
+
+    /**
+     * Evicts the local caches that were cleared on another node of the cluster.
+     * The ZTC caches are always cleared as a whole, because the list caches also contain the individual entries.
+     */
+    fun onCacheInvalidation(@Observes cacheInvalidation: CacheInvalidation) =
+        CACHE_GROUPS.keys.filter { cacheInvalidation.appliesTo(it) }.forEach { invalidateCacheGroup(it) }
 
-    fun clearCacheTime(): String {
-        ztcTimeCache.invalidateAll()
-        return cleared(Caching.ZTC_CACHE_TIME)
+    private fun clearCacheGroup(name: String): String {
+        invalidateCacheGroup(name)
+        cacheInvalidationBus.publish(CacheInvalidation(name))
+        return cleared(name)
     }
 
     override fun cacheStatistics(): Map<String, CacheStats> =
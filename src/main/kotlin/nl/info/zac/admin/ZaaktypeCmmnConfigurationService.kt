@@ -8,20 +8,28 @@ import com.github.benmanes.caffeine.cache.Cache
 import com.github.benmanes.caffeine.cache.Caffeine
 import com.github.benmanes.caffeine.cache.stats.CacheStats
 import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.event.Observes
 import jakarta.inject.Inject
 import net.atos.client.zgw.shared.cache.Caching
 import nl.info.zac.admin.model.ZaaktypeCmmnConfiguration
+import nl.info.zac.cache.CacheInvalidation
+import nl.info.zac.cache.CacheInvalidationBus
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
 import java.util.UUID
 import java.util.concurrent.TimeUnit
 import java.util.logging.Logger
 
+/**
+ * Caches the zaaktype CMMN configurations. Evictions are applied on all nodes of the cluster,
+ * using the [CacheInvalidationBus].
+ */
 @ApplicationScoped
 @AllOpen
 @NoArgConstructor
 class ZaaktypeCmmnConfigurationService @Inject constructor(
-    private val zaaktypeCmmnConfigurationBeheerService: ZaaktypeCmmnConfigurationBeheerService
+    private val zaaktypeCmmnConfigurationBeheerService: ZaaktypeCmmnConfigurationBeheerService,
+    private val cacheInvalidationBus: CacheInvalidationBus
 ) : Caching {
 
     companion object {
@@ -30,7 +38,7 @@ class ZaaktypeCmmnConfigurationService @Inject constructor(
 
         private val LOG = Logger.getLogger(ZaaktypeCmmnConfigurationService::class.java.name)
         private const val MAX_CACHE_SIZE = 20L
-        private const val EXPIRATION_TIME_HOURS = 1L
+        private const val EXPIRATION_TIME_HOURS = 24L
 
         private val caches = mutableMapOf<String, Cache<*, *>>()
 
@@ -64,18 +72,37 @@ class ZaaktypeCmmnConfigurationService @Inject constructor(
 
     fun cacheRemoveZaaktypeCmmnConfiguration(zaaktypeUUID: UUID) {
         uuidToConfigCache.invalidate(zaaktypeUUID)
+        cacheInvalidationBus.publish(
+            CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED, zaaktypeUUID.toString())
+        )
     }
 
     fun clearManagedCache(): String {
         uuidToConfigCache.invalidateAll()
+        cacheInvalidationBus.publish(CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED))
         return cleared(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED)
     }
 
     fun clearListCache(): String {
         listCache.invalidateAll()
+        cacheInvalidationBus.publish(CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION))
         return cleared(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION)
     }
 
+    /**
+     * Evicts the local cache entries that were evicted on another node of the cluster.
+     */
+    fun onCacheInvalidation(@Observes cacheInvalidation: CacheInvalidation) {
+        if (cacheInvalidation.appliesTo(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED)) {
+            cacheInvalidation.key
+                ?.let { uuidToConfigCache.invalidate(UUID.fromString(it)) }
+                ?: uuidToConfigCache.invalidateAll()
+        }
+        if (cacheInvalidation.appliesTo(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION)) {
+            listCache.invalidateAll()
+        }
+    }
+
     override fun cacheStatistics(): Map<String, CacheStats> =
         caches.mapValues { it.value.stats() }
 
@@ -52,4 +52,18 @@ class CsvRestService @Inject constructor(
         }
         return Response.ok(streamingOutput).header("Content-Type", MediaTypes.Text.CSV.mediaType).build()
     }
+
+    /**
+     * Exports all zoek objecten that match the search parameters, ignoring their paging parameters.
+     * The search results are retrieved from Solr page by page while the CSV is being sent.
+     */
+    @POST
+    @Path("export/volledig")
+    fun downloadFullCSV(@Valid restZoekParameters: RestZoekParameters): Response {
+        assertPolicy(policyService.readWerklijstRechten().zakenTakenExporteren)
+        val streamingOutput = restZoekParametersConverter.convert(restZoekParameters)
+            .let { searchService.searchAll(it) }
+            .let { csvService.exportToCsv(it.asIterable()) }
+        return Response.ok(streamingOutput).header("Content-Type", MediaTypes.Text.CSV.mediaType).build()
+    }
 }
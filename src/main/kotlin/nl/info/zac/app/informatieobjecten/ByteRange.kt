@@ -0,0 +1,57 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.app.informatieobjecten
+
+/**
+ * A single range of bytes of the content of a document, from [first] up to and including [last],
+ * as requested with an HTTP `Range` header for content of [contentLength] bytes.
+ */
+data class ByteRange(val first: Long, val last: Long, val contentLength: Long) {
+    companion object {
+        private val SINGLE_BYTE_RANGE_REGEX = Regex("""bytes=(\d*)-(\d*)""")
+
+        /**
+         * Parses a `Range` header value for content of the given length.
+         *
+         * @return the requested range, or `null` when the header is malformed or requests multiple ranges,
+         * in which case the whole content is to be sent
+         */
+        fun parse(rangeHeader: String, contentLength: Long): ByteRange? {
+            val (first, last) = SINGLE_BYTE_RANGE_REGEX.matchEntire(rangeHeader.trim())?.destructured ?: return null
+            return when {
+                first.isEmpty() && last.isEmpty() -> null
+                // a suffix range requests the last bytes of the content
+                first.isEmpty() -> last.toLongOrNull()?.let {
+                    ByteRange(
+                        first = (contentLength - it).coerceAtLeast(0),
+                        last = contentLength - 1,
+                        contentLength = contentLength
+                    )
+                }
+                else -> {
+                    val start = first.toLongOrNull()
+                    val end = if (last.isEmpty()) Long.MAX_VALUE else last.toLongOrNull()
+                    if (start == null || end == null || end < start) {
+                        null
+                    } else {
+                        ByteRange(first = start, last = end.coerceAtMost(contentLength - 1), contentLength = contentLength)
+                    }
+                }
+            }
+        }
+    }
+
+    val length: Long get() = last - first + 1
+
+    /**
+     * Whether the range overlaps with the content. An unsatisfiable range is answered with
+     * 416 Range Not Satisfiable.
+     */
+    fun isSatisfiable() = first < contentLength && first <= last
+
+    fun toRangeHeader() = "bytes=$first-$last"
+
+    fun toContentRangeHeader() = if (isSatisfiable()) "bytes $first-$last/$contentLength" else "bytes */$contentLength"
+}
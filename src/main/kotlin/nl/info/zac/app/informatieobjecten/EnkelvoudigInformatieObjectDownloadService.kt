@@ -7,71 +7,178 @@ package nl.info.zac.app.informatieobjecten
 
 import jakarta.inject.Inject
 import jakarta.ws.rs.core.StreamingOutput
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.supervisorScope
 import nl.info.client.zgw.drc.DrcClientService
+import nl.info.client.zgw.drc.model.EnkelvoudigInformatieobjectContent
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObject
 import nl.info.client.zgw.util.extractUuid
 import nl.info.client.zgw.zrc.ZrcClientService
+import nl.info.client.zgw.zrc.model.generated.Zaak
 import nl.info.zac.app.informatieobjecten.exception.EnkelvoudigInformatieObjectDownloadException
+import nl.info.zac.authentication.ServletRequestProducingListener.Companion.currentServletRequestContextElement
+import org.eclipse.microprofile.config.inject.ConfigProperty
 import java.io.BufferedOutputStream
 import java.io.IOException
+import java.io.OutputStream
+import java.net.URI
 import java.util.UUID
+import java.util.zip.Deflater
 import java.util.zip.ZipEntry
 import java.util.zip.ZipOutputStream
+import kotlin.coroutines.CoroutineContext
 
+/**
+ * Writes a selection of enkelvoudig informatieobjecten to a zip file.
+ *
+ * The zip paths are resolved before the zip is written, reading each zaak and its zaakinformatieobjecten only once.
+ * While the content of one informatieobject is streamed into the zip, the downloads of the next ones are already
+ * started, on behalf of the logged-in user that requested the zip, so that at most [downloadParallelism] downloads
+ * from the DRC are in progress at a time. The content is never held in memory as a whole.
+ */
 class EnkelvoudigInformatieObjectDownloadService @Inject constructor(
     private val drcClientService: DrcClientService,
-    private val zrcClientService: ZrcClientService
+    private val zrcClientService: ZrcClientService,
+
+    @ConfigProperty(name = "ZIP_DOWNLOAD_PARALLELISM", defaultValue = "4")
+    private val downloadParallelism: Int
 ) {
     companion object {
         private const val RICHTING_INKOMEND = "inkomend"
         private const val RICHTING_UITGAAND = "uitgaand"
         private const val RICHTING_INTERN = "intern"
         private const val SAMENVATTING_BESTANDSNAAM = "samenvatting.txt"
+
+        /**
+         * Extensions of file formats that are compressed already, and that are therefore not compressed again.
+         */
+        private val COMPRESSED_EXTENSIONS = setOf(
+            "7z", "docx", "gif", "gz", "jpeg", "jpg", "mp3", "mp4", "odp", "ods", "odt", "pdf", "png", "pptx", "xlsx", "zip"
+        )
+    }
+
+    private data class InformatieObjectZipEntry(
+        val uuid: UUID,
+        val identificatie: String?,
+        val pad: String
+    )
+
+    fun getZipStreamOutput(informatieobjecten: List<EnkelvoudigInformatieObject>): StreamingOutput {
+        val zipEntries = getInformatieObjectZipEntries(informatieobjecten)
+        val downloadContext = Dispatchers.IO + currentServletRequestContextElement()
+        return StreamingOutput { outputStream ->
+            // a failed download is only rethrown when it is awaited, so that the other downloads can still be closed
+            runBlocking { supervisorScope { writeZip(zipEntries, downloadContext, outputStream) } }
+            outputStream.flush()
+            outputStream.close()
+        }
     }
 
-    fun getZipStreamOutput(informatieobjecten: List<EnkelvoudigInformatieObject>): StreamingOutput =
-        StreamingOutput { outputStream ->
+    private suspend fun CoroutineScope.writeZip(
+        zipEntries: List<InformatieObjectZipEntry>,
+        downloadContext: CoroutineContext,
+        outputStream: OutputStream
+    ) {
+        val downloads = ArrayDeque<Deferred<EnkelvoudigInformatieobjectContent>>()
+        var nextDownload = 0
+        try {
             ZipOutputStream(BufferedOutputStream(outputStream)).use { zipOutputStream ->
                 val samenvatting = mutableMapOf<String, MutableMap<String, MutableList<String>>>()
-                informatieobjecten.forEach { informatieobject ->
-                    samenvattingAddInformatieObject(
-                        pad = addInformatieObjectToZip(
-                            informatieobject = informatieobject,
-                            zipOutputStream = zipOutputStream
-                        ),
-                        samenvatting = samenvatting
+                zipEntries.forEach { zipEntry ->
+                    // keep the downloads of the next informatieobjecten going while this one is written
+                    while (nextDownload < zipEntries.size && downloads.size < downloadParallelism.coerceAtLeast(1)) {
+                        downloads.addLast(startDownload(zipEntries[nextDownload++].uuid, downloadContext))
+                    }
+                    addInformatieObjectToZip(
+                        zipEntry = zipEntry,
+                        download = downloads.removeFirst(),
+                        zipOutputStream = zipOutputStream
                     )
+                    samenvattingAddInformatieObject(pad = zipEntry.pad, samenvatting = samenvatting)
                 }
                 zipAddSamenvatting(samenvatting = samenvatting, zipOutputStream = zipOutputStream)
                 zipOutputStream.finish()
             }
-            outputStream.flush()
-            outputStream.close()
+        } finally {
+            downloads.forEach { closeDownload(it) }
         }
+    }
 
-    private fun addInformatieObjectToZip(informatieobject: EnkelvoudigInformatieObject, zipOutputStream: ZipOutputStream): String {
-        val pad = getInformatieObjectZipPath(informatieobject)
-        val zipEntry = ZipEntry(pad)
+    /**
+     * Resolves the zip path of each informatieobject.
+     * The informatieobjecten are selected from the documents of a zaak, so most of them usually belong to the same
+     * zaak. Once the zaak of an informatieobject is known, all zaakinformatieobjecten of that zaak are listed at once,
+     * so that the zaak of the other selected informatieobjecten of that zaak need not be looked up one by one.
+     */
+    private fun getInformatieObjectZipEntries(
+        informatieobjecten: List<EnkelvoudigInformatieObject>
+    ): List<InformatieObjectZipEntry> {
+        val zaken = mutableMapOf<URI, Zaak>()
+        val zakenByInformatieobject = mutableMapOf<URI, Zaak>()
+        val listedZaken = mutableSetOf<URI>()
+        return informatieobjecten.mapIndexed { index, informatieobject ->
+            val zaak = zakenByInformatieobject.getOrPut(informatieobject.url) {
+                val zaakUri = zrcClientService.listZaakinformatieobjecten(informatieobject).first().zaak
+                zaken.getOrPut(zaakUri) { zrcClientService.readZaak(zaakUri) }
+            }
+            if (zaak.url !in listedZaken && informatieobjecten.drop(index + 1).any { it.url !in zakenByInformatieobject }) {
+                listedZaken.add(zaak.url)
+                zrcClientService.listZaakinformatieobjecten(zaak).forEach {
+                    zakenByInformatieobject.putIfAbsent(it.informatieobject, zaak)
+                }
+            }
+            InformatieObjectZipEntry(
+                uuid = informatieobject.url.extractUuid(),
+                identificatie = informatieobject.identificatie,
+                pad = getInformatieObjectZipPath(informatieobject, zaak.identificatie)
+            )
+        }
+    }
+
+    private fun CoroutineScope.startDownload(
+        uuid: UUID,
+        downloadContext: CoroutineContext
+    ): Deferred<EnkelvoudigInformatieobjectContent> =
+        async(downloadContext) { drcClientService.streamEnkelvoudigInformatieobject(uuid) }
+
+    private suspend fun addInformatieObjectToZip(
+        zipEntry: InformatieObjectZipEntry,
+        download: Deferred<EnkelvoudigInformatieobjectContent>,
+        zipOutputStream: ZipOutputStream
+    ) {
         try {
-            zipOutputStream.putNextEntry(zipEntry)
-            zipOutputStream.write(getInformatieObjectInhoud(informatieobject.url.extractUuid()))
+            val content = download.await()
+            // already compressed content is stored as it is, so that it is not compressed in vain
+            zipOutputStream.setLevel(
+                if (zipEntry.pad.substringAfterLast(".", "").lowercase() in COMPRESSED_EXTENSIONS) {
+                    Deflater.NO_COMPRESSION
+                } else {
+                    Deflater.DEFAULT_COMPRESSION
+                }
+            )
+            zipOutputStream.putNextEntry(ZipEntry(zipEntry.pad))
+            content.writeTo(zipOutputStream)
             zipOutputStream.closeEntry()
         } catch (ioException: IOException) {
             throw EnkelvoudigInformatieObjectDownloadException(
-                "Failed to add enkelvoudiginformatieobject with identification '${informatieobject.identificatie}' to zip outputStream",
+                "Failed to add enkelvoudiginformatieobject with identification '${zipEntry.identificatie}' to zip outputStream",
                 ioException
             )
         }
-        return pad
     }
 
-    private fun getInformatieObjectInhoud(uuid: UUID): ByteArray =
-        drcClientService.downloadEnkelvoudigInformatieobject(uuid).readBytes()
+    /**
+     * Closes the connection to the DRC of a download that was started but not written to the zip.
+     */
+    private suspend fun closeDownload(download: Deferred<EnkelvoudigInformatieobjectContent>) {
+        runCatching { download.await().close() }
+    }
 
-    private fun getInformatieObjectZipPath(enkelvoudigInformatieobject: EnkelvoudigInformatieObject): String {
-        val zaakInformatieObjectenList = zrcClientService.listZaakinformatieobjecten(enkelvoudigInformatieobject)
-        val zaakUri = zaakInformatieObjectenList.first().zaak
-        val zaakId = zrcClientService.readZaak(zaakUri).identificatie
+    private fun getInformatieObjectZipPath(enkelvoudigInformatieobject: EnkelvoudigInformatieObject, zaakId: String): String {
         val subfolder = when {
             enkelvoudigInformatieobject.ontvangstdatum != null -> RICHTING_INKOMEND
             enkelvoudigInformatieobject.verzenddatum != null -> RICHTING_UITGAAND
@@ -11,6 +11,7 @@ import jakarta.validation.Valid
 import jakarta.ws.rs.Consumes
 import jakarta.ws.rs.DELETE
 import jakarta.ws.rs.GET
+import jakarta.ws.rs.HeaderParam
 import jakarta.ws.rs.POST
 import jakarta.ws.rs.PUT
 import jakarta.ws.rs.Path
@@ -18,8 +19,12 @@ import jakarta.ws.rs.PathParam
 import jakarta.ws.rs.Produces
 import jakarta.ws.rs.QueryParam
 import jakarta.ws.rs.core.Context
+import jakarta.ws.rs.core.EntityTag
+import jakarta.ws.rs.core.HttpHeaders
 import jakarta.ws.rs.core.MediaType
+import jakarta.ws.rs.core.Request
 import jakarta.ws.rs.core.Response
+import jakarta.ws.rs.core.StreamingOutput
 import jakarta.ws.rs.core.UriInfo
 import nl.info.client.zgw.zrc.model.generated.ZaakInformatieObject
 import net.atos.zac.event.EventingService
@@ -66,6 +71,7 @@ import nl.info.client.zgw.zrc.model.zaakUUID
 import org.jboss.resteasy.annotations.providers.multipart.MultipartForm
 import java.io.IOException
 import java.net.URI
+import java.util.Date
 import java.util.UUID
 import java.util.logging.Level
 import java.util.logging.Logger
@@ -98,6 +104,11 @@ class EnkelvoudigInformatieObjectRestService @Inject constructor(
 ) {
     companion object {
         private val LOG = Logger.getLogger(EnkelvoudigInformatieObjectRestService::class.java.name)
+
+        private const val ACCEPT_RANGES = "Accept-Ranges"
+        private const val CONTENT_RANGE = "Content-Range"
+        private const val IF_RANGE = "If-Range"
+        private const val RANGE = "Range"
     }
 
     @GET
@@ -211,11 +222,16 @@ class EnkelvoudigInformatieObjectRestService @Inject constructor(
         val enkelvoudigInformatieObjectCreateLockRequest = restEnkelvoudigInformatieobject.run(
             restInformatieobjectConverter::convertEnkelvoudigInformatieObject
         )
-        val zaakInformatieobject = enkelvoudigInformatieObjectUpdateService.createZaakInformatieobjectForZaak(
-            zaak = zaak,
-            enkelvoudigInformatieObjectCreateLockRequest = enkelvoudigInformatieObjectCreateLockRequest,
-            taskId = if (isTaakObject) documentReferenceId else null
-        )
+        val zaakInformatieobject = try {
+            enkelvoudigInformatieObjectUpdateService.createZaakInformatieobjectForZaak(
+                zaak = zaak,
+                enkelvoudigInformatieObjectCreateLockRequest = enkelvoudigInformatieObjectCreateLockRequest,
+                taskId = if (isTaakObject) documentReferenceId else null,
+                content = restEnkelvoudigInformatieobject.file!!.toPath()
+            )
+        } finally {
+            restEnkelvoudigInformatieobject.deleteFile()
+        }
 
         return restInformatieobjectConverter.convertToREST(zaakInformatieobject)
     }
@@ -330,35 +346,44 @@ class EnkelvoudigInformatieObjectRestService @Inject constructor(
     @GET
     @Path("/informatieobject/{uuid}/{version}/download")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
-    fun readFileWithVersion(@PathParam("uuid") uuid: UUID, @PathParam("version") version: Int): Response =
-        retrieveDocumentContent(uuid, version)
+    fun readFileWithVersion(
+        @PathParam("uuid") uuid: UUID,
+        @PathParam("version") version: Int,
+        @Context request: Request,
+        @HeaderParam(RANGE) range: String?,
+        @HeaderParam(IF_RANGE) ifRange: String?
+    ): Response = retrieveDocumentContent(uuid, version, request, range, ifRange)
 
     @GET
     @Path("/informatieobject/{uuid}/download")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
-    fun readFile(@PathParam("uuid") uuid: UUID): Response = retrieveDocumentContent(uuid, null)
+    fun readFile(
+        @PathParam("uuid") uuid: UUID,
+        @Context request: Request,
+        @HeaderParam(RANGE) range: String?,
+        @HeaderParam(IF_RANGE) ifRange: String?
+    ): Response = retrieveDocumentContent(uuid, null, request, range, ifRange)
 
     @GET
     @Path("/informatieobject/{uuid}/{versie}/preview")
-    fun preview(@PathParam("uuid") uuid: UUID, @PathParam("versie") version: Int?): Response {
+    fun preview(
+        @PathParam("uuid") uuid: UUID,
+        @PathParam("versie") version: Int?,
+        @Context request: Request,
+        @HeaderParam(RANGE) range: String?,
+        @HeaderParam(IF_RANGE) ifRange: String?
+    ): Response {
         val enkelvoudigInformatieObject = drcClientService.readEnkelvoudigInformatieobject(uuid)
         assertPolicy(policyService.readDocumentRechten(enkelvoudigInformatieObject).lezen)
-        return try {
-            val inhoud = version?.let {
-                drcClientService.downloadEnkelvoudigInformatieobjectVersie(
-                    enkelvoudigInformatieobjectUUID = uuid,
-                    version = version
-                )
-            } ?: drcClientService.downloadEnkelvoudigInformatieobject(requireNotNull(uuid))
-            Response.ok(inhoud)
-                .header(
-                    "Content-Disposition",
-                    """inline; filename="${enkelvoudigInformatieObject.bestandsnaam}""""
-                )
-                .header("Content-Type", enkelvoudigInformatieObject.formaat).build()
-        } catch (iOException: IOException) {
-            throw RuntimeException(iOException)
-        }
+        return streamDocumentContent(
+            uuid = uuid,
+            enkelvoudigInformatieObject = readVersion(enkelvoudigInformatieObject, uuid, version),
+            request = request,
+            range = range,
+            ifRange = ifRange,
+            contentDisposition = """inline; filename="${enkelvoudigInformatieObject.bestandsnaam}"""",
+            contentType = enkelvoudigInformatieObject.formaat
+        )
     }
 
     @POST
@@ -500,22 +525,105 @@ class EnkelvoudigInformatieObjectRestService @Inject constructor(
         return Response.noContent().build()
     }
 
-    private fun retrieveDocumentContent(uuid: UUID, version: Int?): Response {
+    private fun retrieveDocumentContent(
+        uuid: UUID,
+        version: Int?,
+        request: Request,
+        range: String?,
+        ifRange: String?
+    ): Response {
         val enkelvoudigInformatieObject = drcClientService.readEnkelvoudigInformatieobject(uuid)
         assertPolicy(policyService.readDocumentRechten(enkelvoudigInformatieObject).downloaden)
-        return try {
-            val documentContent = version?.let {
-                drcClientService.downloadEnkelvoudigInformatieobjectVersie(uuid, version)
-            } ?: drcClientService.downloadEnkelvoudigInformatieobject(uuid)
-            Response.ok(documentContent)
-                .header(
-                    "Content-Disposition",
-                    """attachment; filename="${enkelvoudigInformatieObject.bestandsnaam}""""
-                )
+        return streamDocumentContent(
+            uuid = uuid,
+            enkelvoudigInformatieObject = readVersion(enkelvoudigInformatieObject, uuid, version),
+            request = request,
+            range = range,
+            ifRange = ifRange,
+            contentDisposition = """attachment; filename="${enkelvoudigInformatieObject.bestandsnaam}""""
+        )
+    }
+
+    /**
+     * Returns the metadata of the requested version, which is only read from the DRC when it is not the current one.
+     */
+    private fun readVersion(
+        enkelvoudigInformatieObject: EnkelvoudigInformatieObject,
+        uuid: UUID,
+        version: Int?
+    ): EnkelvoudigInformatieObject =
+        if (version == null || version == enkelvoudigInformatieObject.versie) {
+            enkelvoudigInformatieObject
+        } else {
+            drcClientService.readEnkelvoudigInformatieobjectVersie(uuid, version)
+        }
+
+    /**
+     * Streams the content of the given version of the document from the DRC to the client, so that the content is
+     * never held in memory as a whole.
+     *
+     * The content of a version never changes, so the uuid and version number are used as a strong entity tag.
+     * A client that already has this version is answered with 304 Not Modified without downloading the content.
+     * A single byte range is answered with 206 Partial Content. The range is requested from the DRC, and when the DRC
+     * returns the whole content instead, the range is taken from that content while streaming it.
+     */
+    @Suppress("LongParameterList")
+    private fun streamDocumentContent(
+        uuid: UUID,
+        enkelvoudigInformatieObject: EnkelvoudigInformatieObject,
+        request: Request,
+        range: String?,
+        ifRange: String?,
+        contentDisposition: String,
+        contentType: String? = null
+    ): Response {
+        val entityTag = EntityTag("$uuid-${enkelvoudigInformatieObject.versie}")
+        val lastModified = Date.from(enkelvoudigInformatieObject.beginRegistratie.toInstant())
+        request.evaluatePreconditions(lastModified, entityTag)?.let {
+            return it.tag(entityTag).lastModified(lastModified).build()
+        }
+        // a range for another version of the content than the one the client already has must be ignored
+        val byteRange = range
+            ?.takeIf { ifRange == null || ifRange == entityTag.toString() }
+            ?.let { rangeHeader ->
+                enkelvoudigInformatieObject.bestandsomvang?.let { ByteRange.parse(rangeHeader, it.toLong()) }
+            }
+        if (byteRange?.isSatisfiable() == false) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(CONTENT_RANGE, byteRange.toContentRangeHeader())
                 .build()
-        } catch (ioException: IOException) {
-            throw RuntimeException(ioException)
         }
+        val content = drcClientService.streamEnkelvoudigInformatieobject(
+            uuid,
+            enkelvoudigInformatieObject.versie,
+            byteRange?.toRangeHeader()
+        )
+        val responseBuilder = if (byteRange == null) {
+            Response.ok(StreamingOutput { content.writeTo(it) })
+                .header(HttpHeaders.CONTENT_LENGTH, content.contentLength)
+        } else {
+            Response.status(Response.Status.PARTIAL_CONTENT)
+                .entity(
+                    StreamingOutput {
+                        if (content.partial) {
+                            content.writeTo(it)
+                        } else {
+                            content.writeTo(it, byteRange.first, byteRange.length)
+                        }
+                    }
+                )
+                .header(CONTENT_RANGE, byteRange.toContentRangeHeader())
+                .header(HttpHeaders.CONTENT_LENGTH, byteRange.length)
+        }
+        return responseBuilder
+            .header("Content-Disposition", contentDisposition)
+            .header(HttpHeaders.CONTENT_TYPE, contentType ?: content.contentType)
+            .header(ACCEPT_RANGES, "bytes")
+            // the current version of a document can change, so a client must always revalidate its cached copy
+            .header(HttpHeaders.CACHE_CONTROL, "private, no-cache")
+            .tag(entityTag)
+            .lastModified(lastModified)
+            .build()
     }
 
     private fun isVerzendenToegestaan(informatieobject: EnkelvoudigInformatieObject): Boolean =
@@ -563,11 +671,16 @@ class EnkelvoudigInformatieObjectRestService @Inject constructor(
         enkelvoudigInformatieObject: EnkelvoudigInformatieObject,
         enkelvoudigInformatieObjectWithLockRequest: EnkelvoudigInformatieObjectWithLockRequest
     ): RestEnkelvoudigInformatieobject =
-        enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
-            enkelvoudigInformatieObject.url.extractUuid(),
-            enkelvoudigInformatieObjectWithLockRequest,
-            enkelvoudigInformatieObjectVersieGegevens.toelichting
-        ).let(restInformatieobjectConverter::convertToREST)
+        try {
+            enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
+                enkelvoudigInformatieObject.url.extractUuid(),
+                enkelvoudigInformatieObjectWithLockRequest,
+                enkelvoudigInformatieObjectVersieGegevens.toelichting,
+                enkelvoudigInformatieObjectVersieGegevens.fileContent()
+            )
+        } finally {
+            enkelvoudigInformatieObjectVersieGegevens.deleteFile()
+        }.let(restInformatieobjectConverter::convertToREST)
 
     private fun toRestZaakInformatieobject(zaakInformatieobject: ZaakInformatieObject): RestZaakInformatieobject {
         val zaak = zrcClientService.readZaak(zaakInformatieobject.zaak)
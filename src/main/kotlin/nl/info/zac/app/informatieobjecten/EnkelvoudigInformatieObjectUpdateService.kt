@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2022 Atos, 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2022 Atos, 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.app.informatieobjecten
@@ -27,11 +27,11 @@ import nl.info.client.zgw.zrc.model.generated.Zaak
 import nl.info.zac.authentication.LoggedInUser
 import nl.info.zac.configuration.ConfigurationService
 import nl.info.zac.enkelvoudiginformatieobject.EnkelvoudigInformatieObjectLockService
-import nl.info.zac.enkelvoudiginformatieobject.model.EnkelvoudigInformatieObjectLock
 import nl.info.zac.policy.PolicyService
 import nl.info.zac.policy.assertPolicy
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
+import java.nio.file.Path
 import java.time.LocalDate
 import java.util.UUID
 
@@ -63,12 +63,14 @@ class EnkelvoudigInformatieObjectUpdateService @Inject constructor(
         enkelvoudigInformatieObjectCreateLockRequest: EnkelvoudigInformatieObjectCreateLockRequest,
         taskId: String? = null,
         skipPolicyCheck: Boolean = false,
+        content: Path? = null
     ) = zgwApiService.createZaakInformatieobjectForZaak(
         zaak = zaak,
         enkelvoudigInformatieObjectCreateLockRequest = enkelvoudigInformatieObjectCreateLockRequest,
         titel = enkelvoudigInformatieObjectCreateLockRequest.titel,
         beschrijving = enkelvoudigInformatieObjectCreateLockRequest.beschrijving,
-        omschrijvingVoorwaardenGebruiksrechten = ConfigurationService.OMSCHRIJVING_VOORWAARDEN_GEBRUIKSRECHTEN
+        omschrijvingVoorwaardenGebruiksrechten = ConfigurationService.OMSCHRIJVING_VOORWAARDEN_GEBRUIKSRECHTEN,
+        content = content
     ).also {
         taskId?.let { taskId ->
             addZaakInformatieobjectToTaak(taskId, it, skipPolicyCheck)
@@ -97,31 +99,57 @@ class EnkelvoudigInformatieObjectUpdateService @Inject constructor(
         }
     }
 
+    /**
+     * Updates an enkelvoudig informatieobject, locking it for the duration of the update when it is not locked yet.
+     * New content can be given as a file, which is then uploaded in bestandsdelen when it is large.
+     *
+     * The DRC only merges uploaded bestandsdelen into the new content when the informatieobject is unlocked.
+     * An informatieobject that is already locked keeps its lock, so the new content becomes available once its
+     * lock owner unlocks it; otherwise the temporary lock is released and the merged informatieobject is read again.
+     */
+    @Suppress("TooGenericExceptionCaught")
     fun updateEnkelvoudigInformatieObjectWithLockData(
         enkelvoudigInformatieObjectUUID: UUID,
         enkelvoudigInformatieObjectWithLockRequest: EnkelvoudigInformatieObjectWithLockRequest,
-        toelichting: String?
+        toelichting: String?,
+        content: Path? = null
     ): EnkelvoudigInformatieObject {
-        var tempLock: EnkelvoudigInformatieObjectLock? = null
-        try {
-            val enkelvoudigInformatieObjectLock = enkelvoudigInformatieObjectLockService.findLock(
-                enkelvoudigInformatieObjectUUID
-            )
-            if (enkelvoudigInformatieObjectLock == null) {
-                tempLock = enkelvoudigInformatieObjectLockService.createLock(enkelvoudigInformatieObjectUUID, loggedInUserInstance.get().id)
-                enkelvoudigInformatieObjectWithLockRequest.lock = tempLock.lock
-            } else {
-                enkelvoudigInformatieObjectWithLockRequest.lock = enkelvoudigInformatieObjectLock.lock
-            }
-            return drcClientService.updateEnkelvoudigInformatieobject(
+        val existingLock = enkelvoudigInformatieObjectLockService.findLock(enkelvoudigInformatieObjectUUID)
+        val lock = existingLock ?: enkelvoudigInformatieObjectLockService.createLock(
+            enkelvoudigInformatieObjectUUID,
+            loggedInUserInstance.get().id
+        )
+        enkelvoudigInformatieObjectWithLockRequest.lock = lock.lock
+        val updatedEnkelvoudigInformatieObject = try {
+            drcClientService.updateEnkelvoudigInformatieobject(
                 enkelvoudigInformatieObjectUUID,
                 enkelvoudigInformatieObjectWithLockRequest,
-                toelichting
+                toelichting,
+                content
             )
-        } finally {
-            if (tempLock != null) {
-                enkelvoudigInformatieObjectLockService.deleteLock(enkelvoudigInformatieObjectUUID)
+        } catch (exception: RuntimeException) {
+            if (existingLock == null) {
+                releaseTempLockAfterFailure(enkelvoudigInformatieObjectUUID, exception)
             }
+            throw exception
+        }
+        if (existingLock != null) {
+            return updatedEnkelvoudigInformatieObject
+        }
+        enkelvoudigInformatieObjectLockService.deleteLock(enkelvoudigInformatieObjectUUID)
+        return if (updatedEnkelvoudigInformatieObject.bestandsdelen.isNullOrEmpty()) {
+            updatedEnkelvoudigInformatieObject
+        } else {
+            drcClientService.readEnkelvoudigInformatieobject(enkelvoudigInformatieObjectUUID)
+        }
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun releaseTempLockAfterFailure(enkelvoudigInformatieObjectUUID: UUID, failure: RuntimeException) {
+        try {
+            enkelvoudigInformatieObjectLockService.deleteLock(enkelvoudigInformatieObjectUUID)
+        } catch (exception: RuntimeException) {
+            failure.addSuppressed(exception)
         }
     }
 
@@ -156,13 +156,14 @@ class RestInformatieobjectConverter @Inject constructor(
         restEnkelvoudigInformatieobject.informatieobjectTypeUUID = enkelvoudigInformatieObject.informatieobjecttype.extractUuid()
     }
 
+    /**
+     * Converts the metadata of an uploaded document. The content is uploaded from the uploaded file separately.
+     */
     fun convertEnkelvoudigInformatieObject(
         restEnkelvoudigInformatieobject: RestEnkelvoudigInformatieobject
     ): EnkelvoudigInformatieObjectCreateLockRequest = buildEnkelvoudigInformatieObjectData(
         restEnkelvoudigInformatieobject
     ).apply {
-        inhoud = restEnkelvoudigInformatieobject.file!!.toBase64String()
-        bestandsomvang = restEnkelvoudigInformatieobject.file!!.size
         formaat = restEnkelvoudigInformatieobject.formaat
     }
 
@@ -240,10 +241,9 @@ class RestInformatieobjectConverter @Inject constructor(
         val enkelvoudigInformatieObjectWithLockRequest = createEnkelvoudigInformatieObjectWithLockData(
             restEnkelvoudigInformatieObjectVersieGegevens
         )
-        if (hasFileContent(restEnkelvoudigInformatieObjectVersieGegevens)) {
-            enkelvoudigInformatieObjectWithLockRequest.inhoud = restEnkelvoudigInformatieObjectVersieGegevens.file!!.toBase64String()
+        // the content itself is uploaded from the uploaded file separately
+        if (restEnkelvoudigInformatieObjectVersieGegevens.fileContent() != null) {
             enkelvoudigInformatieObjectWithLockRequest.bestandsnaam = restEnkelvoudigInformatieObjectVersieGegevens.bestandsnaam
-            enkelvoudigInformatieObjectWithLockRequest.bestandsomvang = restEnkelvoudigInformatieObjectVersieGegevens.file!!.size
             enkelvoudigInformatieObjectWithLockRequest.formaat = restEnkelvoudigInformatieObjectVersieGegevens.formaat
         }
         enkelvoudigInformatieObjectWithLockRequest.informatieobjecttype =
@@ -340,10 +340,4 @@ class RestInformatieobjectConverter @Inject constructor(
 
     fun convertInformatieobjectenToREST(informatieobjecten: List<EnkelvoudigInformatieObject>): List<RestEnkelvoudigInformatieobject> =
         informatieobjecten.map { convertToREST(it) }
-
-    private fun hasFileContent(versieGegevens: RestEnkelvoudigInformatieObjectVersieGegevens) =
-        versieGegevens.file != null &&
-            versieGegevens.file!!.isNotEmpty() &&
-            versieGegevens.bestandsnaam != null &&
-            versieGegevens.formaat != null
 }
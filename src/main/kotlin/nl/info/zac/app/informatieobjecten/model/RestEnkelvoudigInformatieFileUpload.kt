@@ -7,17 +7,33 @@ package nl.info.zac.app.informatieobjecten.model
 import jakarta.ws.rs.FormParam
 import nl.info.zac.app.informatieobjecten.model.validation.ValidRestEnkelvoudigInformatieFileUploadForm
 import nl.info.zac.util.AllOpen
+import java.io.File
+import java.nio.file.Path
 
 @AllOpen
 @ValidRestEnkelvoudigInformatieFileUploadForm
 abstract class RestEnkelvoudigInformatieFileUpload {
-    // this can be empty when adding a new version in which only the metadata changes
+    // this can be empty when adding a new version in which only the metadata changes;
+    // the uploaded file is spooled to a temporary file, so that it is never held in memory as a whole
     @field:FormParam("file")
-    var file: ByteArray? = null
+    var file: File? = null
 
     @field:FormParam("bestandsnaam")
     var bestandsnaam: String? = null
 
     @field:FormParam("formaat")
     var formaat: String? = null
+
+    /**
+     * Returns the uploaded file when it has content to be stored, or `null` when only the metadata is to be stored.
+     */
+    fun fileContent(): Path? =
+        file?.takeIf { it.length() > 0 && bestandsnaam != null && formaat != null }?.toPath()
+
+    /**
+     * Deletes the temporary file of the upload, once its content has been stored.
+     */
+    fun deleteFile() {
+        file?.delete()
+    }
 }
@@ -13,8 +13,8 @@ import jakarta.ws.rs.PathParam
 import jakarta.ws.rs.Produces
 import jakarta.ws.rs.core.MediaType
 import nl.info.zac.authentication.InternalEndpoint
-import nl.info.zac.search.IndexingService
 import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.search.reindex.ReindexingService
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
 
@@ -30,9 +30,24 @@ import nl.info.zac.util.NoArgConstructor
 @AllOpen
 @InternalEndpoint
 class IndexingAdminRestService @Inject constructor(
-    private val indexingService: IndexingService
+    private val reindexingService: ReindexingService
 ) {
     @GET
     @Path("herindexeren/{type}")
-    fun reindex(@PathParam("type") type: ZoekObjectType) = indexingService.reindex(type)
+    fun reindex(@PathParam("type") type: ZoekObjectType) = reindexingService.reindex(type)
+
+    /**
+     * Rebuilds the complete search index in a shadow Solr core and swaps it with the ZAC core when done,
+     * so that searching keeps working during the rebuild.
+     */
+    @GET
+    @Path("herbouwen")
+    fun rebuild() = reindexingService.rebuildInShadowCore()
+
+    /**
+     * Swaps back the Solr core that was replaced by the last rebuild.
+     */
+    @GET
+    @Path("herbouwen/terugdraaien")
+    fun rollBackRebuild() = reindexingService.rollBackToPreviousCore()
 }
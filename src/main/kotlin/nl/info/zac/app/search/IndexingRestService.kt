@@ -12,6 +12,7 @@ import jakarta.ws.rs.Path
 import jakarta.ws.rs.Produces
 import jakarta.ws.rs.core.MediaType
 import nl.info.zac.search.IndexingService
+import nl.info.zac.search.queue.IndexingQueueService
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
 
@@ -27,9 +28,17 @@ import nl.info.zac.util.NoArgConstructor
 @NoArgConstructor
 @AllOpen
 class IndexingRestService @Inject constructor(
-    private val indexingService: IndexingService
+    private val indexingService: IndexingService,
+    private val indexingQueueService: IndexingQueueService
 ) {
+    /**
+     * Indexes all objects that are still waiting in the indexing queue and commits all pending changes
+     * to the search index.
+     */
     @POST
     @Path("commit-pending-changes-to-search-index")
-    fun commit() = indexingService.commit()
+    fun commit() {
+        indexingQueueService.drain(ignoreCoalescingWindow = true)
+        indexingService.commit()
+    }
 }
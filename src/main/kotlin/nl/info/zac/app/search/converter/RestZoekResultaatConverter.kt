@@ -37,7 +37,7 @@ class RestZoekResultaatConverter @Inject constructor(
         zoekParameters: RestZoekParameters
     ): RestZoekResultaat<out AbstractRestZoekObject> {
         val restZoekResultaat = RestZoekResultaat(
-            zoekResultaat.items.map { it.toAbstractRestZoekObject() },
+            zoekResultaat.items.toAbstractRestZoekObjecten(),
             zoekResultaat.count
         )
         restZoekResultaat.filters.putAll(zoekResultaat.getFilters())
@@ -54,27 +54,45 @@ class RestZoekResultaatConverter @Inject constructor(
     }
 
     fun convert(zoekResultaat: ZoekResultaat<out ZoekObject>, documentLinkableList: List<Boolean>) =
-        RestZoekResultaat(
-            zoekResultaat.items.mapIndexed { index, result ->
-                with(result as ZaakZoekObject) {
-                    policyService.readZaakRechtenForZaakZoekObject(result)
-                        .let(result::toRestZaakZoekObject)
-                        .toRestZaakKoppelenZoekObject(documentLinkableList[index])
-                }
-            },
-            zoekResultaat.count
-        )
-
-    private fun ZoekObject.toAbstractRestZoekObject(): AbstractRestZoekObject =
-        when (this.getType()) {
-            ZoekObjectType.ZAAK -> (this as ZaakZoekObject).toRestZaakZoekObject(
-                policyService.readZaakRechtenForZaakZoekObject(this)
-            )
-            ZoekObjectType.TAAK -> (this as TaakZoekObject).toRestTaakZoekObject(
-                policyService.readTaakRechten(this)
-            )
-            ZoekObjectType.DOCUMENT -> (this as DocumentZoekObject).toRestDocumentZoekObject(
-                policyService.readDocumentRechten(this)
+        zoekResultaat.items.map { it as ZaakZoekObject }.let { zaakZoekObjecten ->
+            RestZoekResultaat(
+                zaakZoekObjecten.zip(policyService.readZaakRechtenForZaakZoekObjecten(zaakZoekObjecten))
+                    .mapIndexed { index, (zaakZoekObject, zaakRechten) ->
+                        zaakZoekObject.toRestZaakZoekObject(zaakRechten)
+                            .toRestZaakKoppelenZoekObject(documentLinkableList[index])
+                    },
+                zoekResultaat.count
             )
         }
+
+    /**
+     * Converts the search results, reading the rechten of all results of the same type with a single policy evaluation.
+     */
+    private fun List<ZoekObject>.toAbstractRestZoekObjecten(): List<AbstractRestZoekObject> {
+        val restZoekObjecten = arrayOfNulls<AbstractRestZoekObject>(size)
+        withIndex().groupBy { it.value.getType() }.forEach { (type, indexedZoekObjecten) ->
+            val zoekObjecten = indexedZoekObjecten.map { it.value }
+            val converted = when (type) {
+                ZoekObjectType.ZAAK -> zoekObjecten.map { it as ZaakZoekObject }.let { zaken ->
+                    zaken.zip(policyService.readZaakRechtenForZaakZoekObjecten(zaken)) { zaak, rechten ->
+                        zaak.toRestZaakZoekObject(rechten)
+                    }
+                }
+                ZoekObjectType.TAAK -> zoekObjecten.map { it as TaakZoekObject }.let { taken ->
+                    taken.zip(policyService.readTaakRechten(taken)) { taak, rechten ->
+                        taak.toRestTaakZoekObject(rechten)
+                    }
+                }
+                ZoekObjectType.DOCUMENT -> zoekObjecten.map { it as DocumentZoekObject }.let { documenten ->
+                    documenten.zip(policyService.readDocumentRechten(documenten)) { document, rechten ->
+                        document.toRestDocumentZoekObject(rechten)
+                    }
+                }
+            }
+            indexedZoekObjecten.zip(converted).forEach { (indexed, restZoekObject) ->
+                restZoekObjecten[indexed.index] = restZoekObject
+            }
+        }
+        return restZoekObjecten.map { it!! }
+    }
 }
@@ -21,9 +21,6 @@ import jakarta.ws.rs.PathParam
 import jakarta.ws.rs.Produces
 import jakarta.ws.rs.core.MediaType
 import jakarta.ws.rs.core.Response
-import kotlinx.coroutines.CoroutineDispatcher
-import kotlinx.coroutines.CoroutineScope
-import kotlinx.coroutines.launch
 import net.atos.zac.event.EventingService
 import net.atos.zac.flowable.ZaakVariabelenService
 import net.atos.zac.flowable.task.FlowableTaskService
@@ -58,6 +55,8 @@ import nl.info.zac.app.task.model.RestTaskHistoryLine
 import nl.info.zac.app.task.model.RestTaskReleaseData
 import nl.info.zac.authentication.ActiveSession
 import nl.info.zac.authentication.LoggedInUser
+import nl.info.zac.bulk.BulkJobService
+import nl.info.zac.bulk.model.BulkJobType
 import nl.info.zac.configuration.ConfigurationService
 import nl.info.zac.exception.ErrorCode
 import nl.info.zac.exception.InputValidationFailedException
@@ -69,6 +68,8 @@ import nl.info.zac.shared.helper.SuspensionZaakHelper
 import nl.info.zac.signalering.SignaleringService
 import nl.info.zac.task.BpmnTaskFormRuntimeService
 import nl.info.zac.task.TaskService
+import nl.info.zac.task.bulk.AssignTasksBulkJobHandler
+import nl.info.zac.task.bulk.ReleaseTasksBulkJobHandler
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
 import org.flowable.task.api.Task
@@ -110,12 +111,7 @@ class TaskRestService @Inject constructor(
     private val suspensionZaakHelper: SuspensionZaakHelper,
     private val bpmnTaskFormRuntimeService: BpmnTaskFormRuntimeService,
     private val zaakVariabelenService: ZaakVariabelenService,
-
-    /**
-     * Declare a Kotlin coroutine dispatcher here so that it can be overridden in unit tests with a test dispatcher
-     * while in normal operation it will be injected using [nl.info.zac.util.CoroutineDispatcherProducer].
-     */
-    private val dispatcher: CoroutineDispatcher
+    private val bulkJobService: BulkJobService
 ) {
     companion object {
         private val LOG = Logger.getLogger(TaskRestService::class.java.name)
@@ -177,28 +173,28 @@ class TaskRestService @Inject constructor(
         // Only the 'zaken taken verdelen' permission is currently required to assign tasks from the list.
         // Checking the user's authorization for each task's zaaktype could improve this in the future.
         assertPolicy(policyService.readWerklijstRechten().zakenTakenVerdelen)
-        // this can be a long-running operation so run it asynchronously
-        CoroutineScope(dispatcher).launch {
-            taskService.assignTasks(
-                restTaskDistributeData = restTaskDistributeData,
-                loggedInUser = loggedInUserInstance.get(),
-                screenEventResourceId = restTaskDistributeData.screenEventResourceId
-            )
-        }
+        bulkJobService.submit(
+            type = BulkJobType.TAKEN_VERDELEN,
+            itemIds = restTaskDistributeData.taken.map { it.taakId },
+            parameters = AssignTasksBulkJobHandler.Parameters(
+                groupId = restTaskDistributeData.groepId,
+                userName = restTaskDistributeData.behandelaarGebruikersnaam,
+                explanation = restTaskDistributeData.reden
+            ),
+            screenEventResourceId = restTaskDistributeData.screenEventResourceId
+        )
     }
 
     @PUT
     @Path("lijst/vrijgeven")
     fun releaseTaskFromList(@Valid restTaskReleaseData: RestTaskReleaseData) {
         assertPolicy(policyService.readWerklijstRechten().zakenTakenVerdelen)
-        // this can be a long-running operation so run it asynchronously
-        CoroutineScope(dispatcher).launch {
-            taskService.releaseTasks(
-                restTaskReleaseData = restTaskReleaseData,
-                loggedInUser = loggedInUserInstance.get(),
-                screenEventResourceId = restTaskReleaseData.screenEventResourceId
-            )
-        }
+        bulkJobService.submit(
+            type = BulkJobType.TAKEN_VRIJGEVEN,
+            itemIds = restTaskReleaseData.taken.map { it.taakId },
+            parameters = ReleaseTasksBulkJobHandler.Parameters(explanation = restTaskReleaseData.reden),
+            screenEventResourceId = restTaskReleaseData.screenEventResourceId
+        )
     }
 
     @PATCH
@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2021 - 2022 Atos, 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2021 - 2022 Atos, 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.app.util
@@ -11,8 +11,11 @@ import jakarta.ws.rs.Path
 import jakarta.ws.rs.Produces
 import jakarta.ws.rs.core.MediaType
 import net.atos.client.zgw.shared.cache.Caching
+import net.atos.zac.flowable.ZaakFlowableInstanceResolver
+import nl.info.client.pabc.PabcClientService
 import nl.info.client.zgw.ztc.ZtcClientService
 import nl.info.zac.admin.ZaaktypeCmmnConfigurationService
+import nl.info.zac.policy.PolicyDecisionCache
 import nl.info.zac.policy.PolicyService
 import nl.info.zac.policy.assertPolicy
 import nl.info.zac.sensitive.SensitiveDataService
@@ -34,12 +37,18 @@ class UtilRestService @Inject constructor(
     private val ztcClientService: ZtcClientService,
     private val zaaktypeCmmnConfigurationService: ZaaktypeCmmnConfigurationService,
     private val sensitiveDataService: SensitiveDataService,
-    private val policyService: PolicyService
+    private val policyService: PolicyService,
+    private val policyDecisionCache: PolicyDecisionCache,
+    private val pabcClientService: PabcClientService,
+    private val zaakFlowableInstanceResolver: ZaakFlowableInstanceResolver
 ) {
     companion object {
         private val ZTC: String = h(2, "ztcClientService")
         private val ZHPS: String = h(2, "zaakafhandelParameterService")
         private val SENSITIVE: String = h(2, "sensitiveDataService")
+        private val POLICY: String = h(2, "policyDecisionCache")
+        private val PABC: String = h(2, "pabcClientService")
+        private val FLOWABLE: String = h(2, "zaakFlowableInstanceResolver")
 
         private fun links(url: List<String>) = ul(url.map { a("/rest/admin/util/$it", it) })
 
@@ -64,8 +73,17 @@ class UtilRestService @Inject constructor(
         return body(
             h(1, "Util") +
                 h(2, "Caches") +
-                links(listOf("cache", "cache/ztc", "cache/zhps")) +
-                links(listOf("cache/clear", "cache/ztc/clear", "cache/zhps/clear")) +
+                links(listOf("cache", "cache/ztc", "cache/zhps", "cache/policy", "cache/pabc", "cache/flowable")) +
+                links(
+                    listOf(
+                        "cache/clear",
+                        "cache/ztc/clear",
+                        "cache/zhps/clear",
+                        "cache/policy/clear",
+                        "cache/pabc/clear",
+                        "cache/flowable/clear"
+                    )
+                ) +
                 h(2, "Sensitive data") +
                 links(listOf("sensitive-data/clear")) +
                 h(2, "System") +
@@ -80,7 +98,10 @@ class UtilRestService @Inject constructor(
         return body(
             listOf(
                 ztcClientCaches(),
-                zaakafhandelParameterServiceCaches()
+                zaakafhandelParameterServiceCaches(),
+                policyDecisionCaches(),
+                pabcClientCaches(),
+                zaakFlowableInstanceCaches()
             )
         )
     }
@@ -99,11 +120,40 @@ class UtilRestService @Inject constructor(
         return body(zaakafhandelParameterServiceCaches())
     }
 
+    @GET
+    @Path("cache/policy")
+    fun policyCaches(): String {
+        checkBeherenPolicy()
+        return body(policyDecisionCaches())
+    }
+
+    @GET
+    @Path("cache/pabc")
+    fun pabcCaches(): String {
+        checkBeherenPolicy()
+        return body(pabcClientCaches())
+    }
+
+    @GET
+    @Path("cache/flowable")
+    fun flowableCaches(): String {
+        checkBeherenPolicy()
+        return body(zaakFlowableInstanceCaches())
+    }
+
     @GET
     @Path("cache/clear")
     fun clearCaches(): String {
         checkBeherenPolicy()
-        return body(listOf(clearZtcClientCaches(), clearAllZhpsCaches()))
+        return body(
+            listOf(
+                clearZtcClientCaches(),
+                clearAllZhpsCaches(),
+                clearPolicyDecisionCaches(),
+                clearPabcClientCaches(),
+                clearZaakFlowableInstanceCaches()
+            )
+        )
     }
 
     @GET
@@ -120,6 +170,30 @@ class UtilRestService @Inject constructor(
         return body(clearAllZhpsCaches())
     }
 
+    @GET
+    @Path("cache/policy/clear")
+    fun clearAllPolicyDecisionCaches(): String {
+        checkBeherenPolicy()
+        return body(clearPolicyDecisionCaches())
+    }
+
+    /**
+     * Clears the cached PABC authorisation mappings on all nodes, e.g. after the mappings have been changed in the PABC.
+     */
+    @GET
+    @Path("cache/pabc/clear")
+    fun clearAllPabcClientCaches(): String {
+        checkBeherenPolicy()
+        return body(clearPabcClientCaches())
+    }
+
+    @GET
+    @Path("cache/flowable/clear")
+    fun clearAllFlowableCaches(): String {
+        checkBeherenPolicy()
+        return body(clearZaakFlowableInstanceCaches())
+    }
+
     @GET
     @Path("sensitive-data/clear")
     fun clearAllSensitiveDataCaches(): String {
@@ -173,10 +247,22 @@ class UtilRestService @Inject constructor(
             )
         )
 
+    private fun clearPolicyDecisionCaches() = POLICY + ul(listOf(policyDecisionCache.clear()))
+
+    private fun clearPabcClientCaches() = PABC + ul(pabcClientService.clearCaches())
+
+    private fun clearZaakFlowableInstanceCaches() = FLOWABLE + ul(listOf(zaakFlowableInstanceResolver.clearCache()))
+
     private fun ztcClientCaches() = getSeriviceCacheDetails(ZTC, ztcClientService)
 
     private fun zaakafhandelParameterServiceCaches() = getSeriviceCacheDetails(ZHPS, zaaktypeCmmnConfigurationService)
 
+    private fun policyDecisionCaches() = getSeriviceCacheDetails(POLICY, policyDecisionCache)
+
+    private fun pabcClientCaches() = getSeriviceCacheDetails(PABC, pabcClientService)
+
+    private fun zaakFlowableInstanceCaches() = getSeriviceCacheDetails(FLOWABLE, zaakFlowableInstanceResolver)
+
     private fun getSeriviceCacheDetails(prefix: String, caching: Caching): String {
         val cacheStatistics = caching.cacheStatistics()
         val estimatedCacheSizes = caching.estimatedCacheSizes()
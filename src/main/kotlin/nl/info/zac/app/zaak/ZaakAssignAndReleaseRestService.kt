@@ -14,9 +14,6 @@ import jakarta.ws.rs.PUT
 import jakarta.ws.rs.Path
 import jakarta.ws.rs.Produces
 import jakarta.ws.rs.core.MediaType
-import kotlinx.coroutines.CoroutineDispatcher
-import kotlinx.coroutines.CoroutineScope
-import kotlinx.coroutines.launch
 import nl.info.client.zgw.zrc.util.isOpen
 import nl.info.zac.app.zaak.converter.RestZaakConverter
 import nl.info.zac.app.zaak.converter.RestZaakOverzichtConverter
@@ -27,12 +24,15 @@ import nl.info.zac.app.zaak.model.RestZaakAssignmentData
 import nl.info.zac.app.zaak.model.RestZaakAssignmentToLoggedInUserData
 import nl.info.zac.app.zaak.model.RestZaakOverzicht
 import nl.info.zac.authentication.LoggedInUser
-import nl.info.zac.identity.IdentityService
+import nl.info.zac.bulk.BulkJobService
+import nl.info.zac.bulk.model.BulkJobType
 import nl.info.zac.policy.PolicyService
 import nl.info.zac.policy.assertPolicy
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
 import nl.info.zac.zaak.ZaakService
+import nl.info.zac.zaak.bulk.AssignZakenBulkJobHandler
+import nl.info.zac.zaak.bulk.ReleaseZakenBulkJobHandler
 
 @Path("zaken")
 @Consumes(MediaType.APPLICATION_JSON)
@@ -42,12 +42,7 @@ import nl.info.zac.zaak.ZaakService
 @NoArgConstructor
 @AllOpen
 class ZaakAssignAndReleaseRestService @Inject constructor(
-    /**
-     * Declare a Kotlin coroutine dispatcher here so that it can be overridden in unit tests with a test dispatcher
-     * while in normal operation it will be injected using [nl.info.zac.util.CoroutineDispatcherProducer].
-     */
-    private val dispatcher: CoroutineDispatcher,
-    private val identityService: IdentityService,
+    private val bulkJobService: BulkJobService,
     private val loggedInUserInstance: Instance<LoggedInUser>,
     private val policyService: PolicyService,
     private val restZaakConverter: RestZaakConverter,
@@ -56,7 +51,7 @@ class ZaakAssignAndReleaseRestService @Inject constructor(
 ) {
     /**
      * Assign one or multiple zaken in a batch operation.
-     * This can be a long-running operation, so it is run asynchronously.
+     * This can be a long-running operation, so it is run as a bulk job in the background.
      */
     @PUT
     @Path("lijst/verdelen")
@@ -64,22 +59,16 @@ class ZaakAssignAndReleaseRestService @Inject constructor(
         // Only the 'zaken taken verdelen' permission is currently required to assign tasks from the list.
         // Checking the user's authorization for each task's zaaktype could improve this in the future.
         assertPolicy(policyService.readWerklijstRechten().zakenTakenVerdelen)
-        // this can be a long-running operation, so run it asynchronously
-        CoroutineScope(dispatcher).launch {
-            zaakService.assignZaken(
-                zaakUUIDs = restZakenVerdeelGegevens.uuids,
-                explanation = restZakenVerdeelGegevens.reden,
-                group = restZakenVerdeelGegevens.groepId.let {
-                    identityService.readGroup(
-                        restZakenVerdeelGegevens.groepId
-                    )
-                },
-                user = restZakenVerdeelGegevens.behandelaarGebruikersnaam?.let {
-                    identityService.readUser(it)
-                },
-                screenEventResourceId = restZakenVerdeelGegevens.screenEventResourceId
-            )
-        }
+        bulkJobService.submit(
+            type = BulkJobType.ZAKEN_VERDELEN,
+            itemIds = restZakenVerdeelGegevens.uuids.map { it.toString() },
+            parameters = AssignZakenBulkJobHandler.Parameters(
+                groupId = restZakenVerdeelGegevens.groepId,
+                userName = restZakenVerdeelGegevens.behandelaarGebruikersnaam,
+                explanation = restZakenVerdeelGegevens.reden
+            ),
+            screenEventResourceId = restZakenVerdeelGegevens.screenEventResourceId
+        )
     }
 
     @PATCH
@@ -140,19 +129,17 @@ class ZaakAssignAndReleaseRestService @Inject constructor(
 
     /**
      * Release one or multiple zaken in a batch operation.
-     * This can be a long-running operation, so it is run asynchronously.
+     * This can be a long-running operation, so it is run as a bulk job in the background.
      */
     @PUT
     @Path("lijst/vrijgeven")
     fun releaseZakenFromList(@Valid restZakenVrijgevenGegevens: RestZakenVrijgevenGegevens) {
         assertPolicy(policyService.readWerklijstRechten().zakenTakenVerdelen)
-        // this can be a long-running operation, so run it asynchronously
-        CoroutineScope(dispatcher).launch {
-            zaakService.releaseZaken(
-                zaakUUIDs = restZakenVrijgevenGegevens.uuids,
-                explanation = restZakenVrijgevenGegevens.reden,
-                screenEventResourceId = restZakenVrijgevenGegevens.screenEventResourceId
-            )
-        }
+        bulkJobService.submit(
+            type = BulkJobType.ZAKEN_VRIJGEVEN,
+            itemIds = restZakenVrijgevenGegevens.uuids.map { it.toString() },
+            parameters = ReleaseZakenBulkJobHandler.Parameters(explanation = restZakenVrijgevenGegevens.reden),
+            screenEventResourceId = restZakenVrijgevenGegevens.screenEventResourceId
+        )
     }
 }
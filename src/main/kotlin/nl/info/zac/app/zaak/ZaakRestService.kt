@@ -446,27 +446,13 @@ class ZaakRestService @Inject constructor(
 
     @GET
     @Path("zaak/{uuid}")
-    fun readZaak(@PathParam("uuid") zaakUUID: UUID): RestZaak {
-        val loggedInUser = loggedInUserInstance.get()
-        val (zaak, zaakType) = zaakService.readZaakAndZaakTypeByZaakUUID(zaakUUID)
-        val zaakRechten = policyService.readZaakRechten(zaak, zaakType, loggedInUser)
-        assertPolicy(zaakRechten.lezen)
-        return restZaakConverter.toRestZaak(zaak, zaakType, zaakRechten, loggedInUser).also {
-            signaleringService.deleteSignaleringenForZaak(zaak)
-        }
-    }
+    fun readZaak(@PathParam("uuid") zaakUUID: UUID): RestZaak =
+        zaakService.readZaakAndZaakTypeByZaakUUID(zaakUUID).let { (zaak, zaakType) -> readRestZaak(zaak, zaakType) }
 
     @GET
     @Path("zaak/id/{identificatie}")
-    fun readZaakById(@PathParam("identificatie") zaakIdentification: String): RestZaak {
-        val loggedInUser = loggedInUserInstance.get()
-        val (zaak, zaakType) = zaakService.readZaakAndZaakTypeByZaakID(zaakIdentification)
-        val zaakRechten = policyService.readZaakRechten(zaak, zaakType, loggedInUser)
-        assertPolicy(zaakRechten.lezen)
-        return restZaakConverter.toRestZaak(zaak, zaakType, zaakRechten, loggedInUser).also {
-            signaleringService.deleteSignaleringenForZaak(zaak)
-        }
-    }
+    fun readZaakById(@PathParam("identificatie") zaakIdentification: String): RestZaak =
+        zaakService.readZaakAndZaakTypeByZaakID(zaakIdentification).let { (zaak, zaakType) -> readRestZaak(zaak, zaakType) }
 
     @PATCH
     @Path("/zaak/{uuid}/heropenen")
@@ -663,6 +649,21 @@ class ZaakRestService @Inject constructor(
         return restZaakConverter.toRestZaak(updatedZaak, zaakType, zaakRechten, loggedInUser)
     }
 
+    /**
+     * Reads the zaak details for display. The status of the zaak is read only once, for both the policy check and
+     * the conversion.
+     */
+    private fun readRestZaak(zaak: Zaak, zaakType: ZaakType): RestZaak {
+        val loggedInUser = loggedInUserInstance.get()
+        val status = zaak.status?.let(zrcClientService::readStatus)
+        val statustype = status?.let { ztcClientService.readStatustype(it.statustype) }
+        val zaakRechten = policyService.readZaakRechten(zaak, zaakType, statustype, loggedInUser)
+        assertPolicy(zaakRechten.lezen)
+        return restZaakConverter.toRestZaak(zaak, zaakType, zaakRechten, loggedInUser, status, statustype).also {
+            signaleringService.deleteSignaleringenForZaak(zaak)
+        }
+    }
+
     private fun addBetrokkeneToZaak(
         roleTypeUUID: UUID,
         betrokkeneIdentificatie: BetrokkeneIdentificatie,
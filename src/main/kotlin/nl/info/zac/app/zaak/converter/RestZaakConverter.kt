@@ -37,6 +37,7 @@ import nl.info.zac.app.zaak.model.toRestGeometry
 import nl.info.zac.app.zaak.model.toRestZaakBpmnProcessDefinition
 import nl.info.zac.app.zaak.model.toRestZaakStatus
 import nl.info.zac.authentication.LoggedInUser
+import nl.info.zac.authentication.ServletRequestProducingListener.Companion.currentServletRequestContextElement
 import nl.info.zac.flowable.bpmn.BpmnService
 import nl.info.zac.identification.IdentificationService
 import nl.info.zac.policy.output.ZaakRechten
@@ -47,6 +48,11 @@ import nl.info.zac.search.model.ZaakIndicatie.HOOFDZAAK
 import nl.info.zac.search.model.ZaakIndicatie.ONTVANGSTBEVESTIGING_NIET_VERSTUURD
 import nl.info.zac.search.model.ZaakIndicatie.OPSCHORTING
 import nl.info.zac.search.model.ZaakIndicatie.VERLENGD
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.runBlocking
 import java.time.Period
 import java.util.EnumSet.noneOf
 
@@ -70,6 +76,11 @@ class RestZaakConverter @Inject constructor(
     companion object {
         private const val ZAAKEIGENSCHAP_NAAM_GEAUTORISEERD = "ZAAK_GEAUTORISEERD"
         private const val ZAAKEIGENSCHAP_WAARDE_GEAUTORISEERD = "true"
+        private const val FANOUT_PARALLELISM = 8
+
+        // shared by all conversions, so that the number of concurrent calls to the remote APIs stays bounded
+        @OptIn(kotlinx.coroutines.ExperimentalCoroutinesApi::class)
+        private val fanoutDispatcher = Dispatchers.IO.limitedParallelism(FANOUT_PARALLELISM)
     }
 
     fun toRestZaak(
@@ -83,6 +94,11 @@ class RestZaakConverter @Inject constructor(
         return toRestZaak(zaak, zaakType, zaakRechten, loggedInUser, status, statustype)
     }
 
+    /**
+     * Converts the zaak to its REST representation.
+     * The independent reads from the other ZGW APIs, the identity provider and the klanten API are done concurrently,
+     * while the reads that use the database (including Flowable) are done on the calling thread in the meantime.
+     */
     @Suppress("LongMethod", "CyclomaticComplexMethod")
     fun toRestZaak(
         zaak: Zaak,
@@ -91,33 +107,50 @@ class RestZaakConverter @Inject constructor(
         loggedInUser: LoggedInUser,
         status: Status?,
         statustype: StatusType?
-    ): RestZaak {
-        val roles = zrcClientService.listRollen(zaak)
-        val groep = zgwApiService.findGroepForZaak(zaak, roles)?.let { rolOrganisatorischeEenheid ->
-            rolOrganisatorischeEenheid.betrokkeneIdentificatie?.let {
-                restGroupConverter.convertGroupId(it.identificatie)
+    ): RestZaak = runBlocking {
+        val fanoutContext = fanoutDispatcher + currentServletRequestContextElement()
+        val roles = async(fanoutContext) { zrcClientService.listRollen(zaak) }
+        val groep = async(fanoutContext) {
+            zgwApiService.findGroepForZaak(zaak, roles.await())?.let { rolOrganisatorischeEenheid ->
+                rolOrganisatorischeEenheid.betrokkeneIdentificatie?.let {
+                    restGroupConverter.convertGroupId(it.identificatie)
+                }
             }
         }
+        val behandelaar = async(fanoutContext) {
+            zgwApiService.findBehandelaarMedewerkerRoleForZaak(zaak, roles.await())
+                ?.betrokkeneIdentificatie
+                ?.let { restUserConverter.convertUserId(it.identificatie) }
+        }
+        val zaakSpecificContactDetails = async(fanoutContext) {
+            klantClientService.findZaakSpecificContactDetails(zaak.uuid)
+        }
+        val isZaakspecifiekGeautoriseerd = async(fanoutContext) {
+            zrcClientService.listZaakeigenschappen(zaak.uuid).any {
+                it.naam == ZAAKEIGENSCHAP_NAAM_GEAUTORISEERD && it.waarde == ZAAKEIGENSCHAP_WAARDE_GEAUTORISEERD
+            }
+        }
+        val gerelateerdeZaken = async(fanoutContext) { toRestGerelateerdeZaken(zaakRechten, zaak, loggedInUser) }
+        val resultaat = async(fanoutContext) {
+            zaak.resultaat?.let {
+                restZaakResultaatConverter.convert(resultaatURI = it, zaaktypeURI = zaak.zaaktype)
+            }
+        }
+
         val besluiten = brcClientService.listBesluiten(zaak)
             .map { restBesluitConverter.convertToRestBesluit(it) }
-        val behandelaar = zgwApiService.findBehandelaarMedewerkerRoleForZaak(zaak, roles)
-            ?.betrokkeneIdentificatie
-            ?.let { restUserConverter.convertUserId(it.identificatie) }
-        val initiator = zgwApiService.findInitiatorRoleForZaak(zaak, roles)
-        val initiatorIdentificatie = initiator?.let {
-            identificationService.createBetrokkeneIdentificatieForInitiatorRole(it)
-        }
-        val zaakSpecificContactDetails = klantClientService.findZaakSpecificContactDetails(zaak.uuid)
         val zaakData = zaakVariabelenService.readZaakdata(zaak.uuid)
         val hasSentConfirmationOfReceipt = (zaakData[VAR_ONTVANGSTBEVESTIGING_VERSTUURD] as? Boolean) ?: false
         val bpmnProcessDefinition = bpmnService.findProcessDefinitionByZaak(zaak.uuid)
-        val isZaakspecifiekGeautoriseerd = zrcClientService.listZaakeigenschappen(zaak.uuid).any {
-            it.naam == ZAAKEIGENSCHAP_NAAM_GEAUTORISEERD && it.waarde == ZAAKEIGENSCHAP_WAARDE_GEAUTORISEERD
+        val restZaaktype = restZaaktypeConverter.convert(zaakType)
+        val initiator = zgwApiService.findInitiatorRoleForZaak(zaak, roles.await())
+        val initiatorIdentificatie = initiator?.let {
+            identificationService.createBetrokkeneIdentificatieForInitiatorRole(it)
         }
-        return RestZaak(
+        RestZaak(
             archiefActiedatum = zaak.archiefactiedatum,
             archiefNominatie = zaak.archiefnominatie?.name,
-            behandelaar = behandelaar,
+            behandelaar = behandelaar.await(),
             besluiten = besluiten,
             bpmnProcessDefinition = bpmnProcessDefinition?.toRestZaakBpmnProcessDefinition(),
             bronorganisatie = zaak.bronorganisatie,
@@ -128,8 +161,8 @@ class RestZaakConverter @Inject constructor(
             eerdereOpschorting = zaak.opschorting?.eerdereOpschorting ?: false,
             einddatum = zaak.einddatum,
             einddatumGepland = zaak.einddatumGepland,
-            gerelateerdeZaken = toRestGerelateerdeZaken(zaakRechten, zaak, loggedInUser),
-            groep = groep,
+            gerelateerdeZaken = gerelateerdeZaken.await(),
+            groep = groep.await(),
             heeftOntvangstbevestigingVerstuurd = hasSentConfirmationOfReceipt,
             identificatie = zaak.identificatie,
             indicaties = noneOf(ZaakIndicatie::class.java).apply {
@@ -152,7 +185,7 @@ class RestZaakConverter @Inject constructor(
             isOpgeschort = zaak.isOpgeschort(),
             isProcesGestuurd = bpmnProcessDefinition != null,
             isVerlengd = zaak.isVerlengd(),
-            isZaakspecifiekGeautoriseerd = isZaakspecifiekGeautoriseerd,
+            isZaakspecifiekGeautoriseerd = isZaakspecifiekGeautoriseerd.await(),
             kenmerken = zaak.kenmerken?.map { RestZaakKenmerk(it.kenmerk, it.bron) },
             omschrijving = zaak.omschrijving,
             publicatiedatum = zaak.publicatiedatum,
@@ -160,9 +193,7 @@ class RestZaakConverter @Inject constructor(
             redenOpschorting = takeIf { zaak.isOpgeschort() }?.let { zaak.opschorting?.reden },
             redenVerlenging = if (zaak.isVerlengd()) zaak.verlenging.reden else null,
             registratiedatum = zaak.registratiedatum,
-            resultaat = zaak.resultaat?.let {
-                restZaakResultaatConverter.convert(resultaatURI = it, zaaktypeURI = zaak.zaaktype)
-            },
+            resultaat = resultaat.await(),
             startdatum = zaak.startdatum,
             startdatumBewaartermijn = zaak.startdatumBewaartermijn,
             status = status?.takeIf { statustype != null }?.let { toRestZaakStatus(statustype!!, it) },
@@ -173,37 +204,49 @@ class RestZaakConverter @Inject constructor(
             vertrouwelijkheidaanduiding = zaak.vertrouwelijkheidaanduiding?.toRestVertrouwelijkheidaanduiding(),
             zaakdata = zaakData,
             zaakgeometrie = zaak.zaakgeometrie?.toRestGeometry(),
-            zaakSpecificContactDetails = zaakSpecificContactDetails,
-            zaaktype = restZaaktypeConverter.convert(zaakType)
+            zaakSpecificContactDetails = zaakSpecificContactDetails.await(),
+            zaaktype = restZaaktype
         )
     }
 
-    private fun toRestGerelateerdeZaken(
+    /**
+     * Converts the hoofdzaak, deelzaken and related zaken of the zaak concurrently, keeping their order.
+     */
+    private suspend fun toRestGerelateerdeZaken(
         fromZaakRechten: ZaakRechten,
         zaak: Zaak,
         loggedInUser: LoggedInUser
-    ): List<RestGerelateerdeZaak> {
-        val gerelateerdeZaken = mutableListOf<RestGerelateerdeZaak>()
-        zaak.hoofdzaak?.let {
-            gerelateerdeZaken.add(
-                restGerelateerdeZaakConverter.convert(
-                    fromZaak = zaak,
-                    fromZaakRechten = fromZaakRechten,
-                    gerelateerdeZaak = zrcClientService.readZaak(it),
-                    relatieType = RelatieType.HOOFDZAAK,
-                    loggedInUser = loggedInUser
+    ): List<RestGerelateerdeZaak> = coroutineScope {
+        buildList {
+            zaak.hoofdzaak?.let {
+                add(
+                    async {
+                        restGerelateerdeZaakConverter.convert(
+                            fromZaak = zaak,
+                            fromZaakRechten = fromZaakRechten,
+                            gerelateerdeZaak = zrcClientService.readZaak(it),
+                            relatieType = RelatieType.HOOFDZAAK,
+                            loggedInUser = loggedInUser
+                        )
+                    }
                 )
-            )
-        }
-        zaak.deelzaken
-            ?.map(zrcClientService::readZaak)
-            ?.map {
-                restGerelateerdeZaakConverter.convert(zaak, fromZaakRechten, it, loggedInUser, RelatieType.DEELZAAK)
             }
-            ?.forEach(gerelateerdeZaken::add)
-        zaak.gerelateerdeZaken
-            ?.map { restGerelateerdeZaakConverter.convert(zaak, fromZaakRechten, it, loggedInUser) }
-            ?.forEach(gerelateerdeZaken::add)
-        return gerelateerdeZaken
+            zaak.deelzaken?.forEach {
+                add(
+                    async {
+                        restGerelateerdeZaakConverter.convert(
+                            zaak,
+                            fromZaakRechten,
+                            zrcClientService.readZaak(it),
+                            loggedInUser,
+                            RelatieType.DEELZAAK
+                        )
+                    }
+                )
+            }
+            zaak.gerelateerdeZaken?.forEach {
+                add(async { restGerelateerdeZaakConverter.convert(zaak, fromZaakRechten, it, loggedInUser) })
+            }
+        }.awaitAll()
     }
 }
@@ -12,11 +12,20 @@ import jakarta.servlet.ServletRequestListener
 import jakarta.servlet.annotation.WebListener
 import jakarta.servlet.http.HttpServletRequest
 import jakarta.servlet.http.HttpSession
+import kotlinx.coroutines.ThreadContextElement
+import kotlinx.coroutines.asContextElement
 
 @WebListener
 class ServletRequestProducingListener : ServletRequestListener {
     companion object {
         private val SERVLET_REQUESTS = ThreadLocal<ServletRequest>()
+
+        /**
+         * Returns a coroutine context element that makes the servlet request of the current thread, and with that the
+         * active session and the logged-in user, also available to coroutines that run on other threads.
+         */
+        fun currentServletRequestContextElement(): ThreadContextElement<ServletRequest?> =
+            SERVLET_REQUESTS.asContextElement(SERVLET_REQUESTS.get())
     }
 
     override fun requestInitialized(servletRequestEvent: ServletRequestEvent) =
@@ -0,0 +1,47 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk
+
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJobItemOutcome
+import nl.info.zac.bulk.model.BulkJobProgress
+import nl.info.zac.bulk.model.BulkJobType
+
+/**
+ * Processes the items of the [BulkJob]s of a [BulkJobType]. Implementations are CDI beans that are looked up by the
+ * [BulkJobService].
+ */
+interface BulkJobHandler {
+    val type: BulkJobType
+
+    /**
+     * The maximum number of items that are processed at once by [BulkJobExecution.process].
+     */
+    val batchSize: Int
+        get() = 1
+
+    /**
+     * Prepares to process the items of the given job, which may have been partially processed already.
+     * Everything that is the same for all items, like the parameters of the job, should be looked up here once.
+     */
+    fun start(job: BulkJob): BulkJobExecution
+}
+
+/**
+ * The run of a [BulkJob] on this node. Batches of items are processed concurrently.
+ */
+interface BulkJobExecution {
+    /**
+     * Processes a batch of items of the job.
+     *
+     * @return the outcome for each of the items; an exception fails all items of the batch
+     */
+    fun process(itemIds: List<String>): Map<String, BulkJobItemOutcome>
+
+    /**
+     * Called once when all items of the job have been processed.
+     */
+    fun finish(progress: BulkJobProgress) = Unit
+}
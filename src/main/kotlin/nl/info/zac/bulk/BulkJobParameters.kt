@@ -0,0 +1,18 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.module.kotlin.KotlinModule
+import nl.info.zac.bulk.model.BulkJob
+
+private val JSON_MAPPER = ObjectMapper().registerModule(KotlinModule.Builder().build())
+
+fun toParametersJson(parameters: Any): String = JSON_MAPPER.writeValueAsString(parameters)
+
+/**
+ * Reads the parameters of the job, which were stored as JSON when the job was submitted.
+ */
+fun <T> BulkJob.readParameters(type: Class<T>): T = JSON_MAPPER.readValue(parameters, type)
@@ -0,0 +1,188 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import jakarta.transaction.Transactional.TxType.REQUIRED
+import jakarta.transaction.Transactional.TxType.SUPPORTS
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJob.Companion.COMPLETED_AT_PROPERTY_NAME
+import nl.info.zac.bulk.model.BulkJob.Companion.ID_PROPERTY_NAME
+import nl.info.zac.bulk.model.BulkJob.Companion.LEASE_UNTIL_PROPERTY_NAME
+import nl.info.zac.bulk.model.BulkJobItem
+import nl.info.zac.bulk.model.BulkJobItem.Companion.ITEM_ID_PROPERTY_NAME
+import nl.info.zac.bulk.model.BulkJobItem.Companion.JOB_ID_PROPERTY_NAME
+import nl.info.zac.bulk.model.BulkJobItem.Companion.OUTCOME_PROPERTY_NAME
+import nl.info.zac.bulk.model.BulkJobItemOutcome
+import nl.info.zac.bulk.model.BulkJobItemStatus
+import nl.info.zac.bulk.model.BulkJobStatus
+import nl.info.zac.bulk.model.BulkJobType
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.time.ZonedDateTime
+
+@ApplicationScoped
+@Transactional(SUPPORTS)
+@NoArgConstructor
+@AllOpen
+@Suppress("TooManyFunctions")
+class BulkJobRepository @Inject constructor(
+    private val entityManager: EntityManager
+) {
+    companion object {
+        // Inserts all items of a job at once, instead of one insert (and sequence call) per item.
+        // The IDs of the items never contain a comma: they are UUIDs or Flowable IDs.
+        private val INSERT_ITEMS_SQL = """
+            INSERT INTO $SCHEMA.bulk_job_item (id_bulk_job_item, id_bulk_job, item_id, status)
+            SELECT nextval('$SCHEMA.sq_bulk_job_item'), :jobId, item_id, '${BulkJobItemStatus.PENDING}'
+            FROM unnest(string_to_array(:itemIds, ',')) AS item_id
+        """.trimIndent()
+
+        // Claims the running job that was submitted first and is not being run by another node (or whose lease has
+        // expired). SKIP LOCKED lets multiple nodes run jobs concurrently.
+        private val CLAIM_SQL = """
+            UPDATE $SCHEMA.bulk_job
+            SET lease_until = now() + :leaseMillis * INTERVAL '1 millisecond'
+            WHERE id_bulk_job IN (
+                SELECT id_bulk_job FROM $SCHEMA.bulk_job
+                WHERE status = '${BulkJobStatus.RUNNING}' AND lease_until <= now()
+                ORDER BY created_at
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING *
+        """.trimIndent()
+    }
+
+    @Transactional(REQUIRED)
+    @Suppress("LongParameterList")
+    fun create(
+        type: BulkJobType,
+        itemIds: Collection<String>,
+        parameters: String,
+        screenEventResourceId: String?,
+        createdBy: String
+    ): BulkJob {
+        val now = ZonedDateTime.now()
+        val job = BulkJob().apply {
+            this.type = type
+            status = BulkJobStatus.RUNNING
+            this.parameters = parameters
+            this.screenEventResourceId = screenEventResourceId
+            this.createdBy = createdBy
+            createdAt = now
+            leaseUntil = now
+            total = itemIds.size
+        }
+        entityManager.persist(job)
+        entityManager.flush()
+        if (itemIds.isNotEmpty()) {
+            entityManager.createNativeQuery(INSERT_ITEMS_SQL)
+                .setParameter("jobId", job.id)
+                .setParameter("itemIds", itemIds.joinToString(","))
+                .executeUpdate()
+        }
+        return job
+    }
+
+    @Transactional(REQUIRED)
+    @Suppress("UNCHECKED_CAST")
+    fun claim(leaseMillis: Long): BulkJob? =
+        (
+            entityManager.createNativeQuery(CLAIM_SQL, BulkJob::class.java)
+                .setParameter("leaseMillis", leaseMillis)
+                .resultList as List<BulkJob>
+            ).firstOrNull()
+
+    @Transactional(REQUIRED)
+    fun renewLease(id: Long, leaseUntil: ZonedDateTime) {
+        val builder = entityManager.criteriaBuilder
+        val update = builder.createCriteriaUpdate(BulkJob::class.java)
+        val root = update.from(BulkJob::class.java)
+        update.set(root.get<ZonedDateTime>(LEASE_UNTIL_PROPERTY_NAME), leaseUntil)
+            .where(builder.equal(root.get<Long>(ID_PROPERTY_NAME), id))
+        entityManager.createQuery(update).executeUpdate()
+    }
+
+    /**
+     * Lists the IDs of the items of the given job that have not been processed yet.
+     */
+    fun listPendingItemIds(jobId: Long): List<String> {
+        val builder = entityManager.criteriaBuilder
+        val query = builder.createQuery(String::class.java)
+        val root = query.from(BulkJobItem::class.java)
+        query.select(root.get<String>(ITEM_ID_PROPERTY_NAME))
+            .where(
+                builder.equal(root.get<Long>(JOB_ID_PROPERTY_NAME), jobId),
+                builder.equal(root.get<BulkJobItemStatus>(BulkJobItem.STATUS_PROPERTY_NAME), BulkJobItemStatus.PENDING)
+            )
+            .orderBy(builder.asc(root.get<Long>(BulkJobItem.ID_PROPERTY_NAME)))
+        return entityManager.createQuery(query).resultList
+    }
+
+    /**
+     * Records the outcomes of the given items of a job, with one update per distinct outcome.
+     */
+    @Transactional(REQUIRED)
+    fun recordOutcomes(jobId: Long, outcomes: Map<String, BulkJobItemOutcome>) =
+        outcomes.entries.groupBy({ it.value }, { it.key }).forEach { (outcome, itemIds) ->
+            val builder = entityManager.criteriaBuilder
+            val update = builder.createCriteriaUpdate(BulkJobItem::class.java)
+            val root = update.from(BulkJobItem::class.java)
+            update.set(root.get<BulkJobItemStatus>(BulkJobItem.STATUS_PROPERTY_NAME), outcome.status)
+                .set(root.get<String>(OUTCOME_PROPERTY_NAME), outcome.message)
+                .where(
+                    builder.equal(root.get<Long>(JOB_ID_PROPERTY_NAME), jobId),
+                    root.get<String>(ITEM_ID_PROPERTY_NAME).`in`(itemIds)
+                )
+            entityManager.createQuery(update).executeUpdate()
+        }
+
+    /**
+     * Counts the items of the given job per status.
+     */
+    fun countItemsByStatus(jobId: Long): Map<BulkJobItemStatus, Int> {
+        val builder = entityManager.criteriaBuilder
+        val query = builder.createTupleQuery()
+        val root = query.from(BulkJobItem::class.java)
+        val status = root.get<BulkJobItemStatus>(BulkJobItem.STATUS_PROPERTY_NAME)
+        query.multiselect(status, builder.count(root))
+            .where(builder.equal(root.get<Long>(JOB_ID_PROPERTY_NAME), jobId))
+            .groupBy(status)
+        return entityManager.createQuery(query).resultList.associate {
+            it.get(0, BulkJobItemStatus::class.java) to it.get(1, Long::class.javaObjectType).toInt()
+        }
+    }
+
+    @Transactional(REQUIRED)
+    fun complete(id: Long, status: BulkJobStatus) {
+        val builder = entityManager.criteriaBuilder
+        val update = builder.createCriteriaUpdate(BulkJob::class.java)
+        val root = update.from(BulkJob::class.java)
+        update.set(root.get<BulkJobStatus>(BulkJob.STATUS_PROPERTY_NAME), status)
+            .set(root.get<ZonedDateTime>(COMPLETED_AT_PROPERTY_NAME), ZonedDateTime.now())
+            .where(builder.equal(root.get<Long>(ID_PROPERTY_NAME), id))
+        entityManager.createQuery(update).executeUpdate()
+    }
+
+    /**
+     * Removes the jobs that were completed before the given moment, including their items.
+     *
+     * @return the number of removed jobs
+     */
+    @Transactional(REQUIRED)
+    fun deleteCompletedBefore(completedBefore: ZonedDateTime): Int {
+        val builder = entityManager.criteriaBuilder
+        val delete = builder.createCriteriaDelete(BulkJob::class.java)
+        val root = delete.from(BulkJob::class.java)
+        // the items are removed by the database, as their foreign key cascades
+        delete.where(builder.lessThan(root.get<ZonedDateTime>(COMPLETED_AT_PROPERTY_NAME), completedBefore))
+        return entityManager.createQuery(delete).executeUpdate()
+    }
+}
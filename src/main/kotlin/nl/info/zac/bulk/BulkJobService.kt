@@ -0,0 +1,317 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import jakarta.annotation.Resource
+import jakarta.enterprise.concurrent.ManagedExecutorService
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.context.Initialized
+import jakarta.enterprise.event.Observes
+import jakarta.enterprise.inject.Instance
+import jakarta.inject.Inject
+import net.atos.zac.event.EventingService
+import net.atos.zac.websocket.event.ScreenEventType
+import nl.info.zac.authentication.LoggedInUser
+import nl.info.zac.authentication.LoggedInUserProvider.Companion.systemUser
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJobItemOutcome
+import nl.info.zac.bulk.model.BulkJobItemStatus
+import nl.info.zac.bulk.model.BulkJobProgress
+import nl.info.zac.bulk.model.BulkJobStatus
+import nl.info.zac.bulk.model.BulkJobType
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import org.eclipse.microprofile.config.inject.ConfigProperty
+import java.time.Duration
+import java.time.ZonedDateTime
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.locks.ReentrantLock
+import java.util.logging.Level
+import java.util.logging.Logger
+
+/**
+ * Runs bulk operations on lists of items, like assigning a list of zaken, in the background.
+ *
+ * A submitted job is stored in the database with all its items, and is run by the first node that claims it. The items
+ * are processed in batches by a [BulkJobHandler] for the type of the job, on a bounded number of parallel workers, and
+ * the outcome of every item is recorded. The items of a batch that fails as a whole are processed again one by one.
+ * While a job runs, its progress is reported periodically with a [ScreenEventType.VOORTGANG] screen event. A job that
+ * was interrupted, because the node that was running it went down, is resumed by the next node that claims it, with
+ * the items that had not been processed yet.
+ */
+@ApplicationScoped
+@NoArgConstructor
+@AllOpen
+@Suppress("LongParameterList", "TooManyFunctions")
+class BulkJobService @Inject constructor(
+    private val bulkJobRepository: BulkJobRepository,
+    private val handlers: Instance<BulkJobHandler>,
+    private val eventingService: EventingService,
+    private val loggedInUserInstance: Instance<LoggedInUser>,
+
+    @ConfigProperty(name = "BULK_JOB_POLL_INTERVAL_MILLIS", defaultValue = "10000")
+    private val pollIntervalMillis: Long,
+
+    @ConfigProperty(name = "BULK_JOB_PROGRESS_INTERVAL_MILLIS", defaultValue = "1000")
+    private val progressIntervalMillis: Long,
+
+    @ConfigProperty(name = "BULK_JOB_PARALLELISM", defaultValue = "4")
+    private val parallelism: Int
+) {
+    companion object {
+        private val LOG = Logger.getLogger(BulkJobService::class.java.name)
+        private val JSON_MAPPER = ObjectMapper()
+
+        // Claimed jobs whose lease has expired (e.g. because the node that claimed them went down)
+        // are resumed by the next run. The lease is renewed with every progress report.
+        private val CLAIM_LEASE = Duration.ofMinutes(5)
+        private val COMPLETED_JOB_RETENTION = Duration.ofDays(7)
+    }
+
+    @Resource
+    lateinit var managedExecutorService: ManagedExecutorService
+
+    @Resource
+    lateinit var managedScheduledExecutorService: ManagedScheduledExecutorService
+
+    private val runLock = ReentrantLock()
+
+    fun onStartup(@Observes @Initialized(ApplicationScoped::class) @Suppress("UNUSED_PARAMETER") event: Any) {
+        managedScheduledExecutorService.scheduleWithFixedDelay(
+            ::runLoggingExceptions,
+            pollIntervalMillis,
+            pollIntervalMillis,
+            TimeUnit.MILLISECONDS
+        )
+        LOG.info("Bulk jobs started with a parallelism of $parallelism")
+    }
+
+    /**
+     * Stores a job for the given items and starts running it in the background.
+     * Duplicate items are processed once.
+     */
+    fun submit(
+        type: BulkJobType,
+        itemIds: List<String>,
+        parameters: Any,
+        screenEventResourceId: String? = null
+    ): BulkJob =
+        bulkJobRepository.create(
+            type = type,
+            itemIds = itemIds.distinct(),
+            parameters = toParametersJson(parameters),
+            screenEventResourceId = screenEventResourceId,
+            createdBy = loggedInUserInstance.get().id
+        ).also {
+            LOG.fine { "Submitted bulk job ${it.id} of type ${it.type} with ${it.total} items" }
+            // do not wait for the next poll
+            managedScheduledExecutorService.execute(::runLoggingExceptions)
+        }
+
+    /**
+     * Runs the jobs that are not being run by any node, until there are none left.
+     * Does nothing when this node is already running jobs, as that run will pick up any new jobs.
+     *
+     * @return the number of jobs that were run
+     */
+    fun run(): Int {
+        if (!runLock.tryLock()) return 0
+        try {
+            bulkJobRepository.deleteCompletedBefore(ZonedDateTime.now().minus(COMPLETED_JOB_RETENTION))
+            var jobs = 0
+            while (true) {
+                val job = bulkJobRepository.claim(CLAIM_LEASE.toMillis()) ?: break
+                runJob(job)
+                jobs++
+            }
+            return jobs
+        } finally {
+            runLock.unlock()
+        }
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun runJob(job: BulkJob) {
+        val handler = handlers.firstOrNull { it.type == job.type }
+        if (handler == null) {
+            LOG.severe("Failed to start bulk job ${job.id}, because there is no handler for jobs of type ${job.type}")
+            failJob(job, "No handler for jobs of type ${job.type}")
+            return
+        }
+        val execution = try {
+            systemUser.set(true)
+            handler.start(job)
+        } catch (exception: RuntimeException) {
+            LOG.log(Level.SEVERE, "Failed to start bulk job ${job.id} of type ${job.type}", exception)
+            failJob(job, exception.toString())
+            return
+        } finally {
+            systemUser.remove()
+        }
+        val pendingItemIds = bulkJobRepository.listPendingItemIds(job.id)
+        LOG.fine { "Running bulk job ${job.id} of type ${job.type} with ${pendingItemIds.size} of ${job.total} items pending" }
+        val counts = ProgressCounts(job, bulkJobRepository.countItemsByStatus(job.id))
+        val batches = ConcurrentLinkedQueue(pendingItemIds.chunked(handler.batchSize.coerceAtLeast(1)))
+        val workers = (1..parallelism.coerceAtLeast(1)).map {
+            managedExecutorService.submit(Callable { processBatches(job, execution, batches, counts) })
+        }
+        awaitReportingProgress(job, workers, counts)?.let { workerFailure ->
+            // the items of the batch that the worker was processing, and any batches that no worker was left for
+            counts.add(failPendingItems(job, workerFailure.toString()))
+        }
+        val progress = counts.toProgress()
+        try {
+            systemUser.set(true)
+            execution.finish(progress)
+        } catch (exception: RuntimeException) {
+            LOG.log(Level.WARNING, "Failed to finish bulk job ${job.id} of type ${job.type}", exception)
+        } finally {
+            systemUser.remove()
+        }
+        bulkJobRepository.complete(job.id, BulkJobStatus.COMPLETED)
+        sendProgress(job, progress)
+        LOG.fine { "Completed bulk job ${job.id} of type ${job.type}: $progress" }
+    }
+
+    private fun processBatches(
+        job: BulkJob,
+        execution: BulkJobExecution,
+        batches: ConcurrentLinkedQueue<List<String>>,
+        counts: ProgressCounts
+    ) {
+        try {
+            systemUser.set(true)
+            generateSequence { batches.poll() }.forEach { batch ->
+                val outcomes = processBatch(job, execution, batch)
+                bulkJobRepository.recordOutcomes(job.id, outcomes)
+                counts.add(outcomes.values)
+            }
+        } finally {
+            systemUser.remove()
+        }
+    }
+
+    /**
+     * Processes a batch of items. When the batch fails as a whole (e.g. because the handler processes it in a single
+     * transaction), its items are processed again one by one, so that a single failing item does not fail the others.
+     */
+    @Suppress("TooGenericExceptionCaught")
+    private fun processBatch(
+        job: BulkJob,
+        execution: BulkJobExecution,
+        batch: List<String>
+    ): Map<String, BulkJobItemOutcome> =
+        try {
+            execution.process(batch).let { outcomes ->
+                // an item without an outcome was not processed by the handler
+                batch.associateWith { outcomes[it] ?: BulkJobItemOutcome.failed("No outcome") }
+            }
+        } catch (exception: RuntimeException) {
+            if (batch.size > 1) {
+                LOG.log(
+                    Level.WARNING,
+                    "Failed to process ${batch.size} items of bulk job ${job.id}. Processing them one by one",
+                    exception
+                )
+                batch.map { processBatch(job, execution, listOf(it)) }.reduce { outcomes, other -> outcomes + other }
+            } else {
+                LOG.log(Level.WARNING, "Failed to process item $batch of bulk job ${job.id}", exception)
+                batch.associateWith { BulkJobItemOutcome.failed(exception.toString()) }
+            }
+        }
+
+    /**
+     * Waits until all workers are done, reporting the progress of the job and renewing its lease meanwhile.
+     * A worker that fails (e.g. because the outcomes of a batch cannot be recorded) does not stop the other workers,
+     * which keep processing the remaining batches.
+     *
+     * @return the failure of the first worker that failed, if any
+     */
+    private fun awaitReportingProgress(job: BulkJob, workers: List<Future<*>>, counts: ProgressCounts): Throwable? {
+        var reported = counts.toProgress()
+        var workerFailure: Throwable? = null
+        workers.forEach { worker ->
+            while (true) {
+                try {
+                    worker.get(progressIntervalMillis, TimeUnit.MILLISECONDS)
+                    break
+                } catch (_: TimeoutException) {
+                    bulkJobRepository.renewLease(job.id, ZonedDateTime.now().plus(CLAIM_LEASE))
+                    counts.toProgress().takeIf { it != reported }?.let {
+                        sendProgress(job, it)
+                        reported = it
+                    }
+                } catch (exception: ExecutionException) {
+                    val failure = exception.cause ?: exception
+                    LOG.log(Level.SEVERE, "A worker of bulk job ${job.id} of type ${job.type} failed", failure)
+                    workerFailure = workerFailure ?: failure
+                    break
+                }
+            }
+        }
+        return workerFailure
+    }
+
+    private fun failJob(job: BulkJob, reason: String) {
+        failPendingItems(job, reason)
+        bulkJobRepository.complete(job.id, BulkJobStatus.FAILED)
+        sendProgress(job, ProgressCounts(job, bulkJobRepository.countItemsByStatus(job.id)).toProgress())
+    }
+
+    /**
+     * Records the items of the job that have not been processed yet as failed.
+     *
+     * @return the recorded outcomes
+     */
+    private fun failPendingItems(job: BulkJob, reason: String): Collection<BulkJobItemOutcome> =
+        bulkJobRepository.listPendingItemIds(job.id)
+            .associateWith { BulkJobItemOutcome.failed(reason) }
+            .takeIf { it.isNotEmpty() }
+            ?.also { bulkJobRepository.recordOutcomes(job.id, it) }
+            ?.values
+            ?: emptyList()
+
+    private fun sendProgress(job: BulkJob, progress: BulkJobProgress) =
+        job.screenEventResourceId?.let {
+            eventingService.send(ScreenEventType.VOORTGANG.updated(it, JSON_MAPPER.writeValueAsString(progress)))
+        }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun runLoggingExceptions() {
+        try {
+            run()
+        } catch (exception: Exception) {
+            // never let an exception escape, because that would cancel the scheduled run
+            LOG.log(Level.WARNING, "Failed to run the bulk jobs", exception)
+        }
+    }
+
+    /**
+     * Counts the outcomes of the items of a running job, starting with the items that were processed before it was
+     * resumed.
+     */
+    private class ProgressCounts(job: BulkJob, countsByStatus: Map<BulkJobItemStatus, Int>) {
+        private val total = job.total
+        private val counts = BulkJobItemStatus.entries.associateWith { AtomicInteger(countsByStatus[it] ?: 0) }
+
+        fun add(outcomes: Collection<BulkJobItemOutcome>) =
+            outcomes.forEach { counts.getValue(it.status).incrementAndGet() }
+
+        fun toProgress() = BulkJobProgress(
+            total = total,
+            done = counts.getValue(BulkJobItemStatus.DONE).get(),
+            skipped = counts.getValue(BulkJobItemStatus.SKIPPED).get(),
+            failed = counts.getValue(BulkJobItemStatus.FAILED).get()
+        )
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk.model
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.EnumType
+import jakarta.persistence.Enumerated
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.SequenceGenerator
+import jakarta.persistence.Table
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.time.ZonedDateTime
+
+/**
+ * A bulk operation on a list of items, like assigning a list of zaken, that is run in the background.
+ */
+@Entity
+@Table(schema = SCHEMA, name = "bulk_job")
+@SequenceGenerator(
+    schema = SCHEMA,
+    name = "sq_bulk_job",
+    sequenceName = "sq_bulk_job",
+    allocationSize = 1
+)
+@AllOpen
+@NoArgConstructor
+class BulkJob {
+    companion object {
+        const val ID_PROPERTY_NAME = "id"
+        const val STATUS_PROPERTY_NAME = "status"
+        const val LEASE_UNTIL_PROPERTY_NAME = "leaseUntil"
+        const val COMPLETED_AT_PROPERTY_NAME = "completedAt"
+    }
+
+    @Id
+    @GeneratedValue(generator = "sq_bulk_job", strategy = GenerationType.SEQUENCE)
+    @Column(name = "id_bulk_job")
+    var id: Long = 0
+
+    @Column(name = "job_type", nullable = false)
+    @Enumerated(EnumType.STRING)
+    lateinit var type: BulkJobType
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    lateinit var status: BulkJobStatus
+
+    /**
+     * The parameters of the operation, as JSON. Their structure depends on the [type] of the job.
+     */
+    @Column(name = "parameters", nullable = false)
+    lateinit var parameters: String
+
+    /**
+     * The resource ID of the screen events that report the progress and the completion of the job.
+     */
+    @Column(name = "screen_event_resource_id")
+    var screenEventResourceId: String? = null
+
+    @Column(name = "created_by", nullable = false)
+    lateinit var createdBy: String
+
+    @Column(name = "created_at", nullable = false)
+    lateinit var createdAt: ZonedDateTime
+
+    /**
+     * A running job is run by the first node that claims it after this moment. While a node is running the job, it is
+     * moved into the future, so that a job that was being run by a node that went down is resumed by another node.
+     */
+    @Column(name = "lease_until", nullable = false)
+    lateinit var leaseUntil: ZonedDateTime
+
+    @Column(name = "completed_at")
+    var completedAt: ZonedDateTime? = null
+
+    /**
+     * The number of items of the job.
+     */
+    @Column(name = "total", nullable = false)
+    var total: Int = 0
+}
@@ -0,0 +1,65 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk.model
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.EnumType
+import jakarta.persistence.Enumerated
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.SequenceGenerator
+import jakarta.persistence.Table
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+
+/**
+ * An item of a [BulkJob], like one of the zaken that are assigned, with the outcome of processing it.
+ */
+@Entity
+@Table(schema = SCHEMA, name = "bulk_job_item")
+@SequenceGenerator(
+    schema = SCHEMA,
+    name = "sq_bulk_job_item",
+    sequenceName = "sq_bulk_job_item",
+    allocationSize = 1
+)
+@AllOpen
+@NoArgConstructor
+class BulkJobItem {
+    companion object {
+        const val ID_PROPERTY_NAME = "id"
+        const val JOB_ID_PROPERTY_NAME = "jobId"
+        const val ITEM_ID_PROPERTY_NAME = "itemId"
+        const val STATUS_PROPERTY_NAME = "status"
+        const val OUTCOME_PROPERTY_NAME = "outcome"
+    }
+
+    @Id
+    @GeneratedValue(generator = "sq_bulk_job_item", strategy = GenerationType.SEQUENCE)
+    @Column(name = "id_bulk_job_item")
+    var id: Long = 0
+
+    @Column(name = "id_bulk_job", nullable = false)
+    var jobId: Long = 0
+
+    /**
+     * The ID of the item, like the UUID of a zaak.
+     */
+    @Column(name = "item_id", nullable = false)
+    lateinit var itemId: String
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    lateinit var status: BulkJobItemStatus
+
+    /**
+     * Explains why the item was skipped or why processing it failed.
+     */
+    @Column(name = "outcome")
+    var outcome: String? = null
+}
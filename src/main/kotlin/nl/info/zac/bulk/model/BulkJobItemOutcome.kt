@@ -0,0 +1,21 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk.model
+
+/**
+ * The outcome of processing an item of a [BulkJob].
+ */
+data class BulkJobItemOutcome(
+    val status: BulkJobItemStatus,
+    val message: String? = null
+) {
+    companion object {
+        val DONE = BulkJobItemOutcome(BulkJobItemStatus.DONE)
+
+        fun skipped(reason: String) = BulkJobItemOutcome(BulkJobItemStatus.SKIPPED, reason)
+
+        fun failed(reason: String?) = BulkJobItemOutcome(BulkJobItemStatus.FAILED, reason)
+    }
+}
@@ -0,0 +1,12 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk.model
+
+enum class BulkJobItemStatus {
+    PENDING,
+    DONE,
+    SKIPPED,
+    FAILED
+}
@@ -0,0 +1,19 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk.model
+
+/**
+ * The progress of a [BulkJob], as reported in the details of its progress screen events.
+ *
+ * @param done the number of items that were processed successfully
+ */
+data class BulkJobProgress(
+    val total: Int,
+    val done: Int,
+    val skipped: Int,
+    val failed: Int
+) {
+    fun isCompleted() = done + skipped + failed >= total
+}
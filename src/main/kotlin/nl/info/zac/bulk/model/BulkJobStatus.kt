@@ -0,0 +1,15 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk.model
+
+enum class BulkJobStatus {
+    RUNNING,
+    COMPLETED,
+
+    /**
+     * The job could not be run at all, for example because its parameters are no longer valid.
+     */
+    FAILED
+}
@@ -0,0 +1,12 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk.model
+
+enum class BulkJobType {
+    ZAKEN_VERDELEN,
+    ZAKEN_VRIJGEVEN,
+    TAKEN_VERDELEN,
+    TAKEN_VRIJGEVEN
+}
@@ -0,0 +1,27 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.cache
+
+/**
+ * CDI event that requests the eviction of a cache entry, or of the whole cache when no [key] is given.
+ *
+ * The event is fired on every node of the cluster by the [CacheInvalidationBus].
+ * Services that own the named cache observe the event and evict their local entries.
+ */
+data class CacheInvalidation(
+    val cacheName: String,
+    val key: String? = null
+) {
+    companion object {
+        const val ALL_CACHES = "*"
+
+        /**
+         * Requests all caches to be cleared, for example when invalidations from other nodes may have been missed.
+         */
+        val CLEAR_ALL = CacheInvalidation(ALL_CACHES)
+    }
+
+    fun appliesTo(cacheName: String) = this.cacheName == ALL_CACHES || this.cacheName == cacheName
+}
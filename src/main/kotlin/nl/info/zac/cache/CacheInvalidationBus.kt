@@ -0,0 +1,110 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.cache
+
+import jakarta.annotation.PreDestroy
+import jakarta.annotation.Resource
+import jakarta.enterprise.concurrent.ManagedExecutorService
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.context.Initialized
+import jakarta.enterprise.event.Event
+import jakarta.enterprise.event.Observes
+import jakarta.inject.Inject
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import jakarta.transaction.Transactional.TxType.REQUIRED
+import nl.info.zac.database.DedicatedConnectionFactory
+import nl.info.zac.database.NotificationChannelListener
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.util.UUID
+import java.util.logging.Logger
+
+/**
+ * Broadcasts cache invalidations to all ZAC nodes in the cluster, using a PostgreSQL LISTEN/NOTIFY channel
+ * on the ZAC database.
+ *
+ * Every node listens on the channel with a dedicated database connection and fires a [CacheInvalidation] CDI event
+ * for each invalidation that was published by another node. Invalidations published from within a transaction
+ * are only delivered once that transaction commits, so other nodes never reload an entry before the change is visible.
+ * When the listening connection is lost, invalidations may have been missed, so all caches are cleared on reconnect.
+ */
+@ApplicationScoped
+@AllOpen
+@NoArgConstructor
+class CacheInvalidationBus @Inject constructor(
+    private val entityManager: EntityManager,
+    private val cacheInvalidationEvent: Event<CacheInvalidation>,
+    private val dedicatedConnectionFactory: DedicatedConnectionFactory
+) {
+    companion object {
+        const val CHANNEL = "zac_cache_invalidation"
+
+        private val LOG = Logger.getLogger(CacheInvalidationBus::class.java.name)
+        private const val SEPARATOR = "|"
+
+        // pg_notify returns void, which cannot be mapped to a result, so count the notifications instead
+        private const val NOTIFY_SQL = "SELECT count(*) FROM (SELECT pg_notify(:channel, :payload)) AS notification"
+    }
+
+    @Resource
+    lateinit var managedExecutorService: ManagedExecutorService
+
+    /**
+     * Identifies this node, so that it ignores the invalidations that it published itself.
+     */
+    private val nodeId = UUID.randomUUID().toString()
+
+    private var listener: NotificationChannelListener? = null
+
+    fun onStartup(@Observes @Initialized(ApplicationScoped::class) @Suppress("UNUSED_PARAMETER") event: Any) {
+        listener = NotificationChannelListener(
+            connect = { dedicatedConnectionFactory.connect("zac-$CHANNEL") },
+            channel = CHANNEL,
+            onReconnect = {
+                LOG.info("Reconnected to channel '$CHANNEL'. Clearing all caches, as invalidations may have been missed")
+                cacheInvalidationEvent.fire(CacheInvalidation.CLEAR_ALL)
+            },
+            onNotification = ::onNotification
+        ).also { managedExecutorService.submit(it.asLongRunningTask()) }
+        LOG.info("Listening for cache invalidations on channel '$CHANNEL' as node $nodeId")
+    }
+
+    @PreDestroy
+    fun stopListening() {
+        listener?.stop()
+    }
+
+    /**
+     * Publishes the invalidation to the other nodes. The caller is responsible for evicting its own local cache.
+     */
+    @Transactional(REQUIRED)
+    fun publish(cacheInvalidation: CacheInvalidation) {
+        entityManager.createNativeQuery(NOTIFY_SQL)
+            .setParameter("channel", CHANNEL)
+            .setParameter("payload", cacheInvalidation.toPayload())
+            .singleResult
+    }
+
+    /**
+     * Handles a notification received on the invalidation channel.
+     */
+    fun onNotification(payload: String) {
+        val parts = payload.split(SEPARATOR, limit = 3)
+        if (parts.size < 2) {
+            LOG.warning("Ignoring malformed cache invalidation '$payload'")
+            return
+        }
+        if (parts[0] != nodeId) {
+            CacheInvalidation(cacheName = parts[1], key = parts.getOrNull(2)).let {
+                LOG.fine { "Received cache invalidation $it" }
+                cacheInvalidationEvent.fire(it)
+            }
+        }
+    }
+
+    private fun CacheInvalidation.toPayload() =
+        listOfNotNull(nodeId, cacheName, key).joinToString(SEPARATOR)
+}
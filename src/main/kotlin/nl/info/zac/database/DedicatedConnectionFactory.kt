@@ -0,0 +1,50 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.database
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import org.eclipse.microprofile.config.inject.ConfigProperty
+import org.postgresql.Driver
+import java.sql.Connection
+import java.sql.SQLException
+import java.util.Properties
+
+/**
+ * Opens connections to the ZAC database outside of the connection pool of the data source, for connections that are
+ * held for as long as ZAC runs (like the connections listening on a LISTEN/NOTIFY channel), so that these do not take
+ * connections away from the pool. Uses the same database settings as the data source.
+ */
+@ApplicationScoped
+@AllOpen
+@NoArgConstructor
+class DedicatedConnectionFactory @Inject constructor(
+    @ConfigProperty(name = "DB_HOST", defaultValue = "localhost")
+    private val dbHost: String,
+
+    @ConfigProperty(name = "DB_NAME")
+    private val dbName: String,
+
+    @ConfigProperty(name = "DB_USER")
+    private val dbUser: String,
+
+    @ConfigProperty(name = "DB_PASSWORD")
+    private val dbPassword: String
+) {
+    /**
+     * Opens a new connection, which the caller has to close.
+     */
+    fun connect(applicationName: String): Connection =
+        Driver().connect(
+            "jdbc:postgresql://$dbHost/$dbName",
+            Properties().apply {
+                setProperty("user", dbUser)
+                setProperty("password", dbPassword)
+                setProperty("ApplicationName", applicationName)
+            }
+        ) ?: throw SQLException("Cannot connect to database '$dbName' on '$dbHost'")
+}
@@ -0,0 +1,110 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.database
+
+import jakarta.enterprise.concurrent.ManagedExecutors
+import jakarta.enterprise.concurrent.ManagedTask
+import org.postgresql.PGConnection
+import java.sql.Connection
+import java.sql.SQLException
+import java.util.logging.Level
+import java.util.logging.Logger
+
+/**
+ * Listens on a PostgreSQL LISTEN/NOTIFY channel with a dedicated connection, opened with [connect] outside of any
+ * connection pool, until it is stopped. Should be run as a long-running task on a thread of its own.
+ *
+ * When the listening connection is lost or cannot be opened, it reconnects after [reconnectDelayMillis] and calls
+ * [onReconnect], as notifications may have been missed.
+ */
+class NotificationChannelListener(
+    private val connect: () -> Connection,
+    private val channel: String,
+    private val onReconnect: () -> Unit,
+    private val onNotification: (String) -> Unit,
+    private val reconnectDelayMillis: Long = RECONNECT_DELAY_MILLIS
+) : Runnable {
+    companion object {
+        private val LOG = Logger.getLogger(NotificationChannelListener::class.java.name)
+        private const val POLL_TIMEOUT_MILLIS = 5_000
+        private const val RECONNECT_DELAY_MILLIS = 10_000L
+    }
+
+    @Volatile
+    private var listening = true
+
+    fun stop() {
+        listening = false
+    }
+
+    /**
+     * Wraps the listener in a task that is marked as long-running, so that the container does not treat the thread
+     * that it runs on as hung.
+     */
+    fun asLongRunningTask(): Runnable =
+        ManagedExecutors.managedTask(this, mapOf(ManagedTask.LONGRUNNING_HINT to true.toString()), null)
+
+    /**
+     * Listens until stopped. Any failure other than being interrupted leads to a reconnect, so that the listener
+     * does not stop silently.
+     */
+    @Suppress("TooGenericExceptionCaught")
+    override fun run() {
+        var reconnecting = false
+        while (listening) {
+            try {
+                connect().use { connection ->
+                    if (reconnecting) {
+                        onReconnect()
+                    }
+                    reconnecting = true
+                    receiveNotifications(connection)
+                }
+            } catch (exception: SQLException) {
+                if (!waitBeforeReconnecting(exception)) return
+            } catch (exception: RuntimeException) {
+                if (!waitBeforeReconnecting(exception)) return
+            }
+        }
+    }
+
+    /**
+     * @return `false` if the listener was interrupted while waiting
+     */
+    private fun waitBeforeReconnecting(exception: Exception): Boolean {
+        if (!listening) {
+            return true
+        }
+        LOG.log(
+            Level.WARNING,
+            "Lost connection to channel '$channel'. Reconnecting in $reconnectDelayMillis ms",
+            exception
+        )
+        try {
+            Thread.sleep(reconnectDelayMillis)
+        } catch (interruptedException: InterruptedException) {
+            LOG.log(Level.FINE, "Stopped listening on channel '$channel'", interruptedException)
+            Thread.currentThread().interrupt()
+            return false
+        }
+        return true
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun receiveNotifications(connection: Connection) {
+        // the connection is not pooled, so closing it ends the LISTEN as well
+        connection.createStatement().use { it.execute("LISTEN $channel") }
+        val pgConnection = connection.unwrap(PGConnection::class.java)
+        while (listening) {
+            pgConnection.getNotifications(POLL_TIMEOUT_MILLIS)?.forEach {
+                try {
+                    onNotification(it.parameter)
+                } catch (exception: RuntimeException) {
+                    LOG.log(Level.WARNING, "Failed to handle notification '${it.parameter}' on channel '$channel'", exception)
+                }
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ package nl.info.zac.flowable.bpmn
 import jakarta.enterprise.context.ApplicationScoped
 import jakarta.inject.Inject
 import jakarta.transaction.Transactional
+import net.atos.zac.flowable.ZaakFlowableInstanceResolver
 import net.atos.zac.flowable.ZaakVariabelenService
 import nl.info.client.zgw.util.extractUuid
 import nl.info.client.zgw.zrc.model.generated.Zaak
@@ -39,14 +40,15 @@ import javax.imageio.ImageIO
 @Transactional
 @NoArgConstructor
 @AllOpen
-@Suppress("TooManyFunctions")
+@Suppress("TooManyFunctions", "LongParameterList")
 class BpmnService @Inject constructor(
     private val repositoryService: RepositoryService,
     private val runtimeService: RuntimeService,
     private val historyService: HistoryService,
     private val processEngine: ProcessEngine,
     private val zaaktypeBpmnConfigurationBeheerService: ZaaktypeBpmnConfigurationBeheerService,
-    private val bpmnProcessDefinitionTaskFormService: BpmnProcessDefinitionTaskFormService
+    private val bpmnProcessDefinitionTaskFormService: BpmnProcessDefinitionTaskFormService,
+    private val zaakFlowableInstanceResolver: ZaakFlowableInstanceResolver
 ) {
     companion object {
         private val LOG = Logger.getLogger(BpmnService::class.java.getName())
@@ -245,7 +247,7 @@ class BpmnService @Inject constructor(
     fun terminateCase(zaakUUID: UUID) =
         findProcessInstance(zaakUUID)?.let {
             runtimeService.deleteProcessInstance(it.id, null)
-        }
+        }.also { zaakFlowableInstanceResolver.invalidate(zaakUUID) }
 
     /**
      * Returns a list of unique BPMN process definition keys used in process instances
@@ -35,7 +35,7 @@ class PabcReadinessHealthCheck @Inject constructor(
     @WithSpan(value = "GET PabcReadinessHealthCheck")
     override fun call(): HealthCheckResponse =
         try {
-            pabcClientService.getApplicationRoles(listOf(FAKE_FUNCTIONAL_ROLE))
+            pabcClientService.getApplicationRolesUncached(listOf(FAKE_FUNCTIONAL_ROLE))
             HealthCheckResponse.up(PabcReadinessHealthCheck::class.java.name)
         } catch (@Suppress("TooGenericExceptionCaught") exception: Throwable) {
             HealthCheckResponse
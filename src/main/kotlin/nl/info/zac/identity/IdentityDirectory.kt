@@ -0,0 +1,194 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.identity
+
+import io.opentelemetry.api.metrics.LongHistogram
+import io.opentelemetry.api.metrics.Meter
+import jakarta.annotation.Resource
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.context.Initialized
+import jakarta.enterprise.event.Observes
+import jakarta.inject.Inject
+import jakarta.inject.Named
+import nl.info.zac.identity.model.Group
+import nl.info.zac.identity.model.User
+import nl.info.zac.identity.model.toGroup
+import nl.info.zac.identity.model.toUser
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import org.eclipse.microprofile.config.inject.ConfigProperty
+import org.keycloak.admin.client.resource.RealmResource
+import org.keycloak.representations.idm.UserRepresentation
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.ReentrantLock
+import java.util.logging.Level
+import java.util.logging.Logger
+
+/**
+ * In-memory snapshot of the users, groups and group memberships in the Keycloak ZAC realm.
+ *
+ * The snapshot is refreshed periodically in the background, by one refresh at a time, so that looking up users and
+ * groups does not require calls to the Keycloak admin API. A snapshot that could not be refreshed for longer than
+ * its time to live is no longer used. The lookup methods return `null` when there is no valid snapshot or when the
+ * snapshot does not contain the requested user or group, in which case the caller should ask Keycloak itself.
+ * Changes in Keycloak become visible in the snapshot after at most the refresh interval.
+ */
+@ApplicationScoped
+@AllOpen
+@NoArgConstructor
+class IdentityDirectory @Inject constructor(
+    @Named("keycloakZacRealmResource")
+    private val keycloakZacRealmResource: RealmResource,
+
+    private val meter: Meter,
+
+    @ConfigProperty(name = "IDENTITY_CACHE_REFRESH_INTERVAL_SECONDS", defaultValue = "60")
+    private val refreshIntervalSeconds: Long,
+
+    @ConfigProperty(name = "IDENTITY_CACHE_TTL_SECONDS", defaultValue = "600")
+    private val timeToLiveSeconds: Long
+) {
+    companion object {
+        private val LOG = Logger.getLogger(IdentityDirectory::class.java.name)
+        private const val PAGE_SIZE = 500
+    }
+
+    private class Snapshot(
+        val usersById: Map<String, User>,
+        val groupsByName: Map<String, Group>,
+        val userIdsByGroupName: Map<String, Set<String>>,
+        val groupNamesByUserId: Map<String, Set<String>>,
+        val loadedAt: Instant
+    )
+
+    @Resource
+    lateinit var managedScheduledExecutorService: ManagedScheduledExecutorService
+
+    @Volatile
+    private var snapshot: Snapshot? = null
+
+    private val refreshLock = ReentrantLock()
+    private val hits = AtomicLong()
+    private val misses = AtomicLong()
+
+    private val refreshDuration: LongHistogram by lazy {
+        meter.histogramBuilder("zac.identity.directory.refresh.duration")
+            .setDescription("Time it takes to load the users, groups and group memberships from Keycloak")
+            .setUnit("ms")
+            .ofLongs()
+            .build()
+    }
+
+    fun onStartup(@Observes @Initialized(ApplicationScoped::class) @Suppress("UNUSED_PARAMETER") event: Any) {
+        registerMetrics()
+        managedScheduledExecutorService.scheduleWithFixedDelay(
+            ::refreshLoggingExceptions,
+            0,
+            refreshIntervalSeconds,
+            TimeUnit.SECONDS
+        )
+        LOG.info("Identity directory started with a refresh interval of $refreshIntervalSeconds seconds")
+    }
+
+    /**
+     * Loads a new snapshot from Keycloak, unless another refresh is already loading one.
+     *
+     * @return whether a new snapshot was loaded
+     */
+    fun refresh(): Boolean {
+        if (!refreshLock.tryLock()) {
+            return false
+        }
+        try {
+            val start = System.nanoTime()
+            snapshot = loadSnapshot()
+            refreshDuration.record(Duration.ofNanos(System.nanoTime() - start).toMillis())
+            return true
+        } finally {
+            refreshLock.unlock()
+        }
+    }
+
+    fun findUser(userId: String): User? = lookup { it.usersById[userId] }
+
+    fun findGroup(groupId: String): Group? = lookup { it.groupsByName[groupId] }
+
+    fun findUsersInGroup(groupId: String): List<User>? = lookup { snapshot ->
+        snapshot.userIdsByGroupName[groupId]?.map { snapshot.usersById.getValue(it) }
+    }
+
+    fun findGroupNamesForUser(userId: String): Set<String>? = lookup { it.groupNamesByUserId[userId] }
+
+    private fun <T> lookup(find: (Snapshot) -> T?): T? =
+        validSnapshot()?.let(find)
+            .also { if (it != null) hits.incrementAndGet() else misses.incrementAndGet() }
+
+    private fun validSnapshot() = snapshot?.takeIf {
+        it.loadedAt.plusSeconds(timeToLiveSeconds).isAfter(Instant.now())
+    }
+
+    private fun loadSnapshot(): Snapshot {
+        val users = readPaged { first, max -> keycloakZacRealmResource.users().list(first, max) }
+        val groupRepresentations = keycloakZacRealmResource.groups()
+            // retrieve groups with 'full representation' or else the group attributes will not be filled
+            .groups("", 0, Integer.MAX_VALUE, false)
+        val usersById = users.associate { it.username to it.toUser() }
+        val userIdsByGroupName = groupRepresentations.associate { groupRepresentation ->
+            groupRepresentation.name to readPaged { first, max ->
+                keycloakZacRealmResource.groups().group(groupRepresentation.id).members(first, max)
+            }
+                .map { it.username }
+                // only keep the memberships of users that are known in the snapshot
+                .filter { it in usersById }
+                .toSet()
+        }
+        val groupNamesByUserId = userIdsByGroupName
+            .flatMap { (groupName, userIds) -> userIds.map { it to groupName } }
+            .groupBy({ it.first }, { it.second })
+        return Snapshot(
+            usersById = usersById,
+            groupsByName = groupRepresentations.associate { it.name to it.toGroup() },
+            userIdsByGroupName = userIdsByGroupName,
+            groupNamesByUserId = usersById.keys.associateWith { groupNamesByUserId[it].orEmpty().toSet() },
+            loadedAt = Instant.now()
+        ).also {
+            LOG.fine { "Loaded ${it.usersById.size} users and ${it.groupsByName.size} groups from Keycloak" }
+        }
+    }
+
+    private fun readPaged(readPage: (Int, Int) -> List<UserRepresentation>): List<UserRepresentation> {
+        val representations = mutableListOf<UserRepresentation>()
+        do {
+            val page = readPage(representations.size, PAGE_SIZE)
+            representations.addAll(page)
+        } while (page.size == PAGE_SIZE)
+        return representations
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun refreshLoggingExceptions() {
+        try {
+            refresh()
+        } catch (exception: Exception) {
+            // never let an exception escape, because that would cancel the scheduled refresh
+            LOG.log(Level.WARNING, "Failed to refresh the identity directory", exception)
+        }
+    }
+
+    private fun registerMetrics() {
+        meter.gaugeBuilder("zac.identity.directory.hit.ratio")
+            .setDescription("Fraction of user and group lookups that were answered by the identity directory")
+            .buildWithCallback {
+                val lookups = hits.get() + misses.get()
+                if (lookups > 0) {
+                    it.record(hits.get().toDouble() / lookups)
+                }
+            }
+    }
+}
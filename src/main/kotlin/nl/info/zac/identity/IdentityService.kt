@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.identity
@@ -29,7 +29,9 @@ class IdentityService @Inject constructor(
     @Named("keycloakZacRealmResource")
     private val keycloakZacRealmResource: RealmResource,
 
-    private val pabcClientService: PabcClientService
+    private val pabcClientService: PabcClientService,
+
+    private val identityDirectory: IdentityDirectory
 ) {
     fun listUsers(): List<User> = keycloakZacRealmResource.users()
         .list()
@@ -74,20 +76,25 @@ class IdentityService @Inject constructor(
             .sortedBy { it.description }
     }
 
-    fun readUser(userId: String): User = keycloakZacRealmResource.users()
-        .searchByUsername(userId, true)
-        .map { it.toUser() }.firstOrNull()
+    fun readUser(userId: String): User = identityDirectory.findUser(userId)
+        ?: keycloakZacRealmResource.users()
+            .searchByUsername(userId, true)
+            .map { it.toUser() }.firstOrNull()
         // is this fallback really needed? better to return null or throw a custom exception
         ?: User(userId)
 
-    fun readGroup(groupId: String): Group = keycloakZacRealmResource.groups()
-        // retrieve groups with 'full representation' or else the group attributes will not be filled
-        .groups(groupId, true, 0, 1, false)
-        .firstOrNull()?.toGroup()
+    fun readGroup(groupId: String): Group = identityDirectory.findGroup(groupId)
+        ?: keycloakZacRealmResource.groups()
+            // retrieve groups with 'full representation' or else the group attributes will not be filled
+            .groups(groupId, true, 0, 1, false)
+            .firstOrNull()?.toGroup()
         // is this fallback really needed? better to return null or throw a custom exception
         ?: Group(groupId)
 
     fun listUsersInGroup(groupId: String): List<User> {
+        identityDirectory.findUsersInGroup(groupId)?.let { users ->
+            return users.sortedBy { it.getFullName() }
+        }
         val keycloakGroupId = keycloakZacRealmResource.groups()
             .groups(groupId, true, 0, 1, true)
             .firstOrNull()?.id
@@ -99,7 +106,22 @@ class IdentityService @Inject constructor(
             .sortedBy { it.getFullName() }
     }
 
-    fun listGroupNamesForUser(userId: String): List<String> {
+    fun listGroupNamesForUser(userId: String): List<String> =
+        identityDirectory.findGroupNamesForUser(userId)?.toList() ?: readGroupNamesForUser(userId)
+
+    /**
+     * Checks the group membership with Keycloak itself, because it is used for authorisation and a membership in the
+     * [IdentityDirectory] may have been removed after its last refresh.
+     */
+    fun isUserInGroup(userId: String, groupId: String) = readGroupNamesForUser(userId).contains(groupId)
+
+    fun validateIfUserIsInGroup(userId: String, groupId: String) {
+        if (!isUserInGroup(userId, groupId)) {
+            throw UserNotInGroupException()
+        }
+    }
+
+    private fun readGroupNamesForUser(userId: String): List<String> {
         val keycloakUserId = keycloakZacRealmResource.users()
             .searchByUsername(userId, true).firstOrNull()?.id
             ?: throw UserNotFoundException()
@@ -108,13 +130,4 @@ class IdentityService @Inject constructor(
             .groups()
             .map { it.name }
     }
-
-    fun isUserInGroup(userId: String, groupId: String) =
-        listGroupNamesForUser(userId).contains(groupId)
-
-    fun validateIfUserIsInGroup(userId: String, groupId: String) {
-        if (!isUserInGroup(userId, groupId)) {
-            throw UserNotInGroupException()
-        }
-    }
 }
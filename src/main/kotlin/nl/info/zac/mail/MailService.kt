@@ -15,14 +15,12 @@ import com.itextpdf.kernel.pdf.PdfWriter
 import com.itextpdf.layout.Document
 import com.itextpdf.layout.element.IBlockElement
 import com.itextpdf.layout.element.Paragraph
-import jakarta.annotation.PostConstruct
 import jakarta.annotation.Resource
 import jakarta.enterprise.context.ApplicationScoped
 import jakarta.enterprise.inject.Instance
 import jakarta.inject.Inject
 import jakarta.mail.MessagingException
 import jakarta.mail.Session
-import jakarta.mail.Transport
 import net.atos.zac.util.MediaTypes
 import nl.info.client.zgw.drc.DrcClientService
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObjectCreateLockRequest
@@ -38,6 +36,7 @@ import nl.info.zac.identity.model.getFullName
 import nl.info.zac.mail.model.Attachment
 import nl.info.zac.mail.model.Bronnen
 import nl.info.zac.mail.model.MailAdres
+import nl.info.zac.mail.outbox.MailOutboxService
 import nl.info.zac.mailtemplates.MailTemplateHelper
 import nl.info.zac.mailtemplates.model.MailGegevens
 import nl.info.zac.mailtemplates.model.MailTemplateVariables
@@ -45,14 +44,12 @@ import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
 import nl.info.zac.util.toBase64String
 import org.apache.commons.lang3.StringUtils
-import org.eclipse.microprofile.config.inject.ConfigProperty
 import org.htmlcleaner.HtmlCleaner
 import org.htmlcleaner.PrettyXmlSerializer
 import java.io.ByteArrayOutputStream
 import java.io.IOException
 import java.time.LocalDate
 import java.util.Base64
-import java.util.Optional
 import java.util.logging.Level
 import java.util.logging.Logger
 import kotlin.ByteArray
@@ -73,9 +70,7 @@ class MailService @Inject constructor(
     private var drcClientService: DrcClientService,
     private var mailTemplateHelper: MailTemplateHelper,
     private var loggedInUserInstance: Instance<LoggedInUser>,
-
-    @ConfigProperty(name = "SMTP_USERNAME")
-    private val smtpUsername: Optional<String> = Optional.empty()
+    private var mailOutboxService: MailOutboxService
 ) {
     companion object {
         private val LOG = Logger.getLogger(MailService::class.java.name)
@@ -92,9 +87,6 @@ class MailService @Inject constructor(
         private const val MAIL_BIJLAGE = "Bijlage"
         private const val MAIL_ONDERWERP = "Onderwerp"
         private const val MAIL_BERICHT = "Bericht"
-
-        // https://javaee.github.io/javamail/docs/api/com/sun/mail/smtp/package-summary.html
-        private const val JAVAMAIL_SMTP_AUTH_KEY = "mail.smtp.auth"
     }
 
     fun getGemeenteMailAdres() =
@@ -126,8 +118,8 @@ class MailService @Inject constructor(
             attachments = attachments
         ).build(mailSession)
         try {
-            Transport.send(message)
-            LOG.fine("Sent mail to ${mailGegevens.to} with subject '$subject'.")
+            mailOutboxService.enqueue(message)
+            LOG.fine("Queued mail to ${mailGegevens.to} with subject '$subject'.")
             if (mailGegevens.isCreateDocumentFromMail && bronnen.zaak != null) {
                 createZaakDocumentFromMail(
                     mailGegevens.from.email,
@@ -139,29 +131,13 @@ class MailService @Inject constructor(
                 )
             }
         } catch (messagingException: MessagingException) {
-            LOG.log(Level.SEVERE, "Failed to send mail with subject '$subject'.", messagingException)
+            LOG.log(Level.SEVERE, "Failed to queue mail with subject '$subject'.", messagingException)
             return null
         }
 
         return body
     }
 
-    @PostConstruct
-    @Suppress("UnusedPrivateMember")
-    private fun initPasswordAuthentication() {
-        // If there's no SMTP_USERNAME environment variable set, we consider this as a case, where SMTP server
-        // has no authentication. In this case we disable SMTP authentication in the mail session to prevent sending
-        // the default fake credentials configured in src/main/resources/wildfly/configure-wildfly.cli
-        //
-        // Without the fake credentials, the SMTP mail session is not properly configured, and:
-        //    - Weld fails to instantiate the mail session and satisfy the @Resource dependency above
-        //    - mail Transport below throws AuthenticationFailedException because of insufficient configuration
-        if (!smtpUsername.isPresent) {
-            mailSession.properties.setProperty(JAVAMAIL_SMTP_AUTH_KEY, "false")
-            LOG.warning { "SMTP authentication disabled" }
-        }
-    }
-
     @Suppress("LongParameterList")
     private fun createZaakDocumentFromMail(
         verzender: String,
@@ -0,0 +1,112 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.mail.outbox
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import jakarta.transaction.Transactional.TxType.REQUIRED
+import jakarta.transaction.Transactional.TxType.SUPPORTS
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.mail.outbox.model.MailOutboxItem
+import nl.info.zac.mail.outbox.model.MailOutboxItem.Companion.FAILED_PROPERTY_NAME
+import nl.info.zac.mail.outbox.model.MailOutboxItem.Companion.ID_PROPERTY_NAME
+import nl.info.zac.mail.outbox.model.MailOutboxItem.Companion.LAST_ERROR_PROPERTY_NAME
+import nl.info.zac.mail.outbox.model.MailOutboxItem.Companion.NEXT_ATTEMPT_AT_PROPERTY_NAME
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.time.ZonedDateTime
+
+@ApplicationScoped
+@Transactional(SUPPORTS)
+@NoArgConstructor
+@AllOpen
+class MailOutboxRepository @Inject constructor(
+    private val entityManager: EntityManager
+) {
+    companion object {
+        // Claims the mails that are due the longest and are not being delivered by another sender (or whose claim has
+        // expired), and counts the attempt. SKIP LOCKED lets multiple nodes deliver mails concurrently.
+        private val CLAIM_SQL = """
+            UPDATE $SCHEMA.mail_outbox_item
+            SET next_attempt_at = now() + :leaseMillis * INTERVAL '1 millisecond', attempts = attempts + 1
+            WHERE id_mail_outbox_item IN (
+                SELECT id_mail_outbox_item FROM $SCHEMA.mail_outbox_item
+                WHERE NOT failed AND next_attempt_at <= now()
+                ORDER BY next_attempt_at
+                LIMIT :maxItems
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING *
+        """.trimIndent()
+    }
+
+    /**
+     * Adds a mail to the outbox in the current transaction, so that it is only delivered when that transaction
+     * commits.
+     */
+    @Transactional(REQUIRED)
+    fun enqueue(recipients: String, subject: String?, mimeMessage: ByteArray) {
+        val now = ZonedDateTime.now()
+        entityManager.persist(
+            MailOutboxItem().apply {
+                this.recipients = recipients
+                this.subject = subject
+                this.mimeMessage = mimeMessage
+                enqueuedAt = now
+                nextAttemptAt = now
+            }
+        )
+    }
+
+    @Transactional(REQUIRED)
+    @Suppress("UNCHECKED_CAST")
+    fun claim(maxItems: Int, leaseMillis: Long): List<MailOutboxItem> =
+        entityManager.createNativeQuery(CLAIM_SQL, MailOutboxItem::class.java)
+            .setParameter("leaseMillis", leaseMillis)
+            .setParameter("maxItems", maxItems)
+            .resultList as List<MailOutboxItem>
+
+    /**
+     * Removes the given delivered mails from the outbox.
+     */
+    @Transactional(REQUIRED)
+    fun complete(ids: Collection<Long>) {
+        if (ids.isEmpty()) return
+        val builder = entityManager.criteriaBuilder
+        val delete = builder.createCriteriaDelete(MailOutboxItem::class.java)
+        val root = delete.from(MailOutboxItem::class.java)
+        delete.where(root.get<Long>(ID_PROPERTY_NAME).`in`(ids))
+        entityManager.createQuery(delete).executeUpdate()
+    }
+
+    /**
+     * Records a failed delivery attempt of the given mail. The mail is retried by the first delivery run after
+     * [retryAt], or never again when [retryAt] is `null`.
+     */
+    @Transactional(REQUIRED)
+    fun release(id: Long, lastError: String?, retryAt: ZonedDateTime?) {
+        val builder = entityManager.criteriaBuilder
+        val update = builder.createCriteriaUpdate(MailOutboxItem::class.java)
+        val root = update.from(MailOutboxItem::class.java)
+        update.set(root.get<String>(LAST_ERROR_PROPERTY_NAME), lastError)
+            .set(root.get<Boolean>(FAILED_PROPERTY_NAME), retryAt == null)
+        retryAt?.let { update.set(root.get<ZonedDateTime>(NEXT_ATTEMPT_AT_PROPERTY_NAME), it) }
+        update.where(builder.equal(root.get<Long>(ID_PROPERTY_NAME), id))
+        entityManager.createQuery(update).executeUpdate()
+    }
+
+    /**
+     * Counts the mails that still need to be delivered.
+     */
+    fun countPending(): Long {
+        val builder = entityManager.criteriaBuilder
+        val query = builder.createQuery(Long::class.java)
+        val root = query.from(MailOutboxItem::class.java)
+        query.select(builder.count(root)).where(builder.isFalse(root.get(FAILED_PROPERTY_NAME)))
+        return entityManager.createQuery(query).singleResult ?: 0L
+    }
+}
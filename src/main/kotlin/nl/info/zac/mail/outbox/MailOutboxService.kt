@@ -0,0 +1,289 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.mail.outbox
+
+import io.opentelemetry.api.metrics.LongHistogram
+import io.opentelemetry.api.metrics.Meter
+import jakarta.annotation.PreDestroy
+import jakarta.annotation.Resource
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.context.Initialized
+import jakarta.enterprise.event.Observes
+import jakarta.inject.Inject
+import jakarta.mail.MessagingException
+import jakarta.mail.SendFailedException
+import jakarta.mail.Session
+import jakarta.mail.Transport
+import jakarta.mail.internet.MimeMessage
+import nl.info.zac.mail.outbox.model.MailOutboxItem
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import org.eclipse.microprofile.config.inject.ConfigProperty
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.time.Duration
+import java.time.ZonedDateTime
+import java.util.Optional
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.ReentrantLock
+import java.util.logging.Level
+import java.util.logging.Logger
+import kotlin.concurrent.withLock
+
+/**
+ * Durable outbox for the mails that ZAC sends.
+ *
+ * Mails are stored in the database in the transaction of the operation that sends them, so that a mail is only sent
+ * when that operation succeeds, and so that callers never wait for the SMTP relay. The outbox is drained periodically
+ * in batches over a single long-lived SMTP connection, which is reused until it has been idle for a while.
+ * Deliveries are rate limited, and failed deliveries are retried with an exponential backoff until the maximum number
+ * of attempts has been reached. A mail is delivered at least once: when a node crashes after delivering a mail but
+ * before removing it from the outbox, the mail is delivered again.
+ */
+@ApplicationScoped
+@NoArgConstructor
+@AllOpen
+@Suppress("LongParameterList", "TooManyFunctions")
+class MailOutboxService @Inject constructor(
+    private val mailOutboxRepository: MailOutboxRepository,
+    private val meter: Meter,
+
+    @ConfigProperty(name = "MAIL_OUTBOX_POLL_INTERVAL_MILLIS", defaultValue = "1000")
+    private val pollIntervalMillis: Long,
+
+    @ConfigProperty(name = "MAIL_OUTBOX_BATCH_SIZE", defaultValue = "50")
+    private val batchSize: Int,
+
+    @ConfigProperty(name = "MAIL_OUTBOX_MAX_ATTEMPTS", defaultValue = "10")
+    private val maxAttempts: Int,
+
+    @ConfigProperty(name = "MAIL_OUTBOX_MAX_MAILS_PER_SECOND", defaultValue = "10")
+    private val maxMailsPerSecond: Int,
+
+    @ConfigProperty(name = "SMTP_USERNAME")
+    private val smtpUsername: Optional<String> = Optional.empty()
+) {
+    companion object {
+        private val LOG = Logger.getLogger(MailOutboxService::class.java.name)
+
+        // Claimed mails whose claim has expired (e.g. because the node that claimed them went down)
+        // are picked up again by the next drain.
+        private val CLAIM_LEASE = Duration.ofMinutes(5)
+        private val RETRY_BASE_DELAY = Duration.ofSeconds(30)
+        private val RETRY_MAX_DELAY = Duration.ofHours(1)
+        private val TRANSPORT_IDLE_TIMEOUT = Duration.ofMinutes(1)
+
+        // https://javaee.github.io/javamail/docs/api/com/sun/mail/smtp/package-summary.html
+        private const val JAVAMAIL_SMTP_AUTH_KEY = "mail.smtp.auth"
+    }
+
+    @Resource(mappedName = "java:jboss/mail/zac")
+    lateinit var mailSession: Session
+
+    @Resource
+    lateinit var managedScheduledExecutorService: ManagedScheduledExecutorService
+
+    private val drainLock = ReentrantLock()
+    private val outboxDepth = AtomicLong()
+
+    // only used while holding the drain lock
+    private var transport: Transport? = null
+    private var transportLastUsedAt = 0L
+    private var nextDeliveryAt = 0L
+
+    private val deliveryLatency: LongHistogram by lazy {
+        meter.histogramBuilder("zac.mail.outbox.delivery.latency")
+            .setDescription("Time between enqueueing a mail in the outbox and delivering it to the SMTP relay")
+            .setUnit("ms")
+            .ofLongs()
+            .build()
+    }
+
+    fun onStartup(@Observes @Initialized(ApplicationScoped::class) @Suppress("UNUSED_PARAMETER") event: Any) {
+        initPasswordAuthentication()
+        registerMetrics()
+        managedScheduledExecutorService.scheduleWithFixedDelay(
+            ::drainLoggingExceptions,
+            pollIntervalMillis,
+            pollIntervalMillis,
+            TimeUnit.MILLISECONDS
+        )
+        LOG.info(
+            "Mail outbox started with a batch size of $batchSize, at most $maxMailsPerSecond mails per second " +
+                "and at most $maxAttempts delivery attempts"
+        )
+    }
+
+    @PreDestroy
+    fun onShutdown() = drainLock.withLock { closeTransport() }
+
+    /**
+     * Adds the given mail to the outbox in the current transaction (or in a new transaction when there is none).
+     */
+    fun enqueue(message: MimeMessage) {
+        val mimeMessage = ByteArrayOutputStream().use {
+            message.writeTo(it)
+            it.toByteArray()
+        }
+        mailOutboxRepository.enqueue(
+            recipients = message.allRecipients.orEmpty().joinToString(),
+            subject = message.subject,
+            mimeMessage = mimeMessage
+        )
+    }
+
+    /**
+     * Delivers all mails in the outbox that are due.
+     *
+     * @return the number of delivered mails
+     */
+    fun drain(): Int = drainLock.withLock {
+        var delivered = 0
+        do {
+            val items = mailOutboxRepository.claim(batchSize, CLAIM_LEASE.toMillis())
+            val deliveredIds = items.filter(::deliver).map { it.id }
+            mailOutboxRepository.complete(deliveredIds)
+            delivered += deliveredIds.size
+            // stop when nothing could be delivered, as the relay is probably unavailable
+        } while (items.size == batchSize && deliveredIds.isNotEmpty())
+        if (delivered == 0 && System.nanoTime() - transportLastUsedAt > TRANSPORT_IDLE_TIMEOUT.toNanos()) {
+            closeTransport()
+        }
+        outboxDepth.set(mailOutboxRepository.countPending())
+        delivered
+    }
+
+    /**
+     * A mail that the relay accepted for some of its recipients counts as delivered, as delivering it again would
+     * send it once more to every recipient that already received it.
+     *
+     * @return whether the mail was delivered
+     */
+    @Suppress("TooGenericExceptionCaught")
+    private fun deliver(item: MailOutboxItem): Boolean =
+        try {
+            val message = MimeMessage(mailSession, ByteArrayInputStream(item.mimeMessage))
+            throttle()
+            connectedTransport().sendMessage(message, message.allRecipients)
+            recordDelivery(item)
+            LOG.fine { "Delivered mail ${item.id} to ${item.recipients} with subject '${item.subject}'" }
+            true
+        } catch (exception: SendFailedException) {
+            if (exception.validSentAddresses.isNullOrEmpty()) {
+                fail(item, exception)
+            } else {
+                recordDelivery(item)
+                LOG.log(
+                    Level.WARNING,
+                    "Delivered mail ${item.id} with subject '${item.subject}' only to " +
+                        "${exception.validSentAddresses.joinToString()}. Not delivered to the invalid addresses " +
+                        "[${exception.invalidAddresses.orEmpty().joinToString()}] and the unsent addresses " +
+                        "[${exception.validUnsentAddresses.orEmpty().joinToString()}]. Not retrying.",
+                    exception
+                )
+                true
+            }
+        } catch (exception: Exception) {
+            fail(item, exception)
+        }
+
+    private fun recordDelivery(item: MailOutboxItem) {
+        transportLastUsedAt = System.nanoTime()
+        deliveryLatency.record(Duration.between(item.enqueuedAt, ZonedDateTime.now()).toMillis())
+    }
+
+    private fun fail(item: MailOutboxItem, exception: Exception): Boolean {
+        // the connection may be broken, so reconnect for the next mail
+        closeTransport()
+        release(item, exception)
+        return false
+    }
+
+    private fun release(item: MailOutboxItem, exception: Exception) {
+        // the relay rejected all recipients, so retrying will not help
+        val rejected = exception is SendFailedException && exception.validSentAddresses.isNullOrEmpty() &&
+            exception.validUnsentAddresses.isNullOrEmpty()
+        if (rejected || item.attempts >= maxAttempts) {
+            LOG.log(
+                Level.SEVERE,
+                "Failed to deliver mail ${item.id} to ${item.recipients} with subject '${item.subject}' " +
+                    "after ${item.attempts} attempt(s). Giving up.",
+                exception
+            )
+            mailOutboxRepository.release(item.id, exception.toString(), null)
+        } else {
+            val delay = RETRY_BASE_DELAY.multipliedBy(1L shl (item.attempts - 1).coerceIn(0, 20))
+                .coerceAtMost(RETRY_MAX_DELAY)
+            LOG.log(
+                Level.WARNING,
+                "Failed to deliver mail ${item.id} to ${item.recipients} (attempt ${item.attempts}). " +
+                    "Will retry in ${delay.toSeconds()} seconds.",
+                exception
+            )
+            mailOutboxRepository.release(item.id, exception.toString(), ZonedDateTime.now().plus(delay))
+        }
+    }
+
+    /**
+     * Waits until the next mail may be delivered to the relay, so that at most [maxMailsPerSecond] are delivered.
+     */
+    private fun throttle() {
+        val interval = TimeUnit.SECONDS.toNanos(1) / maxMailsPerSecond.coerceAtLeast(1)
+        val now = System.nanoTime()
+        if (nextDeliveryAt > now) {
+            TimeUnit.NANOSECONDS.sleep(nextDeliveryAt - now)
+        }
+        nextDeliveryAt = maxOf(now, nextDeliveryAt) + interval
+    }
+
+    private fun connectedTransport(): Transport {
+        transport?.takeIf { it.isConnected }?.let { return it }
+        closeTransport()
+        return mailSession.getTransport("smtp").apply { connect() }.also { transport = it }
+    }
+
+    private fun closeTransport() {
+        try {
+            transport?.close()
+        } catch (exception: MessagingException) {
+            LOG.log(Level.FINE, "Failed to close the SMTP connection", exception)
+        }
+        transport = null
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun drainLoggingExceptions() {
+        try {
+            drain()
+        } catch (exception: Exception) {
+            // never let an exception escape, because that would cancel the scheduled drain
+            LOG.log(Level.WARNING, "Failed to drain the mail outbox", exception)
+        }
+    }
+
+    private fun initPasswordAuthentication() {
+        // If there's no SMTP_USERNAME environment variable set, we consider this as a case, where SMTP server
+        // has no authentication. In this case we disable SMTP authentication in the mail session to prevent sending
+        // the default fake credentials configured in src/main/resources/wildfly/configure-wildfly.cli
+        //
+        // Without the fake credentials, the SMTP mail session is not properly configured, and:
+        //    - Weld fails to instantiate the mail session and satisfy the @Resource dependency above
+        //    - the mail transport throws AuthenticationFailedException because of insufficient configuration
+        if (!smtpUsername.isPresent) {
+            mailSession.properties.setProperty(JAVAMAIL_SMTP_AUTH_KEY, "false")
+            LOG.warning { "SMTP authentication disabled" }
+        }
+    }
+
+    private fun registerMetrics() {
+        meter.gaugeBuilder("zac.mail.outbox.depth")
+            .setDescription("Number of mails in the mail outbox that still need to be delivered")
+            .setUnit("{mail}")
+            .ofLongs()
+            .buildWithCallback { it.record(outboxDepth.get()) }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.mail.outbox.model
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.SequenceGenerator
+import jakarta.persistence.Table
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.time.ZonedDateTime
+
+/**
+ * A mail that still needs to be delivered to the SMTP relay, stored as the complete MIME message so that it can be
+ * delivered exactly as it was composed.
+ */
+@Entity
+@Table(schema = SCHEMA, name = "mail_outbox_item")
+@SequenceGenerator(
+    schema = SCHEMA,
+    name = "sq_mail_outbox_item",
+    sequenceName = "sq_mail_outbox_item",
+    allocationSize = 1
+)
+@AllOpen
+@NoArgConstructor
+class MailOutboxItem {
+    companion object {
+        const val ID_PROPERTY_NAME = "id"
+        const val NEXT_ATTEMPT_AT_PROPERTY_NAME = "nextAttemptAt"
+        const val LAST_ERROR_PROPERTY_NAME = "lastError"
+        const val FAILED_PROPERTY_NAME = "failed"
+    }
+
+    @Id
+    @GeneratedValue(generator = "sq_mail_outbox_item", strategy = GenerationType.SEQUENCE)
+    @Column(name = "id_mail_outbox_item")
+    var id: Long = 0
+
+    /**
+     * The recipients of the mail, for logging only.
+     */
+    @Column(name = "recipients", nullable = false)
+    lateinit var recipients: String
+
+    @Column(name = "subject")
+    var subject: String? = null
+
+    @Column(name = "mime_message", nullable = false)
+    lateinit var mimeMessage: ByteArray
+
+    @Column(name = "enqueued_at", nullable = false)
+    lateinit var enqueuedAt: ZonedDateTime
+
+    /**
+     * The mail is delivered by the first delivery run after this moment. While a sender is delivering the mail, it is
+     * moved into the future, so that a mail claimed by a node that crashed is delivered again.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    lateinit var nextAttemptAt: ZonedDateTime
+
+    @Column(name = "attempts", nullable = false)
+    var attempts: Int = 0
+
+    @Column(name = "last_error")
+    var lastError: String? = null
+
+    /**
+     * Set when the mail could not be delivered after the maximum number of attempts, or when the relay rejected all of
+     * its recipients. Failed mails are kept for inspection but are no longer delivered.
+     */
+    @Column(name = "failed", nullable = false)
+    var failed: Boolean = false
+}
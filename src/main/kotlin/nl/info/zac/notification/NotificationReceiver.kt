@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2021 Atos, 2025 INFO.nl
+ * SPDX-FileCopyrightText: 2021 Atos, 2025 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.notification
@@ -31,6 +31,7 @@ import nl.info.zac.authentication.setFunctioneelGebruiker
 import nl.info.zac.document.inboxdocument.InboxDocumentService
 import nl.info.zac.productaanvraag.ProductaanvraagService
 import nl.info.zac.search.IndexingService
+import nl.info.zac.search.queue.IndexingQueueService
 import nl.info.zac.signalering.SignaleringService
 import nl.info.zac.task.TaskService
 import nl.info.zac.util.AllOpen
@@ -55,6 +56,7 @@ class NotificationReceiver @Inject constructor(
     private val eventingService: EventingService,
     private val productaanvraagService: ProductaanvraagService,
     private val indexingService: IndexingService,
+    private val indexingQueueService: IndexingQueueService,
     private val inboxDocumentService: InboxDocumentService,
     private val zaaktypeConfigurationService: ZaaktypeConfigurationService,
     private val cmmnService: CMMNService,
@@ -219,11 +221,12 @@ class NotificationReceiver @Inject constructor(
                         Resource.ZAAK -> {
                             val zaakUUID = notification.resourceUrl.extractUuid()
                             when (notification.action) {
-                                Action.CREATE, Action.UPDATE -> indexingService.addOrUpdateZaak(
+                                Action.CREATE, Action.UPDATE -> indexingQueueService.enqueueZaak(
                                     zaakUUID,
                                     notification.action == Action.UPDATE
                                 )
                                 Action.DELETE -> {
+                                    indexingQueueService.dequeueZaak(zaakUUID)
                                     indexingService.removeZaak(zaakUUID)
                                     taskService.listTasksForZaak(zaakUUID).forEach {
                                         indexingService.removeTaak(it.id)
@@ -233,11 +236,11 @@ class NotificationReceiver @Inject constructor(
                             }
                         }
                         Resource.STATUS, Resource.RESULTAAT, Resource.ROL, Resource.ZAAKOBJECT -> {
-                            indexingService.addOrUpdateZaak(notification.mainResourceUrl.extractUuid(), false)
+                            indexingQueueService.enqueueZaak(notification.mainResourceUrl.extractUuid(), false)
                         }
                         Resource.ZAAKINFORMATIEOBJECT -> {
                             if (notification.action == Action.CREATE) {
-                                indexingService.addOrUpdateInformatieobjectByZaakinformatieobject(
+                                indexingQueueService.enqueueInformatieobjectByZaakinformatieobject(
                                     notification.resourceUrl.extractUuid()
                                 )
                             }
@@ -249,10 +252,13 @@ class NotificationReceiver @Inject constructor(
                     if (notification.resource == Resource.INFORMATIEOBJECT) {
                         val informatieobjectUUID = notification.resourceUrl.extractUuid()
                         when (notification.action) {
-                            Action.CREATE, Action.UPDATE -> indexingService.addOrUpdateInformatieobject(
+                            Action.CREATE, Action.UPDATE -> indexingQueueService.enqueueInformatieobject(
                                 informatieobjectUUID
                             )
-                            Action.DELETE -> indexingService.removeInformatieobject(informatieobjectUUID)
+                            Action.DELETE -> {
+                                indexingQueueService.dequeueInformatieobject(informatieobjectUUID)
+                                indexingService.removeInformatieobject(informatieobjectUUID)
+                            }
                             else -> {}
                         }
                     }
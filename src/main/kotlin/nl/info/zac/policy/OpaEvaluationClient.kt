@@ -11,17 +11,21 @@ import jakarta.ws.rs.core.MediaType
 import nl.info.client.opa.model.RuleQuery
 import nl.info.client.opa.model.RuleResponse
 import nl.info.zac.policy.input.BrpInput
+import nl.info.zac.policy.input.BulkInput
 import nl.info.zac.policy.input.DocumentInput
 import nl.info.zac.policy.input.TaakInput
 import nl.info.zac.policy.input.UserInput
 import nl.info.zac.policy.input.ZaakInput
 import nl.info.zac.policy.output.BrpRechten
 import nl.info.zac.policy.output.DocumentRechten
+import nl.info.zac.policy.output.DocumentRechtenBulk
 import nl.info.zac.policy.output.NotitieRechten
 import nl.info.zac.policy.output.OverigeRechten
 import nl.info.zac.policy.output.TaakRechten
+import nl.info.zac.policy.output.TaakRechtenBulk
 import nl.info.zac.policy.output.WerklijstRechten
 import nl.info.zac.policy.output.ZaakRechten
+import nl.info.zac.policy.output.ZaakRechtenBulk
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient
 
 @RegisterRestClient(configKey = "OPA-Api-Client")
@@ -32,14 +36,26 @@ interface OpaEvaluationClient {
     @Path("zaak/zaak_rechten")
     fun readZaakRechten(query: RuleQuery<ZaakInput>): RuleResponse<ZaakRechten>
 
+    @POST
+    @Path("zaak/zaak_rechten_bulk")
+    fun readZaakRechtenBulk(query: RuleQuery<BulkInput<ZaakInput>>): RuleResponse<ZaakRechtenBulk>
+
     @POST
     @Path("taak/taak_rechten")
     fun readTaakRechten(query: RuleQuery<TaakInput>): RuleResponse<TaakRechten>
 
+    @POST
+    @Path("taak/taak_rechten_bulk")
+    fun readTaakRechtenBulk(query: RuleQuery<BulkInput<TaakInput>>): RuleResponse<TaakRechtenBulk>
+
     @POST
     @Path("document/document_rechten")
     fun readDocumentRechten(query: RuleQuery<DocumentInput>): RuleResponse<DocumentRechten>
 
+    @POST
+    @Path("document/document_rechten_bulk")
+    fun readDocumentRechtenBulk(query: RuleQuery<BulkInput<DocumentInput>>): RuleResponse<DocumentRechtenBulk>
+
     @POST
     @Path("notitie/notitie_rechten")
     fun readNotitieRechten(query: RuleQuery<UserInput>): RuleResponse<NotitieRechten>
@@ -0,0 +1,78 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.policy
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.github.benmanes.caffeine.cache.stats.CacheStats
+import jakarta.enterprise.context.ApplicationScoped
+import net.atos.client.zgw.shared.cache.Caching
+import nl.info.zac.policy.input.UserData
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.util.concurrent.TimeUnit
+import java.util.logging.Logger
+
+/**
+ * Caches the decisions of the OPA policies for a short time.
+ *
+ * A decision only depends on the input that is sent to OPA, so the cache key consists of the policy rule,
+ * the user data (which contains the user's roles per zaaktype as mapped by PABC) and the rule specific data.
+ * When the role mappings of a user change, the user data changes as well and the cached decisions are no longer used.
+ */
+@ApplicationScoped
+@AllOpen
+@NoArgConstructor
+class PolicyDecisionCache : Caching {
+    companion object {
+        const val ZAC_POLICY_DECISIONS = "zac-policy-decisions"
+
+        private val LOG = Logger.getLogger(PolicyDecisionCache::class.java.name)
+        private const val MAX_CACHE_SIZE = 10_000L
+        private const val EXPIRATION_TIME_SECONDS = 30L
+    }
+
+    data class Key(
+        val rule: String,
+        val user: UserData,
+        val data: Any? = null
+    )
+
+    private val cache: Cache<Key, Any> = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHE_SIZE)
+        .expireAfterWrite(EXPIRATION_TIME_SECONDS, TimeUnit.SECONDS)
+        .recordStats()
+        .removalListener<Key, Any> { key, _, cause ->
+            LOG.finest { "Removing key: $key in cache $ZAC_POLICY_DECISIONS because of: $cause" }
+        }
+        .build()
+
+    @Suppress("UNCHECKED_CAST")
+    fun <R : Any> get(key: Key, evaluate: () -> R): R = cache.get(key) { evaluate() } as R
+
+    /**
+     * Returns the decisions for all given keys, in the same order.
+     * The decisions that are not cached yet are evaluated together, with a single call of [evaluate].
+     */
+    @Suppress("UNCHECKED_CAST")
+    fun <R : Any> getAll(keys: List<Key>, evaluate: (List<Key>) -> List<R>): List<R> {
+        if (keys.isEmpty()) {
+            return emptyList()
+        }
+        val decisions = cache.getAll(keys) { missingKeys ->
+            missingKeys.toList().let { it.zip(evaluate(it)).toMap() }
+        }
+        return keys.map { decisions.getValue(it) as R }
+    }
+
+    fun clear(): String {
+        cache.invalidateAll()
+        return cleared(ZAC_POLICY_DECISIONS)
+    }
+
+    override fun cacheStatistics(): Map<String, CacheStats> = mapOf(ZAC_POLICY_DECISIONS to cache.stats())
+
+    override fun estimatedCacheSizes(): Map<String, Long> = mapOf(ZAC_POLICY_DECISIONS to cache.estimatedSize())
+}
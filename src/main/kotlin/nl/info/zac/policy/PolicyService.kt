@@ -9,7 +9,9 @@ import jakarta.enterprise.inject.Instance
 import jakarta.inject.Inject
 import net.atos.zac.flowable.task.TaakVariabelenService
 import net.atos.zac.flowable.util.TaskUtil
+import nl.info.client.opa.model.OpaRuleResult
 import nl.info.client.opa.model.RuleQuery
+import nl.info.client.opa.model.RuleResponse
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObject
 import nl.info.client.zgw.drc.model.generated.StatusEnum
 import nl.info.client.zgw.util.extractUuid
@@ -21,6 +23,7 @@ import nl.info.client.zgw.zrc.util.isOpen
 import nl.info.client.zgw.zrc.util.isOpgeschort
 import nl.info.client.zgw.zrc.util.isVerlengd
 import nl.info.client.zgw.ztc.ZtcClientService
+import nl.info.client.zgw.ztc.model.generated.StatusType
 import nl.info.client.zgw.ztc.model.generated.ZaakType
 import nl.info.zac.authentication.LoggedInUser
 import nl.info.zac.enkelvoudiginformatieobject.EnkelvoudigInformatieObjectLockService
@@ -28,6 +31,7 @@ import nl.info.zac.enkelvoudiginformatieobject.model.EnkelvoudigInformatieObject
 import nl.info.zac.enkelvoudiginformatieobject.util.isSigned
 import nl.info.zac.policy.exception.PolicyException
 import nl.info.zac.policy.input.BrpInput
+import nl.info.zac.policy.input.BulkInput
 import nl.info.zac.policy.input.DocumentData
 import nl.info.zac.policy.input.DocumentInput
 import nl.info.zac.policy.input.TaakData
@@ -60,8 +64,19 @@ class PolicyService @Inject constructor(
     @RestClient private val evaluationClient: OpaEvaluationClient,
     private val ztcClientService: ZtcClientService,
     private val lockService: EnkelvoudigInformatieObjectLockService,
-    private val zrcClientService: ZrcClientService
+    private val zrcClientService: ZrcClientService,
+    private val policyDecisionCache: PolicyDecisionCache
 ) {
+    companion object {
+        private const val OVERIGE_RECHTEN = "overige_rechten"
+        private const val ZAAK_RECHTEN = "zaak_rechten"
+        private const val DOCUMENT_RECHTEN = "document_rechten"
+        private const val TAAK_RECHTEN = "taak_rechten"
+        private const val NOTITIE_RECHTEN = "notitie_rechten"
+        private const val WERKLIJST_RECHTEN = "werklijst_rechten"
+        private const val BRP_RECHTEN = "brp_rechten"
+    }
+
     /**
      * Read 'overige' permissions.
      *
@@ -70,14 +85,14 @@ class PolicyService @Inject constructor(
      * but only for those 'overige rechten' permissions that are zaaktype-specific.
      */
     fun readOverigeRechten(zaaktypeDescription: String? = null) =
-        evaluationClient.readOverigeRechten(
-            RuleQuery(
-                UserInput(
-                    loggedInUser = loggedInUserInstance.get(),
-                    zaaktype = zaaktypeDescription,
-                )
-            )
-        ).result
+        evaluate(
+            OVERIGE_RECHTEN,
+            UserInput(
+                loggedInUser = loggedInUserInstance.get(),
+                zaaktype = zaaktypeDescription,
+            ),
+            evaluationClient::readOverigeRechten
+        )
 
     fun readZaakRechten(zaak: Zaak, loggedInUser: LoggedInUser): ZaakRechten {
         val zaakType = ztcClientService.readZaaktype(zaak.zaaktype)
@@ -89,6 +104,16 @@ class PolicyService @Inject constructor(
             zrcClientService.readStatus(it).statustype
                 .let(ztcClientService::readStatustype)
         }
+        return readZaakRechten(zaak, zaaktype, statusType, loggedInUser)
+    }
+
+    /**
+     * Reads the zaak rechten using the already read statustype of the zaak, so that callers that need
+     * the status themselves do not read it twice.
+     *
+     * @param statusType the statustype of the current status of the zaak, or `null` if the zaak has no status
+     */
+    fun readZaakRechten(zaak: Zaak, zaaktype: ZaakType, statusType: StatusType?, loggedInUser: LoggedInUser): ZaakRechten {
         val zaakData = ZaakData(
             open = zaak.isOpen(),
             zaaktype = zaaktype.getOmschrijving(),
@@ -99,40 +124,40 @@ class PolicyService @Inject constructor(
             heropend = statusType?.isHeropend(),
             brondatumBepaald = zaak.startdatumBewaartermijn != null,
         )
-        return evaluationClient.readZaakRechten(
-            RuleQuery(
-                ZaakInput(
-                    loggedInUser = loggedInUser,
-                    zaakData = zaakData
-                )
-            )
-        ).result
+        return evaluate(
+            ZAAK_RECHTEN,
+            ZaakInput(
+                loggedInUser = loggedInUser,
+                zaakData = zaakData
+            ),
+            zaakData,
+            evaluationClient::readZaakRechten
+        )
     }
 
     fun readZaakRechtenForZaakZoekObject(zaakZoekObject: ZaakZoekObject): ZaakRechten {
-        val zaakData = ZaakData(
-            open = !zaakZoekObject.isAfgehandeld,
-            zaaktype = zaakZoekObject.zaaktypeOmschrijving,
-            opgeschort = zaakZoekObject.getZaakIndicaties().contains(ZaakIndicatie.OPSCHORTING),
-            verlengd = zaakZoekObject.getZaakIndicaties().contains(ZaakIndicatie.VERLENGD),
-            heropend = zaakZoekObject.getZaakIndicaties().contains(ZaakIndicatie.HEROPEND),
-            // not taken into account when searching for a zaak
-            intake = null,
-            // not taken into account when searching for a zaak
-            besloten = null,
-            // not taken into account when searching for a zaak
-            brondatumBepaald = null
+        val zaakData = zaakZoekObject.toZaakData()
+        return evaluate(
+            ZAAK_RECHTEN,
+            ZaakInput(
+                loggedInUser = loggedInUserInstance.get(),
+                zaakData = zaakData
+            ),
+            zaakData,
+            evaluationClient::readZaakRechten
         )
-        return evaluationClient.readZaakRechten(
-            RuleQuery(
-                ZaakInput(
-                    loggedInUser = loggedInUserInstance.get(),
-                    zaakData = zaakData
-                )
-            )
-        ).result
     }
 
+    /**
+     * Reads the zaak rechten for a list of zaken (e.g. a page of search results) in a single call to OPA.
+     *
+     * @return the zaak rechten per zaak, in the same order as [zaakZoekObjecten]
+     */
+    fun readZaakRechtenForZaakZoekObjecten(zaakZoekObjecten: List<ZaakZoekObject>): List<ZaakRechten> =
+        evaluateAll(ZAAK_RECHTEN, zaakZoekObjecten.map { it.toZaakData() }, ::ZaakInput) {
+            evaluationClient.readZaakRechtenBulk(RuleQuery(BulkInput(it))).result.rechten
+        }
+
     fun readDocumentRechten(enkelvoudigInformatieobject: EnkelvoudigInformatieObject, zaak: Zaak? = null) =
         readDocumentRechten(
             enkelvoudigInformatieobject = enkelvoudigInformatieobject,
@@ -153,35 +178,40 @@ class PolicyService @Inject constructor(
             zaakOpen = zaak?.isOpen() ?: false,
             zaaktype = zaak?.let { ztcClientService.readZaaktype(it.getZaaktype()).getOmschrijving() }
         )
-        return evaluationClient.readDocumentRechten(
-            RuleQuery(
-                DocumentInput(
-                    loggedInUser = loggedInUserInstance.get(),
-                    documentData = documentData
-                )
-            )
-        ).result
+        return evaluate(
+            DOCUMENT_RECHTEN,
+            DocumentInput(
+                loggedInUser = loggedInUserInstance.get(),
+                documentData = documentData
+            ),
+            documentData,
+            evaluationClient::readDocumentRechten
+        )
     }
 
     fun readDocumentRechten(enkelvoudigInformatieobject: DocumentZoekObject): DocumentRechten {
-        val documentData = DocumentData(
-            definitief = StatusEnum.DEFINITIEF == enkelvoudigInformatieobject.getStatus(),
-            vergrendeld = enkelvoudigInformatieobject.isIndicatie(DocumentIndicatie.VERGRENDELD),
-            vergrendeldDoor = enkelvoudigInformatieobject.vergrendeldDoorGebruikersnaam,
-            zaakOpen = !enkelvoudigInformatieobject.isZaakAfgehandeld,
-            zaaktype = enkelvoudigInformatieobject.zaaktypeOmschrijving,
-            ondertekend = enkelvoudigInformatieobject.ondertekeningDatum != null
+        val documentData = enkelvoudigInformatieobject.toDocumentData()
+        return evaluate(
+            DOCUMENT_RECHTEN,
+            DocumentInput(
+                loggedInUser = loggedInUserInstance.get(),
+                documentData = documentData
+            ),
+            documentData,
+            evaluationClient::readDocumentRechten
         )
-        return evaluationClient.readDocumentRechten(
-            RuleQuery(
-                DocumentInput(
-                    loggedInUser = loggedInUserInstance.get(),
-                    documentData = documentData
-                )
-            )
-        ).result
     }
 
+    /**
+     * Reads the document rechten for a list of documents (e.g. a page of search results) in a single call to OPA.
+     *
+     * @return the document rechten per document, in the same order as [documentZoekObjecten]
+     */
+    fun readDocumentRechten(documentZoekObjecten: List<DocumentZoekObject>): List<DocumentRechten> =
+        evaluateAll(DOCUMENT_RECHTEN, documentZoekObjecten.map { it.toDocumentData() }, ::DocumentInput) {
+            evaluationClient.readDocumentRechtenBulk(RuleQuery(BulkInput(it))).result.rechten
+        }
+
     fun readTaakRechten(taskInfo: TaskInfo): TaakRechten {
         val zaaktypeOmschrijving = TaakVariabelenService.readZaaktypeOmschrijving(taskInfo)
         return readTaakRechten(taskInfo, zaaktypeOmschrijving)
@@ -195,57 +225,137 @@ class PolicyService @Inject constructor(
             open = TaskUtil.isOpen(taskInfo),
             zaaktype = zaaktypeOmschrijving
         )
-        return evaluationClient.readTaakRechten(
-            RuleQuery(
-                TaakInput(
-                    loggedInUser = loggedInUserInstance.get(),
-                    taakData = taakData
-                )
-            )
-        ).result
+        return evaluate(
+            TAAK_RECHTEN,
+            TaakInput(
+                loggedInUser = loggedInUserInstance.get(),
+                taakData = taakData
+            ),
+            taakData,
+            evaluationClient::readTaakRechten
+        )
     }
 
     fun readTaakRechten(taakZoekObject: TaakZoekObject): TaakRechten {
-        val taakData = TaakData(
-            zaaktype = taakZoekObject.zaaktypeOmschrijving
+        val taakData = taakZoekObject.toTaakData()
+        return evaluate(
+            TAAK_RECHTEN,
+            TaakInput(
+                loggedInUser = loggedInUserInstance.get(),
+                taakData = taakData
+            ),
+            taakData,
+            evaluationClient::readTaakRechten
         )
-        return evaluationClient.readTaakRechten(
-            RuleQuery(
-                TaakInput(
-                    loggedInUser = loggedInUserInstance.get(),
-                    taakData = taakData
-                )
-            )
-        ).result
     }
 
+    /**
+     * Reads the taak rechten for a list of taken (e.g. a page of search results) in a single call to OPA.
+     *
+     * @return the taak rechten per taak, in the same order as [taakZoekObjecten]
+     */
+    fun readTaakRechten(taakZoekObjecten: List<TaakZoekObject>): List<TaakRechten> =
+        evaluateAll(TAAK_RECHTEN, taakZoekObjecten.map { it.toTaakData() }, ::TaakInput) {
+            evaluationClient.readTaakRechtenBulk(RuleQuery(BulkInput(it))).result.rechten
+        }
+
     fun readNotitieRechten(): NotitieRechten =
-        evaluationClient.readNotitieRechten(
-            RuleQuery(
-                UserInput(
-                    loggedInUser = loggedInUserInstance.get()
-                )
-            )
-        ).result
+        evaluate(
+            NOTITIE_RECHTEN,
+            UserInput(
+                loggedInUser = loggedInUserInstance.get()
+            ),
+            evaluationClient::readNotitieRechten
+        )
 
     fun readWerklijstRechten(): WerklijstRechten =
-        evaluationClient.readWerklijstRechten(
-            RuleQuery(
-                UserInput(
-                    loggedInUser = loggedInUserInstance.get()
-                )
-            )
-        ).result
+        evaluate(
+            WERKLIJST_RECHTEN,
+            UserInput(
+                loggedInUser = loggedInUserInstance.get()
+            ),
+            evaluationClient::readWerklijstRechten
+        )
 
     fun readBrpRechten(gemeenteCode: String?) =
-        evaluationClient.readBrpRechten(
-            RuleQuery(
-                BrpInput(
-                    loggedInUser = loggedInUserInstance.get(),
-                    gemeenteCode = gemeenteCode,
-                )
-            )
-        ).result
+        evaluate(
+            BRP_RECHTEN,
+            BrpInput(
+                loggedInUser = loggedInUserInstance.get(),
+                gemeenteCode = gemeenteCode,
+            ),
+            gemeenteCode,
+            evaluationClient::readBrpRechten
+        )
+
+    /**
+     * Evaluates a policy rule, unless the decision for the same input is still cached.
+     *
+     * @param data the rule specific data in the input, which together with the user data determines the decision
+     */
+    private fun <I : UserInput, R : OpaRuleResult> evaluate(
+        rule: String,
+        input: I,
+        data: Any?,
+        evaluateRule: (RuleQuery<I>) -> RuleResponse<R>
+    ): R = policyDecisionCache.get(PolicyDecisionCache.Key(rule, input.user, data)) {
+        evaluateRule(RuleQuery(input)).result
+    }
+
+    private fun <I : UserInput, R : OpaRuleResult> evaluate(
+        rule: String,
+        input: I,
+        evaluateRule: (RuleQuery<I>) -> RuleResponse<R>
+    ): R = evaluate(rule, input, null, evaluateRule)
+
+    /**
+     * Evaluates a policy rule for a list of inputs with a single bulk call for the decisions that are not cached.
+     * Identical inputs (e.g. search results of the same zaaktype) are only evaluated once.
+     *
+     * @return the decisions in the order of the given data
+     */
+    private fun <D : Any, I : UserInput, R : OpaRuleResult> evaluateAll(
+        rule: String,
+        data: List<D>,
+        toInput: (LoggedInUser, D) -> I,
+        evaluateRules: (List<I>) -> List<R>
+    ): List<R> {
+        if (data.isEmpty()) {
+            return emptyList()
+        }
+        val loggedInUser = loggedInUserInstance.get()
+        val inputs = data.map { toInput(loggedInUser, it) }
+        val keys = inputs.zip(data) { input, inputData -> PolicyDecisionCache.Key(rule, input.user, inputData) }
+        val inputsByKey = keys.zip(inputs).toMap()
+        return policyDecisionCache.getAll(keys) { missingKeys -> evaluateRules(missingKeys.map(inputsByKey::getValue)) }
+    }
+
+    private fun ZaakZoekObject.toZaakData() = ZaakData(
+        open = !isAfgehandeld,
+        zaaktype = zaaktypeOmschrijving,
+        opgeschort = getZaakIndicaties().contains(ZaakIndicatie.OPSCHORTING),
+        verlengd = getZaakIndicaties().contains(ZaakIndicatie.VERLENGD),
+        heropend = getZaakIndicaties().contains(ZaakIndicatie.HEROPEND),
+        // not taken into account when searching for a zaak
+        intake = null,
+        // not taken into account when searching for a zaak
+        besloten = null,
+        // not taken into account when searching for a zaak
+        brondatumBepaald = null
+    )
+
+    private fun DocumentZoekObject.toDocumentData() = DocumentData(
+        definitief = StatusEnum.DEFINITIEF == getStatus(),
+        vergrendeld = isIndicatie(DocumentIndicatie.VERGRENDELD),
+        vergrendeldDoor = vergrendeldDoorGebruikersnaam,
+        zaakOpen = !isZaakAfgehandeld,
+        zaaktype = zaaktypeOmschrijving,
+        ondertekend = ondertekeningDatum != null
+    )
+
+    private fun TaakZoekObject.toTaakData() = TaakData(
+        zaaktype = zaaktypeOmschrijving
+    )
 }
 
 /**
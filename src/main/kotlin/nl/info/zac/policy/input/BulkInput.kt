@@ -0,0 +1,15 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.policy.input
+
+import jakarta.json.bind.annotation.JsonbProperty
+
+/**
+ * Input for the bulk policy rules, which evaluate a policy for each of the [inputs] in a single call.
+ */
+data class BulkInput<T : UserInput>(
+    @field:JsonbProperty("inputs")
+    val inputs: List<T>
+)
@@ -0,0 +1,24 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.policy.output
+
+import jakarta.json.bind.annotation.JsonbCreator
+import jakarta.json.bind.annotation.JsonbProperty
+import nl.info.client.opa.model.OpaRuleResult
+
+/**
+ * The results of the bulk policy rules contain the rechten per input, in the same order as the inputs.
+ */
+data class ZaakRechtenBulk @JsonbCreator constructor(
+    @param:JsonbProperty("rechten") val rechten: List<ZaakRechten>
+) : OpaRuleResult
+
+data class TaakRechtenBulk @JsonbCreator constructor(
+    @param:JsonbProperty("rechten") val rechten: List<TaakRechten>
+) : OpaRuleResult
+
+data class DocumentRechtenBulk @JsonbCreator constructor(
+    @param:JsonbProperty("rechten") val rechten: List<DocumentRechten>
+) : OpaRuleResult
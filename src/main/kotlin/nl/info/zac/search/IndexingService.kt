@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2022 Atos, 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2022 Atos, 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.search
@@ -7,28 +7,24 @@ package nl.info.zac.search
 import jakarta.enterprise.inject.Instance
 import jakarta.inject.Inject
 import jakarta.inject.Singleton
-import net.atos.client.zgw.shared.model.Results
-import nl.info.client.zgw.zrc.model.ZaakListParameters
 import net.atos.zac.flowable.task.FlowableTaskService
-import nl.info.client.zgw.drc.DrcClientService
-import nl.info.client.zgw.drc.model.EnkelvoudigInformatieobjectListParameters
-import nl.info.client.zgw.shared.ZgwApiService
 import nl.info.client.zgw.util.extractUuid
 import nl.info.client.zgw.zrc.ZrcClientService
-import nl.info.zac.app.task.model.TaakSortering
-import nl.info.zac.authentication.LoggedInUserProvider.Companion.systemUser
 import nl.info.zac.search.converter.AbstractZoekObjectConverter
+import nl.info.zac.search.converter.ConversionBatch
 import nl.info.zac.search.model.zoekobject.ZoekObject
 import nl.info.zac.search.model.zoekobject.ZoekObjectType
-import nl.info.zac.shared.model.SorteerRichting
+import nl.info.zac.search.reindex.ShadowCoreChangeRepository
 import nl.info.zac.util.AllOpen
 import org.apache.solr.client.solrj.SolrClient
 import org.apache.solr.client.solrj.SolrQuery
 import org.apache.solr.client.solrj.impl.Http2SolrClient
+import org.apache.solr.client.solrj.request.CoreAdminRequest
 import org.apache.solr.common.params.CursorMarkParams
 import org.eclipse.microprofile.config.ConfigProvider
+import java.time.Duration
+import java.time.Instant
 import java.util.UUID
-import java.util.concurrent.ConcurrentHashMap
 import java.util.logging.Level
 import java.util.logging.Logger
 
@@ -38,26 +34,45 @@ import java.util.logging.Logger
 class IndexingService @Inject constructor(
     private val converterInstances: Instance<AbstractZoekObjectConverter<out ZoekObject>>,
     private val zrcClientService: ZrcClientService,
-    private val drcClientService: DrcClientService,
-    private val flowableTaskService: FlowableTaskService
+    private val flowableTaskService: FlowableTaskService,
+    private val shadowCoreChangeRepository: ShadowCoreChangeRepository
 ) {
     companion object {
         const val SOLR_CORE = "zac"
+
+        /**
+         * Core in which the search index is rebuilt while the ZAC core stays in use, before being swapped with it.
+         */
+        const val SOLR_SHADOW_CORE = "${SOLR_CORE}_shadow"
+
+        /**
+         * The core that was replaced by the last swap, kept to be able to roll back.
+         */
+        const val SOLR_PREVIOUS_CORE = "${SOLR_CORE}_previous"
         const val SOLR_INDEXING_ERROR_MESSAGE = "Error occurred during Solr indexing"
 
         private const val SOLR_MAX_RESULTS = 100
-        private const val TAKEN_MAX_RESULTS = 50
 
         private val LOG = Logger.getLogger(IndexingService::class.java.name)
-        private val reindexingViewfinder = ConcurrentHashMap.newKeySet<ZoekObjectType>()
+
+        private val SHADOW_CORE_CHECK_INTERVAL = Duration.ofSeconds(10)
 
         private lateinit var solrClient: SolrClient
+        private lateinit var shadowSolrClient: SolrClient
+        private lateinit var solrAdminClient: SolrClient
+
+        @Volatile
+        private var shadowCoreExists = false
+
+        @Volatile
+        private var shadowCoreCheckedAt = Instant.EPOCH
     }
 
     init {
-        solrClient = Http2SolrClient.Builder(
-            "${ConfigProvider.getConfig().getValue("solr.url", String::class.java)}/solr/$SOLR_CORE"
-        ).build()
+        val solrUrl = ConfigProvider.getConfig().getValue("solr.url", String::class.java)
+        solrClient = Http2SolrClient.Builder("$solrUrl/solr/$SOLR_CORE").build()
+        shadowSolrClient = Http2SolrClient.Builder("$solrUrl/solr/$SOLR_SHADOW_CORE").build()
+        solrAdminClient = Http2SolrClient.Builder("$solrUrl/solr").build()
     }
 
     /**
@@ -91,33 +106,13 @@ class IndexingService @Inject constructor(
     fun indexeerDirect(objectIds: List<String>, objectType: ZoekObjectType, performCommit: Boolean) =
         addToSolrIndex(
             getConverter(objectType).let { converter ->
-                objectIds.map { continueOnExceptions(objectType) { converter.convert(it) } }
+                val batch = ConversionBatch()
+                continueOnExceptions(objectType) { converter.prepare(objectIds, batch) }
+                objectIds.map { continueOnExceptions(objectType) { converter.convert(it, batch) } }
             },
             performCommit
         )
 
-    fun reindex(objectType: ZoekObjectType) {
-        if (reindexingViewfinder.contains(objectType)) {
-            LOG.warning("[$objectType] Reindexing not started, still in progress")
-            return
-        }
-        reindexingViewfinder.add(objectType)
-        try {
-            systemUser.set(true)
-            LOG.info("[$objectType] Reindexing started")
-            removeEntitiesFromSolrIndex(objectType)
-            when (objectType) {
-                ZoekObjectType.ZAAK -> reindexAllZaken()
-                ZoekObjectType.DOCUMENT -> reindexAllInformatieobjecten()
-                ZoekObjectType.TAAK -> reindexAllTaken()
-            }
-            LOG.info("[$objectType] Reindexing finished")
-        } finally {
-            reindexingViewfinder.remove(objectType)
-            systemUser.remove()
-        }
-    }
-
     fun addOrUpdateZaak(zaakUUID: UUID, inclusiefTaken: Boolean) {
         indexeerDirect(zaakUUID.toString(), ZoekObjectType.ZAAK, false)
         if (inclusiefTaken) {
@@ -127,6 +122,18 @@ class IndexingService @Inject constructor(
         }
     }
 
+    /**
+     * Adds or updates the given zaken in the Solr index in a single batch, together with the open tasks
+     * of the zaken in [inclusiefTakenForZaakUUIDs].
+     */
+    fun addOrUpdateZaken(zaakUUIDs: List<UUID>, inclusiefTakenForZaakUUIDs: List<UUID>) {
+        indexeerDirect(zaakUUIDs.map { it.toString() }, ZoekObjectType.ZAAK, false)
+        flowableTaskService.listOpenTasksForZaken(inclusiefTakenForZaakUUIDs, emptyList())
+            .map { it.id }
+            .takeIf { it.isNotEmpty() }
+            ?.let { indexeerDirect(it, ZoekObjectType.TAAK, false) }
+    }
+
     fun addOrUpdateInformatieobject(informatieobjectUUID: UUID) =
         indexeerDirect(informatieobjectUUID.toString(), ZoekObjectType.DOCUMENT, false)
 
@@ -150,12 +157,7 @@ class IndexingService @Inject constructor(
         }
     }
 
-    private fun getConverter(objectType: ZoekObjectType): AbstractZoekObjectConverter<out ZoekObject> =
-        converterInstances
-            .firstOrNull { it.supports(objectType) }
-            ?: throw IndexingException("[$objectType] No converter found")
-
-    private fun addToSolrIndex(zoekObjecten: List<ZoekObject?>, performCommit: Boolean) {
+    fun addToSolrIndex(zoekObjecten: List<ZoekObject?>, performCommit: Boolean) {
         val beansToBeAdded = zoekObjecten.filterNotNull()
         if (beansToBeAdded.isEmpty()) {
             return
@@ -166,24 +168,59 @@ class IndexingService @Inject constructor(
                 commit()
             }
         }
+        mirrorToShadowCore(
+            recordChange = {
+                beansToBeAdded.groupBy({ it.getType() }, { it.getObjectId() })
+                    .forEach(shadowCoreChangeRepository::recordUpdate)
+            },
+            applyChange = { it.addBeans(beansToBeAdded) }
+        )
+    }
+
+    /**
+     * Adds the given objects to the shadow core only, while the search index is being rebuilt in it.
+     */
+    fun addToShadowSolrIndex(zoekObjecten: List<ZoekObject>) {
+        if (zoekObjecten.isEmpty()) {
+            return
+        }
+        runTranslatingToIndexingException {
+            shadowSolrClient.addBeans(zoekObjecten)
+        }
     }
 
-    private fun removeFromSolrIndex(idsToBeDeleted: List<String>) {
-        if (idsToBeDeleted.isEmpty()) {
+    /**
+     * Removes the objects with the given ids from the shadow core only, while the search index is being rebuilt in it.
+     */
+    fun removeFromShadowSolrIndex(ids: List<String>) {
+        if (ids.isEmpty()) {
             return
         }
         runTranslatingToIndexingException {
-            solrClient.deleteById(idsToBeDeleted)
+            shadowSolrClient.deleteById(ids)
         }
     }
 
-    private fun removeFromSolrIndex(id: String) {
+    fun commitShadowCore() {
         runTranslatingToIndexingException {
-            solrClient.deleteById(id)
+            shadowSolrClient.commit(null, true, true)
         }
     }
 
-    private fun removeEntitiesFromSolrIndex(objectType: ZoekObjectType) {
+    /**
+     * Updates whether the shadow core exists, without waiting for the next periodic check.
+     * While the shadow core exists, all changes to the search index are also applied to the shadow core,
+     * so that the rebuilt search index does not miss changes made during the rebuild.
+     */
+    fun setShadowCoreExists(exists: Boolean) {
+        shadowCoreExists = exists
+        shadowCoreCheckedAt = Instant.now()
+    }
+
+    /**
+     * Removes all documents of the given object type from the Solr index.
+     */
+    fun removeEntitiesFromSolrIndex(objectType: ZoekObjectType) {
         val query = SolrQuery("*:*").apply {
             setFields("id")
             addFilterQuery("type:$objectType")
@@ -212,114 +249,72 @@ class IndexingService @Inject constructor(
         }
     }
 
-    private fun reindexAllZaken() {
-        val numberOfZaken = continueOnExceptions(ZoekObjectType.ZAAK) {
-            zrcClientService.listZakenUuids(
-                ZaakListParameters().apply {
-                    ordering = "-identificatie"
-                    page = ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS
-                }
-            ).count()
-        }
-        if (numberOfZaken == null) {
-            LOG.warning("[${ZoekObjectType.ZAAK}] Cannot find zaken count! Aborting reindexing")
+    private fun getConverter(objectType: ZoekObjectType): AbstractZoekObjectConverter<out ZoekObject> =
+        converterInstances
+            .firstOrNull { it.supports(objectType) }
+            ?: throw IndexingException("[$objectType] No converter found")
+
+    private fun removeFromSolrIndex(idsToBeDeleted: List<String>) {
+        if (idsToBeDeleted.isEmpty()) {
             return
         }
-
-        val numberOfPages: Int = numberOfZaken / Results.NUM_ITEMS_PER_PAGE.toInt() +
-            ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS
-
-        for (pageNumber in ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS..numberOfPages) {
-            continueOnExceptions(ZoekObjectType.ZAAK) { reindexZakenPage(pageNumber, numberOfZaken) }
+        runTranslatingToIndexingException {
+            solrClient.deleteById(idsToBeDeleted)
         }
-    }
-
-    private fun reindexZakenPage(pageNumber: Int, totalCount: Int) {
-        val zaakResults = zrcClientService.listZakenUuids(
-            ZaakListParameters().apply {
-                ordering = "-identificatie"
-                page = pageNumber
-            }
-        )
-        val ids = zaakResults.results().map { it.uuid.toString() }
-        indexeerDirect(
-            objectIds = ids,
-            objectType = ZoekObjectType.ZAAK,
-            performCommit = false
+        mirrorToShadowCore(
+            recordChange = { shadowCoreChangeRepository.recordDeletion(idsToBeDeleted) },
+            applyChange = { it.deleteById(idsToBeDeleted) }
         )
-        val progress = (pageNumber - ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS) * Results.NUM_ITEMS_PER_PAGE + ids.size
-        LOG.info("[${ZoekObjectType.ZAAK}] Reindexed: $progress / $totalCount ")
     }
 
-    private fun reindexAllInformatieobjecten() {
-        val numberOfInformatieobjecten = continueOnExceptions(ZoekObjectType.DOCUMENT) {
-            drcClientService.listEnkelvoudigInformatieObjecten(
-                EnkelvoudigInformatieobjectListParameters().apply {
-                    page = ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS
-                }
-            ).count()
-        }
-        if (numberOfInformatieobjecten == null) {
-            LOG.warning("[${ZoekObjectType.DOCUMENT}] Cannot find information objects count! Aborting reindexing")
-            return
-        }
-
-        val numberOfPages: Int = numberOfInformatieobjecten / Results.NUM_ITEMS_PER_PAGE.toInt() +
-            ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS
-
-        for (pageNumber in ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS..numberOfPages) {
-            continueOnExceptions(ZoekObjectType.DOCUMENT) {
-                reindexInformatieobjectenPage(pageNumber, numberOfInformatieobjecten)
-            }
+    private fun removeFromSolrIndex(id: String) {
+        runTranslatingToIndexingException {
+            solrClient.deleteById(id)
         }
-    }
-
-    private fun reindexInformatieobjectenPage(pageNumber: Int, totalCount: Int) {
-        val informationObjectsResults = drcClientService.listEnkelvoudigInformatieObjecten(
-            EnkelvoudigInformatieobjectListParameters().apply { page = ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS }
-        )
-        val ids = informationObjectsResults.results().map { it.url.extractUuid().toString() }
-        indexeerDirect(
-            objectIds = ids,
-            objectType = ZoekObjectType.DOCUMENT,
-            performCommit = false
+        mirrorToShadowCore(
+            recordChange = { shadowCoreChangeRepository.recordDeletion(listOf(id)) },
+            applyChange = { it.deleteById(id) }
         )
-        val progress = (pageNumber - ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS) * Results.NUM_ITEMS_PER_PAGE + ids.size
-        LOG.info("[${ZoekObjectType.DOCUMENT}] Reindexed: $progress / $totalCount")
     }
 
-    private fun reindexAllTaken() {
-        val numberOfTasks = continueOnExceptions(ZoekObjectType.TAAK) { flowableTaskService.countOpenTasks() }
-        if (numberOfTasks == null) {
-            LOG.warning("[${ZoekObjectType.TAAK}] Cannot find tasks count. Aborting reindexing")
+    /**
+     * Applies a change to the shadow core as well, if the search index is being rebuilt in it (on any node).
+     * The change is recorded first, so that the rebuild can apply it once more after having written an older version
+     * of the objects to the shadow core (see [nl.info.zac.search.reindex.ReindexingService.rebuildInShadowCore]).
+     * Failures are only logged, because the ZAC core has been updated already.
+     */
+    @Suppress("TooGenericExceptionCaught")
+    private fun mirrorToShadowCore(recordChange: () -> Unit, applyChange: (SolrClient) -> Unit) {
+        try {
+            if (!isShadowCoreInUse()) {
+                return
+            }
+        } catch (exception: Exception) {
+            LOG.log(Level.WARNING, "Failed to check the status of Solr core '$SOLR_SHADOW_CORE'", exception)
             return
         }
-        val numberOfPages: Int = numberOfTasks.toInt() / TAKEN_MAX_RESULTS
-
-        for (pageNumber in 0..numberOfPages) {
-            continueOnExceptions(ZoekObjectType.TAAK) { reindexTakenPage(pageNumber, numberOfTasks.toInt()) }
+        try {
+            recordChange()
+        } catch (exception: Exception) {
+            LOG.log(Level.WARNING, "Failed to record a change to Solr core '$SOLR_SHADOW_CORE'", exception)
+        }
+        try {
+            applyChange(shadowSolrClient)
+        } catch (exception: Exception) {
+            LOG.log(Level.WARNING, "Failed to apply a change to Solr core '$SOLR_SHADOW_CORE'", exception)
         }
     }
 
-    private fun reindexTakenPage(pageNumber: Int, totalCount: Int): Boolean {
-        val firstResult = pageNumber * TAKEN_MAX_RESULTS
-        val tasks = flowableTaskService.listOpenTasks(
-            TaakSortering.CREATIEDATUM,
-            SorteerRichting.DESCENDING,
-            firstResult,
-            TAKEN_MAX_RESULTS
-        )
-        if (tasks.isEmpty()) {
-            return false
+    private fun isShadowCoreInUse(): Boolean {
+        if (Instant.now().isAfter(shadowCoreCheckedAt.plus(SHADOW_CORE_CHECK_INTERVAL))) {
+            // also when the check fails, so that Solr is not asked for the status of the shadow core on every change
+            shadowCoreCheckedAt = Instant.now()
+            // the status of a non-existing core is empty
+            shadowCoreExists = CoreAdminRequest.getStatus(SOLR_SHADOW_CORE, solrAdminClient)
+                .getCoreStatus(SOLR_SHADOW_CORE)
+                ?.let { it.size() > 0 } == true
         }
-        indexeerDirect(
-            objectIds = tasks.map { it.id },
-            objectType = ZoekObjectType.TAAK,
-            performCommit = false
-        )
-        val progress = firstResult + tasks.size
-        LOG.info("[${ZoekObjectType.TAAK}] Reindexed: $progress / $totalCount")
-        return tasks.size == TAKEN_MAX_RESULTS
+        return shadowCoreExists
     }
 
     @Suppress("TooGenericExceptionCaught")
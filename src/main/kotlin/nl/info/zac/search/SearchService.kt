@@ -28,6 +28,9 @@ import org.apache.solr.client.solrj.SolrClient
 import org.apache.solr.client.solrj.SolrQuery
 import org.apache.solr.client.solrj.SolrServerException
 import org.apache.solr.client.solrj.impl.Http2SolrClient
+import org.apache.solr.client.solrj.response.QueryResponse
+import org.apache.solr.common.SolrDocumentList
+import org.apache.solr.common.params.CursorMarkParams
 import org.apache.solr.common.params.SimpleParams
 import org.eclipse.microprofile.config.ConfigProvider
 import java.io.IOException
@@ -44,6 +47,7 @@ class SearchService @Inject constructor(
         private lateinit var solrClient: SolrClient
 
         private val NON_EXISTING_ZAAKTYPE = quoted("-NON-EXISTING-ZAAKTYPE-")
+        private const val CURSOR_PAGE_SIZE = 1000
         private const val ZAAKTYPE_OMSCHRIJVING_VELD = "zaaktypeOmschrijving"
     }
 
@@ -53,27 +57,68 @@ class SearchService @Inject constructor(
         ).build()
     }
 
-    @Suppress("LongMethod")
     fun search(zoekParameters: ZoekParameters): ZoekResultaat<out ZoekObject> {
+        val query = createQuery(zoekParameters, withFacets = true)
+        query.rows = zoekParameters.rows
+        query.start = zoekParameters.start
+        val response = querySolr(query)
+        val zoekResultaat = ZoekResultaat(toZoekObjecten(response.results), response.results.numFound)
+        response.facetFields?.forEach { facetField ->
+            val facetVeld = FilterVeld.fromValue(facetField.name)
+            val values = facetField.values
+                .filter { it.count > 0 }
+                .map { FilterResultaat(it.name ?: FilterWaarde.LEEG.toString(), it.count) }
+            zoekResultaat.addFilter(facetVeld, values.toMutableList())
+        }
+        return zoekResultaat
+    }
+
+    /**
+     * Searches all zoek objecten that match the given parameters, ignoring their paging parameters.
+     *
+     * The results are retrieved in pages of [pageSize] zoek objecten using a Solr cursor, while the returned sequence
+     * is iterated. This keeps the memory usage constant, however many zoek objecten match. No facets are calculated.
+     */
+    fun searchAll(zoekParameters: ZoekParameters, pageSize: Int = CURSOR_PAGE_SIZE): Sequence<List<ZoekObject>> {
+        // the query is created right away, because the logged-in user may no longer be available during iteration
+        val query = createQuery(zoekParameters, withFacets = false)
+        query.rows = pageSize
+        return sequence {
+            var cursorMark = CursorMarkParams.CURSOR_MARK_START
+            do {
+                query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark)
+                val response = querySolr(query)
+                if (response.results.isNotEmpty()) {
+                    yield(toZoekObjecten(response.results))
+                }
+                val previousCursorMark = cursorMark
+                cursorMark = response.nextCursorMark
+            } while (cursorMark != previousCursorMark)
+        }
+    }
+
+    private fun createQuery(zoekParameters: ZoekParameters, withFacets: Boolean): SolrQuery {
         val query = SolrQuery("*:*")
         getAllowedZaaktypenFilterQuery()?.let(query::addFilterQuery)
         zoekParameters.type?.let { query.addFilterQuery("type:${zoekParameters.type}") }
         getFilterQueriesForZoekenParameters(zoekParameters).forEach(query::addFilterQuery)
         getFilterQueriesForDatumsParameters(zoekParameters).forEach(query::addFilterQuery)
         zoekParameters.getFilters().forEach { (filter, filterParameters) ->
-            query.addFacetField("{!ex=$filter}${filter.veld}")
+            if (withFacets) {
+                query.addFacetField("{!ex=$filter}${filter.veld}")
+            }
             if (filterParameters.values.isNotEmpty()) {
                 query.addFilterQuery(getFilterQueryForWaardenParameter(filterParameters, filter))
             }
         }
         zoekParameters.getFilterQueries()
             .forEach { (veld: String, waarde: String) -> query.addFilterQuery("$veld:${quoted(waarde)}") }
-        query.facetMinCount = 1
-        query.setFacetMissing(!zoekParameters.isGlobaalZoeken())
-        query.setFacet(true)
+        if (withFacets) {
+            query.facetMinCount = 1
+            query.setFacetMissing(!zoekParameters.isGlobaalZoeken())
+            query.setFacet(true)
+        }
         query.setParam("q.op", SimpleParams.AND_OPERATOR)
-        query.rows = zoekParameters.rows
-        query.start = zoekParameters.start
         if (zoekParameters.sortering.richting != SorteerRichting.NONE) {
             query.addSort(
                 zoekParameters.sortering.sorteerVeld.veld,
@@ -92,29 +137,15 @@ class SearchService @Inject constructor(
             query.addSort(SorteerVeld.ZAAK_IDENTIFICATIE.veld, SolrQuery.ORDER.desc)
         }
 
-        // sort on 'id' field so that results (from the same query) always have the same order
+        // sort on 'id' field so that results (from the same query) always have the same order,
+        // which is also required for paging with a cursor
         query.addSort("id", SolrQuery.ORDER.desc)
-
-        return solrSearch(query)
+        return query
     }
 
-    private fun solrSearch(query: SolrQuery): ZoekResultaat<out ZoekObject> {
+    private fun querySolr(query: SolrQuery): QueryResponse {
         try {
-            val response = solrClient.query(query)
-            val zoekObjecten = response.results
-                .map {
-                    val zoekObjectType = ZoekObjectType.valueOf(it["type"].toString())
-                    solrClient.binder.getBean(zoekObjectType.zoekObjectClass, it)
-                }
-            val zoekResultaat = ZoekResultaat(zoekObjecten, response.results.numFound)
-            response.facetFields?.forEach { facetField ->
-                val facetVeld = FilterVeld.fromValue(facetField.name)
-                val values = facetField.values
-                    .filter { it.count > 0 }
-                    .map { FilterResultaat(it.name ?: FilterWaarde.LEEG.toString(), it.count) }
-                zoekResultaat.addFilter(facetVeld, values.toMutableList())
-            }
-            return zoekResultaat
+            return solrClient.query(query)
         } catch (ioException: IOException) {
             throw SearchException(
                 "Failed to perform Solr search query",
@@ -128,6 +159,12 @@ class SearchService @Inject constructor(
         }
     }
 
+    private fun toZoekObjecten(solrDocuments: SolrDocumentList): List<ZoekObject> =
+        solrDocuments.map {
+            val zoekObjectType = ZoekObjectType.valueOf(it["type"].toString())
+            solrClient.binder.getBean(zoekObjectType.zoekObjectClass, it)
+        }
+
     private fun getFilterQueryForWaardenParameter(
         filterParameters: FilterParameters,
         filter: FilterVeld
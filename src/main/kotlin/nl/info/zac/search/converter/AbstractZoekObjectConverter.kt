@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2022 Atos, 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2022 Atos, 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.search.converter
@@ -11,4 +11,17 @@ abstract class AbstractZoekObjectConverter<ZOEKOBJECT : ZoekObject> {
     abstract fun supports(objectType: ZoekObjectType): Boolean
 
     abstract fun convert(id: String): ZOEKOBJECT?
+
+    /**
+     * Converts the object with the given id as one of a [batch] of conversions, sharing lookups with the other
+     * conversions in the batch where the converter supports that.
+     */
+    open fun convert(id: String, batch: ConversionBatch): ZOEKOBJECT? = convert(id)
+
+    /**
+     * Prepares the conversions of the objects with the given ids as a [batch], before they are converted, e.g. by
+     * loading the data that the conversions need at once for all objects. Conversions that are not prepared
+     * load their data themselves.
+     */
+    open fun prepare(ids: List<String>, batch: ConversionBatch) = Unit
 }
@@ -0,0 +1,62 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.converter
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Shares lookups that are the same for many objects (like users and groups) between the conversions of a batch
+ * of objects to zoek objects. A batch may be used by multiple threads at the same time.
+ * Looked up values are never refreshed, so a batch should only be used for a short time.
+ * Values are stored by their type and key, so each kind of value needs a type of its own (e.g. a small wrapper
+ * class instead of a plain number), or it would be mixed up with other values of that type.
+ */
+class ConversionBatch {
+    private val lookups = ConcurrentHashMap<Pair<Class<*>, String>, CompletableFuture<Any>>()
+
+    /**
+     * Returns the value of the given type for the given key, loading it only if it has not been looked up
+     * in this batch before. Conversions that look up the same key while it is being loaded wait for it.
+     * A value that cannot be loaded is not kept, so that a next lookup of its key tries again.
+     *
+     * @return the value and whether it was already looked up in this batch (i.e. a lookup was saved)
+     */
+    @Suppress("TooGenericExceptionCaught")
+    fun <T : Any> getOrLoad(type: Class<T>, key: String, loader: (String) -> T): Pair<T, Boolean> {
+        val lookupKey = type to key
+        val loading = CompletableFuture<Any>()
+        lookups.putIfAbsent(lookupKey, loading)?.let { return type.cast(await(it)) to true }
+        // loaded outside of the map, so that a slow loader does not block lookups of other keys
+        return try {
+            loader(key).also { loading.complete(it) } to false
+        } catch (exception: Exception) {
+            lookups.remove(lookupKey, loading)
+            loading.completeExceptionally(exception)
+            throw exception
+        }
+    }
+
+    /**
+     * Stores values of the given type that were loaded at once for the objects of the batch, so that they do not
+     * have to be loaded one by one.
+     */
+    fun <T : Any> putAll(type: Class<T>, values: Map<String, T>) =
+        values.forEach { (key, value) -> lookups[type to key] = CompletableFuture.completedFuture(value) }
+
+    /**
+     * Returns the value of the given type for the given key, if it has been looked up or stored in this batch.
+     */
+    fun <T : Any> find(type: Class<T>, key: String): T? = lookups[type to key]?.let { type.cast(await(it)) }
+
+    private fun await(lookup: CompletableFuture<Any>): Any =
+        try {
+            lookup.join()
+        } catch (exception: CompletionException) {
+            // the exception of the loader, as if the value had been loaded by the caller
+            throw exception.cause ?: exception
+        }
+}
@@ -1,11 +1,12 @@
 /*
- * SPDX-FileCopyrightText: 2022 Atos, 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2022 Atos, 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.search.converter
 
 import jakarta.inject.Inject
 import net.atos.zac.flowable.task.FlowableTaskService
+import net.atos.zac.flowable.task.FlowableTaskService.ZAAK_VARIABLES
 import net.atos.zac.flowable.task.TaakVariabelenService
 import net.atos.zac.flowable.task.TaakVariabelenService.readTaskData
 import net.atos.zac.flowable.task.TaakVariabelenService.readTaskInformation
@@ -16,11 +17,14 @@ import nl.info.client.zgw.util.extractUuid
 import nl.info.client.zgw.zrc.ZrcClientService
 import nl.info.client.zgw.ztc.ZtcClientService
 import nl.info.zac.identity.IdentityService
+import nl.info.zac.identity.model.Group
+import nl.info.zac.identity.model.User
 import nl.info.zac.identity.model.getFullName
 import nl.info.zac.search.model.zoekobject.TaakZoekObject
 import nl.info.zac.search.model.zoekobject.ZoekObjectType
 import org.flowable.identitylink.api.IdentityLinkInfo
 import org.flowable.identitylink.api.IdentityLinkType
+import org.flowable.task.api.TaskInfo
 
 class TaakZoekObjectConverter @Inject constructor(
     private val identityService: IdentityService,
@@ -29,8 +33,10 @@ class TaakZoekObjectConverter @Inject constructor(
     private val zrcClientService: ZrcClientService
 ) : AbstractZoekObjectConverter<TaakZoekObject>() {
 
-    override fun convert(id: String): TaakZoekObject {
-        val taskInfo = flowableTaskService.readTask(id)
+    override fun convert(id: String): TaakZoekObject = convert(id, ConversionBatch())
+
+    override fun convert(id: String, batch: ConversionBatch): TaakZoekObject {
+        val taskInfo = batch.find(TaskInfo::class.java, id) ?: flowableTaskService.readTask(id)
         val zaakUUID = TaakVariabelenService.readZaakUUID(taskInfo)
         val zaak = zrcClientService.readZaak(zaakUUID)
         val zaaktype = ztcClientService.readZaaktype(readZaaktypeUUID(taskInfo))
@@ -54,14 +60,14 @@ class TaakZoekObjectConverter @Inject constructor(
             taakData = readTaskData(taskInfo).entries.map { "${it.key}|${it.value}" }
             taakInformatie = readTaskInformation(taskInfo).entries.map { "${it.key}|${it.value}" }
             taskInfo.assignee?.let {
-                identityService.readUser(it).let { user ->
+                batch.getOrLoad(User::class.java, it, identityService::readUser).first.let { user ->
                     behandelaarNaam = user.getFullName()
                     behandelaarGebruikersnaam = user.id
                 }
                 isToegekend = true
             }
             extractGroupId(taskInfo.identityLinks)?.let {
-                identityService.readGroup(it).let { group ->
+                batch.getOrLoad(Group::class.java, it, identityService::readGroup).first.let { group ->
                     groepID = group.name
                     groepNaam = group.description
                 }
@@ -69,6 +75,15 @@ class TaakZoekObjectConverter @Inject constructor(
         }
     }
 
+    /**
+     * Reads all tasks of the batch at once, with only the variables that are indexed.
+     */
+    override fun prepare(ids: List<String>, batch: ConversionBatch) =
+        batch.putAll(
+            TaskInfo::class.java,
+            flowableTaskService.listTasks(ids, ZAAK_VARIABLES, true).associateBy { it.id }
+        )
+
     override fun supports(objectType: ZoekObjectType) = objectType == ZoekObjectType.TAAK
 
     private fun extractGroupId(identityLinks: List<IdentityLinkInfo>): String? =
@@ -1,9 +1,11 @@
 /*
- * SPDX-FileCopyrightText: 2022 Atos, 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2022 Atos, 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.search.converter
 
+import io.opentelemetry.api.metrics.LongHistogram
+import io.opentelemetry.api.metrics.Meter
 import jakarta.inject.Inject
 import nl.info.client.zgw.zrc.model.zaakobjecten.ZaakobjectListParameters
 import net.atos.zac.flowable.task.FlowableTaskService
@@ -11,6 +13,7 @@ import nl.info.zac.util.time.convertToDate
 import nl.info.client.zgw.shared.ZgwApiService
 import nl.info.client.zgw.util.extractUuid
 import nl.info.client.zgw.zrc.ZrcClientService
+import nl.info.client.zgw.zrc.model.Rol
 import nl.info.client.zgw.zrc.model.generated.Zaak
 import nl.info.client.zgw.zrc.util.isDeelzaak
 import nl.info.client.zgw.zrc.util.isHeropend
@@ -35,17 +38,43 @@ class ZaakZoekObjectConverter @Inject constructor(
     private val ztcClientService: ZtcClientService,
     private val zgwApiService: ZgwApiService,
     private val identityService: IdentityService,
-    private val flowableTaskService: FlowableTaskService
+    private val flowableTaskService: FlowableTaskService,
+    private val meter: Meter
 ) : AbstractZoekObjectConverter<ZaakZoekObject>() {
+    private val savedRoundTrips: LongHistogram by lazy {
+        meter.histogramBuilder("zac.indexing.zaak.roundtrips.saved")
+            .setDescription("Lookups found in the conversion batch instead of being loaded, per converted zaak")
+            .setUnit("{request}")
+            .ofLongs()
+            .build()
+    }
+
+    override fun convert(id: String): ZaakZoekObject = convert(id, ConversionBatch())
 
-    override fun convert(id: String): ZaakZoekObject {
+    override fun convert(id: String, batch: ConversionBatch): ZaakZoekObject {
         val zaak = zrcClientService.readZaak(UUID.fromString(id))
-        return convert(zaak)
+        return convert(zaak, batch)
     }
+
+    /**
+     * Counts the open tasks of all zaken of the batch at once.
+     */
+    override fun prepare(ids: List<String>, batch: ConversionBatch) =
+        batch.putAll(
+            OpenTaskCount::class.java,
+            flowableTaskService.countOpenTasksForZaken(ids.map(UUID::fromString))
+                .entries.associate { (zaakUuid, count) -> zaakUuid.toString() to OpenTaskCount(count) }
+        )
+
     override fun supports(objectType: ZoekObjectType) = objectType == ZoekObjectType.ZAAK
 
     @Suppress("LongMethod")
-    private fun convert(zaak: Zaak): ZaakZoekObject {
+    private fun convert(zaak: Zaak, batch: ConversionBatch): ZaakZoekObject {
+        val lookups = CountingLookups(batch)
+        // the roles are needed for the initiator, the betrokkenen, the groep and the behandelaar, but listed only once
+        fun rollen() = lookups.getOrLoad(ZaakRollen::class.java, zaak.uuid.toString()) {
+            ZaakRollen(zrcClientService.listRollen(zaak))
+        }.rollen
         val zaaktype = ztcClientService.readZaaktype(zaak.zaaktype)
         val zaakZoekObject = ZaakZoekObject(
             id = zaak.uuid.toString(),
@@ -66,7 +95,7 @@ class ZaakZoekObjectConverter @Inject constructor(
             // we use the name of this enum in the search index
             vertrouwelijkheidaanduiding = zaak.vertrouwelijkheidaanduiding.name
             isAfgehandeld = !zaak.isOpen()
-            zgwApiService.findInitiatorRoleForZaak(zaak)?.also(::setInitiator)
+            zgwApiService.findInitiatorRoleForZaak(zaak, rollen())?.also(::setInitiator)
             // locatie is not yet supported
             locatie = null
             communicatiekanaal = zaak.communicatiekanaalNaam
@@ -85,14 +114,14 @@ class ZaakZoekObjectConverter @Inject constructor(
             setIndicatie(ZaakIndicatie.DEELZAAK, zaak.isDeelzaak())
             setIndicatie(ZaakIndicatie.HOOFDZAAK, zaak.isHoofdzaak())
         }
-        addBetrokkenen(zaak, zaakZoekObject)
-        findGroup(zaak)?.let {
-            zaakZoekObject.groepID = it.name
-            zaakZoekObject.groepNaam = it.description
+        addBetrokkenen(rollen(), zaakZoekObject)
+        findGroup(zaak, rollen(), lookups)?.let { group ->
+            zaakZoekObject.groepID = group.name
+            zaakZoekObject.groepNaam = group.description
         }
-        findBehandelaar(zaak)?.let {
-            zaakZoekObject.behandelaarNaam = it.getFullName()
-            zaakZoekObject.behandelaarGebruikersnaam = it.id
+        findBehandelaar(zaak, rollen(), lookups)?.let { behandelaar ->
+            zaakZoekObject.behandelaarNaam = behandelaar.getFullName()
+            zaakZoekObject.behandelaarGebruikersnaam = behandelaar.id
             zaakZoekObject.isToegekend = true
         }
         zaak.status?.let {
@@ -104,7 +133,9 @@ class ZaakZoekObjectConverter @Inject constructor(
             zaakZoekObject.isStatusEindstatus = statustype.isEindstatus
             zaakZoekObject.setIndicatie(ZaakIndicatie.HEROPEND, statustype.isHeropend())
         }
-        zaakZoekObject.aantalOpenstaandeTaken = flowableTaskService.countOpenTasksForZaak(zaak.uuid)
+        zaakZoekObject.aantalOpenstaandeTaken = lookups.find(OpenTaskCount::class.java, zaak.uuid.toString())
+            ?.count
+            ?: flowableTaskService.countOpenTasksForZaak(zaak.uuid)
         zaak.resultaat?.let { zaakResultaat ->
             zrcClientService.readResultaat(zaakResultaat).let { resultaat ->
                 ztcClientService.readResultaattype(resultaat.resultaattype).let { resultaattype ->
@@ -114,11 +145,12 @@ class ZaakZoekObjectConverter @Inject constructor(
             }
         }
         zaakZoekObject.bagObjectIDs = getBagObjectIDs(zaak)
+        savedRoundTrips.record(lookups.found)
         return zaakZoekObject
     }
 
-    private fun addBetrokkenen(zaak: Zaak, zaakZoekObject: ZaakZoekObject) {
-        for (role in zrcClientService.listRollen(zaak)) {
+    private fun addBetrokkenen(rollen: List<Rol<*>>, zaakZoekObject: ZaakZoekObject) {
+        for (role in rollen) {
             // It is possible for a role in the ZGW zaakregister to not have an identification number.
             // This can happen when a rol for some reason no longer has an underlying 'identity' object (like a Natuurlijk Persoon etc.).
             // In this case, we treat the rol as an empty 'orphaned' role and ignore it here.
@@ -131,17 +163,17 @@ class ZaakZoekObjectConverter @Inject constructor(
         }
     }
 
-    private fun findBehandelaar(zaak: Zaak): User? =
-        zgwApiService.findBehandelaarMedewerkerRoleForZaak(zaak)
+    private fun findBehandelaar(zaak: Zaak, rollen: List<Rol<*>>, lookups: CountingLookups): User? =
+        zgwApiService.findBehandelaarMedewerkerRoleForZaak(zaak, rollen)
             ?.betrokkeneIdentificatie
             ?.identificatie
-            ?.let(identityService::readUser)
+            ?.let { lookups.getOrLoad(User::class.java, it, identityService::readUser) }
 
-    private fun findGroup(zaak: Zaak): Group? =
-        zgwApiService.findGroepForZaak(zaak)
+    private fun findGroup(zaak: Zaak, rollen: List<Rol<*>>, lookups: CountingLookups): Group? =
+        zgwApiService.findGroepForZaak(zaak, rollen)
             ?.betrokkeneIdentificatie
             ?.identificatie
-            ?.let(identityService::readGroup)
+            ?.let { lookups.getOrLoad(Group::class.java, it, identityService::readGroup) }
 
     private fun getBagObjectIDs(zaak: Zaak): List<String> {
         val zaakobjectListParameters = ZaakobjectListParameters().apply { this.zaak = zaak.url }
@@ -152,3 +184,29 @@ class ZaakZoekObjectConverter @Inject constructor(
             .let { it.ifEmpty { emptyList() } }
     }
 }
+
+/**
+ * Looks up values in a [ConversionBatch] and counts the lookups that were found there instead of being loaded.
+ */
+private class CountingLookups(private val batch: ConversionBatch) {
+    var found = 0L
+        private set
+
+    fun <T : Any> getOrLoad(type: Class<T>, key: String, loader: (String) -> T): T =
+        batch.getOrLoad(type, key, loader).let { (value, shared) ->
+            if (shared) found++
+            value
+        }
+
+    fun <T : Any> find(type: Class<T>, key: String): T? = batch.find(type, key)?.also { found++ }
+}
+
+/**
+ * The roles of a zaak, as listed once for its conversion.
+ */
+private data class ZaakRollen(val rollen: List<Rol<*>>)
+
+/**
+ * The number of open tasks of a zaak, as counted for all zaken of a [ConversionBatch] at once.
+ */
+private data class OpenTaskCount(val count: Long)
@@ -0,0 +1,188 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.queue
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import jakarta.transaction.Transactional.TxType.REQUIRED
+import jakarta.transaction.Transactional.TxType.SUPPORTS
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.search.queue.model.IndexingQueueItem
+import nl.info.zac.search.queue.model.IndexingQueueItem.Companion.CLAIMED_UNTIL_PROPERTY_NAME
+import nl.info.zac.search.queue.model.IndexingQueueItem.Companion.DEAD_LETTERED_AT_PROPERTY_NAME
+import nl.info.zac.search.queue.model.IndexingQueueItem.Companion.ENQUEUED_AT_PROPERTY_NAME
+import nl.info.zac.search.queue.model.IndexingQueueItem.Companion.ID_PROPERTY_NAME
+import nl.info.zac.search.queue.model.IndexingQueueItem.Companion.OBJECT_ID_PROPERTY_NAME
+import nl.info.zac.search.queue.model.IndexingQueueItem.Companion.OBJECT_TYPE_PROPERTY_NAME
+import nl.info.zac.search.queue.model.IndexingQueueItem.Companion.REQUEUED_PROPERTY_NAME
+import nl.info.zac.search.queue.model.IndexingQueueObjectType
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.time.ZonedDateTime
+
+@ApplicationScoped
+@Transactional(SUPPORTS)
+@NoArgConstructor
+@AllOpen
+class IndexingQueueRepository @Inject constructor(
+    private val entityManager: EntityManager
+) {
+    companion object {
+        // Coalesces with an already queued item for the same object. The existing row is only updated when the item
+        // is being indexed right now (so it needs to be indexed once more afterwards) or when the open tasks of a zaak
+        // need to be included, so that a burst of notifications for the same object does not rewrite the row each time.
+        // A dead-lettered item is given a new series of attempts, as the object may have been fixed in the meantime.
+        private val ENQUEUE_SQL = """
+            INSERT INTO $SCHEMA.indexing_queue_item
+                (id_indexing_queue_item, object_type, object_id, include_tasks, enqueued_at)
+            VALUES (nextval('$SCHEMA.sq_indexing_queue_item'), :objectType, :objectId, :includeTasks, now())
+            ON CONFLICT (object_type, object_id) DO UPDATE SET
+                include_tasks = indexing_queue_item.include_tasks OR EXCLUDED.include_tasks,
+                requeued = indexing_queue_item.requeued OR indexing_queue_item.claimed_until IS NOT NULL,
+                attempts = CASE WHEN indexing_queue_item.dead_lettered_at IS NULL THEN indexing_queue_item.attempts ELSE 0 END,
+                enqueued_at = CASE WHEN indexing_queue_item.dead_lettered_at IS NULL THEN indexing_queue_item.enqueued_at ELSE now() END,
+                dead_lettered_at = NULL
+            WHERE (indexing_queue_item.claimed_until IS NOT NULL AND NOT indexing_queue_item.requeued)
+                OR (EXCLUDED.include_tasks AND NOT indexing_queue_item.include_tasks)
+                OR indexing_queue_item.dead_lettered_at IS NOT NULL
+        """.trimIndent()
+
+        // Claims the oldest items that have been in the queue for at least the coalescing window and are not claimed
+        // by another worker (or whose claim has expired). SKIP LOCKED lets multiple nodes drain the queue concurrently.
+        private val CLAIM_SQL = """
+            UPDATE $SCHEMA.indexing_queue_item
+            SET claimed_until = now() + :leaseMillis * INTERVAL '1 millisecond', requeued = FALSE
+            WHERE id_indexing_queue_item IN (
+                SELECT id_indexing_queue_item FROM $SCHEMA.indexing_queue_item
+                WHERE enqueued_at <= now() - :coalescingWindowMillis * INTERVAL '1 millisecond'
+                    AND (claimed_until IS NULL OR claimed_until < now())
+                    AND dead_lettered_at IS NULL
+                ORDER BY enqueued_at
+                LIMIT :maxItems
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING *
+        """.trimIndent()
+
+        // Retries the failed items after a delay that doubles with every failed attempt, up to a maximum delay.
+        // Items that have failed too many times are dead-lettered instead.
+        private val FAIL_SQL = """
+            UPDATE $SCHEMA.indexing_queue_item
+            SET attempts = attempts + 1,
+                claimed_until = CASE WHEN attempts + 1 < :maxAttempts
+                    THEN now() + LEAST(:retryDelayMillis * power(2, attempts), :maxRetryDelayMillis) * INTERVAL '1 millisecond'
+                    END,
+                dead_lettered_at = CASE WHEN attempts + 1 >= :maxAttempts THEN now() END
+            WHERE id_indexing_queue_item IN (:ids)
+        """.trimIndent()
+    }
+
+    @Transactional(REQUIRED)
+    fun enqueue(objectType: IndexingQueueObjectType, objectId: String, includeTasks: Boolean = false) {
+        entityManager.createNativeQuery(ENQUEUE_SQL)
+            .setParameter("objectType", objectType.name)
+            .setParameter("objectId", objectId)
+            .setParameter("includeTasks", includeTasks)
+            .executeUpdate()
+    }
+
+    @Transactional(REQUIRED)
+    @Suppress("UNCHECKED_CAST")
+    fun claim(maxItems: Int, coalescingWindowMillis: Long, leaseMillis: Long): List<IndexingQueueItem> =
+        entityManager.createNativeQuery(CLAIM_SQL, IndexingQueueItem::class.java)
+            .setParameter("leaseMillis", leaseMillis)
+            .setParameter("coalescingWindowMillis", coalescingWindowMillis)
+            .setParameter("maxItems", maxItems)
+            .resultList as List<IndexingQueueItem>
+
+    /**
+     * Removes the given claimed items from the queue, except for items that were enqueued again while they were
+     * being indexed. Those are released and their coalescing window is restarted.
+     */
+    @Transactional(REQUIRED)
+    fun complete(ids: Collection<Long>) {
+        if (ids.isEmpty()) return
+        val builder = entityManager.criteriaBuilder
+        builder.createCriteriaDelete(IndexingQueueItem::class.java).let { delete ->
+            val root = delete.from(IndexingQueueItem::class.java)
+            delete.where(
+                root.get<Long>(ID_PROPERTY_NAME).`in`(ids),
+                builder.isFalse(root.get(REQUEUED_PROPERTY_NAME))
+            )
+            entityManager.createQuery(delete).executeUpdate()
+        }
+        builder.createCriteriaUpdate(IndexingQueueItem::class.java).let { update ->
+            val root = update.from(IndexingQueueItem::class.java)
+            update.set(root.get<ZonedDateTime>(CLAIMED_UNTIL_PROPERTY_NAME), null as ZonedDateTime?)
+                .set(root.get<Boolean>(REQUEUED_PROPERTY_NAME), false)
+                .set(root.get<ZonedDateTime>(ENQUEUED_AT_PROPERTY_NAME), ZonedDateTime.now())
+                .where(root.get<Long>(ID_PROPERTY_NAME).`in`(ids))
+            entityManager.createQuery(update).executeUpdate()
+        }
+    }
+
+    /**
+     * Records a failed attempt to index the given claimed items. They are retried by the first drain after the retry
+     * delay of the attempt, or dead-lettered when they have failed [maxAttempts] times.
+     */
+    @Transactional(REQUIRED)
+    fun fail(ids: Collection<Long>, maxAttempts: Int, retryDelayMillis: Long, maxRetryDelayMillis: Long) {
+        if (ids.isEmpty()) return
+        entityManager.createNativeQuery(FAIL_SQL)
+            .setParameter("maxAttempts", maxAttempts)
+            .setParameter("retryDelayMillis", retryDelayMillis)
+            .setParameter("maxRetryDelayMillis", maxRetryDelayMillis)
+            .setParameter("ids", ids)
+            .executeUpdate()
+    }
+
+    /**
+     * Removes the queued items of the given objects, whether they are claimed or not, e.g. because the objects have
+     * been deleted.
+     */
+    @Transactional(REQUIRED)
+    fun remove(objectType: IndexingQueueObjectType, objectIds: Collection<String>) {
+        if (objectIds.isEmpty()) return
+        val builder = entityManager.criteriaBuilder
+        val delete = builder.createCriteriaDelete(IndexingQueueItem::class.java)
+        val root = delete.from(IndexingQueueItem::class.java)
+        delete.where(
+            builder.equal(root.get<IndexingQueueObjectType>(OBJECT_TYPE_PROPERTY_NAME), objectType),
+            root.get<String>(OBJECT_ID_PROPERTY_NAME).`in`(objectIds)
+        )
+        entityManager.createQuery(delete).executeUpdate()
+    }
+
+    /**
+     * Counts the items that are waiting to be indexed, excluding the dead-lettered items.
+     */
+    fun count(): Long = count(deadLettered = false)
+
+    fun countDeadLettered(): Long = count(deadLettered = true)
+
+    /**
+     * Returns when the oldest item that is waiting to be indexed was enqueued, excluding the dead-lettered items.
+     */
+    fun findOldestEnqueuedAt(): ZonedDateTime? {
+        val builder = entityManager.criteriaBuilder
+        val query = builder.createQuery(ZonedDateTime::class.java)
+        val root = query.from(IndexingQueueItem::class.java)
+        query.select(builder.least(root.get<ZonedDateTime>(ENQUEUED_AT_PROPERTY_NAME)))
+            .where(builder.isNull(root.get<ZonedDateTime>(DEAD_LETTERED_AT_PROPERTY_NAME)))
+        return entityManager.createQuery(query).singleResult
+    }
+
+    private fun count(deadLettered: Boolean): Long {
+        val builder = entityManager.criteriaBuilder
+        val query = builder.createQuery(Long::class.java)
+        val root = query.from(IndexingQueueItem::class.java)
+        val deadLetteredAt = root.get<ZonedDateTime>(DEAD_LETTERED_AT_PROPERTY_NAME)
+        query.select(builder.count(root))
+            .where(if (deadLettered) builder.isNotNull(deadLetteredAt) else builder.isNull(deadLetteredAt))
+        return entityManager.createQuery(query).singleResult ?: 0L
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.queue
+
+import io.opentelemetry.api.metrics.Meter
+import jakarta.annotation.Resource
+import jakarta.enterprise.concurrent.ManagedExecutorService
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.context.Initialized
+import jakarta.enterprise.event.Observes
+import jakarta.inject.Inject
+import jakarta.ws.rs.NotFoundException
+import nl.info.client.zgw.util.extractUuid
+import nl.info.client.zgw.zrc.ZrcClientService
+import nl.info.zac.authentication.LoggedInUserProvider.Companion.systemUser
+import nl.info.zac.search.IndexingService
+import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.search.queue.model.IndexingQueueItem
+import nl.info.zac.search.queue.model.IndexingQueueObjectType
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import org.eclipse.microprofile.config.inject.ConfigProperty
+import java.time.Duration
+import java.time.ZonedDateTime
+import java.util.UUID
+import java.util.concurrent.Callable
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.ReentrantLock
+import java.util.logging.Level
+import java.util.logging.Logger
+import kotlin.concurrent.withLock
+
+/**
+ * Durable, coalescing work queue for (re)indexing objects in the Solr search index.
+ *
+ * Objects are enqueued in the database and indexed in the background, so that callers (like the notification
+ * receiver) do not have to wait for the conversion of the object to a Solr document.
+ * Repeated requests to index the same object within the coalescing window result in the object being indexed once.
+ * The queue is drained periodically in batches, on a bounded number of parallel workers.
+ * A batch that fails is retried item by item, so that an object that cannot be indexed does not hold back the others.
+ * Failed objects are retried with an increasing delay, and set aside as dead letters after too many attempts.
+ */
+@ApplicationScoped
+@NoArgConstructor
+@AllOpen
+@Suppress("LongParameterList")
+class IndexingQueueService @Inject constructor(
+    private val indexingQueueRepository: IndexingQueueRepository,
+    private val indexingService: IndexingService,
+    private val zrcClientService: ZrcClientService,
+    private val meter: Meter,
+
+    @ConfigProperty(name = "INDEXING_QUEUE_COALESCING_WINDOW_MILLIS", defaultValue = "2000")
+    private val coalescingWindowMillis: Long,
+
+    @ConfigProperty(name = "INDEXING_QUEUE_POLL_INTERVAL_MILLIS", defaultValue = "1000")
+    private val pollIntervalMillis: Long,
+
+    @ConfigProperty(name = "INDEXING_QUEUE_BATCH_SIZE", defaultValue = "50")
+    private val batchSize: Int,
+
+    @ConfigProperty(name = "INDEXING_QUEUE_WORKERS", defaultValue = "4")
+    private val workers: Int,
+
+    @ConfigProperty(name = "INDEXING_QUEUE_MAX_ATTEMPTS", defaultValue = "10")
+    private val maxAttempts: Int
+) {
+    companion object {
+        private val LOG = Logger.getLogger(IndexingQueueService::class.java.name)
+
+        // Claimed items whose claim has expired (e.g. because the node that claimed them went down)
+        // are picked up again by the next drain.
+        private val CLAIM_LEASE = Duration.ofMinutes(5)
+        private val RETRY_DELAY = Duration.ofSeconds(30)
+        private val MAX_RETRY_DELAY = Duration.ofHours(1)
+    }
+
+    @Resource
+    lateinit var managedExecutorService: ManagedExecutorService
+
+    @Resource
+    lateinit var managedScheduledExecutorService: ManagedScheduledExecutorService
+
+    private val drainLock = ReentrantLock()
+    private val queueDepth = AtomicLong()
+    private val queueLagMillis = AtomicLong()
+    private val deadLetters = AtomicLong()
+
+    fun onStartup(@Observes @Initialized(ApplicationScoped::class) @Suppress("UNUSED_PARAMETER") event: Any) {
+        registerMetrics()
+        managedScheduledExecutorService.scheduleWithFixedDelay(
+            ::drainLoggingExceptions,
+            pollIntervalMillis,
+            pollIntervalMillis,
+            TimeUnit.MILLISECONDS
+        )
+        LOG.info(
+            "Indexing queue started with a coalescing window of $coalescingWindowMillis ms, " +
+                "a batch size of $batchSize and $workers workers"
+        )
+    }
+
+    fun enqueueZaak(zaakUUID: UUID, inclusiefTaken: Boolean) =
+        indexingQueueRepository.enqueue(IndexingQueueObjectType.ZAAK, zaakUUID.toString(), inclusiefTaken)
+
+    fun enqueueInformatieobject(informatieobjectUUID: UUID) =
+        indexingQueueRepository.enqueue(IndexingQueueObjectType.DOCUMENT, informatieobjectUUID.toString())
+
+    /**
+     * Enqueues the informatieobject of the zaakinformatieobject. The zaakinformatieobject is read from the ZRC when
+     * the queue is drained.
+     */
+    fun enqueueInformatieobjectByZaakinformatieobject(zaakinformatieobjectUUID: UUID) =
+        indexingQueueRepository.enqueue(IndexingQueueObjectType.ZAAKINFORMATIEOBJECT, zaakinformatieobjectUUID.toString())
+
+    /**
+     * Removes a deleted zaak from the queue, so that it is not indexed again after it has been removed from the index.
+     */
+    fun dequeueZaak(zaakUUID: UUID) =
+        indexingQueueRepository.remove(IndexingQueueObjectType.ZAAK, listOf(zaakUUID.toString()))
+
+    /**
+     * Removes a deleted informatieobject from the queue, so that it is not indexed again after it has been removed
+     * from the index.
+     */
+    fun dequeueInformatieobject(informatieobjectUUID: UUID) =
+        indexingQueueRepository.remove(IndexingQueueObjectType.DOCUMENT, listOf(informatieobjectUUID.toString()))
+
+    /**
+     * Indexes all queued objects whose coalescing window has passed.
+     *
+     * @param ignoreCoalescingWindow whether to also index objects that were only just enqueued
+     * @return the number of indexed queue items
+     */
+    fun drain(ignoreCoalescingWindow: Boolean = false): Int = drainLock.withLock {
+        val maxItems = batchSize * workers
+        val windowMillis = if (ignoreCoalescingWindow) 0 else coalescingWindowMillis
+        var drained = 0
+        do {
+            val items = indexingQueueRepository.claim(maxItems, windowMillis, CLAIM_LEASE.toMillis())
+            items.groupBy { it.objectType }
+                .flatMap { (objectType, itemsOfType) -> itemsOfType.chunked(batchSize).map { objectType to it } }
+                .map { (objectType, batch) -> managedExecutorService.submit(Callable { indexBatch(objectType, batch) }) }
+                .forEach { it.get() }
+            drained += items.size
+        } while (items.size == maxItems)
+        updateQueueStatistics()
+        drained
+    }
+
+    private fun indexBatch(objectType: IndexingQueueObjectType, batch: List<IndexingQueueItem>) {
+        try {
+            systemUser.set(true)
+            indexItems(objectType, batch) { exception ->
+                if (batch.size == 1) {
+                    fail(objectType, batch.single(), exception)
+                } else {
+                    LOG.log(
+                        Level.WARNING,
+                        "[$objectType] Failed to index ${batch.size} queued objects. Retrying them one by one.",
+                        exception
+                    )
+                    batch.forEach { item -> indexItems(objectType, listOf(item)) { fail(objectType, item, it) } }
+                }
+            }
+        } finally {
+            systemUser.remove()
+        }
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun indexItems(
+        objectType: IndexingQueueObjectType,
+        items: List<IndexingQueueItem>,
+        onFailure: (RuntimeException) -> Unit
+    ) {
+        try {
+            index(objectType, items)
+            indexingQueueRepository.complete(items.map { it.id })
+        } catch (exception: RuntimeException) {
+            onFailure(exception)
+        }
+    }
+
+    private fun index(objectType: IndexingQueueObjectType, items: List<IndexingQueueItem>) =
+        when (objectType) {
+            IndexingQueueObjectType.ZAAK -> indexingService.addOrUpdateZaken(
+                zaakUUIDs = items.map { UUID.fromString(it.objectId) },
+                inclusiefTakenForZaakUUIDs = items.filter { it.includeTasks }.map { UUID.fromString(it.objectId) }
+            )
+            IndexingQueueObjectType.DOCUMENT -> indexingService.indexeerDirect(
+                items.map { it.objectId },
+                ZoekObjectType.DOCUMENT,
+                false
+            )
+            IndexingQueueObjectType.ZAAKINFORMATIEOBJECT -> items.mapNotNull { findInformatieobjectId(it.objectId) }
+                .takeIf { it.isNotEmpty() }
+                ?.let { indexingService.indexeerDirect(it, ZoekObjectType.DOCUMENT, false) }
+        }
+
+    private fun findInformatieobjectId(zaakinformatieobjectId: String): String? =
+        try {
+            zrcClientService.readZaakinformatieobject(UUID.fromString(zaakinformatieobjectId))
+                .informatieobject.extractUuid().toString()
+        } catch (_: NotFoundException) {
+            // the zaakinformatieobject has been deleted since it was enqueued, so there is nothing left to index
+            LOG.fine { "Skipping queued zaakinformatieobject $zaakinformatieobjectId, because it no longer exists" }
+            null
+        }
+
+    private fun fail(objectType: IndexingQueueObjectType, item: IndexingQueueItem, exception: RuntimeException) {
+        val attempts = item.attempts + 1
+        if (attempts < maxAttempts) {
+            LOG.log(
+                Level.WARNING,
+                "[$objectType] Failed to index queued object ${item.objectId} ($attempts of $maxAttempts attempts). Will retry.",
+                exception
+            )
+        } else {
+            LOG.log(
+                Level.SEVERE,
+                "[$objectType] Failed to index queued object ${item.objectId} after $attempts attempts. " +
+                    "It will not be retried until it is enqueued again.",
+                exception
+            )
+        }
+        indexingQueueRepository.fail(listOf(item.id), maxAttempts, RETRY_DELAY.toMillis(), MAX_RETRY_DELAY.toMillis())
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun drainLoggingExceptions() {
+        try {
+            drain()
+        } catch (exception: Exception) {
+            // never let an exception escape, because that would cancel the scheduled drain
+            LOG.log(Level.WARNING, "Failed to drain the indexing queue", exception)
+        }
+    }
+
+    private fun updateQueueStatistics() {
+        queueDepth.set(indexingQueueRepository.count())
+        deadLetters.set(indexingQueueRepository.countDeadLettered())
+        queueLagMillis.set(
+            indexingQueueRepository.findOldestEnqueuedAt()
+                ?.let { Duration.between(it, ZonedDateTime.now()).toMillis() }
+                ?: 0
+        )
+    }
+
+    private fun registerMetrics() {
+        meter.gaugeBuilder("zac.indexing.queue.depth")
+            .setDescription("Number of objects in the indexing queue")
+            .setUnit("{object}")
+            .ofLongs()
+            .buildWithCallback { it.record(queueDepth.get()) }
+        meter.gaugeBuilder("zac.indexing.queue.lag")
+            .setDescription("Time the oldest object in the indexing queue has been waiting")
+            .setUnit("ms")
+            .ofLongs()
+            .buildWithCallback { it.record(queueLagMillis.get()) }
+        meter.gaugeBuilder("zac.indexing.queue.dead_letters")
+            .setDescription("Number of objects in the indexing queue that failed too many times to be retried")
+            .setUnit("{object}")
+            .ofLongs()
+            .buildWithCallback { it.record(deadLetters.get()) }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.queue.model
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.EnumType
+import jakarta.persistence.Enumerated
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.SequenceGenerator
+import jakarta.persistence.Table
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.time.ZonedDateTime
+
+/**
+ * An object that still needs to be (re)indexed in the Solr search index.
+ * There is at most one item per object type and object id; notifications for an object that is already queued
+ * are coalesced into the existing item.
+ */
+@Entity
+@Table(schema = SCHEMA, name = "indexing_queue_item")
+@SequenceGenerator(
+    schema = SCHEMA,
+    name = "sq_indexing_queue_item",
+    sequenceName = "sq_indexing_queue_item",
+    allocationSize = 1
+)
+@AllOpen
+@NoArgConstructor
+class IndexingQueueItem {
+    companion object {
+        const val ID_PROPERTY_NAME = "id"
+        const val OBJECT_TYPE_PROPERTY_NAME = "objectType"
+        const val OBJECT_ID_PROPERTY_NAME = "objectId"
+        const val ENQUEUED_AT_PROPERTY_NAME = "enqueuedAt"
+        const val CLAIMED_UNTIL_PROPERTY_NAME = "claimedUntil"
+        const val REQUEUED_PROPERTY_NAME = "requeued"
+        const val DEAD_LETTERED_AT_PROPERTY_NAME = "deadLetteredAt"
+    }
+
+    @Id
+    @GeneratedValue(generator = "sq_indexing_queue_item", strategy = GenerationType.SEQUENCE)
+    @Column(name = "id_indexing_queue_item")
+    var id: Long = 0
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "object_type", nullable = false)
+    lateinit var objectType: IndexingQueueObjectType
+
+    @Column(name = "object_id", nullable = false)
+    lateinit var objectId: String
+
+    /**
+     * Only relevant for zaken: whether the open tasks of the zaak need to be reindexed as well.
+     */
+    @Column(name = "include_tasks", nullable = false)
+    var includeTasks: Boolean = false
+
+    @Column(name = "enqueued_at", nullable = false)
+    lateinit var enqueuedAt: ZonedDateTime
+
+    /**
+     * Set while a worker is indexing this item. Items with an expired claim are picked up again,
+     * so that items claimed by a node that crashed are not lost.
+     */
+    @Column(name = "claimed_until")
+    var claimedUntil: ZonedDateTime? = null
+
+    /**
+     * Set when the object was enqueued again while it was claimed, so that it is indexed once more afterwards.
+     */
+    @Column(name = "requeued", nullable = false)
+    var requeued: Boolean = false
+
+    /**
+     * The number of failed attempts to index this item.
+     */
+    @Column(name = "attempts", nullable = false)
+    var attempts: Int = 0
+
+    /**
+     * Set when indexing this item failed too many times. Dead-lettered items are no longer retried, until the object
+     * is enqueued again.
+     */
+    @Column(name = "dead_lettered_at")
+    var deadLetteredAt: ZonedDateTime? = null
+}
@@ -0,0 +1,18 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.queue.model
+
+import nl.info.zac.search.model.zoekobject.ZoekObjectType
+
+/**
+ * The type of an object in the indexing queue, and the type of the object that is indexed for it.
+ * A queued zaakinformatieobject is resolved to its informatieobject when the queue is drained, so that the
+ * notification receiver does not have to read it from the ZRC.
+ */
+enum class IndexingQueueObjectType(val zoekObjectType: ZoekObjectType) {
+    ZAAK(ZoekObjectType.ZAAK),
+    DOCUMENT(ZoekObjectType.DOCUMENT),
+    ZAAKINFORMATIEOBJECT(ZoekObjectType.DOCUMENT)
+}
@@ -0,0 +1,146 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.reindex
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import jakarta.transaction.Transactional.TxType.REQUIRED
+import jakarta.transaction.Transactional.TxType.SUPPORTS
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.search.reindex.model.ReindexCheckpoint
+import nl.info.zac.search.reindex.model.ReindexStatus
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+
+/**
+ * Stores the progress of full reindexing runs and hands out the cluster-wide lease per object type.
+ * All lease times are based on the clock of the database, so that clock differences between nodes do not matter.
+ */
+@ApplicationScoped
+@Transactional(SUPPORTS)
+@NoArgConstructor
+@AllOpen
+class ReindexCheckpointRepository @Inject constructor(
+    private val entityManager: EntityManager
+) {
+    companion object {
+        private val INSERT_IF_ABSENT_SQL = """
+            INSERT INTO $SCHEMA.reindex_checkpoint (object_type, status, started_at, updated_at)
+            VALUES (:objectType, '${ReindexStatus.FINISHED}', now(), now())
+            ON CONFLICT (object_type) DO NOTHING
+        """.trimIndent()
+
+        private val ACQUIRE_LEASE_SQL = """
+            UPDATE $SCHEMA.reindex_checkpoint
+            SET lease_owner = :owner, lease_until = now() + :leaseMillis * INTERVAL '1 millisecond', updated_at = now()
+            WHERE object_type = :objectType
+                AND (lease_until IS NULL OR lease_until < now() OR lease_owner = :owner)
+            RETURNING *
+        """.trimIndent()
+
+        private val START_SQL = """
+            UPDATE $SCHEMA.reindex_checkpoint
+            SET status = '${ReindexStatus.RUNNING}', next_key = NULL, started_at = now(), updated_at = now()
+            WHERE object_type = :objectType AND lease_owner = :owner
+        """.trimIndent()
+
+        private val CHECKPOINT_SQL = """
+            UPDATE $SCHEMA.reindex_checkpoint
+            SET next_key = :nextKey, lease_until = now() + :leaseMillis * INTERVAL '1 millisecond', updated_at = now()
+            WHERE object_type = :objectType AND lease_owner = :owner
+        """.trimIndent()
+
+        private val FINISH_SQL = """
+            UPDATE $SCHEMA.reindex_checkpoint
+            SET status = '${ReindexStatus.FINISHED}', lease_owner = NULL, lease_until = NULL, updated_at = now()
+            WHERE object_type = :objectType AND lease_owner = :owner
+        """.trimIndent()
+
+        private val RELEASE_LEASE_SQL = """
+            UPDATE $SCHEMA.reindex_checkpoint
+            SET lease_owner = NULL, lease_until = NULL, updated_at = now()
+            WHERE object_type = :objectType AND lease_owner = :owner
+        """.trimIndent()
+
+        private val LIST_INTERRUPTED_SQL = """
+            SELECT * FROM $SCHEMA.reindex_checkpoint
+            WHERE status = '${ReindexStatus.RUNNING}' AND (lease_until IS NULL OR lease_until < now())
+        """.trimIndent()
+    }
+
+    /**
+     * Acquires (or renews) the lease on reindexing the given object type.
+     *
+     * @return the current checkpoint, or `null` if another node holds the lease
+     */
+    @Transactional(REQUIRED)
+    fun acquireLease(objectType: ZoekObjectType, owner: String, leaseMillis: Long): ReindexCheckpoint? {
+        entityManager.createNativeQuery(INSERT_IF_ABSENT_SQL)
+            .setParameter("objectType", objectType.name)
+            .executeUpdate()
+        return entityManager.createNativeQuery(ACQUIRE_LEASE_SQL, ReindexCheckpoint::class.java)
+            .setParameter("owner", owner)
+            .setParameter("leaseMillis", leaseMillis)
+            .setParameter("objectType", objectType.name)
+            .resultList
+            .firstOrNull() as ReindexCheckpoint?
+    }
+
+    /**
+     * Marks the start of a new reindexing run from the first object.
+     *
+     * @return `false` if the lease has been lost
+     */
+    @Transactional(REQUIRED)
+    fun start(objectType: ZoekObjectType, owner: String): Boolean =
+        entityManager.createNativeQuery(START_SQL)
+            .setParameter("objectType", objectType.name)
+            .setParameter("owner", owner)
+            .executeUpdate() == 1
+
+    /**
+     * Records that all objects before the key [nextKey] have been written to the search index and renews the lease.
+     *
+     * @return `false` if the lease has been lost
+     */
+    @Transactional(REQUIRED)
+    fun checkpoint(objectType: ZoekObjectType, owner: String, nextKey: String?, leaseMillis: Long): Boolean =
+        entityManager.createNativeQuery(CHECKPOINT_SQL)
+            .setParameter("nextKey", nextKey)
+            .setParameter("leaseMillis", leaseMillis)
+            .setParameter("objectType", objectType.name)
+            .setParameter("owner", owner)
+            .executeUpdate() == 1
+
+    @Transactional(REQUIRED)
+    fun finish(objectType: ZoekObjectType, owner: String) {
+        entityManager.createNativeQuery(FINISH_SQL)
+            .setParameter("objectType", objectType.name)
+            .setParameter("owner", owner)
+            .executeUpdate()
+    }
+
+    /**
+     * Releases the lease without finishing the run, so that it can be resumed later (possibly by another node).
+     */
+    @Transactional(REQUIRED)
+    fun releaseLease(objectType: ZoekObjectType, owner: String) {
+        entityManager.createNativeQuery(RELEASE_LEASE_SQL)
+            .setParameter("objectType", objectType.name)
+            .setParameter("owner", owner)
+            .executeUpdate()
+    }
+
+    /**
+     * Lists the reindexing runs that did not finish and are not being worked on by any node.
+     */
+    @Suppress("UNCHECKED_CAST")
+    fun listInterrupted(): List<ReindexCheckpoint> =
+        entityManager.createNativeQuery(LIST_INTERRUPTED_SQL, ReindexCheckpoint::class.java)
+            .resultList as List<ReindexCheckpoint>
+}
@@ -0,0 +1,580 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.reindex
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.inject.Instance
+import jakarta.inject.Inject
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.asContextElement
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.channels.produce
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import kotlinx.coroutines.withContext
+import net.atos.client.zgw.shared.model.Results
+import net.atos.zac.flowable.task.FlowableTaskService
+import net.atos.zac.solr.SolrDeployerService
+import nl.info.client.zgw.drc.DrcClientService
+import nl.info.client.zgw.drc.model.EnkelvoudigInformatieobjectListParameters
+import nl.info.client.zgw.shared.ZgwApiService
+import nl.info.client.zgw.util.extractUuid
+import nl.info.client.zgw.zrc.ZrcClientService
+import nl.info.client.zgw.zrc.model.ZaakListParameters
+import nl.info.zac.authentication.LoggedInUserProvider.Companion.systemUser
+import nl.info.zac.search.IndexingException
+import nl.info.zac.search.IndexingService
+import nl.info.zac.search.IndexingService.Companion.SOLR_PREVIOUS_CORE
+import nl.info.zac.search.IndexingService.Companion.SOLR_SHADOW_CORE
+import nl.info.zac.search.converter.AbstractZoekObjectConverter
+import nl.info.zac.search.converter.ConversionBatch
+import nl.info.zac.search.model.zoekobject.ZoekObject
+import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.search.reindex.model.ReindexStatus
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import org.eclipse.microprofile.config.inject.ConfigProperty
+import java.time.Duration
+import java.time.LocalDate
+import java.util.Date
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.logging.Level
+import java.util.logging.Logger
+
+/**
+ * Rebuilds the Solr search index for a type of object from the source systems.
+ *
+ * Pages of object ids are fetched ahead of time, the objects of a page are converted concurrently and the
+ * converted objects are written to Solr in large batches. The number of concurrent calls to each backend
+ * (ZRC, DRC and Flowable) is limited separately.
+ * Where the source system supports it, the objects are listed in the order of a key (like the start date of a zaak),
+ * so that objects that are created or deleted during the reindexing do not shift the pages that still have to be
+ * reindexed. After each batch written to Solr a checkpoint with the next key is stored in the database, so that an
+ * interrupted reindexing can be resumed from there. The checkpoint also holds a cluster-wide lease, so that only one
+ * node at a time reindexes a type of object. The lease is renewed periodically while the reindexing runs.
+ *
+ * Alternatively the complete search index can be rebuilt in a shadow Solr core, which is swapped with the
+ * ZAC core once the rebuild is done, so that searching keeps working normally during the rebuild.
+ * There each page is written as soon as it has been converted, and the changes that were made to the search index
+ * during the rebuild are applied once more before the swap.
+ */
+@ApplicationScoped
+@NoArgConstructor
+@AllOpen
+@Suppress("LongParameterList")
+class ReindexingService @Inject constructor(
+    private val converterInstances: Instance<AbstractZoekObjectConverter<out ZoekObject>>,
+    private val indexingService: IndexingService,
+    private val reindexCheckpointRepository: ReindexCheckpointRepository,
+    private val shadowCoreChangeRepository: ShadowCoreChangeRepository,
+    private val zrcClientService: ZrcClientService,
+    private val drcClientService: DrcClientService,
+    private val flowableTaskService: FlowableTaskService,
+    private val solrDeployerService: SolrDeployerService,
+
+    @ConfigProperty(name = "REINDEX_ZRC_CONCURRENCY", defaultValue = "8")
+    zrcConcurrency: Int,
+
+    @ConfigProperty(name = "REINDEX_DRC_CONCURRENCY", defaultValue = "8")
+    drcConcurrency: Int,
+
+    @ConfigProperty(name = "REINDEX_FLOWABLE_CONCURRENCY", defaultValue = "4")
+    flowableConcurrency: Int,
+
+    @ConfigProperty(name = "REINDEX_PREFETCH_PAGES", defaultValue = "3")
+    private val prefetchPages: Int,
+
+    @ConfigProperty(name = "REINDEX_SOLR_BATCH_SIZE", defaultValue = "1000")
+    private val solrBatchSize: Int,
+
+    @ConfigProperty(name = "REINDEX_LEASE_RENEWAL_INTERVAL_MILLIS", defaultValue = "60000")
+    private val leaseRenewalIntervalMillis: Long
+) {
+    companion object {
+        private val LOG = Logger.getLogger(ReindexingService::class.java.name)
+        private const val TAKEN_MAX_RESULTS = 50
+        private val LEASE = Duration.ofMinutes(5)
+        private const val MAX_REAPPLY_ROUNDS = 5
+        private val NODE_ID = "${System.getenv("HOSTNAME") ?: "zac"}-${UUID.randomUUID()}"
+        private val reindexingViewfinder = ConcurrentHashMap.newKeySet<ZoekObjectType>()
+    }
+
+    /**
+     * The position of a page in the listing of the objects to reindex: the page with the given number of the listing
+     * of the objects whose key is at least the given key.
+     */
+    private data class ReindexPosition(val key: String?, val page: Int)
+
+    /**
+     * A page of the ids of the objects to reindex, with the key of its last object.
+     */
+    private class ReindexPage(val ids: List<String>, val lastKey: String?, val last: Boolean)
+
+    /**
+     * The ids of the objects of a page that have not been listed before, and the position of the next page.
+     */
+    private class ListedPage(val ids: List<String>, val next: ReindexPosition)
+
+    /**
+     * @param keyed whether the objects are listed in the ascending order of a key. If not, the objects are listed
+     * by page number only, and an interrupted reindexing cannot be resumed.
+     */
+    private class ReindexSource(
+        val firstPage: Int,
+        val pageSize: Int,
+        val keyed: Boolean,
+        val backend: Semaphore,
+        val count: () -> Int,
+        val listPage: (position: ReindexPosition) -> ReindexPage
+    ) {
+        val start = ReindexPosition(null, firstPage)
+
+        /**
+         * Moves on to the objects with the key of the last object of the page, if the page ends with a new key.
+         * The objects of the page with that key are listed again then, and need to be skipped.
+         */
+        fun next(position: ReindexPosition, page: ReindexPage) =
+            if (keyed && page.lastKey != null && page.lastKey != position.key) {
+                ReindexPosition(page.lastKey, firstPage)
+            } else {
+                position.copy(page = position.page + 1)
+            }
+
+        fun lastPage(count: Int) = firstPage + (count - 1).coerceAtLeast(0) / pageSize
+    }
+
+    private val zrcPermits = Semaphore(zrcConcurrency)
+    private val drcPermits = Semaphore(drcConcurrency)
+    private val flowablePermits = Semaphore(flowableConcurrency)
+
+    /**
+     * Reindexes all objects of the given type.
+     *
+     * @param objectType the type of objects to reindex
+     * @param resume whether to resume an interrupted reindexing of this type from its last checkpoint, if there is one,
+     * instead of starting over. Object types that cannot be listed in the order of a key are always started over.
+     */
+    @Suppress("TooGenericExceptionCaught", "ReturnCount")
+    fun reindex(objectType: ZoekObjectType, resume: Boolean = false) {
+        if (!reindexingViewfinder.add(objectType)) {
+            LOG.warning("[$objectType] Reindexing not started, still in progress")
+            return
+        }
+        try {
+            val checkpoint = reindexCheckpointRepository.acquireLease(objectType, NODE_ID, LEASE.toMillis())
+            if (checkpoint == null) {
+                LOG.warning("[$objectType] Reindexing not started, in progress on another node")
+                return
+            }
+            val source = sourceFor(objectType)
+            val start = if (resume && source.keyed && checkpoint.status == ReindexStatus.RUNNING) {
+                LOG.info("[$objectType] Reindexing resumed from key ${checkpoint.nextKey}")
+                ReindexPosition(checkpoint.nextKey, source.firstPage)
+            } else {
+                LOG.info("[$objectType] Reindexing started")
+                reindexCheckpointRepository.start(objectType, NODE_ID)
+                indexingService.removeEntitiesFromSolrIndex(objectType)
+                source.start
+            }
+            val count = continueOnExceptions(objectType) { source.count() }
+            if (count == null) {
+                LOG.warning("[$objectType] Cannot find the number of objects. Aborting reindexing")
+                return
+            }
+            val finished = reindexPages(
+                objectType = objectType,
+                source = source,
+                start = start,
+                count = count,
+                batchSize = solrBatchSize,
+                write = { indexingService.addToSolrIndex(it, false) },
+                checkpoint = { next ->
+                    reindexCheckpointRepository.checkpoint(objectType, NODE_ID, next.key, LEASE.toMillis())
+                },
+                renewLease = { reindexCheckpointRepository.acquireLease(objectType, NODE_ID, LEASE.toMillis()) != null }
+            )
+            if (finished) {
+                reindexCheckpointRepository.finish(objectType, NODE_ID)
+                LOG.info("[$objectType] Reindexing finished")
+            }
+        } catch (exception: RuntimeException) {
+            LOG.log(Level.WARNING, "[$objectType] Reindexing interrupted. It can be resumed from the last checkpoint.", exception)
+        } finally {
+            // a no-op if the reindexing has finished
+            reindexCheckpointRepository.releaseLease(objectType, NODE_ID)
+            reindexingViewfinder.remove(objectType)
+        }
+    }
+
+    /**
+     * Rebuilds the search index for all types of objects in a shadow Solr core and then swaps it with the ZAC core.
+     * The replaced core is kept, so that the swap can be rolled back with [rollBackToPreviousCore].
+     *
+     * While the rebuild runs, changes to the search index are applied to both cores (see [IndexingService]).
+     * A page of objects that was converted before such a change can still be written to the shadow core after it,
+     * so the changed objects are recorded and written (or removed) once more just before the swap.
+     * Unlike [reindex], an interrupted rebuild cannot be resumed. It has to be started over.
+     */
+    @Suppress("TooGenericExceptionCaught", "ReturnCount")
+    fun rebuildInShadowCore() {
+        val objectTypes = ZoekObjectType.entries
+        val claimedObjectTypes = objectTypes.filter { reindexingViewfinder.add(it) }
+        if (claimedObjectTypes.size < objectTypes.size) {
+            reindexingViewfinder.removeAll(claimedObjectTypes.toSet())
+            LOG.warning("Rebuilding the search index not started, reindexing still in progress")
+            return
+        }
+        try {
+            if (!acquireLeases(objectTypes)) {
+                LOG.warning("Rebuilding the search index not started, reindexing in progress on another node")
+                return
+            }
+            LOG.info("Rebuilding the search index in Solr core '$SOLR_SHADOW_CORE' started")
+            shadowCoreChangeRepository.clear()
+            solrDeployerService.createShadowCore()
+            indexingService.setShadowCoreExists(true)
+            objectTypes.forEach { objectType ->
+                val source = sourceFor(objectType)
+                val count = continueOnExceptions(objectType) { source.count() }
+                    ?: throw IndexingException("[$objectType] Cannot find the number of objects")
+                val finished = reindexPages(
+                    objectType = objectType,
+                    source = source,
+                    start = source.start,
+                    count = count,
+                    // written per page, so that a page is not written long after the changes mirrored in the meantime
+                    batchSize = 1,
+                    write = indexingService::addToShadowSolrIndex,
+                    checkpoint = { acquireLeases(objectTypes) },
+                    renewLease = { acquireLeases(objectTypes) }
+                )
+                if (!finished) {
+                    throw IndexingException("[$objectType] Lost the reindexing lease to another node")
+                }
+            }
+            reapplyMirroredChanges()
+            indexingService.commitShadowCore()
+            solrDeployerService.swapShadowCore()
+            indexingService.setShadowCoreExists(false)
+            objectTypes.forEach { reindexCheckpointRepository.finish(it, NODE_ID) }
+            LOG.info("Rebuilding the search index finished. The previous index is kept in Solr core '$SOLR_PREVIOUS_CORE'")
+        } catch (exception: RuntimeException) {
+            LOG.log(Level.WARNING, "Rebuilding the search index failed", exception)
+            continueOnExceptions(null) { solrDeployerService.dropShadowCore() }
+            indexingService.setShadowCoreExists(false)
+        } finally {
+            continueOnExceptions(null) { shadowCoreChangeRepository.clear() }
+            objectTypes.forEach { reindexCheckpointRepository.releaseLease(it, NODE_ID) }
+            reindexingViewfinder.removeAll(objectTypes.toSet())
+        }
+    }
+
+    /**
+     * Writes the objects that were changed in the search index during the rebuild to the shadow core once more, and
+     * removes the objects that were removed from it, because a page of these objects that was converted before the
+     * change may have been written to the shadow core after it.
+     * Changes that are made in the meantime are recorded again and applied in the next round.
+     */
+    private fun reapplyMirroredChanges() {
+        repeat(MAX_REAPPLY_ROUNDS) {
+            val changes = shadowCoreChangeRepository.list()
+            if (changes.isEmpty()) {
+                return
+            }
+            LOG.info("Applying ${changes.size} changes made during the rebuild to Solr core '$SOLR_SHADOW_CORE' once more")
+            indexingService.removeFromShadowSolrIndex(changes.filter { it.deleted }.map { it.objectId })
+            changes.filterNot { it.deleted }
+                .mapNotNull { change -> change.objectType?.let { it to change.objectId } }
+                .groupBy({ it.first }, { it.second })
+                .forEach { (objectType, ids) ->
+                    val converter = getConverter(objectType)
+                    val batch = ConversionBatch()
+                    continueOnExceptions(objectType) { converter.prepare(ids, batch) }
+                    indexingService.addToShadowSolrIndex(
+                        ids.mapNotNull { id -> continueOnExceptions(objectType) { converter.convert(id, batch) } }
+                    )
+                }
+            shadowCoreChangeRepository.remove(changes)
+        }
+        LOG.warning(
+            "The search index still changed after applying the changes $MAX_REAPPLY_ROUNDS times. " +
+                "The last changes have only been mirrored to Solr core '$SOLR_SHADOW_CORE'"
+        )
+    }
+
+    /**
+     * Swaps the Solr core that was replaced by the last [rebuildInShadowCore] back with the ZAC core.
+     *
+     * @return `false` if there is no previous core to roll back to
+     */
+    fun rollBackToPreviousCore() = solrDeployerService.rollBackToPreviousCore()
+
+    /**
+     * Removes a shadow core that was left behind by a rebuild that was interrupted (e.g. because the node running it
+     * was stopped), so that changes to the search index are no longer applied to it.
+     * Meant to be called at startup, before any reindexing is started on this node.
+     */
+    fun dropAbandonedShadowCore() {
+        if (!solrDeployerService.shadowCoreExists()) {
+            return
+        }
+        val objectTypes = ZoekObjectType.entries
+        try {
+            if (acquireLeases(objectTypes)) {
+                LOG.info("Removing abandoned Solr core '$SOLR_SHADOW_CORE'")
+                solrDeployerService.dropShadowCore()
+            }
+        } finally {
+            objectTypes.forEach { reindexCheckpointRepository.releaseLease(it, NODE_ID) }
+        }
+    }
+
+    /**
+     * Lists the object types of which the reindexing was interrupted (e.g. because the node running it was stopped)
+     * and which are not being reindexed by any other node.
+     */
+    fun listInterruptedReindexing(): List<ZoekObjectType> =
+        reindexCheckpointRepository.listInterrupted().map { it.objectType }
+
+    /**
+     * Acquires (or renews) the leases on reindexing all given object types.
+     */
+    private fun acquireLeases(objectTypes: List<ZoekObjectType>) =
+        objectTypes.all { reindexCheckpointRepository.acquireLease(it, NODE_ID, LEASE.toMillis()) != null }
+
+    /**
+     * @param count the number of objects, used to report the progress and as a limit for sources that are not keyed
+     * @param batchSize the minimum number of converted objects to write to Solr at once
+     * @param write writes a batch of converted objects to Solr
+     * @param checkpoint records that all objects before the given position have been written to Solr, renews the
+     * lease on reindexing and returns `false` if the lease was lost to another node
+     * @param renewLease renews the lease on reindexing while a batch is being reindexed, and returns `false` if the lease
+     * was lost to another node
+     * @return `false` if the lease on reindexing was lost to another node
+     */
+    @Suppress("LongParameterList")
+    private fun reindexPages(
+        objectType: ZoekObjectType,
+        source: ReindexSource,
+        start: ReindexPosition,
+        count: Int,
+        batchSize: Int,
+        write: (List<ZoekObject>) -> Unit,
+        checkpoint: (next: ReindexPosition) -> Boolean,
+        renewLease: () -> Boolean
+    ) =
+        runBlocking(systemUser.asContextElement(true)) {
+            // The lease is renewed from the calling (container managed) thread, like the checkpoints are written.
+            // That thread is free while the objects are fetched, converted and written on the IO dispatcher.
+            val leaseLost = AtomicBoolean(false)
+            val heartbeat = launch {
+                while (!leaseLost.get()) {
+                    delay(leaseRenewalIntervalMillis)
+                    if (!renewLease()) leaseLost.set(true)
+                }
+            }
+            try {
+                val converter = getConverter(objectType)
+                val pages = listPages(objectType, source, start, count)
+                val zoekObjecten = mutableListOf<ZoekObject>()
+                var reindexed = 0
+                var next = start
+                for (page in pages) {
+                    zoekObjecten += convert(objectType, converter, source, page.ids)
+                    reindexed += page.ids.size
+                    next = page.next
+                    if (zoekObjecten.size >= batchSize) {
+                        if (!writeBatch(objectType, zoekObjecten, write, checkpoint, next, leaseLost)) {
+                            pages.cancel()
+                            return@runBlocking false
+                        }
+                        LOG.info("[$objectType] Reindexed: $reindexed / $count objects")
+                    }
+                }
+                writeBatch(objectType, zoekObjecten, write, checkpoint, next, leaseLost).also {
+                    if (it) LOG.info("[$objectType] Reindexed: $reindexed / $count objects")
+                }
+            } finally {
+                heartbeat.cancel()
+            }
+        }
+
+    /**
+     * Lists the pages of the objects to reindex, ahead of time, starting at the given position.
+     * When a page of a keyed source cannot be fetched, the reindexing is aborted, so that it can be resumed from the
+     * last checkpoint. Otherwise the page is skipped.
+     */
+    private fun CoroutineScope.listPages(
+        objectType: ZoekObjectType,
+        source: ReindexSource,
+        start: ReindexPosition,
+        count: Int
+    ) =
+        produce(Dispatchers.IO, capacity = prefetchPages) {
+            val lastPage = source.lastPage(count)
+            var position = start
+            var listedIds = emptySet<String>()
+            while (true) {
+                val page = source.backend.withPermit { continueOnExceptions(objectType) { source.listPage(position) } }
+                if (page == null) {
+                    if (source.keyed) {
+                        throw IndexingException("[$objectType] Cannot fetch the objects at $position")
+                    }
+                    LOG.warning("[$objectType] Cannot fetch page ${position.page}. Skipping it")
+                    if (position.page >= lastPage) break
+                    position = position.copy(page = position.page + 1)
+                    listedIds = emptySet()
+                    continue
+                }
+                val next = source.next(position, page)
+                send(ListedPage(page.ids.filterNot { it in listedIds }, next))
+                if (page.last || page.ids.isEmpty()) break
+                listedIds = page.ids.toSet()
+                position = next
+            }
+        }
+
+    private suspend fun convert(
+        objectType: ZoekObjectType,
+        converter: AbstractZoekObjectConverter<out ZoekObject>,
+        source: ReindexSource,
+        ids: List<String>
+    ): List<ZoekObject> = coroutineScope {
+        // lookups are shared between the objects of a page
+        val batch = ConversionBatch()
+        if (ids.isNotEmpty()) {
+            withContext(Dispatchers.IO) { continueOnExceptions(objectType) { converter.prepare(ids, batch) } }
+        }
+        ids.map { id ->
+            async(Dispatchers.IO) {
+                source.backend.withPermit { continueOnExceptions(objectType) { converter.convert(id, batch) } }
+            }
+        }.awaitAll().filterNotNull()
+    }
+
+    /**
+     * Writes the converted objects to Solr and records the checkpoint.
+     *
+     * @return `false` if the lease on reindexing was lost to another node
+     */
+    @Suppress("LongParameterList")
+    private suspend fun writeBatch(
+        objectType: ZoekObjectType,
+        zoekObjecten: MutableList<ZoekObject>,
+        write: (List<ZoekObject>) -> Unit,
+        checkpoint: (next: ReindexPosition) -> Boolean,
+        next: ReindexPosition,
+        leaseLost: AtomicBoolean
+    ): Boolean {
+        if (leaseLost.get()) {
+            LOG.warning("[$objectType] Lost the reindexing lease to another node. Aborting reindexing")
+            return false
+        }
+        if (zoekObjecten.isNotEmpty()) {
+            withContext(Dispatchers.IO) { continueOnExceptions(objectType) { write(zoekObjecten.toList()) } }
+            zoekObjecten.clear()
+        }
+        // checkpoints are written from the calling (container managed) thread
+        if (!checkpoint(next)) {
+            LOG.warning("[$objectType] Lost the reindexing lease to another node. Aborting reindexing")
+            return false
+        }
+        return true
+    }
+
+    private fun sourceFor(objectType: ZoekObjectType) =
+        when (objectType) {
+            ZoekObjectType.ZAAK -> ReindexSource(
+                firstPage = ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS,
+                pageSize = Results.NUM_ITEMS_PER_PAGE.toInt(),
+                keyed = true,
+                backend = zrcPermits,
+                count = { listZaakUuids(ReindexPosition(null, ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS)).count() },
+                listPage = { position ->
+                    listZaakUuids(position).let { zaken ->
+                        ReindexPage(
+                            ids = zaken.results().map { it.uuid.toString() },
+                            lastKey = zaken.results().lastOrNull()?.startdatum?.toString(),
+                            last = zaken.next() == null
+                        )
+                    }
+                }
+            )
+            // the DRC cannot list informatieobjecten in the order of a key
+            ZoekObjectType.DOCUMENT -> ReindexSource(
+                firstPage = ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS,
+                pageSize = Results.NUM_ITEMS_PER_PAGE.toInt(),
+                keyed = false,
+                backend = drcPermits,
+                count = { listInformatieobjecten(ZgwApiService.FIRST_PAGE_NUMBER_ZGW_APIS).count() },
+                listPage = { position ->
+                    listInformatieobjecten(position.page).let { informatieobjecten ->
+                        ReindexPage(
+                            ids = informatieobjecten.results().map { it.url.extractUuid().toString() },
+                            lastKey = null,
+                            last = informatieobjecten.next() == null
+                        )
+                    }
+                }
+            )
+            ZoekObjectType.TAAK -> ReindexSource(
+                firstPage = 0,
+                pageSize = TAKEN_MAX_RESULTS,
+                keyed = true,
+                backend = flowablePermits,
+                count = { flowableTaskService.countOpenTasks().toInt() },
+                listPage = { position ->
+                    flowableTaskService.listOpenTasksCreatedSince(
+                        position.key?.let { Date(it.toLong()) },
+                        position.page * TAKEN_MAX_RESULTS,
+                        TAKEN_MAX_RESULTS
+                    ).let { tasks ->
+                        ReindexPage(
+                            ids = tasks.map { it.id },
+                            lastKey = tasks.lastOrNull()?.createTime?.time?.toString(),
+                            last = tasks.size < TAKEN_MAX_RESULTS
+                        )
+                    }
+                }
+            )
+        }
+
+    /**
+     * Lists the zaken in the order of their start date, which is not affected by new zaken as long as they start today.
+     */
+    private fun listZaakUuids(position: ReindexPosition) =
+        zrcClientService.listZakenUuids(
+            ZaakListParameters().apply {
+                ordering = "startdatum,identificatie"
+                startdatumGreaterThanOrEqual = position.key?.let(LocalDate::parse)
+                page = position.page
+            }
+        )
+
+    private fun listInformatieobjecten(pageNumber: Int) =
+        drcClientService.listEnkelvoudigInformatieObjecten(
+            EnkelvoudigInformatieobjectListParameters().apply { page = pageNumber }
+        )
+
+    private fun getConverter(objectType: ZoekObjectType): AbstractZoekObjectConverter<out ZoekObject> =
+        converterInstances.first { it.supports(objectType) }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun <T> continueOnExceptions(objectType: ZoekObjectType?, fn: () -> T): T? =
+        try {
+            fn()
+        } catch (exception: Exception) {
+            LOG.log(Level.WARNING, "[${objectType ?: "ALL"}] Error during reindexing", exception)
+            null
+        }
+}
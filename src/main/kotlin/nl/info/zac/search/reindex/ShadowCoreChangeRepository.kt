@@ -0,0 +1,94 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.reindex
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import jakarta.transaction.Transactional.TxType.REQUIRED
+import jakarta.transaction.Transactional.TxType.REQUIRES_NEW
+import jakarta.transaction.Transactional.TxType.SUPPORTS
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.search.reindex.model.ShadowCoreChange
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+
+/**
+ * Records, cluster-wide, which objects were changed in the search index while it was being rebuilt in the shadow core.
+ * The times of the changes are based on the clock of the database, so that clock differences between nodes do not
+ * matter.
+ */
+@ApplicationScoped
+@Transactional(SUPPORTS)
+@NoArgConstructor
+@AllOpen
+class ShadowCoreChangeRepository @Inject constructor(
+    private val entityManager: EntityManager
+) {
+    companion object {
+        private val RECORD_SQL = """
+            INSERT INTO $SCHEMA.shadow_core_change (object_id, object_type, deleted, changed_at)
+            VALUES (:objectId, CAST(:objectType AS VARCHAR), :deleted, clock_timestamp())
+            ON CONFLICT (object_id) DO UPDATE
+            SET object_type = COALESCE(EXCLUDED.object_type, shadow_core_change.object_type),
+                deleted = EXCLUDED.deleted,
+                changed_at = EXCLUDED.changed_at
+        """.trimIndent()
+
+        private val LIST_SQL = "SELECT * FROM $SCHEMA.shadow_core_change ORDER BY changed_at"
+
+        private val REMOVE_SQL = """
+            DELETE FROM $SCHEMA.shadow_core_change WHERE object_id = :objectId AND changed_at <= :changedAt
+        """.trimIndent()
+
+        private val CLEAR_SQL = "DELETE FROM $SCHEMA.shadow_core_change"
+    }
+
+    /**
+     * Records that the given objects were added to or updated in the search index.
+     * Recorded in a transaction of its own, so that the rebuild sees the change as soon as it has been made.
+     */
+    @Transactional(REQUIRES_NEW)
+    fun recordUpdate(objectType: ZoekObjectType, objectIds: List<String>) = record(objectType, objectIds, false)
+
+    /**
+     * Records that the objects with the given ids were removed from the search index.
+     */
+    @Transactional(REQUIRES_NEW)
+    fun recordDeletion(objectIds: List<String>) = record(null, objectIds, true)
+
+    @Suppress("UNCHECKED_CAST")
+    fun list(): List<ShadowCoreChange> =
+        entityManager.createNativeQuery(LIST_SQL, ShadowCoreChange::class.java)
+            .resultList as List<ShadowCoreChange>
+
+    /**
+     * Removes the given changes, unless an object has been changed again since.
+     */
+    @Transactional(REQUIRED)
+    fun remove(changes: List<ShadowCoreChange>) =
+        changes.forEach { change ->
+            entityManager.createNativeQuery(REMOVE_SQL)
+                .setParameter("objectId", change.objectId)
+                .setParameter("changedAt", change.changedAt)
+                .executeUpdate()
+        }
+
+    @Transactional(REQUIRED)
+    fun clear() {
+        entityManager.createNativeQuery(CLEAR_SQL).executeUpdate()
+    }
+
+    private fun record(objectType: ZoekObjectType?, objectIds: List<String>, deleted: Boolean) =
+        objectIds.distinct().forEach { objectId ->
+            entityManager.createNativeQuery(RECORD_SQL)
+                .setParameter("objectId", objectId)
+                .setParameter("objectType", objectType?.name)
+                .setParameter("deleted", deleted)
+                .executeUpdate()
+        }
+}
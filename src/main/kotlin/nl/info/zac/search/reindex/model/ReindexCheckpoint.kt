@@ -0,0 +1,55 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.reindex.model
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.EnumType
+import jakarta.persistence.Enumerated
+import jakarta.persistence.Id
+import jakarta.persistence.Table
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.time.ZonedDateTime
+
+/**
+ * Progress of the full reindexing of one type of object.
+ * The lease columns make sure that only one node in the cluster reindexes a type of object at a time.
+ */
+@Entity
+@Table(schema = SCHEMA, name = "reindex_checkpoint")
+@AllOpen
+@NoArgConstructor
+class ReindexCheckpoint {
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "object_type", nullable = false)
+    lateinit var objectType: ZoekObjectType
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    lateinit var status: ReindexStatus
+
+    /**
+     * The key of the first object that has not been written to the search index yet, if the objects of this type are
+     * reindexed in the order of a key. Objects with this key may have been written already.
+     */
+    @Column(name = "next_key")
+    var nextKey: String? = null
+
+    @Column(name = "lease_owner")
+    var leaseOwner: String? = null
+
+    @Column(name = "lease_until")
+    var leaseUntil: ZonedDateTime? = null
+
+    @Column(name = "started_at", nullable = false)
+    lateinit var startedAt: ZonedDateTime
+
+    @Column(name = "updated_at", nullable = false)
+    lateinit var updatedAt: ZonedDateTime
+}
@@ -0,0 +1,10 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.reindex.model
+
+enum class ReindexStatus {
+    RUNNING,
+    FINISHED
+}
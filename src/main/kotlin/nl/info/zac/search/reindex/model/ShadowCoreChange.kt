@@ -0,0 +1,43 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.reindex.model
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.EnumType
+import jakarta.persistence.Enumerated
+import jakarta.persistence.Id
+import jakarta.persistence.Table
+import nl.info.zac.database.flyway.FlywayIntegrator.Companion.SCHEMA
+import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.time.ZonedDateTime
+
+/**
+ * The last change to an object in the search index while the search index was being rebuilt in the shadow core.
+ */
+@Entity
+@Table(schema = SCHEMA, name = "shadow_core_change")
+@AllOpen
+@NoArgConstructor
+class ShadowCoreChange {
+    @Id
+    @Column(name = "object_id", nullable = false)
+    lateinit var objectId: String
+
+    /**
+     * The type of the object, which is not known when the object was removed from the search index.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "object_type")
+    var objectType: ZoekObjectType? = null
+
+    @Column(name = "deleted", nullable = false)
+    var deleted: Boolean = false
+
+    @Column(name = "changed_at", nullable = false)
+    lateinit var changedAt: ZonedDateTime
+}
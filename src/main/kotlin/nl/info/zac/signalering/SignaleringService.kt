@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2022 Atos, 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2022 Atos, 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.signalering
@@ -16,9 +16,12 @@ import kotlinx.coroutines.async
 import kotlinx.coroutines.awaitAll
 import kotlinx.coroutines.runBlocking
 import net.atos.zac.event.EventingService
+import net.atos.zac.flowable.ZaakVariabelenService.Companion.VAR_ZAAKTYPE_OMSCHRIJVING
+import net.atos.zac.flowable.ZaakVariabelenService.Companion.VAR_ZAAK_IDENTIFICATIE
 import net.atos.zac.flowable.task.FlowableTaskService
 import net.atos.zac.flowable.task.TaakVariabelenService.readZaakUUID
 import net.atos.zac.signalering.model.Signalering
+import net.atos.zac.signalering.model.SignaleringDetail
 import net.atos.zac.signalering.model.SignaleringInstellingen
 import net.atos.zac.signalering.model.SignaleringInstellingenZoekParameters
 import net.atos.zac.signalering.model.SignaleringSubject
@@ -359,6 +362,29 @@ class SignaleringService @Inject constructor(
             .resultList
     }
 
+    /**
+     * Lists which of the given users have mail enabled for the given signalering type, reading the instellingen of all
+     * of them with a single query. Users without instellingen for the type do not get mail.
+     */
+    fun listUsersWithMailEnabled(type: SignaleringType.Type, users: Collection<String>): Set<String> {
+        if (users.isEmpty()) {
+            return emptySet()
+        }
+        val builder = entityManager.criteriaBuilder
+        val query = builder.createQuery(String::class.java)
+        val root = query.from(SignaleringInstellingen::class.java)
+        return entityManager.createQuery(
+            query.select(root.get<String>("medewerker")).where(
+                getSignaleringInstellingenWhere(
+                    SignaleringInstellingenZoekParameters(SignaleringTarget.USER, null).type(type).mail(),
+                    builder,
+                    root
+                ),
+                root.get<Any>("medewerker").`in`(users)
+            )
+        ).resultList.toSet()
+    }
+
     fun listInstellingenInclusiefMogelijke(
         parameters: SignaleringInstellingenZoekParameters
     ): List<SignaleringInstellingen> {
@@ -396,6 +422,68 @@ class SignaleringService @Inject constructor(
         return result.firstOrNull()
     }
 
+    /**
+     * Lists the 'signalering verzonden' records of users for the given type and detail and any of the given subjects,
+     * so that the records of a whole batch of subjects are read with a single query.
+     */
+    fun listSignaleringenVerzonden(
+        type: SignaleringType.Type,
+        detail: SignaleringDetail,
+        subjects: Collection<String>
+    ): List<SignaleringVerzonden> {
+        if (subjects.isEmpty()) {
+            return emptyList()
+        }
+        val builder = entityManager.criteriaBuilder
+        val query = builder.createQuery(SignaleringVerzonden::class.java)
+        val root = query.from(SignaleringVerzonden::class.java)
+        return entityManager.createQuery(
+            query.select(root).where(
+                getSignaleringVerzondenWhere(userSignaleringVerzondenParameters(type, detail), builder, root),
+                root.get<Any>("subject").`in`(subjects)
+            )
+        ).resultList
+    }
+
+    /**
+     * Deletes the 'signalering verzonden' records of users for the given type and detail and any of the given subjects
+     * with a single delete statement.
+     *
+     * @return the number of deleted records
+     */
+    @Transactional(REQUIRED)
+    fun deleteSignaleringenVerzonden(
+        type: SignaleringType.Type,
+        detail: SignaleringDetail,
+        subjects: Collection<String>
+    ): Int {
+        if (subjects.isEmpty()) {
+            return 0
+        }
+        val builder = entityManager.criteriaBuilder
+        val query = builder.createCriteriaDelete(SignaleringVerzonden::class.java)
+        val root = query.from(SignaleringVerzonden::class.java)
+        query.where(
+            getSignaleringVerzondenWhere(userSignaleringVerzondenParameters(type, detail), builder, root),
+            root.get<Any>("subject").`in`(subjects)
+        )
+        return entityManager.createQuery(query).executeUpdate()
+    }
+
+    /**
+     * Sends the mails of the given signaleringen and registers them as sent, flushing the
+     * 'signalering verzonden' records of the whole batch at once.
+     */
+    @Transactional(REQUIRED)
+    fun sendSignaleringen(signaleringen: List<Signalering>) {
+        signaleringen.forEach(::sendSignalering)
+        signaleringen.map(::signaleringVerzondenInstance).forEach {
+            ValidationUtil.validateObject(it)
+            entityManager.persist(it)
+        }
+        entityManager.flush()
+    }
+
     /**
      * Lists a page of zaken signaleringen for the given signaleringsType.
      *
@@ -503,7 +591,13 @@ class SignaleringService @Inject constructor(
                 LOG.fine { "Listing taken signaleringen of type '$signaleringsType' ..." }
                 listSignaleringen(it)
             }
-            .map { flowableTaskService.readTask(it.subject) }
+            .let { signaleringen ->
+                flowableTaskService.listTasks(
+                    signaleringen.map { it.subject },
+                    listOf(VAR_ZAAK_IDENTIFICATIE, VAR_ZAAKTYPE_OMSCHRIJVING),
+                    false
+                )
+            }
             .map { it.toRestSignaleringTaakSummary() }
             .also {
                 LOG.fine { "Successfully listed taken signaleringen of type '$signaleringsType'." }
@@ -548,6 +642,9 @@ class SignaleringService @Inject constructor(
             }
         }
 
+    private fun userSignaleringVerzondenParameters(type: SignaleringType.Type, detail: SignaleringDetail) =
+        SignaleringVerzondenZoekParameters(SignaleringTarget.USER, null).types(type).detail(detail)
+
     private fun signaleringTypeInstance(signaleringsType: SignaleringType.Type): SignaleringType =
         entityManager.find(SignaleringType::class.java, signaleringsType.toString())
 }
@@ -6,15 +6,10 @@ package nl.info.zac.signalering
 
 import jakarta.enterprise.context.ApplicationScoped
 import jakarta.inject.Inject
-import jakarta.transaction.Transactional
 import net.atos.zac.flowable.task.FlowableTaskService
-import net.atos.zac.gebruikersvoorkeuren.model.TabelInstellingen
 import net.atos.zac.signalering.model.Signalering
 import net.atos.zac.signalering.model.SignaleringDetail
-import net.atos.zac.signalering.model.SignaleringTarget
 import net.atos.zac.signalering.model.SignaleringType
-import net.atos.zac.signalering.model.SignaleringVerzendInfo
-import net.atos.zac.signalering.model.SignaleringVerzondenZoekParameters
 import nl.info.client.zgw.util.extractUuid
 import nl.info.client.zgw.zrc.model.generated.Zaak
 import nl.info.client.zgw.ztc.ZtcClientService
@@ -29,15 +24,24 @@ import nl.info.zac.search.model.FilterWaarde
 import nl.info.zac.search.model.ZoekParameters
 import nl.info.zac.search.model.zoekobject.ZaakZoekObject
 import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.signalering.model.DueDateEmailNotificationReport
 import nl.info.zac.util.AllOpen
 import nl.info.zac.util.NoArgConstructor
 import org.flowable.task.api.Task
+import java.time.Duration
 import java.time.LocalDate
 import java.util.UUID
 import java.util.logging.Logger
 
+/**
+ * Sends email notifications to the behandelaars of zaken that approach their target or fatal date and to the
+ * assignees of tasks that reached their due date, once per zaak or task and date.
+ *
+ * Matching zaken are paged through with a Solr cursor and tasks are handled in batches. For each page the mail
+ * instellingen of the users and the notifications that were already sent are read with a single query each, and the
+ * notifications of the page are sent and registered in a transaction of their own.
+ */
 @ApplicationScoped
-@Transactional
 @Suppress("TooManyFunctions")
 @NoArgConstructor
 @AllOpen
@@ -52,29 +56,40 @@ class ZaakTaskDueDateEmailNotificationService @Inject constructor(
     companion object {
         private val LOG = Logger.getLogger(ZaakTaskDueDateEmailNotificationService::class.java.name)
         const val ZAAK_AFGEHANDELD_QUERY = "zaak_afgehandeld"
+        private const val TASK_BATCH_SIZE = 1000
     }
 
     /**
      * Send zaak and task due date email notifications as warnings that the
      * user should take action.
+     *
+     * @return the number of zaken and tasks that were processed, for how many of them a notification was sent or
+     * skipped, and how long it took
      */
-    fun sendDueDateEmailNotifications() {
-        sendZaakDueDateEmailNotifications()
-        sendTaskDueDateEmailNotifications()
+    fun sendDueDateEmailNotifications(): DueDateEmailNotificationReport {
+        val start = System.nanoTime()
+        val report = sendZaakDueDateEmailNotifications() + sendTaskDueDateEmailNotifications()
+        return report.copy(duration = Duration.ofNanos(System.nanoTime() - start)).also {
+            LOG.info(
+                "Finished sending due date email notifications in ${it.duration.toMillis()} ms " +
+                    "(${it.processed} processed, ${it.sent} sent, ${it.skipped} skipped)"
+            )
+        }
     }
 
     /**
      * Sends e-mail notifications about tasks that are at or past their due date.
      * Typically run as part of a cron job.
      */
-    private fun sendTaskDueDateEmailNotifications() {
-        val signaleringVerzendInfo = SignaleringVerzendInfo()
+    private fun sendTaskDueDateEmailNotifications(): DueDateEmailNotificationReport {
         LOG.info("Sending task due date email notifications...")
-        signaleringVerzendInfo.fataledatumVerzonden += sendTaskDueDateNotifications()
+        val report = flowableTaskService.listOpenTasksDueNow()
+            .chunked(TASK_BATCH_SIZE)
+            .map(::sendTaskSignaleringen)
+            .fold(DueDateEmailNotificationReport(), DueDateEmailNotificationReport::plus)
         deleteUnjustlySentTaskDueSignaleringen()
-        LOG.info(
-            "Finished sending task due date email notifications (${signaleringVerzendInfo.fataledatumVerzonden} fatal date warnings)"
-        )
+        LOG.info("Finished sending task due date email notifications (${report.sent} fatal date warnings)")
+        return report
     }
 
     /**
@@ -82,79 +97,67 @@ class ZaakTaskDueDateEmailNotificationService @Inject constructor(
      * fatal date.
      * Typically run as part of a cron job.
      */
-    private fun sendZaakDueDateEmailNotifications() {
-        val signaleringVerzendInfo = SignaleringVerzendInfo()
+    private fun sendZaakDueDateEmailNotifications(): DueDateEmailNotificationReport {
         LOG.info("Sending zaak due date email notifications...")
+        var streefdatumReport = DueDateEmailNotificationReport()
+        var fataleDatumReport = DueDateEmailNotificationReport()
         ztcClientService.listZaaktypen(configurationService.readDefaultCatalogusURI())
             .forEach { zaaktype ->
-                zaaktypeCmmnConfigurationService.readZaaktypeCmmnConfiguration(
-                    zaaktype.url.extractUuid()
-                ).let { parameters ->
-                    parameters.einddatumGeplandWaarschuwing?.let {
-                        signaleringVerzendInfo.streefdatumVerzonden += zaakEinddatumGeplandVerzenden(
-                            zaaktype,
-                            it
-                        )
-                        zaakEinddatumGeplandOnterechtVerzondenVerwijderen(
-                            zaaktype,
-                            parameters.einddatumGeplandWaarschuwing!!
-                        )
-                    }
-                    parameters.uiterlijkeEinddatumAfdoeningWaarschuwing?.let {
-                        signaleringVerzendInfo.fataledatumVerzonden += zaakUiterlijkeEinddatumAfdoeningVerzenden(
-                            zaaktype,
-                            it
-                        )
-                        zaakUiterlijkeEinddatumAfdoeningOnterechtVerzondenVerwijderen(
-                            zaaktype,
-                            parameters.uiterlijkeEinddatumAfdoeningWaarschuwing!!
-                        )
-                    }
+                val parameters = zaaktypeCmmnConfigurationService.readZaaktypeCmmnConfiguration(zaaktype.url.extractUuid())
+                parameters.einddatumGeplandWaarschuwing?.let {
+                    streefdatumReport += sendZaakSignaleringenForZaaktype(zaaktype, DatumVeld.ZAAK_STREEFDATUM, it)
+                }
+                parameters.uiterlijkeEinddatumAfdoeningWaarschuwing?.let {
+                    fataleDatumReport += sendZaakSignaleringenForZaaktype(zaaktype, DatumVeld.ZAAK_FATALE_DATUM, it)
                 }
             }
         LOG.info(
-            "Finished sending zaak due date email notifications (${signaleringVerzendInfo.streefdatumVerzonden} target date " +
-                "warnings, ${signaleringVerzendInfo.fataledatumVerzonden} fatal date warnings)"
+            "Finished sending zaak due date email notifications (${streefdatumReport.sent} target date " +
+                "warnings, ${fataleDatumReport.sent} fatal date warnings)"
         )
+        return streefdatumReport + fataleDatumReport
     }
 
     /**
-     * Sends einddatum gepland zaak email notifications
+     * Sends the email notifications for all open zaken of the zaaktype of which the given date is within the given
+     * number of days, and makes sure that those of zaken of which the date has moved beyond that will be sent again.
      */
-    private fun zaakEinddatumGeplandVerzenden(zaaktype: ZaakType, venster: Int): Int =
-        searchService.search(getZaakSignaleringTeVerzendenZoekParameters(DatumVeld.ZAAK_STREEFDATUM, zaaktype, venster))
-            .items
-            .map { it as ZaakZoekObject }
-            .filter { hasZaakSignaleringTarget(it, SignaleringDetail.STREEFDATUM) }
-            .map { buildZaakSignalering(it.behandelaarGebruikersnaam!!, it, SignaleringDetail.STREEFDATUM) }
-            .sumOf(::verzendZaakSignalering)
-
-    /**
-     * Sends fatal date zaak email notifications
-     */
-    private fun zaakUiterlijkeEinddatumAfdoeningVerzenden(
+    private fun sendZaakSignaleringenForZaaktype(
         zaaktype: ZaakType,
+        veld: DatumVeld,
         venster: Int
-    ): Int =
-        searchService.search(getZaakSignaleringTeVerzendenZoekParameters(DatumVeld.ZAAK_FATALE_DATUM, zaaktype, venster))
-            .items
-            .map { it as ZaakZoekObject }
-            .filter { hasZaakSignaleringTarget(it, SignaleringDetail.FATALE_DATUM) }
-            .map { buildZaakSignalering(it.behandelaarGebruikersnaam!!, it, SignaleringDetail.FATALE_DATUM) }
-            .sumOf(::verzendZaakSignalering)
+    ): DueDateEmailNotificationReport {
+        val detail = veld.toSignaleringDetail()
+        val report = searchService.searchAll(getZaakSignaleringTeVerzendenZoekParameters(veld, zaaktype, venster))
+            .map { page -> sendZaakSignaleringen(page.map { it as ZaakZoekObject }, detail) }
+            .fold(DueDateEmailNotificationReport(), DueDateEmailNotificationReport::plus)
+        deleteUnjustlySentZaakSignaleringen(zaaktype, veld, venster)
+        return report
+    }
 
-    private fun hasZaakSignaleringTarget(zaakZoekObject: ZaakZoekObject, detail: SignaleringDetail): Boolean =
-        zaakZoekObject.behandelaarGebruikersnaam?.let {
-            signaleringService.readInstellingenUser(SignaleringType.Type.ZAAK_VERLOPEND, it).isMail &&
-                // only send signalering if it was not already sent before
-                signaleringService.findSignaleringVerzonden(
-                    getZaakSignaleringVerzondenParameters(
-                        it,
-                        zaakZoekObject.getObjectId(),
-                        detail
-                    )
-                ) == null
-        } == true
+    private fun sendZaakSignaleringen(
+        zaakZoekObjecten: List<ZaakZoekObject>,
+        detail: SignaleringDetail
+    ): DueDateEmailNotificationReport {
+        val usersWithMail = signaleringService.listUsersWithMailEnabled(
+            SignaleringType.Type.ZAAK_VERLOPEND,
+            zaakZoekObjecten.mapNotNull { it.behandelaarGebruikersnaam }.toSet()
+        )
+        val alreadySent = signaleringService.listSignaleringenVerzonden(
+            SignaleringType.Type.ZAAK_VERLOPEND,
+            detail,
+            zaakZoekObjecten.map { it.getObjectId() }
+        ).map { it.target to it.subject }.toSet()
+        val signaleringen = zaakZoekObjecten
+            .filter { zaakZoekObject ->
+                zaakZoekObject.behandelaarGebruikersnaam?.let {
+                    // only send signalering if it was not already sent before
+                    it in usersWithMail && (it to zaakZoekObject.getObjectId()) !in alreadySent
+                } == true
+            }
+            .map { buildZaakSignalering(it.behandelaarGebruikersnaam!!, it, detail) }
+        return sendSignaleringen(zaakZoekObjecten.size, signaleringen)
+    }
 
     private fun buildZaakSignalering(
         target: String,
@@ -183,47 +186,33 @@ class ZaakTaskDueDateEmailNotificationService @Inject constructor(
         }
     }
 
-    private fun verzendZaakSignalering(signalering: Signalering): Int {
-        signaleringService.sendSignalering(signalering)
-        signaleringService.createSignaleringVerzonden(signalering)
-        return 1
+    private fun sendSignaleringen(processed: Int, signaleringen: List<Signalering>): DueDateEmailNotificationReport {
+        if (signaleringen.isNotEmpty()) {
+            signaleringService.sendSignaleringen(signaleringen)
+        }
+        return DueDateEmailNotificationReport(
+            processed = processed,
+            sent = signaleringen.size,
+            skipped = processed - signaleringen.size
+        )
     }
 
     /**
-     * Make sure already sent E-Mail warnings will get send again (in cases where the einddatum gepland has changed)
+     * Make sure already sent E-Mail warnings will get sent again (in cases where the einddatum gepland or the
+     * uiterlijke einddatum afdoening has changed)
      */
-    private fun zaakEinddatumGeplandOnterechtVerzondenVerwijderen(
-        zaaktype: ZaakType,
-        venster: Int
-    ) = searchService.search(
-        getZaakSignaleringLaterTeVerzendenZoekParameters(DatumVeld.ZAAK_STREEFDATUM, zaaktype, venster)
-    ).items.map { it as ZaakZoekObject }
-        .map {
-            getZaakSignaleringVerzondenParameters(
-                it.behandelaarGebruikersnaam!!,
-                it.getObjectId(),
-                SignaleringDetail.STREEFDATUM
-            )
-        }.forEach(signaleringService::deleteSignaleringVerzonden)
+    private fun deleteUnjustlySentZaakSignaleringen(zaaktype: ZaakType, veld: DatumVeld, venster: Int) =
+        searchService.searchAll(getZaakSignaleringLaterTeVerzendenZoekParameters(veld, zaaktype, venster))
+            .forEach { page ->
+                signaleringService.deleteSignaleringenVerzonden(
+                    SignaleringType.Type.ZAAK_VERLOPEND,
+                    veld.toSignaleringDetail(),
+                    page.map { it.getObjectId() }
+                )
+            }
 
-    /**
-     * Make sure already sent E-Mail warnings will get send again
-     * (in cases where the uiterlijke einddatum afdoening has changed)
-     */
-    private fun zaakUiterlijkeEinddatumAfdoeningOnterechtVerzondenVerwijderen(
-        zaaktype: ZaakType,
-        venster: Int
-    ) = searchService.search(
-        getZaakSignaleringLaterTeVerzendenZoekParameters(DatumVeld.ZAAK_FATALE_DATUM, zaaktype, venster)
-    ).items.map { it as ZaakZoekObject }
-        .map {
-            getZaakSignaleringVerzondenParameters(
-                it.behandelaarGebruikersnaam!!,
-                it.getObjectId(),
-                SignaleringDetail.FATALE_DATUM
-            )
-        }
-        .forEach(signaleringService::deleteSignaleringVerzonden)
+    private fun DatumVeld.toSignaleringDetail() =
+        if (this == DatumVeld.ZAAK_FATALE_DATUM) SignaleringDetail.FATALE_DATUM else SignaleringDetail.STREEFDATUM
 
     private fun getZaakSignaleringTeVerzendenZoekParameters(
         veld: DatumVeld,
@@ -252,34 +241,25 @@ class ZaakTaskDueDateEmailNotificationService @Inject constructor(
         parameters.addFilter(FilterVeld.ZAAK_ZAAKTYPE_UUID, zaaktype.url.extractUuid().toString())
         parameters.addFilter(FilterVeld.ZAAK_BEHANDELAAR, FilterWaarde.NIET_LEEG.toString())
         parameters.addFilterQuery(ZAAK_AFGEHANDELD_QUERY, "false")
-        parameters.rows = TabelInstellingen.AANTAL_PER_PAGINA_MAX
         return parameters
     }
 
-    private fun getZaakSignaleringVerzondenParameters(
-        target: String,
-        zaakUUID: String,
-        detail: SignaleringDetail
-    ) = SignaleringVerzondenZoekParameters(SignaleringTarget.USER, target)
-        .types(SignaleringType.Type.ZAAK_VERLOPEND)
-        .subjectZaak(UUID.fromString(zaakUUID))
-        .detail(detail)
-
-    private fun sendTaskDueDateNotifications(): Int =
-        flowableTaskService.listOpenTasksDueNow()
-            .filter(::hasTaskSignaleringTarget)
-            .map { buildTaskSignalering(it.assignee, it) }
-            .sumOf(::sendTaskSignalering)
-
-    private fun hasTaskSignaleringTarget(task: Task): Boolean =
-        signaleringService.readInstellingenUser(
+    private fun sendTaskSignaleringen(tasks: List<Task>): DueDateEmailNotificationReport {
+        val usersWithMail = signaleringService.listUsersWithMailEnabled(
+            SignaleringType.Type.TAAK_VERLOPEN,
+            tasks.map { it.assignee }.toSet()
+        )
+        val alreadySent = signaleringService.listSignaleringenVerzonden(
             SignaleringType.Type.TAAK_VERLOPEN,
-            task.assignee
-        ).isMail &&
+            SignaleringDetail.STREEFDATUM,
+            tasks.map { it.id }
+        ).map { it.target to it.subject }.toSet()
+        val signaleringen = tasks
             // only send signalering if it was not already sent before
-            signaleringService.findSignaleringVerzonden(
-                getTaskSignaleringSentParameters(task.assignee, task.id)
-            ) == null
+            .filter { it.assignee in usersWithMail && (it.assignee to it.id) !in alreadySent }
+            .map { buildTaskSignalering(it.assignee, it) }
+        return sendSignaleringen(tasks.size, signaleringen)
+    }
 
     private fun buildTaskSignalering(target: String, task: Task): Signalering =
         signaleringService.signaleringInstance(
@@ -290,27 +270,19 @@ class ZaakTaskDueDateEmailNotificationService @Inject constructor(
             setDetailFromSignaleringDetail(SignaleringDetail.STREEFDATUM)
         }
 
-    private fun sendTaskSignalering(signalering: Signalering): Int {
-        signaleringService.sendSignalering(signalering)
-        signaleringService.createSignaleringVerzonden(signalering)
-        return 1
-    }
-
     /**
      * Make sure already sent task email notifications will get sent again (in cases where the due date has changed)
-     * by deleting the corresponding 'signalering verzonden' record from the database.
+     * by deleting the corresponding 'signalering verzonden' records from the database.
      */
     private fun deleteUnjustlySentTaskDueSignaleringen() {
         flowableTaskService.listOpenTasksDueLater()
-            .map { getTaskSignaleringSentParameters(it.assignee, it.id) }
-            .forEach(signaleringService::deleteSignaleringVerzonden)
+            .chunked(TASK_BATCH_SIZE)
+            .forEach { tasks ->
+                signaleringService.deleteSignaleringenVerzonden(
+                    SignaleringType.Type.TAAK_VERLOPEN,
+                    SignaleringDetail.STREEFDATUM,
+                    tasks.map { it.id }
+                )
+            }
     }
-
-    private fun getTaskSignaleringSentParameters(
-        target: String,
-        taskId: String
-    ) = SignaleringVerzondenZoekParameters(SignaleringTarget.USER, target)
-        .types(SignaleringType.Type.TAAK_VERLOPEN)
-        .subjectTaak(taskId)
-        .detail(SignaleringDetail.STREEFDATUM)
 }
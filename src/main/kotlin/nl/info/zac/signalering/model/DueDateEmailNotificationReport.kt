@@ -0,0 +1,30 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.signalering.model
+
+import java.time.Duration
+
+/**
+ * Outcome of (a part of) a run of the zaak and task due date email notification job.
+ *
+ * @property processed the number of zaken and tasks that were checked
+ * @property sent the number of email notifications that were sent
+ * @property skipped the number of zaken and tasks for which no email notification was sent, because their
+ * behandelaar or assignee does not want to receive one or because it was already sent before
+ * @property duration the time it took
+ */
+data class DueDateEmailNotificationReport(
+    val processed: Int = 0,
+    val sent: Int = 0,
+    val skipped: Int = 0,
+    val duration: Duration = Duration.ZERO
+) {
+    operator fun plus(other: DueDateEmailNotificationReport) = DueDateEmailNotificationReport(
+        processed = processed + other.processed,
+        sent = sent + other.sent,
+        skipped = skipped + other.skipped,
+        duration = duration + other.duration
+    )
+}
@@ -9,6 +9,7 @@ import io.opentelemetry.instrumentation.annotations.WithSpan
 import jakarta.inject.Inject
 import net.atos.zac.event.EventingService
 import net.atos.zac.flowable.task.FlowableTaskService
+import net.atos.zac.flowable.task.TaakVariabelenService.readZaakUUID
 import net.atos.zac.flowable.task.exception.TaskNotFoundException
 import net.atos.zac.signalering.event.SignaleringEventUtil
 import net.atos.zac.signalering.model.SignaleringType
@@ -16,8 +17,8 @@ import net.atos.zac.websocket.event.ScreenEventType
 import nl.info.zac.app.task.model.RestTaskAssignData
 import nl.info.zac.app.task.model.RestTaskDistributeData
 import nl.info.zac.app.task.model.RestTaskDistributeTask
-import nl.info.zac.app.task.model.RestTaskReleaseData
 import nl.info.zac.authentication.LoggedInUser
+import nl.info.zac.identity.model.User
 import nl.info.zac.search.IndexingService
 import nl.info.zac.search.model.zoekobject.ZoekObjectType
 import nl.info.zac.util.AllOpen
@@ -60,39 +61,25 @@ class TaskService @Inject constructor(
     }
 
     /**
-     * Assigns a list of tasks to a group and optionally also to an assignee,
-     * sends corresponding screen events and updates the search index.
-     * If no assignee was specified _and_ if the task is currently assigned to an assignee,
+     * Assigns a batch of tasks from a list to a group and optionally also to an assignee, in a single transaction.
+     * If no assignee was specified _and_ if a task is currently assigned to an assignee,
      * then the task will be released from the assignee.
-     * This can be a long-running operation.
+     * Sends the corresponding signalering and screen events, and adds the tasks to the search index at once,
+     * without committing the index.
+     *
+     * @return the IDs of the assigned tasks; tasks that are not open (anymore) are skipped
      */
     @WithSpan
-    fun assignTasks(
-        @SpanAttribute("restTaakVerdelenGegevens") restTaskDistributeData: RestTaskDistributeData,
-        loggedInUser: LoggedInUser,
-        screenEventResourceId: String? = null,
-    ) {
-        LOG.fine {
-            "Started to assign ${restTaskDistributeData.taken.size} tasks " +
-                "with screen event resource ID: '$screenEventResourceId'."
-        }
-        val succesfullyAssignedTaskIds = mutableListOf<String>()
-        try {
-            assignTasks(restTaskDistributeData, loggedInUser, succesfullyAssignedTaskIds)
-        } finally {
-            // always update the search index and send the screen event, also if exceptions were thrown
-            indexingService.commit()
-            LOG.fine { "Successfully assigned ${succesfullyAssignedTaskIds.size} tasks." }
-
-            // if a screen event resource ID was specified, send a screen event
-            // with the provided job ID so that it can be picked up by a client
-            // that has created a websocket subscription to this event
-            screenEventResourceId?.let {
-                LOG.fine { "Sending 'TAKEN_VERDELEN' screen event with ID '$it'." }
-                eventingService.send(ScreenEventType.TAKEN_VERDELEN.updated(it))
-            }
-        }
-    }
+    fun assignTasksFromList(
+        @SpanAttribute("taskIds") taskIds: List<String>,
+        groupId: String,
+        assignee: String?,
+        explanation: String?,
+        actor: User
+    ): List<String> =
+        flowableTaskService.assignTasks(taskIds, groupId, assignee, explanation)
+            .also { onTasksChangedFromList(it, actor) }
+            .map { it.id }
 
     /**
      * Assigns a task to a user and sends the 'taak op naam' signalering event.
@@ -119,36 +106,21 @@ class TaskService @Inject constructor(
     fun listTasksForZaak(zaakUUID: UUID): List<TaskInfo> = flowableTaskService.listTasksForZaak(zaakUUID)
 
     /**
-     * Releases a list of tasks from any assigned user, sends corresponding screen events
-     * and updates the search index.
-     * This can be a long-running operation.
+     * Releases a batch of tasks from a list from any assigned user, in a single transaction.
+     * Sends the corresponding screen events, and adds the tasks to the search index at once,
+     * without committing the index.
+     *
+     * @return the IDs of the released tasks; tasks that are not open (anymore) are skipped
      */
     @WithSpan
-    fun releaseTasks(
-        @SpanAttribute("restTaakVerdelenGegevens") restTaskReleaseData: RestTaskReleaseData,
-        loggedInUser: LoggedInUser,
-        screenEventResourceId: String? = null
-    ) {
-        LOG.fine {
-            "Started to release ${restTaskReleaseData.taken.size} tasks " +
-                "with screen event resource ID: '$screenEventResourceId'."
-        }
-        val taskIds = mutableListOf<String>()
-        try {
-            releaseTasks(restTaskReleaseData, loggedInUser, taskIds)
-        } finally {
-            indexingService.commit()
-            LOG.fine { "Successfully released ${taskIds.size} tasks." }
-
-            // if a screen event resource ID was specified, send a screen event
-            // with the provided job ID so that it can be picked up by a client
-            // that has created a websocket subscription to this event
-            screenEventResourceId?.let {
-                LOG.fine { "Sending 'TAKEN_VRIJGEVEN' screen event with ID '$it'." }
-                eventingService.send(ScreenEventType.TAKEN_VRIJGEVEN.updated(it))
-            }
-        }
-    }
+    fun releaseTasksFromList(
+        @SpanAttribute("taskIds") taskIds: List<String>,
+        explanation: String?,
+        actor: User
+    ): List<String> =
+        flowableTaskService.releaseTasks(taskIds, explanation)
+            .also { onTasksChangedFromList(it, actor) }
+            .map { it.id }
 
     fun sendScreenEventsOnTaskChange(task: Task, zaakUuid: UUID) {
         eventingService.send(ScreenEventType.TAAK.updated(task))
@@ -209,30 +181,19 @@ class TaskService @Inject constructor(
         }
     }
 
-    private fun releaseTasks(
-        restTaskReleaseData: RestTaskReleaseData,
-        loggedInUser: LoggedInUser,
-        taskIds: MutableList<String>
-    ) {
-        restTaskReleaseData.taken.forEach {
-            try {
-                flowableTaskService.readOpenTask(it.taakId).let { task ->
-                    val updatedTask = releaseTask(
-                        task = task,
-                        loggedInUser = loggedInUser,
-                        reden = restTaskReleaseData.reden
-                    )
-                    indexingService.indexeerDirect(task.id, ZoekObjectType.TAAK, false)
-                    sendScreenEventsOnTaskChange(updatedTask, it.zaakUuid)
-                    taskIds.add(task.id)
-                }
-            } catch (taskNotFoundException: TaskNotFoundException) {
-                LOG.log(
-                    Level.SEVERE,
-                    "No open task with ID '${it.taakId}' found while releasing tasks. Skipping task.",
-                    taskNotFoundException
-                )
+    private fun onTasksChangedFromList(tasks: List<Task>, actor: User) {
+        tasks.forEach { task ->
+            // the 'taak op naam' signalering is only sent to the assignee of a task
+            task.assignee?.let {
+                eventingService.send(SignaleringEventUtil.event(SignaleringType.Type.TAAK_OP_NAAM, task, actor))
             }
+            eventingService.send(ScreenEventType.TAAK.updated(task))
+        }
+        tasks.map { readZaakUUID(it) }.distinct().forEach {
+            eventingService.send(ScreenEventType.ZAAK_TAKEN.updated(it))
+        }
+        if (tasks.isNotEmpty()) {
+            indexingService.indexeerDirect(tasks.map { it.id }, ZoekObjectType.TAAK, false)
         }
     }
 
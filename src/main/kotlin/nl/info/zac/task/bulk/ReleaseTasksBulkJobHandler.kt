@@ -0,0 +1,79 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.task.bulk
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import net.atos.zac.event.EventingService
+import net.atos.zac.websocket.event.ScreenEventType
+import nl.info.zac.bulk.BulkJobExecution
+import nl.info.zac.bulk.BulkJobHandler
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJobItemOutcome
+import nl.info.zac.bulk.model.BulkJobProgress
+import nl.info.zac.bulk.model.BulkJobType
+import nl.info.zac.bulk.readParameters
+import nl.info.zac.identity.IdentityService
+import nl.info.zac.search.IndexingService
+import nl.info.zac.task.TaskService
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.util.logging.Logger
+
+/**
+ * Releases a list of tasks from their assignee, on behalf of the user that submitted the job.
+ *
+ * The tasks are released in batches like in [AssignTasksBulkJobHandler], and the completion of the job is reported
+ * with a [ScreenEventType.TAKEN_VRIJGEVEN] screen event.
+ */
+@ApplicationScoped
+@NoArgConstructor
+@AllOpen
+class ReleaseTasksBulkJobHandler @Inject constructor(
+    private val taskService: TaskService,
+    private val identityService: IdentityService,
+    private val indexingService: IndexingService,
+    private val eventingService: EventingService
+) : BulkJobHandler {
+    companion object {
+        private val LOG = Logger.getLogger(ReleaseTasksBulkJobHandler::class.java.name)
+        private const val BATCH_SIZE = 100
+    }
+
+    data class Parameters(
+        val explanation: String? = null
+    )
+
+    override val type = BulkJobType.TAKEN_VRIJGEVEN
+
+    override val batchSize = BATCH_SIZE
+
+    override fun start(job: BulkJob): BulkJobExecution {
+        val parameters = job.readParameters(Parameters::class.java)
+        val actor = identityService.readUser(job.createdBy)
+        return object : BulkJobExecution {
+            override fun process(itemIds: List<String>): Map<String, BulkJobItemOutcome> {
+                val releasedTaskIds = taskService.releaseTasksFromList(
+                    taskIds = itemIds,
+                    explanation = parameters.explanation,
+                    actor = actor
+                ).toSet()
+                return itemIds.associateWith {
+                    if (it in releasedTaskIds) BulkJobItemOutcome.DONE else BulkJobItemOutcome.skipped("No open task")
+                }
+            }
+
+            override fun finish(progress: BulkJobProgress) {
+                indexingService.commit()
+                LOG.fine { "Released ${progress.done} of ${progress.total} tasks." }
+                // send a screen event with the resource ID, so that it can be picked up by a client
+                // that has created a websocket subscription to this event
+                job.screenEventResourceId?.let {
+                    eventingService.send(ScreenEventType.TAKEN_VRIJGEVEN.updated(it))
+                }
+            }
+        }
+    }
+}
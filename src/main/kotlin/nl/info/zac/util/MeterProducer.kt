@@ -0,0 +1,30 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.util
+
+import io.opentelemetry.api.OpenTelemetry
+import io.opentelemetry.api.metrics.Meter
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.inject.Produces
+import jakarta.inject.Inject
+
+/**
+ * Produces the OpenTelemetry [Meter] used to record ZAC's own metrics.
+ * The [OpenTelemetry] instance is provided by the WildFly OpenTelemetry subsystem, so whether and where these metrics
+ * are exported is configured there (see the `otel.metrics.exporter` setting in `configure-wildfly.cli`).
+ */
+@AllOpen
+@NoArgConstructor
+@ApplicationScoped
+class MeterProducer @Inject constructor(
+    private val openTelemetry: OpenTelemetry
+) {
+    companion object {
+        const val INSTRUMENTATION_SCOPE_NAME = "nl.info.zac"
+    }
+
+    @Produces
+    fun provideMeter(): Meter = openTelemetry.getMeter(INSTRUMENTATION_SCOPE_NAME)
+}
@@ -14,11 +14,12 @@ import nl.info.webdav.IWebdavStore
 import nl.info.webdav.StoredObject
 import nl.info.zac.app.informatieobjecten.EnkelvoudigInformatieObjectUpdateService
 import nl.info.zac.authentication.setLoggedInUser
-import nl.info.zac.util.toBase64String
 import org.apache.commons.collections4.map.LRUMap
 import org.apache.commons.io.FilenameUtils
 import java.io.File
 import java.io.InputStream
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
 import java.security.Principal
 import java.util.Collections
 
@@ -65,9 +66,10 @@ class WebdavStore(@Suppress("UNUSED_PARAMETER") ignoredFake: File) : IWebdavStor
 
     override fun getResourceContent(transaction: ITransaction?, resourceUri: String): InputStream? {
         val token = extraheerToken(resourceUri).takeIf { it.isNotEmpty() } ?: return null
-        return drcClientService.downloadEnkelvoudigInformatieobject(
+        // the WebDAV servlet closes the stream after sending it, which also closes the connection to the DRC
+        return drcClientService.streamEnkelvoudigInformatieobject(
             webdavHelper.readWebdavTokenData(token).enkelvoudigInformatieobjectUUID
-        )
+        ).inputStream
     }
 
     override fun setResourceContent(
@@ -84,16 +86,19 @@ class WebdavStore(@Suppress("UNUSED_PARAMETER") ignoredFake: File) : IWebdavStor
                 CDI.current().select(HttpSession::class.java).get(),
                 webdavGegevens.loggedInUser
             )
-            val inhoud = content.readBytes()
-            val update = EnkelvoudigInformatieObjectWithLockRequest().apply {
-                this.inhoud = inhoud.toBase64String()
-                bestandsomvang = inhoud.size
+            // spool the content to a temporary file, so that it is never held in memory as a whole
+            val contentFile = Files.createTempFile("zac-webdav-", ".upload")
+            try {
+                Files.copy(content, contentFile, StandardCopyOption.REPLACE_EXISTING)
+                return enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
+                    enkelvoudigInformatieObjectUUID = webdavGegevens.enkelvoudigInformatieobjectUUID,
+                    enkelvoudigInformatieObjectWithLockRequest = EnkelvoudigInformatieObjectWithLockRequest(),
+                    toelichting = UPDATE_INHOUD_TOELICHTING,
+                    content = contentFile
+                ).bestandsomvang?.toLong() ?: 0L
+            } finally {
+                Files.deleteIfExists(contentFile)
             }
-            return enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
-                enkelvoudigInformatieObjectUUID = webdavGegevens.enkelvoudigInformatieobjectUUID,
-                enkelvoudigInformatieObjectWithLockRequest = update,
-                toelichting = UPDATE_INHOUD_TOELICHTING
-            ).bestandsomvang?.toLong() ?: 0L
         } finally {
             fileStoredObjectMap.remove(token)
         }
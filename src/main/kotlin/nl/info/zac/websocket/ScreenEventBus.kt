@@ -0,0 +1,210 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.websocket
+
+import com.fasterxml.jackson.core.JsonProcessingException
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import jakarta.annotation.PreDestroy
+import jakarta.annotation.Resource
+import jakarta.enterprise.concurrent.ManagedExecutorService
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.enterprise.context.Initialized
+import jakarta.enterprise.event.Observes
+import jakarta.inject.Inject
+import net.atos.zac.event.Opcode
+import net.atos.zac.websocket.SessionRegistry
+import net.atos.zac.websocket.event.ScreenEvent
+import net.atos.zac.websocket.event.ScreenEventId
+import net.atos.zac.websocket.event.ScreenEventType
+import nl.info.zac.database.DedicatedConnectionFactory
+import nl.info.zac.database.NotificationChannelListener
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import java.sql.SQLException
+import java.util.UUID
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.TimeUnit
+import java.util.logging.Level
+import java.util.logging.Logger
+import javax.sql.DataSource
+
+/**
+ * Delivers [ScreenEvent]s to the websocket subscribers on all ZAC nodes in the cluster, using a PostgreSQL
+ * LISTEN/NOTIFY channel on the ZAC database.
+ *
+ * Published events are collected and flushed periodically. Each flushed event is converted to JSON once, delivered
+ * to the subscribers connected to this node and sent to the other nodes in as few notifications as possible.
+ * Every node listens on the channel with a dedicated database connection and delivers the events that were published
+ * by another node to its own subscribers only. Events published while the listening connection was lost are missed,
+ * which only means that a screen is not refreshed automatically.
+ */
+@ApplicationScoped
+@AllOpen
+@NoArgConstructor
+class ScreenEventBus @Inject constructor(
+    private val sessionRegistry: SessionRegistry,
+    private val dedicatedConnectionFactory: DedicatedConnectionFactory
+) {
+    companion object {
+        const val CHANNEL = "zac_screen_events"
+
+        private val LOG = Logger.getLogger(ScreenEventBus::class.java.name)
+        private val JSON_MAPPER = ObjectMapper()
+        private const val SEPARATOR = "|"
+        private const val FLUSH_INTERVAL_MILLIS = 100L
+
+        // PostgreSQL limits the payload of a notification to 8000 bytes
+        private const val MAX_PAYLOAD_BYTES = 7_900
+        private const val NOTIFY_SQL = "SELECT pg_notify(?, ?)"
+    }
+
+    @Resource(lookup = "java:comp/env/jdbc/Datasource")
+    lateinit var dataSource: DataSource
+
+    @Resource
+    lateinit var managedExecutorService: ManagedExecutorService
+
+    @Resource
+    lateinit var managedScheduledExecutorService: ManagedScheduledExecutorService
+
+    /**
+     * Identifies this node, so that it ignores the events that it published itself.
+     */
+    private val nodeId = UUID.randomUUID().toString()
+
+    private val pendingEvents = ConcurrentLinkedQueue<ScreenEvent>()
+
+    private var listener: NotificationChannelListener? = null
+
+    fun onStartup(@Observes @Initialized(ApplicationScoped::class) @Suppress("UNUSED_PARAMETER") event: Any) {
+        listener = NotificationChannelListener(
+            connect = { dedicatedConnectionFactory.connect("zac-$CHANNEL") },
+            channel = CHANNEL,
+            onReconnect = { LOG.info("Reconnected to channel '$CHANNEL'. Screen events may have been missed") },
+            onNotification = ::onNotification
+        ).also { managedExecutorService.submit(it.asLongRunningTask()) }
+        managedScheduledExecutorService.scheduleWithFixedDelay(
+            ::flushLoggingExceptions,
+            FLUSH_INTERVAL_MILLIS,
+            FLUSH_INTERVAL_MILLIS,
+            TimeUnit.MILLISECONDS
+        )
+        LOG.info("Listening for screen events on channel '$CHANNEL' as node $nodeId")
+    }
+
+    @PreDestroy
+    fun stopListening() {
+        listener?.stop()
+    }
+
+    /**
+     * Publishes the event to the websocket subscribers on all nodes with the next flush.
+     */
+    fun publish(event: ScreenEvent) {
+        pendingEvents.add(event)
+    }
+
+    /**
+     * Delivers the published events to the subscribers on this node and sends them to the other nodes.
+     */
+    fun flush() {
+        val events = generateSequence { pendingEvents.poll() }
+            .mapNotNull { event -> toJson(event)?.let { event to it } }
+            // the same event may have been published multiple times, e.g. for multiple updates of a zaak
+            .distinctBy { it.second }
+            .toList()
+        if (events.isEmpty()) return
+        events.forEach { (event, json) -> deliver(event, json) }
+        try {
+            notify(toPayloads(events.map { it.second }))
+        } catch (sqlException: SQLException) {
+            LOG.log(Level.WARNING, "Failed to send ${events.size} screen event(s) to the other nodes", sqlException)
+        }
+    }
+
+    /**
+     * Handles a notification received on the screen event channel.
+     */
+    fun onNotification(payload: String) {
+        val parts = payload.split(SEPARATOR, limit = 2)
+        if (parts.size < 2) {
+            LOG.warning("Ignoring malformed screen event notification '$payload'")
+            return
+        }
+        if (parts[0] != nodeId) {
+            JSON_MAPPER.readTree(parts[1]).forEach { deliver(toScreenEvent(it), it.toString()) }
+        }
+    }
+
+    private fun deliver(event: ScreenEvent, json: String) =
+        sessionRegistry.listSessions(event).forEach { it.asyncRemote.sendText(json) }
+
+    private fun notify(payloads: List<String>) =
+        dataSource.connection.use { connection ->
+            connection.prepareStatement(NOTIFY_SQL).use { statement ->
+                payloads.forEach {
+                    statement.setString(1, CHANNEL)
+                    statement.setString(2, it)
+                    statement.execute()
+                }
+            }
+        }
+
+    /**
+     * Packs the events in as few notification payloads as possible.
+     */
+    private fun toPayloads(jsons: List<String>): List<String> {
+        val payloads = mutableListOf<String>()
+        val batch = mutableListOf<String>()
+        var batchBytes = 0
+        jsons.forEach { json ->
+            val bytes = json.toByteArray().size + 1
+            if (nodeId.length + bytes + 2 > MAX_PAYLOAD_BYTES) {
+                LOG.warning("Screen event is too large to send to the other nodes: $json")
+                return@forEach
+            }
+            if (batch.isNotEmpty() && nodeId.length + batchBytes + bytes + 2 > MAX_PAYLOAD_BYTES) {
+                payloads.add(toPayload(batch))
+                batch.clear()
+                batchBytes = 0
+            }
+            batch.add(json)
+            batchBytes += bytes
+        }
+        if (batch.isNotEmpty()) {
+            payloads.add(toPayload(batch))
+        }
+        return payloads
+    }
+
+    private fun toPayload(jsons: List<String>) = jsons.joinToString(",", "$nodeId$SEPARATOR[", "]")
+
+    private fun toJson(event: ScreenEvent): String? =
+        try {
+            JSON_MAPPER.writeValueAsString(event)
+        } catch (jsonProcessingException: JsonProcessingException) {
+            LOG.log(Level.WARNING, "Failed to convert the screen event $event to JSON", jsonProcessingException)
+            null
+        }
+
+    private fun toScreenEvent(json: JsonNode) =
+        ScreenEvent(
+            Opcode.valueOf(json["opcode"].asText()),
+            ScreenEventType.valueOf(json["objectType"].asText()),
+            json["objectId"].let { ScreenEventId(it["resource"].textValue(), it["detail"]?.textValue()) }
+        )
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun flushLoggingExceptions() {
+        try {
+            flush()
+        } catch (exception: Exception) {
+            // never let an exception escape, because that would cancel the scheduled flush
+            LOG.log(Level.WARNING, "Failed to flush the screen events", exception)
+        }
+    }
+}
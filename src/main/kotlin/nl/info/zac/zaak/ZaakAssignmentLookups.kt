@@ -0,0 +1,25 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.zaak
+
+import nl.info.client.zgw.ztc.model.generated.RolType
+import java.net.URI
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Remembers the lookups that are the same for many zaken while a list of zaken is assigned, so that they are done
+ * once per zaaktype instead of once per zaak. Can be shared by concurrent assignments.
+ */
+class ZaakAssignmentLookups {
+    /**
+     * Whether a group (by name) is authorised for a zaaktype (by URI) as 'behandelaar'.
+     */
+    val groupAuthorisations = ConcurrentHashMap<Pair<String, URI>, Boolean>()
+
+    /**
+     * The 'behandelaar' roltype of a zaaktype (by URI).
+     */
+    val behandelaarRoltypen = ConcurrentHashMap<URI, RolType>()
+}
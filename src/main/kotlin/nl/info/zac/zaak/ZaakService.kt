@@ -38,6 +38,7 @@ import nl.info.zac.app.zaak.ZaakRestService.Companion.VESTIGING_IDENTIFICATIE_DE
 import nl.info.zac.app.zaak.model.RestResultaattype
 import nl.info.zac.app.zaak.model.toRestResultaatType
 import nl.info.zac.app.zaak.model.toRestResultaatTypes
+import nl.info.zac.bulk.model.BulkJobItemOutcome
 import nl.info.zac.flowable.bpmn.BpmnService
 import nl.info.zac.identity.IdentityService
 import nl.info.zac.identity.model.Group
@@ -122,70 +123,46 @@ class ZaakService @Inject constructor(
     }
 
     /**
-     * Assigns a list of zaken to a group and/or user and updates the search index on the fly.
-     * This can be a long-running operation.
+     * Assigns a zaak to a group and optionally a user, as one of a list of zaken that are assigned in bulk.
+     * When no user is given, the zaak no longer has a behandelaar afterward.
      *
-     * Zaken that are not open will be skipped.
-     * In case the provided user is not part of the group, all zaken will be skipped
+     * Zaken that are not open, or of a zaaktype for which the group is not authorised as 'behandelaar', are skipped.
+     *
+     * @param lookups the lookups that are shared by all zaken of the list
      */
     @WithSpan
     @Suppress("LongParameterList")
-    fun assignZaken(
-        @SpanAttribute("zaakUUIDs") zaakUUIDs: List<UUID>,
+    fun assignZaakFromList(
+        @SpanAttribute("zaakUUID") zaakUUID: UUID,
         group: Group,
         user: User? = null,
         explanation: String? = null,
-        screenEventResourceId: String? = null,
-    ) {
-        LOG.fine {
-            "Started to assign ${zaakUUIDs.size} zaken with screen event resource ID: '$screenEventResourceId'."
+        lookups: ZaakAssignmentLookups = ZaakAssignmentLookups()
+    ): BulkJobItemOutcome {
+        val zaak = zrcClientService.readZaak(zaakUUID)
+        if (!isZaakOpen(zaak)) {
+            eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(zaak))
+            return BulkJobItemOutcome.skipped("Zaak is not open")
         }
-
-        if (!isUserInGroup(user, group, zaakUUIDs)) {
-            screenEventResourceId?.let {
-                LOG.fine { "Sending 'ZAKEN_VERDELEN' skipped screen event with ID '$it'." }
-                eventingService.send(ScreenEventType.ZAKEN_VERDELEN.skipped(it))
-            }
-            return
+        val authorised = lookups.groupAuthorisations.computeIfAbsent(group.name to zaak.zaaktype) {
+            // you are only allowed to assign zaken to 'behandelaren'
+            group.isAuthorisedForApplicationRoleAndZaaktype(BEHANDELAAR, zaak.zaaktype.extractUuid())
         }
-
-        val (zakenAssignedList, zakenToSkip) = zaakUUIDs
-            .map(zrcClientService::readZaak)
-            .partition {
-                isZaakOpen(it) && group.isAuthorisedForApplicationRoleAndZaaktype(
-                    // you are only allowed to assign zaken to 'behandelaren'
-                    zacApplicationRole = BEHANDELAAR,
-                    zaaktypeUuid = it.zaaktype.extractUuid()
-                )
-            }
-        zakenToSkip
-            .forEach { eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(it)) }
-        zakenAssignedList
-            .forEach { zaak ->
-                zrcClientService.updateRol(zaak, bepaalRolGroep(group, zaak), explanation)
-                user?.let {
-                    zrcClientService.updateRol(zaak, bepaalRolMedewerker(it, zaak), explanation)
-                } ?: run {
-                    val behandelaarRoltype = ztcClientService.readRoltype(
-                        zaak.zaaktype,
-                        OmschrijvingGeneriekEnum.BEHANDELAAR,
-                        ZgwApiService.ROLTYPE_OMSCHRIJVING_BEHANDELAAR
-                    )
-                    zrcClientService.listRollen(zaak)
-                        .filter { it.betrokkeneType == BetrokkeneTypeEnum.MEDEWERKER && it.roltype == behandelaarRoltype.url }
-                        .forEach { zrcClientService.deleteRol(it, explanation) }
-                }
-            }
-
-        LOG.fine { "Successfully assigned ${zakenAssignedList.size} zaken." }
-
-        // if a screen event resource ID was specified, send an 'updated zaken_verdelen' screen event
-        // with the job UUID so that it can be picked up by a client
-        // that has created a websocket subscription to this event
-        screenEventResourceId?.let {
-            LOG.fine { "Sending 'ZAKEN_VERDELEN' updated screen event with ID '$it'." }
-            eventingService.send(ScreenEventType.ZAKEN_VERDELEN.updated(it))
+        if (!authorised) {
+            LOG.fine { "Group '${group.name}' is not authorised for the zaaktype of zaak '${zaak.uuid}'. Skipping it." }
+            eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(zaak))
+            return BulkJobItemOutcome.skipped("Group '${group.name}' is not authorised for the zaaktype of the zaak")
+        }
+        val behandelaarRoltype = lookups.behandelaarRoltypen.computeIfAbsent(zaak.zaaktype, ::readBehandelaarRoltype)
+        zrcClientService.updateRol(zaak, rolGroep(group, zaak, behandelaarRoltype), explanation)
+        user?.let {
+            zrcClientService.updateRol(zaak, rolMedewerker(it, zaak, behandelaarRoltype), explanation)
+        } ?: run {
+            zrcClientService.listRollen(zaak)
+                .filter { it.betrokkeneType == BetrokkeneTypeEnum.MEDEWERKER && it.roltype == behandelaarRoltype.url }
+                .forEach { zrcClientService.deleteRol(it, explanation) }
         }
+        return BulkJobItemOutcome.DONE
     }
 
     /**
@@ -214,11 +191,7 @@ class ZaakService @Inject constructor(
             // No user should be assigned - delete any existing behandelaar roles
             var userDeleted = false
             if (user == null) {
-                val behandelaarRoltype = ztcClientService.readRoltype(
-                    zaak.zaaktype,
-                    OmschrijvingGeneriekEnum.BEHANDELAAR,
-                    ZgwApiService.ROLTYPE_OMSCHRIJVING_BEHANDELAAR
-                )
+                val behandelaarRoltype = readBehandelaarRoltype(zaak.zaaktype)
                 val behandelaarRoles = zrcClientService.listRollen(zaak)
                     .filter { it.betrokkeneType == BetrokkeneTypeEnum.MEDEWERKER && it.roltype == behandelaarRoltype.url }
                 behandelaarRoles.forEach { zrcClientService.deleteRol(it, reason) }
@@ -255,36 +228,9 @@ class ZaakService @Inject constructor(
 
     fun readZaakTypeByUUID(zaakTypeUUID: UUID): ZaakType = ztcClientService.readZaaktype(zaakTypeUUID)
 
-    fun bepaalRolGroep(group: Group, zaak: Zaak) =
-        RolOrganisatorischeEenheid(
-            zaak.url,
-            ztcClientService.readRoltype(
-                zaak.zaaktype,
-                OmschrijvingGeneriekEnum.BEHANDELAAR,
-                ZgwApiService.ROLTYPE_OMSCHRIJVING_BEHANDELAAR
-            ),
-            "Behandelend groep van de zaak",
-            OrganisatorischeEenheidIdentificatie().apply {
-                identificatie = group.name
-                naam = group.description
-            }
-        )
+    fun bepaalRolGroep(group: Group, zaak: Zaak) = rolGroep(group, zaak, readBehandelaarRoltype(zaak.zaaktype))
 
-    fun bepaalRolMedewerker(user: User, zaak: Zaak) =
-        RolMedewerker(
-            zaak.url,
-            ztcClientService.readRoltype(
-                zaak.zaaktype,
-                OmschrijvingGeneriekEnum.BEHANDELAAR,
-                ZgwApiService.ROLTYPE_OMSCHRIJVING_BEHANDELAAR
-            ),
-            "Behandelaar van de zaak",
-            MedewerkerIdentificatie().apply {
-                identificatie = user.id
-                voorletters = user.firstName
-                achternaam = user.lastName
-            }
-        )
+    fun bepaalRolMedewerker(user: User, zaak: Zaak) = rolMedewerker(user, zaak, readBehandelaarRoltype(zaak.zaaktype))
 
     fun listBetrokkenenforZaak(zaak: Zaak): List<Rol<*>> =
         zrcClientService.listRollen(zaak)
@@ -296,39 +242,24 @@ class ZaakService @Inject constructor(
             }
 
     /**
-     * Releases a list of zaken from a user and updates the search index on the fly.
-     * This can be a long-running operation.
+     * Releases a zaak from its behandelaar, as one of a list of zaken that are released in bulk.
+     * The zaak stays assigned to its group.
      *
-     * Zaken that are not open will be skipped.
+     * Zaken that are not open are skipped.
      */
     @WithSpan
-    fun releaseZaken(
-        @SpanAttribute("zaakUUIDs") zaakUUIDs: List<UUID>,
-        explanation: String? = null,
-        screenEventResourceId: String? = null
-    ) {
-        LOG.fine {
-            "Started to release ${zaakUUIDs.size} zaken with screen event resource ID: '$screenEventResourceId'."
-        }
-        zaakUUIDs
-            .map(zrcClientService::readZaak)
-            .filter {
-                if (!it.isOpen()) {
-                    LOG.fine("Zaak with UUID '${it.uuid} is not open. Therefore it is not released.")
-                    eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(it))
-                }
-                it.isOpen()
-            }
-            .forEach { zrcClientService.deleteRol(it, BetrokkeneTypeEnum.MEDEWERKER, explanation) }
-        LOG.fine { "Successfully released  ${zaakUUIDs.size} zaken." }
-
-        // if a screen event resource ID was specified, send a screen event
-        // with the job UUID so that it can be picked up by a client
-        // that has created a websocket subscription to this event
-        screenEventResourceId?.let {
-            LOG.fine { "Sending 'ZAKEN_VRIJGEVEN' screen event with ID '$it'." }
-            eventingService.send(ScreenEventType.ZAKEN_VRIJGEVEN.updated(it))
+    fun releaseZaakFromList(
+        @SpanAttribute("zaakUUID") zaakUUID: UUID,
+        explanation: String? = null
+    ): BulkJobItemOutcome {
+        val zaak = zrcClientService.readZaak(zaakUUID)
+        if (!zaak.isOpen()) {
+            LOG.fine("Zaak with UUID '${zaak.uuid} is not open. Therefore it is not released.")
+            eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(zaak))
+            return BulkJobItemOutcome.skipped("Zaak is not open")
         }
+        zrcClientService.deleteRol(zaak, BetrokkeneTypeEnum.MEDEWERKER, explanation)
+        return BulkJobItemOutcome.DONE
     }
 
     fun setOntvangstbevestigingVerstuurdIfNotHeropend(zaak: Zaak) {
@@ -401,11 +332,7 @@ class ZaakService @Inject constructor(
         user: User,
         reason: String?,
     ): Boolean {
-        val behandelaarRoltype = ztcClientService.readRoltype(
-            zaak.zaaktype,
-            OmschrijvingGeneriekEnum.BEHANDELAAR,
-            ZgwApiService.ROLTYPE_OMSCHRIJVING_BEHANDELAAR
-        )
+        val behandelaarRoltype = readBehandelaarRoltype(zaak.zaaktype)
         val behandelaarRoles = zrcClientService.listRollen(zaak)
             .filter { it.betrokkeneType == BetrokkeneTypeEnum.MEDEWERKER && it.roltype == behandelaarRoltype.url }
 
@@ -468,24 +395,35 @@ class ZaakService @Inject constructor(
         }
     }
 
-    private fun isUserInGroup(
-        user: User?,
-        group: Group,
-        zaakUUIDs: List<UUID>
-    ) =
-        user?.let {
-            val inGroup = identityService.isUserInGroup(user.id, group.name)
-            if (!inGroup) {
-                LOG.warning(
-                    "User '${user.displayName}' (id: {$user.id}) is not in the group '${group.description}'. " +
-                        "Skipping all zaken."
-                )
-                zaakUUIDs
-                    .map(zrcClientService::readZaak)
-                    .forEach { eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(it)) }
+    private fun readBehandelaarRoltype(zaaktype: URI) =
+        ztcClientService.readRoltype(
+            zaaktype,
+            OmschrijvingGeneriekEnum.BEHANDELAAR,
+            ZgwApiService.ROLTYPE_OMSCHRIJVING_BEHANDELAAR
+        )
+
+    private fun rolGroep(group: Group, zaak: Zaak, behandelaarRoltype: RolType) =
+        RolOrganisatorischeEenheid(
+            zaak.url,
+            behandelaarRoltype,
+            "Behandelend groep van de zaak",
+            OrganisatorischeEenheidIdentificatie().apply {
+                identificatie = group.name
+                naam = group.description
+            }
+        )
+
+    private fun rolMedewerker(user: User, zaak: Zaak, behandelaarRoltype: RolType) =
+        RolMedewerker(
+            zaak.url,
+            behandelaarRoltype,
+            "Behandelaar van de zaak",
+            MedewerkerIdentificatie().apply {
+                identificatie = user.id
+                voorletters = user.firstName
+                achternaam = user.lastName
             }
-            inGroup
-        } ?: true
+        )
 
     private fun isZaakOpen(zaak: Zaak) =
         zaak.let {
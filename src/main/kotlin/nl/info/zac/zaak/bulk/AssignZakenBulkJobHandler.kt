@@ -0,0 +1,92 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.zaak.bulk
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import net.atos.zac.event.EventingService
+import net.atos.zac.websocket.event.ScreenEventType
+import nl.info.zac.bulk.BulkJobExecution
+import nl.info.zac.bulk.BulkJobHandler
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJobItemOutcome
+import nl.info.zac.bulk.model.BulkJobProgress
+import nl.info.zac.bulk.model.BulkJobType
+import nl.info.zac.bulk.readParameters
+import nl.info.zac.identity.IdentityService
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import nl.info.zac.zaak.ZaakAssignmentLookups
+import nl.info.zac.zaak.ZaakService
+import java.util.UUID
+import java.util.logging.Logger
+
+/**
+ * Assigns a list of zaken to a group and optionally a user.
+ *
+ * Every zaak that is assigned or skipped is reported with a [ScreenEventType.ZAAK_ROLLEN] screen event, and the
+ * completion of the job with a [ScreenEventType.ZAKEN_VERDELEN] screen event. When the user is not part of the group,
+ * all zaken are skipped.
+ */
+@ApplicationScoped
+@NoArgConstructor
+@AllOpen
+class AssignZakenBulkJobHandler @Inject constructor(
+    private val zaakService: ZaakService,
+    private val identityService: IdentityService,
+    private val eventingService: EventingService
+) : BulkJobHandler {
+    companion object {
+        private val LOG = Logger.getLogger(AssignZakenBulkJobHandler::class.java.name)
+    }
+
+    data class Parameters(
+        val groupId: String,
+        val userName: String? = null,
+        val explanation: String? = null
+    )
+
+    override val type = BulkJobType.ZAKEN_VERDELEN
+
+    override fun start(job: BulkJob): BulkJobExecution {
+        val parameters = job.readParameters(Parameters::class.java)
+        val group = identityService.readGroup(parameters.groupId)
+        val user = parameters.userName?.let { identityService.readUser(it) }
+        val userInGroup = user?.let { identityService.isUserInGroup(it.id, group.name) } ?: true
+        if (!userInGroup) {
+            LOG.warning(
+                "User '${user?.displayName}' (id: ${user?.id}) is not in the group '${group.description}'. " +
+                    "Skipping all zaken."
+            )
+        }
+        val lookups = ZaakAssignmentLookups()
+        return object : BulkJobExecution {
+            override fun process(itemIds: List<String>) =
+                itemIds.associateWith {
+                    if (userInGroup) {
+                        zaakService.assignZaakFromList(UUID.fromString(it), group, user, parameters.explanation, lookups)
+                    } else {
+                        eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(UUID.fromString(it)))
+                        BulkJobItemOutcome.skipped("User is not in the group")
+                    }
+                }
+
+            override fun finish(progress: BulkJobProgress) {
+                LOG.fine { "Assigned ${progress.done} of ${progress.total} zaken." }
+                // send a screen event with the resource ID, so that it can be picked up by a client
+                // that has created a websocket subscription to this event
+                job.screenEventResourceId?.let {
+                    eventingService.send(
+                        if (userInGroup) {
+                            ScreenEventType.ZAKEN_VERDELEN.updated(it)
+                        } else {
+                            ScreenEventType.ZAKEN_VERDELEN.skipped(it)
+                        }
+                    )
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.zaak.bulk
+
+import jakarta.enterprise.context.ApplicationScoped
+import jakarta.inject.Inject
+import net.atos.zac.event.EventingService
+import net.atos.zac.websocket.event.ScreenEventType
+import nl.info.zac.bulk.BulkJobExecution
+import nl.info.zac.bulk.BulkJobHandler
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJobProgress
+import nl.info.zac.bulk.model.BulkJobType
+import nl.info.zac.bulk.readParameters
+import nl.info.zac.util.AllOpen
+import nl.info.zac.util.NoArgConstructor
+import nl.info.zac.zaak.ZaakService
+import java.util.UUID
+import java.util.logging.Logger
+
+/**
+ * Releases a list of zaken from their behandelaar.
+ *
+ * Every zaak that is skipped is reported with a [ScreenEventType.ZAAK_ROLLEN] screen event, and the completion of the
+ * job with a [ScreenEventType.ZAKEN_VRIJGEVEN] screen event.
+ */
+@ApplicationScoped
+@NoArgConstructor
+@AllOpen
+class ReleaseZakenBulkJobHandler @Inject constructor(
+    private val zaakService: ZaakService,
+    private val eventingService: EventingService
+) : BulkJobHandler {
+    companion object {
+        private val LOG = Logger.getLogger(ReleaseZakenBulkJobHandler::class.java.name)
+    }
+
+    data class Parameters(
+        val explanation: String? = null
+    )
+
+    override val type = BulkJobType.ZAKEN_VRIJGEVEN
+
+    override fun start(job: BulkJob): BulkJobExecution {
+        val parameters = job.readParameters(Parameters::class.java)
+        return object : BulkJobExecution {
+            override fun process(itemIds: List<String>) =
+                itemIds.associateWith { zaakService.releaseZaakFromList(UUID.fromString(it), parameters.explanation) }
+
+            override fun finish(progress: BulkJobProgress) {
+                LOG.fine { "Released ${progress.done} of ${progress.total} zaken." }
+                // send a screen event with the resource ID, so that it can be picked up by a client
+                // that has created a websocket subscription to this event
+                job.screenEventResourceId?.let {
+                    eventingService.send(ScreenEventType.ZAKEN_VRIJGEVEN.updated(it))
+                }
+            }
+        }
+    }
+}
@@ -29,6 +29,13 @@ document_rechten := {
     "converteren": converteren
 }
 
+# Evaluates the document rechten for each of the inputs in 'input.inputs' in a single call
+# (e.g. for a page of search results). The result contains the document rechten per input, in the same order.
+document_rechten_bulk := {"rechten": [rechten |
+    some document_input in input.inputs
+    rechten := document_rechten with input as document_input
+]}
+
 default zaaktype_allowed := false
 zaaktype_allowed if {
     not document.zaaktype
@@ -23,6 +23,13 @@ taak_rechten := {
     "toevoegen_document": toevoegen_document
 }
 
+# Evaluates the taak rechten for each of the inputs in 'input.inputs' in a single call
+# (e.g. for a page of search results). The result contains the taak rechten per input, in the same order.
+taak_rechten_bulk := {"rechten": [rechten |
+    some taak_input in input.inputs
+    rechten := taak_rechten with input as taak_input
+]}
+
 default zaaktype_allowed := false
 zaaktype_allowed if {
     not user.zaaktypen
@@ -47,6 +47,13 @@ zaak_rechten := {
     "brondatum_zetten": brondatum_zetten
 }
 
+# Evaluates the zaak rechten for each of the inputs in 'input.inputs' in a single call
+# (e.g. for a page of search results). The result contains the zaak rechten per input, in the same order.
+zaak_rechten_bulk := {"rechten": [rechten |
+    some zaak_input in input.inputs
+    rechten := zaak_rechten with input as zaak_input
+]}
+
 default zaaktype_allowed := false
 zaaktype_allowed if {
     not user.zaaktypen
@@ -0,0 +1,41 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+
+-- Bulk operations (like assigning a list of zaken) that are run in the background.
+-- The outcome of every item is recorded, so that a job that was interrupted by a restart resumes where it stopped.
+CREATE TABLE ${schema}.bulk_job
+(
+    id_bulk_job              BIGINT                   NOT NULL,
+    job_type                 VARCHAR                  NOT NULL,
+    status                   VARCHAR                  NOT NULL,
+    parameters               VARCHAR                  NOT NULL,
+    screen_event_resource_id VARCHAR,
+    created_by               VARCHAR                  NOT NULL,
+    created_at               TIMESTAMP WITH TIME ZONE NOT NULL,
+    lease_until              TIMESTAMP WITH TIME ZONE NOT NULL,
+    completed_at             TIMESTAMP WITH TIME ZONE,
+    total                    INTEGER                  NOT NULL,
+    CONSTRAINT pk_bulk_job PRIMARY KEY (id_bulk_job)
+);
+
+CREATE SEQUENCE ${schema}.sq_bulk_job START WITH 1 INCREMENT BY 1 NO MINVALUE NO MAXVALUE CACHE 1;
+
+CREATE INDEX idx_bulk_job_lease_until ON ${schema}.bulk_job USING btree (lease_until) WHERE status = 'RUNNING';
+
+CREATE TABLE ${schema}.bulk_job_item
+(
+    id_bulk_job_item BIGINT  NOT NULL,
+    id_bulk_job      BIGINT  NOT NULL,
+    item_id          VARCHAR NOT NULL,
+    status           VARCHAR NOT NULL,
+    outcome          VARCHAR,
+    CONSTRAINT pk_bulk_job_item PRIMARY KEY (id_bulk_job_item),
+    CONSTRAINT fk_bulk_job_item_bulk_job FOREIGN KEY (id_bulk_job) REFERENCES ${schema}.bulk_job (id_bulk_job)
+        ON DELETE CASCADE
+);
+
+CREATE SEQUENCE ${schema}.sq_bulk_job_item START WITH 1 INCREMENT BY 1 NO MINVALUE NO MAXVALUE CACHE 1;
+
+CREATE INDEX idx_bulk_job_item_id_bulk_job_status ON ${schema}.bulk_job_item USING btree (id_bulk_job, status);
@@ -0,0 +1,11 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+
+-- Failed attempts to index a queued object are counted, so that they are retried with an increasing delay,
+-- and objects that keep failing are set aside as dead letters instead of being retried forever.
+ALTER TABLE ${schema}.indexing_queue_item ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE ${schema}.indexing_queue_item ADD COLUMN dead_lettered_at TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX idx_indexing_queue_item_dead_lettered_at ON ${schema}.indexing_queue_item USING btree (dead_lettered_at);
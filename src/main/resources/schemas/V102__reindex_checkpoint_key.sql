@@ -0,0 +1,10 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+
+-- An interrupted reindexing is resumed from the key (like the start date of a zaak) of the first object that has not
+-- been written to the search index yet, instead of from a page number, because objects that are created or deleted
+-- in the meantime shift the pages.
+ALTER TABLE ${schema}.reindex_checkpoint ADD COLUMN next_key VARCHAR;
+ALTER TABLE ${schema}.reindex_checkpoint DROP COLUMN next_page;
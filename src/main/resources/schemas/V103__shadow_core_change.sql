@@ -0,0 +1,16 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+
+-- The objects that were changed in (or removed from) the search index while it was being rebuilt in the shadow Solr
+-- core. A page of objects that was converted before such a change may be written to the shadow core after it, so the
+-- rebuild applies these changes once more before the shadow core is swapped with the ZAC core.
+CREATE TABLE ${schema}.shadow_core_change
+(
+    object_id   VARCHAR                  NOT NULL,
+    object_type VARCHAR,
+    deleted     BOOLEAN                  NOT NULL,
+    changed_at  TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_shadow_core_change PRIMARY KEY (object_id)
+);
@@ -0,0 +1,23 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+
+-- Work queue of objects that still need to be (re)indexed in the Solr search index.
+-- There is at most one pending row per object so that repeated notifications for the same object are coalesced.
+CREATE TABLE ${schema}.indexing_queue_item
+(
+    id_indexing_queue_item BIGINT                   NOT NULL,
+    object_type            VARCHAR                  NOT NULL,
+    object_id              VARCHAR                  NOT NULL,
+    include_tasks          BOOLEAN                  NOT NULL DEFAULT FALSE,
+    enqueued_at            TIMESTAMP WITH TIME ZONE NOT NULL,
+    claimed_until          TIMESTAMP WITH TIME ZONE,
+    requeued               BOOLEAN                  NOT NULL DEFAULT FALSE,
+    CONSTRAINT pk_indexing_queue_item PRIMARY KEY (id_indexing_queue_item),
+    CONSTRAINT un_indexing_queue_item_object UNIQUE (object_type, object_id)
+);
+
+CREATE SEQUENCE ${schema}.sq_indexing_queue_item START WITH 1 INCREMENT BY 1 NO MINVALUE NO MAXVALUE CACHE 1;
+
+CREATE INDEX idx_indexing_queue_item_enqueued_at ON ${schema}.indexing_queue_item USING btree (enqueued_at);
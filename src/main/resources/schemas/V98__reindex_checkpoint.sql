@@ -0,0 +1,18 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+
+-- Progress of the full reindexing of a type of object in the Solr search index.
+-- Used to resume an interrupted reindexing and as a cluster-wide lease, so that only one node reindexes a type at a time.
+CREATE TABLE ${schema}.reindex_checkpoint
+(
+    object_type VARCHAR                  NOT NULL,
+    status      VARCHAR                  NOT NULL,
+    next_page   INTEGER                  NOT NULL,
+    lease_owner VARCHAR,
+    lease_until TIMESTAMP WITH TIME ZONE,
+    started_at  TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at  TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_reindex_checkpoint PRIMARY KEY (object_type)
+);
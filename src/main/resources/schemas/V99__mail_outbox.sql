@@ -0,0 +1,25 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+
+-- Outbox of mails that still need to be delivered to the SMTP relay.
+-- Mails are enqueued in the transaction of the operation that sends them and are delivered in the background.
+CREATE TABLE ${schema}.mail_outbox_item
+(
+    id_mail_outbox_item BIGINT                   NOT NULL,
+    recipients          VARCHAR                  NOT NULL,
+    subject             VARCHAR,
+    mime_message        BYTEA                    NOT NULL,
+    enqueued_at         TIMESTAMP WITH TIME ZONE NOT NULL,
+    next_attempt_at     TIMESTAMP WITH TIME ZONE NOT NULL,
+    attempts            INTEGER                  NOT NULL DEFAULT 0,
+    last_error          VARCHAR,
+    failed              BOOLEAN                  NOT NULL DEFAULT FALSE,
+    CONSTRAINT pk_mail_outbox_item PRIMARY KEY (id_mail_outbox_item)
+);
+
+CREATE SEQUENCE ${schema}.sq_mail_outbox_item START WITH 1 INCREMENT BY 1 NO MINVALUE NO MAXVALUE CACHE 1;
+
+CREATE INDEX idx_mail_outbox_item_next_attempt_at ON ${schema}.mail_outbox_item USING btree (next_attempt_at)
+    WHERE NOT failed;
@@ -9,16 +9,21 @@ import io.kotest.matchers.shouldBe
 import io.kotest.matchers.string.shouldContain
 import io.mockk.checkUnnecessaryStub
 import io.mockk.every
+import io.mockk.just
 import io.mockk.mockk
+import io.mockk.runs
 import io.mockk.verify
 import net.atos.client.zgw.shared.cache.Caching
 import nl.info.zac.admin.ZaaktypeCmmnConfigurationBeheerService
 import nl.info.zac.admin.ZaaktypeCmmnConfigurationService
 import nl.info.zac.admin.model.createZaaktypeCmmnConfiguration
+import nl.info.zac.cache.CacheInvalidation
+import nl.info.zac.cache.CacheInvalidationBus
 import java.util.UUID
 
 class ZaaktypeCmmnConfigurationServiceTest : BehaviorSpec({
     val beheerService = mockk<ZaaktypeCmmnConfigurationBeheerService>()
+    val cacheInvalidationBus = mockk<CacheInvalidationBus>()
 
     afterEach {
         checkUnnecessaryStub()
@@ -27,7 +32,7 @@ class ZaaktypeCmmnConfigurationServiceTest : BehaviorSpec({
     given("a zaaktype UUID") {
         val uuid = UUID.randomUUID()
         val config = createZaaktypeCmmnConfiguration(zaaktypeUUID = uuid)
-        val service = ZaaktypeCmmnConfigurationService(beheerService)
+        val service = ZaaktypeCmmnConfigurationService(beheerService, cacheInvalidationBus)
         every { beheerService.fetchZaaktypeCmmnConfiguration(uuid) } returns config
 
         `when`("readZaaktypeCmmnConfiguration is called twice") {
@@ -44,7 +49,7 @@ class ZaaktypeCmmnConfigurationServiceTest : BehaviorSpec({
 
     given("a list of zaaktype CMMN configurations") {
         val configs = listOf(createZaaktypeCmmnConfiguration(), createZaaktypeCmmnConfiguration())
-        val service = ZaaktypeCmmnConfigurationService(beheerService)
+        val service = ZaaktypeCmmnConfigurationService(beheerService, cacheInvalidationBus)
         every { beheerService.listZaaktypeCmmnConfiguration() } returns configs
 
         `when`("listZaaktypeCmmnConfiguration is called twice") {
@@ -62,16 +67,26 @@ class ZaaktypeCmmnConfigurationServiceTest : BehaviorSpec({
     given("a cached zaaktype configuration") {
         val uuid = UUID.randomUUID()
         val config = createZaaktypeCmmnConfiguration(zaaktypeUUID = uuid)
-        val service = ZaaktypeCmmnConfigurationService(beheerService)
+        val service = ZaaktypeCmmnConfigurationService(beheerService, cacheInvalidationBus)
         every { beheerService.fetchZaaktypeCmmnConfiguration(uuid) } returns config
+        every {
+            cacheInvalidationBus.publish(
+                CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED, uuid.toString())
+            )
+        } just runs
 
         `when`("cacheRemoveZaaktypeCmmnConfiguration is called after first read") {
             service.readZaaktypeCmmnConfiguration(uuid)
             service.cacheRemoveZaaktypeCmmnConfiguration(uuid)
             service.readZaaktypeCmmnConfiguration(uuid)
 
-            then("beheer service is called twice because cache was invalidated") {
+            then("beheer service is called twice because cache was invalidated and the other nodes are notified") {
                 verify(exactly = 2) { beheerService.fetchZaaktypeCmmnConfiguration(uuid) }
+                verify(exactly = 1) {
+                    cacheInvalidationBus.publish(
+                        CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED, uuid.toString())
+                    )
+                }
             }
         }
     }
@@ -79,9 +94,13 @@ class ZaaktypeCmmnConfigurationServiceTest : BehaviorSpec({
     given("a populated managed cache") {
         val uuid = UUID.randomUUID()
         val config = createZaaktypeCmmnConfiguration(zaaktypeUUID = uuid)
-        val service = ZaaktypeCmmnConfigurationService(beheerService)
+        val service = ZaaktypeCmmnConfigurationService(beheerService, cacheInvalidationBus)
         every { beheerService.fetchZaaktypeCmmnConfiguration(uuid) } returns config
 
+        every {
+            cacheInvalidationBus.publish(CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED))
+        } just runs
+
         service.readZaaktypeCmmnConfiguration(uuid)
 
         `when`("clearManagedCache is called") {
@@ -97,9 +116,11 @@ class ZaaktypeCmmnConfigurationServiceTest : BehaviorSpec({
 
     given("a populated list cache") {
         val configs = listOf(createZaaktypeCmmnConfiguration())
-        val service = ZaaktypeCmmnConfigurationService(beheerService)
+        val service = ZaaktypeCmmnConfigurationService(beheerService, cacheInvalidationBus)
         every { beheerService.listZaaktypeCmmnConfiguration() } returns configs
 
+        every { cacheInvalidationBus.publish(CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION)) } just runs
+
         service.listZaaktypeCmmnConfiguration()
 
         `when`("clearListCache is called") {
@@ -112,4 +133,48 @@ class ZaaktypeCmmnConfigurationServiceTest : BehaviorSpec({
             }
         }
     }
+
+    given("a cached zaaktype configuration that is evicted on another node") {
+        val uuid = UUID.randomUUID()
+        val otherUuid = UUID.randomUUID()
+        val service = ZaaktypeCmmnConfigurationService(beheerService, cacheInvalidationBus)
+        every { beheerService.fetchZaaktypeCmmnConfiguration(uuid) } returns createZaaktypeCmmnConfiguration(
+            zaaktypeUUID = uuid
+        )
+        every { beheerService.fetchZaaktypeCmmnConfiguration(otherUuid) } returns createZaaktypeCmmnConfiguration(
+            zaaktypeUUID = otherUuid
+        )
+        service.readZaaktypeCmmnConfiguration(uuid)
+        service.readZaaktypeCmmnConfiguration(otherUuid)
+
+        `when`("the invalidation of the configuration is received") {
+            service.onCacheInvalidation(
+                CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED, uuid.toString())
+            )
+            service.readZaaktypeCmmnConfiguration(uuid)
+            service.readZaaktypeCmmnConfiguration(otherUuid)
+
+            then("only the evicted configuration is read again, without publishing the invalidation again") {
+                verify(exactly = 2) { beheerService.fetchZaaktypeCmmnConfiguration(uuid) }
+                verify(exactly = 1) { beheerService.fetchZaaktypeCmmnConfiguration(otherUuid) }
+                verify(exactly = 0) { cacheInvalidationBus.publish(any()) }
+            }
+        }
+    }
+
+    given("a populated list cache and a request to clear all caches") {
+        val configs = listOf(createZaaktypeCmmnConfiguration())
+        val service = ZaaktypeCmmnConfigurationService(beheerService, cacheInvalidationBus)
+        every { beheerService.listZaaktypeCmmnConfiguration() } returns configs
+        service.listZaaktypeCmmnConfiguration()
+
+        `when`("the request is received") {
+            service.onCacheInvalidation(CacheInvalidation.CLEAR_ALL)
+            service.listZaaktypeCmmnConfiguration()
+
+            then("the list is read again") {
+                verify(exactly = 2) { beheerService.listZaaktypeCmmnConfiguration() }
+            }
+        }
+    }
 })
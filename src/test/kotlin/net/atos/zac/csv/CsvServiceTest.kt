@@ -0,0 +1,49 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package net.atos.zac.csv
+
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.collections.shouldContain
+import io.kotest.matchers.collections.shouldNotContain
+import io.kotest.matchers.shouldBe
+import nl.info.zac.search.model.createZaakZoekObject
+import java.io.ByteArrayOutputStream
+
+class CsvServiceTest : BehaviorSpec({
+    val csvService = CsvService()
+
+    given("Two pages of zaak zoek objecten") {
+        val pages = listOf(
+            listOf(createZaakZoekObject(identificatie = "ZAAK-1"), createZaakZoekObject(identificatie = "ZAAK-2")),
+            listOf(createZaakZoekObject(identificatie = "ZAAK-3"))
+        )
+
+        `when`("the pages are exported to CSV") {
+            val outputStream = ByteArrayOutputStream()
+            csvService.exportToCsv(pages).write(outputStream)
+            val rows = outputStream.toString().lines().filter { it.isNotEmpty() }.map { it.split(";") }
+
+            then("a single header row is written, followed by a row with the same columns for every zoek object") {
+                rows.size shouldBe 1 + 3
+                rows.forEach { it.size shouldBe rows[0].size }
+                rows[0] shouldContain "\"identificatie\""
+                rows[0] shouldNotContain "\"uuid\""
+                val identificatieColumn = rows[0].indexOf("\"identificatie\"")
+                rows.drop(1).map { it[identificatieColumn] } shouldBe listOf("\"ZAAK-1\"", "\"ZAAK-2\"", "\"ZAAK-3\"")
+            }
+        }
+    }
+
+    given("No zoek objecten") {
+        `when`("they are exported to CSV") {
+            val outputStream = ByteArrayOutputStream()
+            csvService.exportToCsv(listOf(emptyList())).write(outputStream)
+
+            then("an empty CSV is written") {
+                outputStream.toString() shouldBe "\n"
+            }
+        }
+    }
+})
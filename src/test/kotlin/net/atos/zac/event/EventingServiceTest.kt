@@ -0,0 +1,114 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package net.atos.zac.event
+
+import io.kotest.core.spec.IsolationMode
+import io.kotest.core.spec.style.BehaviorSpec
+import io.mockk.checkUnnecessaryStub
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.slot
+import io.mockk.verify
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService
+import jakarta.enterprise.event.Event
+import net.atos.zac.signalering.event.SignaleringEvent
+import net.atos.zac.util.event.JobEvent
+import net.atos.zac.websocket.event.ScreenEvent
+import net.atos.zac.websocket.event.createScreenEvent
+import net.atos.zac.websocket.event.createScreenEventId
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+class EventingServiceTest : BehaviorSpec({
+    isolationMode = IsolationMode.InstancePerTest
+
+    val screenUpdateEvent = mockk<Event<ScreenEvent>>()
+    val signaleringEvent = mockk<Event<SignaleringEvent<*>>>()
+    val jobEvent = mockk<Event<JobEvent>>()
+    val managedScheduledExecutorService = mockk<ManagedScheduledExecutorService>()
+    val eventingService = EventingService(screenUpdateEvent, signaleringEvent, jobEvent).apply {
+        setManagedScheduledExecutorService(managedScheduledExecutorService)
+    }
+
+    afterEach {
+        checkUnnecessaryStub()
+    }
+
+    given("A screen event without a delay") {
+        val screenEvent = createScreenEvent()
+        every { screenUpdateEvent.fireAsync(screenEvent) } returns CompletableFuture.completedStage(screenEvent)
+
+        `when`("the event is sent") {
+            eventingService.send(screenEvent)
+
+            then("it is fired right away") {
+                verify(exactly = 1) {
+                    screenUpdateEvent.fireAsync(screenEvent)
+                }
+                verify(exactly = 0) {
+                    managedScheduledExecutorService.schedule(any<Runnable>(), any(), any())
+                }
+            }
+        }
+    }
+
+    given("Identical screen events with a delay") {
+        val screenEvents = List(3) {
+            createScreenEvent(screenEventId = createScreenEventId(detail = "fakeDetail$it")).apply { setDelay(3) }
+        }
+        val scheduledFire = slot<Runnable>()
+        every {
+            managedScheduledExecutorService.schedule(capture(scheduledFire), 3, TimeUnit.SECONDS)
+        } returns mockk()
+
+        `when`("the events are sent before the first one is due") {
+            screenEvents.forEach { eventingService.send(it) }
+
+            then("they are coalesced into a single scheduled event that does not block a thread") {
+                verify(exactly = 1) {
+                    managedScheduledExecutorService.schedule(any<Runnable>(), 3, TimeUnit.SECONDS)
+                }
+                verify(exactly = 0) {
+                    screenUpdateEvent.fireAsync(any())
+                }
+            }
+        }
+
+        `when`("the scheduled event is due and another identical event is sent afterwards") {
+            every {
+                screenUpdateEvent.fireAsync(screenEvents[0])
+            } returns CompletableFuture.completedStage(screenEvents[0])
+            eventingService.send(screenEvents[0])
+            scheduledFire.captured.run()
+            eventingService.send(screenEvents[1])
+
+            then("the event is fired once and the later event is scheduled again") {
+                verify(exactly = 1) {
+                    screenUpdateEvent.fireAsync(screenEvents[0])
+                }
+                verify(exactly = 2) {
+                    managedScheduledExecutorService.schedule(any<Runnable>(), 3, TimeUnit.SECONDS)
+                }
+            }
+        }
+    }
+
+    given("Screen events with a delay for different objects") {
+        val screenEvents = listOf("fakeResource1", "fakeResource2").map {
+            createScreenEvent(screenEventId = createScreenEventId(resource = it)).apply { setDelay(3) }
+        }
+        every { managedScheduledExecutorService.schedule(any<Runnable>(), 3, TimeUnit.SECONDS) } returns mockk()
+
+        `when`("the events are sent") {
+            screenEvents.forEach { eventingService.send(it) }
+
+            then("each event is scheduled") {
+                verify(exactly = 2) {
+                    managedScheduledExecutorService.schedule(any<Runnable>(), 3, TimeUnit.SECONDS)
+                }
+            }
+        }
+    }
+})
@@ -1,10 +1,11 @@
 /*
- * SPDX-FileCopyrightText: 2025 INFO.nl
+ * SPDX-FileCopyrightText: 2025 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package net.atos.zac.flowable
 
 import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.IsolationMode
 import io.kotest.core.spec.style.BehaviorSpec
 import io.kotest.matchers.maps.shouldContainExactly
 import io.kotest.matchers.shouldBe
@@ -17,17 +18,23 @@ import io.mockk.runs
 import io.mockk.verify
 import net.atos.zac.flowable.ZaakVariabelenService.Companion.VAR_DATUMTIJD_OPGESCHORT
 import net.atos.zac.flowable.ZaakVariabelenService.Companion.VAR_VERWACHTE_DAGEN_OPGESCHORT
+import net.atos.zac.flowable.exception.CaseOrProcessNotFoundException
 import nl.info.test.org.flowable.cmmn.api.runtime.createTestPlanItemInstance
 import org.flowable.cmmn.api.CmmnHistoryService
 import org.flowable.cmmn.api.CmmnRuntimeService
+import org.flowable.cmmn.api.history.HistoricCaseInstance
 import org.flowable.cmmn.api.runtime.CaseInstance
+import org.flowable.common.engine.api.FlowableObjectNotFoundException
 import org.flowable.engine.HistoryService
 import org.flowable.engine.RuntimeService
+import org.flowable.engine.history.HistoricProcessInstance
 import org.flowable.engine.runtime.ProcessInstance
 import java.time.ZonedDateTime
 import java.util.UUID
 
 class ZaakVariabelenServiceTest : BehaviorSpec({
+    isolationMode = IsolationMode.InstancePerTest
+
     val cmmnRuntimeService = mockk<CmmnRuntimeService>()
     val cmmnHistoryService = mockk<CmmnHistoryService>()
     val bpmnRuntimeService = mockk<RuntimeService>()
@@ -36,7 +43,8 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
         cmmnRuntimeService,
         cmmnHistoryService,
         bpmnRuntimeService,
-        bpmnHistoryService
+        bpmnHistoryService,
+        ZaakFlowableInstanceResolver(cmmnRuntimeService, cmmnHistoryService, bpmnRuntimeService, bpmnHistoryService)
     )
     val zaakUuid = UUID.randomUUID()
 
@@ -48,10 +56,9 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
         val planItemInstance = createTestPlanItemInstance()
         val caseInstanceId = planItemInstance.caseInstanceId
         val caseInstance = mockk<CaseInstance>()
-        val caseVariables = mapOf("zaakUUID" to zaakUuid)
-        every { caseInstance.caseVariables } returns caseVariables
 
         `when`("the zaak UUID variable is read") {
+            every { caseInstance.caseVariables } returns mapOf("zaakUUID" to zaakUuid)
             every {
                 cmmnRuntimeService.createCaseInstanceQuery()
                     .caseInstanceId(caseInstanceId)
@@ -69,6 +76,40 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
             }
         }
 
+        `when`("the zaak data is read twice") {
+            val caseVariables = mapOf("test1" to 1)
+            every { caseInstance.id } returns caseInstanceId
+            every { caseInstance.caseVariables } returns caseVariables
+            every {
+                cmmnRuntimeService.createCaseInstanceQuery()
+                    .caseInstanceBusinessKey(zaakUuid.toString())
+                    .includeCaseVariables()
+                    .singleResult()
+            } returns caseInstance
+            every {
+                cmmnRuntimeService.createCaseInstanceQuery()
+                    .caseInstanceId(caseInstanceId)
+                    .includeCaseVariables()
+                    .singleResult()
+            } returns caseInstance
+
+            val zaakdata = zaakVariabelenService.readZaakdata(zaakUuid)
+            val cachedZaakdata = zaakVariabelenService.readZaakdata(zaakUuid)
+
+            then("the case instance is looked up once, and read by its id the second time") {
+                zaakdata shouldContainExactly caseVariables
+                cachedZaakdata shouldContainExactly caseVariables
+                verify(exactly = 2) {
+                    cmmnRuntimeService.createCaseInstanceQuery()
+                }
+                verify(exactly = 0) {
+                    cmmnHistoryService.createHistoricCaseInstanceQuery()
+                    bpmnRuntimeService.createProcessInstanceQuery()
+                    bpmnHistoryService.createHistoricProcessInstanceQuery()
+                }
+            }
+        }
+
         `when`("the zaak data is changed") {
             val variables = mapOf("test1" to 1, "test2" to 2)
             every {
@@ -91,14 +132,15 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
         `when`("expected suspend days is set") {
             every {
                 cmmnRuntimeService.createCaseInstanceQuery()
-                    .variableValueEquals("zaakUUID", zaakUuid)
+                    .caseInstanceBusinessKey(zaakUuid.toString())
                     .singleResult()
             } returns caseInstance
+            every { caseInstance.id } returns caseInstanceId
             every { cmmnRuntimeService.setVariable(caseInstanceId, "verwachteDagenOpgeschort", 1) } just runs
 
             zaakVariabelenService.setVerwachteDagenOpgeschort(zaakUuid, 1)
 
-            then("the correct call to BPMN service is executed") {
+            then("the correct call to CMMN service is executed") {
                 verify(exactly = 1) {
                     cmmnRuntimeService.setVariable(caseInstanceId, "verwachteDagenOpgeschort", 1)
                 }
@@ -112,24 +154,63 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
                     .caseInstanceBusinessKey(zaakUuid.toString())
                     .singleResult()
             } returns caseInstance
+            every { caseInstance.id } returns caseInstanceId
             every { cmmnRuntimeService.removeVariable(caseInstanceId, "verwachteDagenOpgeschort") } just runs
 
             zaakVariabelenService.removeVerwachteDagenOpgeschort(zaakUuid)
 
-            then("the correct call to BPMN service is executed") {
+            then("the correct call to CMMN service is executed") {
                 verify(exactly = 1) {
                     cmmnRuntimeService.removeVariable(caseInstanceId, "verwachteDagenOpgeschort")
                 }
             }
         }
+
+        `when`("the zaak data is changed after the case instance has ended") {
+            val variables = mapOf("test1" to 1)
+            val historicCaseInstance = mockk<HistoricCaseInstance>()
+            every {
+                cmmnRuntimeService.createCaseInstanceQuery()
+                    .caseInstanceBusinessKey(zaakUuid.toString())
+                    .singleResult()
+            } returnsMany listOf(caseInstance, null)
+            every { caseInstance.id } returns caseInstanceId
+            every {
+                cmmnRuntimeService.setVariables(caseInstanceId, variables)
+            } throws FlowableObjectNotFoundException("fakeMessage")
+            every {
+                bpmnRuntimeService.createProcessInstanceQuery()
+                    .processInstanceBusinessKey(zaakUuid.toString())
+                    .singleResult()
+            } returns null
+            every {
+                cmmnHistoryService.createHistoricCaseInstanceQuery()
+                    .caseInstanceBusinessKey(zaakUuid.toString())
+                    .singleResult()
+            } returns historicCaseInstance
+            every { historicCaseInstance.id } returns caseInstanceId
+
+            val exception = shouldThrow<CaseOrProcessNotFoundException> {
+                zaakVariabelenService.setZaakdata(zaakUuid, variables)
+            }
+
+            then("the case instance is looked up again and the zaak data is not changed") {
+                exception.message shouldContain zaakUuid.toString()
+                verify(exactly = 1) {
+                    cmmnRuntimeService.setVariables(caseInstanceId, variables)
+                }
+            }
+        }
     }
 
     given("A case instance with a running BPMN process") {
         val processInstance = mockk<ProcessInstance>()
+        val processInstanceId = "fakeProcessInstanceId"
         val processVariables = mapOf(
             "a" to 1,
             "b" to 2
         )
+        every { processInstance.id } returns processInstanceId
 
         `when`("reading zaak process data") {
             every {
@@ -147,8 +228,33 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
             }
         }
 
+        `when`("reading zaak process data twice") {
+            every {
+                bpmnRuntimeService
+                    .createProcessInstanceQuery()
+                    .processInstanceBusinessKey(zaakUuid.toString())
+                    .includeProcessVariables().singleResult()
+            } returns processInstance
+            every {
+                bpmnRuntimeService
+                    .createProcessInstanceQuery()
+                    .processInstanceId(processInstanceId)
+                    .includeProcessVariables().singleResult()
+            } returns processInstance
+            every { processInstance.processVariables } returns processVariables
+
+            zaakVariabelenService.readProcessZaakdata(zaakUuid)
+            val variablesMap = zaakVariabelenService.readProcessZaakdata(zaakUuid)
+
+            then("the process instance is read by its id the second time") {
+                variablesMap shouldContainExactly processVariables
+                verify(exactly = 2) {
+                    bpmnRuntimeService.createProcessInstanceQuery()
+                }
+            }
+        }
+
         `when`("zaak data is set") {
-            val processInstanceId = "id"
             every {
                 cmmnRuntimeService
                     .createCaseInstanceQuery()
@@ -161,7 +267,6 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
                     .processInstanceBusinessKey(zaakUuid.toString())
                     .singleResult()
             } returns processInstance
-            every { processInstance.id } returns processInstanceId
             every { bpmnRuntimeService.setVariables(processInstanceId, processVariables) } just runs
 
             zaakVariabelenService.setZaakdata(zaakUuid, processVariables)
@@ -174,11 +279,10 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
         }
 
         `when`("expected suspend days is set") {
-            val processInstanceId = "id"
             every {
                 cmmnRuntimeService
                     .createCaseInstanceQuery()
-                    .variableValueEquals("zaakUUID", zaakUuid)
+                    .caseInstanceBusinessKey(zaakUuid.toString())
                     .singleResult()
             } returns null
             every {
@@ -187,7 +291,6 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
                     .processInstanceBusinessKey(zaakUuid.toString())
                     .singleResult()
             } returns processInstance
-            every { processInstance.id } returns processInstanceId
             every { bpmnRuntimeService.setVariable(processInstanceId, "verwachteDagenOpgeschort", 1) } just runs
 
             zaakVariabelenService.setVerwachteDagenOpgeschort(zaakUuid, 1)
@@ -200,7 +303,6 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
         }
 
         `when`("removing suspend days") {
-            val processInstanceId = "id"
             every {
                 cmmnRuntimeService
                     .createCaseInstanceQuery()
@@ -213,7 +315,6 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
                     .processInstanceBusinessKey(zaakUuid.toString())
                     .singleResult()
             } returns processInstance
-            every { processInstance.id } returns processInstanceId
             every { bpmnRuntimeService.removeVariable(processInstanceId, "verwachteDagenOpgeschort") } just runs
 
             zaakVariabelenService.removeVerwachteDagenOpgeschort(zaakUuid)
@@ -289,6 +390,7 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
     }
 
     given("A case instance with a historic BPMN process") {
+        val historicProcessInstance = mockk<HistoricProcessInstance>()
         val processVariables = mapOf(
             "a" to 1,
             "b" to 2
@@ -305,8 +407,9 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
                 .processInstanceBusinessKey(zaakUuid.toString())
                 .includeProcessVariables()
                 .singleResult()
-                .processVariables
-        } returns processVariables
+        } returns historicProcessInstance
+        every { historicProcessInstance.id } returns "fakeProcessInstanceId"
+        every { historicProcessInstance.processVariables } returns processVariables
 
         `when`("reading zaak process data") {
             val variablesMap = zaakVariabelenService.readProcessZaakdata(zaakUuid)
@@ -342,21 +445,30 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
     }
 
     given("A case instance without a known process type") {
+        every {
+            cmmnRuntimeService
+                .createCaseInstanceQuery()
+                .caseInstanceBusinessKey(zaakUuid.toString())
+                .singleResult()
+        } returns null
         every {
             bpmnRuntimeService
                 .createProcessInstanceQuery()
                 .processInstanceBusinessKey(zaakUuid.toString())
                 .singleResult()
         } returns null
+        every {
+            cmmnHistoryService.createHistoricCaseInstanceQuery()
+                .caseInstanceBusinessKey(zaakUuid.toString())
+                .singleResult()
+        } returns null
+        every {
+            bpmnHistoryService.createHistoricProcessInstanceQuery()
+                .processInstanceBusinessKey(zaakUuid.toString())
+                .singleResult()
+        } returns null
 
         `when`("zaak data is set") {
-            every {
-                cmmnRuntimeService
-                    .createCaseInstanceQuery()
-                    .caseInstanceBusinessKey(zaakUuid.toString())
-                    .singleResult()
-            } returns null
-
             val exception = shouldThrow<RuntimeException> {
                 zaakVariabelenService.setZaakdata(zaakUuid, mapOf("a" to 1))
             }
@@ -367,13 +479,6 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
         }
 
         `when`("expected suspend days is set") {
-            every {
-                cmmnRuntimeService
-                    .createCaseInstanceQuery()
-                    .variableValueEquals(ZaakVariabelenService.VAR_ZAAK_UUID, zaakUuid)
-                    .singleResult()
-            } returns null
-
             val exception = shouldThrow<RuntimeException> {
                 zaakVariabelenService.setVerwachteDagenOpgeschort(zaakUuid, 1)
             }
@@ -384,13 +489,6 @@ class ZaakVariabelenServiceTest : BehaviorSpec({
         }
 
         `when`("removing suspend days") {
-            every {
-                cmmnRuntimeService
-                    .createCaseInstanceQuery()
-                    .caseInstanceBusinessKey(zaakUuid.toString())
-                    .singleResult()
-            } returns null
-
             zaakVariabelenService.removeVerwachteDagenOpgeschort(zaakUuid)
 
             then("no exception should be thrown") {}
@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2025 INFO.nl
+ * SPDX-FileCopyrightText: 2025 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package net.atos.zac.flowable.cmmn
@@ -12,6 +12,7 @@ import io.mockk.just
 import io.mockk.mockk
 import io.mockk.verify
 import jakarta.enterprise.inject.Instance
+import net.atos.zac.flowable.ZaakFlowableInstanceResolver
 import net.atos.zac.flowable.ZaakVariabelenService
 import nl.info.client.zgw.model.createZaak
 import nl.info.client.zgw.ztc.model.createZaakType
@@ -30,11 +31,13 @@ class CMMNServiceTest : BehaviorSpec({
     val cmmnRepositoryService = mockk<CmmnRepositoryService>()
     val cmmnHistoryService = mockk<CmmnHistoryService>()
     val loggedInUserInstance = mockk<Instance<LoggedInUser>>()
+    val zaakFlowableInstanceResolver = mockk<ZaakFlowableInstanceResolver>()
     val cmmnService = CMMNService(
         cmmnRuntimeService,
         cmmnHistoryService,
         cmmnRepositoryService,
-        loggedInUserInstance
+        loggedInUserInstance,
+        zaakFlowableInstanceResolver
     )
 
     afterEach {
@@ -92,13 +95,15 @@ class CMMNServiceTest : BehaviorSpec({
         } returns caseInstance
         every { caseInstance.id } returns caseInstanceID
         every { cmmnRuntimeService.terminateCaseInstance(caseInstanceID) } just Runs
+        every { zaakFlowableInstanceResolver.invalidate(zaakUUID) } just Runs
 
         `when`("the case is requested to be terminated") {
             cmmnService.terminateCase(zaakUUID)
 
-            then("it is successfully terminated") {
+            then("it is successfully terminated and no longer cached") {
                 verify(exactly = 1) {
                     cmmnRuntimeService.terminateCaseInstance(caseInstanceID)
+                    zaakFlowableInstanceResolver.invalidate(zaakUUID)
                 }
             }
         }
@@ -115,14 +120,16 @@ class CMMNServiceTest : BehaviorSpec({
         every { caseInstance.id } returns caseInstanceID
         every { cmmnRuntimeService.deleteCaseInstance(caseInstanceID) } just Runs
         every { cmmnHistoryService.deleteHistoricCaseInstance(caseInstanceID) } just Runs
+        every { zaakFlowableInstanceResolver.invalidate(zaakUUID) } just Runs
 
         `when`("the case is requested to be deleted") {
             cmmnService.deleteCase(zaakUUID)
 
-            then("the case is successfully deleted") {
+            then("the case is successfully deleted and no longer cached") {
                 verify(exactly = 1) {
                     cmmnRuntimeService.deleteCaseInstance(caseInstanceID)
                     cmmnHistoryService.deleteHistoricCaseInstance(caseInstanceID)
+                    zaakFlowableInstanceResolver.invalidate(zaakUUID)
                 }
             }
         }
@@ -1,13 +1,15 @@
 /*
- * SPDX-FileCopyrightText: 2025 INFO.nl
+ * SPDX-FileCopyrightText: 2025 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package net.atos.zac.flowable.cmmn
 
 import io.kotest.core.spec.style.BehaviorSpec
 import io.mockk.every
+import io.mockk.just
 import io.mockk.mockk
 import io.mockk.mockkObject
+import io.mockk.runs
 import io.mockk.verify
 import net.atos.zac.flowable.FlowableHelper
 import net.atos.zac.flowable.ZaakVariabelenService
@@ -42,6 +44,7 @@ class UpdateZaakLifecycleListenerTest : BehaviorSpec({
         every { flowableHelper.zaakVariabelenService } returns zaakVariabelenService
         every { flowableHelper.zrcClientService } returns zrcClientService
         every { zaakVariabelenService.readZaakUUID(any()) } returns zaak.uuid
+        every { zaakVariabelenService.evictFlowableInstance(zaak.uuid) } just runs
         every { zrcClientService.readZaak(zaak.uuid) } returns zaak
         every { flowableHelper.zgwApiService } returns zgwApiService
         every { zgwApiService.createStatusForZaak(zaak, any(), any()) } returns zaakStatus
@@ -55,9 +58,10 @@ class UpdateZaakLifecycleListenerTest : BehaviorSpec({
                 "newState"
             )
 
-            then("the state for the zaak is updated in the ZGW API") {
+            then("the state for the zaak is updated in the ZGW API and its cached case instance is evicted") {
                 verify(exactly = 1) {
                     zaakVariabelenService.readZaakUUID(any())
+                    zaakVariabelenService.evictFlowableInstance(zaak.uuid)
                     zrcClientService.readZaak(zaak.uuid)
                     zgwApiService.createStatusForZaak(zaak, any(), "Status gewijzigd")
                 }
@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 
@@ -7,15 +7,25 @@ package net.atos.zac.flowable.task
 
 import io.kotest.assertions.throwables.shouldThrow
 import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.maps.shouldContainExactly
 import io.kotest.matchers.shouldBe
 import io.mockk.every
+import io.mockk.just
 import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import net.atos.zac.flowable.ZaakVariabelenService.Companion.VAR_ZAAK_UUID
+import net.atos.zac.flowable.task.FlowableTaskService.ZAAK_VARIABLES
 import net.atos.zac.flowable.task.exception.TaskNotFoundException
+import nl.info.test.org.flowable.task.api.createTestTask
 import org.flowable.cmmn.api.CmmnTaskService
 import org.flowable.engine.HistoryService
 import org.flowable.engine.TaskService
 import org.flowable.task.api.Task
+import org.flowable.task.api.TaskQuery
 import org.flowable.task.api.history.HistoricTaskInstance
+import org.flowable.task.api.history.HistoricTaskInstanceQuery
+import java.util.UUID
 
 class FlowableTaskServiceTest : BehaviorSpec({
     val taskService = mockk<TaskService>()
@@ -118,4 +128,115 @@ class FlowableTaskServiceTest : BehaviorSpec({
             }
         }
     }
+    given("Two open tasks that are assigned to a user") {
+        val taskIds = listOf("fakeTaskId1", "fakeTaskId2", "fakeClosedTaskId")
+        val task1 = mockk<Task>()
+        val task2 = mockk<Task>()
+        val releasedTasks = listOf(mockk<Task>(), mockk<Task>())
+        every { task1.id } returns "fakeTaskId1"
+        every { task2.id } returns "fakeTaskId2"
+        every { task1.assignee } returns "fakeAssignee"
+        every { task2.assignee } returns "fakeAssignee"
+        every {
+            taskService.createTaskQuery()
+                .taskIds(taskIds)
+                .includeCaseVariables()
+                .includeProcessVariables()
+                .includeTaskLocalVariables()
+                .includeIdentityLinks()
+                .list()
+        } returns listOf(task1, task2)
+        every {
+            taskService.createTaskQuery()
+                .taskIds(listOf("fakeTaskId1", "fakeTaskId2"))
+                .includeCaseVariables()
+                .includeProcessVariables()
+                .includeTaskLocalVariables()
+                .includeIdentityLinks()
+                .list()
+        } returns releasedTasks
+        every { taskService.unclaim(any()) } just runs
+        every {
+            historyService.createHistoricTaskLogEntryBuilder(any()).type(any()).data(any()).create()
+        } just runs
+
+        `when`("the tasks are released") {
+            val returnedTasks = flowableTaskService.releaseTasks(taskIds, "fakeExplanation")
+
+            then("the open tasks are released and returned") {
+                returnedTasks shouldBe releasedTasks
+                verify(exactly = 1) {
+                    taskService.unclaim("fakeTaskId1")
+                    taskService.unclaim("fakeTaskId2")
+                }
+            }
+        }
+    }
+
+    given("Three zaken, of which two have open tasks") {
+        val zaakUUIDs = listOf(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID())
+        val taskQuery = mockk<TaskQuery>()
+        every { taskService.createTaskQuery() } returns taskQuery
+        every { taskQuery.or() } returns taskQuery
+        every { taskQuery.caseVariableValueEquals(VAR_ZAAK_UUID, any()) } returns taskQuery
+        every { taskQuery.processVariableValueEquals(VAR_ZAAK_UUID, any()) } returns taskQuery
+        every { taskQuery.endOr() } returns taskQuery
+        every { taskQuery.includeCaseVariables(listOf(VAR_ZAAK_UUID)) } returns taskQuery
+        every { taskQuery.includeProcessVariables(listOf(VAR_ZAAK_UUID)) } returns taskQuery
+        every { taskQuery.list() } returns listOf(
+            createTestTask(id = "fakeTaskId1", caseVariables = mapOf(VAR_ZAAK_UUID to zaakUUIDs[0])),
+            createTestTask(id = "fakeTaskId2", caseVariables = mapOf(VAR_ZAAK_UUID to zaakUUIDs[0])),
+            createTestTask(id = "fakeTaskId3", caseVariables = mapOf(VAR_ZAAK_UUID to zaakUUIDs[1]))
+        )
+
+        `when`("the open tasks of the zaken are counted") {
+            val counts = flowableTaskService.countOpenTasksForZaken(zaakUUIDs)
+
+            then("the open tasks of all zaken are counted with a single query, that only includes the zaak UUID") {
+                counts shouldContainExactly mapOf(zaakUUIDs[0] to 2L, zaakUUIDs[1] to 1L, zaakUUIDs[2] to 0L)
+                verify(exactly = 1) {
+                    taskService.createTaskQuery()
+                    taskQuery.list()
+                }
+                zaakUUIDs.forEach {
+                    verify(exactly = 1) {
+                        taskQuery.caseVariableValueEquals(VAR_ZAAK_UUID, it)
+                        taskQuery.processVariableValueEquals(VAR_ZAAK_UUID, it)
+                    }
+                }
+            }
+        }
+    }
+
+    given("An open and a closed task") {
+        val taskIds = listOf("fakeClosedTaskId", "fakeOpenTaskId", "fakeUnknownTaskId")
+        val openTask = createTestTask(id = "fakeOpenTaskId")
+        val closedTask = mockk<HistoricTaskInstance>()
+        val taskQuery = mockk<TaskQuery>()
+        val historicTaskQuery = mockk<HistoricTaskInstanceQuery>()
+        every { closedTask.id } returns "fakeClosedTaskId"
+        every { taskService.createTaskQuery() } returns taskQuery
+        every { taskQuery.taskIds(taskIds) } returns taskQuery
+        every { taskQuery.includeCaseVariables(ZAAK_VARIABLES) } returns taskQuery
+        every { taskQuery.includeProcessVariables(ZAAK_VARIABLES) } returns taskQuery
+        every { taskQuery.list() } returns listOf(openTask)
+        every { historyService.createHistoricTaskInstanceQuery() } returns historicTaskQuery
+        every { historicTaskQuery.taskIds(listOf("fakeClosedTaskId", "fakeUnknownTaskId")) } returns historicTaskQuery
+        every { historicTaskQuery.finished() } returns historicTaskQuery
+        every { historicTaskQuery.includeCaseVariables(ZAAK_VARIABLES) } returns historicTaskQuery
+        every { historicTaskQuery.includeProcessVariables(ZAAK_VARIABLES) } returns historicTaskQuery
+        every { historicTaskQuery.list() } returns listOf(closedTask)
+
+        `when`("the tasks are listed by their ids, without their details") {
+            val tasks = flowableTaskService.listTasks(taskIds, ZAAK_VARIABLES, false)
+
+            then("the open and closed tasks are returned in the order of the ids, without the local variables") {
+                tasks shouldBe listOf(closedTask, openTask)
+                verify(exactly = 0) {
+                    taskQuery.includeTaskLocalVariables()
+                    historicTaskQuery.includeTaskLocalVariables()
+                }
+            }
+        }
+    }
 })
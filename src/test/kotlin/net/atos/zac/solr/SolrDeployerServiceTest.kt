@@ -6,15 +6,17 @@
 package net.atos.zac.solr
 
 import io.kotest.core.spec.style.BehaviorSpec
+import io.mockk.Runs
 import io.mockk.checkUnnecessaryStub
 import io.mockk.every
+import io.mockk.just
 import io.mockk.mockk
 import io.mockk.mockkConstructor
 import io.mockk.verify
 import jakarta.enterprise.concurrent.ManagedExecutorService
 import jakarta.enterprise.inject.Instance
-import nl.info.zac.search.IndexingService
 import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.search.reindex.ReindexingService
 import org.apache.solr.client.solrj.request.SolrPing
 import org.apache.solr.client.solrj.request.schema.SchemaRequest
 import org.apache.solr.client.solrj.request.schema.SchemaRequest.Fields
@@ -23,12 +25,12 @@ import java.util.concurrent.CompletableFuture
 
 class SolrDeployerServiceTest : BehaviorSpec({
     val managedExecutorService = mockk<ManagedExecutorService>()
-    val indexingService = mockk<IndexingService>()
+    val reindexingService = mockk<ReindexingService>()
     val solrUrl = "https://example.com/solr"
 
     val solrDeployerService = SolrDeployerService(
         solrUrl,
-        indexingService,
+        reindexingService,
     )
 
     afterEach {
@@ -56,6 +58,8 @@ class SolrDeployerServiceTest : BehaviorSpec({
         every { anyConstructed<MultiUpdate>().process(any()) } returns null
         every { solrSchemaUpdate.teHerindexerenZoekObjectTypes } returns setOf(ZoekObjectType.ZAAK)
         every { managedExecutorService.submit(any()) } returns CompletableFuture.completedFuture(null)
+        every { reindexingService.dropAbandonedShadowCore() } just Runs
+        every { reindexingService.listInterruptedReindexing() } returns listOf(ZoekObjectType.ZAAK, ZoekObjectType.TAAK)
 
         // prepare the SolrDeployerService by setting the executor service and the available schema updates
         solrDeployerService.setManagedExecutorService(managedExecutorService)
@@ -64,9 +68,16 @@ class SolrDeployerServiceTest : BehaviorSpec({
         `when`("the ZAC Solr deployer service is started") {
             solrDeployerService.onStartup(Any())
 
-            then("the Solr schema should be updated to the available version and the zaken should be reindexed") {
+            then(
+                """
+                the Solr schema should be updated to the available version, the zaken should be reindexed
+                and the interrupted reindexing of the taken should be resumed
+                """
+            ) {
                 verify(exactly = 1) {
                     anyConstructed<MultiUpdate>().process(any())
+                }
+                verify(exactly = 2) {
                     managedExecutorService.submit(any())
                 }
             }
@@ -14,6 +14,7 @@ import jakarta.websocket.Session
 import net.atos.zac.event.Opcode
 import net.atos.zac.websocket.event.ScreenEventType
 import net.atos.zac.websocket.event.createScreenEvent
+import net.atos.zac.websocket.event.createScreenEventId
 
 class SessionRegistryTest : BehaviorSpec({
     val session1 = mockk<Session>()
@@ -115,4 +116,43 @@ class SessionRegistryTest : BehaviorSpec({
             }
         }
     }
+    given("a session subscribed to any opcode for the events of a zaak") {
+        val sessionRegistry = SessionRegistry()
+        sessionRegistry.create(
+            createScreenEvent(
+                opcode = Opcode.ANY,
+                screenEventType = ScreenEventType.ZAAK,
+                screenEventId = createScreenEventId(resource = "\"fakeZaakUuid\"")
+            ),
+            session1
+        )
+
+        `when`("the sessions are listed for events of the zaak and of another zaak") {
+            then("only the events of the subscribed zaak other than CREATED match, regardless of the quoted subscription") {
+                Opcode.entries.forEach { opcode ->
+                    sessionRegistry.listSessions(
+                        createScreenEvent(
+                            opcode = opcode,
+                            screenEventType = ScreenEventType.ZAAK,
+                            screenEventId = createScreenEventId(resource = "fakeZaakUuid")
+                        )
+                    ).size shouldBe if (opcode == Opcode.CREATED || opcode == Opcode.ANY) 0 else 1
+                }
+                sessionRegistry.listSessions(
+                    createScreenEvent(
+                        opcode = Opcode.UPDATED,
+                        screenEventType = ScreenEventType.ZAAK,
+                        screenEventId = createScreenEventId(resource = "fakeOtherZaakUuid")
+                    )
+                ).size shouldBe 0
+                sessionRegistry.listSessions(
+                    createScreenEvent(
+                        opcode = Opcode.UPDATED,
+                        screenEventType = ScreenEventType.TAAK,
+                        screenEventId = createScreenEventId(resource = "fakeZaakUuid")
+                    )
+                ).size shouldBe 0
+            }
+        }
+    }
 })
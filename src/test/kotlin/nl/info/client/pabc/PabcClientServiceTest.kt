@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2025 INFO.nl
+ * SPDX-FileCopyrightText: 2025 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.client.pabc
@@ -8,20 +8,29 @@ import io.kotest.assertions.throwables.shouldThrow
 import io.kotest.core.spec.style.BehaviorSpec
 import io.kotest.matchers.shouldBe
 import io.mockk.checkUnnecessaryStub
+import io.mockk.clearAllMocks
 import io.mockk.every
+import io.mockk.just
 import io.mockk.mockk
+import io.mockk.runs
 import io.mockk.slot
+import io.mockk.verify
 import nl.info.client.pabc.model.createApplicationRolesResponse
 import nl.info.client.pabc.model.createGetGroupsByApplicationRoleAndEntityTypeResponse
 import nl.info.client.pabc.model.createPabcGroupRepresentation
 import nl.info.client.pabc.model.generated.GetApplicationRolesRequest
+import nl.info.zac.cache.CacheInvalidation
+import nl.info.zac.cache.CacheInvalidationBus
 
 class PabcClientServiceTest : BehaviorSpec({
     val pabcClient = mockk<PabcClient>()
-    val pabcClientService = PabcClientService(pabcClient)
+    val cacheInvalidationBus = mockk<CacheInvalidationBus>()
+    val pabcClientService = PabcClientService(pabcClient, cacheInvalidationBus, refreshIntervalSeconds = 300)
 
     afterEach {
         checkUnnecessaryStub()
+        clearAllMocks()
+        pabcClientService.onCacheInvalidation(CacheInvalidation.CLEAR_ALL)
     }
 
     context("Getting application roles") {
@@ -94,4 +103,58 @@ class PabcClientServiceTest : BehaviorSpec({
             }
         }
     }
+
+    context("Caching the authorisation mappings") {
+        given("The groups for an application role and zaaktype are read for multiple zaken of that zaaktype") {
+            val groupRepresentation = createPabcGroupRepresentation()
+            every {
+                pabcClient.getGroupsByApplicationRoleAndEntityType(
+                    applicationName = APPLICATION_NAME_ZAC,
+                    applicationRoleName = "fakeApplicationRole",
+                    entityTypeId = "fakeZaaktypeDescription",
+                    entityType = ENTITY_TYPE_ZAAKTYPE
+                )
+            } returns createGetGroupsByApplicationRoleAndEntityTypeResponse(listOf(groupRepresentation))
+
+            `when`("the groups are read three times, and the cached mappings are refreshed") {
+                val results = List(3) {
+                    pabcClientService.getGroupsByApplicationRoleAndZaaktype("fakeApplicationRole", "fakeZaaktypeDescription")
+                }
+                pabcClientService.refresh()
+
+                then("the PABC is called once for the reads, and once for the refresh") {
+                    results shouldBe List(3) { listOf(groupRepresentation) }
+                    verify(exactly = 2) {
+                        pabcClient.getGroupsByApplicationRoleAndEntityType(any(), any(), any(), any())
+                    }
+                }
+            }
+        }
+
+        given("Cached application roles") {
+            val applicationRolesResponse = createApplicationRolesResponse()
+            every { pabcClient.getApplicationRolesPerEntityType(any()) } returns applicationRolesResponse
+            every { cacheInvalidationBus.publish(any()) } just runs
+            pabcClientService.getApplicationRoles(listOf("fakeRole1", "fakeRole2"))
+
+            `when`("the caches are cleared and the application roles are read again") {
+                val messages = pabcClientService.clearCaches()
+                pabcClientService.getApplicationRoles(listOf("fakeRole2", "fakeRole1"))
+
+                then("the caches are cleared on all nodes and the application roles are read from the PABC again") {
+                    messages shouldBe listOf(
+                        "${PabcClientService.PABC_APPLICATION_ROLES} cache cleared",
+                        "${PabcClientService.PABC_GROUPS} cache cleared"
+                    )
+                    verify(exactly = 1) {
+                        cacheInvalidationBus.publish(CacheInvalidation(PabcClientService.PABC_APPLICATION_ROLES))
+                        cacheInvalidationBus.publish(CacheInvalidation(PabcClientService.PABC_GROUPS))
+                    }
+                    verify(exactly = 2) {
+                        pabcClient.getApplicationRolesPerEntityType(any())
+                    }
+                }
+            }
+        }
+    }
 })
@@ -0,0 +1,213 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.client.zgw.drc
+
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.checkUnnecessaryStub
+import io.mockk.clearAllMocks
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import nl.info.client.zgw.drc.exception.DrcRuntimeException
+import nl.info.client.zgw.drc.model.createBestandsDeel
+import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObject
+import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObjectCreateLockRequest
+import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObjectCreateLockSub
+import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObjectWithLockRequest
+import nl.info.client.zgw.drc.model.generated.BestandsDeel
+import nl.info.client.zgw.util.ZgwClientHeadersFactory
+import nl.info.client.zgw.util.extractUuid
+import org.jboss.resteasy.plugins.providers.multipart.MultipartFormDataOutput
+import java.io.InputStream
+import java.nio.file.Files
+import java.util.Base64
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+class BestandsdelenUploadServiceTest : BehaviorSpec({
+    val drcClient = mockk<DrcClient>()
+    val zgwClientHeadersFactory = mockk<ZgwClientHeadersFactory>()
+    val bestandsdelenUploadService = BestandsdelenUploadService(
+        drcClient = drcClient,
+        zgwClientHeadersFactory = zgwClientHeadersFactory,
+        inlineThresholdBytes = 10,
+        parallelism = 2
+    )
+    val content = Files.createTempFile("content-", ".txt").apply {
+        toFile().deleteOnExit()
+        Files.writeString(this, "abcdefghijklmnopqrstuvwxy")
+    }
+    val bestandsdelen = listOf(
+        createBestandsDeel(volgnummer = 3, omvang = 5),
+        createBestandsDeel(volgnummer = 1, omvang = 10),
+        createBestandsDeel(volgnummer = 2, omvang = 10)
+    )
+    // content of the uploaded bestandsdelen by volgnummer
+    val uploadedContent = ConcurrentHashMap<Int, String>()
+
+    fun stubBestandsdeelUploads(uploadedBestandsdelen: List<BestandsDeel> = bestandsdelen) {
+        uploadedBestandsdelen.forEach { bestandsdeel ->
+            every { drcClient.bestandsdeelUpdate(bestandsdeel.url.extractUuid(), any()) } answers {
+                val inhoud = secondArg<MultipartFormDataOutput>().formDataMap["inhoud"]!!.first().entity as InputStream
+                uploadedContent[bestandsdeel.volgnummer] = inhoud.readBytes().decodeToString()
+                bestandsdeel
+            }
+        }
+    }
+
+    afterEach {
+        checkUnnecessaryStub()
+        clearAllMocks()
+        uploadedContent.clear()
+    }
+
+    given("A create request and a file with content that does not exceed the inline threshold") {
+        val smallContent = Files.createTempFile("content-", ".txt").apply {
+            toFile().deleteOnExit()
+            Files.writeString(this, "abcde")
+        }
+        val createRequest = createEnkelvoudigInformatieObjectCreateLockRequest()
+        val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
+        every { drcClient.enkelvoudigInformatieobjectCreate(createRequest) } returns enkelvoudigInformatieObject
+
+        `when`("the enkelvoudig informatieobject is created") {
+            val result = bestandsdelenUploadService.createEnkelvoudigInformatieobject(createRequest, smallContent)
+
+            then("the content is sent Base64 encoded in the create request itself") {
+                result shouldBe enkelvoudigInformatieObject
+                createRequest.inhoud shouldBe Base64.getEncoder().encodeToString("abcde".toByteArray())
+                createRequest.bestandsomvang shouldBe 5
+            }
+        }
+    }
+
+    given("A create request and a file with content that exceeds the inline threshold") {
+        val createRequest = createEnkelvoudigInformatieObjectCreateLockRequest()
+        val uuid = UUID.randomUUID()
+        val created = createEnkelvoudigInformatieObjectCreateLockSub(uuid = uuid, bestandsdelen = bestandsdelen)
+        val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject(uuid = uuid)
+
+        `when`("the enkelvoudig informatieobject is created") {
+            every { drcClient.enkelvoudigInformatieobjectCreateWithBestandsdelen(createRequest) } returns created
+            stubBestandsdeelUploads()
+            every { drcClient.enkelvoudigInformatieobjectUnlock(uuid, any()) } just runs
+            every { drcClient.enkelvoudigInformatieobjectRead(uuid) } returns enkelvoudigInformatieObject
+
+            val result = bestandsdelenUploadService.createEnkelvoudigInformatieobject(createRequest, content)
+
+            then("it is created without content, the bestandsdelen are uploaded in order and it is unlocked") {
+                result shouldBe enkelvoudigInformatieObject
+                createRequest.inhoud shouldBe null
+                createRequest.bestandsomvang shouldBe 25
+                uploadedContent shouldBe mapOf(1 to "abcdefghij", 2 to "klmnopqrst", 3 to "uvwxy")
+                verify(exactly = 1) {
+                    drcClient.enkelvoudigInformatieobjectUnlock(uuid, match { it.lock == created.lock })
+                }
+            }
+        }
+
+        `when`("the enkelvoudig informatieobject is created but uploading a bestandsdeel fails") {
+            every { drcClient.enkelvoudigInformatieobjectCreateWithBestandsdelen(createRequest) } returns created
+            every { drcClient.bestandsdeelUpdate(any(), any()) } throws RuntimeException("fake exception")
+            every { drcClient.enkelvoudigInformatieobjectDelete(uuid) } just runs
+
+            val exception = shouldThrow<DrcRuntimeException> {
+                bestandsdelenUploadService.createEnkelvoudigInformatieobject(createRequest, content)
+            }
+
+            then("the upload is retried, after which the incomplete enkelvoudig informatieobject is deleted") {
+                exception.message shouldBe "Failed to upload 3 of 3 bestandsdelen after 3 attempts: fake exception"
+                verify(exactly = 9) { drcClient.bestandsdeelUpdate(any(), any()) }
+                verify(exactly = 1) { drcClient.enkelvoudigInformatieobjectDelete(uuid) }
+                verify(exactly = 0) { drcClient.enkelvoudigInformatieobjectUnlock(any(), any()) }
+            }
+        }
+    }
+
+    given("An update request of a locked enkelvoudig informatieobject and a file with content that exceeds the threshold") {
+        val uuid = UUID.randomUUID()
+        val updateRequest = createEnkelvoudigInformatieObjectWithLockRequest().apply { lock = "fakeLock" }
+        val updated = createEnkelvoudigInformatieObject(uuid = uuid, locked = true, bestandsdelen = bestandsdelen)
+        every { zgwClientHeadersFactory.setAuditExplanation("fakeExplanation") } just runs
+        every { drcClient.enkelvoudigInformatieobjectPartialUpdate(uuid, updateRequest) } returns updated
+        stubBestandsdeelUploads()
+
+        `when`("the enkelvoudig informatieobject is updated") {
+            val result = bestandsdelenUploadService.updateEnkelvoudigInformatieobject(
+                uuid,
+                updateRequest,
+                content,
+                "fakeExplanation"
+            )
+
+            then("it is updated without content and the bestandsdelen are uploaded, leaving it locked") {
+                result shouldBe updated
+                updateRequest.inhoud shouldBe null
+                updateRequest.bestandsomvang shouldBe 25
+                uploadedContent shouldBe mapOf(1 to "abcdefghij", 2 to "klmnopqrst", 3 to "uvwxy")
+                verify(exactly = 0) { drcClient.enkelvoudigInformatieobjectUnlock(any(), any()) }
+            }
+        }
+    }
+
+    given("An update request of a locked enkelvoudig informatieobject of which a bestandsdeel fails to upload once") {
+        val uuid = UUID.randomUUID()
+        val updateRequest = createEnkelvoudigInformatieObjectWithLockRequest().apply { lock = "fakeLock" }
+        val updated = createEnkelvoudigInformatieObject(uuid = uuid, locked = true, bestandsdelen = bestandsdelen)
+        val failingBestandsdeelUuid = bestandsdelen.first { it.volgnummer == 2 }.url.extractUuid()
+        val failingUploadAttempts = AtomicInteger()
+        every { drcClient.enkelvoudigInformatieobjectPartialUpdate(uuid, updateRequest) } returns updated
+        stubBestandsdeelUploads(bestandsdelen.filter { it.volgnummer != 2 })
+        every { drcClient.bestandsdeelUpdate(failingBestandsdeelUuid, any()) } answers {
+            if (failingUploadAttempts.incrementAndGet() == 1) {
+                throw RuntimeException("fake exception")
+            }
+            val inhoud = secondArg<MultipartFormDataOutput>().formDataMap["inhoud"]!!.first().entity as InputStream
+            uploadedContent[2] = inhoud.readBytes().decodeToString()
+            bestandsdelen.first { it.volgnummer == 2 }
+        }
+
+        `when`("the enkelvoudig informatieobject is updated") {
+            val result = bestandsdelenUploadService.updateEnkelvoudigInformatieobject(uuid, updateRequest, content, null)
+
+            then("only the failed bestandsdeel is uploaded again and all content is uploaded") {
+                result shouldBe updated
+                failingUploadAttempts.get() shouldBe 2
+                uploadedContent shouldBe mapOf(1 to "abcdefghij", 2 to "klmnopqrst", 3 to "uvwxy")
+                verify(exactly = 4) { drcClient.bestandsdeelUpdate(any(), any()) }
+            }
+        }
+    }
+
+    given("An update request of a locked enkelvoudig informatieobject of which a bestandsdeel keeps failing to upload") {
+        val uuid = UUID.randomUUID()
+        val updateRequest = createEnkelvoudigInformatieObjectWithLockRequest().apply { lock = "fakeLock" }
+        val updated = createEnkelvoudigInformatieObject(uuid = uuid, locked = true, bestandsdelen = bestandsdelen)
+        val failingBestandsdeelUuid = bestandsdelen.first { it.volgnummer == 3 }.url.extractUuid()
+        every { drcClient.enkelvoudigInformatieobjectPartialUpdate(uuid, updateRequest) } returns updated
+        stubBestandsdeelUploads(bestandsdelen.filter { it.volgnummer != 3 })
+        every { drcClient.bestandsdeelUpdate(failingBestandsdeelUuid, any()) } throws RuntimeException("fake exception")
+
+        `when`("the enkelvoudig informatieobject is updated") {
+            val exception = shouldThrow<DrcRuntimeException> {
+                bestandsdelenUploadService.updateEnkelvoudigInformatieobject(uuid, updateRequest, content, null)
+            }
+
+            then("a clear error is thrown after the failed bestandsdeel is retried, leaving it locked") {
+                exception.message shouldBe "Failed to upload 1 of 3 bestandsdelen after 3 attempts: fake exception"
+                verify(exactly = 3) { drcClient.bestandsdeelUpdate(failingBestandsdeelUuid, any()) }
+                verify(exactly = 0) {
+                    drcClient.enkelvoudigInformatieobjectUnlock(any(), any())
+                    drcClient.enkelvoudigInformatieobjectDelete(any())
+                }
+            }
+        }
+    }
+})
@@ -16,25 +16,35 @@ import io.mockk.mockk
 import io.mockk.runs
 import io.mockk.slot
 import io.mockk.verify
+import jakarta.ws.rs.core.HttpHeaders
+import jakarta.ws.rs.core.MediaType
 import jakarta.ws.rs.core.Response
 import nl.info.client.zgw.drc.exception.DrcRuntimeException
 import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObject
+import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObjectCreateLockRequest
 import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObjectWithLockRequest
 import nl.info.client.zgw.drc.model.createLockEnkelvoudigInformatieObject
 import nl.info.client.zgw.drc.model.generated.LockEnkelvoudigInformatieObject
 import nl.info.client.zgw.util.ZgwClientHeadersFactory
 import nl.info.zac.configuration.ConfigurationService
 import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.nio.file.Path
 import java.util.UUID
 
 class DrcClientServiceTest : BehaviorSpec({
     val drcClient = mockk<DrcClient>()
     val zgwClientHeadersFactory = mockk<ZgwClientHeadersFactory>()
     val configurationService = mockk<ConfigurationService>()
+    val bestandsdelenUploadService = mockk<BestandsdelenUploadService>()
     val drcClientService = DrcClientService(
         drcClient,
         zgwClientHeadersFactory,
-        configurationService
+        configurationService,
+        bestandsdelenUploadService
     )
 
     afterEach {
@@ -150,4 +160,144 @@ class DrcClientServiceTest : BehaviorSpec({
             }
         }
     }
+
+    given("The content of an EnkelvoudigInformatieobject version in the DRC") {
+        val uuid = UUID.randomUUID()
+        val response = mockk<Response>()
+        every { drcClient.enkelvoudigInformatieobjectDownloadVersie(uuid = uuid, versie = 2) } returns response
+        every { response.mediaType } returns MediaType.valueOf("application/pdf")
+        every { response.getHeaderString(HttpHeaders.CONTENT_LENGTH) } returns "11"
+        every { response.status } returns 200
+        every { response.getHeaderString("Content-Range") } returns null
+        every { response.readEntity(InputStream::class.java) } returns ByteArrayInputStream("fakeContent".toByteArray())
+        every { response.close() } just runs
+
+        `when`("the content is streamed to an output stream") {
+            val content = drcClientService.streamEnkelvoudigInformatieobject(uuid, 2)
+            val outputStream = ByteArrayOutputStream()
+            val bytesCopied = content.writeTo(outputStream)
+
+            then("the content is copied without buffering the entity, and the connection to the DRC is closed") {
+                content.contentType shouldBe "application/pdf"
+                content.contentLength shouldBe 11L
+                bytesCopied shouldBe 11L
+                outputStream.toString() shouldBe "fakeContent"
+                verify(exactly = 0) { response.bufferEntity() }
+                verify(exactly = 1) { response.close() }
+            }
+        }
+    }
+
+    given("The content of an EnkelvoudigInformatieobject that is being downloaded by a client that aborts") {
+        val uuid = UUID.randomUUID()
+        val response = mockk<Response>()
+        val abortedOutputStream = mockk<OutputStream>()
+        every { drcClient.enkelvoudigInformatieobjectDownload(uuid) } returns response
+        every { response.mediaType } returns null
+        every { response.getHeaderString(HttpHeaders.CONTENT_LENGTH) } returns null
+        every { response.status } returns 200
+        every { response.getHeaderString("Content-Range") } returns null
+        every { response.readEntity(InputStream::class.java) } returns ByteArrayInputStream("fakeContent".toByteArray())
+        every { response.close() } just runs
+        every { abortedOutputStream.write(any<ByteArray>(), any(), any()) } throws IOException("fakeBrokenPipe")
+
+        `when`("the content is streamed to the client") {
+            val content = drcClientService.streamEnkelvoudigInformatieobject(uuid)
+            shouldThrow<IOException> {
+                content.writeTo(abortedOutputStream)
+            }
+
+            then("the connection to the DRC is closed") {
+                content.contentType shouldBe null
+                content.contentLength shouldBe null
+                verify(exactly = 1) { response.close() }
+            }
+        }
+    }
+
+    given("A byte range of the content of an EnkelvoudigInformatieobject version in the DRC") {
+        val uuid = UUID.randomUUID()
+        val response = mockk<Response>()
+        every {
+            drcClient.enkelvoudigInformatieobjectDownloadRange(uuid = uuid, versie = 2, range = "bytes=4-10")
+        } returns response
+        every { response.mediaType } returns MediaType.valueOf("application/pdf")
+        every { response.getHeaderString(HttpHeaders.CONTENT_LENGTH) } returns "7"
+        every { response.status } returns 206
+        every { response.getHeaderString("Content-Range") } returns "bytes 4-10/11"
+
+        `when`("the byte range is requested") {
+            val content = drcClientService.streamEnkelvoudigInformatieobject(uuid, 2, "bytes=4-10")
+
+            then("the partial content returned by the DRC is provided") {
+                content.partial shouldBe true
+                content.contentRange shouldBe "bytes 4-10/11"
+                content.contentLength shouldBe 7L
+            }
+        }
+    }
+
+    given("The whole content of an EnkelvoudigInformatieobject returned by a DRC that ignores byte ranges") {
+        val uuid = UUID.randomUUID()
+        val response = mockk<Response>()
+        every {
+            drcClient.enkelvoudigInformatieobjectDownloadRange(uuid = uuid, versie = null, range = "bytes=4-6")
+        } returns response
+        every { response.mediaType } returns null
+        every { response.getHeaderString(HttpHeaders.CONTENT_LENGTH) } returns "11"
+        every { response.status } returns 200
+        every { response.getHeaderString("Content-Range") } returns null
+        every { response.readEntity(InputStream::class.java) } returns ByteArrayInputStream("fakeContent".toByteArray())
+        every { response.close() } just runs
+
+        `when`("the byte range is taken from the content while streaming it") {
+            val content = drcClientService.streamEnkelvoudigInformatieobject(uuid, range = "bytes=4-6")
+            val outputStream = ByteArrayOutputStream()
+            val bytesCopied = content.writeTo(outputStream, 4, 3)
+
+            then("only the bytes of the range are copied, and the connection to the DRC is closed") {
+                content.partial shouldBe false
+                bytesCopied shouldBe 3L
+                outputStream.toString() shouldBe "Con"
+                verify(exactly = 1) { response.close() }
+            }
+        }
+    }
+
+    given("An EnkelvoudigInformatieobject create request and a file with its content") {
+        val createRequest = createEnkelvoudigInformatieObjectCreateLockRequest()
+        val content = Path.of("fakeContent.pdf")
+        val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
+        every {
+            bestandsdelenUploadService.createEnkelvoudigInformatieobject(createRequest, content)
+        } returns enkelvoudigInformatieObject
+
+        `when`("the EnkelvoudigInformatieobject is created") {
+            val result = drcClientService.createEnkelvoudigInformatieobject(createRequest, content)
+
+            then("the content is uploaded from the file by the bestandsdelen upload service") {
+                result shouldBe enkelvoudigInformatieObject
+                verify(exactly = 0) { drcClient.enkelvoudigInformatieobjectCreate(any()) }
+            }
+        }
+    }
+
+    given("An EnkelvoudigInformatieobject update request and a file with its new content") {
+        val uuid = UUID.randomUUID()
+        val updateRequest = createEnkelvoudigInformatieObjectWithLockRequest()
+        val content = Path.of("fakeContent.pdf")
+        val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
+        every {
+            bestandsdelenUploadService.updateEnkelvoudigInformatieobject(uuid, updateRequest, content, "fakeExplanation")
+        } returns enkelvoudigInformatieObject
+
+        `when`("the EnkelvoudigInformatieobject is updated") {
+            val result = drcClientService.updateEnkelvoudigInformatieobject(uuid, updateRequest, "fakeExplanation", content)
+
+            then("the content is uploaded from the file by the bestandsdelen upload service") {
+                result shouldBe enkelvoudigInformatieObject
+                verify(exactly = 0) { drcClient.enkelvoudigInformatieobjectPartialUpdate(any(), any()) }
+            }
+        }
+    }
 })
@@ -7,6 +7,7 @@ package nl.info.client.zgw.drc.model
 import nl.info.client.zgw.drc.model.generated.BestandsDeel
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObject
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObjectCreateLockRequest
+import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObjectCreateLockSub
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObjectWithLockRequest
 import nl.info.client.zgw.drc.model.generated.Gebruiksrechten
 import nl.info.client.zgw.drc.model.generated.LockEnkelvoudigInformatieObject
@@ -68,6 +69,23 @@ fun createEnkelvoudigInformatieObject(
     bronorganisatie?.let { this.bronorganisatie = it }
 }
 
+fun createBestandsDeel(
+    url: URI = URI("https://example.com/bestandsdelen/${UUID.randomUUID()}"),
+    volgnummer: Int = 1,
+    omvang: Int = 1234,
+    voltooid: Boolean = false
+) = BestandsDeel(url, volgnummer, omvang, voltooid)
+
+fun createEnkelvoudigInformatieObjectCreateLockSub(
+    uuid: UUID = UUID.randomUUID(),
+    url: URI = URI("https://example.com/$uuid"),
+    versie: Int = 1,
+    beginRegistratie: OffsetDateTime = OffsetDateTime.now(),
+    locked: Boolean = true,
+    bestandsdelen: List<BestandsDeel> = listOf(createBestandsDeel()),
+    lock: String = "fakeLock"
+) = EnkelvoudigInformatieObjectCreateLockSub(url, versie, beginRegistratie, locked, bestandsdelen, lock)
+
 fun createEnkelvoudigInformatieObjectCreateLockRequest(
     url: URI = URI("https://example.com/${UUID.randomUUID()}"),
     bronorganisatie: String = "123456789",
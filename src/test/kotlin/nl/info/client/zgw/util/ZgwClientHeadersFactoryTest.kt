@@ -22,8 +22,7 @@ class ZgwClientHeadersFactoryTest : BehaviorSpec({
     val loggedInUserInstance = mockk<Instance<LoggedInUser>>()
     val zgwClientHeadersFactory = ZgwClientHeadersFactory(
         loggedInUserInstance,
-        zgwClientId,
-        zgwApiSecret
+        ZgwJwtTokenProvider(zgwClientId, zgwApiSecret, 300)
     )
 
     afterEach {
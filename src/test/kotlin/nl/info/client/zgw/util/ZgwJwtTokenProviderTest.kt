@@ -0,0 +1,38 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.client.zgw.util
+
+import com.auth0.jwt.JWT
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import nl.info.zac.authentication.createLoggedInUser
+
+class ZgwJwtTokenProviderTest : BehaviorSpec({
+    val zgwJwtTokenProvider = ZgwJwtTokenProvider("fakeClientId", "fakeSecret", 300)
+
+    context("Getting a ZGW JWT token") {
+        given("A token has already been provided for a user") {
+            val loggedInUser = createLoggedInUser(id = "fakeUserId1")
+            val firstToken = zgwJwtTokenProvider.getToken(loggedInUser)
+
+            `when`("a token is requested again for the same user") {
+                val token = zgwJwtTokenProvider.getToken(createLoggedInUser(id = "fakeUserId1"))
+
+                then("the already signed token is reused") {
+                    token shouldBeSameInstanceAs firstToken
+                }
+            }
+
+            `when`("a token is requested for another user") {
+                val token = zgwJwtTokenProvider.getToken(createLoggedInUser(id = "fakeUserId2"))
+
+                then("a token for that user is returned") {
+                    JWT.decode(token.removePrefix("Bearer ")).getClaim("user_id").asString() shouldBe "fakeUserId2"
+                }
+            }
+        }
+    }
+})
@@ -5,6 +5,7 @@
 package nl.info.client.zgw.util
 
 import com.auth0.jwt.JWT
+import com.auth0.jwt.algorithms.Algorithm
 import io.kotest.core.spec.style.BehaviorSpec
 import io.kotest.matchers.shouldBe
 import io.mockk.checkUnnecessaryStub
@@ -30,7 +31,7 @@ class ZgwJwtTokenUtilsTest : BehaviorSpec({
             every { loggedInUser.getFullName() } returns "fullName"
 
             `when`("token is generated") {
-                val token = generateZgwJwtToken(clientId, clientSecret, loggedInUser)
+                val token = generateZgwJwtToken(clientId, Algorithm.HMAC256(clientSecret), loggedInUser)
 
                 then("it should be a valid JWT token") {
                     val tokenParts = token.split(" ")
@@ -12,7 +12,11 @@ import io.kotest.matchers.equals.shouldBeEqual
 import io.kotest.matchers.shouldBe
 import io.mockk.checkUnnecessaryStub
 import io.mockk.every
+import io.mockk.just
 import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import net.atos.client.zgw.shared.cache.Caching
 import nl.info.client.zgw.ztc.ZtcClientService.Companion.MAX_CACHE_SIZE
 import nl.info.client.zgw.ztc.exception.CatalogusNotFoundException
 import nl.info.client.zgw.ztc.exception.RoltypeNotFoundException
@@ -25,6 +29,8 @@ import nl.info.client.zgw.ztc.model.RoltypeListGeneriekParameters
 import nl.info.client.zgw.ztc.model.ZaaktypeListParameters
 import net.atos.client.zgw.shared.model.Results
 import nl.info.client.zgw.shared.ZgwApiService.Companion.ROLTYPE_OMSCHRIJVING_BEHANDELAAR
+import nl.info.zac.cache.CacheInvalidation
+import nl.info.zac.cache.CacheInvalidationBus
 import java.net.URI
 import java.time.ZonedDateTime
 import java.util.Optional
@@ -33,8 +39,10 @@ import kotlin.time.Duration.Companion.seconds
 
 class ZtcClientServiceTest : BehaviorSpec({
     val ztcClient = mockk<ZtcClient>()
+    val cacheInvalidationBus = mockk<CacheInvalidationBus>()
     val ztcClientService = ZtcClientService(
-        ztcClient = ztcClient
+        ztcClient = ztcClient,
+        cacheInvalidationBus = cacheInvalidationBus
     )
     val initialUUID = UUID.randomUUID()
     val expectedZaakType = createZaakType()
@@ -146,6 +154,7 @@ class ZtcClientServiceTest : BehaviorSpec({
     }
 
     given("ZTC client service time cache was cleared") {
+        every { cacheInvalidationBus.publish(CacheInvalidation(Caching.ZTC_CACHE_TIME)) } just runs
         ztcClientService.clearCacheTime()
 
         `when`("reading the cache time") {
@@ -164,6 +173,58 @@ class ZtcClientServiceTest : BehaviorSpec({
         }
     }
 
+    given("A cached zaaktype") {
+        val zaaktypeUUID = UUID.randomUUID()
+        val zaakType = createZaakType()
+        every { ztcClient.zaaktypeRead(zaaktypeUUID) } returns zaakType
+        every { cacheInvalidationBus.publish(CacheInvalidation(Caching.ZTC_ZAAKTYPE)) } just runs
+        ztcClientService.readZaaktype(zaaktypeUUID)
+
+        `when`("the zaaktype cache is cleared") {
+            val result = ztcClientService.clearZaaktypeCache()
+
+            then("the zaaktype is read again and the other nodes are asked to clear their zaaktype cache") {
+                result shouldBe "${Caching.ZTC_ZAAKTYPE} cache cleared"
+                ztcClientService.readZaaktype(zaaktypeUUID) shouldBe zaakType
+                verify(exactly = 2) { ztcClient.zaaktypeRead(zaaktypeUUID) }
+                verify(exactly = 1) { cacheInvalidationBus.publish(CacheInvalidation(Caching.ZTC_ZAAKTYPE)) }
+            }
+        }
+    }
+
+    given("A zaaktype that is cached and cleared on another node") {
+        val zaaktypeUUID = UUID.randomUUID()
+        val zaakType = createZaakType()
+        every { ztcClient.zaaktypeRead(zaaktypeUUID) } returns zaakType
+        ztcClientService.readZaaktype(zaaktypeUUID)
+
+        `when`("the invalidation of the zaaktype cache is received") {
+            ztcClientService.onCacheInvalidation(CacheInvalidation(Caching.ZTC_ZAAKTYPE))
+
+            then("the zaaktype is read again, without publishing the invalidation again") {
+                ztcClientService.readZaaktype(zaaktypeUUID) shouldBe zaakType
+                verify(exactly = 2) { ztcClient.zaaktypeRead(zaaktypeUUID) }
+                verify(exactly = 0) { cacheInvalidationBus.publish(any()) }
+            }
+        }
+    }
+
+    given("A cached zaaktype and an invalidation of another cache on another node") {
+        val zaaktypeUUID = UUID.randomUUID()
+        val zaakType = createZaakType()
+        every { ztcClient.zaaktypeRead(zaaktypeUUID) } returns zaakType
+        ztcClientService.readZaaktype(zaaktypeUUID)
+
+        `when`("the invalidation is received") {
+            ztcClientService.onCacheInvalidation(CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION))
+
+            then("the cached zaaktype is still used") {
+                ztcClientService.readZaaktype(zaaktypeUUID) shouldBe zaakType
+                verify(exactly = 1) { ztcClient.zaaktypeRead(zaaktypeUUID) }
+            }
+        }
+    }
+
     given("zaaktypes for a catalogus that are spread over multiple pages") {
         val catalogusUri = URI("https://example.com/catalogussen/${UUID.randomUUID()}")
         val firstPageZaakType = createZaakType()
@@ -17,6 +17,7 @@ import nl.info.zac.app.search.model.createZoekParameters
 import nl.info.zac.app.search.model.createZoekResultaatForZaakZoekObjecten
 import nl.info.zac.policy.PolicyService
 import nl.info.zac.search.SearchService
+import nl.info.zac.search.model.zoekobject.ZoekObject
 
 class CsvRestServiceTest : BehaviorSpec({
     val searchService = mockk<SearchService>()
@@ -54,4 +55,25 @@ class CsvRestServiceTest : BehaviorSpec({
             }
         }
     }
+
+    given("Search parameters for a full export") {
+        val restZoekParameters = createRestZoekParameters()
+        val zoekParameters = createZoekParameters()
+        val pages = sequenceOf(createZoekResultaatForZaakZoekObjecten().items)
+        val csvStreamingOutput = mockk<StreamingOutput>()
+
+        every { policyService.readWerklijstRechten().zakenTakenExporteren } returns true
+        every { restZoekParametersConverter.convert(restZoekParameters) } returns zoekParameters
+        every { searchService.searchAll(zoekParameters) } returns pages
+        every { csvService.exportToCsv(any<Iterable<List<ZoekObject>>>()) } returns csvStreamingOutput
+
+        `when`("the download full CSV function is called") {
+            val response = csvRESTService.downloadFullCSV(restZoekParameters)
+
+            then("a CSV that streams all search results page by page is returned") {
+                response.status shouldBe 200
+                response.entity shouldBe csvStreamingOutput
+            }
+        }
+    }
 })
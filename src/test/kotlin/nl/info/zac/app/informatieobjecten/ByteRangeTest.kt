@@ -0,0 +1,67 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.app.informatieobjecten
+
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
+
+class ByteRangeTest : BehaviorSpec({
+    given("Content of 1000 bytes") {
+        val contentLength = 1000L
+
+        `when`("a range with a first and last byte is parsed") {
+            val byteRange = ByteRange.parse("bytes=100-199", contentLength)
+
+            then("the range contains those bytes") {
+                byteRange shouldBe ByteRange(first = 100, last = 199, contentLength = contentLength)
+                byteRange!!.length shouldBe 100
+                byteRange.toRangeHeader() shouldBe "bytes=100-199"
+                byteRange.toContentRangeHeader() shouldBe "bytes 100-199/1000"
+            }
+        }
+
+        `when`("a range without a last byte is parsed") {
+            val byteRange = ByteRange.parse("bytes=900-", contentLength)
+
+            then("the range ends at the end of the content") {
+                byteRange shouldBe ByteRange(first = 900, last = 999, contentLength = contentLength)
+            }
+        }
+
+        `when`("a range that ends beyond the end of the content is parsed") {
+            val byteRange = ByteRange.parse("bytes=900-5000", contentLength)
+
+            then("the range ends at the end of the content") {
+                byteRange shouldBe ByteRange(first = 900, last = 999, contentLength = contentLength)
+            }
+        }
+
+        `when`("a suffix range is parsed") {
+            val byteRange = ByteRange.parse("bytes=-50", contentLength)
+
+            then("the range contains the last bytes of the content") {
+                byteRange shouldBe ByteRange(first = 950, last = 999, contentLength = contentLength)
+            }
+        }
+
+        `when`("a range that starts beyond the end of the content is parsed") {
+            val byteRange = ByteRange.parse("bytes=1000-", contentLength)
+
+            then("the range cannot be satisfied") {
+                byteRange!!.isSatisfiable() shouldBe false
+                byteRange.toContentRangeHeader() shouldBe "bytes */1000"
+            }
+        }
+
+        `when`("malformed or multiple ranges are parsed") {
+            then("no range is returned, so that the whole content is sent") {
+                ByteRange.parse("bytes=0-99,200-299", contentLength) shouldBe null
+                ByteRange.parse("bytes=200-100", contentLength) shouldBe null
+                ByteRange.parse("bytes=-", contentLength) shouldBe null
+                ByteRange.parse("items=0-99", contentLength) shouldBe null
+            }
+        }
+    }
+})
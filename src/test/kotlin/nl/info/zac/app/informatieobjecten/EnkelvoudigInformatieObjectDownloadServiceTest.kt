@@ -6,21 +6,29 @@ package nl.info.zac.app.informatieobjecten
 
 import io.kotest.core.spec.style.BehaviorSpec
 import io.kotest.matchers.collections.shouldContainExactlyInAnyOrder
+import io.kotest.matchers.longs.shouldBeGreaterThanOrEqual
+import io.kotest.matchers.longs.shouldBeLessThan
 import io.kotest.matchers.shouldBe
 import io.kotest.matchers.string.shouldContain
 import io.kotest.matchers.types.shouldBeInstanceOf
 import io.mockk.checkUnnecessaryStub
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import nl.info.client.zgw.drc.DrcClientService
+import nl.info.client.zgw.drc.model.EnkelvoudigInformatieobjectContent
 import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObject
+import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObject
 import nl.info.client.zgw.model.createZaak
 import nl.info.client.zgw.model.createZaakInformatieobjectForReads
+import nl.info.client.zgw.util.extractUuid
 import nl.info.client.zgw.zrc.ZrcClientService
 import nl.info.zac.app.informatieobjecten.exception.EnkelvoudigInformatieObjectDownloadException
 import java.io.ByteArrayInputStream
 import java.io.ByteArrayOutputStream
 import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
 import java.net.URI
 import java.time.LocalDate
 import java.util.UUID
@@ -29,12 +37,16 @@ import java.util.zip.ZipInputStream
 class EnkelvoudigInformatieObjectDownloadServiceTest : BehaviorSpec({
     val drcClientService = mockk<DrcClientService>()
     val zrcClientService = mockk<ZrcClientService>()
-    val service = EnkelvoudigInformatieObjectDownloadService(drcClientService, zrcClientService)
+    val service = EnkelvoudigInformatieObjectDownloadService(drcClientService, zrcClientService, 2)
 
     afterEach {
         checkUnnecessaryStub()
     }
 
+    fun contentOf(inputStream: InputStream) = mockk<EnkelvoudigInformatieobjectContent>().also {
+        every { it.writeTo(any()) } answers { inputStream.copyTo(firstArg<OutputStream>()) }
+    }
+
     fun readZipEntries(output: ByteArrayOutputStream): Map<String, String> {
         val entries = mutableMapOf<String, String>()
         ZipInputStream(ByteArrayInputStream(output.toByteArray())).use { zip ->
@@ -63,8 +75,8 @@ class EnkelvoudigInformatieObjectDownloadServiceTest : BehaviorSpec({
         every { zrcClientService.listZaakinformatieobjecten(informatieobject) } returns
             listOf(createZaakInformatieobjectForReads(zaak = zaakUri))
         every { zrcClientService.readZaak(zaakUri) } returns createZaak(identificatie = "ZAAK-2024-001")
-        every { drcClientService.downloadEnkelvoudigInformatieobject(uuid) } returns
-            ByteArrayInputStream(fileContent.toByteArray())
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid) } returns
+            contentOf(ByteArrayInputStream(fileContent.toByteArray()))
 
         `when`("getZipStreamOutput is called") {
             val output = ByteArrayOutputStream()
@@ -100,8 +112,8 @@ class EnkelvoudigInformatieObjectDownloadServiceTest : BehaviorSpec({
         every { zrcClientService.listZaakinformatieobjecten(informatieobject) } returns
             listOf(createZaakInformatieobjectForReads(zaak = zaakUri))
         every { zrcClientService.readZaak(zaakUri) } returns createZaak(identificatie = "ZAAK-2024-002")
-        every { drcClientService.downloadEnkelvoudigInformatieobject(uuid) } returns
-            ByteArrayInputStream(ByteArray(0))
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid) } returns
+            contentOf(ByteArrayInputStream(ByteArray(0)))
 
         `when`("getZipStreamOutput is called") {
             val output = ByteArrayOutputStream()
@@ -128,8 +140,8 @@ class EnkelvoudigInformatieObjectDownloadServiceTest : BehaviorSpec({
         every { zrcClientService.listZaakinformatieobjecten(informatieobject) } returns
             listOf(createZaakInformatieobjectForReads(zaak = zaakUri))
         every { zrcClientService.readZaak(zaakUri) } returns createZaak(identificatie = "ZAAK-2024-003")
-        every { drcClientService.downloadEnkelvoudigInformatieobject(uuid) } returns
-            ByteArrayInputStream(ByteArray(0))
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid) } returns
+            contentOf(ByteArrayInputStream(ByteArray(0)))
 
         `when`("getZipStreamOutput is called") {
             val output = ByteArrayOutputStream()
@@ -166,10 +178,13 @@ class EnkelvoudigInformatieObjectDownloadServiceTest : BehaviorSpec({
             listOf(createZaakInformatieobjectForReads(zaak = zaakUri1))
         every { zrcClientService.listZaakinformatieobjecten(informatieobject2) } returns
             listOf(createZaakInformatieobjectForReads(zaak = zaakUri2))
-        every { zrcClientService.readZaak(zaakUri1) } returns createZaak(identificatie = "ZAAK-A")
+        val zaak1 = createZaak(identificatie = "ZAAK-A")
+        every { zrcClientService.readZaak(zaakUri1) } returns zaak1
         every { zrcClientService.readZaak(zaakUri2) } returns createZaak(identificatie = "ZAAK-B")
-        every { drcClientService.downloadEnkelvoudigInformatieobject(uuid1) } returns ByteArrayInputStream(ByteArray(0))
-        every { drcClientService.downloadEnkelvoudigInformatieobject(uuid2) } returns ByteArrayInputStream(ByteArray(0))
+        every { zrcClientService.listZaakinformatieobjecten(zaak1) } returns
+            listOf(createZaakInformatieobjectForReads(informatieobject = informatieobject1.url, zaak = zaakUri1))
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid1) } returns contentOf(ByteArrayInputStream(ByteArray(0)))
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid2) } returns contentOf(ByteArrayInputStream(ByteArray(0)))
 
         `when`("getZipStreamOutput is called") {
             val output = ByteArrayOutputStream()
@@ -209,7 +224,7 @@ class EnkelvoudigInformatieObjectDownloadServiceTest : BehaviorSpec({
         every { zrcClientService.listZaakinformatieobjecten(informatieobject) } returns
             listOf(createZaakInformatieobjectForReads(zaak = zaakUri))
         every { zrcClientService.readZaak(zaakUri) } returns createZaak(identificatie = "ZAAK-ERR")
-        every { drcClientService.downloadEnkelvoudigInformatieobject(uuid) } returns failingStream
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid) } returns contentOf(failingStream)
 
         `when`("getZipStreamOutput is called and the stream is written") {
             val thrownException = runCatching {
@@ -222,6 +237,58 @@ class EnkelvoudigInformatieObjectDownloadServiceTest : BehaviorSpec({
         }
     }
 
+    given("three informatieobjecten of the same zaak, of which one is a PDF") {
+        val zaakUri = URI("https://example.com/zaak/${UUID.randomUUID()}")
+        val fileContent = "a".repeat(10_000)
+        val informatieobjecten = listOf("memo-1.txt", "report.pdf", "memo-2.txt").mapIndexed { index, bestandsnaam ->
+            createEnkelvoudigInformatieObject(ontvangstdatum = null).apply {
+                identificatie = "DOC-$index"
+                this.bestandsnaam = bestandsnaam
+            }
+        }
+
+        val zaak = createZaak(identificatie = "ZAAK-SAME")
+        every { zrcClientService.listZaakinformatieobjecten(informatieobjecten.first()) } returns
+            listOf(createZaakInformatieobjectForReads(informatieobject = informatieobjecten.first().url, zaak = zaakUri))
+        every { zrcClientService.readZaak(zaakUri) } returns zaak
+        every { zrcClientService.listZaakinformatieobjecten(zaak) } returns informatieobjecten.map {
+            createZaakInformatieobjectForReads(informatieobject = it.url, zaak = zaakUri)
+        }
+        informatieobjecten.forEach {
+            every { drcClientService.streamEnkelvoudigInformatieobject(it.url.extractUuid()) } returns
+                contentOf(ByteArrayInputStream(fileContent.toByteArray()))
+        }
+
+        `when`("getZipStreamOutput is called") {
+            val output = ByteArrayOutputStream()
+            service.getZipStreamOutput(informatieobjecten).write(output)
+            val compressedSizes = mutableMapOf<String, Long>()
+            ZipInputStream(ByteArrayInputStream(output.toByteArray())).use { zip ->
+                generateSequence { zip.nextEntry }.forEach {
+                    zip.readBytes()
+                    compressedSizes[it.name] = it.compressedSize
+                }
+            }
+
+            then("the zaak and its zaakinformatieobjecten are read only once and every document is downloaded") {
+                verify(exactly = 1) {
+                    zrcClientService.readZaak(zaakUri)
+                    zrcClientService.listZaakinformatieobjecten(any<EnkelvoudigInformatieObject>())
+                    zrcClientService.listZaakinformatieobjecten(zaak)
+                }
+                informatieobjecten.forEach {
+                    verify(exactly = 1) { drcClientService.streamEnkelvoudigInformatieobject(it.url.extractUuid()) }
+                }
+            }
+
+            And("the PDF is not compressed again, unlike the other documents") {
+                compressedSizes["ZAAK-SAME/intern/report-DOC-1.pdf"]!! shouldBeGreaterThanOrEqual 10_000
+                compressedSizes["ZAAK-SAME/intern/memo-1-DOC-0.txt"]!! shouldBeLessThan 1_000
+                compressedSizes["ZAAK-SAME/intern/memo-2-DOC-2.txt"]!! shouldBeLessThan 1_000
+            }
+        }
+    }
+
     given("an empty list of informatieobjecten") {
         `when`("getZipStreamOutput is called") {
             val output = ByteArrayOutputStream()
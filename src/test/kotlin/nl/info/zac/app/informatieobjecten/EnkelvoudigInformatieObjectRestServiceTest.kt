@@ -19,10 +19,14 @@ import io.mockk.just
 import io.mockk.mockk
 import io.mockk.verify
 import jakarta.enterprise.inject.Instance
+import jakarta.ws.rs.core.EntityTag
+import jakarta.ws.rs.core.Request
+import jakarta.ws.rs.core.Response
 import jakarta.ws.rs.core.StreamingOutput
 import net.atos.zac.event.EventingService
 import net.atos.zac.websocket.event.ScreenEvent
 import nl.info.client.zgw.drc.DrcClientService
+import nl.info.client.zgw.drc.model.EnkelvoudigInformatieobjectContent
 import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObject
 import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObjectCreateLockRequest
 import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObjectWithLockRequest
@@ -57,6 +61,7 @@ import nl.info.zac.app.informatieobjecten.model.createRestEnkelvoudigInformatieo
 import nl.info.zac.app.informatieobjecten.model.createRestFileUpload
 import nl.info.zac.app.informatieobjecten.model.createRestInformatieobjectZoekParameters
 import nl.info.zac.app.informatieobjecten.model.createRestInformatieobjecttype
+import nl.info.zac.app.informatieobjecten.model.createUploadedFile
 import nl.info.zac.app.zaak.model.RelatieType
 import nl.info.zac.authentication.LoggedInUser
 import nl.info.zac.authentication.createLoggedInUser
@@ -75,10 +80,10 @@ import nl.info.zac.policy.output.createZaakRechten
 import nl.info.zac.policy.output.createZaakRechtenAllDeny
 import nl.info.zac.search.model.DocumentIndicatie
 import nl.info.zac.webdav.WebdavHelper
-import java.io.ByteArrayInputStream
-import java.io.IOException
+import java.io.ByteArrayOutputStream
 import java.net.URI
 import java.time.LocalDate
+import java.util.Date
 import java.util.UUID
 
 @Suppress("LargeClass")
@@ -100,6 +105,7 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
     val zgwApiService = mockk<ZgwApiService>()
     val zrcClientService = mockk<ZrcClientService>()
     val ztcClientService = mockk<ZtcClientService>()
+    val request = mockk<Request>()
     val enkelvoudigInformatieObjectRestService = EnkelvoudigInformatieObjectRestService(
         drcClientService = drcClientService,
         ztcClientService = ztcClientService,
@@ -142,7 +148,8 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
         every {
             enkelvoudigInformatieObjectUpdateService.createZaakInformatieobjectForZaak(
                 zaak,
-                enkelvoudigInformatieObjectData
+                enkelvoudigInformatieObjectData,
+                content = any()
             )
         } returns zaakInformatieobject
         every { loggedInUserInstance.get() } returns loggedInUser
@@ -162,14 +169,16 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
                     restEnkelvoudigInformatieobject
                 )
 
-            then("the enkelvoudig informatieobject is added to the zaak") {
+            then("the enkelvoudig informatieobject is added to the zaak with the uploaded file, which is deleted afterwards") {
                 returnedRESTEnkelvoudigInformatieobject shouldBe responseRestEnkelvoudigInformatieobject
                 verify(exactly = 1) {
                     enkelvoudigInformatieObjectUpdateService.createZaakInformatieobjectForZaak(
                         zaak,
-                        enkelvoudigInformatieObjectData
+                        enkelvoudigInformatieObjectData,
+                        content = restEnkelvoudigInformatieobject.file!!.toPath()
                     )
                 }
+                restEnkelvoudigInformatieobject.file!!.exists() shouldBe false
             }
         }
 
@@ -182,7 +191,8 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
             every {
                 enkelvoudigInformatieObjectUpdateService.createZaakInformatieobjectForZaak(
                     zaak,
-                    enkelvoudigInformatieObjectData
+                    enkelvoudigInformatieObjectData,
+                    content = any()
                 )
             } throws RuntimeException("fake exception")
 
@@ -199,7 +209,8 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
                 verify(exactly = 1) {
                     enkelvoudigInformatieObjectUpdateService.createZaakInformatieobjectForZaak(
                         zaak,
-                        enkelvoudigInformatieObjectData
+                        enkelvoudigInformatieObjectData,
+                        content = any()
                     )
                 }
             }
@@ -209,7 +220,7 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
             every { policyService.readZaakRechten(zaak, loggedInUser) } returns createZaakRechtenAllDeny(
                 toevoegenDocument = true
             )
-            restEnkelvoudigInformatieobject.file = restFileUpload.file
+            restEnkelvoudigInformatieobject.file = createUploadedFile(restFileUpload.file.decodeToString())
             restEnkelvoudigInformatieobject.formaat = restFileUpload.type
 
             val returnedRESTEnkelvoudigInformatieobject =
@@ -225,7 +236,8 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
                 verify(exactly = 1) {
                     enkelvoudigInformatieObjectUpdateService.createZaakInformatieobjectForZaak(
                         zaak,
-                        enkelvoudigInformatieObjectData
+                        enkelvoudigInformatieObjectData,
+                        content = any()
                     )
                 }
             }
@@ -268,7 +280,8 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
         every {
             enkelvoudigInformatieObjectUpdateService.createZaakInformatieobjectForZaak(
                 closedZaak,
-                enkelvoudigInformatieObjectData
+                enkelvoudigInformatieObjectData,
+                content = any()
             )
         } returns zaakInformatieobject
         every {
@@ -296,7 +309,8 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
                 verify(exactly = 1) {
                     enkelvoudigInformatieObjectUpdateService.createZaakInformatieobjectForZaak(
                         closedZaak,
-                        enkelvoudigInformatieObjectData
+                        enkelvoudigInformatieObjectData,
+                        content = any()
                     )
                 }
             }
@@ -322,7 +336,8 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
             enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
                 enkelvoudigInformatieObject.url.extractUuid(),
                 enkelvoudigInformatieObjectWithLockData,
-                null
+                null,
+                restEnkelvoudigInformatieObjectVersieGegevens.file!!.toPath()
             )
         } returns enkelvoudigInformatieObject
         every {
@@ -348,7 +363,8 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
                     enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
                         enkelvoudigInformatieObject.url.extractUuid(),
                         enkelvoudigInformatieObjectWithLockData,
-                        null
+                        null,
+                        restEnkelvoudigInformatieObjectVersieGegevens.file!!.toPath()
                     )
                 }
             }
@@ -734,61 +750,180 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
 
     given("An existing document and the user has permission to download the document") {
         val uuid = UUID.randomUUID()
-        val byteArrayInputStream = ByteArrayInputStream(byteArrayOf(1, 2, 3))
+        val content = mockk<EnkelvoudigInformatieobjectContent>()
+        val outputStream = ByteArrayOutputStream()
         val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
 
         every { drcClientService.readEnkelvoudigInformatieobject(uuid) } returns enkelvoudigInformatieObject
         every { policyService.readDocumentRechten(enkelvoudigInformatieObject).downloaden } returns true
-        every { drcClientService.downloadEnkelvoudigInformatieobject(uuid) } returns byteArrayInputStream
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid, 1234, null) } returns content
+        every { content.contentType } returns "application/pdf"
+        every { content.contentLength } returns 3L
+        every { content.writeTo(outputStream) } returns 3L
+        every { request.evaluatePreconditions(any<Date>(), any<EntityTag>()) } returns null
 
         `when`("readFile is called") {
-            val response = enkelvoudigInformatieObjectRestService.readFile(uuid)
+            val response = enkelvoudigInformatieObjectRestService.readFile(uuid, request, null, null)
 
-            then("it should return the document content as a response") {
+            then("it should stream the document content from the DRC with its content type, length and version") {
                 with(response) {
                     status shouldBe 200
                     headers["Content-Disposition"]!!.first() shouldBe
                         """attachment; filename="${enkelvoudigInformatieObject.bestandsnaam}""""
-                    entity shouldBe byteArrayInputStream
+                    headers["Content-Type"]!!.first().toString() shouldBe "application/pdf"
+                    headers["Content-Length"]!!.first() shouldBe 3L
+                    headers["Accept-Ranges"]!!.first() shouldBe "bytes"
+                    entityTag shouldBe EntityTag("$uuid-1234")
+                    lastModified shouldBe Date.from(enkelvoudigInformatieObject.beginRegistratie.toInstant())
+                    (entity as StreamingOutput).write(outputStream)
                 }
+                verify(exactly = 1) { content.writeTo(outputStream) }
             }
         }
     }
 
-    given("The user does not have permission to download the document") {
+    given("An existing document that the client has already downloaded") {
         val uuid = UUID.randomUUID()
         val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
 
         every { drcClientService.readEnkelvoudigInformatieobject(uuid) } returns enkelvoudigInformatieObject
-        every { policyService.readDocumentRechten(enkelvoudigInformatieObject).downloaden } returns false
+        every { policyService.readDocumentRechten(enkelvoudigInformatieObject).downloaden } returns true
+        every {
+            request.evaluatePreconditions(
+                Date.from(enkelvoudigInformatieObject.beginRegistratie.toInstant()),
+                EntityTag("$uuid-1234")
+            )
+        } returns Response.notModified()
 
-        `when`("readFile is called") {
-            val exception = shouldThrow<PolicyException> {
-                enkelvoudigInformatieObjectRestService.readFile(uuid)
+        `when`("readFile is called with the entity tag of that version") {
+            val response = enkelvoudigInformatieObjectRestService.readFile(uuid, request, null, null)
+
+            then("it should answer that the document has not been modified, without downloading its content") {
+                response.status shouldBe 304
+                response.entityTag shouldBe EntityTag("$uuid-1234")
+                verify(exactly = 0) { drcClientService.streamEnkelvoudigInformatieobject(any(), any(), any()) }
             }
+        }
+    }
 
-            then("it should throw a PolicyException") {
-                exception shouldNotBe null
+    given("An existing document of 1234 bytes and a DRC that supports byte ranges") {
+        val uuid = UUID.randomUUID()
+        val content = mockk<EnkelvoudigInformatieobjectContent>()
+        val outputStream = ByteArrayOutputStream()
+        val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
+
+        every { drcClientService.readEnkelvoudigInformatieobject(uuid) } returns enkelvoudigInformatieObject
+        every { policyService.readDocumentRechten(enkelvoudigInformatieObject).downloaden } returns true
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid, 1234, "bytes=1000-1233") } returns content
+        every { content.contentType } returns "application/pdf"
+        every { content.partial } returns true
+        every { content.writeTo(outputStream) } returns 234L
+        every { request.evaluatePreconditions(any<Date>(), any<EntityTag>()) } returns null
+
+        `when`("readFile is called for the bytes from 1000 onwards") {
+            val response = enkelvoudigInformatieObjectRestService.readFile(uuid, request, "bytes=1000-", null)
+
+            then("it should stream the partial content returned by the DRC") {
+                with(response) {
+                    status shouldBe 206
+                    headers["Content-Range"]!!.first() shouldBe "bytes 1000-1233/1234"
+                    headers["Content-Length"]!!.first() shouldBe 234L
+                    (entity as StreamingOutput).write(outputStream)
+                }
+                verify(exactly = 1) { content.writeTo(outputStream) }
+            }
+        }
+    }
+
+    given("An existing document of 1234 bytes and a DRC that does not support byte ranges") {
+        val uuid = UUID.randomUUID()
+        val content = mockk<EnkelvoudigInformatieobjectContent>()
+        val outputStream = ByteArrayOutputStream()
+        val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
+
+        every { drcClientService.readEnkelvoudigInformatieobject(uuid) } returns enkelvoudigInformatieObject
+        every { policyService.readDocumentRechten(enkelvoudigInformatieObject).downloaden } returns true
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid, 1234, "bytes=1134-1233") } returns content
+        every { content.contentType } returns "application/pdf"
+        every { content.partial } returns false
+        every { content.writeTo(outputStream, 1134, 100) } returns 100L
+        every { request.evaluatePreconditions(any<Date>(), any<EntityTag>()) } returns null
+
+        `when`("readFile is called for the last 100 bytes") {
+            val response = enkelvoudigInformatieObjectRestService.readFile(uuid, request, "bytes=-100", null)
+
+            then("it should take the range from the whole content returned by the DRC") {
+                with(response) {
+                    status shouldBe 206
+                    headers["Content-Range"]!!.first() shouldBe "bytes 1134-1233/1234"
+                    headers["Content-Length"]!!.first() shouldBe 100L
+                    (entity as StreamingOutput).write(outputStream)
+                }
+                verify(exactly = 1) { content.writeTo(outputStream, 1134, 100) }
             }
         }
     }
 
-    given("An IOException occurs while retrieving the document content") {
+    given("An existing document of 1234 bytes that has changed since the client downloaded a part of it") {
         val uuid = UUID.randomUUID()
+        val content = mockk<EnkelvoudigInformatieobjectContent>()
         val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
 
         every { drcClientService.readEnkelvoudigInformatieobject(uuid) } returns enkelvoudigInformatieObject
         every { policyService.readDocumentRechten(enkelvoudigInformatieObject).downloaden } returns true
-        every { drcClientService.downloadEnkelvoudigInformatieobject(uuid) } throws IOException("Failed to retrieve content")
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid, 1234, null) } returns content
+        every { content.contentType } returns "application/pdf"
+        every { content.contentLength } returns 1234L
+        every { request.evaluatePreconditions(any<Date>(), any<EntityTag>()) } returns null
+
+        `when`("readFile is called for a range of the previous version") {
+            val response = enkelvoudigInformatieObjectRestService.readFile(
+                uuid,
+                request,
+                "bytes=1000-",
+                "\"$uuid-1233\""
+            )
+
+            then("it should stream the whole content of the current version") {
+                response.status shouldBe 200
+                response.headers["Content-Range"] shouldBe null
+            }
+        }
+    }
+
+    given("An existing document of 1234 bytes") {
+        val uuid = UUID.randomUUID()
+        val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
+
+        every { drcClientService.readEnkelvoudigInformatieobject(uuid) } returns enkelvoudigInformatieObject
+        every { policyService.readDocumentRechten(enkelvoudigInformatieObject).downloaden } returns true
+        every { request.evaluatePreconditions(any<Date>(), any<EntityTag>()) } returns null
+
+        `when`("readFile is called for a range beyond the end of the document") {
+            val response = enkelvoudigInformatieObjectRestService.readFile(uuid, request, "bytes=2000-", null)
+
+            then("it should answer that the range cannot be satisfied, without downloading the content") {
+                response.status shouldBe 416
+                response.headers["Content-Range"]!!.first() shouldBe "bytes */1234"
+                verify(exactly = 0) { drcClientService.streamEnkelvoudigInformatieobject(any(), any(), any()) }
+            }
+        }
+    }
+
+    given("The user does not have permission to download the document") {
+        val uuid = UUID.randomUUID()
+        val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
+
+        every { drcClientService.readEnkelvoudigInformatieobject(uuid) } returns enkelvoudigInformatieObject
+        every { policyService.readDocumentRechten(enkelvoudigInformatieObject).downloaden } returns false
 
         `when`("readFile is called") {
-            val exception = shouldThrow<RuntimeException> {
-                enkelvoudigInformatieObjectRestService.readFile(uuid)
+            val exception = shouldThrow<PolicyException> {
+                enkelvoudigInformatieObjectRestService.readFile(uuid, request, null, null)
             }
 
-            then("it should throw a exception") {
-                exception.cause.shouldBeInstanceOf<IOException>()
-                exception.cause?.message shouldBe "Failed to retrieve content"
+            then("it should throw a PolicyException") {
+                exception shouldNotBe null
             }
         }
     }
@@ -1081,21 +1216,32 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
     given("An enkelvoudig informatieobject that the user can download, with a specific version") {
         val uuid = UUID.randomUUID()
         val version = 2
-        val byteArrayInputStream = ByteArrayInputStream(byteArrayOf(1, 2, 3))
+        val content = mockk<EnkelvoudigInformatieobjectContent>()
         val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
+        val enkelvoudigInformatieObjectVersion = createEnkelvoudigInformatieObject(versie = version)
 
         every { drcClientService.readEnkelvoudigInformatieobject(uuid) } returns enkelvoudigInformatieObject
         every { policyService.readDocumentRechten(enkelvoudigInformatieObject).downloaden } returns true
-        every { drcClientService.downloadEnkelvoudigInformatieobjectVersie(uuid, version) } returns byteArrayInputStream
+        every {
+            drcClientService.readEnkelvoudigInformatieobjectVersie(uuid, version)
+        } returns enkelvoudigInformatieObjectVersion
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid, version, null) } returns content
+        every { content.contentType } returns "application/pdf"
+        every { content.contentLength } returns null
+        every { request.evaluatePreconditions(any<Date>(), any<EntityTag>()) } returns null
 
         `when`("readFileWithVersion is called") {
-            val response = enkelvoudigInformatieObjectRestService.readFileWithVersion(uuid, version)
+            val response = enkelvoudigInformatieObjectRestService.readFileWithVersion(uuid, version, request, null, null)
 
-            then("the specific version is downloaded and returned") {
+            then("the specific version is streamed, without a content length when the DRC did not provide it") {
                 response.status shouldBe 200
                 response.headers["Content-Disposition"]!!.first() shouldBe
                     """attachment; filename="${enkelvoudigInformatieObject.bestandsnaam}""""
-                response.entity shouldBe byteArrayInputStream
+                response.headers["Content-Length"] shouldBe null
+                response.entityTag shouldBe EntityTag("$uuid-$version")
+                response.lastModified shouldBe
+                    Date.from(enkelvoudigInformatieObjectVersion.beginRegistratie.toInstant())
+                response.entity.shouldBeInstanceOf<StreamingOutput>()
             }
         }
     }
@@ -1103,41 +1249,48 @@ class EnkelvoudigInformatieObjectRestServiceTest : BehaviorSpec({
     given("An enkelvoudig informatieobject that the user can preview with a specific version") {
         val uuid = UUID.randomUUID()
         val version = 3
-        val byteArrayInputStream = ByteArrayInputStream(byteArrayOf(1, 2, 3))
+        val content = mockk<EnkelvoudigInformatieobjectContent>()
         val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
 
         every { drcClientService.readEnkelvoudigInformatieobject(uuid) } returns enkelvoudigInformatieObject
         every { policyService.readDocumentRechten(enkelvoudigInformatieObject) } returns createDocumentRechten()
-        every { drcClientService.downloadEnkelvoudigInformatieobjectVersie(uuid, version) } returns byteArrayInputStream
+        every {
+            drcClientService.readEnkelvoudigInformatieobjectVersie(uuid, version)
+        } returns createEnkelvoudigInformatieObject(versie = version)
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid, version, null) } returns content
+        every { content.contentLength } returns 3L
+        every { request.evaluatePreconditions(any<Date>(), any<EntityTag>()) } returns null
 
         `when`("preview is called with a version") {
-            val response = enkelvoudigInformatieObjectRestService.preview(uuid, version)
+            val response = enkelvoudigInformatieObjectRestService.preview(uuid, version, request, null, null)
 
-            then("the specific version is returned inline") {
+            then("the specific version is streamed inline") {
                 response.status shouldBe 200
                 response.headers["Content-Disposition"]!!.first() shouldBe
                     """inline; filename="${enkelvoudigInformatieObject.bestandsnaam}""""
-                response.headers["Content-Type"]!!.first() shouldBe enkelvoudigInformatieObject.formaat
-                verify(exactly = 1) { drcClientService.downloadEnkelvoudigInformatieobjectVersie(uuid, version) }
+                response.headers["Content-Type"]!!.first().toString() shouldBe enkelvoudigInformatieObject.formaat
+                verify(exactly = 1) { drcClientService.streamEnkelvoudigInformatieobject(uuid, version, null) }
             }
         }
     }
 
     given("An enkelvoudig informatieobject that the user can preview without a version") {
         val uuid = UUID.randomUUID()
-        val byteArrayInputStream = ByteArrayInputStream(byteArrayOf(1, 2, 3))
+        val content = mockk<EnkelvoudigInformatieobjectContent>()
         val enkelvoudigInformatieObject = createEnkelvoudigInformatieObject()
 
         every { drcClientService.readEnkelvoudigInformatieobject(uuid) } returns enkelvoudigInformatieObject
         every { policyService.readDocumentRechten(enkelvoudigInformatieObject) } returns createDocumentRechten()
-        every { drcClientService.downloadEnkelvoudigInformatieobject(uuid) } returns byteArrayInputStream
+        every { drcClientService.streamEnkelvoudigInformatieobject(uuid, 1234, null) } returns content
+        every { content.contentLength } returns 3L
+        every { request.evaluatePreconditions(any<Date>(), any<EntityTag>()) } returns null
 
         `when`("preview is called without a version") {
-            val response = enkelvoudigInformatieObjectRestService.preview(uuid, null)
+            val response = enkelvoudigInformatieObjectRestService.preview(uuid, null, request, null, null)
 
-            then("the current version is returned inline") {
+            then("the current version is streamed inline") {
                 response.status shouldBe 200
-                verify(exactly = 0) { drcClientService.downloadEnkelvoudigInformatieobjectVersie(any(), any()) }
+                verify(exactly = 1) { drcClientService.streamEnkelvoudigInformatieobject(uuid, 1234, null) }
             }
         }
     }
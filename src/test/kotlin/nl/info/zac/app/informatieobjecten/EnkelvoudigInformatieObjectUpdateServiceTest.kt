@@ -14,11 +14,14 @@ import io.mockk.mockk
 import io.mockk.runs
 import io.mockk.slot
 import io.mockk.verify
+import io.mockk.verifyOrder
 import jakarta.enterprise.inject.Instance
 import net.atos.zac.flowable.task.FlowableTaskService
 import net.atos.zac.flowable.task.TaakVariabelenService
 import net.atos.zac.flowable.task.exception.TaskNotFoundException
 import nl.info.client.zgw.drc.DrcClientService
+import nl.info.client.zgw.drc.exception.DrcRuntimeException
+import nl.info.client.zgw.drc.model.createBestandsDeel
 import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObject
 import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObjectCreateLockRequest
 import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObjectWithLockRequest
@@ -35,6 +38,7 @@ import nl.info.zac.enkelvoudiginformatieobject.EnkelvoudigInformatieObjectLockSe
 import nl.info.zac.enkelvoudiginformatieobject.model.createEnkelvoudigInformatieObjectLock
 import nl.info.zac.policy.PolicyService
 import nl.info.zac.policy.output.createTaakRechten
+import java.nio.file.Path
 import java.time.LocalDate
 import java.util.UUID
 
@@ -247,6 +251,133 @@ class EnkelvoudigInformatieObjectUpdateServiceTest : BehaviorSpec({
                 }
             }
         }
+
+        given("An enkelvoudig informatie object locked by a user and new content that is uploaded in bestandsdelen") {
+            val enkelvoudigInformatieObjectUUID = UUID.randomUUID()
+            val enkelvoudigInformatieObjectWithLockRequest = createEnkelvoudigInformatieObjectWithLockRequest()
+            val explanation = "fakeExplanation"
+            val content = Path.of("fakeContent.pdf")
+            val enkelvoudigInformatieObjectLock = createEnkelvoudigInformatieObjectLock(userId = "fakeUserId")
+            val uploadedEnkelvoudigInformatieObject = createEnkelvoudigInformatieObject(
+                uuid = enkelvoudigInformatieObjectUUID,
+                locked = true,
+                bestandsdelen = listOf(createBestandsDeel())
+            )
+            every {
+                enkelvoudigInformatieObjectLockService.findLock(enkelvoudigInformatieObjectUUID)
+            } returns enkelvoudigInformatieObjectLock
+            every {
+                drcClientService.updateEnkelvoudigInformatieobject(
+                    enkelvoudigInformatieObjectUUID, enkelvoudigInformatieObjectWithLockRequest, explanation, content
+                )
+            } returns uploadedEnkelvoudigInformatieObject
+
+            `when`("updating the object with lock data and the new content") {
+                val updatedEnkelvoudigInformatieObject =
+                    enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
+                        enkelvoudigInformatieObjectUUID,
+                        enkelvoudigInformatieObjectWithLockRequest,
+                        explanation,
+                        content
+                    )
+
+                then("the object is updated with the existing lock, which is kept so that the user stays the lock owner") {
+                    updatedEnkelvoudigInformatieObject shouldBe uploadedEnkelvoudigInformatieObject
+                    enkelvoudigInformatieObjectWithLockRequest.lock shouldBe enkelvoudigInformatieObjectLock.lock
+                    verify(exactly = 0) {
+                        enkelvoudigInformatieObjectLockService.deleteLock(any())
+                        enkelvoudigInformatieObjectLockService.createLock(any(), any())
+                    }
+                }
+            }
+        }
+
+        given("An enkelvoudig informatie object without a lock and new content that is uploaded in bestandsdelen") {
+            val enkelvoudigInformatieObjectUUID = UUID.randomUUID()
+            val enkelvoudigInformatieObjectWithLockRequest = createEnkelvoudigInformatieObjectWithLockRequest()
+            val explanation = "fakeExplanation"
+            val content = Path.of("fakeContent.pdf")
+            val enkelvoudigInformatieObjectLock = createEnkelvoudigInformatieObjectLock()
+            val uploadedEnkelvoudigInformatieObject = createEnkelvoudigInformatieObject(
+                uuid = enkelvoudigInformatieObjectUUID,
+                locked = true,
+                bestandsdelen = listOf(createBestandsDeel())
+            )
+            val mergedEnkelvoudigInformatieObject = createEnkelvoudigInformatieObject(uuid = enkelvoudigInformatieObjectUUID)
+            every { loggedInUserInstance.get().id } returns "fakeUserId"
+            every { enkelvoudigInformatieObjectLockService.findLock(enkelvoudigInformatieObjectUUID) } returns null
+            every {
+                enkelvoudigInformatieObjectLockService.createLock(enkelvoudigInformatieObjectUUID, "fakeUserId")
+            } returns enkelvoudigInformatieObjectLock
+            every { enkelvoudigInformatieObjectLockService.deleteLock(enkelvoudigInformatieObjectUUID) } just runs
+
+            `when`("updating the object with lock data and the new content") {
+                every {
+                    drcClientService.updateEnkelvoudigInformatieobject(
+                        enkelvoudigInformatieObjectUUID, enkelvoudigInformatieObjectWithLockRequest, explanation, content
+                    )
+                } returns uploadedEnkelvoudigInformatieObject
+                every {
+                    drcClientService.readEnkelvoudigInformatieobject(enkelvoudigInformatieObjectUUID)
+                } returns mergedEnkelvoudigInformatieObject
+
+                val updatedEnkelvoudigInformatieObject =
+                    enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
+                        enkelvoudigInformatieObjectUUID,
+                        enkelvoudigInformatieObjectWithLockRequest,
+                        explanation,
+                        content
+                    )
+
+                then("the temporary lock is deleted to merge the bestandsdelen and the object is read again") {
+                    updatedEnkelvoudigInformatieObject shouldBe mergedEnkelvoudigInformatieObject
+                    verifyOrder {
+                        enkelvoudigInformatieObjectLockService.createLock(enkelvoudigInformatieObjectUUID, "fakeUserId")
+                        enkelvoudigInformatieObjectLockService.deleteLock(enkelvoudigInformatieObjectUUID)
+                        drcClientService.readEnkelvoudigInformatieobject(enkelvoudigInformatieObjectUUID)
+                    }
+                }
+            }
+        }
+
+        given("An enkelvoudig informatie object without a lock and new content of which the upload fails") {
+            val enkelvoudigInformatieObjectUUID = UUID.randomUUID()
+            val enkelvoudigInformatieObjectWithLockRequest = createEnkelvoudigInformatieObjectWithLockRequest()
+            val explanation = "fakeExplanation"
+            val content = Path.of("fakeContent.pdf")
+            every { loggedInUserInstance.get().id } returns "fakeUserId"
+            every { enkelvoudigInformatieObjectLockService.findLock(enkelvoudigInformatieObjectUUID) } returns null
+            every {
+                enkelvoudigInformatieObjectLockService.createLock(enkelvoudigInformatieObjectUUID, "fakeUserId")
+            } returns createEnkelvoudigInformatieObjectLock()
+            every {
+                drcClientService.updateEnkelvoudigInformatieobject(
+                    enkelvoudigInformatieObjectUUID, enkelvoudigInformatieObjectWithLockRequest, explanation, content
+                )
+            } throws DrcRuntimeException("fakeException")
+            every { enkelvoudigInformatieObjectLockService.deleteLock(enkelvoudigInformatieObjectUUID) } just runs
+
+            `when`("updating the object with lock data and the new content") {
+                val exception = shouldThrow<DrcRuntimeException> {
+                    enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
+                        enkelvoudigInformatieObjectUUID,
+                        enkelvoudigInformatieObjectWithLockRequest,
+                        explanation,
+                        content
+                    )
+                }
+
+                then("the temporary lock is deleted and the failure is rethrown") {
+                    exception.message shouldBe "fakeException"
+                    verify(exactly = 1) {
+                        enkelvoudigInformatieObjectLockService.deleteLock(enkelvoudigInformatieObjectUUID)
+                    }
+                    verify(exactly = 0) {
+                        drcClientService.readEnkelvoudigInformatieobject(enkelvoudigInformatieObjectUUID)
+                    }
+                }
+            }
+        }
     }
 
     context("Sending an enkelvoudig informatie object") {
@@ -137,7 +137,9 @@ class RestInformatieobjectConverterTest : BehaviorSpec({
                     auteur shouldBe restEnkelvoudigInformatieobject.auteur
                     taal shouldBe restEnkelvoudigInformatieobject.taal
                     informatieobjecttype shouldBe providedInformatieObjectType.url
-                    inhoud shouldBe Base64.getEncoder().encodeToString(restFileUpload.file)
+                    // the content is uploaded from the uploaded file by the DRC client service
+                    inhoud shouldBe null
+                    bestandsomvang shouldBe null
                     formaat shouldBe restFileUpload.type
                     bestandsnaam shouldBe restEnkelvoudigInformatieobject.bestandsnaam
                     status.name shouldBe restEnkelvoudigInformatieobject.status!!.name
@@ -273,8 +275,10 @@ class RestInformatieobjectConverterTest : BehaviorSpec({
             then("the obejct is correctly converted to a 'enkelvoudiginformatieobject with lock request'") {
                 with(enkelvoudigInformatieObjectWithLockRequest) {
                     bestandsnaam shouldBe restEnkelvoudigInformatieobjectVersieGegevens.bestandsnaam
-                    bestandsomvang shouldBe restEnkelvoudigInformatieobjectVersieGegevens.file!!.size
-                    inhoud shouldBe Base64.getEncoder().encodeToString(restEnkelvoudigInformatieobjectVersieGegevens.file!!)
+                    formaat shouldBe restEnkelvoudigInformatieobjectVersieGegevens.formaat
+                    // the content is uploaded from the uploaded file by the DRC client service
+                    bestandsomvang shouldBe null
+                    inhoud shouldBe null
                     informatieobjecttype shouldBe informatieobjectType.url
                     vertrouwelijkheidaanduiding shouldBe VertrouwelijkheidaanduidingEnum.OPENBAAR
                 }
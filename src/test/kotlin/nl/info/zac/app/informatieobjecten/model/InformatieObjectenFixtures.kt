@@ -8,6 +8,8 @@ package nl.info.zac.app.informatieobjecten.model
 import nl.info.client.zgw.drc.model.generated.StatusEnum
 import nl.info.zac.app.identity.model.RestUser
 import nl.info.zac.app.shared.RestVertrouwelijkheidaanduiding
+import java.io.File
+import java.nio.file.Files
 import java.time.LocalDate
 import java.util.UUID
 
@@ -23,6 +25,15 @@ fun createRestDocumentVerzendGegevens(
     toelichting = toelichting
 )
 
+/**
+ * Creates a temporary file with the given content, as RESTEasy does for a file uploaded in a multipart form.
+ */
+fun createUploadedFile(content: String = "fakeFile"): File =
+    Files.createTempFile("upload-", ".tmp").toFile().apply {
+        deleteOnExit()
+        writeText(content)
+    }
+
 @Suppress("LongParameterList")
 fun createRestEnkelvoudigInformatieobject(
     uuid: UUID = UUID.randomUUID(),
@@ -32,7 +43,7 @@ fun createRestEnkelvoudigInformatieobject(
     auteur: String? = null,
     taal: String? = null,
     informatieobjectTypeUUID: UUID = UUID.randomUUID(),
-    file: ByteArray = "fakeFile".toByteArray(),
+    file: File? = createUploadedFile(),
     bestandsNaam: String = "fakeFilename",
     formaat: String = "fakeType",
     indicatieGebruiksrecht: Boolean = false,
@@ -89,7 +100,7 @@ fun createRestEnkelvoudigInformatieObjectVersieGegevens(
     uuid: UUID = UUID.randomUUID(),
     zaakUuid: UUID = UUID.randomUUID(),
     bestandsnaam: String = "fakeFile.txt",
-    file: ByteArray = "fakeFile".toByteArray(),
+    file: File? = createUploadedFile(),
     formaat: String = "fakeType",
     informatieobjectTypeUUID: UUID = UUID.randomUUID(),
     vertrouwelijkheidaanduiding: RestVertrouwelijkheidaanduiding =
@@ -8,6 +8,7 @@ package nl.info.zac.app.informatieobjecten.model.validation
 import io.kotest.core.spec.style.BehaviorSpec
 import io.kotest.matchers.shouldBe
 import nl.info.zac.app.informatieobjecten.model.RestEnkelvoudigInformatieobject
+import nl.info.zac.app.informatieobjecten.model.createUploadedFile
 
 class ValidRestEnkelvoudigInformatieobjectFileUploadFormValidatorTest : BehaviorSpec({
 
@@ -30,7 +31,7 @@ class ValidRestEnkelvoudigInformatieobjectFileUploadFormValidatorTest : Behavior
         }
 
         `when`("file is empty") {
-            restEnkelvoudigInformatieobject.file = "".toByteArray()
+            restEnkelvoudigInformatieobject.file = createUploadedFile("")
 
             val result = validator.isValid(restEnkelvoudigInformatieobject, null)
 
@@ -40,7 +41,7 @@ class ValidRestEnkelvoudigInformatieobjectFileUploadFormValidatorTest : Behavior
         }
 
         `when`("file content is provided") {
-            restEnkelvoudigInformatieobject.file = "fake content".toByteArray()
+            restEnkelvoudigInformatieobject.file = createUploadedFile("fake content")
 
             val result = validator.isValid(restEnkelvoudigInformatieobject, null)
 
@@ -55,7 +56,7 @@ class ValidRestEnkelvoudigInformatieobjectFileUploadFormValidatorTest : Behavior
             .apply {
                 bestandsnaam = null
                 formaat = "application/pdf"
-                file = "fake content".toByteArray()
+                file = createUploadedFile("fake content")
             }
 
         `when`("validated") {
@@ -72,7 +73,7 @@ class ValidRestEnkelvoudigInformatieobjectFileUploadFormValidatorTest : Behavior
             .apply {
                 bestandsnaam = "   "
                 formaat = "application/pdf"
-                file = "fake content".toByteArray()
+                file = createUploadedFile("fake content")
             }
 
         `when`("validated") {
@@ -101,7 +102,7 @@ class ValidRestEnkelvoudigInformatieobjectFileUploadFormValidatorTest : Behavior
             .apply {
                 bestandsnaam = "malicious.exe"
                 formaat = "application/x-msdownload"
-                file = "MZ".toByteArray()
+                file = createUploadedFile("MZ")
             }
 
         `when`("validated") {
@@ -118,7 +119,7 @@ class ValidRestEnkelvoudigInformatieobjectFileUploadFormValidatorTest : Behavior
             .apply {
                 bestandsnaam = "document.pdf"
                 formaat = "image/png"
-                file = "fake content".toByteArray()
+                file = createUploadedFile("fake content")
             }
 
         `when`("validated") {
@@ -135,7 +136,7 @@ class ValidRestEnkelvoudigInformatieobjectFileUploadFormValidatorTest : Behavior
             .apply {
                 bestandsnaam = "report.PDF"
                 formaat = null
-                file = "fake content".toByteArray()
+                file = createUploadedFile("fake content")
             }
 
         `when`("validated") {
@@ -10,6 +10,8 @@ import io.kotest.matchers.shouldBe
 import io.mockk.checkUnnecessaryStub
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
+import nl.info.zac.app.policy.model.toRestZaakRechten
 import nl.info.zac.app.search.model.RestTaakZoekObject
 import nl.info.zac.app.search.model.RestZaakZoekObject
 import nl.info.zac.app.search.model.createRestZoekParameters
@@ -24,6 +26,7 @@ import nl.info.zac.search.model.ZoekResultaat
 import nl.info.zac.search.model.createTaakZoekObject
 import nl.info.zac.search.model.createZaakZoekObject
 import nl.info.zac.search.model.zoekobject.DocumentZoekObject
+import nl.info.zac.search.model.zoekobject.TaakZoekObject
 import nl.info.zac.search.model.zoekobject.ZoekObjectType
 
 class RestZoekResultaatConverterTest : BehaviorSpec({
@@ -39,7 +42,7 @@ class RestZoekResultaatConverterTest : BehaviorSpec({
             val zoekParameters = createRestZoekParameters(type = ZoekObjectType.TAAK, filters = emptyMap())
             val taakRechten = createTaakRechten()
 
-            every { policyService.readTaakRechten(taakZoekObject) } returns taakRechten
+            every { policyService.readTaakRechten(listOf(taakZoekObject)) } returns listOf(taakRechten)
 
             `when`("convert is called") {
                 val result = restZoekResultaatConverter.convert(zoekResultaat, zoekParameters)
@@ -58,7 +61,7 @@ class RestZoekResultaatConverterTest : BehaviorSpec({
             val zoekParameters = createRestZoekParameters(type = ZoekObjectType.ZAAK, filters = emptyMap())
             val zaakRechten = createZaakRechten()
 
-            every { policyService.readZaakRechtenForZaakZoekObject(zaakZoekObject) } returns zaakRechten
+            every { policyService.readZaakRechtenForZaakZoekObjecten(listOf(zaakZoekObject)) } returns listOf(zaakRechten)
 
             `when`("convert is called") {
                 val result = restZoekResultaatConverter.convert(zoekResultaat, zoekParameters)
@@ -80,7 +83,7 @@ class RestZoekResultaatConverterTest : BehaviorSpec({
             val zoekParameters = createRestZoekParameters(type = ZoekObjectType.DOCUMENT, filters = emptyMap())
             val documentRechten = createDocumentRechten()
 
-            every { policyService.readDocumentRechten(documentZoekObject) } returns documentRechten
+            every { policyService.readDocumentRechten(listOf(documentZoekObject)) } returns listOf(documentRechten)
 
             `when`("convert is called") {
                 val result = restZoekResultaatConverter.convert(zoekResultaat, zoekParameters)
@@ -92,6 +95,35 @@ class RestZoekResultaatConverterTest : BehaviorSpec({
             }
         }
 
+        given("a ZoekResultaat containing both zaken and taken") {
+            val zaakZoekObject1 = createZaakZoekObject(uuidAsString = "fakeZaakId1")
+            val taakZoekObject = createTaakZoekObject(uuidAsString = "fakeTaakId")
+            val zaakZoekObject2 = createZaakZoekObject(uuidAsString = "fakeZaakId2")
+            val zoekResultaat = ZoekResultaat(listOf(zaakZoekObject1, taakZoekObject, zaakZoekObject2), 3L)
+            val zoekParameters = createRestZoekParameters(type = ZoekObjectType.ZAAK, filters = emptyMap())
+            val zaakRechten1 = createZaakRechten(lezen = true)
+            val zaakRechten2 = createZaakRechten(lezen = false)
+
+            every {
+                policyService.readZaakRechtenForZaakZoekObjecten(listOf(zaakZoekObject1, zaakZoekObject2))
+            } returns listOf(zaakRechten1, zaakRechten2)
+            every { policyService.readTaakRechten(listOf(taakZoekObject)) } returns listOf(createTaakRechten())
+
+            `when`("convert is called") {
+                val result = restZoekResultaatConverter.convert(zoekResultaat, zoekParameters)
+
+                then("the rechten are read once per type and the results keep their original order") {
+                    verify(exactly = 1) {
+                        policyService.readZaakRechtenForZaakZoekObjecten(any())
+                        policyService.readTaakRechten(any<List<TaakZoekObject>>())
+                    }
+                    result.results.map { it.id } shouldBe listOf("fakeZaakId1", "fakeTaakId", "fakeZaakId2")
+                    (result.results[0] as RestZaakZoekObject).rechten shouldBe zaakRechten1.toRestZaakRechten()
+                    (result.results[2] as RestZaakZoekObject).rechten shouldBe zaakRechten2.toRestZaakRechten()
+                }
+            }
+        }
+
         given("a ZoekResultaat with existing filters") {
             val zaakZoekObject = createZaakZoekObject()
             val zoekResultaat = ZoekResultaat(listOf(zaakZoekObject), 1L).also {
@@ -100,7 +132,7 @@ class RestZoekResultaatConverterTest : BehaviorSpec({
             val zoekParameters = createRestZoekParameters(type = ZoekObjectType.ZAAK, filters = emptyMap())
             val zaakRechten = createZaakRechten()
 
-            every { policyService.readZaakRechtenForZaakZoekObject(zaakZoekObject) } returns zaakRechten
+            every { policyService.readZaakRechtenForZaakZoekObjecten(listOf(zaakZoekObject)) } returns listOf(zaakRechten)
 
             `when`("convert is called") {
                 val result = restZoekResultaatConverter.convert(zoekResultaat, zoekParameters)
@@ -123,7 +155,7 @@ class RestZoekResultaatConverterTest : BehaviorSpec({
             )
             val zaakRechten = createZaakRechten()
 
-            every { policyService.readZaakRechtenForZaakZoekObject(zaakZoekObject) } returns zaakRechten
+            every { policyService.readZaakRechtenForZaakZoekObjecten(listOf(zaakZoekObject)) } returns listOf(zaakRechten)
 
             `when`("convert is called") {
                 val result = restZoekResultaatConverter.convert(zoekResultaat, zoekParameters)
@@ -145,7 +177,7 @@ class RestZoekResultaatConverterTest : BehaviorSpec({
             val documentLinkableList = listOf(true)
             val zaakRechten = createZaakRechten()
 
-            every { policyService.readZaakRechtenForZaakZoekObject(zaakZoekObject) } returns zaakRechten
+            every { policyService.readZaakRechtenForZaakZoekObjecten(listOf(zaakZoekObject)) } returns listOf(zaakRechten)
 
             `when`("convert is called with documentLinkableList") {
                 val result = restZoekResultaatConverter.convert(zoekResultaat, documentLinkableList)
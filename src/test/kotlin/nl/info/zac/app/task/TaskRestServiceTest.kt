@@ -17,8 +17,6 @@ import io.mockk.verify
 import jakarta.enterprise.inject.Instance
 import jakarta.json.Json
 import jakarta.servlet.http.HttpSession
-import kotlinx.coroutines.test.StandardTestDispatcher
-import kotlinx.coroutines.test.runTest
 import net.atos.zac.event.EventingService
 import net.atos.zac.flowable.ZaakVariabelenService
 import net.atos.zac.flowable.task.FlowableTaskService
@@ -48,6 +46,9 @@ import nl.info.zac.app.task.model.createRestTaskDistributeTask
 import nl.info.zac.app.task.model.createRestTaskReleaseData
 import nl.info.zac.authentication.LoggedInUser
 import nl.info.zac.authentication.createLoggedInUser
+import nl.info.zac.bulk.BulkJobService
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJobType
 import nl.info.zac.exception.ErrorCode
 import nl.info.zac.exception.InputValidationFailedException
 import nl.info.zac.identity.model.getFullName
@@ -62,6 +63,8 @@ import nl.info.zac.shared.helper.SuspensionZaakHelper
 import nl.info.zac.signalering.SignaleringService
 import nl.info.zac.task.BpmnTaskFormRuntimeService
 import nl.info.zac.task.TaskService
+import nl.info.zac.task.bulk.AssignTasksBulkJobHandler
+import nl.info.zac.task.bulk.ReleaseTasksBulkJobHandler
 import org.flowable.task.api.history.HistoricTaskInstance
 import java.net.URI
 import java.time.LocalDate
@@ -89,7 +92,7 @@ class TaskRestServiceTest : BehaviorSpec({
     val taskService = mockk<TaskService>()
     val bpmnTaskFormRuntimeService = mockk<BpmnTaskFormRuntimeService>()
     val zaakVariabelenService = mockk<ZaakVariabelenService>()
-    val testDispatcher = StandardTestDispatcher()
+    val bulkJobService = mockk<BulkJobService>()
     val taskRestService = TaskRestService(
         drcClientService = drcClientService,
         enkelvoudigInformatieObjectUpdateService = enkelvoudigInformatieObjectUpdateService,
@@ -110,7 +113,7 @@ class TaskRestServiceTest : BehaviorSpec({
         taskService = taskService,
         bpmnTaskFormRuntimeService = bpmnTaskFormRuntimeService,
         zaakVariabelenService = zaakVariabelenService,
-        dispatcher = testDispatcher
+        bulkJobService = bulkJobService
     )
     val loggedInUser = createLoggedInUser()
 
@@ -422,28 +425,32 @@ class TaskRestServiceTest : BehaviorSpec({
             val screenEventResourceId = "fakeScreenEventResourceId"
             val restTaakVerdelenGegevens = createRestTaskDistributeData(
                 taken = listOf(
-                    createRestTaskDistributeTask(),
-                    createRestTaskDistributeTask()
+                    createRestTaskDistributeTask(taakId = "fakeTaskId1"),
+                    createRestTaskDistributeTask(taakId = "fakeTaskId2")
                 ),
                 screenEventResourceId = screenEventResourceId
             )
-            every {
-                taskService.assignTasks(restTaakVerdelenGegevens, loggedInUser, screenEventResourceId)
-            } just Runs
-            every { loggedInUserInstance.get() } returns loggedInUser
+            every { bulkJobService.submit(any(), any(), any(), any()) } returns BulkJob()
 
             `when`("the 'verdelen vanuit lijst' function is called from user with access") {
                 every {
                     policyService.readWerklijstRechten()
                 } returns createWerklijstRechtenAllDeny(zakenTakenVerdelen = true)
 
-                runTest(testDispatcher) {
-                    taskRestService.assignTasksFromList(restTaakVerdelenGegevens)
-                }
+                taskRestService.assignTasksFromList(restTaakVerdelenGegevens)
 
-                then("the tasks are assigned to the group and user") {
+                then("a bulk job is submitted to assign the tasks to the group and user") {
                     verify(exactly = 1) {
-                        taskService.assignTasks(restTaakVerdelenGegevens, loggedInUser, screenEventResourceId)
+                        bulkJobService.submit(
+                            BulkJobType.TAKEN_VERDELEN,
+                            listOf("fakeTaskId1", "fakeTaskId2"),
+                            AssignTasksBulkJobHandler.Parameters(
+                                groupId = restTaakVerdelenGegevens.groepId,
+                                userName = restTaakVerdelenGegevens.behandelaarGebruikersnaam,
+                                explanation = restTaakVerdelenGegevens.reden
+                            ),
+                            screenEventResourceId
+                        )
                     }
                 }
             }
@@ -465,26 +472,26 @@ class TaskRestServiceTest : BehaviorSpec({
             val screenEventResourceId = "fakeScreenEventResourceId"
             val restTaakVrijgevenGegevens = createRestTaskReleaseData(
                 taken = listOf(
-                    createRestTaskDistributeTask(),
-                    createRestTaskDistributeTask()
+                    createRestTaskDistributeTask(taakId = "fakeTaskId3"),
+                    createRestTaskDistributeTask(taakId = "fakeTaskId4")
                 ),
                 screenEventResourceId = screenEventResourceId
             )
             val werklijstRechten = createWerklijstRechten()
             every { policyService.readWerklijstRechten() } returns werklijstRechten
-            every {
-                taskService.releaseTasks(restTaakVrijgevenGegevens, loggedInUser, screenEventResourceId)
-            } just Runs
-            every { loggedInUserInstance.get() } returns loggedInUser
+            every { bulkJobService.submit(any(), any(), any(), any()) } returns BulkJob()
 
-            `when`("the 'verdelen vanuit lijst' function is called") {
-                runTest(testDispatcher) {
-                    taskRestService.releaseTaskFromList(restTaakVrijgevenGegevens)
-                }
+            `when`("the 'vrijgeven vanuit lijst' function is called") {
+                taskRestService.releaseTaskFromList(restTaakVrijgevenGegevens)
 
-                then("the tasks are assigned to the group and user") {
+                then("a bulk job is submitted to release the tasks") {
                     verify(exactly = 1) {
-                        taskService.releaseTasks(restTaakVrijgevenGegevens, loggedInUser, screenEventResourceId)
+                        bulkJobService.submit(
+                            BulkJobType.TAKEN_VRIJGEVEN,
+                            listOf("fakeTaskId3", "fakeTaskId4"),
+                            ReleaseTasksBulkJobHandler.Parameters(explanation = restTaakVrijgevenGegevens.reden),
+                            screenEventResourceId
+                        )
                     }
                 }
             }
@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.app.util
@@ -16,8 +16,11 @@ import io.mockk.checkUnnecessaryStub
 import io.mockk.every
 import io.mockk.mockk
 import io.mockk.verify
+import net.atos.zac.flowable.ZaakFlowableInstanceResolver
+import nl.info.client.pabc.PabcClientService
 import nl.info.client.zgw.ztc.ZtcClientService
 import nl.info.zac.admin.ZaaktypeCmmnConfigurationService
+import nl.info.zac.policy.PolicyDecisionCache
 import nl.info.zac.policy.PolicyService
 import nl.info.zac.policy.exception.PolicyException
 import nl.info.zac.sensitive.SensitiveDataService
@@ -27,11 +30,17 @@ class UtilRestServiceTest : BehaviorSpec({
     val zaaktypeCmmnConfigurationService = mockk<ZaaktypeCmmnConfigurationService>()
     val policyService = mockk<PolicyService>()
     val sensitiveDataService = mockk<SensitiveDataService>()
+    val policyDecisionCache = mockk<PolicyDecisionCache>()
+    val pabcClientService = mockk<PabcClientService>()
+    val zaakFlowableInstanceResolver = mockk<ZaakFlowableInstanceResolver>()
     val utilRESTService = UtilRestService(
         ztcClientService = ztcClientService,
         zaaktypeCmmnConfigurationService = zaaktypeCmmnConfigurationService,
         sensitiveDataService = sensitiveDataService,
-        policyService = policyService
+        policyService = policyService,
+        policyDecisionCache = policyDecisionCache,
+        pabcClientService = pabcClientService,
+        zaakFlowableInstanceResolver = zaakFlowableInstanceResolver
     )
 
     afterEach {
@@ -52,6 +61,24 @@ class UtilRestServiceTest : BehaviorSpec({
         every { zaaktypeCmmnConfigurationService.estimatedCacheSizes() } returns mapOf(
             "zafhPS-cache1" to 0
         )
+        every { policyDecisionCache.cacheStatistics() } returns mapOf(
+            "policy-cache1" to CacheStats.empty()
+        )
+        every { policyDecisionCache.estimatedCacheSizes() } returns mapOf(
+            "policy-cache1" to 0
+        )
+        every { pabcClientService.cacheStatistics() } returns mapOf(
+            "pabc-cache1" to CacheStats.empty()
+        )
+        every { pabcClientService.estimatedCacheSizes() } returns mapOf(
+            "pabc-cache1" to 0
+        )
+        every { zaakFlowableInstanceResolver.cacheStatistics() } returns mapOf(
+            "flowable-cache1" to CacheStats.empty()
+        )
+        every { zaakFlowableInstanceResolver.estimatedCacheSizes() } returns mapOf(
+            "flowable-cache1" to 0
+        )
 
         `when`("cache statistics are requested") {
             val response = utilRESTService.caches()
@@ -59,6 +86,9 @@ class UtilRestServiceTest : BehaviorSpec({
             then("stats are returned correctly") {
                 response shouldContain "ztc-cache1"
                 response shouldContain "zafhPS-cache1"
+                response shouldContain "policy-cache1"
+                response shouldContain "pabc-cache1"
+                response shouldContain "flowable-cache1"
                 response shouldContain "hitCount=0"
                 response shouldContain "Estimated cache size: 0"
             }
@@ -92,6 +122,11 @@ class UtilRestServiceTest : BehaviorSpec({
             every { ztcClientService.clearCacheTime() } returns "cachetime cleared"
             every { zaaktypeCmmnConfigurationService.clearListCache() } returns "zaaktype-cmmn-cache cleared"
             every { zaaktypeCmmnConfigurationService.clearManagedCache() } returns "zaaktype-cmmn-managed-cache cleared"
+            every { policyDecisionCache.clear() } returns "policy-decisions cache cleared"
+            every {
+                pabcClientService.clearCaches()
+            } returns listOf("pabc-application-roles cache cleared", "pabc-groups cache cleared")
+            every { zaakFlowableInstanceResolver.clearCache() } returns "zac-zaak-flowable-instances cache cleared"
 
             val clearResponse = utilRESTService.clearCaches()
 
@@ -108,13 +143,16 @@ class UtilRestServiceTest : BehaviorSpec({
                     ztcClientService.clearCacheTime()
                     zaaktypeCmmnConfigurationService.clearListCache()
                     zaaktypeCmmnConfigurationService.clearManagedCache()
+                    policyDecisionCache.clear()
+                    pabcClientService.clearCaches()
+                    zaakFlowableInstanceResolver.clearCache()
                 }
             }
             And("sensitive data should not be cleared") {
                 verify(exactly = 0) { sensitiveDataService.clearStorage() }
             }
             And("response should contain the all results") {
-                clearResponse.windowed("cleared".length) { it == "cleared" }.count { it } shouldBe 11
+                clearResponse.windowed("cleared".length) { it == "cleared" }.count { it } shouldBe 15
             }
         }
 
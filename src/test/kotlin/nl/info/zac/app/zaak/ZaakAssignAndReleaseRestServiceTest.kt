@@ -14,8 +14,6 @@ import io.mockk.mockk
 import io.mockk.runs
 import io.mockk.verify
 import jakarta.enterprise.inject.Instance
-import kotlinx.coroutines.test.StandardTestDispatcher
-import kotlinx.coroutines.test.runTest
 import nl.info.client.zgw.model.createZaak
 import nl.info.client.zgw.zrc.model.generated.ArchiefnominatieEnum
 import nl.info.client.zgw.ztc.model.createZaakType
@@ -28,7 +26,9 @@ import nl.info.zac.app.zaak.model.createRestZaak
 import nl.info.zac.app.zaak.model.createRestZaakAssignmentToLoggedInUserData
 import nl.info.zac.authentication.LoggedInUser
 import nl.info.zac.authentication.createLoggedInUser
-import nl.info.zac.identity.IdentityService
+import nl.info.zac.bulk.BulkJobService
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJobType
 import nl.info.zac.identity.model.createGroup
 import nl.info.zac.identity.model.createUser
 import nl.info.zac.policy.PolicyService
@@ -37,19 +37,19 @@ import nl.info.zac.policy.output.createWerklijstRechten
 import nl.info.zac.policy.output.createWerklijstRechtenAllDeny
 import nl.info.zac.policy.output.createZaakRechtenAllDeny
 import nl.info.zac.zaak.ZaakService
+import nl.info.zac.zaak.bulk.AssignZakenBulkJobHandler
+import nl.info.zac.zaak.bulk.ReleaseZakenBulkJobHandler
 import java.util.UUID
 
 class ZaakAssignAndReleaseRestServiceTest : BehaviorSpec({
-    val identityService = mockk<IdentityService>()
+    val bulkJobService = mockk<BulkJobService>()
     val loggedInUserInstance = mockk<Instance<LoggedInUser>>()
     val policyService = mockk<PolicyService>()
     val restZaakConverter = mockk<RestZaakConverter>()
     val restZaakOverzichtConverter = mockk<RestZaakOverzichtConverter>()
     val zaakService = mockk<ZaakService>()
-    val testDispatcher = StandardTestDispatcher()
     val zaakAssignAndReleaseRestService = ZaakAssignAndReleaseRestService(
-        dispatcher = testDispatcher,
-        identityService = identityService,
+        bulkJobService = bulkJobService,
         loggedInUserInstance = loggedInUserInstance,
         policyService = policyService,
         restZaakConverter = restZaakConverter,
@@ -73,22 +73,21 @@ class ZaakAssignAndReleaseRestServiceTest : BehaviorSpec({
                 reden = "fakeReason"
             )
             every { policyService.readWerklijstRechten() } returns createWerklijstRechten()
-            every { zaakService.assignZaken(any(), any(), any(), any(), any()) } just runs
-            every { identityService.readGroup(group.name) } returns group
-            every { identityService.readUser(restZakenVerdeelGegevens.behandelaarGebruikersnaam!!) } returns user
+            every { bulkJobService.submit(any(), any(), any(), any()) } returns BulkJob()
 
             `when`("the assign zaken from a list function is called") {
-                runTest(testDispatcher) {
-                    zaakAssignAndReleaseRestService.assignFromList(restZakenVerdeelGegevens)
-                }
+                zaakAssignAndReleaseRestService.assignFromList(restZakenVerdeelGegevens)
 
-                then("the zaken are assigned to the group and user") {
+                then("a bulk job is submitted to assign the zaken to the group and user") {
                     verify(exactly = 1) {
-                        zaakService.assignZaken(
-                            zaakUUIDs,
-                            group,
-                            user,
-                            restZakenVerdeelGegevens.reden,
+                        bulkJobService.submit(
+                            BulkJobType.ZAKEN_VERDELEN,
+                            zaakUUIDs.map { it.toString() },
+                            AssignZakenBulkJobHandler.Parameters(
+                                groupId = group.name,
+                                userName = user.id,
+                                explanation = restZakenVerdeelGegevens.reden
+                            ),
                             restZakenVerdeelGegevens.screenEventResourceId
                         )
                     }
@@ -245,18 +244,17 @@ class ZaakAssignAndReleaseRestServiceTest : BehaviorSpec({
                 screenEventResourceId = "fakeScreenEventResourceId"
             )
             every { policyService.readWerklijstRechten() } returns createWerklijstRechten()
-            every { zaakService.releaseZaken(any(), any(), any()) } just runs
+            every { bulkJobService.submit(any(), any(), any(), any()) } returns BulkJob()
 
             `when`("the release zaken from a list function is called") {
-                runTest(testDispatcher) {
-                    zaakAssignAndReleaseRestService.releaseZakenFromList(restZakenVrijgevenGegevens)
-                }
+                zaakAssignAndReleaseRestService.releaseZakenFromList(restZakenVrijgevenGegevens)
 
-                then("the zaken are released") {
+                then("a bulk job is submitted to release the zaken") {
                     verify(exactly = 1) {
-                        zaakService.releaseZaken(
-                            zaakUUIDs,
-                            restZakenVrijgevenGegevens.reden,
+                        bulkJobService.submit(
+                            BulkJobType.ZAKEN_VRIJGEVEN,
+                            zaakUUIDs.map { it.toString() },
+                            ReleaseZakenBulkJobHandler.Parameters(explanation = restZakenVrijgevenGegevens.reden),
                             restZakenVrijgevenGegevens.screenEventResourceId
                         )
                     }
@@ -276,7 +274,7 @@ class ZaakAssignAndReleaseRestServiceTest : BehaviorSpec({
                         zaakAssignAndReleaseRestService.releaseZakenFromList(restZakenVrijgevenGegevens)
                     }
                     verify(exactly = 0) {
-                        zaakService.releaseZaken(any(), any(), any())
+                        bulkJobService.submit(any(), any(), any(), any())
                     }
                 }
             }
@@ -40,6 +40,7 @@ import nl.info.client.zgw.model.createRolNietNatuurlijkPersoonForReads
 import nl.info.client.zgw.model.createRolOrganisatorischeEenheid
 import nl.info.client.zgw.model.createZaak
 import nl.info.client.zgw.model.createZaakInformatieobjectForReads
+import nl.info.client.zgw.model.createZaakStatus
 import nl.info.client.zgw.model.createZaakStatusSub
 import nl.info.client.zgw.model.createZaakobjectOpenbareRuimte
 import nl.info.client.zgw.model.createZaakobjectPand
@@ -52,6 +53,7 @@ import nl.info.client.zgw.zrc.model.generated.BetrokkeneTypeEnum
 import nl.info.client.zgw.zrc.model.generated.GeoJSONGeometry
 import nl.info.client.zgw.zrc.model.generated.Zaak
 import nl.info.client.zgw.ztc.ZtcClientService
+import nl.info.client.zgw.ztc.model.createStatusType
 import nl.info.client.zgw.ztc.model.createZaakType
 import nl.info.zac.admin.ZaaktypeCmmnConfigurationService
 import nl.info.zac.admin.ZaaktypeCmmnConfigurationService.Companion.INADMISSIBLE_TERMINATION_ID
@@ -1289,8 +1291,10 @@ class ZaakRestServiceTest : BehaviorSpec({
             every {
                 zaakService.readZaakAndZaakTypeByZaakUUID(zaakUUID)
             } returns Pair(zaak, zaakType)
-            every { policyService.readZaakRechten(zaak, zaakType, loggedInUser) } returns zaakRechten
-            every { restZaakConverter.toRestZaak(zaak, zaakType, zaakRechten, loggedInUser) } returns restZaak
+            every { policyService.readZaakRechten(zaak, zaakType, null, loggedInUser) } returns zaakRechten
+            every {
+                restZaakConverter.toRestZaak(zaak, zaakType, zaakRechten, loggedInUser, null, null)
+            } returns restZaak
             every { signaleringService.deleteSignaleringenForZaak(zaak) } returns 1
             every { loggedInUserInstance.get() } returns loggedInUser
 
@@ -1307,6 +1311,39 @@ class ZaakRestServiceTest : BehaviorSpec({
         }
     }
 
+    context("Reading a zaak by identificatie") {
+        given("A zaak with a status") {
+            val statusType = createStatusType()
+            val zaakStatus = createZaakStatus(statustypeURI = statusType.url)
+            val zaak = createZaak(status = zaakStatus.url)
+            val zaakType = createZaakType()
+            val zaakRechten = createZaakRechten(lezen = true)
+            val restZaak = createRestZaak(uuid = zaak.uuid, rechten = zaakRechten.toRestZaakRechten())
+            val loggedInUser = createLoggedInUser()
+            every { zaakService.readZaakAndZaakTypeByZaakID(zaak.identificatie) } returns Pair(zaak, zaakType)
+            every { zrcClientService.readStatus(zaak.status) } returns zaakStatus
+            every { ztcClientService.readStatustype(zaakStatus.statustype) } returns statusType
+            every { policyService.readZaakRechten(zaak, zaakType, statusType, loggedInUser) } returns zaakRechten
+            every {
+                restZaakConverter.toRestZaak(zaak, zaakType, zaakRechten, loggedInUser, zaakStatus, statusType)
+            } returns restZaak
+            every { signaleringService.deleteSignaleringenForZaak(zaak) } returns 0
+            every { loggedInUserInstance.get() } returns loggedInUser
+
+            `when`("the zaak is read") {
+                val returnedRestZaak = zaakRestService.readZaakById(zaak.identificatie)
+
+                then("the status is read only once and used for both the policy check and the conversion") {
+                    returnedRestZaak shouldBe restZaak
+                    verify(exactly = 1) {
+                        zrcClientService.readStatus(zaak.status)
+                        ztcClientService.readStatustype(zaakStatus.statustype)
+                    }
+                }
+            }
+        }
+    }
+
     context("Terminating a zaak") {
         given("A zaak and no managed zaakbeeindigreden") {
             val zaakType = createZaakType(omschrijving = ZAAK_TYPE_1_OMSCHRIJVING)
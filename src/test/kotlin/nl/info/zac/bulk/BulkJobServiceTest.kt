@@ -0,0 +1,275 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.bulk
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.kotest.core.spec.IsolationMode
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.checkUnnecessaryStub
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.slot
+import io.mockk.verify
+import jakarta.enterprise.concurrent.ManagedExecutorService
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService
+import jakarta.enterprise.inject.Instance
+import net.atos.zac.event.EventingService
+import net.atos.zac.websocket.event.ScreenEvent
+import net.atos.zac.websocket.event.ScreenEventType
+import nl.info.zac.authentication.LoggedInUser
+import nl.info.zac.authentication.createLoggedInUser
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJobItemOutcome
+import nl.info.zac.bulk.model.BulkJobItemStatus
+import nl.info.zac.bulk.model.BulkJobProgress
+import nl.info.zac.bulk.model.BulkJobStatus
+import nl.info.zac.bulk.model.BulkJobType
+import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.FutureTask
+
+class BulkJobServiceTest : BehaviorSpec({
+    isolationMode = IsolationMode.InstancePerTest
+
+    val bulkJobRepository = mockk<BulkJobRepository>()
+    val handlers = mockk<Instance<BulkJobHandler>>()
+    val eventingService = mockk<EventingService>()
+    val loggedInUserInstance = mockk<Instance<LoggedInUser>>()
+    val managedExecutorService = mockk<ManagedExecutorService>()
+    val managedScheduledExecutorService = mockk<ManagedScheduledExecutorService>()
+    val bulkJobService = BulkJobService(
+        bulkJobRepository = bulkJobRepository,
+        handlers = handlers,
+        eventingService = eventingService,
+        loggedInUserInstance = loggedInUserInstance,
+        pollIntervalMillis = 1000,
+        progressIntervalMillis = 1000,
+        parallelism = 2
+    ).apply {
+        this.managedExecutorService = managedExecutorService
+        this.managedScheduledExecutorService = managedScheduledExecutorService
+    }
+    val job = BulkJob().apply {
+        id = 1234L
+        type = BulkJobType.ZAKEN_VERDELEN
+        parameters = "{}"
+        screenEventResourceId = "fakeScreenEventResourceId"
+        total = 3
+    }
+
+    afterEach {
+        checkUnnecessaryStub()
+    }
+
+    given("A list of items with a duplicate item and a logged-in user") {
+        val loggedInUser = createLoggedInUser()
+        every { loggedInUserInstance.get() } returns loggedInUser
+        every {
+            bulkJobRepository.create(
+                BulkJobType.ZAKEN_VRIJGEVEN,
+                listOf("fakeItem1", "fakeItem2"),
+                """{"fakeParameter":"fakeValue"}""",
+                "fakeScreenEventResourceId",
+                loggedInUser.id
+            )
+        } returns job
+        every { managedScheduledExecutorService.execute(any()) } just runs
+
+        `when`("a job is submitted for the items") {
+            val submittedJob = bulkJobService.submit(
+                type = BulkJobType.ZAKEN_VRIJGEVEN,
+                itemIds = listOf("fakeItem1", "fakeItem2", "fakeItem1"),
+                parameters = mapOf("fakeParameter" to "fakeValue"),
+                screenEventResourceId = "fakeScreenEventResourceId"
+            )
+
+            then("the job is stored with every item once, and is started right away") {
+                submittedJob shouldBe job
+                verify(exactly = 1) {
+                    managedScheduledExecutorService.execute(any())
+                }
+            }
+        }
+    }
+
+    given("A claimed job of which one of the three items was processed before the job was interrupted") {
+        val handler = mockk<BulkJobHandler>()
+        val execution = mockk<BulkJobExecution>()
+        val progress = BulkJobProgress(total = 3, done = 2, skipped = 1, failed = 0)
+        val screenEvent = slot<ScreenEvent>()
+        every { bulkJobRepository.deleteCompletedBefore(any()) } returns 0
+        every { bulkJobRepository.claim(any()) } returnsMany listOf(job, null)
+        every { handlers.iterator() } returns mutableListOf(handler).iterator()
+        every { handler.type } returns BulkJobType.ZAKEN_VERDELEN
+        every { handler.batchSize } returns 1
+        every { handler.start(job) } returns execution
+        every { bulkJobRepository.listPendingItemIds(job.id) } returns listOf("fakeItem2", "fakeItem3")
+        every { bulkJobRepository.countItemsByStatus(job.id) } returns mapOf(BulkJobItemStatus.DONE to 1)
+        every {
+            managedExecutorService.submit(any<Callable<Any>>())
+        } answers { CompletableFuture.completedFuture(firstArg<Callable<Any>>().call()) }
+        every { execution.process(listOf("fakeItem2")) } returns mapOf("fakeItem2" to BulkJobItemOutcome.DONE)
+        every {
+            execution.process(listOf("fakeItem3"))
+        } returns mapOf("fakeItem3" to BulkJobItemOutcome.skipped("fakeReason"))
+        every { bulkJobRepository.recordOutcomes(job.id, any()) } just runs
+        every { execution.finish(progress) } just runs
+        every { bulkJobRepository.complete(job.id, BulkJobStatus.COMPLETED) } just runs
+        every { eventingService.send(capture(screenEvent)) } just runs
+
+        `when`("the jobs are run") {
+            val jobs = bulkJobService.run()
+
+            then("the pending items are processed, their outcomes are recorded and the job is completed") {
+                jobs shouldBe 1
+                verify(exactly = 1) {
+                    bulkJobRepository.recordOutcomes(job.id, mapOf("fakeItem2" to BulkJobItemOutcome.DONE))
+                    bulkJobRepository.recordOutcomes(
+                        job.id,
+                        mapOf("fakeItem3" to BulkJobItemOutcome.skipped("fakeReason"))
+                    )
+                    execution.finish(progress)
+                    bulkJobRepository.complete(job.id, BulkJobStatus.COMPLETED)
+                }
+                with(screenEvent.captured) {
+                    objectType shouldBe ScreenEventType.VOORTGANG
+                    objectId.resource shouldBe job.screenEventResourceId
+                    with(ObjectMapper().readTree(objectId.detail)) {
+                        get("total").asInt() shouldBe 3
+                        get("done").asInt() shouldBe 2
+                        get("skipped").asInt() shouldBe 1
+                        get("failed").asInt() shouldBe 0
+                    }
+                }
+            }
+        }
+    }
+
+    given("A claimed job of which the outcome of the first item cannot be recorded") {
+        val handler = mockk<BulkJobHandler>()
+        val execution = mockk<BulkJobExecution>()
+        val failure = IllegalStateException("fakeDatabaseError")
+        val progress = BulkJobProgress(total = 3, done = 2, skipped = 0, failed = 1)
+        every { bulkJobRepository.deleteCompletedBefore(any()) } returns 0
+        every { bulkJobRepository.claim(any()) } returnsMany listOf(job, null)
+        every { handlers.iterator() } returns mutableListOf(handler).iterator()
+        every { handler.type } returns BulkJobType.ZAKEN_VERDELEN
+        every { handler.batchSize } returns 1
+        every { handler.start(job) } returns execution
+        every {
+            bulkJobRepository.listPendingItemIds(job.id)
+        } returnsMany listOf(listOf("fakeItem1", "fakeItem2", "fakeItem3"), listOf("fakeItem1"))
+        every { bulkJobRepository.countItemsByStatus(job.id) } returns emptyMap()
+        // the workers are run one after the other, the first of which fails on the first batch
+        every {
+            managedExecutorService.submit(any<Callable<Any>>())
+        } answers { FutureTask(firstArg<Callable<Any>>()).apply { run() } }
+        listOf("fakeItem1", "fakeItem2", "fakeItem3").forEach { itemId ->
+            every { execution.process(listOf(itemId)) } returns mapOf(itemId to BulkJobItemOutcome.DONE)
+        }
+        every { bulkJobRepository.recordOutcomes(job.id, any()) } just runs
+        every {
+            bulkJobRepository.recordOutcomes(job.id, mapOf("fakeItem1" to BulkJobItemOutcome.DONE))
+        } throws failure
+        every { execution.finish(progress) } just runs
+        every { bulkJobRepository.complete(job.id, BulkJobStatus.COMPLETED) } just runs
+        every { eventingService.send(any<ScreenEvent>()) } just runs
+
+        `when`("the jobs are run") {
+            val jobs = bulkJobService.run()
+
+            then(
+                "the other worker processes the remaining items, the item of the failed worker is recorded as failed " +
+                    "and the job is completed"
+            ) {
+                jobs shouldBe 1
+                verify(exactly = 1) {
+                    bulkJobRepository.recordOutcomes(job.id, mapOf("fakeItem2" to BulkJobItemOutcome.DONE))
+                    bulkJobRepository.recordOutcomes(job.id, mapOf("fakeItem3" to BulkJobItemOutcome.DONE))
+                    bulkJobRepository.recordOutcomes(
+                        job.id,
+                        mapOf("fakeItem1" to BulkJobItemOutcome.failed(failure.toString()))
+                    )
+                    execution.finish(progress)
+                    bulkJobRepository.complete(job.id, BulkJobStatus.COMPLETED)
+                }
+            }
+        }
+    }
+
+    given("A claimed job of which the batch with all items fails because of one of the items") {
+        val handler = mockk<BulkJobHandler>()
+        val execution = mockk<BulkJobExecution>()
+        val itemIds = listOf("fakeItem1", "fakeItem2", "fakeItem3")
+        val failure = IllegalStateException("fakeException")
+        val progress = BulkJobProgress(total = 3, done = 2, skipped = 0, failed = 1)
+        every { bulkJobRepository.deleteCompletedBefore(any()) } returns 0
+        every { bulkJobRepository.claim(any()) } returnsMany listOf(job, null)
+        every { handlers.iterator() } returns mutableListOf(handler).iterator()
+        every { handler.type } returns BulkJobType.ZAKEN_VERDELEN
+        every { handler.batchSize } returns 3
+        every { handler.start(job) } returns execution
+        every { bulkJobRepository.listPendingItemIds(job.id) } returns itemIds
+        every { bulkJobRepository.countItemsByStatus(job.id) } returns emptyMap()
+        every {
+            managedExecutorService.submit(any<Callable<Any>>())
+        } answers { CompletableFuture.completedFuture(firstArg<Callable<Any>>().call()) }
+        every { execution.process(itemIds) } throws failure
+        every { execution.process(listOf("fakeItem1")) } returns mapOf("fakeItem1" to BulkJobItemOutcome.DONE)
+        every { execution.process(listOf("fakeItem2")) } throws failure
+        every { execution.process(listOf("fakeItem3")) } returns mapOf("fakeItem3" to BulkJobItemOutcome.DONE)
+        every { bulkJobRepository.recordOutcomes(job.id, any()) } just runs
+        every { execution.finish(progress) } just runs
+        every { bulkJobRepository.complete(job.id, BulkJobStatus.COMPLETED) } just runs
+        every { eventingService.send(any<ScreenEvent>()) } just runs
+
+        `when`("the jobs are run") {
+            bulkJobService.run()
+
+            then("the items of the batch are processed again one by one, and only the failing item fails") {
+                verify(exactly = 1) {
+                    bulkJobRepository.recordOutcomes(
+                        job.id,
+                        mapOf(
+                            "fakeItem1" to BulkJobItemOutcome.DONE,
+                            "fakeItem2" to BulkJobItemOutcome.failed(failure.toString()),
+                            "fakeItem3" to BulkJobItemOutcome.DONE
+                        )
+                    )
+                    execution.finish(progress)
+                    bulkJobRepository.complete(job.id, BulkJobStatus.COMPLETED)
+                }
+            }
+        }
+    }
+
+    given("A claimed job of a type for which there is no handler") {
+        every { bulkJobRepository.deleteCompletedBefore(any()) } returns 0
+        every { bulkJobRepository.claim(any()) } returnsMany listOf(job, null)
+        every { handlers.iterator() } returns mutableListOf<BulkJobHandler>().iterator()
+        every { bulkJobRepository.listPendingItemIds(job.id) } returns listOf("fakeItem1", "fakeItem2", "fakeItem3")
+        every { bulkJobRepository.recordOutcomes(job.id, any()) } just runs
+        every { bulkJobRepository.complete(job.id, BulkJobStatus.FAILED) } just runs
+        every { bulkJobRepository.countItemsByStatus(job.id) } returns mapOf(BulkJobItemStatus.FAILED to 3)
+        every { eventingService.send(any<ScreenEvent>()) } just runs
+
+        `when`("the jobs are run") {
+            bulkJobService.run()
+
+            then("all items of the job fail and the job is completed as failed") {
+                verify(exactly = 1) {
+                    bulkJobRepository.complete(job.id, BulkJobStatus.FAILED)
+                    eventingService.send(any<ScreenEvent>())
+                }
+                verify(exactly = 0) {
+                    managedExecutorService.submit(any<Callable<Any>>())
+                }
+            }
+        }
+    }
+})
@@ -0,0 +1,87 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.cache
+
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.string.shouldEndWith
+import io.mockk.checkUnnecessaryStub
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.slot
+import io.mockk.verify
+import jakarta.enterprise.event.Event
+import jakarta.persistence.EntityManager
+import jakarta.persistence.Query
+import net.atos.client.zgw.shared.cache.Caching
+import nl.info.zac.cache.CacheInvalidationBus.Companion.CHANNEL
+
+class CacheInvalidationBusTest : BehaviorSpec({
+    val entityManager = mockk<EntityManager>()
+    val cacheInvalidationEvent = mockk<Event<CacheInvalidation>>()
+    val cacheInvalidationBus = CacheInvalidationBus(entityManager, cacheInvalidationEvent, mockk())
+
+    afterEach {
+        checkUnnecessaryStub()
+    }
+
+    given("An invalidation of a cache entry") {
+        val query = mockk<Query>()
+        val payload = slot<String>()
+        every { entityManager.createNativeQuery(any<String>()) } returns query
+        every { query.setParameter("channel", CHANNEL) } returns query
+        every { query.setParameter("payload", capture(payload)) } returns query
+        every { query.singleResult } returns 1L
+
+        `when`("the invalidation is published") {
+            cacheInvalidationBus.publish(CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED, "fakeKey"))
+
+            then("it is sent to the invalidation channel, and ignored when it is received by the same node") {
+                payload.captured shouldEndWith "|${Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED}|fakeKey"
+                cacheInvalidationBus.onNotification(payload.captured)
+                verify(exactly = 0) { cacheInvalidationEvent.fire(any()) }
+            }
+        }
+    }
+
+    given("An invalidation of a cache entry published by another node") {
+        every { cacheInvalidationEvent.fire(any()) } just runs
+
+        `when`("the notification is received") {
+            cacheInvalidationBus.onNotification("fakeNodeId|${Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED}|fakeKey")
+
+            then("the invalidation is fired as an event") {
+                verify(exactly = 1) {
+                    cacheInvalidationEvent.fire(
+                        CacheInvalidation(Caching.ZAC_ZAAKTYPECMMNCONFIGURATION_MANAGED, "fakeKey")
+                    )
+                }
+            }
+        }
+    }
+
+    given("An invalidation of a whole cache published by another node") {
+        every { cacheInvalidationEvent.fire(any()) } just runs
+
+        `when`("the notification is received") {
+            cacheInvalidationBus.onNotification("fakeNodeId|${Caching.ZTC_ZAAKTYPE}")
+
+            then("the invalidation without a key is fired as an event") {
+                verify(exactly = 1) { cacheInvalidationEvent.fire(CacheInvalidation(Caching.ZTC_ZAAKTYPE)) }
+            }
+        }
+    }
+
+    given("A malformed notification") {
+        `when`("the notification is received") {
+            cacheInvalidationBus.onNotification("fakePayload")
+
+            then("it is ignored") {
+                verify(exactly = 0) { cacheInvalidationEvent.fire(any()) }
+            }
+        }
+    }
+})
@@ -0,0 +1,59 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.database
+
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
+import java.sql.SQLException
+
+class NotificationChannelListenerTest : BehaviorSpec({
+    given("A listener that cannot open a connection because of a runtime exception") {
+        var attempts = 0
+        lateinit var listener: NotificationChannelListener
+        listener = NotificationChannelListener(
+            connect = {
+                attempts++
+                if (attempts == 1) {
+                    throw IllegalStateException("fakeException")
+                }
+                listener.stop()
+                throw SQLException("fakeException")
+            },
+            channel = "fakeChannel",
+            onReconnect = {},
+            onNotification = {},
+            reconnectDelayMillis = 1
+        )
+
+        `when`("the listener is run") {
+            listener.run()
+
+            then("it keeps trying to connect until it is stopped") {
+                attempts shouldBe 2
+            }
+        }
+    }
+
+    given("A listener that is stopped") {
+        var connected = false
+        val listener = NotificationChannelListener(
+            connect = {
+                connected = true
+                throw SQLException("fakeException")
+            },
+            channel = "fakeChannel",
+            onReconnect = {},
+            onNotification = {}
+        ).apply { stop() }
+
+        `when`("the listener is run") {
+            listener.run()
+
+            then("it does not connect") {
+                connected shouldBe false
+            }
+        }
+    }
+})
@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2025 INFO.nl
+ * SPDX-FileCopyrightText: 2025 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.flowable.bpmn
@@ -13,8 +13,11 @@ import io.kotest.matchers.shouldNotBe
 import io.kotest.matchers.string.shouldContain
 import io.mockk.checkUnnecessaryStub
 import io.mockk.every
+import io.mockk.just
 import io.mockk.mockk
+import io.mockk.runs
 import io.mockk.verify
+import net.atos.zac.flowable.ZaakFlowableInstanceResolver
 import net.atos.zac.flowable.ZaakVariabelenService.Companion.VAR_ZAAKTYPE_OMSCHRIJVING
 import net.atos.zac.flowable.ZaakVariabelenService.Companion.VAR_ZAAKTYPE_UUID
 import net.atos.zac.flowable.ZaakVariabelenService.Companion.VAR_ZAAK_IDENTIFICATIE
@@ -51,13 +54,15 @@ class BpmnServiceTest : BehaviorSpec({
     val processEngine = mockk<ProcessEngine>()
     val zaaktypeBpmnConfigurationBeheerService = mockk<ZaaktypeBpmnConfigurationBeheerService>()
     val bpmnProcessDefinitionTaskFormService = mockk<BpmnProcessDefinitionTaskFormService>()
+    val zaakFlowableInstanceResolver = mockk<ZaakFlowableInstanceResolver>()
     val bpmnService = BpmnService(
         repositoryService,
         runtimeService,
         historyService,
         processEngine,
         zaaktypeBpmnConfigurationBeheerService,
-        bpmnProcessDefinitionTaskFormService
+        bpmnProcessDefinitionTaskFormService,
+        zaakFlowableInstanceResolver
     )
 
     afterEach {
@@ -214,13 +219,15 @@ class BpmnServiceTest : BehaviorSpec({
         every {
             runtimeService.deleteProcessInstance(processInstanceId, null)
         } returns Unit
+        every { zaakFlowableInstanceResolver.invalidate(zaaktypeUUID) } just runs
 
         `when`("Terminating the process instance by zaak UUID") {
             bpmnService.terminateCase(zaaktypeUUID)
 
-            then("the process instance is terminated") {
+            then("the process instance is terminated and no longer cached") {
                 verify(exactly = 1) {
                     runtimeService.deleteProcessInstance(processInstanceId, null)
+                    zaakFlowableInstanceResolver.invalidate(zaaktypeUUID)
                 }
             }
         }
@@ -233,6 +240,7 @@ class BpmnServiceTest : BehaviorSpec({
                 .processInstanceBusinessKey(zaaktypeUUID.toString())
                 .singleResult()
         } returns null
+        every { zaakFlowableInstanceResolver.invalidate(zaaktypeUUID) } just runs
 
         `when`("Terminating the process instance by zaak UUID") {
             bpmnService.terminateCase(zaaktypeUUID)
@@ -28,7 +28,7 @@ class PabcReadinessHealthCheckTest : BehaviorSpec({
             """
         ) {
             every {
-                pabcClientService.getApplicationRoles(listOf("FAKE_FUNCTIONAL_ROLE"))
+                pabcClientService.getApplicationRolesUncached(listOf("FAKE_FUNCTIONAL_ROLE"))
             } returns createApplicationRolesResponse()
 
             `when`("the health check is called") {
@@ -43,7 +43,7 @@ class PabcReadinessHealthCheckTest : BehaviorSpec({
 
         given("The PABC client service throws an exception") {
             val runtimeException = RuntimeException("fakeError")
-            every { pabcClientService.getApplicationRoles(listOf("FAKE_FUNCTIONAL_ROLE")) } throws runtimeException
+            every { pabcClientService.getApplicationRolesUncached(listOf("FAKE_FUNCTIONAL_ROLE")) } throws runtimeException
 
             `when`("the health check is called") {
                 val healthCheckResponse = pabcReadinessHealthCheck.call()
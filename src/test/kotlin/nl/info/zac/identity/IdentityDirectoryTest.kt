@@ -0,0 +1,91 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.identity
+
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.mockk.checkUnnecessaryStub
+import io.mockk.every
+import io.mockk.mockk
+import io.opentelemetry.api.OpenTelemetry
+import nl.info.test.org.keycloak.representations.idm.createGroupRepresentation
+import nl.info.test.org.keycloak.representations.idm.createUserRepresentation
+import org.keycloak.admin.client.resource.RealmResource
+
+class IdentityDirectoryTest : BehaviorSpec({
+    val realmResource = mockk<RealmResource>()
+    val meter = OpenTelemetry.noop().getMeter("test")
+
+    afterEach {
+        checkUnnecessaryStub()
+    }
+
+    given("More users in Keycloak than fit on a single page, and two groups") {
+        val identityDirectory = IdentityDirectory(realmResource, meter, 60, 600)
+        val firstPage = (1..500).map { createUserRepresentation(username = "fakeUsername$it") }
+        val secondPage = listOf(createUserRepresentation(username = "fakeUsername501"))
+        every { realmResource.users().list(0, 500) } returns firstPage
+        every { realmResource.users().list(500, 500) } returns secondPage
+        every {
+            realmResource.groups().groups("", 0, Integer.MAX_VALUE, false)
+        } returns listOf(
+            createGroupRepresentation(id = "fakeKeycloakGroupId1", name = "fakeGroupName1"),
+            createGroupRepresentation(id = "fakeKeycloakGroupId2", name = "fakeGroupName2")
+        )
+        every {
+            realmResource.groups().group("fakeKeycloakGroupId1").members(0, 500)
+        } returns listOf(firstPage[0], secondPage[0])
+        every { realmResource.groups().group("fakeKeycloakGroupId2").members(0, 500) } returns emptyList()
+
+        `when`("the identity directory is refreshed") {
+            val refreshed = identityDirectory.refresh()
+
+            then("the users, groups and memberships can be looked up") {
+                refreshed shouldBe true
+                identityDirectory.findUser("fakeUsername501")?.id shouldBe "fakeUsername501"
+                identityDirectory.findGroup("fakeGroupName2")?.name shouldBe "fakeGroupName2"
+                identityDirectory.findUsersInGroup("fakeGroupName1")?.map { it.id } shouldBe
+                    listOf("fakeUsername1", "fakeUsername501")
+                identityDirectory.findUsersInGroup("fakeGroupName2") shouldBe emptyList()
+                identityDirectory.findGroupNamesForUser("fakeUsername1") shouldBe setOf("fakeGroupName1")
+                identityDirectory.findGroupNamesForUser("fakeUsername2") shouldBe emptySet()
+            }
+
+            then("unknown users and groups are not found") {
+                identityDirectory.findUser("fakeUnknownUsername").shouldBeNull()
+                identityDirectory.findGroup("fakeUnknownGroupName").shouldBeNull()
+                identityDirectory.findGroupNamesForUser("fakeUnknownUsername").shouldBeNull()
+            }
+        }
+    }
+
+    given("An identity directory that has not been refreshed") {
+        val identityDirectory = IdentityDirectory(realmResource, meter, 60, 600)
+
+        `when`("a user is looked up") {
+            val user = identityDirectory.findUser("fakeUsername")
+
+            then("the user is not found") {
+                user.shouldBeNull()
+            }
+        }
+    }
+
+    given("An identity directory whose snapshot has expired") {
+        val identityDirectory = IdentityDirectory(realmResource, meter, 60, 0)
+        every { realmResource.users().list(0, 500) } returns listOf(createUserRepresentation(username = "fakeUsername"))
+        every { realmResource.groups().groups("", 0, Integer.MAX_VALUE, false) } returns emptyList()
+        identityDirectory.refresh()
+
+        `when`("a user is looked up") {
+            val user = identityDirectory.findUser("fakeUsername")
+
+            then("the user is not found, so that it is looked up in Keycloak instead") {
+                user.shouldBeNull()
+            }
+        }
+    }
+})
@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2025 INFO.nl
+ * SPDX-FileCopyrightText: 2025 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.identity
@@ -10,6 +10,7 @@ import io.kotest.matchers.shouldBe
 import io.mockk.checkUnnecessaryStub
 import io.mockk.every
 import io.mockk.mockk
+import io.opentelemetry.api.OpenTelemetry
 import nl.info.client.pabc.PabcClientService
 import nl.info.client.pabc.model.createPabcGroupRepresentation
 import nl.info.test.org.keycloak.representations.idm.createGroupRepresentation
@@ -23,9 +24,12 @@ import org.keycloak.admin.client.resource.RealmResource
 class IdentityServiceTest : BehaviorSpec({
     val realmResource = mockk<RealmResource>()
     val pabcClientService = mockk<PabcClientService>()
+    val meter = OpenTelemetry.noop().getMeter("test")
+    // the identity directory is never refreshed here, so all lookups are done in Keycloak
     val identityService = IdentityService(
         keycloakZacRealmResource = realmResource,
-        pabcClientService = pabcClientService
+        pabcClientService = pabcClientService,
+        identityDirectory = IdentityDirectory(realmResource, meter, 60, 600)
     )
 
     afterEach {
@@ -463,4 +467,59 @@ class IdentityServiceTest : BehaviorSpec({
             }
         }
     }
+
+    context("Looking up users and groups in a refreshed identity directory") {
+        given("A user who is a member of a group and a user who is not in the identity directory yet") {
+            val identityDirectory = IdentityDirectory(realmResource, meter, 60, 600)
+            val identityServiceWithDirectory = IdentityService(realmResource, pabcClientService, identityDirectory)
+            val memberRepresentation = createUserRepresentation(username = "fakeUsername1")
+            val newUserRepresentation = createUserRepresentation(username = "fakeUsername2")
+            every { realmResource.users().list(0, 500) } returns listOf(memberRepresentation)
+            every {
+                realmResource.groups().groups("", 0, Integer.MAX_VALUE, false)
+            } returns listOf(createGroupRepresentation(id = "fakeKeycloakGroupId", name = "fakeGroupName"))
+            every {
+                realmResource.groups().group("fakeKeycloakGroupId").members(0, 500)
+            } returns listOf(memberRepresentation)
+            identityDirectory.refresh()
+
+            `when`("the member and the group are read") {
+                val user = identityServiceWithDirectory.readUser("fakeUsername1")
+                val group = identityServiceWithDirectory.readGroup("fakeGroupName")
+                val usersInGroup = identityServiceWithDirectory.listUsersInGroup("fakeGroupName")
+
+                then("they are read from the identity directory") {
+                    user.id shouldBe "fakeUsername1"
+                    group.name shouldBe "fakeGroupName"
+                    usersInGroup.map { it.id } shouldBe listOf("fakeUsername1")
+                }
+            }
+
+            `when`("it is checked whether the member is in the group after being removed from it in Keycloak") {
+                every {
+                    realmResource.users().searchByUsername("fakeUsername1", true)
+                } returns listOf(memberRepresentation)
+                every { realmResource.users().get(memberRepresentation.id).groups() } returns emptyList()
+                val isUserInGroup = identityServiceWithDirectory.isUserInGroup("fakeUsername1", "fakeGroupName")
+
+                then("the membership is checked in Keycloak instead of in the identity directory") {
+                    isUserInGroup shouldBe false
+                }
+            }
+
+            `when`("it is checked whether the user who is not in the identity directory is in the group") {
+                every {
+                    realmResource.users().searchByUsername("fakeUsername2", true)
+                } returns listOf(newUserRepresentation)
+                every {
+                    realmResource.users().get(newUserRepresentation.id).groups()
+                } returns listOf(createGroupRepresentation(name = "fakeGroupName"))
+                val isUserInGroup = identityServiceWithDirectory.isUserInGroup("fakeUsername2", "fakeGroupName")
+
+                then("the membership is checked in Keycloak") {
+                    isUserInGroup shouldBe true
+                }
+            }
+        }
+    }
 })
@@ -11,14 +11,12 @@ import io.mockk.every
 import io.mockk.just
 import io.mockk.mockk
 import io.mockk.mockkObject
-import io.mockk.mockkStatic
 import io.mockk.runs
 import io.mockk.slot
 import io.mockk.verify
 import jakarta.enterprise.inject.Instance
-import jakarta.mail.Message
 import jakarta.mail.MessagingException
-import jakarta.mail.Transport
+import jakarta.mail.internet.MimeMessage
 import jakarta.mail.internet.MimeMultipart
 import nl.info.client.zgw.drc.DrcClientService
 import nl.info.client.zgw.model.createZaak
@@ -31,6 +29,7 @@ import nl.info.zac.authentication.LoggedInUser
 import nl.info.zac.authentication.createLoggedInUser
 import nl.info.zac.configuration.ConfigurationService
 import nl.info.zac.mail.model.Bronnen
+import nl.info.zac.mail.outbox.MailOutboxService
 import nl.info.zac.mailtemplates.MailTemplateHelper
 import nl.info.zac.mailtemplates.model.MailTemplateVariables
 import nl.info.zac.mailtemplates.model.createMailGegevens
@@ -46,6 +45,7 @@ class MailServiceTest : BehaviorSpec({
     val ztcClientService = mockk<ZtcClientService>()
     val loggedInUserName = "fakeLoggedInUserName"
     val loggedInUserInstance = mockk<Instance<LoggedInUser>>()
+    val mailOutboxService = mockk<MailOutboxService>()
 
     val mailService = MailService(
         configurationService,
@@ -53,7 +53,8 @@ class MailServiceTest : BehaviorSpec({
         ztcClientService,
         drcClientService,
         mailTemplateHelper,
-        loggedInUserInstance
+        loggedInUserInstance,
+        mailOutboxService
     )
 
     afterEach {
@@ -111,20 +112,19 @@ class MailServiceTest : BehaviorSpec({
         } returns zaakInformatieobject
         mockkObject(MailService.Companion)
         every { MailService.mailSession.properties } returns Properties()
-        mockkStatic(Transport::class)
-        val transportSendRequest = slot<Message>()
-        every { Transport.send(capture(transportSendRequest)) } just runs
+        val enqueuedMessage = slot<MimeMessage>()
+        every { mailOutboxService.enqueue(capture(enqueuedMessage)) } just runs
         every { configurationService.readBronOrganisatie() } returns "123443210"
 
         `when`("the send mail function is invoked") {
             val body = mailService.sendMail(mailGegevens, bronnen)
 
-            then("an e-mail is sent") {
+            then("an e-mail is added to the mail outbox") {
                 body shouldBe "fakeResolvedBody3"
                 verify(exactly = 1) {
-                    Transport.send(any())
+                    mailOutboxService.enqueue(enqueuedMessage.captured)
                 }
-                with(transportSendRequest.captured) {
+                with(enqueuedMessage.captured) {
                     subject shouldBe resolvedSubject
                     getHeader("Reply-To") shouldBe null
                     with((content as MimeMultipart).getBodyPart(0).dataHandler) {
@@ -148,7 +148,7 @@ class MailServiceTest : BehaviorSpec({
         }
     }
 
-    given("the mail transport cannot send the mail") {
+    given("the mail cannot be added to the mail outbox") {
         val zaak = createZaak()
         val mailGegevens = createMailGegevens(
             createDocumentFromMail = true
@@ -182,8 +182,7 @@ class MailServiceTest : BehaviorSpec({
         } returns "fakeResolvedBody3"
         mockkObject(MailService.Companion)
         every { MailService.mailSession.properties } returns Properties()
-        mockkStatic(Transport::class)
-        every { Transport.send(any<Message>()) } throws MessagingException()
+        every { mailOutboxService.enqueue(any()) } throws MessagingException()
 
         `when`("the send mail function is invoked") {
             val body = mailService.sendMail(mailGegevens, bronnen)
@@ -224,8 +223,7 @@ class MailServiceTest : BehaviorSpec({
 
         mockkObject(MailService.Companion)
         every { MailService.mailSession.properties } returns Properties()
-        mockkStatic(Transport::class)
-        every { Transport.send(any<Message>()) } just runs
+        every { mailOutboxService.enqueue(any()) } just runs
 
         `when`("the send mail function is invoked") {
             val body = mailService.sendMail(mailGegevens, bronnen)
@@ -260,22 +258,21 @@ class MailServiceTest : BehaviorSpec({
         mockkObject(MailService.Companion)
         every { MailService.mailSession.properties } returns Properties()
 
-        mockkStatic(Transport::class)
-        val transportSendRequest = slot<Message>()
-        every { Transport.send(capture(transportSendRequest)) } just runs
+        val enqueuedMessage = slot<MimeMessage>()
+        every { mailOutboxService.enqueue(capture(enqueuedMessage)) } just runs
 
         `when`("the send mail function is invoked") {
             mailService.sendMail(mailGegevens, bronnen)
 
             then(
                 """
-                    an e-mail is sent with the task data and no PDF document is created
+                    an e-mail with the task data is added to the mail outbox and no PDF document is created
                 """
             ) {
                 verify(exactly = 1) {
-                    Transport.send(any())
+                    mailOutboxService.enqueue(enqueuedMessage.captured)
                 }
-                with(transportSendRequest.captured) {
+                with(enqueuedMessage.captured) {
                     subject shouldBe resolvedSubject
                     with((content as MimeMultipart).getBodyPart(0).dataHandler) {
                         contentType shouldBe "text/html; charset=UTF-8"
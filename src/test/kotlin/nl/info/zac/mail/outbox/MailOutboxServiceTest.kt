@@ -0,0 +1,205 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.mail.outbox
+
+import io.kotest.core.spec.IsolationMode
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.date.shouldBeAfter
+import io.kotest.matchers.shouldBe
+import io.mockk.Runs
+import io.mockk.checkUnnecessaryStub
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.slot
+import io.mockk.verify
+import io.opentelemetry.api.OpenTelemetry
+import jakarta.mail.Message
+import jakarta.mail.MessagingException
+import jakarta.mail.SendFailedException
+import jakarta.mail.Session
+import jakarta.mail.Transport
+import jakarta.mail.internet.InternetAddress
+import jakarta.mail.internet.MimeMessage
+import nl.info.zac.mail.outbox.model.MailOutboxItem
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.time.ZonedDateTime
+import java.util.Optional
+import java.util.Properties
+
+private fun createMimeMessage(to: String = "fakeTo@example.com", subject: String = "fakeSubject") =
+    MimeMessage(Session.getInstance(Properties())).apply {
+        setFrom(InternetAddress("fakeFrom@example.com"))
+        setRecipients(Message.RecipientType.TO, to)
+        setSubject(subject)
+        setText("fakeBody")
+    }
+
+private fun createMailOutboxItem(id: Long, attempts: Int = 1) = MailOutboxItem().apply {
+    this.id = id
+    this.recipients = "fakeTo@example.com"
+    this.subject = "fakeSubject"
+    this.mimeMessage = ByteArrayOutputStream().use {
+        createMimeMessage().writeTo(it)
+        it.toByteArray()
+    }
+    this.enqueuedAt = ZonedDateTime.now()
+    this.nextAttemptAt = ZonedDateTime.now()
+    this.attempts = attempts
+}
+
+class MailOutboxServiceTest : BehaviorSpec({
+    isolationMode = IsolationMode.InstancePerTest
+
+    val mailOutboxRepository = mockk<MailOutboxRepository>()
+    val mailSession = mockk<Session>()
+    val transport = mockk<Transport>()
+    val mailOutboxService = MailOutboxService(
+        mailOutboxRepository = mailOutboxRepository,
+        meter = OpenTelemetry.noop().getMeter("test"),
+        pollIntervalMillis = 1000,
+        batchSize = 2,
+        maxAttempts = 3,
+        maxMailsPerSecond = 1000,
+        smtpUsername = Optional.empty()
+    ).apply {
+        this.mailSession = mailSession
+    }
+
+    fun mockDrainInfrastructure() {
+        every { mailSession.getTransport("smtp") } returns transport
+        every { transport.connect() } just Runs
+        every { mailOutboxRepository.complete(any()) } just Runs
+        every { mailOutboxRepository.countPending() } returns 0
+    }
+
+    afterEach {
+        checkUnnecessaryStub()
+    }
+
+    given("A mail") {
+        val message = createMimeMessage()
+        val mimeMessage = slot<ByteArray>()
+        every {
+            mailOutboxRepository.enqueue("fakeTo@example.com", "fakeSubject", capture(mimeMessage))
+        } just Runs
+
+        `when`("the mail is enqueued") {
+            mailOutboxService.enqueue(message)
+
+            then("the complete MIME message is added to the outbox and not delivered directly") {
+                with(MimeMessage(Session.getInstance(Properties()), ByteArrayInputStream(mimeMessage.captured))) {
+                    subject shouldBe "fakeSubject"
+                    content shouldBe "fakeBody"
+                }
+                verify(exactly = 0) { mailSession.getTransport(any<String>()) }
+            }
+        }
+    }
+
+    given("Three mails in the outbox") {
+        mockDrainInfrastructure()
+        every {
+            mailOutboxRepository.claim(2, any())
+        } returnsMany listOf(
+            listOf(createMailOutboxItem(1), createMailOutboxItem(2)),
+            listOf(createMailOutboxItem(3))
+        )
+        every { transport.isConnected } returns true
+        every { transport.sendMessage(any(), any()) } just Runs
+
+        `when`("the outbox is drained") {
+            val delivered = mailOutboxService.drain()
+
+            then("the mails are delivered in batches over a single SMTP connection") {
+                delivered shouldBe 3
+                verify(exactly = 1) {
+                    transport.connect()
+                }
+                verify(exactly = 3) {
+                    transport.sendMessage(any(), match { it.single().toString() == "fakeTo@example.com" })
+                }
+                verify(exactly = 1) {
+                    mailOutboxRepository.complete(listOf(1L, 2L))
+                    mailOutboxRepository.complete(listOf(3L))
+                }
+            }
+        }
+    }
+
+    given("A mail in the outbox and an SMTP relay that is unavailable") {
+        mockDrainInfrastructure()
+        every { mailOutboxRepository.claim(2, any()) } returns listOf(createMailOutboxItem(id = 1, attempts = 2))
+        every { transport.sendMessage(any(), any()) } throws MessagingException("fakeMessagingException")
+        every { transport.close() } just Runs
+        val retryAt = slot<ZonedDateTime>()
+        every { mailOutboxRepository.release(1, any(), capture(retryAt)) } just Runs
+
+        `when`("the outbox is drained") {
+            val delivered = mailOutboxService.drain()
+
+            then("the mail is retried later with a backoff and the connection is closed") {
+                delivered shouldBe 0
+                // the second attempt is retried after twice the base delay of 30 seconds
+                retryAt.captured shouldBeAfter ZonedDateTime.now().plusSeconds(55)
+                verify(exactly = 1) {
+                    transport.close()
+                    mailOutboxRepository.complete(emptyList())
+                }
+            }
+        }
+    }
+
+    given("A mail in the outbox of which the SMTP relay rejects all recipients") {
+        mockDrainInfrastructure()
+        every { mailOutboxRepository.claim(2, any()) } returns listOf(createMailOutboxItem(id = 1))
+        every {
+            transport.sendMessage(any(), any())
+        } throws SendFailedException("fakeRejected", null, null, null, arrayOf(InternetAddress("fakeTo@example.com")))
+        every { transport.close() } just Runs
+        every { mailOutboxRepository.release(1, any(), null) } just Runs
+
+        `when`("the outbox is drained") {
+            mailOutboxService.drain()
+
+            then("the mail is marked as failed and is not retried") {
+                verify(exactly = 1) {
+                    mailOutboxRepository.release(1, any(), null)
+                }
+            }
+        }
+    }
+
+    given("A mail in the outbox of which the SMTP relay accepts only some of the recipients") {
+        mockDrainInfrastructure()
+        every { mailOutboxRepository.claim(2, any()) } returns listOf(createMailOutboxItem(id = 1))
+        every {
+            transport.sendMessage(any(), any())
+        } throws SendFailedException(
+            "fakePartiallySent",
+            null,
+            arrayOf(InternetAddress("fakeTo@example.com")),
+            arrayOf(InternetAddress("fakeUnsent@example.com")),
+            arrayOf(InternetAddress("fakeInvalid@example.com"))
+        )
+
+        `when`("the outbox is drained") {
+            val delivered = mailOutboxService.drain()
+
+            then("the mail is marked as delivered and not sent again to the recipients that already received it") {
+                delivered shouldBe 1
+                verify(exactly = 1) {
+                    transport.sendMessage(any(), any())
+                    mailOutboxRepository.complete(listOf(1L))
+                }
+                verify(exactly = 0) {
+                    mailOutboxRepository.release(any(), any(), any())
+                    transport.close()
+                }
+            }
+        }
+    }
+})
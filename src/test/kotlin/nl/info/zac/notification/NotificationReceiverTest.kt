@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.notification
@@ -30,6 +30,7 @@ import nl.info.zac.document.inboxdocument.InboxDocumentService
 import nl.info.zac.document.inboxdocument.repository.model.InboxDocument
 import nl.info.zac.productaanvraag.ProductaanvraagService
 import nl.info.zac.search.IndexingService
+import nl.info.zac.search.queue.IndexingQueueService
 import nl.info.zac.signalering.SignaleringService
 import nl.info.zac.task.TaskService
 import java.net.URI
@@ -41,6 +42,7 @@ class NotificationReceiverTest : BehaviorSpec({
     val eventingService = mockk<EventingService>()
     val productaanvraagService = mockk<ProductaanvraagService>()
     val indexingService = mockk<IndexingService>()
+    val indexingQueueService = mockk<IndexingQueueService>()
     val inboxDocumentService = mockk<InboxDocumentService>()
     val signaleringService = mockk<SignaleringService>()
     val zaaktypeConfigurationService = mockk<ZaaktypeConfigurationService>()
@@ -54,6 +56,7 @@ class NotificationReceiverTest : BehaviorSpec({
         eventingService = eventingService,
         productaanvraagService = productaanvraagService,
         indexingService = indexingService,
+        indexingQueueService = indexingQueueService,
         inboxDocumentService = inboxDocumentService,
         zaaktypeConfigurationService = zaaktypeConfigurationService,
         cmmnService = cmmnService,
@@ -200,6 +203,7 @@ class NotificationReceiverTest : BehaviorSpec({
         every { httpSessionInstance.get() } returns httpSession
         every { cmmnService.deleteCase(zaakUUID) } returns Unit
         every { zaakVariabelenService.deleteAllCaseVariables(zaakUUID) } just Runs
+        every { indexingQueueService.dequeueZaak(zaakUUID) } just Runs
         every { indexingService.removeZaak(zaakUUID) } just Runs
         every { indexingService.removeTaak(taskId) } just Runs
         every { signaleringService.deleteSignaleringen(capture(signaleringZoekParametersSlot)) } returns 2
@@ -212,7 +216,7 @@ class NotificationReceiverTest : BehaviorSpec({
 
             then(
                 """
-                   the CMMN case is successfully deleted, the zaak is removed from the search index,
+                   the CMMN case is successfully deleted, the zaak is removed from the indexing queue and the search index,
                    any signaleringen related to the zaak are deleted and a screen event is sent
                """
             ) {
@@ -220,6 +224,7 @@ class NotificationReceiverTest : BehaviorSpec({
                 verify(exactly = 1) {
                     cmmnService.deleteCase(zaakUUID)
                     zaakVariabelenService.deleteAllCaseVariables(zaakUUID)
+                    indexingQueueService.dequeueZaak(zaakUUID)
                     indexingService.removeZaak(zaakUUID)
                     indexingService.removeTaak(taskId)
                     eventingService.send(any<ScreenEvent>())
@@ -249,6 +254,33 @@ class NotificationReceiverTest : BehaviorSpec({
             }
         }
     }
+    given("A 'zaak update' notification") {
+        val zaakUUID = UUID.randomUUID()
+        val notificatie = createNotificatie(
+            channel = Channel.ZAKEN,
+            resource = Resource.ZAAK,
+            resourceUrl = URI("https://example.com/fakezaak/$zaakUUID"),
+            action = Action.UPDATE
+        )
+        every { httpHeaders.getHeaderString(eq(HttpHeaders.AUTHORIZATION)) } returns SECRET
+        every { httpSessionInstance.get() } returns httpSession
+        every { indexingQueueService.enqueueZaak(zaakUUID, true) } just Runs
+        every { eventingService.send(any<ScreenEvent>()) } just Runs
+
+        `when`("the notification is handled") {
+            val response = notificationReceiver.notificatieReceive(httpHeaders, notificatie)
+
+            then("the zaak is queued for indexing including its tasks instead of being indexed directly") {
+                response.status shouldBe Response.Status.NO_CONTENT.statusCode
+                verify(exactly = 1) {
+                    indexingQueueService.enqueueZaak(zaakUUID, true)
+                }
+                verify(exactly = 0) {
+                    indexingService.addOrUpdateZaak(any(), any())
+                }
+            }
+        }
+    }
     given("A 'create informatieobject' notification") {
         val informatieobjectUUID = UUID.randomUUID()
         val informatieobjectURI = URI("https://example.com/fakezaak/$informatieobjectUUID")
@@ -260,18 +292,21 @@ class NotificationReceiverTest : BehaviorSpec({
         )
         every { httpHeaders.getHeaderString(eq(HttpHeaders.AUTHORIZATION)) } returns SECRET
         every { httpSessionInstance.get() } returns httpSession
-        every { indexingService.addOrUpdateInformatieobject(informatieobjectUUID) } just Runs
+        every { indexingQueueService.enqueueInformatieobject(informatieobjectUUID) } just Runs
         every { inboxDocumentService.create(informatieobjectUUID) } returns mockk<InboxDocument>()
 
         `when`("the notification is handled") {
             val response = notificationReceiver.notificatieReceive(httpHeaders, notificatie)
 
             then(
-                "an inbox document is created, the informatieobject is added to the search index, and no screen event is sent"
+                "an inbox document is created, the informatieobject is queued for indexing, and no screen event is sent"
             ) {
                 response.status shouldBe Response.Status.NO_CONTENT.statusCode
                 verify(exactly = 1) {
-                    indexingService.addOrUpdateInformatieobject(informatieobjectUUID)
+                    indexingQueueService.enqueueInformatieobject(informatieobjectUUID)
+                }
+                verify(exactly = 0) {
+                    indexingService.addOrUpdateInformatieobject(any())
                 }
                 verify(exactly = 0) {
                     // no screen event should be sent because it concerns a 'create' action
@@ -292,15 +327,19 @@ class NotificationReceiverTest : BehaviorSpec({
         )
         every { httpHeaders.getHeaderString(eq(HttpHeaders.AUTHORIZATION)) } returns SECRET
         every { httpSessionInstance.get() } returns httpSession
+        every { indexingQueueService.dequeueInformatieobject(informatieobjectUUID) } just Runs
         every { indexingService.removeInformatieobject(informatieobjectUUID) } just Runs
         every { eventingService.send(any<ScreenEvent>()) } just Runs
 
         `when`("the notification is handled") {
             val response = notificationReceiver.notificatieReceive(httpHeaders, notificatie)
 
-            then("the informatieobject is added to the search index and a screen event is sent") {
+            then(
+                "the informatieobject is removed from the indexing queue and the search index, and a screen event is sent"
+            ) {
                 response.status shouldBe Response.Status.NO_CONTENT.statusCode
                 verify(exactly = 1) {
+                    indexingQueueService.dequeueInformatieobject(informatieobjectUUID)
                     indexingService.removeInformatieobject(informatieobjectUUID)
                     eventingService.send(any<ScreenEvent>())
                 }
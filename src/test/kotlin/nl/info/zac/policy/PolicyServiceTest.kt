@@ -35,10 +35,12 @@ import nl.info.zac.authentication.createLoggedInUser
 import nl.info.zac.configuration.ConfigurationService
 import nl.info.zac.enkelvoudiginformatieobject.EnkelvoudigInformatieObjectLockService
 import nl.info.zac.enkelvoudiginformatieobject.model.createEnkelvoudigInformatieObjectLock
+import nl.info.zac.policy.input.BulkInput
 import nl.info.zac.policy.input.DocumentInput
 import nl.info.zac.policy.input.TaakInput
 import nl.info.zac.policy.input.UserInput
 import nl.info.zac.policy.input.ZaakInput
+import nl.info.zac.policy.output.ZaakRechtenBulk
 import nl.info.zac.policy.output.createDocumentRechten
 import nl.info.zac.policy.output.createOverigeRechten
 import nl.info.zac.policy.output.createTaakRechten
@@ -59,16 +61,19 @@ class PolicyServiceTest : BehaviorSpec({
     val ztcClientService = mockk<ZtcClientService>()
     val zrcClientService = mockk<ZrcClientService>()
     val loggedInUser = createLoggedInUser()
+    val policyDecisionCache = PolicyDecisionCache()
     val policyService = PolicyService(
         loggedInUserInstance,
         opaEvaluationClient,
         ztcClientService,
         enkelvoudigInformatieObjectLockService,
-        zrcClientService
+        zrcClientService,
+        policyDecisionCache
     )
 
     afterEach {
         checkUnnecessaryStub()
+        policyDecisionCache.clear()
     }
 
     context("Reading zaakrechten") {
@@ -280,6 +285,48 @@ class PolicyServiceTest : BehaviorSpec({
         }
     }
 
+    context("Reading zaakrechten for a page of search results") {
+        given("Three ZaakZoekObjects of which two have the same policy input") {
+            val zaakZoekObject1 = createZaakZoekObject(zaaktypeOmschrijving = "fakeZaaktype1")
+            val zaakZoekObject2 = createZaakZoekObject(zaaktypeOmschrijving = "fakeZaaktype2")
+            val zaakZoekObject3 = createZaakZoekObject(zaaktypeOmschrijving = "fakeZaaktype1")
+            val zaakRechten1 = createZaakRechten(lezen = true)
+            val zaakRechten2 = createZaakRechten(lezen = false)
+            val ruleQuerySlot = slot<RuleQuery<BulkInput<ZaakInput>>>()
+            every {
+                opaEvaluationClient.readZaakRechtenBulk(capture(ruleQuerySlot))
+            } returns RuleResponse(ZaakRechtenBulk(listOf(zaakRechten1, zaakRechten2)))
+            every { loggedInUserInstance.get() } returns loggedInUser
+
+            `when`("policy rights are requested") {
+                val zaakRechten = policyService.readZaakRechtenForZaakZoekObjecten(
+                    listOf(zaakZoekObject1, zaakZoekObject2, zaakZoekObject3)
+                )
+
+                then("OPA is called once with the distinct inputs and the rechten are returned per zaak") {
+                    zaakRechten shouldContainExactly listOf(zaakRechten1, zaakRechten2, zaakRechten1)
+                    verify(exactly = 1) {
+                        opaEvaluationClient.readZaakRechtenBulk(any())
+                    }
+                    ruleQuerySlot.captured.input.inputs.map { it.zaakData.zaaktype } shouldContainExactly listOf(
+                        "fakeZaaktype1",
+                        "fakeZaaktype2"
+                    )
+                }
+            }
+        }
+
+        given("No ZaakZoekObjects") {
+            `when`("policy rights are requested") {
+                val zaakRechten = policyService.readZaakRechtenForZaakZoekObjecten(emptyList())
+
+                then("OPA is not called") {
+                    zaakRechten shouldBe emptyList()
+                }
+            }
+        }
+    }
+
     context("Reading taakrechten") {
         given(
             """
@@ -563,4 +610,78 @@ class PolicyServiceTest : BehaviorSpec({
             }
         }
     }
+
+    context("Caching policy decisions") {
+        given("A logged-in user whose werklijst rechten have already been read") {
+            val expectedWerklijstRechten = createWerklijstRechten()
+            every {
+                opaEvaluationClient.readWerklijstRechten(any<RuleQuery<UserInput>>())
+            } returns RuleResponse(expectedWerklijstRechten)
+            every { loggedInUserInstance.get() } returns createLoggedInUser(
+                applicationRolesPerZaaktype = mapOf("fakeZaaktype" to setOf("fakeApplicationRole1"))
+            )
+            policyService.readWerklijstRechten()
+
+            `when`("the werklijst rechten are read again") {
+                val werklijstRechten = policyService.readWerklijstRechten()
+
+                then("the cached decision is returned without calling OPA again") {
+                    werklijstRechten shouldBe expectedWerklijstRechten
+                    verify(exactly = 1) {
+                        opaEvaluationClient.readWerklijstRechten(any<RuleQuery<UserInput>>())
+                    }
+                }
+            }
+        }
+
+        given("A logged-in user whose role mappings changed after the werklijst rechten were read") {
+            every {
+                opaEvaluationClient.readWerklijstRechten(any<RuleQuery<UserInput>>())
+            } returns RuleResponse(createWerklijstRechten())
+            every { loggedInUserInstance.get() } returns createLoggedInUser(
+                applicationRolesPerZaaktype = mapOf("fakeZaaktype" to setOf("fakeApplicationRole1"))
+            )
+            policyService.readWerklijstRechten()
+            every { loggedInUserInstance.get() } returns createLoggedInUser(
+                applicationRolesPerZaaktype = mapOf("fakeZaaktype" to setOf("fakeApplicationRole2"))
+            )
+
+            `when`("the werklijst rechten are read again") {
+                policyService.readWerklijstRechten()
+
+                then("OPA is called again") {
+                    verify(exactly = 2) {
+                        opaEvaluationClient.readWerklijstRechten(any<RuleQuery<UserInput>>())
+                    }
+                }
+            }
+        }
+
+        given("A page of ZaakZoekObjects of which one zaak has already been evaluated") {
+            val zaakZoekObject1 = createZaakZoekObject(zaaktypeOmschrijving = "fakeZaaktype1")
+            val zaakZoekObject2 = createZaakZoekObject(zaaktypeOmschrijving = "fakeZaaktype2")
+            val zaakRechten1 = createZaakRechten(lezen = true)
+            val zaakRechten2 = createZaakRechten(lezen = false)
+            val ruleQuerySlot = slot<RuleQuery<BulkInput<ZaakInput>>>()
+            every { loggedInUserInstance.get() } returns loggedInUser
+            every {
+                opaEvaluationClient.readZaakRechten(any<RuleQuery<ZaakInput>>())
+            } returns RuleResponse(zaakRechten1)
+            every {
+                opaEvaluationClient.readZaakRechtenBulk(capture(ruleQuerySlot))
+            } returns RuleResponse(ZaakRechtenBulk(listOf(zaakRechten2)))
+            policyService.readZaakRechtenForZaakZoekObject(zaakZoekObject1)
+
+            `when`("the zaak rechten for the page are requested") {
+                val zaakRechten = policyService.readZaakRechtenForZaakZoekObjecten(listOf(zaakZoekObject1, zaakZoekObject2))
+
+                then("only the zaak that has not been evaluated yet is sent to OPA") {
+                    zaakRechten shouldContainExactly listOf(zaakRechten1, zaakRechten2)
+                    ruleQuerySlot.captured.input.inputs.map { it.zaakData.zaaktype } shouldContainExactly listOf(
+                        "fakeZaaktype2"
+                    )
+                }
+            }
+        }
+    }
 })
@@ -1,50 +1,40 @@
 /*
- * SPDX-FileCopyrightText: 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 
 package nl.info.zac.search
 
 import io.kotest.core.spec.style.BehaviorSpec
+import io.mockk.Runs
 import io.mockk.checkUnnecessaryStub
-import io.mockk.clearMocks
 import io.mockk.every
+import io.mockk.just
 import io.mockk.mockk
 import io.mockk.mockkConstructor
 import io.mockk.mockkStatic
 import io.mockk.verify
 import jakarta.enterprise.inject.Instance
-import net.atos.client.zgw.shared.model.Results
-import nl.info.client.zgw.zrc.model.ZaakListParameters
 import net.atos.zac.flowable.task.FlowableTaskService
-import nl.info.client.zgw.drc.DrcClientService
 import nl.info.client.zgw.model.createZaak
 import nl.info.client.zgw.zrc.ZrcClientService
-import nl.info.client.zgw.zrc.model.ZaakUuid
 import nl.info.client.zgw.ztc.model.createZaakType
 import nl.info.zac.search.converter.AbstractZoekObjectConverter
 import nl.info.zac.search.converter.ZaakZoekObjectConverter
 import nl.info.zac.search.model.createZaakZoekObject
 import nl.info.zac.search.model.zoekobject.ZoekObject
 import nl.info.zac.search.model.zoekobject.ZoekObjectType
-import org.apache.solr.client.solrj.SolrServerException
+import nl.info.zac.search.reindex.ShadowCoreChangeRepository
 import org.apache.solr.client.solrj.impl.Http2SolrClient
-import org.apache.solr.client.solrj.response.QueryResponse
 import org.apache.solr.client.solrj.response.UpdateResponse
-import org.apache.solr.common.SolrDocument
-import org.apache.solr.common.SolrDocumentList
-import org.apache.solr.common.params.CursorMarkParams
 import org.eclipse.microprofile.config.ConfigProvider
-import java.io.IOException
 import java.net.URI
-import java.util.UUID
 
 private data class TestContext(
     val solrClient: Http2SolrClient,
     val zaakZoekObjectConverter: ZaakZoekObjectConverter,
     val converterInstances: Instance<AbstractZoekObjectConverter<out ZoekObject>>,
     val converterInstancesIterator: MutableIterator<AbstractZoekObjectConverter<out ZoekObject>>,
-    val drcClientService: DrcClientService,
     val flowableTaskService: FlowableTaskService,
     val zrcClientService: ZrcClientService,
     val indexingService: IndexingService
@@ -64,15 +54,15 @@ private fun setupContext(): TestContext {
     val zaakZoekObjectConverter = mockk<ZaakZoekObjectConverter>()
     val converterInstances = mockk<Instance<AbstractZoekObjectConverter<out ZoekObject>>>()
     val converterInstancesIterator = mockk<MutableIterator<AbstractZoekObjectConverter<out ZoekObject>>>()
-    val drcClientService = mockk<DrcClientService>()
     val flowableTaskService = mockk<FlowableTaskService>()
     val zrcClientService = mockk<ZrcClientService>()
+    val shadowCoreChangeRepository = mockk<ShadowCoreChangeRepository>()
 
     val indexingService = IndexingService(
         converterInstances,
         zrcClientService,
-        drcClientService,
-        flowableTaskService
+        flowableTaskService,
+        shadowCoreChangeRepository
     )
 
     return TestContext(
@@ -80,7 +70,6 @@ private fun setupContext(): TestContext {
         zaakZoekObjectConverter,
         converterInstances,
         converterInstancesIterator,
-        drcClientService,
         flowableTaskService,
         zrcClientService,
         indexingService
@@ -109,8 +98,9 @@ class IndexingServiceTest : BehaviorSpec({
         every { ctx.converterInstancesIterator.hasNext() } returns true andThen true andThen false
         every { ctx.converterInstancesIterator.next() } returns ctx.zaakZoekObjectConverter andThen ctx.zaakZoekObjectConverter
         zaken.forEachIndexed { index, zaak ->
-            every { ctx.zaakZoekObjectConverter.convert(zaak.uuid.toString()) } returns zaakZoekObjecten[index]
+            every { ctx.zaakZoekObjectConverter.convert(zaak.uuid.toString(), any()) } returns zaakZoekObjecten[index]
         }
+        every { ctx.zaakZoekObjectConverter.prepare(zaken.map { it.uuid.toString() }, any()) } just Runs
         every { ctx.solrClient.addBeans(zaakZoekObjecten) } returns UpdateResponse()
 
         `when`(
@@ -130,161 +120,4 @@ class IndexingServiceTest : BehaviorSpec({
             }
         }
     }
-
-    given("Solr indexing exists") {
-        val ctx = setupContext()
-        val queryResponse = mockk<QueryResponse>()
-
-        val documentList = SolrDocumentList().apply {
-            addAll(
-                listOf(
-                    SolrDocument(mapOf("id" to 1)),
-                    SolrDocument(mapOf("id" to 2))
-                )
-            )
-        }
-
-        val zakenUuid = listOf(
-            ZaakUuid(UUID.randomUUID()),
-            ZaakUuid(UUID.randomUUID())
-        )
-        val zaakZoekObjecten = listOf(
-            createZaakZoekObject(),
-            createZaakZoekObject()
-        )
-
-        beforeContainer {
-            clearMocks(ctx.solrClient)
-
-            every { queryResponse.results } returns documentList
-            every { queryResponse.nextCursorMark } returns CursorMarkParams.CURSOR_MARK_START
-
-            every { ctx.solrClient.query(any()) } returns queryResponse
-            every { ctx.solrClient.deleteById(listOf("1", "2")) } returns UpdateResponse()
-
-            every { ctx.zrcClientService.listZakenUuids(any<ZaakListParameters>()) } returnsMany listOf(
-                Results(zakenUuid, 2),
-                Results(zakenUuid, 2),
-                Results(emptyList(), 0)
-            )
-
-            every { ctx.zaakZoekObjectConverter.supports(ZoekObjectType.ZAAK) } returns true
-            every { ctx.converterInstances.iterator() } returns ctx.converterInstancesIterator
-            every { ctx.converterInstancesIterator.hasNext() } returns true andThen true andThen false
-            every { ctx.converterInstancesIterator.next() } returns ctx.zaakZoekObjectConverter andThen ctx.zaakZoekObjectConverter
-            zakenUuid.forEachIndexed { index, zaak ->
-                every { ctx.zaakZoekObjectConverter.convert(zaak.uuid.toString()) } returns zaakZoekObjecten[index]
-            }
-        }
-
-        `when`("reindexing of zaken is called") {
-            every { ctx.solrClient.addBeans(zaakZoekObjecten) } returns UpdateResponse()
-
-            ctx.indexingService.reindex(ZoekObjectType.ZAAK)
-
-            then("it finishes successfully") {
-                verify(exactly = 1) {
-                    ctx.solrClient.deleteById(any<List<String>>())
-                    ctx.solrClient.addBeans(any<Collection<*>>())
-                }
-            }
-        }
-
-        `when`("adding beans in Solr errors") {
-            val solrException = SolrServerException("Solr exception")
-            every { ctx.solrClient.addBeans(any<Collection<*>>()) } throws solrException
-
-            ctx.indexingService.reindex(ZoekObjectType.ZAAK)
-
-            then("ignores errors") {
-                verify(exactly = 1) {
-                    ctx.solrClient.deleteById(any<List<String>>())
-                    ctx.solrClient.addBeans(any<Collection<*>>())
-                }
-            }
-        }
-    }
-
-    given("Solr indexing exists and zaak count cannot be obtained") {
-        val ctx = setupContext()
-        val queryResponse = mockk<QueryResponse>()
-        val documentList = SolrDocumentList().apply {
-            addAll(
-                listOf(
-                    SolrDocument(mapOf("id" to 1)),
-                    SolrDocument(mapOf("id" to 2))
-                )
-            )
-        }
-        every { queryResponse.results } returns documentList
-        every { queryResponse.nextCursorMark } returns CursorMarkParams.CURSOR_MARK_START
-        every { ctx.solrClient.query(any()) } returns queryResponse
-        every { ctx.solrClient.deleteById(listOf("1", "2")) } returns UpdateResponse()
-
-        val ioException = IOException("IO exception")
-        every { ctx.zrcClientService.listZakenUuids(any<ZaakListParameters>()) } throws ioException
-
-        `when`("reading zaak count throws an error") {
-            ctx.indexingService.reindex(ZoekObjectType.ZAAK)
-
-            then("aborts and does not try to list zaken") {
-                verify(exactly = 1) {
-                    ctx.zrcClientService.listZakenUuids(any<ZaakListParameters>())
-                }
-            }
-        }
-    }
-
-    given("Solr indexing exists and zaak count is available") {
-        val ctx = setupContext()
-        val queryResponse = mockk<QueryResponse>()
-        val documentList = SolrDocumentList().apply {
-            addAll(
-                listOf(
-                    SolrDocument(mapOf("id" to 1)),
-                    SolrDocument(mapOf("id" to 2))
-                )
-            )
-        }
-        val zakenUuid = listOf(
-            ZaakUuid(UUID.randomUUID()),
-            ZaakUuid(UUID.randomUUID())
-        )
-        val zaakZoekObjecten = listOf(
-            createZaakZoekObject(),
-            createZaakZoekObject()
-        )
-
-        every { queryResponse.results } returns documentList
-        every { queryResponse.nextCursorMark } returns CursorMarkParams.CURSOR_MARK_START
-        every { ctx.solrClient.query(any()) } returns queryResponse
-        every { ctx.solrClient.deleteById(listOf("1", "2")) } returns UpdateResponse()
-        every { ctx.solrClient.addBeans(zaakZoekObjecten) } returns UpdateResponse()
-
-        every {
-            ctx.zrcClientService.listZakenUuids(match<ZaakListParameters> { it.page == 1 })
-        } returns Results(zakenUuid, 102)
-
-        every { ctx.zaakZoekObjectConverter.supports(ZoekObjectType.ZAAK) } returns true
-        every { ctx.converterInstances.iterator() } returns ctx.converterInstancesIterator
-        every { ctx.converterInstancesIterator.hasNext() } returns true andThen true andThen false
-        every { ctx.converterInstancesIterator.next() } returns ctx.zaakZoekObjectConverter andThen ctx.zaakZoekObjectConverter
-        zakenUuid.forEachIndexed { index, zaak ->
-            every { ctx.zaakZoekObjectConverter.convert(zaak.uuid.toString()) } returns zaakZoekObjecten[index]
-        }
-
-        `when`("reading zaak list throws an `IOException`") {
-            every {
-                ctx.zrcClientService.listZakenUuids(match<ZaakListParameters> { it.page == 2 })
-            } throws IOException("exception")
-
-            ctx.indexingService.reindex(ZoekObjectType.ZAAK)
-
-            then("continues without exception") {
-                verify(exactly = 3) {
-                    ctx.zrcClientService.listZakenUuids(any<ZaakListParameters>())
-                }
-            }
-        }
-    }
 })
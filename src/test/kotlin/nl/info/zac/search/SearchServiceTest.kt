@@ -35,6 +35,7 @@ import org.apache.solr.client.solrj.impl.Http2SolrClient
 import org.apache.solr.client.solrj.response.QueryResponse
 import org.apache.solr.common.SolrDocument
 import org.apache.solr.common.SolrDocumentList
+import org.apache.solr.common.params.CursorMarkParams
 import org.apache.solr.common.params.SolrParams
 import org.eclipse.microprofile.config.ConfigProvider
 import java.time.LocalDate
@@ -479,4 +480,61 @@ class SearchServiceTest : BehaviorSpec({
             }
         }
     }
+
+    given("Three objects of type ZAAK in the search index and a page size of two") {
+        val solrDocuments = List(3) { mockk<SolrDocument>() }
+        val zaakZoekObjecten = List(3) { mockk<ZaakZoekObject>() }
+        val documentObjectBinder = mockk<DocumentObjectBinder>()
+        val queryResponses = listOf(
+            mockk<QueryResponse> {
+                every { results } returns SolrDocumentList().apply { addAll(solrDocuments.take(2)) }
+                every { nextCursorMark } returns "fakeCursorMark1"
+            },
+            mockk<QueryResponse> {
+                every { results } returns SolrDocumentList().apply { add(solrDocuments[2]) }
+                every { nextCursorMark } returns "fakeCursorMark2"
+            },
+            mockk<QueryResponse> {
+                every { results } returns SolrDocumentList()
+                every { nextCursorMark } returns "fakeCursorMark2"
+            }
+        )
+        val requestedCursorMarks = mutableListOf<String>()
+        val requestedParams = mutableListOf<Map<String, String?>>()
+
+        every { loggedInUserInstance.get() } returns createLoggedInUser()
+        every { solrClient.query(any<SolrParams>()) } answers {
+            with(firstArg<SolrParams>()) {
+                requestedCursorMarks.add(get(CursorMarkParams.CURSOR_MARK_PARAM))
+                requestedParams.add(mapOf("facet" to get("facet"), "rows" to get("rows"), "start" to get("start")))
+            }
+            queryResponses[requestedCursorMarks.size - 1]
+        }
+        solrDocuments.forEachIndexed { index, solrDocument ->
+            every { solrDocument["type"] } returns "ZAAK"
+            every { documentObjectBinder.getBean(ZaakZoekObject::class.java, solrDocument) } returns zaakZoekObjecten[index]
+        }
+        every { solrClient.binder } returns documentObjectBinder
+
+        `when`("searching all objects of type ZAAK") {
+            val pages = zoekService.searchAll(
+                createZoekParameters(zoekObjectType = ZoekObjectType.ZAAK).apply {
+                    rows = 10
+                    start = 20
+                },
+                pageSize = 2
+            ).toList()
+
+            then("the objects are returned page by page, following the Solr cursor until it no longer changes") {
+                pages shouldBe listOf(zaakZoekObjecten.take(2), listOf(zaakZoekObjecten[2]))
+                requestedCursorMarks shouldBe listOf(CursorMarkParams.CURSOR_MARK_START, "fakeCursorMark1", "fakeCursorMark2")
+            }
+
+            And("the paging parameters are ignored and no facets are calculated") {
+                requestedParams.forEach {
+                    it shouldBe mapOf("facet" to null, "rows" to "2", "start" to null)
+                }
+            }
+        }
+    }
 })
@@ -0,0 +1,79 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.converter
+
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.IsolationMode
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class ConversionBatchTest : BehaviorSpec({
+    isolationMode = IsolationMode.InstancePerTest
+
+    given("A batch in which a value is being loaded slowly") {
+        val batch = ConversionBatch()
+        val slowLoaderStarted = CountDownLatch(1)
+        val slowLoaderReleased = CountDownLatch(1)
+        val slowLookup = CompletableFuture.supplyAsync {
+            batch.getOrLoad(String::class.java, "slow") {
+                slowLoaderStarted.countDown()
+                slowLoaderReleased.await(5, TimeUnit.SECONDS)
+                "slowValue"
+            }
+        }
+        slowLoaderStarted.await(5, TimeUnit.SECONDS)
+
+        `when`("a value with another key is looked up") {
+            val lookup = batch.getOrLoad(String::class.java, "fast") { "fastValue" }
+            val slowLookupDone = slowLookup.isDone
+            slowLoaderReleased.countDown()
+
+            then("it is loaded without waiting for the slow loader") {
+                lookup shouldBe ("fastValue" to false)
+                slowLookupDone shouldBe false
+                slowLookup.get(5, TimeUnit.SECONDS) shouldBe ("slowValue" to false)
+            }
+        }
+
+        `when`("the same key is looked up while it is being loaded") {
+            val sameLookup = CompletableFuture.supplyAsync {
+                batch.getOrLoad(String::class.java, "slow") { "otherValue" }
+            }
+            slowLoaderReleased.countDown()
+
+            then("the lookup waits for the value being loaded and counts as shared") {
+                slowLookup.get(5, TimeUnit.SECONDS) shouldBe ("slowValue" to false)
+                sameLookup.get(5, TimeUnit.SECONDS) shouldBe ("slowValue" to true)
+            }
+        }
+    }
+
+    given("A batch in which a value cannot be loaded") {
+        val batch = ConversionBatch()
+        val loads = AtomicInteger()
+
+        `when`("the value is looked up twice") {
+            shouldThrow<IllegalStateException> {
+                batch.getOrLoad(String::class.java, "key") {
+                    loads.incrementAndGet()
+                    throw IllegalStateException("fakeException")
+                }
+            }
+            val lookup = batch.getOrLoad(String::class.java, "key") {
+                loads.incrementAndGet()
+                "value"
+            }
+
+            then("the failure is not kept and the value is loaded again") {
+                lookup shouldBe ("value" to false)
+                loads.get() shouldBe 2
+            }
+        }
+    }
+})
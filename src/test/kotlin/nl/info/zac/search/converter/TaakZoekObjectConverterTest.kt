@@ -12,7 +12,9 @@ import io.mockk.every
 import io.mockk.mockk
 import io.mockk.mockkStatic
 import io.mockk.unmockkStatic
+import io.mockk.verify
 import net.atos.zac.flowable.task.FlowableTaskService
+import net.atos.zac.flowable.task.FlowableTaskService.ZAAK_VARIABLES
 import net.atos.zac.flowable.task.TaakVariabelenService
 import net.atos.zac.flowable.util.TaskUtil
 import nl.info.client.zgw.model.createZaak
@@ -173,5 +175,49 @@ class TaakZoekObjectConverterTest : BehaviorSpec({
                 }
             }
         }
+
+        given("a batch of two tasks of the same zaak") {
+            val taskIds = listOf("fakeTaskId1", "fakeTaskId2")
+            val tasks = taskIds.map { taskId ->
+                mockk<TaskInfo>().also {
+                    every { it.id } returns taskId
+                    every { it.name } returns "fakeTaskName"
+                    every { it.description } returns null
+                    every { it.createTime } returns null
+                    every { it.claimTime } returns null
+                    every { it.dueDate } returns null
+                    every { it.assignee } returns null
+                    every { it.identityLinks } returns emptyList()
+                }
+            }
+            val zaak = createZaak()
+            val zaakType = createZaakType(uri = zaak.zaaktype)
+            every { flowableTaskService.listTasks(taskIds, ZAAK_VARIABLES, true) } returns tasks
+            tasks.forEach { taskInfo ->
+                every { TaakVariabelenService.readZaakUUID(taskInfo) } returns zaakUUID
+                every { TaakVariabelenService.readZaakIdentificatie(taskInfo) } returns "fakeZaakIdentificatie"
+                every { TaakVariabelenService.readZaaktypeUUID(taskInfo) } returns zaaktypeUUID
+                every { TaakVariabelenService.readTaskData(taskInfo) } returns mapOf()
+                every { TaakVariabelenService.readTaskInformation(taskInfo) } returns mapOf()
+                every { TaskUtil.getTaakStatus(taskInfo) } returns TaakStatus.NIET_TOEGEKEND
+            }
+            every { zrcClientService.readZaak(zaakUUID) } returns zaak
+            every { ztcClientService.readZaaktype(zaaktypeUUID) } returns zaakType
+
+            `when`("the tasks are converted as one batch") {
+                val batch = ConversionBatch()
+                taakZoekObjectConverter.prepare(taskIds, batch)
+                val taakZoekObjecten = taskIds.map { taakZoekObjectConverter.convert(it, batch) }
+
+                then("the tasks are read at once") {
+                    taakZoekObjecten.map { it.getObjectId() } shouldBe taskIds
+                    taskIds.forEach { taskId ->
+                        verify(exactly = 0) {
+                            flowableTaskService.readTask(taskId)
+                        }
+                    }
+                }
+            }
+        }
     }
 })
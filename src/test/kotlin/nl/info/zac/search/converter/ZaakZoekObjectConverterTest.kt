@@ -1,5 +1,5 @@
 /*
- * SPDX-FileCopyrightText: 2024 INFO.nl
+ * SPDX-FileCopyrightText: 2024 - 2026 INFO.nl
  * SPDX-License-Identifier: EUPL-1.2+
  */
 package nl.info.zac.search.converter
@@ -11,9 +11,17 @@ import io.kotest.matchers.maps.shouldContain
 import io.kotest.matchers.shouldBe
 import io.mockk.checkUnnecessaryStub
 import io.mockk.every
+import io.mockk.just
 import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import io.mockk.verifyOrder
+import io.opentelemetry.api.OpenTelemetry
+import io.opentelemetry.api.metrics.LongHistogram
+import io.opentelemetry.api.metrics.Meter
 import nl.info.client.zgw.zrc.model.zaakobjecten.Zaakobject
 import net.atos.zac.flowable.task.FlowableTaskService
+import nl.info.client.zgw.model.createMedewerkerIdentificatie
 import nl.info.client.zgw.model.createNatuurlijkPersoonIdentificatie
 import nl.info.client.zgw.model.createResultaat
 import nl.info.client.zgw.model.createRolMedewerker
@@ -51,7 +59,8 @@ class ZaakZoekObjectConverterTest : BehaviorSpec({
         ztcClientService,
         zgwApiService,
         identityService,
-        flowableTaskService
+        flowableTaskService,
+        OpenTelemetry.noop().getMeter("test")
     )
 
     afterEach {
@@ -98,9 +107,9 @@ class ZaakZoekObjectConverterTest : BehaviorSpec({
             count = zaakObjectenList.size
         )
         every { zrcClientService.readResultaat(zaak.resultaat) } returns resultaat
-        every { zgwApiService.findInitiatorRoleForZaak(zaak) } returns rolInitiator
-        every { zgwApiService.findGroepForZaak(zaak) } returns null
-        every { zgwApiService.findBehandelaarMedewerkerRoleForZaak(zaak) } returns rolMedewerkerBehandelaar
+        every { zgwApiService.findInitiatorRoleForZaak(zaak, rollenZaak) } returns rolInitiator
+        every { zgwApiService.findGroepForZaak(zaak, rollenZaak) } returns null
+        every { zgwApiService.findBehandelaarMedewerkerRoleForZaak(zaak, rollenZaak) } returns rolMedewerkerBehandelaar
         every {
             identityService.readUser(rolMedewerkerBehandelaar.betrokkeneIdentificatie!!.identificatie)
         } returns userBehandelaar
@@ -173,10 +182,10 @@ class ZaakZoekObjectConverterTest : BehaviorSpec({
             omschrijving = ConfigurationService.STATUSTYPE_OMSCHRIJVING_HEROPEND
         }
         every { zrcClientService.readZaak(zaak.uuid) } returns zaak
-        every { zgwApiService.findInitiatorRoleForZaak(zaak) } returns rolInitiator
+        every { zgwApiService.findInitiatorRoleForZaak(zaak, rollenZaak) } returns rolInitiator
         every { zrcClientService.listRollen(zaak) } returns rollenZaak
-        every { zgwApiService.findGroepForZaak(zaak) } returns null
-        every { zgwApiService.findBehandelaarMedewerkerRoleForZaak(zaak) } returns rolMedewerkerBehandelaar
+        every { zgwApiService.findGroepForZaak(zaak, rollenZaak) } returns null
+        every { zgwApiService.findBehandelaarMedewerkerRoleForZaak(zaak, rollenZaak) } returns rolMedewerkerBehandelaar
         every {
             identityService.readUser(rolMedewerkerBehandelaar.betrokkeneIdentificatie!!.identificatie)
         } returns userBehandelaar
@@ -222,4 +231,86 @@ class ZaakZoekObjectConverterTest : BehaviorSpec({
             }
         }
     }
+
+    given("Two zaken with the same behandelaar") {
+        val meter = mockk<Meter>()
+        val savedRoundTrips = mockk<LongHistogram>()
+        every {
+            meter.histogramBuilder("zac.indexing.zaak.roundtrips.saved").setDescription(any()).setUnit(any()).ofLongs().build()
+        } returns savedRoundTrips
+        every { savedRoundTrips.record(any()) } just runs
+        val batchConverter = ZaakZoekObjectConverter(
+            zrcClientService,
+            ztcClientService,
+            zgwApiService,
+            identityService,
+            flowableTaskService,
+            meter
+        )
+        val zaakType = createZaakType()
+        val zaken = listOf(createZaak(zaaktypeUri = zaakType.url), createZaak(zaaktypeUri = zaakType.url))
+        val rolMedewerkerBehandelaar = createRolMedewerker(
+            medewerkerIdentificatie = createMedewerkerIdentificatie(identificatie = "fakeSharedBehandelaar")
+        )
+        val userBehandelaar = createUser()
+        val zaakObjectenList = emptyList<Zaakobject>()
+        zaken.forEach { zaak ->
+            every { zrcClientService.readZaak(zaak.uuid) } returns zaak
+            every { zrcClientService.listRollen(zaak) } returns listOf(rolMedewerkerBehandelaar)
+            every { zgwApiService.findInitiatorRoleForZaak(zaak, listOf(rolMedewerkerBehandelaar)) } returns null
+            every { zgwApiService.findGroepForZaak(zaak, listOf(rolMedewerkerBehandelaar)) } returns null
+            every {
+                zgwApiService.findBehandelaarMedewerkerRoleForZaak(zaak, listOf(rolMedewerkerBehandelaar))
+            } returns rolMedewerkerBehandelaar
+        }
+        every {
+            flowableTaskService.countOpenTasksForZaken(zaken.map { it.uuid })
+        } returns mapOf(zaken[0].uuid to 2L, zaken[1].uuid to 0L)
+        every {
+            identityService.readUser(rolMedewerkerBehandelaar.betrokkeneIdentificatie!!.identificatie)
+        } returns userBehandelaar
+        every { ztcClientService.readZaaktype(zaakType.url) } returns zaakType
+        every { zrcClientService.listZaakobjecten(any()) } returns createResultsOfZaakObjecten(
+            list = zaakObjectenList,
+            count = zaakObjectenList.size
+        )
+
+        `when`("the zaken are converted as one batch") {
+            val batch = ConversionBatch()
+            val ids = zaken.map { it.uuid.toString() }
+            batchConverter.prepare(ids, batch)
+            val zaakZoekObjecten = ids.map { batchConverter.convert(it, batch) }
+
+            then("the roles are listed once per zaak and the behandelaar is read only once") {
+                zaakZoekObjecten.forEach {
+                    it.behandelaarGebruikersnaam shouldBe userBehandelaar.id
+                }
+                zaken.forEach { zaak ->
+                    verify(exactly = 1) {
+                        zrcClientService.listRollen(zaak)
+                    }
+                }
+                verify(exactly = 1) {
+                    identityService.readUser(rolMedewerkerBehandelaar.betrokkeneIdentificatie!!.identificatie)
+                }
+            }
+
+            then("the open tasks of the zaken are counted at once") {
+                zaakZoekObjecten.map { it.aantalOpenstaandeTaken } shouldBe listOf(2L, 0L)
+                zaken.forEach { zaak ->
+                    verify(exactly = 0) {
+                        flowableTaskService.countOpenTasksForZaak(zaak.uuid)
+                    }
+                }
+            }
+
+            then("every lookup that is shared through the batch is recorded as a saved round trip, including the roles") {
+                verifyOrder {
+                    // the roles three times and the open tasks once, and for the second zaak also the behandelaar
+                    savedRoundTrips.record(4)
+                    savedRoundTrips.record(5)
+                }
+            }
+        }
+    }
 })
@@ -5,6 +5,8 @@
 
 package nl.info.zac.search.converter
 
+import io.opentelemetry.api.OpenTelemetry
+import io.opentelemetry.api.metrics.Meter
 import net.atos.zac.flowable.task.FlowableTaskService
 import nl.info.client.zgw.shared.ZgwApiService
 import nl.info.client.zgw.zrc.ZrcClientService
@@ -17,12 +19,14 @@ fun createZaakZoekObjectConverter(
     ztcClientService: ZtcClientService,
     zgwApiService: ZgwApiService,
     identityService: IdentityService,
-    flowableTaskService: FlowableTaskService
+    flowableTaskService: FlowableTaskService,
+    meter: Meter = OpenTelemetry.noop().getMeter("test")
 ) =
     ZaakZoekObjectConverter(
         zrcClientService,
         ztcClientService,
         zgwApiService,
         identityService,
-        flowableTaskService
+        flowableTaskService,
+        meter
     )
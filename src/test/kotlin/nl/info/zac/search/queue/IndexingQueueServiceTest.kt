@@ -0,0 +1,276 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.queue
+
+import io.kotest.core.spec.IsolationMode
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.Runs
+import io.mockk.checkUnnecessaryStub
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.verify
+import io.opentelemetry.api.OpenTelemetry
+import jakarta.enterprise.concurrent.ManagedExecutorService
+import jakarta.ws.rs.NotFoundException
+import nl.info.client.zgw.model.createZaakInformatieobjectForReads
+import nl.info.client.zgw.zrc.ZrcClientService
+import nl.info.zac.search.IndexingException
+import nl.info.zac.search.IndexingService
+import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.search.queue.model.IndexingQueueItem
+import nl.info.zac.search.queue.model.IndexingQueueObjectType
+import java.net.URI
+import java.time.ZonedDateTime
+import java.util.UUID
+import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
+
+private fun createIndexingQueueItem(
+    id: Long,
+    objectType: IndexingQueueObjectType,
+    objectId: String = UUID.randomUUID().toString(),
+    includeTasks: Boolean = false,
+    attempts: Int = 0
+) = IndexingQueueItem().apply {
+    this.id = id
+    this.objectType = objectType
+    this.objectId = objectId
+    this.includeTasks = includeTasks
+    this.attempts = attempts
+    this.enqueuedAt = ZonedDateTime.now()
+}
+
+class IndexingQueueServiceTest : BehaviorSpec({
+    isolationMode = IsolationMode.InstancePerTest
+
+    val indexingQueueRepository = mockk<IndexingQueueRepository>()
+    val indexingService = mockk<IndexingService>()
+    val zrcClientService = mockk<ZrcClientService>()
+    val managedExecutorService = mockk<ManagedExecutorService>()
+    val indexingQueueService = IndexingQueueService(
+        indexingQueueRepository = indexingQueueRepository,
+        indexingService = indexingService,
+        zrcClientService = zrcClientService,
+        meter = OpenTelemetry.noop().getMeter("test"),
+        coalescingWindowMillis = 2000,
+        pollIntervalMillis = 1000,
+        batchSize = 2,
+        workers = 2,
+        maxAttempts = 3
+    ).apply {
+        this.managedExecutorService = managedExecutorService
+    }
+
+    fun mockDrainInfrastructure() {
+        every { managedExecutorService.submit(any<Callable<Unit>>()) } answers {
+            CompletableFuture.completedFuture(firstArg<Callable<Unit>>().call())
+        }
+        every { indexingQueueRepository.count() } returns 0
+        every { indexingQueueRepository.countDeadLettered() } returns 0
+        every { indexingQueueRepository.findOldestEnqueuedAt() } returns null
+    }
+
+    afterEach {
+        checkUnnecessaryStub()
+    }
+
+    given("A zaak is queued for indexing") {
+        val zaakUUID = UUID.randomUUID()
+        every { indexingQueueRepository.enqueue(IndexingQueueObjectType.ZAAK, zaakUUID.toString(), true) } just Runs
+
+        `when`("the zaak is enqueued including its tasks") {
+            indexingQueueService.enqueueZaak(zaakUUID, true)
+
+            then("it is added to the queue and not indexed directly") {
+                verify(exactly = 1) {
+                    indexingQueueRepository.enqueue(IndexingQueueObjectType.ZAAK, zaakUUID.toString(), true)
+                }
+                verify(exactly = 0) {
+                    indexingService.addOrUpdateZaak(any(), any())
+                }
+            }
+        }
+    }
+
+    given("Three queued zaken, one of which includes its tasks, and a queued document") {
+        val zaakItems = listOf(
+            createIndexingQueueItem(id = 1, objectType = IndexingQueueObjectType.ZAAK),
+            createIndexingQueueItem(id = 2, objectType = IndexingQueueObjectType.ZAAK, includeTasks = true),
+            createIndexingQueueItem(id = 3, objectType = IndexingQueueObjectType.ZAAK)
+        )
+        val documentItem = createIndexingQueueItem(id = 4, objectType = IndexingQueueObjectType.DOCUMENT)
+        mockDrainInfrastructure()
+        every {
+            indexingQueueRepository.claim(4, 2000, any())
+        } returnsMany listOf(zaakItems + documentItem, emptyList())
+        every { indexingService.addOrUpdateZaken(any(), any()) } just Runs
+        every {
+            indexingService.indexeerDirect(listOf(documentItem.objectId), ZoekObjectType.DOCUMENT, false)
+        } just Runs
+        every { indexingQueueRepository.complete(any()) } just Runs
+
+        `when`("the queue is drained") {
+            val drained = indexingQueueService.drain()
+
+            then("the zaken are indexed in batches of the configured size and all items are completed") {
+                drained shouldBe 4
+                verify(exactly = 1) {
+                    indexingService.addOrUpdateZaken(
+                        zaakItems.take(2).map { UUID.fromString(it.objectId) },
+                        listOf(UUID.fromString(zaakItems[1].objectId))
+                    )
+                    indexingService.addOrUpdateZaken(listOf(UUID.fromString(zaakItems[2].objectId)), emptyList())
+                    indexingService.indexeerDirect(listOf(documentItem.objectId), ZoekObjectType.DOCUMENT, false)
+                    indexingQueueRepository.complete(listOf(1L, 2L))
+                    indexingQueueRepository.complete(listOf(3L))
+                    indexingQueueRepository.complete(listOf(4L))
+                }
+            }
+        }
+    }
+
+    given("A queued document for which indexing in Solr fails") {
+        val documentItem = createIndexingQueueItem(id = 5, objectType = IndexingQueueObjectType.DOCUMENT)
+        mockDrainInfrastructure()
+        every { indexingQueueRepository.claim(4, 0, any()) } returns listOf(documentItem)
+        every {
+            indexingService.indexeerDirect(listOf(documentItem.objectId), ZoekObjectType.DOCUMENT, false)
+        } throws IndexingException("fakeMessage")
+        every { indexingQueueRepository.fail(listOf(5L), 3, any(), any()) } just Runs
+
+        `when`("the queue is drained while ignoring the coalescing window") {
+            indexingQueueService.drain(ignoreCoalescingWindow = true)
+
+            then("the failed attempt is recorded, so that the item is retried later, instead of being completed") {
+                verify(exactly = 1) {
+                    indexingQueueRepository.fail(listOf(5L), 3, any(), any())
+                }
+                verify(exactly = 0) {
+                    indexingQueueRepository.complete(any())
+                }
+            }
+        }
+    }
+
+    given("A batch of two queued documents, one of which cannot be indexed") {
+        val documentItem = createIndexingQueueItem(id = 6, objectType = IndexingQueueObjectType.DOCUMENT)
+        val poisonItem = createIndexingQueueItem(id = 7, objectType = IndexingQueueObjectType.DOCUMENT, attempts = 2)
+        mockDrainInfrastructure()
+        every { indexingQueueRepository.claim(4, 0, any()) } returns listOf(documentItem, poisonItem)
+        every {
+            indexingService.indexeerDirect(
+                listOf(documentItem.objectId, poisonItem.objectId),
+                ZoekObjectType.DOCUMENT,
+                false
+            )
+        } throws IndexingException("fakeMessage")
+        every {
+            indexingService.indexeerDirect(listOf(documentItem.objectId), ZoekObjectType.DOCUMENT, false)
+        } just Runs
+        every {
+            indexingService.indexeerDirect(listOf(poisonItem.objectId), ZoekObjectType.DOCUMENT, false)
+        } throws IndexingException("fakeMessage")
+        every { indexingQueueRepository.complete(listOf(6L)) } just Runs
+        every { indexingQueueRepository.fail(listOf(7L), 3, any(), any()) } just Runs
+
+        `when`("the queue is drained while ignoring the coalescing window") {
+            indexingQueueService.drain(ignoreCoalescingWindow = true)
+
+            then("the documents are retried one by one, and only the failed attempt of the failing document is recorded") {
+                verify(exactly = 1) {
+                    indexingQueueRepository.complete(listOf(6L))
+                    indexingQueueRepository.fail(listOf(7L), 3, any(), any())
+                }
+            }
+        }
+    }
+
+    given("A queued zaakinformatieobject, and a queued zaakinformatieobject that has been deleted") {
+        val zaakinformatieobjectUUID = UUID.randomUUID()
+        val deletedZaakinformatieobjectUUID = UUID.randomUUID()
+        val informatieobjectUUID = UUID.randomUUID()
+        val items = listOf(
+            createIndexingQueueItem(
+                id = 8,
+                objectType = IndexingQueueObjectType.ZAAKINFORMATIEOBJECT,
+                objectId = zaakinformatieobjectUUID.toString()
+            ),
+            createIndexingQueueItem(
+                id = 9,
+                objectType = IndexingQueueObjectType.ZAAKINFORMATIEOBJECT,
+                objectId = deletedZaakinformatieobjectUUID.toString()
+            )
+        )
+        mockDrainInfrastructure()
+        every { indexingQueueRepository.claim(4, 0, any()) } returns items
+        every { zrcClientService.readZaakinformatieobject(zaakinformatieobjectUUID) } returns
+            createZaakInformatieobjectForReads(
+                informatieobject = URI("https://example.com/informatieobjecten/$informatieobjectUUID")
+            )
+        every { zrcClientService.readZaakinformatieobject(deletedZaakinformatieobjectUUID) } throws NotFoundException()
+        every {
+            indexingService.indexeerDirect(listOf(informatieobjectUUID.toString()), ZoekObjectType.DOCUMENT, false)
+        } just Runs
+        every { indexingQueueRepository.complete(listOf(8L, 9L)) } just Runs
+
+        `when`("the queue is drained while ignoring the coalescing window") {
+            indexingQueueService.drain(ignoreCoalescingWindow = true)
+
+            then("the informatieobject of the existing zaakinformatieobject is indexed, and both items are completed") {
+                verify(exactly = 1) {
+                    indexingService.indexeerDirect(
+                        listOf(informatieobjectUUID.toString()),
+                        ZoekObjectType.DOCUMENT,
+                        false
+                    )
+                    indexingQueueRepository.complete(listOf(8L, 9L))
+                }
+            }
+        }
+    }
+
+    given("A zaakinformatieobject is created") {
+        val zaakinformatieobjectUUID = UUID.randomUUID()
+        every {
+            indexingQueueRepository.enqueue(
+                IndexingQueueObjectType.ZAAKINFORMATIEOBJECT,
+                zaakinformatieobjectUUID.toString()
+            )
+        } just Runs
+
+        `when`("its informatieobject is enqueued") {
+            indexingQueueService.enqueueInformatieobjectByZaakinformatieobject(zaakinformatieobjectUUID)
+
+            then("the zaakinformatieobject is queued without reading it from the ZRC") {
+                verify(exactly = 1) {
+                    indexingQueueRepository.enqueue(
+                        IndexingQueueObjectType.ZAAKINFORMATIEOBJECT,
+                        zaakinformatieobjectUUID.toString()
+                    )
+                }
+                verify(exactly = 0) {
+                    zrcClientService.readZaakinformatieobject(any())
+                }
+            }
+        }
+    }
+
+    given("A zaak that has been deleted") {
+        val zaakUUID = UUID.randomUUID()
+        every { indexingQueueRepository.remove(IndexingQueueObjectType.ZAAK, listOf(zaakUUID.toString())) } just Runs
+
+        `when`("the zaak is dequeued") {
+            indexingQueueService.dequeueZaak(zaakUUID)
+
+            then("its queued item is removed") {
+                verify(exactly = 1) {
+                    indexingQueueRepository.remove(IndexingQueueObjectType.ZAAK, listOf(zaakUUID.toString()))
+                }
+            }
+        }
+    }
+})
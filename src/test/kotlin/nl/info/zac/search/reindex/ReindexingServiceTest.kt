@@ -0,0 +1,509 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.search.reindex
+
+import io.kotest.core.spec.IsolationMode
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.Runs
+import io.mockk.checkUnnecessaryStub
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.verify
+import io.mockk.verifyOrder
+import jakarta.enterprise.inject.Instance
+import net.atos.client.zgw.shared.model.Results
+import net.atos.zac.flowable.task.FlowableTaskService
+import net.atos.zac.solr.SolrDeployerService
+import nl.info.client.zgw.drc.DrcClientService
+import nl.info.client.zgw.drc.model.EnkelvoudigInformatieobjectListParameters
+import nl.info.client.zgw.zrc.ZrcClientService
+import nl.info.client.zgw.zrc.model.ZaakListParameters
+import nl.info.client.zgw.zrc.model.ZaakUuid
+import nl.info.zac.search.IndexingService
+import nl.info.zac.search.converter.AbstractZoekObjectConverter
+import nl.info.zac.search.converter.ZaakZoekObjectConverter
+import nl.info.zac.search.model.createZaakZoekObject
+import nl.info.zac.search.model.zoekobject.ZoekObject
+import nl.info.zac.search.model.zoekobject.ZoekObjectType
+import nl.info.zac.search.reindex.model.ReindexCheckpoint
+import nl.info.zac.search.reindex.model.ReindexStatus
+import nl.info.zac.search.reindex.model.ShadowCoreChange
+import java.io.IOException
+import java.net.URI
+import java.time.LocalDate
+import java.time.ZonedDateTime
+import java.util.UUID
+
+private fun createShadowCoreChange(
+    objectId: String,
+    objectType: ZoekObjectType? = null,
+    deleted: Boolean = false
+) = ShadowCoreChange().apply {
+    this.objectId = objectId
+    this.objectType = objectType
+    this.deleted = deleted
+    this.changedAt = ZonedDateTime.now()
+}
+
+fun createReindexCheckpoint(
+    status: ReindexStatus = ReindexStatus.FINISHED,
+    nextKey: String? = null
+) = ReindexCheckpoint().apply {
+    this.objectType = ZoekObjectType.ZAAK
+    this.status = status
+    this.nextKey = nextKey
+    this.startedAt = ZonedDateTime.now()
+    this.updatedAt = ZonedDateTime.now()
+}
+
+class ReindexingServiceTest : BehaviorSpec({
+    isolationMode = IsolationMode.InstancePerTest
+
+    val zaakZoekObjectConverter = mockk<ZaakZoekObjectConverter>()
+    val converterInstances = mockk<Instance<AbstractZoekObjectConverter<out ZoekObject>>>()
+    val indexingService = mockk<IndexingService>()
+    val reindexCheckpointRepository = mockk<ReindexCheckpointRepository>()
+    val shadowCoreChangeRepository = mockk<ShadowCoreChangeRepository>()
+    val zrcClientService = mockk<ZrcClientService>()
+    val drcClientService = mockk<DrcClientService>()
+    val flowableTaskService = mockk<FlowableTaskService>()
+    val solrDeployerService = mockk<SolrDeployerService>()
+    val reindexingService = ReindexingService(
+        converterInstances = converterInstances,
+        indexingService = indexingService,
+        reindexCheckpointRepository = reindexCheckpointRepository,
+        shadowCoreChangeRepository = shadowCoreChangeRepository,
+        zrcClientService = zrcClientService,
+        drcClientService = drcClientService,
+        flowableTaskService = flowableTaskService,
+        solrDeployerService = solrDeployerService,
+        zrcConcurrency = 2,
+        drcConcurrency = 2,
+        flowableConcurrency = 2,
+        prefetchPages = 2,
+        solrBatchSize = 1000,
+        leaseRenewalIntervalMillis = 60_000
+    )
+    val zakenUuid = listOf(
+        ZaakUuid(UUID.randomUUID()),
+        ZaakUuid(UUID.randomUUID())
+    )
+    val zaakZoekObjecten = listOf(
+        createZaakZoekObject(),
+        createZaakZoekObject()
+    )
+
+    fun mockZaakConversion() {
+        every { zaakZoekObjectConverter.supports(any()) } answers { firstArg<ZoekObjectType>() == ZoekObjectType.ZAAK }
+        every { converterInstances.iterator() } answers {
+            mutableListOf<AbstractZoekObjectConverter<out ZoekObject>>(zaakZoekObjectConverter).iterator()
+        }
+        zakenUuid.forEachIndexed { index, zaak ->
+            every { zaakZoekObjectConverter.convert(zaak.uuid.toString(), any()) } returns zaakZoekObjecten[index]
+        }
+        every { zaakZoekObjectConverter.prepare(any(), any()) } just Runs
+    }
+
+    afterEach {
+        checkUnnecessaryStub()
+    }
+
+    given("Two zaken and no reindexing of zaken in progress") {
+        mockZaakConversion()
+        every { reindexCheckpointRepository.acquireLease(ZoekObjectType.ZAAK, any(), any()) } returns
+            createReindexCheckpoint()
+        every { reindexCheckpointRepository.start(ZoekObjectType.ZAAK, any()) } returns true
+        every { indexingService.removeEntitiesFromSolrIndex(ZoekObjectType.ZAAK) } just Runs
+        every { zrcClientService.listZakenUuids(any<ZaakListParameters>()) } returns Results(zakenUuid, 2)
+        every { indexingService.addToSolrIndex(zaakZoekObjecten, false) } just Runs
+        every { reindexCheckpointRepository.checkpoint(ZoekObjectType.ZAAK, any(), null, any()) } returns true
+        every { reindexCheckpointRepository.finish(ZoekObjectType.ZAAK, any()) } just Runs
+        every { reindexCheckpointRepository.releaseLease(ZoekObjectType.ZAAK, any()) } just Runs
+
+        `when`("reindexing of zaken is called") {
+            reindexingService.reindex(ZoekObjectType.ZAAK)
+
+            then("the zaken are removed from the index, reindexed and the reindexing is marked as finished") {
+                verify(exactly = 1) {
+                    indexingService.removeEntitiesFromSolrIndex(ZoekObjectType.ZAAK)
+                    indexingService.addToSolrIndex(zaakZoekObjecten, false)
+                    reindexCheckpointRepository.checkpoint(ZoekObjectType.ZAAK, any(), null, any())
+                    reindexCheckpointRepository.finish(ZoekObjectType.ZAAK, any())
+                }
+            }
+        }
+    }
+
+    given("Reindexing of zaken is in progress on another node") {
+        every { reindexCheckpointRepository.acquireLease(ZoekObjectType.ZAAK, any(), any()) } returns null
+        every { reindexCheckpointRepository.releaseLease(ZoekObjectType.ZAAK, any()) } just Runs
+
+        `when`("reindexing of zaken is called") {
+            reindexingService.reindex(ZoekObjectType.ZAAK)
+
+            then("it does not reindex any zaken") {
+                verify(exactly = 0) {
+                    indexingService.removeEntitiesFromSolrIndex(any())
+                    zrcClientService.listZakenUuids(any<ZaakListParameters>())
+                }
+            }
+        }
+    }
+
+    given("An interrupted reindexing of zaken that has written the zaken that started before 2 January 2026") {
+        val startdatum = LocalDate.of(2026, 1, 2)
+        val zaken = zakenUuid.mapIndexed { index, zaak -> ZaakUuid(zaak.uuid, startdatum.plusDays(index.toLong())) }
+        mockZaakConversion()
+        every { reindexCheckpointRepository.acquireLease(ZoekObjectType.ZAAK, any(), any()) } returns
+            createReindexCheckpoint(status = ReindexStatus.RUNNING, nextKey = startdatum.toString())
+        every {
+            zrcClientService.listZakenUuids(match<ZaakListParameters> { it.startdatumGreaterThanOrEqual == null })
+        } returns Results(zaken, 202)
+        every {
+            zrcClientService.listZakenUuids(match<ZaakListParameters> { it.startdatumGreaterThanOrEqual == startdatum })
+        } returns Results(zaken, 2)
+        every { indexingService.addToSolrIndex(zaakZoekObjecten, false) } just Runs
+        every {
+            reindexCheckpointRepository.checkpoint(ZoekObjectType.ZAAK, any(), startdatum.plusDays(1).toString(), any())
+        } returns true
+        every { reindexCheckpointRepository.finish(ZoekObjectType.ZAAK, any()) } just Runs
+        every { reindexCheckpointRepository.releaseLease(ZoekObjectType.ZAAK, any()) } just Runs
+
+        `when`("the reindexing is resumed") {
+            reindexingService.reindex(ZoekObjectType.ZAAK, resume = true)
+
+            then("it lists the zaken in the order of their start date, from the start date of the checkpoint") {
+                verify(exactly = 0) {
+                    indexingService.removeEntitiesFromSolrIndex(any())
+                    reindexCheckpointRepository.start(any(), any())
+                }
+                verify(exactly = 1) {
+                    zrcClientService.listZakenUuids(
+                        match<ZaakListParameters> {
+                            it.startdatumGreaterThanOrEqual == startdatum && it.page == 1 &&
+                                it.ordering == "startdatum,identificatie"
+                        }
+                    )
+                    indexingService.addToSolrIndex(zaakZoekObjecten, false)
+                    reindexCheckpointRepository.checkpoint(
+                        ZoekObjectType.ZAAK,
+                        any(),
+                        startdatum.plusDays(1).toString(),
+                        any()
+                    )
+                    reindexCheckpointRepository.finish(ZoekObjectType.ZAAK, any())
+                }
+            }
+        }
+    }
+
+    given("An interrupted reindexing of zaken") {
+        mockZaakConversion()
+        every { reindexCheckpointRepository.acquireLease(ZoekObjectType.ZAAK, any(), any()) } returns
+            createReindexCheckpoint(status = ReindexStatus.RUNNING, nextKey = "2026-01-02")
+        every { reindexCheckpointRepository.start(ZoekObjectType.ZAAK, any()) } returns true
+        every { indexingService.removeEntitiesFromSolrIndex(ZoekObjectType.ZAAK) } just Runs
+        every { zrcClientService.listZakenUuids(any<ZaakListParameters>()) } returns Results(zakenUuid, 2)
+        every { indexingService.addToSolrIndex(zaakZoekObjecten, false) } just Runs
+        every { reindexCheckpointRepository.checkpoint(ZoekObjectType.ZAAK, any(), null, any()) } returns true
+        every { reindexCheckpointRepository.finish(ZoekObjectType.ZAAK, any()) } just Runs
+        every { reindexCheckpointRepository.releaseLease(ZoekObjectType.ZAAK, any()) } just Runs
+
+        `when`("reindexing of zaken is called without resuming") {
+            reindexingService.reindex(ZoekObjectType.ZAAK)
+
+            then("all zaken are reindexed from the start") {
+                verify(exactly = 1) {
+                    reindexCheckpointRepository.start(ZoekObjectType.ZAAK, any())
+                    indexingService.removeEntitiesFromSolrIndex(ZoekObjectType.ZAAK)
+                    zrcClientService.listZakenUuids(
+                        match<ZaakListParameters> { it.startdatumGreaterThanOrEqual == null && it.page == 1 }
+                    )
+                    reindexCheckpointRepository.finish(ZoekObjectType.ZAAK, any())
+                }
+            }
+        }
+    }
+
+    given("Three zaken, of which the last two started on the same day, listed on two pages") {
+        val startdatum = LocalDate.of(2026, 1, 2)
+        val zaken = listOf(
+            ZaakUuid(UUID.randomUUID(), startdatum.minusDays(1)),
+            ZaakUuid(UUID.randomUUID(), startdatum),
+            ZaakUuid(UUID.randomUUID(), startdatum)
+        )
+        val zoekObjecten = zaken.map { createZaakZoekObject() }
+        every { zaakZoekObjectConverter.supports(any()) } answers { firstArg<ZoekObjectType>() == ZoekObjectType.ZAAK }
+        every { converterInstances.iterator() } answers {
+            mutableListOf<AbstractZoekObjectConverter<out ZoekObject>>(zaakZoekObjectConverter).iterator()
+        }
+        zaken.forEachIndexed { index, zaak ->
+            every { zaakZoekObjectConverter.convert(zaak.uuid.toString(), any()) } returns zoekObjecten[index]
+        }
+        every { zaakZoekObjectConverter.prepare(any(), any()) } just Runs
+        every { reindexCheckpointRepository.acquireLease(ZoekObjectType.ZAAK, any(), any()) } returns
+            createReindexCheckpoint()
+        every { reindexCheckpointRepository.start(ZoekObjectType.ZAAK, any()) } returns true
+        every { indexingService.removeEntitiesFromSolrIndex(ZoekObjectType.ZAAK) } just Runs
+        every {
+            zrcClientService.listZakenUuids(match<ZaakListParameters> { it.startdatumGreaterThanOrEqual == null })
+        } returns Results(3, zaken.take(2), URI("https://example.com/zaken?page=2"), null)
+        every {
+            zrcClientService.listZakenUuids(match<ZaakListParameters> { it.startdatumGreaterThanOrEqual == startdatum })
+        } returns Results(zaken.drop(1), 2)
+        every { indexingService.addToSolrIndex(zoekObjecten, false) } just Runs
+        every {
+            reindexCheckpointRepository.checkpoint(ZoekObjectType.ZAAK, any(), startdatum.toString(), any())
+        } returns true
+        every { reindexCheckpointRepository.finish(ZoekObjectType.ZAAK, any()) } just Runs
+        every { reindexCheckpointRepository.releaseLease(ZoekObjectType.ZAAK, any()) } just Runs
+
+        `when`("reindexing of zaken is called") {
+            reindexingService.reindex(ZoekObjectType.ZAAK)
+
+            then("the second page is listed from the start date of the last zaak of the first page, and each zaak is converted once") {
+                verify(exactly = 1) {
+                    zrcClientService.listZakenUuids(
+                        match<ZaakListParameters> { it.startdatumGreaterThanOrEqual == startdatum && it.page == 1 }
+                    )
+                    indexingService.addToSolrIndex(zoekObjecten, false)
+                    reindexCheckpointRepository.finish(ZoekObjectType.ZAAK, any())
+                }
+                zaken.forEach {
+                    verify(exactly = 1) {
+                        zaakZoekObjectConverter.convert(it.uuid.toString(), any())
+                    }
+                }
+            }
+        }
+    }
+
+    given("A reindexing of zaken for which a page of zaken cannot be listed") {
+        every { zaakZoekObjectConverter.supports(any()) } answers { firstArg<ZoekObjectType>() == ZoekObjectType.ZAAK }
+        every { converterInstances.iterator() } answers {
+            mutableListOf<AbstractZoekObjectConverter<out ZoekObject>>(zaakZoekObjectConverter).iterator()
+        }
+        every { reindexCheckpointRepository.acquireLease(ZoekObjectType.ZAAK, any(), any()) } returns
+            createReindexCheckpoint()
+        every { reindexCheckpointRepository.start(ZoekObjectType.ZAAK, any()) } returns true
+        every { indexingService.removeEntitiesFromSolrIndex(ZoekObjectType.ZAAK) } just Runs
+        every { zrcClientService.listZakenUuids(any<ZaakListParameters>()) } returnsMany listOf(Results(zakenUuid, 2)) andThenThrows
+            IOException("fakeException")
+        every { reindexCheckpointRepository.releaseLease(ZoekObjectType.ZAAK, any()) } just Runs
+
+        `when`("reindexing of zaken is called") {
+            reindexingService.reindex(ZoekObjectType.ZAAK)
+
+            then("the reindexing is aborted without finishing it, so that it can be resumed from the last checkpoint") {
+                verify(exactly = 0) {
+                    indexingService.addToSolrIndex(any(), any())
+                    reindexCheckpointRepository.finish(any(), any())
+                }
+                verify(exactly = 1) {
+                    reindexCheckpointRepository.releaseLease(ZoekObjectType.ZAAK, any())
+                }
+            }
+        }
+    }
+
+    given("A reindexing of zaken of which the conversion takes longer than the lease renewal interval") {
+        val slowReindexingService = ReindexingService(
+            converterInstances = converterInstances,
+            indexingService = indexingService,
+            reindexCheckpointRepository = reindexCheckpointRepository,
+        shadowCoreChangeRepository = shadowCoreChangeRepository,
+            zrcClientService = zrcClientService,
+            drcClientService = drcClientService,
+            flowableTaskService = flowableTaskService,
+            solrDeployerService = solrDeployerService,
+            zrcConcurrency = 2,
+            drcConcurrency = 2,
+            flowableConcurrency = 2,
+            prefetchPages = 2,
+            solrBatchSize = 1000,
+            leaseRenewalIntervalMillis = 10
+        )
+        every { zaakZoekObjectConverter.supports(any()) } answers { firstArg<ZoekObjectType>() == ZoekObjectType.ZAAK }
+        every { converterInstances.iterator() } answers {
+            mutableListOf<AbstractZoekObjectConverter<out ZoekObject>>(zaakZoekObjectConverter).iterator()
+        }
+        zakenUuid.forEachIndexed { index, zaak ->
+            every { zaakZoekObjectConverter.convert(zaak.uuid.toString(), any()) } answers {
+                Thread.sleep(200)
+                zaakZoekObjecten[index]
+            }
+        }
+        every { zaakZoekObjectConverter.prepare(any(), any()) } just Runs
+        val leaseRenewals = mutableListOf<Long>()
+        every { reindexCheckpointRepository.acquireLease(ZoekObjectType.ZAAK, any(), capture(leaseRenewals)) } returns
+            createReindexCheckpoint()
+        every { reindexCheckpointRepository.start(ZoekObjectType.ZAAK, any()) } returns true
+        every { indexingService.removeEntitiesFromSolrIndex(ZoekObjectType.ZAAK) } just Runs
+        every { zrcClientService.listZakenUuids(any<ZaakListParameters>()) } returns Results(zakenUuid, 2)
+        every { indexingService.addToSolrIndex(zaakZoekObjecten, false) } just Runs
+        every { reindexCheckpointRepository.checkpoint(ZoekObjectType.ZAAK, any(), null, any()) } returns true
+        every { reindexCheckpointRepository.finish(ZoekObjectType.ZAAK, any()) } just Runs
+        every { reindexCheckpointRepository.releaseLease(ZoekObjectType.ZAAK, any()) } just Runs
+
+        `when`("reindexing of zaken is called") {
+            slowReindexingService.reindex(ZoekObjectType.ZAAK)
+
+            then("the lease is renewed while the zaken are being converted") {
+                (leaseRenewals.size > 2) shouldBe true
+                verify(exactly = 1) {
+                    reindexCheckpointRepository.finish(ZoekObjectType.ZAAK, any())
+                }
+            }
+        }
+    }
+
+    given("Reindexing of zaken for which the zaak count cannot be obtained") {
+        every { reindexCheckpointRepository.acquireLease(ZoekObjectType.ZAAK, any(), any()) } returns
+            createReindexCheckpoint()
+        every { reindexCheckpointRepository.start(ZoekObjectType.ZAAK, any()) } returns true
+        every { indexingService.removeEntitiesFromSolrIndex(ZoekObjectType.ZAAK) } just Runs
+        every { zrcClientService.listZakenUuids(any<ZaakListParameters>()) } throws IOException("IO exception")
+        every { reindexCheckpointRepository.releaseLease(ZoekObjectType.ZAAK, any()) } just Runs
+
+        `when`("reindexing of zaken is called") {
+            reindexingService.reindex(ZoekObjectType.ZAAK)
+
+            then("it aborts without listing zaken and releases the lease so that it can be resumed later") {
+                verify(exactly = 1) {
+                    zrcClientService.listZakenUuids(any<ZaakListParameters>())
+                    reindexCheckpointRepository.releaseLease(ZoekObjectType.ZAAK, any())
+                }
+                verify(exactly = 0) {
+                    reindexCheckpointRepository.finish(any(), any())
+                }
+            }
+        }
+    }
+
+    fun mockRebuild() {
+        val converters = ZoekObjectType.entries.map { objectType ->
+            if (objectType == ZoekObjectType.ZAAK) {
+                zaakZoekObjectConverter
+            } else {
+                mockk<AbstractZoekObjectConverter<out ZoekObject>>().also { converter ->
+                    every { converter.supports(any()) } answers { firstArg<ZoekObjectType>() == objectType }
+                }
+            }
+        }
+        every { zaakZoekObjectConverter.supports(any()) } answers { firstArg<ZoekObjectType>() == ZoekObjectType.ZAAK }
+        every { converterInstances.iterator() } answers { converters.toMutableList().iterator() }
+        zakenUuid.forEachIndexed { index, zaak ->
+            every { zaakZoekObjectConverter.convert(zaak.uuid.toString(), any()) } returns zaakZoekObjecten[index]
+        }
+        every { zaakZoekObjectConverter.prepare(any(), any()) } just Runs
+        every { reindexCheckpointRepository.acquireLease(any(), any(), any()) } returns createReindexCheckpoint()
+        every { solrDeployerService.createShadowCore() } just Runs
+        every { indexingService.setShadowCoreExists(any()) } just Runs
+        every { zrcClientService.listZakenUuids(any<ZaakListParameters>()) } returns Results(zakenUuid, 2)
+        every {
+            drcClientService.listEnkelvoudigInformatieObjecten(any<EnkelvoudigInformatieobjectListParameters>())
+        } returns Results(emptyList(), 0)
+        every { flowableTaskService.countOpenTasks() } returns 0
+        every { flowableTaskService.listOpenTasksCreatedSince(null, 0, 50) } returns emptyList()
+        every { indexingService.addToShadowSolrIndex(any()) } just Runs
+        every { indexingService.commitShadowCore() } just Runs
+        every { solrDeployerService.swapShadowCore() } just Runs
+        every { reindexCheckpointRepository.finish(any(), any()) } just Runs
+        every { reindexCheckpointRepository.releaseLease(any(), any()) } just Runs
+        every { shadowCoreChangeRepository.clear() } just Runs
+    }
+
+    given("Two zaken, no documents, no open tasks and no reindexing in progress") {
+        mockRebuild()
+        every { shadowCoreChangeRepository.list() } returns emptyList()
+
+        `when`("the search index is rebuilt in the shadow core") {
+            reindexingService.rebuildInShadowCore()
+
+            then("the zaken are written to the shadow core, which is then swapped with the ZAC core") {
+                verify(exactly = 1) {
+                    solrDeployerService.createShadowCore()
+                    indexingService.addToShadowSolrIndex(zaakZoekObjecten)
+                    indexingService.commitShadowCore()
+                    solrDeployerService.swapShadowCore()
+                }
+                verify(exactly = 0) {
+                    indexingService.removeEntitiesFromSolrIndex(any())
+                    solrDeployerService.dropShadowCore()
+                }
+                ZoekObjectType.entries.forEach {
+                    verify(exactly = 1) {
+                        reindexCheckpointRepository.finish(it, any())
+                    }
+                }
+            }
+        }
+    }
+
+    given("Two zaken, of which one is removed and the other is updated while their page is being converted") {
+        mockRebuild()
+        val removedZaakId = zakenUuid[0].uuid.toString()
+        val updatedZaakId = zakenUuid[1].uuid.toString()
+        val changes = listOf(
+            createShadowCoreChange(objectId = removedZaakId, deleted = true),
+            createShadowCoreChange(objectId = updatedZaakId, objectType = ZoekObjectType.ZAAK)
+        )
+        every { shadowCoreChangeRepository.list() } returnsMany listOf(changes, emptyList())
+        every { indexingService.removeFromShadowSolrIndex(listOf(removedZaakId)) } just Runs
+        every { shadowCoreChangeRepository.remove(changes) } just Runs
+
+        `when`("the search index is rebuilt in the shadow core") {
+            reindexingService.rebuildInShadowCore()
+
+            then(
+                "the page is written to the shadow core with the zaken as they were converted, after which the removal " +
+                    "and the update are applied once more, before the shadow core is swapped with the ZAC core"
+            ) {
+                verifyOrder {
+                    shadowCoreChangeRepository.clear()
+                    solrDeployerService.createShadowCore()
+                    indexingService.addToShadowSolrIndex(zaakZoekObjecten)
+                    indexingService.removeFromShadowSolrIndex(listOf(removedZaakId))
+                    indexingService.addToShadowSolrIndex(listOf(zaakZoekObjecten[1]))
+                    shadowCoreChangeRepository.remove(changes)
+                    indexingService.commitShadowCore()
+                    solrDeployerService.swapShadowCore()
+                }
+                verify(exactly = 2) {
+                    zaakZoekObjectConverter.convert(updatedZaakId, any())
+                }
+                verify(exactly = 1) {
+                    zaakZoekObjectConverter.convert(removedZaakId, any())
+                }
+            }
+        }
+    }
+
+    given("A rebuild of the search index for which the number of open tasks cannot be obtained") {
+        every { reindexCheckpointRepository.acquireLease(any(), any(), any()) } returns createReindexCheckpoint()
+        every { solrDeployerService.createShadowCore() } just Runs
+        every { indexingService.setShadowCoreExists(any()) } just Runs
+        every { flowableTaskService.countOpenTasks() } throws RuntimeException("fakeException")
+        every { solrDeployerService.dropShadowCore() } just Runs
+        every { reindexCheckpointRepository.releaseLease(any(), any()) } just Runs
+        every { shadowCoreChangeRepository.clear() } just Runs
+
+        `when`("the search index is rebuilt in the shadow core") {
+            reindexingService.rebuildInShadowCore()
+
+            then("the shadow core is dropped and the ZAC core is left untouched") {
+                verify(exactly = 1) {
+                    solrDeployerService.dropShadowCore()
+                }
+                verify(exactly = 0) {
+                    solrDeployerService.swapShadowCore()
+                    reindexCheckpointRepository.finish(any(), any())
+                }
+            }
+        }
+    }
+})
@@ -6,6 +6,7 @@
 package nl.info.zac.signalering
 
 import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
 import io.mockk.checkUnnecessaryStub
 import io.mockk.every
 import io.mockk.just
@@ -13,20 +14,20 @@ import io.mockk.mockk
 import io.mockk.runs
 import io.mockk.verify
 import net.atos.zac.flowable.task.FlowableTaskService
+import net.atos.zac.signalering.model.Signalering
+import net.atos.zac.signalering.model.SignaleringDetail
 import net.atos.zac.signalering.model.SignaleringSubject
-import net.atos.zac.signalering.model.SignaleringTarget
 import net.atos.zac.signalering.model.SignaleringType
-import nl.info.client.zgw.model.createZaak
 import nl.info.client.zgw.ztc.ZtcClientService
 import nl.info.client.zgw.ztc.model.createZaakType
 import nl.info.zac.admin.ZaaktypeCmmnConfigurationService
 import nl.info.zac.admin.model.createZaaktypeCmmnConfiguration
-import nl.info.zac.app.search.model.createZoekResultaatForZaakZoekObjecten
 import nl.info.zac.configuration.ConfigurationService
 import nl.info.zac.search.SearchService
 import nl.info.zac.search.model.createZaakZoekObject
 import nl.info.zac.signalering.model.createSignalering
-import nl.info.zac.signalering.model.createSignaleringInstellingen
+import nl.info.zac.signalering.model.createSignaleringType
+import nl.info.zac.signalering.model.createSignaleringVerzonden
 import org.flowable.task.api.Task
 import java.net.URI
 import java.util.UUID
@@ -47,142 +48,158 @@ class ZaakTaskDueDateEmailNotificationServiceTest : BehaviorSpec({
         searchService,
         flowableTaskService
     )
+    val defaultCatalogusURI = URI("https://example.com/dummeCatalogusURI")
+    val zaakVerlopendSignaleringType = createSignaleringType(
+        type = SignaleringType.Type.ZAAK_VERLOPEND,
+        subjecttype = SignaleringSubject.ZAAK
+    )
+    val taakVerlopenSignaleringType = createSignaleringType(
+        type = SignaleringType.Type.TAAK_VERLOPEN,
+        subjecttype = SignaleringSubject.TAAK
+    )
 
     afterEach {
         checkUnnecessaryStub()
     }
 
-    given("An open zaak which is approaching its target date and for which a signalering was not yet sent") {
-        val defaultCatalogusURI = URI("https://example.com/dummeCatalogusURI")
-        val zaakTypeUUID1 = UUID.randomUUID()
-        val zaakTypeUUID2 = UUID.randomUUID()
-        val zaakType1 = createZaakType(
-            uri = URI("https://example.com/zaaktypes/$zaakTypeUUID1"),
-            omschrijving = "fakeZaakTypeOmschrijving1"
-        )
-        val zaakType2 = createZaakType(
-            uri = URI("https://example.com/zaaktypes/$zaakTypeUUID2"),
-            omschrijving = "fakeZaakTypeOmschrijving2"
-        )
-        val zaakTypen = listOf(zaakType1, zaakType2)
-        val zaaktypeCmmnConfiguration1 = createZaaktypeCmmnConfiguration(
-            zaaktypeUUID = zaakTypeUUID1,
+    given(
+        """
+        Open zaken which are approaching their target date on two pages of search results,
+        of which one has a behandelaar without mail enabled and one was already notified
+        """
+    ) {
+        val zaakTypeUUID = UUID.randomUUID()
+        val zaakType = createZaakType(uri = URI("https://example.com/zaaktypes/$zaakTypeUUID"))
+        val zaaktypeCmmnConfiguration = createZaaktypeCmmnConfiguration(
+            zaaktypeUUID = zaakTypeUUID,
             einddatumGeplandWaarschuwing = 1
         )
-        val zaaktypeCmmnConfiguration2 = createZaaktypeCmmnConfiguration(
-            zaaktypeUUID = zaakTypeUUID2
-        )
-        val assigneeName = "fakeAssignee"
-        val zaakVerlopendSignaleringType = SignaleringType().apply {
-            type = SignaleringType.Type.ZAAK_VERLOPEND
-            subjecttype = SignaleringSubject.ZAAK
-        }
-        val signaleringInstellingen = createSignaleringInstellingen(
-            type = zaakVerlopendSignaleringType,
-            ownerType = SignaleringTarget.USER,
-            ownerId = assigneeName
-        )
-        val zaakVerlopendSignalering = createSignalering(
-            type = zaakVerlopendSignaleringType,
-            zaak = createZaak()
-        )
-        val zoekResultaat = createZoekResultaatForZaakZoekObjecten(
-            items = listOf(createZaakZoekObject(behandelaarGebruikersnaam = assigneeName))
-        )
-
-        every { configurationService.readDefaultCatalogusURI() } returns defaultCatalogusURI
-        every { ztcClientService.listZaaktypen(defaultCatalogusURI) } returns zaakTypen
-        every {
-            zaaktypeCmmnConfigurationService.readZaaktypeCmmnConfiguration(zaakTypeUUID1)
-        } returns zaaktypeCmmnConfiguration1
-        every {
-            zaaktypeCmmnConfigurationService.readZaaktypeCmmnConfiguration(zaakTypeUUID2)
-        } returns zaaktypeCmmnConfiguration2
-        every { flowableTaskService.listOpenTasksDueNow() } returns emptyList()
-        every {
-            signaleringService.readInstellingenUser(SignaleringType.Type.ZAAK_VERLOPEND, assigneeName)
-        } returns signaleringInstellingen
-        // no signalering was sent yet
-        every { signaleringService.findSignaleringVerzonden(any()) } returns null
-        every { signaleringService.signaleringInstance(any<SignaleringType.Type>()) } returns zaakVerlopendSignalering
-        every { signaleringService.sendSignalering(zaakVerlopendSignalering) } just runs
-        every { signaleringService.createSignaleringVerzonden(zaakVerlopendSignalering) } returns mockk()
-        every { flowableTaskService.listOpenTasksDueLater() } returns emptyList()
-        every { searchService.search(any()) } returns zoekResultaat
-        every { signaleringService.deleteSignaleringVerzonden(any()) } returns true
+        val zaakToNotify1 = createZaakZoekObject(behandelaarGebruikersnaam = "fakeBehandelaar1")
+        val zaakWithoutMail = createZaakZoekObject(behandelaarGebruikersnaam = "fakeBehandelaarWithoutMail")
+        val zaakAlreadyNotified = createZaakZoekObject(behandelaarGebruikersnaam = "fakeBehandelaar1")
+        val zaakToNotify2 = createZaakZoekObject(behandelaarGebruikersnaam = "fakeBehandelaar2")
+        val zaakDueLater = createZaakZoekObject(behandelaarGebruikersnaam = "fakeBehandelaar2")
+        val sentBatches = mutableListOf<List<Signalering>>()
 
         `when`("the send due date email notifications method is called") {
-            zaakTaskDueDateEmailNotificationService.sendDueDateEmailNotifications()
+            every { configurationService.readDefaultCatalogusURI() } returns defaultCatalogusURI
+            every { ztcClientService.listZaaktypen(defaultCatalogusURI) } returns listOf(zaakType)
+            every {
+                zaaktypeCmmnConfigurationService.readZaaktypeCmmnConfiguration(zaakTypeUUID)
+            } returns zaaktypeCmmnConfiguration
+            every {
+                searchService.searchAll(match { it.datums.values.single().tot != null })
+            } returns sequenceOf(listOf(zaakToNotify1, zaakWithoutMail, zaakAlreadyNotified), listOf(zaakToNotify2))
+            every {
+                searchService.searchAll(match { it.datums.values.single().tot == null })
+            } returns sequenceOf(listOf(zaakDueLater))
+            every {
+                signaleringService.listUsersWithMailEnabled(
+                    SignaleringType.Type.ZAAK_VERLOPEND,
+                    setOf("fakeBehandelaar1", "fakeBehandelaarWithoutMail")
+                )
+            } returns setOf("fakeBehandelaar1")
+            every {
+                signaleringService.listUsersWithMailEnabled(SignaleringType.Type.ZAAK_VERLOPEND, setOf("fakeBehandelaar2"))
+            } returns setOf("fakeBehandelaar2")
+            every {
+                signaleringService.listSignaleringenVerzonden(
+                    SignaleringType.Type.ZAAK_VERLOPEND,
+                    SignaleringDetail.STREEFDATUM,
+                    listOf(zaakToNotify1.getObjectId(), zaakWithoutMail.getObjectId(), zaakAlreadyNotified.getObjectId())
+                )
+            } returns listOf(
+                createSignaleringVerzonden(target = "fakeBehandelaar1", subject = zaakAlreadyNotified.getObjectId())
+            )
+            every {
+                signaleringService.listSignaleringenVerzonden(
+                    SignaleringType.Type.ZAAK_VERLOPEND,
+                    SignaleringDetail.STREEFDATUM,
+                    listOf(zaakToNotify2.getObjectId())
+                )
+            } returns emptyList()
+            every {
+                signaleringService.signaleringInstance(SignaleringType.Type.ZAAK_VERLOPEND)
+            } answers { createSignalering(type = zaakVerlopendSignaleringType, zaak = null) }
+            every { signaleringService.sendSignaleringen(capture(sentBatches)) } just runs
+            every {
+                signaleringService.deleteSignaleringenVerzonden(
+                    SignaleringType.Type.ZAAK_VERLOPEND,
+                    SignaleringDetail.STREEFDATUM,
+                    listOf(zaakDueLater.getObjectId())
+                )
+            } returns 1
+            every { flowableTaskService.listOpenTasksDueNow() } returns emptyList()
+            every { flowableTaskService.listOpenTasksDueLater() } returns emptyList()
+
+            val report = zaakTaskDueDateEmailNotificationService.sendDueDateEmailNotifications()
 
-            then("one zaak due date email notifications should be sent") {
-                verify(exactly = 1) {
-                    signaleringService.sendSignalering(zaakVerlopendSignalering)
-                    signaleringService.createSignaleringVerzonden(zaakVerlopendSignalering)
-                    signaleringService.deleteSignaleringVerzonden(any())
-                }
+            then("the zaken on all pages are processed and the notifications are sent in a batch per page") {
+                sentBatches.map { batch -> batch.map { it.target to it.subject } } shouldBe listOf(
+                    listOf("fakeBehandelaar1" to zaakToNotify1.getObjectId()),
+                    listOf("fakeBehandelaar2" to zaakToNotify2.getObjectId())
+                )
+                sentBatches.flatten().map { it.detail }.toSet() shouldBe setOf(SignaleringDetail.STREEFDATUM.name)
+            }
+
+            then("the already sent notifications of zaken that are now due later are deleted") {
+                verify(exactly = 1) { signaleringService.deleteSignaleringenVerzonden(any(), any(), any()) }
+            }
+
+            then("the report contains the processed, sent and skipped zaken") {
+                report.processed shouldBe 4
+                report.sent shouldBe 2
+                report.skipped shouldBe 2
             }
         }
     }
-    given("An open task which is due now and for which a signalering was not yet sent") {
-        val defaultCatalogusURI = URI("https://example.com/dummeCatalogusURI")
-        val zaakTypeUUID1 = UUID.randomUUID()
-        val zaakTypeUUID2 = UUID.randomUUID()
-        val zaakType1 = createZaakType(
-            uri = URI("https://example.com/zaaktypes/$zaakTypeUUID1"),
-            omschrijving = "fakeZaakTypeOmschrijving1"
-        )
-        val zaakType2 = createZaakType(
-            uri = URI("https://example.com/zaaktypes/$zaakTypeUUID2"),
-            omschrijving = "fakeZaakTypeOmschrijving2"
-        )
-        val zaakTypen = listOf(zaakType1, zaakType2)
-        val zaaktypeCmmnConfiguration1 = createZaaktypeCmmnConfiguration(zaaktypeUUID = zaakTypeUUID1)
-        val zaaktypeCmmnConfiguration2 = createZaaktypeCmmnConfiguration(zaaktypeUUID = zaakTypeUUID2)
+
+    given("Open tasks which are due now of which one was already notified") {
         val assigneeName = "fakeAssignee"
         val openTask = mockk<Task>()
-        every { openTask.assignee } returns assigneeName
-        every { openTask.id } returns "fakeTaskId"
-        val taakVerlopenSignaleringType = SignaleringType().apply {
-            type = SignaleringType.Type.TAAK_VERLOPEN
-            subjecttype = SignaleringSubject.TAAK
-        }
-        val signaleringInstellingen = createSignaleringInstellingen(
-            type = taakVerlopenSignaleringType,
-            ownerType = SignaleringTarget.USER,
-            ownerId = assigneeName
-        )
-        val taakOpNaamVerlopenSignalering1 = createSignalering(
-            type = taakVerlopenSignaleringType,
-            zaak = null,
-            taskInfo = openTask
-        )
-        every { configurationService.readDefaultCatalogusURI() } returns defaultCatalogusURI
-        every { ztcClientService.listZaaktypen(defaultCatalogusURI) } returns zaakTypen
-        every {
-            zaaktypeCmmnConfigurationService.readZaaktypeCmmnConfiguration(zaakTypeUUID1)
-        } returns zaaktypeCmmnConfiguration1
-        every {
-            zaaktypeCmmnConfigurationService.readZaaktypeCmmnConfiguration(zaakTypeUUID2)
-        } returns zaaktypeCmmnConfiguration2
-        every { flowableTaskService.listOpenTasksDueNow() } returns listOf(openTask)
-        every {
-            signaleringService.readInstellingenUser(any<SignaleringType.Type>(), assigneeName)
-        } returns signaleringInstellingen
-        // signalering was not yet sent
-        every { signaleringService.findSignaleringVerzonden(any()) } returns null
-        every { signaleringService.signaleringInstance(any<SignaleringType.Type>()) } returns taakOpNaamVerlopenSignalering1
-        every { signaleringService.sendSignalering(taakOpNaamVerlopenSignalering1) } just runs
-        every { signaleringService.createSignaleringVerzonden(taakOpNaamVerlopenSignalering1) } returns mockk()
-        every { flowableTaskService.listOpenTasksDueLater() } returns emptyList()
+        val notifiedTask = mockk<Task>()
+        val taskDueLater = mockk<Task>()
+        val sentBatches = mutableListOf<List<Signalering>>()
 
         `when`("the send due date email notifications method is called") {
-            zaakTaskDueDateEmailNotificationService.sendDueDateEmailNotifications()
+            every { configurationService.readDefaultCatalogusURI() } returns defaultCatalogusURI
+            every { ztcClientService.listZaaktypen(defaultCatalogusURI) } returns emptyList()
+            every { openTask.assignee } returns assigneeName
+            every { openTask.id } returns "fakeTaskId"
+            every { notifiedTask.assignee } returns assigneeName
+            every { notifiedTask.id } returns "fakeNotifiedTaskId"
+            every { taskDueLater.id } returns "fakeTaskDueLaterId"
+            every { flowableTaskService.listOpenTasksDueNow() } returns listOf(openTask, notifiedTask)
+            every {
+                signaleringService.listUsersWithMailEnabled(SignaleringType.Type.TAAK_VERLOPEN, setOf(assigneeName))
+            } returns setOf(assigneeName)
+            every {
+                signaleringService.listSignaleringenVerzonden(
+                    SignaleringType.Type.TAAK_VERLOPEN,
+                    SignaleringDetail.STREEFDATUM,
+                    listOf("fakeTaskId", "fakeNotifiedTaskId")
+                )
+            } returns listOf(createSignaleringVerzonden(target = assigneeName, subject = "fakeNotifiedTaskId"))
+            every {
+                signaleringService.signaleringInstance(SignaleringType.Type.TAAK_VERLOPEN)
+            } answers { createSignalering(type = taakVerlopenSignaleringType, zaak = null) }
+            every { signaleringService.sendSignaleringen(capture(sentBatches)) } just runs
+            every { flowableTaskService.listOpenTasksDueLater() } returns listOf(taskDueLater)
+            every {
+                signaleringService.deleteSignaleringenVerzonden(
+                    SignaleringType.Type.TAAK_VERLOPEN,
+                    SignaleringDetail.STREEFDATUM,
+                    listOf("fakeTaskDueLaterId")
+                )
+            } returns 0
+
+            val report = zaakTaskDueDateEmailNotificationService.sendDueDateEmailNotifications()
 
-            then("one task due date email notifications should be sent") {
-                verify(exactly = 1) {
-                    signaleringService.sendSignalering(taakOpNaamVerlopenSignalering1)
-                    signaleringService.createSignaleringVerzonden(taakOpNaamVerlopenSignalering1)
-                }
+            then("only the task that was not yet notified gets a due date email notification") {
+                sentBatches.flatten().map { it.target to it.subject } shouldBe listOf(assigneeName to "fakeTaskId")
+                report.processed shouldBe 2
+                report.sent shouldBe 1
+                report.skipped shouldBe 1
             }
         }
     }
@@ -10,6 +10,7 @@ import net.atos.zac.signalering.model.SignaleringInstellingen
 import net.atos.zac.signalering.model.SignaleringSubject
 import net.atos.zac.signalering.model.SignaleringTarget
 import net.atos.zac.signalering.model.SignaleringType
+import net.atos.zac.signalering.model.SignaleringVerzonden
 import net.atos.zac.signalering.model.SignaleringZoekParameters
 import nl.info.client.zgw.drc.model.generated.EnkelvoudigInformatieObject
 import nl.info.client.zgw.model.createZaak
@@ -83,6 +84,21 @@ fun createSignaleringInstellingen(
         this.isMail = isMail
     }
 
+fun createSignaleringVerzonden(
+    type: SignaleringType = createSignaleringType(),
+    target: String = "fakeMedewerker",
+    subject: String = "fakeSubject",
+    detail: String? = null,
+    tijdstip: ZonedDateTime = ZonedDateTime.now()
+) = SignaleringVerzonden().apply {
+    this.type = type
+    this.targettype = SignaleringTarget.USER
+    this.target = target
+    this.subject = subject
+    this.detail = detail
+    this.tijdstip = tijdstip
+}
+
 fun createSignaleringZoekParameters(
     signaleringSubject: SignaleringSubject = SignaleringSubject.ZAAK,
     subject: String = "fakeSubject"
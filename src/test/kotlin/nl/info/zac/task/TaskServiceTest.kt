@@ -4,7 +4,6 @@
  */
 package nl.info.zac.task
 
-import io.kotest.assertions.throwables.shouldThrow
 import io.kotest.core.spec.style.BehaviorSpec
 import io.kotest.matchers.collections.shouldContainExactlyInAnyOrder
 import io.kotest.matchers.collections.shouldContainOnly
@@ -18,34 +17,30 @@ import io.mockk.slot
 import io.mockk.verify
 import net.atos.zac.event.EventingService
 import net.atos.zac.event.Opcode
+import net.atos.zac.flowable.ZaakVariabelenService
 import net.atos.zac.flowable.task.FlowableTaskService
-import net.atos.zac.flowable.task.exception.TaskNotFoundException
 import net.atos.zac.signalering.event.SignaleringEvent
 import net.atos.zac.websocket.event.ScreenEvent
 import net.atos.zac.websocket.event.ScreenEventType
 import nl.info.zac.app.task.model.createRestTaskAssignData
-import nl.info.zac.app.task.model.createRestTaskDistributeData
-import nl.info.zac.app.task.model.createRestTaskDistributeTask
-import nl.info.zac.app.task.model.createRestTaskReleaseData
+import nl.info.test.org.flowable.task.api.createTestTask
 import nl.info.zac.authentication.LoggedInUser
+import nl.info.zac.identity.model.createUser
 import nl.info.zac.search.IndexingService
 import nl.info.zac.search.model.zoekobject.ZoekObjectType
 import org.flowable.task.api.Task
+import java.util.UUID
 
 class TaskServiceTest : BehaviorSpec({
     val flowableTaskService = mockk<FlowableTaskService>()
     val indexingService = mockk<IndexingService>()
     val eventingService = mockk<EventingService>()
     val loggedInUser = mockk<LoggedInUser>()
-    val task1 = mockk<Task>()
-    val task2 = mockk<Task>()
     val taskService = TaskService(
         flowableTaskService = flowableTaskService,
         indexingService = indexingService,
         eventingService = eventingService,
     )
-    val taskId1 = "fakeTaskId1"
-    val taskId2 = "fakeTaskId2"
 
     afterEach {
         checkUnnecessaryStub()
@@ -154,519 +149,121 @@ class TaskServiceTest : BehaviorSpec({
         }
     }
 
-    given("Two tasks that have not yet been assigned to a specific group and user") {
-        val restTaakVerdelenTaken = listOf(
-            createRestTaskDistributeTask(
-                taakId = taskId1
-            ),
-            createRestTaskDistributeTask(
-                taakId = taskId2
-            )
-        )
-        val restTaakVerdelenGegevens = createRestTaskDistributeData(
-            taken = restTaakVerdelenTaken
-        )
-        val updatedTask1AfterAssigningGroup = mockk<Task>()
-        val updatedTask2AfterAssigningGroup = mockk<Task>()
-        val updatedTask1AfterAssigningUser = mockk<Task>()
-        val updatedTask2AfterAssigningUser = mockk<Task>()
-        val taakOpNaamSignaleringEventSlot = slot<SignaleringEvent<String>>()
-        val screenEventSlot = mutableListOf<ScreenEvent>()
-
-        every { loggedInUser.id } returns "fakeLoggedInUserId"
-        every { task1.id } returns taskId1
-        every { task2.id } returns taskId2
-        every { updatedTask1AfterAssigningUser.id } returns taskId1
-        every { updatedTask2AfterAssigningUser.id } returns taskId2
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[0].taakId) } returns task1
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[1].taakId) } returns task2
-        every {
-            flowableTaskService.assignTaskToGroup(any(), any(), any())
-        } returns updatedTask1AfterAssigningGroup andThen updatedTask2AfterAssigningGroup
-        every {
-            flowableTaskService.assignTaskToUser(any(), any(), any())
-        } returns updatedTask1AfterAssigningUser andThen updatedTask2AfterAssigningUser
-        every { eventingService.send(capture(taakOpNaamSignaleringEventSlot)) } just runs
-        every { eventingService.send(capture(screenEventSlot)) } just runs
+    given("Two open tasks from a list, of which one is assigned to a user") {
+        val zaakUUID = UUID.randomUUID()
+        val caseVariables = mapOf<String, Any>(ZaakVariabelenService.VAR_ZAAK_UUID to zaakUUID)
+        val assignedTask1 = createTestTask(id = "fakeTaskId3", caseVariables = caseVariables)
+        val assignedTask2 = createTestTask(id = "fakeTaskId4", caseVariables = caseVariables)
+        val taskIds = listOf("fakeTaskId3", "fakeTaskId4", "fakeClosedTaskId")
+        val actor = createUser()
+        val screenEvents = mutableListOf<ScreenEvent>()
         every {
-            indexingService.indexeerDirect(any<String>(), ZoekObjectType.TAAK, false)
-        } just runs
+            flowableTaskService.assignTasks(taskIds, "fakeGroupId", null, "fakeExplanation")
+        } returns listOf(assignedTask1, assignedTask2)
+        every { eventingService.send(capture(screenEvents)) } just runs
         every {
-            indexingService.commit()
+            indexingService.indexeerDirect(listOf("fakeTaskId3", "fakeTaskId4"), ZoekObjectType.TAAK, false)
         } just runs
 
-        `when`("the 'assign tasks' function is called with REST taak verdelen gegevens") {
-            taskService.assignTasks(restTaakVerdelenGegevens, loggedInUser)
-
-            then(
-                """
-                    the tasks are assigned to the group and user, the index is updated and 
-                    signalering and screen events are sent
-                    """
-            ) {
-                verify(exactly = 2) {
-                    flowableTaskService.assignTaskToGroup(any(), any(), any())
-                    flowableTaskService.assignTaskToUser(any(), any(), any())
-                }
-                verify(exactly = 2) {
-                    indexingService.indexeerDirect(
-                        any<String>(),
-                        ZoekObjectType.TAAK,
-                        false
-                    )
-                }
-                // we expect 4 screen events to be sent, 2 for each task
-                screenEventSlot.size shouldBe 4
-                screenEventSlot.map { it.objectType } shouldContainExactlyInAnyOrder listOf(
-                    ScreenEventType.TAAK,
-                    ScreenEventType.ZAAK_TAKEN,
-                    ScreenEventType.TAAK,
-                    ScreenEventType.ZAAK_TAKEN
-                )
-                screenEventSlot.map { it.opcode } shouldContainOnly listOf(
-                    Opcode.UPDATED
-                )
-            }
-        }
-    }
-    given("REST taak vrijgeven gegevens with two tasks") {
-        val restTaakVerdelenTaken = listOf(
-            createRestTaskDistributeTask(
-                taakId = taskId1
-            ),
-            createRestTaskDistributeTask(
-                taakId = taskId2
+        `when`("the tasks are assigned to a group without a user") {
+            val assignedTaskIds = taskService.assignTasksFromList(
+                taskIds = taskIds,
+                groupId = "fakeGroupId",
+                assignee = null,
+                explanation = "fakeExplanation",
+                actor = actor
             )
-        )
-        val restTaakVrijgevenGegevens = createRestTaskReleaseData(
-            taken = restTaakVerdelenTaken
-        )
-        val updatedTaskAfterRelease1 = mockk<Task>()
-        val updatedTaskAfterRelease2 = mockk<Task>()
-        val taakOpNaamSignaleringEventSlot = slot<SignaleringEvent<String>>()
-        val screenEventSlot = mutableListOf<ScreenEvent>()
 
-        every { loggedInUser.id } returns "fakeLoggedInUserId"
-        every { task1.id } returns taskId1
-        every { task2.id } returns taskId2
-        every { updatedTaskAfterRelease1.id } returns restTaakVerdelenTaken[0].taakId
-        every { updatedTaskAfterRelease2.id } returns restTaakVerdelenTaken[1].taakId
-        every { flowableTaskService.readOpenTask(taskId1) } returns task1
-        every { flowableTaskService.readOpenTask(taskId2) } returns task2
-        restTaakVrijgevenGegevens.let {
-            every { flowableTaskService.releaseTask(task1, it.reden) } returns updatedTaskAfterRelease1
-            every { flowableTaskService.releaseTask(task2, it.reden) } returns updatedTaskAfterRelease2
-        }
-        every { eventingService.send(capture(taakOpNaamSignaleringEventSlot)) } just runs
-        every { eventingService.send(capture(screenEventSlot)) } just runs
-        every {
-            indexingService.indexeerDirect(any<String>(), ZoekObjectType.TAAK, false)
-        } just runs
-        every {
-            indexingService.commit()
-        } just runs
-
-        `when`(
-            """"
-                the 'release tasks' function is called with REST taak vrijgeven gegevens               
-            """
-        ) {
-            taskService.releaseTasks(restTaakVrijgevenGegevens, loggedInUser)
-
-            then(
-                """taken are released, the index is updated and signalering and signaleringen and screen events are sent"""
-            ) {
-                verify(exactly = 2) {
-                    flowableTaskService.releaseTask(any<Task>(), any())
-                }
-                verify(exactly = 2) {
-                    indexingService.indexeerDirect(
-                        any<String>(),
-                        ZoekObjectType.TAAK,
-                        false
-                    )
-                }
-                // we expect 4 screen events to be sent, 2 for each task
-                screenEventSlot.size shouldBe 4
-                screenEventSlot.map { it.objectType } shouldContainExactlyInAnyOrder listOf(
+            then("the open tasks are assigned in one go, screen events are sent and the tasks are indexed at once") {
+                assignedTaskIds shouldBe listOf("fakeTaskId3", "fakeTaskId4")
+                screenEvents.map { it.objectType } shouldContainExactlyInAnyOrder listOf(
                     ScreenEventType.TAAK,
-                    ScreenEventType.ZAAK_TAKEN,
                     ScreenEventType.TAAK,
                     ScreenEventType.ZAAK_TAKEN
                 )
-                screenEventSlot.map { it.opcode } shouldContainOnly listOf(
-                    Opcode.UPDATED
-                )
-            }
-        }
-    }
-    given("Two open tasks that have not yet been assigned to a specific group and user") {
-        val restTaakVerdelenTaken = listOf(
-            createRestTaskDistributeTask(
-                taakId = taskId1
-            ),
-            createRestTaskDistributeTask(
-                taakId = taskId2
-            )
-        )
-        val restTaakVerdelenGegevens = createRestTaskDistributeData(
-            taken = restTaakVerdelenTaken,
-            behandelaarGebruikersnaam = null
-        )
-        val screenEventSlot = mutableListOf<ScreenEvent>()
-
-        every { task1.id } returns taskId1
-        every { task2.id } returns taskId2
-        every { task1.assignee } returns null
-        every { task2.assignee } returns null
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[0].taakId) } returns task1
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[1].taakId) } returns task2
-        every {
-            flowableTaskService.assignTaskToGroup(any(), any(), any())
-        } returns task1 andThen task2
-        every { eventingService.send(capture(screenEventSlot)) } just runs
-        every {
-            indexingService.indexeerDirect(any<String>(), ZoekObjectType.TAAK, false)
-        } just runs
-        every {
-            indexingService.commit()
-        } just runs
-
-        `when`(
-            """
-            the 'assign tasks' function is called with REST taak verdelen gegevens without a assignee
-            """
-        ) {
-            taskService.assignTasks(restTaakVerdelenGegevens, loggedInUser)
-
-            then(
-                """
-                    the tasks are assigned to the group
-                    """
-            ) {
-                verify(exactly = 2) {
-                    flowableTaskService.assignTaskToGroup(any(), any(), any())
-                }
-                // since the tasks were not assigned to a user already, they should not be released
-                // and no related screen events should be sent
-                verify(exactly = 0) {
-                    flowableTaskService.releaseTask(any<Task>(), any())
+                screenEvents.map { it.opcode } shouldContainOnly listOf(Opcode.UPDATED)
+                verify(exactly = 1) {
+                    indexingService.indexeerDirect(listOf("fakeTaskId3", "fakeTaskId4"), ZoekObjectType.TAAK, false)
                 }
             }
-        }
-    }
-    given(
-        """
-            Two tasks that have not yet been assigned to a specific group and user where the first
-            task is a historical (closed) task and the second an open task 
-            """
-    ) {
-        val restTaakVerdelenTaken = listOf(
-            createRestTaskDistributeTask(
-                taakId = taskId1
-            ),
-            createRestTaskDistributeTask(
-                taakId = taskId2
-            )
-        )
-        val restTaakVerdelenGegevens = createRestTaskDistributeData(
-            taken = restTaakVerdelenTaken,
-            behandelaarGebruikersnaam = null
-        )
-        val screenEventSlot = mutableListOf<ScreenEvent>()
-
-        every { task2.id } returns taskId2
-        every { task2.assignee } returns null
-        every {
-            flowableTaskService.readOpenTask(restTaakVerdelenTaken[0].taakId)
-        } throws TaskNotFoundException("task not found!")
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[1].taakId) } returns task2
-        every {
-            flowableTaskService.assignTaskToGroup(any(), any(), any())
-        } returns task2
-        every { eventingService.send(capture(screenEventSlot)) } just runs
-        every {
-            indexingService.indexeerDirect(any<String>(), ZoekObjectType.TAAK, false)
-        } just runs
-        every {
-            indexingService.commit()
-        } just runs
-
-        `when`("the 'assign tasks' function is called with REST taak verdelen gegevens") {
-            taskService.assignTasks(restTaakVerdelenGegevens, loggedInUser)
 
-            then(
-                """
-                    the first task is skipped and the second task is assigned to the group,
-                    """
-            ) {
-                verify(exactly = 1) {
-                    flowableTaskService.assignTaskToGroup(any(), any(), any())
-                }
-                // since the tasks were not assigned to a user already, they should not be released
-                // and no related screen events should be sent
+            then("no signalering is sent, as the tasks have no assignee") {
                 verify(exactly = 0) {
-                    flowableTaskService.releaseTask(any<Task>(), any())
+                    eventingService.send(match<SignaleringEvent<*>> { it.objectId.resource() in taskIds })
                 }
             }
         }
     }
-    given("Two open tasks that are already assigned to a specific group and user") {
-        val restTaakVerdelenTaken = listOf(
-            createRestTaskDistributeTask(
-                taakId = taskId1
-            ),
-            createRestTaskDistributeTask(
-                taakId = taskId2
-            )
-        )
-        val restTaakVerdelenGegevens = createRestTaskDistributeData(
-            taken = restTaakVerdelenTaken,
-            behandelaarGebruikersnaam = null
-        )
-        val screenEventSlot = mutableListOf<ScreenEvent>()
-        val taakOpNaamSignaleringEventSlot = slot<SignaleringEvent<String>>()
-        val releasedTask1 = mockk<Task>()
-        val releasedTask2 = mockk<Task>()
 
-        every { loggedInUser.id } returns "fakeLoggedInUserId"
-        every { task1.id } returns taskId1
-        every { task2.id } returns taskId2
-        every { releasedTask1.id } returns taskId1
-        every { releasedTask2.id } returns taskId1
-        every { task1.assignee } returns "fakeAssignee1"
-        every { task2.assignee } returns "fakeAssignee2"
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[0].taakId) } returns task1
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[1].taakId) } returns task2
+    given("An open task from a list") {
+        val caseVariables = mapOf<String, Any>(ZaakVariabelenService.VAR_ZAAK_UUID to UUID.randomUUID())
+        val assignedTask = createTestTask(id = "fakeTaskId5", assignee = "fakeAssignee", caseVariables = caseVariables)
+        val actor = createUser(id = "fakeActorId")
+        val signaleringEvent = slot<SignaleringEvent<String>>()
         every {
-            flowableTaskService.assignTaskToGroup(any(), any(), any())
-        } returns task1 andThen task2
-        every { eventingService.send(capture(screenEventSlot)) } just runs
-        every { eventingService.send(capture(taakOpNaamSignaleringEventSlot)) } just runs
-        every { flowableTaskService.releaseTask(task1, restTaakVerdelenGegevens.reden) } returns releasedTask1
-        every { flowableTaskService.releaseTask(task2, restTaakVerdelenGegevens.reden) } returns releasedTask2
+            flowableTaskService.assignTasks(listOf("fakeTaskId5"), "fakeGroupId", "fakeAssignee", null)
+        } returns listOf(assignedTask)
+        every { eventingService.send(capture(signaleringEvent)) } just runs
+        every { eventingService.send(any<ScreenEvent>()) } just runs
         every {
-            indexingService.indexeerDirect(any<String>(), ZoekObjectType.TAAK, false)
+            indexingService.indexeerDirect(listOf("fakeTaskId5"), ZoekObjectType.TAAK, false)
         } just runs
-        every {
-            indexingService.commit()
-        } just runs
-
-        `when`(
-            """
-            the 'assign tasks' function is called with REST taak verdelen gegevens without a assignee
-            """
-        ) {
-            taskService.assignTasks(restTaakVerdelenGegevens, loggedInUser)
 
-            then(
-                """
-                    the tasks are assigned to the group and released from the current assignee
-                    """
-            ) {
-                verify(exactly = 2) {
-                    flowableTaskService.assignTaskToGroup(any(), any(), any())
-                    // since the tasks were already assigned to a user already, they should also be released
-                    // and related screen events should be sent
-                    flowableTaskService.releaseTask(any<Task>(), any())
-                    eventingService.send(any<SignaleringEvent<*>>())
-                }
-                // we expect four screen events, two for every task
-                verify(exactly = 4) {
-                    eventingService.send(any<ScreenEvent>())
-                }
-            }
-        }
-    }
-    given("Two open tasks that have not yet been assigned") {
-        val restTaakVerdelenTaken = listOf(
-            createRestTaskDistributeTask(
-                taakId = taskId1
-            ),
-            createRestTaskDistributeTask(
-                taakId = taskId2
+        `when`("the task is assigned to a group and a user") {
+            taskService.assignTasksFromList(
+                taskIds = listOf("fakeTaskId5"),
+                groupId = "fakeGroupId",
+                assignee = "fakeAssignee",
+                explanation = null,
+                actor = actor
             )
-        )
-        val restTaakVerdelenGegevens = createRestTaskDistributeData(
-            taken = restTaakVerdelenTaken,
-            behandelaarGebruikersnaam = null
-        )
-        val screenEventSlot = mutableListOf<ScreenEvent>()
-        val taakOpNaamSignaleringEventSlot = slot<SignaleringEvent<String>>()
-        val releasedTask1 = mockk<Task>()
-
-        every { loggedInUser.id } returns "fakeLoggedInUserId"
-        every { task1.id } returns taskId1
-        every { releasedTask1.id } returns taskId1
-        every { task1.assignee } returns "fakeAssignee1"
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[0].taakId) } returns task1
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[1].taakId) } throws RuntimeException("fakeError")
-        every {
-            flowableTaskService.assignTaskToGroup(any(), any(), any())
-        } returns task1
-        every { eventingService.send(capture(screenEventSlot)) } just runs
-        every { eventingService.send(capture(taakOpNaamSignaleringEventSlot)) } just runs
-        every { flowableTaskService.releaseTask(task1, restTaakVerdelenGegevens.reden) } returns releasedTask1
-        every {
-            indexingService.indexeerDirect(any<String>(), ZoekObjectType.TAAK, false)
-        } just runs
-        every {
-            indexingService.commit()
-        } just runs
-
-        `when`(
-            """
-            when assigning the tasks a generic runtime exception is thrown when reading the second task 
-            """
-        ) {
-            val exception = shouldThrow<RuntimeException> {
-                taskService.assignTasks(
-                    restTaakVerdelenGegevens,
-                    loggedInUser
-                )
-            }
 
-            then(
-                """
-                    the search index is still updated and the TAKEN_VERDELEN screen event is still sent
-                    """
-            ) {
-                exception.message shouldBe "fakeError"
-                verify(exactly = 1) {
-                    indexingService.indexeerDirect(any<String>(), ZoekObjectType.TAAK, false)
-                    flowableTaskService.assignTaskToGroup(any(), any(), any())
-                }
-                // we expect two screen events, one for the one succesfully assigned task
-                // and the other for the TAKEN_VERDELEN screen event
-                screenEventSlot.size shouldBe 2
-                screenEventSlot[1].run {
-                    objectType shouldBe ScreenEventType.ZAAK_TAKEN
-                    opcode shouldBe Opcode.UPDATED
+            then("the 'taak op naam' signalering is sent on behalf of the actor") {
+                signaleringEvent.captured.run {
+                    objectId.resource() shouldBe "fakeTaskId5"
+                    this.actor shouldBe "fakeActorId"
                 }
             }
         }
     }
-    given(
-        """
-            Two tasks that have not yet been assigned to a specific group and user where the first
-            task is a historical (closed) task and the second an open task
-            """
-    ) {
-        val restTaakVerdelenTaken = listOf(
-            createRestTaskDistributeTask(
-                taakId = taskId1
-            ),
-            createRestTaskDistributeTask(
-                taakId = taskId2
-            )
-        )
-        val restTaakVrijgevenGegevens = createRestTaskReleaseData(
-            taken = restTaakVerdelenTaken
-        )
-        val screenEventSlot = mutableListOf<ScreenEvent>()
-        val taakOpNaamSignaleringEventSlot = slot<SignaleringEvent<String>>()
 
-        every { loggedInUser.id } returns "fakeLoggedInUserId"
-        every { task2.id } returns taskId2
+    given("Open tasks from a list that are assigned to a user") {
+        val caseVariables = mapOf<String, Any>(ZaakVariabelenService.VAR_ZAAK_UUID to UUID.randomUUID())
+        val releasedTask = createTestTask(id = "fakeTaskId6", caseVariables = caseVariables)
+        val taskIds = listOf("fakeTaskId6", "fakeClosedTaskId")
+        val screenEvents = mutableListOf<ScreenEvent>()
+        every { flowableTaskService.releaseTasks(taskIds, "fakeExplanation") } returns listOf(releasedTask)
+        every { eventingService.send(capture(screenEvents)) } just runs
         every {
-            flowableTaskService.readOpenTask(restTaakVerdelenTaken[0].taakId)
-        } throws TaskNotFoundException("task not found!")
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[1].taakId) } returns task2
-        every {
-            flowableTaskService.releaseTask(any(), any())
-        } returns task2
-        every { eventingService.send(capture(screenEventSlot)) } just runs
-        every { eventingService.send(capture(taakOpNaamSignaleringEventSlot)) } just runs
-        every {
-            indexingService.indexeerDirect(any<String>(), ZoekObjectType.TAAK, false)
-        } just runs
-        every {
-            indexingService.commit()
+            indexingService.indexeerDirect(listOf("fakeTaskId6"), ZoekObjectType.TAAK, false)
         } just runs
 
-        `when`("the 'release tasks' function is called with REST taak vrijgeven gegevens") {
-            taskService.releaseTasks(restTaakVrijgevenGegevens, loggedInUser)
+        `when`("the tasks are released") {
+            val releasedTaskIds = taskService.releaseTasksFromList(taskIds, "fakeExplanation", createUser())
 
-            then(
-                """
-                    the first task is skipped and the second task is released to the user,
-                    """
-            ) {
-                verify(exactly = 1) {
-                    flowableTaskService.releaseTask(any(), any())
-                }
-                // we expect twp screen events for the one succesfully released task
-                screenEventSlot.size shouldBe 2
-                screenEventSlot.map { it.objectType } shouldContainExactlyInAnyOrder listOf(
+            then("the open tasks are released in one go, screen events are sent and the tasks are indexed at once") {
+                releasedTaskIds shouldBe listOf("fakeTaskId6")
+                screenEvents.map { it.objectType } shouldContainExactlyInAnyOrder listOf(
                     ScreenEventType.TAAK,
                     ScreenEventType.ZAAK_TAKEN
                 )
-                taakOpNaamSignaleringEventSlot.captured.run {
-                    opcode shouldBe Opcode.UPDATED
-                    actor shouldBe loggedInUser.id
+                verify(exactly = 1) {
+                    indexingService.indexeerDirect(listOf("fakeTaskId6"), ZoekObjectType.TAAK, false)
                 }
             }
         }
     }
-    given("Two open tasks") {
-        val restTaakVerdelenTaken = listOf(
-            createRestTaskDistributeTask(
-                taakId = taskId1
-            ),
-            createRestTaskDistributeTask(
-                taakId = taskId2
-            )
-        )
-        val restTaakVerdelenGegevens = createRestTaskReleaseData(
-            taken = restTaakVerdelenTaken,
-        )
-        val screenEventSlot = mutableListOf<ScreenEvent>()
-        val taakOpNaamSignaleringEventSlot = slot<SignaleringEvent<String>>()
-        val releasedTask1 = mockk<Task>()
 
-        every { loggedInUser.id } returns "fakeLoggedInUserId"
-        every { task1.id } returns taskId1
-        every { releasedTask1.id } returns taskId1
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[0].taakId) } returns task1
-        every { flowableTaskService.readOpenTask(restTaakVerdelenTaken[1].taakId) } throws RuntimeException("fakeError")
-        every { eventingService.send(capture(screenEventSlot)) } just runs
-        every { eventingService.send(capture(taakOpNaamSignaleringEventSlot)) } just runs
-        every { flowableTaskService.releaseTask(task1, restTaakVerdelenGegevens.reden) } returns releasedTask1
-        every {
-            indexingService.indexeerDirect(any<String>(), ZoekObjectType.TAAK, false)
-        } just runs
-        every {
-            indexingService.commit()
-        } just runs
+    given("Tasks from a list that are all closed") {
+        every { flowableTaskService.releaseTasks(listOf("fakeClosedTaskId2"), null) } returns emptyList()
 
-        `when`(
-            """
-            when releasing the tasks a generic runtime exception is thrown when reading the second task 
-            """
-        ) {
-            val exception = shouldThrow<RuntimeException> {
-                taskService.releaseTasks(
-                    restTaakVerdelenGegevens,
-                    loggedInUser
-                )
-            }
+        `when`("the tasks are released") {
+            val releasedTaskIds = taskService.releaseTasksFromList(listOf("fakeClosedTaskId2"), null, createUser())
 
-            then(
-                """
-                    the search index is still updated and the TAKEN_VERDELEN screen event is still sent
-                    """
-            ) {
-                exception.message shouldBe "fakeError"
-                verify(exactly = 1) {
-                    indexingService.indexeerDirect(any<String>(), ZoekObjectType.TAAK, false)
-                    flowableTaskService.releaseTask(any(), any())
-                }
-                // we expect two screen events, one for the one succesfully released task
-                // and the other for the TAKEN_VERDELEN screen event
-                screenEventSlot.size shouldBe 2
-                screenEventSlot[1].run {
-                    objectType shouldBe ScreenEventType.ZAAK_TAKEN
-                    opcode shouldBe Opcode.UPDATED
+            then("nothing is released or indexed") {
+                releasedTaskIds shouldBe emptyList()
+                verify(exactly = 0) {
+                    indexingService.indexeerDirect(listOf("fakeClosedTaskId2"), ZoekObjectType.TAAK, false)
                 }
             }
         }
@@ -0,0 +1,84 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.task.bulk
+
+import io.kotest.core.spec.IsolationMode
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.checkUnnecessaryStub
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import net.atos.zac.event.EventingService
+import net.atos.zac.websocket.event.ScreenEventType
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJobItemOutcome
+import nl.info.zac.bulk.model.BulkJobProgress
+import nl.info.zac.bulk.model.BulkJobType
+import nl.info.zac.bulk.toParametersJson
+import nl.info.zac.identity.IdentityService
+import nl.info.zac.identity.model.createUser
+import nl.info.zac.search.IndexingService
+import nl.info.zac.task.TaskService
+
+class AssignTasksBulkJobHandlerTest : BehaviorSpec({
+    isolationMode = IsolationMode.InstancePerTest
+
+    val taskService = mockk<TaskService>()
+    val identityService = mockk<IdentityService>()
+    val indexingService = mockk<IndexingService>()
+    val eventingService = mockk<EventingService>()
+    val assignTasksBulkJobHandler = AssignTasksBulkJobHandler(
+        taskService,
+        identityService,
+        indexingService,
+        eventingService
+    )
+    val actor = createUser(id = "fakeActorId")
+    val taskIds = listOf("fakeTaskId1", "fakeTaskId2", "fakeClosedTaskId")
+    val job = BulkJob().apply {
+        type = BulkJobType.TAKEN_VERDELEN
+        parameters = toParametersJson(AssignTasksBulkJobHandler.Parameters("fakeGroupId", "fakeUserId", "fakeExplanation"))
+        screenEventResourceId = "fakeScreenEventResourceId"
+        createdBy = actor.id
+        total = taskIds.size
+    }
+
+    afterEach {
+        checkUnnecessaryStub()
+    }
+
+    given("A job to assign three tasks, of which one is no longer open") {
+        every { identityService.readUser(actor.id) } returns actor
+        every {
+            taskService.assignTasksFromList(taskIds, "fakeGroupId", "fakeUserId", "fakeExplanation", actor)
+        } returns listOf("fakeTaskId1", "fakeTaskId2")
+        every { indexingService.commit() } just runs
+        every { eventingService.send(ScreenEventType.TAKEN_VERDELEN.updated("fakeScreenEventResourceId")) } just runs
+
+        `when`("the job is run") {
+            val execution = assignTasksBulkJobHandler.start(job)
+            val outcomes = execution.process(taskIds)
+            execution.finish(BulkJobProgress(total = 3, done = 2, skipped = 1, failed = 0))
+
+            then("the open tasks are assigned in one batch on behalf of the submitter, and the closed task is skipped") {
+                outcomes shouldBe mapOf(
+                    "fakeTaskId1" to BulkJobItemOutcome.DONE,
+                    "fakeTaskId2" to BulkJobItemOutcome.DONE,
+                    "fakeClosedTaskId" to BulkJobItemOutcome.skipped("No open task")
+                )
+            }
+
+            then("the search index is committed and a final screen event is sent") {
+                verify(exactly = 1) {
+                    indexingService.commit()
+                    eventingService.send(ScreenEventType.TAKEN_VERDELEN.updated("fakeScreenEventResourceId"))
+                }
+            }
+        }
+    }
+})
@@ -13,12 +13,14 @@ import io.mockk.just
 import io.mockk.mockk
 import io.mockk.mockkStatic
 import io.mockk.runs
+import io.mockk.slot
 import io.mockk.unmockkStatic
 import io.mockk.verify
 import jakarta.enterprise.inject.Instance
 import jakarta.enterprise.inject.spi.CDI
 import jakarta.servlet.http.HttpSession
 import nl.info.client.zgw.drc.DrcClientService
+import nl.info.client.zgw.drc.model.EnkelvoudigInformatieobjectContent
 import nl.info.client.zgw.drc.model.createEnkelvoudigInformatieObject
 import nl.info.webdav.ITransaction
 import nl.info.zac.app.informatieobjecten.EnkelvoudigInformatieObjectUpdateService
@@ -26,6 +28,8 @@ import nl.info.zac.authentication.LoggedInUser
 import nl.info.zac.authentication.setLoggedInUser
 import java.io.ByteArrayInputStream
 import java.io.File
+import java.nio.file.Files
+import java.nio.file.Path
 import java.util.UUID
 
 class WebdavStoreTest : BehaviorSpec({
@@ -82,13 +86,15 @@ class WebdavStoreTest : BehaviorSpec({
 
         `when`("getResourceContent is called with a valid token URI") {
             val inputStream = ByteArrayInputStream(byteArrayOf(1, 2, 3))
-            every { drcClientService.downloadEnkelvoudigInformatieobject(documentUUID) } returns inputStream
+            val content = mockk<EnkelvoudigInformatieobjectContent>()
+            every { drcClientService.streamEnkelvoudigInformatieobject(documentUUID) } returns content
+            every { content.inputStream } returns inputStream
 
             val result = webdavStore.getResourceContent(noTransaction, "/webdav/folder/$token.docx")
 
-            then("it returns the InputStream downloaded from DRC") {
+            then("it returns the InputStream streamed from DRC") {
                 result shouldBe inputStream
-                verify(exactly = 1) { drcClientService.downloadEnkelvoudigInformatieobject(documentUUID) }
+                verify(exactly = 1) { drcClientService.streamEnkelvoudigInformatieobject(documentUUID) }
             }
         }
 
@@ -127,14 +133,20 @@ class WebdavStoreTest : BehaviorSpec({
                 uuid = documentUUID,
                 bestandsomvang = 5
             )
+            val contentFile = slot<Path>()
+            var uploadedContent: ByteArray? = null
             every { setLoggedInUser(httpSession, loggedInUser) } just runs
             every {
                 enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
                     documentUUID,
                     any(),
-                    "Document bewerkt"
+                    "Document bewerkt",
+                    capture(contentFile)
                 )
-            } returns updatedDocument
+            } answers {
+                uploadedContent = Files.readAllBytes(contentFile.captured)
+                updatedDocument
+            }
 
             val result = webdavStore.setResourceContent(
                 noTransaction,
@@ -144,15 +156,10 @@ class WebdavStoreTest : BehaviorSpec({
                 null
             )
 
-            then("it updates the document in DRC and returns the updated file size") {
+            then("it updates the document in DRC from a temporary file and returns the updated file size") {
                 result shouldBe 5L
-                verify(exactly = 1) {
-                    enkelvoudigInformatieObjectUpdateService.updateEnkelvoudigInformatieObjectWithLockData(
-                        documentUUID,
-                        any(),
-                        "Document bewerkt"
-                    )
-                }
+                uploadedContent shouldBe byteArrayOf(1, 2, 3, 4, 5)
+                Files.exists(contentFile.captured) shouldBe false
             }
         }
     }
@@ -0,0 +1,108 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.websocket
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.kotest.core.spec.IsolationMode
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.string.shouldContain
+import io.mockk.checkUnnecessaryStub
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.slot
+import io.mockk.verify
+import jakarta.websocket.RemoteEndpoint
+import jakarta.websocket.Session
+import net.atos.zac.websocket.SessionRegistry
+import net.atos.zac.websocket.event.createScreenEvent
+import net.atos.zac.websocket.event.createScreenEventId
+import nl.info.zac.websocket.ScreenEventBus.Companion.CHANNEL
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.util.concurrent.CompletableFuture
+import javax.sql.DataSource
+
+class ScreenEventBusTest : BehaviorSpec({
+    isolationMode = IsolationMode.InstancePerTest
+
+    val sessionRegistry = SessionRegistry()
+    val dataSource = mockk<DataSource>()
+    val screenEventBus = ScreenEventBus(sessionRegistry, mockk()).apply {
+        this.dataSource = dataSource
+    }
+    val session = mockk<Session>()
+    val remote = mockk<RemoteEndpoint.Async>()
+    val screenEvent = createScreenEvent(screenEventId = createScreenEventId(resource = "fakeResource1"))
+    val otherScreenEvent = createScreenEvent(screenEventId = createScreenEventId(resource = "fakeResource2"))
+    sessionRegistry.create(screenEvent, session)
+
+    afterEach {
+        checkUnnecessaryStub()
+    }
+
+    given("Screen events published on this node") {
+        val json = ObjectMapper().writeValueAsString(screenEvent)
+        val otherJson = ObjectMapper().writeValueAsString(otherScreenEvent)
+        val connection = mockk<Connection>()
+        val statement = mockk<PreparedStatement>()
+        val payload = slot<String>()
+        every { session.asyncRemote } returns remote
+        every { remote.sendText(json) } returns CompletableFuture.completedFuture(null)
+        every { dataSource.connection } returns connection
+        every { connection.prepareStatement(any()) } returns statement
+        every { statement.setString(1, CHANNEL) } just runs
+        every { statement.setString(2, capture(payload)) } just runs
+        every { statement.execute() } returns true
+        every { statement.close() } just runs
+        every { connection.close() } just runs
+
+        `when`("the events are flushed") {
+            screenEventBus.publish(screenEvent)
+            screenEventBus.publish(screenEvent)
+            screenEventBus.publish(otherScreenEvent)
+            screenEventBus.flush()
+
+            then("each event is delivered once to the subscribers on this node, and sent to the other nodes at once") {
+                payload.captured shouldContain "|[$json,$otherJson]"
+                // the notification is ignored when it is received by the same node
+                screenEventBus.onNotification(payload.captured)
+                verify(exactly = 1) {
+                    remote.sendText(json)
+                    statement.execute()
+                }
+            }
+        }
+    }
+
+    given("A screen event published by another node") {
+        val json = ObjectMapper().writeValueAsString(screenEvent)
+        every { session.asyncRemote } returns remote
+        every { remote.sendText(json) } returns CompletableFuture.completedFuture(null)
+
+        `when`("the notification is received") {
+            screenEventBus.onNotification("fakeNodeId|[$json]")
+
+            then("the event is delivered to the subscribers on this node") {
+                verify(exactly = 1) {
+                    remote.sendText(json)
+                }
+            }
+        }
+    }
+
+    given("No published screen events") {
+        `when`("the events are flushed") {
+            screenEventBus.flush()
+
+            then("no notification is sent") {
+                verify(exactly = 0) {
+                    dataSource.connection
+                }
+            }
+        }
+    }
+})
@@ -22,10 +22,8 @@ import io.mockk.verifyOrder
 import nl.info.client.zgw.zrc.model.Rol
 import nl.info.client.zgw.zrc.model.RolNietNatuurlijkPersoon
 import net.atos.zac.event.EventingService
-import net.atos.zac.event.Opcode
 import net.atos.zac.flowable.ZaakVariabelenService
 import net.atos.zac.flowable.exception.CaseOrProcessNotFoundException
-import net.atos.zac.websocket.event.ScreenEvent
 import net.atos.zac.websocket.event.ScreenEventType
 import nl.info.client.pabc.PabcClientService
 import nl.info.client.pabc.model.createPabcGroupRepresentation
@@ -56,6 +54,8 @@ import nl.info.client.zgw.ztc.model.generated.AfleidingswijzeEnum
 import nl.info.client.zgw.ztc.model.generated.OmschrijvingGeneriekEnum
 import nl.info.zac.app.klant.model.klant.IdentificatieType
 import nl.info.zac.authentication.createLoggedInUser
+import nl.info.zac.bulk.model.BulkJobItemOutcome
+import nl.info.zac.bulk.model.BulkJobItemStatus
 import nl.info.zac.configuration.ConfigurationService
 import nl.info.zac.flowable.bpmn.BpmnService
 import nl.info.zac.identity.IdentityService
@@ -94,7 +94,6 @@ class ZaakServiceTest : BehaviorSpec({
         pabcClientService = pabcClientService
     )
     val explanation = "fakeExplanation"
-    val screenEventResourceId = "fakeResourceId"
 
     afterEach {
         checkUnnecessaryStub()
@@ -504,193 +503,109 @@ class ZaakServiceTest : BehaviorSpec({
         }
     }
 
-    context("Assigning zaken") {
+    context("Assigning zaken from a list") {
         given(
             """
-                A list of open zaken and a group that is authorised for the application role 'behandelaar' and the zaaktype of the zaken,
-                and a user
+                Two open zaken of the same zaaktype, a group that is authorised for the application role 'behandelaar'
+                and the zaaktype of the zaken, and a user
                 """
         ) {
             val zaaktypeUUID = UUID.randomUUID()
-            val zaaktype = createZaakType(
-                uri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID")
-            )
-            val zaken = listOf(
-                createZaak(
-                    zaaktypeUri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID")
-                ),
-                createZaak(
-                    zaaktypeUri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID")
-                )
-            )
+            val zaaktypeUri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID")
+            val zaaktype = createZaakType(uri = zaaktypeUri)
+            val zaken = listOf(createZaak(zaaktypeUri = zaaktypeUri), createZaak(zaaktypeUri = zaaktypeUri))
             val user = createUser()
             val group = createGroup()
             val rolTypeBehandelaar = createRolType(
                 omschrijvingGeneriek = OmschrijvingGeneriekEnum.BEHANDELAAR
             )
-            val pabcGroupRepresentation = createPabcGroupRepresentation(
-                name = group.name,
-                description = group.description
-            )
-            val screenEventSlot = slot<ScreenEvent>()
+            val lookups = ZaakAssignmentLookups()
             zaken.forEach {
                 every { zrcClientService.readZaak(it.uuid) } returns it
-                every {
-                    ztcClientService.readRoltype(
-                        it.zaaktype,
-                        OmschrijvingGeneriekEnum.BEHANDELAAR,
-                        ROLTYPE_OMSCHRIJVING_BEHANDELAAR
-                    )
-                } returns rolTypeBehandelaar
                 every { zrcClientService.updateRol(it, any(), explanation) } just Runs
-                every { eventingService.send(capture(screenEventSlot)) } just Runs
             }
-            every { identityService.isUserInGroup(user.id, group.name) } returns true
+            every {
+                ztcClientService.readRoltype(zaaktypeUri, OmschrijvingGeneriekEnum.BEHANDELAAR, ROLTYPE_OMSCHRIJVING_BEHANDELAAR)
+            } returns rolTypeBehandelaar
             every { ztcClientService.readZaaktype(zaaktypeUUID) } returns zaaktype
             every {
                 pabcClientService.getGroupsByApplicationRoleAndZaaktype(
                     applicationRole = "behandelaar",
                     zaaktypeDescription = zaaktype.omschrijving
                 )
-            } returns listOf(pabcGroupRepresentation)
-
-            `when`("the assign zaken function is called with a group, a user and a screen event resource id") {
-                zaakService.assignZaken(
-                    zaakUUIDs = zaken.map { it.uuid },
-                    explanation = explanation,
-                    group = group,
-                    user = user,
-                    screenEventResourceId = screenEventResourceId
-                )
+            } returns listOf(createPabcGroupRepresentation(name = group.name, description = group.description))
+
+            `when`("both zaken are assigned to the group and the user with the same lookups") {
+                val outcomes = zaken.map {
+                    zaakService.assignZaakFromList(it.uuid, group, user, explanation, lookups)
+                }
 
                 then(
-                    """for all zaken the group and user roles 
-                and the search index should be updated and
-                a screen event of type 'zaken verdelen' should be sent"""
+                    """the group and user roles of both zaken are updated,
+                    while the zaaktype and its roltype are only looked up once"""
                 ) {
-                    zaken.map {
+                    outcomes.forEach { it shouldBe BulkJobItemOutcome.DONE }
+                    zaken.forEach {
                         verify(exactly = 2) {
                             zrcClientService.updateRol(it, any(), explanation)
                         }
                     }
-                    with(screenEventSlot.captured) {
-                        opcode shouldBe Opcode.UPDATED
-                        objectType shouldBe ScreenEventType.ZAKEN_VERDELEN
-                        objectId.resource shouldBe screenEventResourceId
+                    verify(exactly = 1) {
+                        ztcClientService.readZaaktype(zaaktypeUUID)
+                        ztcClientService.readRoltype(
+                            zaaktypeUri,
+                            OmschrijvingGeneriekEnum.BEHANDELAAR,
+                            ROLTYPE_OMSCHRIJVING_BEHANDELAAR
+                        )
                     }
                 }
             }
         }
 
-        given(
-            """
-            One open and one closed zaak and a group that is authorised for the application role 'behandelaar' and the zaaktype of the zaak,
-             and a user
-            """
-        ) {
-            val zaaktypeUUID = UUID.randomUUID()
-            val zaaktype = createZaakType(
-                uri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID")
-            )
-            val openZaak = createZaak(
-                zaaktypeUri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID")
-            )
-            val closedZaak = createZaak(
-                archiefnominatie = ArchiefnominatieEnum.VERNIETIGEN
-            )
-            val zakenList = listOf(openZaak, closedZaak)
+        given("A closed zaak, a group and a user") {
+            val closedZaak = createZaak(archiefnominatie = ArchiefnominatieEnum.VERNIETIGEN)
             val group = createGroup()
-            val pabcGroupRepresentation = createPabcGroupRepresentation(
-                name = group.name,
-                description = group.description
-            )
             val user = createUser()
-            val rolTypeBehandelaar = createRolType(
-                omschrijvingGeneriek = OmschrijvingGeneriekEnum.BEHANDELAAR
-            )
-            zakenList.forEach {
-                every { zrcClientService.readZaak(it.uuid) } returns it
-            }
-            every { ztcClientService.readZaaktype(zaaktypeUUID) } returns zaaktype
-            every {
-                ztcClientService.readRoltype(
-                    openZaak.zaaktype,
-                    OmschrijvingGeneriekEnum.BEHANDELAAR,
-                    ROLTYPE_OMSCHRIJVING_BEHANDELAAR
-                )
-            } returns rolTypeBehandelaar
-            every { zrcClientService.updateRol(openZaak, any(), explanation) } just Runs
-            every {
-                pabcClientService.getGroupsByApplicationRoleAndZaaktype("behandelaar", zaaktype.omschrijving)
-            } returns listOf(pabcGroupRepresentation)
-            every { eventingService.send(any<ScreenEvent>()) } just Runs
-            every { identityService.isUserInGroup(user.id, group.name) } returns true
-
-            `when`(
-                """the assign zaken function is called with a group, a user
-                and a screen event resource id"""
-            ) {
-                zaakService.assignZaken(
-                    zaakUUIDs = zakenList.map { it.uuid },
-                    explanation = explanation,
-                    group = group,
-                    user = user,
-                    screenEventResourceId = screenEventResourceId
-                )
+            every { zrcClientService.readZaak(closedZaak.uuid) } returns closedZaak
+            every { eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(closedZaak)) } just Runs
 
-                then(
-                    """
-                    only for the open zaak the group and user roles 
-                    and the search index should be updated and
-                    a screen event of type 'zaken verdelen' should sent
-                    and the closed zaak should be skipped
-                    """
-                ) {
-                    // only the open zaak should have group and user roles assigned to it
-                    verify(exactly = 2) {
-                        zrcClientService.updateRol(openZaak, any(), explanation)
-                    }
+            `when`("the zaak is assigned to the group and the user") {
+                val outcome = zaakService.assignZaakFromList(closedZaak.uuid, group, user, explanation)
+
+                then("the zaak is skipped and a skipped screen event is sent for it") {
+                    outcome.status shouldBe BulkJobItemStatus.SKIPPED
                     verify(exactly = 1) {
                         eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(closedZaak))
-                        eventingService.send(ScreenEventType.ZAKEN_VERDELEN.updated(screenEventResourceId))
+                    }
+                    verify(exactly = 0) {
+                        zrcClientService.updateRol(closedZaak, any(), any())
                     }
                 }
             }
         }
 
-        given(
-            """
-                A list of zaken and a failing ZRC client service that throws an exception when retrieving the second zaak
-            """
-        ) {
-            val zaken = listOf(
-                createZaak(),
-                createZaak()
-            )
+        given("An open zaak and a group that is not authorised for the zaaktype of the zaak") {
+            val zaaktypeUUID = UUID.randomUUID()
+            val zaaktype = createZaakType(uri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID"))
+            val zaak = createZaak(zaaktypeUri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID"))
             val group = createGroup()
-            every { zrcClientService.readZaak(zaken[0].uuid) } returns zaken[0]
-            every { zrcClientService.readZaak(zaken[1].uuid) } throws RuntimeException("fakeRuntimeException")
-
-            `when`(
-                """the assign zaken function is called with a group
-                and a screen event resource id"""
-            ) {
-                shouldThrow<RuntimeException> {
-                    zaakService.assignZaken(
-                        zaakUUIDs = zaken.map { it.uuid },
-                        explanation = explanation,
-                        group = group,
-                        screenEventResourceId = screenEventResourceId
-                    )
-                }
-                then(
-                    """the exception should be thrown and for neither of the zaken 
-                    the group and user role nor the search index should be updated
-                    and no screen event of type 'zaken verdelen' should be sent"""
-                ) {
+            every { zrcClientService.readZaak(zaak.uuid) } returns zaak
+            every { ztcClientService.readZaaktype(zaaktypeUUID) } returns zaaktype
+            every {
+                pabcClientService.getGroupsByApplicationRoleAndZaaktype("behandelaar", zaaktype.omschrijving)
+            } returns listOf(createPabcGroupRepresentation(name = "fakeOtherGroup"))
+            every { eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(zaak)) } just Runs
+
+            `when`("the zaak is assigned to the group") {
+                val outcome = zaakService.assignZaakFromList(zaak.uuid, group, explanation = explanation)
+
+                then("the zaak is skipped and a skipped screen event is sent for it") {
+                    outcome.status shouldBe BulkJobItemStatus.SKIPPED
+                    verify(exactly = 1) {
+                        eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(zaak))
+                    }
                     verify(exactly = 0) {
-                        zrcClientService.updateRol(any(), any(), explanation)
-                        eventingService.send(any<ScreenEvent>())
+                        zrcClientService.updateRol(zaak, any(), any())
                     }
                 }
             }
@@ -698,225 +613,77 @@ class ZaakServiceTest : BehaviorSpec({
 
         given(
             """
-                A list of zaken and a group that is authorised for the application role 'behandelaar' and the zaaktype of the zaken,
-                and a user
+                An open zaak with a behandelaar and a group that is authorised for the application role 'behandelaar'
+                and the zaaktype of the zaak
                 """
         ) {
             val zaaktypeUUID = UUID.randomUUID()
-            val zaaktype = createZaakType(
-                uri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID")
-            )
-            val zaken = listOf(
-                createZaak(
-                    zaaktypeUri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID")
-                ),
-                createZaak(
-                    zaaktypeUri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID")
-                )
-            )
+            val zaaktype = createZaakType(uri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID"))
+            val zaak = createZaak(zaaktypeUri = URI.create("https://ztc/zaaktypen/$zaaktypeUUID"))
             val group = createGroup()
-            val pabcGroupRepresentation = createPabcGroupRepresentation(
-                name = group.name,
-                description = group.description
-            )
             val rolTypeBehandelaar = createRolType(
                 omschrijvingGeneriek = OmschrijvingGeneriekEnum.BEHANDELAAR
             )
-            val screenEventSlot = slot<ScreenEvent>()
+            val rolMedewerker = createRolMedewerker(rolType = rolTypeBehandelaar)
+            every { zrcClientService.readZaak(zaak.uuid) } returns zaak
             every { ztcClientService.readZaaktype(zaaktypeUUID) } returns zaaktype
             every {
-                pabcClientService.getGroupsByApplicationRoleAndZaaktype(
-                    applicationRole = "behandelaar",
-                    zaaktypeDescription = zaaktype.omschrijving
-                )
-            } returns listOf(
-                pabcGroupRepresentation
-            )
-            zaken.forEach {
-                every { zrcClientService.readZaak(it.uuid) } returns it
-                every {
-                    ztcClientService.readRoltype(
-                        it.zaaktype,
-                        OmschrijvingGeneriekEnum.BEHANDELAAR,
-                        ROLTYPE_OMSCHRIJVING_BEHANDELAAR
-                    )
-                } returns rolTypeBehandelaar
-                every { zrcClientService.updateRol(it, any(), explanation) } just Runs
-                every { zrcClientService.listRollen(it) } returns listOf(createRolMedewerker(rolType = rolTypeBehandelaar))
-                every { zrcClientService.deleteRol(any<Rol<*>>(), explanation) } just Runs
-                every { eventingService.send(capture(screenEventSlot)) } just Runs
-            }
-
-            `when`(
-                """the assign zaken function is called with a group, WITHOUT a user
-                and with a screen event resource id"""
-            ) {
-                zaakService.assignZaken(
-                    zaakUUIDs = zaken.map { it.uuid },
-                    explanation = explanation,
-                    group = group,
-                    screenEventResourceId = screenEventResourceId
-                )
-
-                then(
-                    """for both zaken the group roles should be updated
-                    and the user roles should be deleted"""
-                ) {
-                    zaken.forEach {
-                        verify(exactly = 1) {
-                            zrcClientService.updateRol(it, any(), explanation)
-                        }
-                    }
-                    verify(exactly = 2) {
-                        zrcClientService.deleteRol(any<Rol<*>>(), explanation)
-                    }
-                }
-            }
-        }
+                pabcClientService.getGroupsByApplicationRoleAndZaaktype("behandelaar", zaaktype.omschrijving)
+            } returns listOf(createPabcGroupRepresentation(name = group.name, description = group.description))
+            every {
+                ztcClientService.readRoltype(zaak.zaaktype, OmschrijvingGeneriekEnum.BEHANDELAAR, ROLTYPE_OMSCHRIJVING_BEHANDELAAR)
+            } returns rolTypeBehandelaar
+            every { zrcClientService.updateRol(zaak, any(), explanation) } just Runs
+            every { zrcClientService.listRollen(zaak) } returns listOf(rolMedewerker)
+            every { zrcClientService.deleteRol(rolMedewerker, explanation) } just Runs
 
-        given("A list of zaken and a group, but user is not in group") {
-            val zaken = listOf(
-                createZaak(),
-                createZaak()
-            )
-            val group = createGroup()
-            val user = createUser()
-            val screenEventSlot = slot<ScreenEvent>()
-            zaken.forEach {
-                every { zrcClientService.readZaak(it.uuid) } returns it
-            }
-            every { identityService.isUserInGroup(user.id, group.name) } returns false
-            every { eventingService.send(capture(screenEventSlot)) } just Runs
-
-            `when`("the assign zaken function is called with a group, a user and a screen event resource id") {
-                zaakService.assignZaken(
-                    zaakUUIDs = zaken.map { it.uuid },
-                    explanation = explanation,
-                    group = group,
-                    user = user,
-                    screenEventResourceId = screenEventResourceId
-                )
+            `when`("the zaak is assigned to the group WITHOUT a user") {
+                val outcome = zaakService.assignZaakFromList(zaak.uuid, group, explanation = explanation)
 
-                then("the skipped screenevent is sent for ZAKEN_VERDELEN with the resource id") {
+                then("the group role of the zaak is updated and its behandelaar role is deleted") {
+                    outcome shouldBe BulkJobItemOutcome.DONE
                     verify(exactly = 1) {
-                        eventingService.send(ScreenEventType.ZAKEN_VERDELEN.skipped(screenEventResourceId))
+                        zrcClientService.updateRol(zaak, any(), explanation)
+                        zrcClientService.deleteRol(rolMedewerker, explanation)
                     }
                 }
             }
         }
+    }
 
-        given("A list of zaken and a user not belonging to a group") {
-            val zaken = listOf(
-                createZaak(),
-                createZaak()
-            )
-            val group = createGroup()
-            val user = createUser()
-            val screenEventSlot = slot<ScreenEvent>()
-            zaken.forEach {
-                every { zrcClientService.readZaak(it.uuid) } returns it
-                every { eventingService.send(capture(screenEventSlot)) } just Runs
-            }
-            every { identityService.isUserInGroup(user.id, group.name) } returns false
-
-            `when`("the assign zaken function is called") {
-                zaakService.assignZaken(
-                    zaakUUIDs = zaken.map { it.uuid },
-                    explanation = explanation,
-                    group = group,
-                    user = user,
-                    screenEventResourceId = screenEventResourceId
-                )
+    context("Releasing zaken from a list") {
+        given("An open zaak") {
+            val zaak = createZaak()
+            every { zrcClientService.readZaak(zaak.uuid) } returns zaak
+            every { zrcClientService.deleteRol(zaak, BetrokkeneTypeEnum.MEDEWERKER, explanation) } just Runs
 
-                then("all the zaken should be skipped") {
-                    verify(exactly = 1) {
-                        eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(zaken[0]))
-                        eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(zaken[1]))
-                    }
-                }
+            `when`("the zaak is released") {
+                val outcome = zaakService.releaseZaakFromList(zaak.uuid, explanation)
 
-                And("a final screen event of type 'zaken verdelen' should be skipped") {
-                    with(screenEventSlot.captured) {
-                        opcode shouldBe Opcode.SKIPPED
-                        objectType shouldBe ScreenEventType.ZAKEN_VERDELEN
-                        objectId.resource shouldBe screenEventResourceId
+                then("the zaak no longer has a user assigned, but the group is still assigned") {
+                    outcome shouldBe BulkJobItemOutcome.DONE
+                    verify(exactly = 1) {
+                        zrcClientService.deleteRol(zaak, BetrokkeneTypeEnum.MEDEWERKER, explanation)
                     }
                 }
             }
         }
-    }
 
-    context("Releasing zaken") {
-        given("A list of zaken and a screen event resource id") {
-            val zaken = listOf(
-                createZaak(),
-                createZaak()
-            )
-            val screenEventSlot = slot<ScreenEvent>()
-            zaken.forEach {
-                every { zrcClientService.readZaak(it.uuid) } returns it
-                every { zrcClientService.deleteRol(it, any(), explanation) } just Runs
-            }
-            every { eventingService.send(capture(screenEventSlot)) } just Runs
-            `when`(
-                """the release zaken function is called with
-                 a screen event resource id"""
-            ) {
-                zaakService.releaseZaken(
-                    zaakUUIDs = zaken.map { it.uuid },
-                    explanation = explanation,
-                    screenEventResourceId = screenEventResourceId
-                )
-                then(
-                    """both zaken should no longer have a user assigned
-                     but the group should still be assigned
-                    and the search index should be updated and
-                    a screen event of type 'zaken vrijgeven' should sent"""
-                ) {
-                    zaken.map {
-                        verify(exactly = 1) {
-                            zrcClientService.deleteRol(it, BetrokkeneTypeEnum.MEDEWERKER, explanation)
-                        }
-                    }
-                    with(screenEventSlot.captured) {
-                        opcode shouldBe Opcode.UPDATED
-                        objectType shouldBe ScreenEventType.ZAKEN_VRIJGEVEN
-                        objectId.resource shouldBe screenEventResourceId
-                    }
-                }
-            }
-        }
+        given("A closed zaak") {
+            val closedZaak = createZaak(archiefnominatie = ArchiefnominatieEnum.VERNIETIGEN)
+            every { zrcClientService.readZaak(closedZaak.uuid) } returns closedZaak
+            every { eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(closedZaak)) } just Runs
 
-        given("One open and one closed zaak and a screen event resource id") {
-            val openZaak = createZaak()
-            val closedZaak = createZaak(
-                archiefnominatie = ArchiefnominatieEnum.VERNIETIGEN
-            )
-            val zakenList = listOf(openZaak, closedZaak)
-            zakenList.map {
-                every { zrcClientService.readZaak(it.uuid) } returns it
-            }
-            every { zrcClientService.deleteRol(openZaak, any(), explanation) } just Runs
-            every { eventingService.send(any<ScreenEvent>()) } just Runs
-            `when`(
-                """the release zaken function is called with
-                 a screen event resource id"""
-            ) {
-                zaakService.releaseZaken(
-                    zaakUUIDs = zakenList.map { it.uuid },
-                    explanation = explanation,
-                    screenEventResourceId = screenEventResourceId
-                )
-                then(
-                    """only the open zaak should no longer have a user assigned
-                     but the group should still be assigned
-                    and the search index should be updated and
-                    a screen event of type 'zaken vrijgeven' should sent"""
-                ) {
+            `when`("the zaak is released") {
+                val outcome = zaakService.releaseZaakFromList(closedZaak.uuid, explanation)
+
+                then("the zaak is skipped and a skipped screen event is sent for it") {
+                    outcome.status shouldBe BulkJobItemStatus.SKIPPED
                     verify(exactly = 1) {
-                        zrcClientService.deleteRol(openZaak, BetrokkeneTypeEnum.MEDEWERKER, explanation)
                         eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(closedZaak))
-                        eventingService.send(ScreenEventType.ZAKEN_VRIJGEVEN.updated(screenEventResourceId))
+                    }
+                    verify(exactly = 0) {
+                        zrcClientService.deleteRol(closedZaak, any(), any())
                     }
                 }
             }
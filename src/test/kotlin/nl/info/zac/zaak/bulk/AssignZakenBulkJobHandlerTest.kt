@@ -0,0 +1,110 @@
+/*
+ * SPDX-FileCopyrightText: 2026 INFO.nl
+ * SPDX-License-Identifier: EUPL-1.2+
+ */
+package nl.info.zac.zaak.bulk
+
+import io.kotest.core.spec.IsolationMode
+import io.kotest.core.spec.style.BehaviorSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.checkUnnecessaryStub
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.slot
+import io.mockk.verify
+import net.atos.zac.event.EventingService
+import net.atos.zac.websocket.event.ScreenEventType
+import nl.info.zac.bulk.model.BulkJob
+import nl.info.zac.bulk.model.BulkJobItemOutcome
+import nl.info.zac.bulk.model.BulkJobItemStatus
+import nl.info.zac.bulk.model.BulkJobProgress
+import nl.info.zac.bulk.model.BulkJobType
+import nl.info.zac.bulk.toParametersJson
+import nl.info.zac.identity.IdentityService
+import nl.info.zac.identity.model.createGroup
+import nl.info.zac.identity.model.createUser
+import nl.info.zac.zaak.ZaakAssignmentLookups
+import nl.info.zac.zaak.ZaakService
+import java.util.UUID
+
+class AssignZakenBulkJobHandlerTest : BehaviorSpec({
+    isolationMode = IsolationMode.InstancePerTest
+
+    val zaakService = mockk<ZaakService>()
+    val identityService = mockk<IdentityService>()
+    val eventingService = mockk<EventingService>()
+    val assignZakenBulkJobHandler = AssignZakenBulkJobHandler(zaakService, identityService, eventingService)
+    val group = createGroup()
+    val user = createUser()
+    val zaakUUIDs = listOf(UUID.randomUUID(), UUID.randomUUID())
+    val job = BulkJob().apply {
+        type = BulkJobType.ZAKEN_VERDELEN
+        parameters = toParametersJson(AssignZakenBulkJobHandler.Parameters(group.name, user.id, "fakeExplanation"))
+        screenEventResourceId = "fakeScreenEventResourceId"
+        total = zaakUUIDs.size
+    }
+    val progress = BulkJobProgress(total = 2, done = 2, skipped = 0, failed = 0)
+
+    afterEach {
+        checkUnnecessaryStub()
+    }
+
+    given("A job to assign two zaken to a group and a user in that group") {
+        val lookups = slot<ZaakAssignmentLookups>()
+        every { identityService.readGroup(group.name) } returns group
+        every { identityService.readUser(user.id) } returns user
+        every { identityService.isUserInGroup(user.id, group.name) } returns true
+        every {
+            zaakService.assignZaakFromList(any(), group, user, "fakeExplanation", capture(lookups))
+        } returns BulkJobItemOutcome.DONE
+        every { eventingService.send(ScreenEventType.ZAKEN_VERDELEN.updated("fakeScreenEventResourceId")) } just runs
+
+        `when`("the job is run") {
+            val execution = assignZakenBulkJobHandler.start(job)
+            val outcomes = zaakUUIDs.map { execution.process(listOf(it.toString())) }
+            execution.finish(progress)
+
+            then("the zaken are assigned, sharing the lookups, and a final screen event is sent") {
+                outcomes shouldBe zaakUUIDs.map { mapOf(it.toString() to BulkJobItemOutcome.DONE) }
+                zaakUUIDs.forEach {
+                    verify(exactly = 1) {
+                        zaakService.assignZaakFromList(it, group, user, "fakeExplanation", lookups.captured)
+                    }
+                }
+                verify(exactly = 1) {
+                    eventingService.send(ScreenEventType.ZAKEN_VERDELEN.updated("fakeScreenEventResourceId"))
+                }
+            }
+        }
+    }
+
+    given("A job to assign two zaken to a group and a user that is not in that group") {
+        every { identityService.readGroup(group.name) } returns group
+        every { identityService.readUser(user.id) } returns user
+        every { identityService.isUserInGroup(user.id, group.name) } returns false
+        zaakUUIDs.forEach {
+            every { eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(it)) } just runs
+        }
+        every { eventingService.send(ScreenEventType.ZAKEN_VERDELEN.skipped("fakeScreenEventResourceId")) } just runs
+
+        `when`("the job is run") {
+            val execution = assignZakenBulkJobHandler.start(job)
+            val outcomes = execution.process(zaakUUIDs.map { it.toString() })
+            execution.finish(progress)
+
+            then("all zaken are skipped, and the job is reported as skipped") {
+                outcomes.values.forEach { it.status shouldBe BulkJobItemStatus.SKIPPED }
+                verify(exactly = 0) {
+                    zaakService.assignZaakFromList(any(), any(), any(), any(), any())
+                }
+                verify(exactly = 1) {
+                    eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(zaakUUIDs[0]))
+                    eventingService.send(ScreenEventType.ZAAK_ROLLEN.skipped(zaakUUIDs[1]))
+                    eventingService.send(ScreenEventType.ZAKEN_VERDELEN.skipped("fakeScreenEventResourceId"))
+                }
+            }
+        }
+    }
+})
@@ -7,6 +7,7 @@ package net.atos.zac.document
 import rego.v1
 
 import data.net.atos.zac.document.zaaktype_allowed
+import data.net.atos.zac.document.document_rechten_bulk
 import data.net.atos.zac.document.onvergrendeld_of_vergrendeld_door_user
 import data.net.atos.zac.document.lezen
 import data.net.atos.zac.document.wijzigen
@@ -823,3 +824,16 @@ test_converteren_document_not_definitief_fails if {
         with input.user.rollen as ["behandelaar"]
         with input.document.definitief as false
 }
+
+#######################
+# document_rechten_bulk
+#######################
+test_document_rechten_bulk if {
+    result := document_rechten_bulk with input.inputs as [
+        {"user": {"rollen": ["behandelaar"]}, "document": {"definitief": false}},
+        {"user": {"rollen": ["fakeRole"]}, "document": {"definitief": false}}
+    ]
+    count(result.rechten) == 2
+    result.rechten[0].lezen
+    not result.rechten[1].lezen
+}
@@ -7,6 +7,7 @@ package net.atos.zac.taak
 import rego.v1
 
 import data.net.atos.zac.taak.zaaktype_allowed
+import data.net.atos.zac.taak.taak_rechten_bulk
 import data.net.atos.zac.taak.lezen
 import data.net.atos.zac.taak.wijzigen
 import data.net.atos.zac.taak.toekennen
@@ -203,3 +204,16 @@ test_toevoegen_document_wrong_role_fails if {
 test_toevoegen_document_missing_role_fails if {
     not toevoegen_document with input.user.key as "value"
 }
+
+###################
+# taak_rechten_bulk
+###################
+test_taak_rechten_bulk if {
+    result := taak_rechten_bulk with input.inputs as [
+        {"user": {"rollen": ["behandelaar"]}, "taak": {"open": true}},
+        {"user": {"rollen": ["fakeRole"]}, "taak": {"open": true}}
+    ]
+    count(result.rechten) == 2
+    result.rechten[0].lezen
+    not result.rechten[1].lezen
+}
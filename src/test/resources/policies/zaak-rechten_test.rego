@@ -7,6 +7,7 @@ package net.atos.zac.zaak
 import rego.v1
 
 import data.net.atos.zac.zaak.zaaktype_allowed
+import data.net.atos.zac.zaak.zaak_rechten_bulk
 import data.net.atos.zac.zaak.lezen
 import data.net.atos.zac.zaak.wijzigen
 import data.net.atos.zac.zaak.toekennen
@@ -1259,3 +1260,16 @@ test_brondatum_zetten_wrong_role_fails if {
 test_brondatum_zetten_missing_role_fails if {
     not brondatum_zetten with input.user.key as "value"
 }
+
+###################
+# zaak_rechten_bulk
+###################
+test_zaak_rechten_bulk if {
+    result := zaak_rechten_bulk with input.inputs as [
+        {"user": {"rollen": ["behandelaar"]}, "zaak": {"open": true}},
+        {"user": {"rollen": ["fakeRole"]}, "zaak": {"open": true}}
+    ]
+    count(result.rechten) == 2
+    result.rechten[0].lezen
+    not result.rechten[1].lezen
+}